@@ -58,4 +58,12 @@ public class BigIntAccessor extends AbstractSqlAccessor {
   public long getLong(int index) {
     return ac.get(index);
   }
+
+  @Override
+  public String getString(int index) {
+    if (ac.isNull(index)) {
+      return null;
+    }
+    return Long.toString(ac.get(index));
+  }
 }
@@ -57,4 +57,12 @@ public class Float4Accessor extends AbstractSqlAccessor {
   public float getFloat(int index) {
     return ac.get(index);
   }
+
+  @Override
+  public String getString(int index) {
+    if (ac.isNull(index)) {
+      return null;
+    }
+    return Float.toString(ac.get(index));
+  }
 }
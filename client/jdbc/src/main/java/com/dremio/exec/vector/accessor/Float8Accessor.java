@@ -57,4 +57,12 @@ public class Float8Accessor extends AbstractSqlAccessor {
   public double getDouble(int index) {
     return ac.get(index);
   }
+
+  @Override
+  public String getString(int index) {
+    if (ac.isNull(index)) {
+      return null;
+    }
+    return Double.toString(ac.get(index));
+  }
 }
@@ -57,4 +57,12 @@ public class IntAccessor extends AbstractSqlAccessor {
   public int getInt(int index) {
     return ac.get(index);
   }
+
+  @Override
+  public String getString(int index) {
+    if (ac.isNull(index)) {
+      return null;
+    }
+    return Integer.toString(ac.get(index));
+  }
 }
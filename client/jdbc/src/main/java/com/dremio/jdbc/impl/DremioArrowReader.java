@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.jdbc.impl;
+
+import com.dremio.exec.record.RecordBatchLoader;
+import com.dremio.exec.record.VectorWrapper;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.ipc.ArrowReader;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * Columnar view of the results of a {@link DremioCursor}, as returned by {@code
+ * ResultSet.unwrap(ArrowReader.class)}.
+ *
+ * <p>Each call to {@link #loadNextBatch()} loads the next batch received from the server into the
+ * {@link VectorSchemaRoot} without copying: the root's vectors share the buffers of the cursor's
+ * batch holder. Batches without rows are skipped, and the schema can't change between batches.
+ */
+final class DremioArrowReader extends ArrowReader {
+
+  private final DremioCursor cursor;
+
+  private long bytesRead;
+
+  DremioArrowReader(DremioCursor cursor, BufferAllocator allocator) {
+    super(allocator);
+    this.cursor = cursor;
+  }
+
+  @Override
+  public boolean loadNextBatch() throws IOException {
+    prepareLoadNextBatch();
+
+    final RecordBatchLoader batch;
+    try {
+      batch = cursor.nextColumnarBatch();
+    } catch (SQLException e) {
+      throw new IOException(e.getMessage(), e);
+    }
+    if (batch == null) {
+      return false;
+    }
+
+    final List<Field> fields = getVectorSchemaRoot().getSchema().getFields();
+    if (!fields.equals(batch.getSchema().getFields())) {
+      throw new IOException(
+          String.format(
+              "Schema changed from %s to %s, which ArrowReader doesn't support.",
+              getVectorSchemaRoot().getSchema(), batch.getSchema()));
+    }
+
+    final List<FieldVector> vectors = new ArrayList<>(fields.size());
+    for (VectorWrapper<?> wrapper : batch) {
+      vectors.add((FieldVector) wrapper.getValueVector());
+    }
+    // (The source root must not be closed: the vectors belong to the batch holder.)
+    final VectorSchemaRoot source = new VectorSchemaRoot(fields, vectors, batch.getRecordCount());
+    final ArrowRecordBatch recordBatch = new VectorUnloader(source).getRecordBatch();
+    bytesRead += recordBatch.computeBodyLength();
+    loadRecordBatch(recordBatch);
+    return true;
+  }
+
+  @Override
+  public long bytesRead() {
+    return bytesRead;
+  }
+
+  @Override
+  protected void closeReadSource() {
+    // The cursor is owned, and closed, by the result set.
+  }
+
+  @Override
+  protected Schema readSchema() {
+    return cursor.getSchema();
+  }
+}
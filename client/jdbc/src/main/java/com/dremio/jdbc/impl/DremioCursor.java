@@ -29,22 +29,31 @@ import com.dremio.exec.proto.UserProtos.PreparedStatementParameterValue;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.RecordBatchLoader;
 import com.dremio.exec.rpc.ConnectionThrottle;
+import com.dremio.jdbc.InvalidCursorStateSqlException;
 import com.dremio.jdbc.SchemaChangeListener;
 import com.dremio.jdbc.SqlTimeoutException;
 import com.dremio.sabot.rpc.user.QueryDataBatch;
 import com.dremio.sabot.rpc.user.UserResultsListener;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Queues;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.calcite.avatica.AvaticaStatement;
 import org.apache.calcite.avatica.ColumnMetaData;
 import org.apache.calcite.avatica.Meta;
@@ -59,6 +68,16 @@ class DremioCursor implements Cursor {
   public static final String JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD =
       "dremio.jdbc.batch_queue_throttling_threshold";
 
+  /** Whether to decode the next batch in the background while the current one is read. */
+  public static final String JDBC_BATCH_PREFETCH_ENABLED = "dremio.jdbc.batch_prefetch.enabled";
+
+  private static final ExecutorService PREFETCH_EXECUTOR =
+      Executors.newCachedThreadPool(
+          new ThreadFactoryBuilder()
+              .setDaemon(true)
+              .setNameFormat("dremio-jdbc-prefetch-%d")
+              .build());
+
   public static final String IS_CATALOG_NAME = "DREMIO";
   // END_OF_STREAM_MESSAGE gets added to batchQueue to signal the waiting threads
   // that there is no more data in the queue, therefore aborting the operations waiting
@@ -67,6 +86,19 @@ class DremioCursor implements Cursor {
   // throws a NullPointerException.
   public static final QueryDataBatch END_OF_STREAM_MESSAGE = new QueryDataBatch(null, null);
 
+  /** A batch loaded into a holder, or the end of the results when the holder is null. */
+  private static final class FetchedBatch {
+    static final FetchedBatch END = new FetchedBatch(null, false);
+
+    private final RecordBatchLoader loader;
+    private final boolean schemaChanged;
+
+    FetchedBatch(RecordBatchLoader loader, boolean schemaChanged) {
+      this.loader = loader;
+      this.schemaChanged = schemaChanged;
+    }
+  }
+
   ////////////////////////////////////////
   // ResultsListener:
   static class ResultsListener implements UserResultsListener {
@@ -333,7 +365,18 @@ class DremioCursor implements Cursor {
   private final Meta.Signature signature;
 
   /** Holds current batch of records (none before first load). */
-  private final RecordBatchLoader currentBatchHolder;
+  private RecordBatchLoader currentBatchHolder;
+
+  /** Holder the next batch is prefetched into (null until the first prefetch). */
+  private RecordBatchLoader standbyBatchHolder;
+
+  private final boolean prefetchEnabled;
+
+  /** Pending load of the next batch into {@link #standbyBatchHolder}, if any. */
+  private Future<FetchedBatch> prefetch;
+
+  /** Columnar view of the results, once requested (rows can't be read through next() then). */
+  private ArrowReader arrowReader;
 
   private final ResultsListener resultsListener;
   private SchemaChangeListener changeListener;
@@ -386,6 +429,7 @@ class DremioCursor implements Cursor {
         client.getConfig().getInt(JDBC_BATCH_QUEUE_THROTTLING_THRESHOLD);
     resultsListener = new ResultsListener(batchQueueThrottlingThreshold);
     currentBatchHolder = new RecordBatchLoader(client.getRecordAllocator());
+    prefetchEnabled = client.getConfig().getBoolean(JDBC_BATCH_PREFETCH_ENABLED);
   }
 
   protected int getCurrentRecordNumber() {
@@ -424,7 +468,26 @@ class DremioCursor implements Cursor {
       connection.getClient().cancelQuery(resultsListener.getQueryId());
     }
     resultsListener.close();
+    if (prefetch != null) {
+      // (Closing the listener ends the stream, so the prefetch completes promptly.)
+      try {
+        Futures.getUninterruptibly(prefetch);
+      } catch (ExecutionException e) {
+        logger.debug("Batch prefetch failed during cleanup", e);
+      }
+      prefetch = null;
+    }
+    if (arrowReader != null) {
+      try {
+        arrowReader.close();
+      } catch (IOException e) {
+        logger.debug("Failed to close ArrowReader during cleanup", e);
+      }
+    }
     currentBatchHolder.clear();
+    if (standbyBatchHolder != null) {
+      standbyBatchHolder.clear();
+    }
   }
 
   /** Updates column accessors and metadata from current record batch. */
@@ -471,80 +534,208 @@ class DremioCursor implements Cursor {
     } else {
       // No (more) records in any current batch--try to get first or next batch.
       // (First call always takes this branch.)
+      if (!nextBatch()) {
+        return false;
+      }
+      if (returnTrueForNextCallToNext && currentBatchHolder.getRecordCount() == 0) {
+        returnTrueForNextCallToNext = false;
+      }
+      return true;
+    }
+  }
 
-      try {
-        QueryDataBatch qrb = resultsListener.getNext();
+  /**
+   * Makes the first or next batch current, taking it from the pending prefetch if there is one,
+   * and starts prefetching the batch after it.
+   *
+   * @return whether a batch was loaded (false when after end of results)
+   */
+  private boolean nextBatch() throws SQLException {
+    try {
+      final FetchedBatch batch;
+      if (prefetch != null) {
+        batch = awaitPrefetch();
+      } else {
+        batch = fetchBatch(currentBatchHolder, afterFirstBatch);
+      }
 
-        // (Apparently:)  Skip any spurious empty batches (batches that have
-        // zero rows and/or null data, other than the first batch (which carries
-        // the (initial) schema but no rows)).
-        if (afterFirstBatch) {
-          while (qrb != null && (qrb.getHeader().getRowCount() == 0 || qrb.getData() == null)) {
-            // Empty message--dispose of and try to get another.
-            logger.warn("Spurious batch read: {}", qrb);
+      afterFirstBatch = true;
 
-            qrb.release();
+      if (batch.loader == null) {
+        // End of batches--clean up, set state to done, report after last row.
 
-            qrb = resultsListener.getNext();
-          }
+        currentBatchHolder.clear(); // (We load it so we clear it.)
+        if (standbyBatchHolder != null) {
+          standbyBatchHolder.clear();
         }
+        afterLastRow = true;
+        return false;
+      }
 
-        afterFirstBatch = true;
+      // Got next (or first) batch--reset record offset to beginning;
+      // assimilate schema if changed.
 
-        if (qrb == null) {
-          // End of batches--clean up, set state to done, report after last row.
+      currentRecordNumber = 0;
 
-          currentBatchHolder.clear(); // (We load it so we clear it.)
-          afterLastRow = true;
-          return false;
-        } else {
-          // Got next (or first) batch--reset record offset to beginning;
-          // assimilate schema if changed; set up return value for first call
-          // to next().
+      boolean schemaChanged = batch.schemaChanged;
+      final boolean swapped = batch.loader != currentBatchHolder;
+      if (swapped) {
+        // The prefetch loaded into the standby holder; the holder it replaces
+        // becomes the target of the next prefetch.
+        standbyBatchHolder = currentBatchHolder;
+        currentBatchHolder = batch.loader;
+        schemaChanged = schemaChanged || !currentBatchHolder.getSchema().equals(schema);
+      }
+      schema = currentBatchHolder.getSchema();
+      if (schemaChanged) {
+        updateColumns();
+      } else if (swapped) {
+        // Same columns, but the accessors still point at the other holder's vectors.
+        accessors.generateAccessors(this, currentBatchHolder, this.connection.getTimeZone());
+      }
+
+      startPrefetch();
+      return true;
+    } catch (UserException e) {
+      // A normally expected case--for any server-side error (e.g., syntax
+      // error in SQL statement).
+      // Construct SQLException with message text from the UserException.
+      // TODO:  Map UserException error type to SQLException subclass (once
+      // error type is accessible, of course. :-( )
+      throw new SQLException(e.getMessage(), e);
+    } catch (TimeoutException e) {
+      throw new SqlTimeoutException(
+          String.format(
+              "Cancelled after expiration of timeout of %d seconds.", statement.getQueryTimeout()),
+          e);
+    } catch (InterruptedException e) {
+      // Not normally expected--Dremio doesn't interrupt in this area (right?)--
+      // but JDBC client certainly could.
+      throw new SQLException("Interrupted.", e);
+    } catch (SchemaChangeException e) {
+      // TODO:  Clean:  DRILL-2933:  RecordBatchLoader.load(...) no longer
+      // throws SchemaChangeException, so check/clean catch clause.
+      throw new SQLException("Unexpected SchemaChangeException from RecordBatchLoader.load(...)");
+    } catch (RuntimeException e) {
+      throw new SQLException("Unexpected RuntimeException: " + e.toString(), e);
+    }
+  }
+
+  /**
+   * Takes the next batch from the results listener and loads it into the given holder.
+   *
+   * <p>Runs on the prefetch thread when prefetching, so must not touch any cursor state other than
+   * the results listener and the given holder.
+   *
+   * @param skipEmptyBatches whether to skip spurious empty batches (all but the first batch)
+   */
+  private FetchedBatch fetchBatch(RecordBatchLoader holder, boolean skipEmptyBatches)
+      throws UserException, TimeoutException, InterruptedException {
+    QueryDataBatch qrb = resultsListener.getNext();
 
-          currentRecordNumber = 0;
+    // (Apparently:)  Skip any spurious empty batches (batches that have
+    // zero rows and/or null data, other than the first batch (which carries
+    // the (initial) schema but no rows)).
+    if (skipEmptyBatches) {
+      while (qrb != null && (qrb.getHeader().getRowCount() == 0 || qrb.getData() == null)) {
+        // Empty message--dispose of and try to get another.
+        logger.warn("Spurious batch read: {}", qrb);
 
-          final boolean schemaChanged;
-          try {
-            schemaChanged = currentBatchHolder.load(qrb.getHeader().getDef(), qrb.getData());
-          } finally {
-            qrb.release();
-          }
-          schema = currentBatchHolder.getSchema();
-          if (schemaChanged) {
-            updateColumns();
-          }
+        qrb.release();
 
-          if (returnTrueForNextCallToNext && currentBatchHolder.getRecordCount() == 0) {
-            returnTrueForNextCallToNext = false;
-          }
-          return true;
-        }
-      } catch (UserException e) {
-        // A normally expected case--for any server-side error (e.g., syntax
-        // error in SQL statement).
-        // Construct SQLException with message text from the UserException.
-        // TODO:  Map UserException error type to SQLException subclass (once
-        // error type is accessible, of course. :-( )
-        throw new SQLException(e.getMessage(), e);
-      } catch (TimeoutException e) {
-        throw new SqlTimeoutException(
-            String.format(
-                "Cancelled after expiration of timeout of %d seconds.",
-                statement.getQueryTimeout()),
-            e);
-      } catch (InterruptedException e) {
-        // Not normally expected--Dremio doesn't interrupt in this area (right?)--
-        // but JDBC client certainly could.
-        throw new SQLException("Interrupted.", e);
-      } catch (SchemaChangeException e) {
-        // TODO:  Clean:  DRILL-2933:  RecordBatchLoader.load(...) no longer
-        // throws SchemaChangeException, so check/clean catch clause.
-        throw new SQLException("Unexpected SchemaChangeException from RecordBatchLoader.load(...)");
-      } catch (RuntimeException e) {
-        throw new SQLException("Unexpected RuntimeException: " + e.toString(), e);
+        qrb = resultsListener.getNext();
       }
     }
+
+    if (qrb == null) {
+      return FetchedBatch.END;
+    }
+
+    final boolean schemaChanged;
+    try {
+      schemaChanged = holder.load(qrb.getHeader().getDef(), qrb.getData());
+    } finally {
+      qrb.release();
+    }
+    return new FetchedBatch(holder, schemaChanged);
+  }
+
+  /** Starts decoding the next batch into the standby holder while the caller reads this one. */
+  private void startPrefetch() {
+    if (!prefetchEnabled || afterLastRow) {
+      return;
+    }
+    if (standbyBatchHolder == null) {
+      standbyBatchHolder = new RecordBatchLoader(connection.getClient().getRecordAllocator());
+    }
+    final RecordBatchLoader holder = standbyBatchHolder;
+    prefetch = PREFETCH_EXECUTOR.submit(() -> fetchBatch(holder, true));
+  }
+
+  private FetchedBatch awaitPrefetch()
+      throws UserException, TimeoutException, InterruptedException {
+    // (Leave the prefetch pending if interrupted, so that cleanup() still waits for it.)
+    try {
+      final FetchedBatch batch = prefetch.get();
+      prefetch = null;
+      return batch;
+    } catch (ExecutionException e) {
+      prefetch = null;
+      final Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof TimeoutException) {
+        throw (TimeoutException) cause;
+      } else if (cause instanceof InterruptedException) {
+        throw (InterruptedException) cause;
+      }
+      throw new RuntimeException(cause);
+    }
+  }
+
+  /**
+   * Returns the reader exposing this cursor's batches in Arrow format.
+   *
+   * <p>Can be obtained only before the first call to {@link #next()}; once obtained, rows can no
+   * longer be read through {@link #next()}.
+   */
+  synchronized ArrowReader getArrowReader() throws SQLException {
+    if (arrowReader == null) {
+      if (!isBeforeFirst()) {
+        throw new InvalidCursorStateSqlException(
+            "ArrowReader must be obtained before the first call to next()");
+      }
+      arrowReader = new DremioArrowReader(this, connection.getClient().getRecordAllocator());
+    }
+    return arrowReader;
+  }
+
+  /** Schema of the results, as loaded by {@link #loadInitialSchema()}. */
+  BatchSchema getSchema() {
+    return schema;
+  }
+
+  /**
+   * Advances to the next batch having rows, for {@link DremioArrowReader}.
+   *
+   * @return the holder of that batch, or null when after end of results
+   */
+  RecordBatchLoader nextColumnarBatch() throws SQLException {
+    if (returnTrueForNextCallToNext) {
+      // The first batch was loaded by loadInitialSchema() and is not consumed yet.
+      returnTrueForNextCallToNext = false;
+      if (currentBatchHolder.getRecordCount() > 0) {
+        currentRecordNumber = currentBatchHolder.getRecordCount() - 1;
+        return currentBatchHolder;
+      }
+    }
+    while (!afterLastRow) {
+      if (nextBatch() && currentBatchHolder.getRecordCount() > 0) {
+        currentRecordNumber = currentBatchHolder.getRecordCount() - 1;
+        return currentBatchHolder;
+      }
+    }
+    return null;
   }
 
   /**
@@ -631,6 +822,10 @@ class DremioCursor implements Cursor {
       throw new IllegalStateException("next() called but loadInitialSchema() was not called");
     }
     assert afterFirstBatch : "afterFirstBatch still false in next()";
+    if (arrowReader != null) {
+      throw new InvalidCursorStateSqlException(
+          "Rows of this result set are being read through its ArrowReader");
+    }
 
     if (afterLastRow) {
       // We're already after end of rows/records--just report that after end.
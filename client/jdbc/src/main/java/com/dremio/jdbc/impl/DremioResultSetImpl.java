@@ -43,6 +43,7 @@ import java.sql.Types;
 import java.util.Calendar;
 import java.util.Map;
 import java.util.TimeZone;
+import org.apache.arrow.vector.ipc.ArrowReader;
 import org.apache.calcite.avatica.AvaticaResultSet;
 import org.apache.calcite.avatica.AvaticaSite;
 import org.apache.calcite.avatica.AvaticaStatement;
@@ -116,8 +117,31 @@ class DremioResultSetImpl extends AvaticaResultSet implements DremioResultSet {
   ////////////////////////////////////////
   // ResultSet-defined methods (in same order as in ResultSet):
 
-  // No isWrapperFor(Class<?>) (it doesn't throw SQLException if already closed).
-  // No unwrap(Class<T>) (it doesn't throw SQLException if already closed).
+  // (isWrapperFor(Class<?>) and unwrap(Class<T>) don't throw SQLException if
+  // already closed, except when unwrapping to ArrowReader.)
+
+  @Override
+  public boolean isWrapperFor(Class<?> iface) throws SQLException {
+    return (iface == ArrowReader.class && cursor instanceof DremioCursor)
+        || super.isWrapperFor(iface);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>Also accepts {@link ArrowReader}, for reading the results batch by batch as Arrow vectors
+   * rather than row by row. The reader must be obtained before the first call to {@link #next()},
+   * and rows can't be read through {@link #next()} once it has been. It's closed along with this
+   * result set.
+   */
+  @Override
+  public <T> T unwrap(Class<T> iface) throws SQLException {
+    if (iface == ArrowReader.class && cursor instanceof DremioCursor) {
+      throwIfClosed();
+      return iface.cast(((DremioCursor) cursor).getArrowReader());
+    }
+    return super.unwrap(iface);
+  }
 
   // (Not delegated.)
   @Override
@@ -21,6 +21,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowReader;
 import org.junit.Test;
 
 public class DremioResultSetTest extends JdbcWithServerTestBase {
@@ -99,6 +101,44 @@ public class DremioResultSetTest extends JdbcWithServerTestBase {
     assertThat(resultSet.getRow()).isEqualTo(0);
   }
 
+  @Test
+  public void test_unwrap_readsBatchesAsArrow() throws Exception {
+    Statement statement = getConnection().createStatement();
+    ResultSet resultSet =
+        statement.executeQuery("SELECT 1 AS x FROM cp.\"donuts.json\" LIMIT 3");
+
+    assertThat(resultSet.isWrapperFor(ArrowReader.class)).isTrue();
+    ArrowReader reader = resultSet.unwrap(ArrowReader.class);
+    assertThat(reader.getVectorSchemaRoot().getSchema().getFields()).hasSize(1);
+
+    long rows = 0;
+    while (reader.loadNextBatch()) {
+      VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      for (int i = 0; i < root.getRowCount(); i++) {
+        assertThat(((Number) root.getVector(0).getObject(i)).intValue()).isEqualTo(1);
+      }
+      rows += root.getRowCount();
+    }
+    assertThat(rows).isEqualTo(3);
+    assertThat(reader.loadNextBatch()).isFalse();
+
+    // Rows can no longer be read through next():
+    assertThatThrownBy(resultSet::next).isInstanceOf(InvalidCursorStateSqlException.class);
+
+    resultSet.close();
+  }
+
+  @Test
+  public void test_unwrap_rejectsArrowAfterNext() throws Exception {
+    Statement statement = getConnection().createStatement();
+    ResultSet resultSet = statement.executeQuery("VALUES (1), (2)");
+
+    assertThat(resultSet.next()).isTrue();
+    assertThatThrownBy(() -> resultSet.unwrap(ArrowReader.class))
+        .isInstanceOf(InvalidCursorStateSqlException.class)
+        .hasMessageContaining("before the first call to next()");
+  }
+
   // TODO:  Ideally, test other methods.
 
 }
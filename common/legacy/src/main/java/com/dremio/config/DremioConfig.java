@@ -110,6 +110,8 @@ public class DremioConfig extends NestedConfig {
 
   public static final String PLAN_CACHE_MAX_ENTRIES = "dremio.plan.cache.max_entries";
 
+  public static final String PLAN_CACHE_SHARED_BOOL = "dremio.plan.cache.shared";
+
   /** config values related to partition stats caching */
   public static final String PARTITION_STATS_CACHE_TTL =
       "dremio.partition.stats.cache.timeout_seconds";
@@ -134,6 +136,8 @@ public class DremioConfig extends NestedConfig {
   public static final String FLIGHT_SERVICE_ENABLED_BOOLEAN = "services.flight.enabled";
   public static final String FLIGHT_SERVICE_PORT_INT = "services.flight.port";
   public static final String FLIGHT_SERVICE_AUTHENTICATION_MODE = "services.flight.auth.mode";
+  public static final String FLIGHT_EXECUTOR_ENABLED_BOOLEAN = "services.flight.executor.enabled";
+  public static final String FLIGHT_EXECUTOR_PORT_INT = "services.flight.executor.port";
   // Session manager configuration
   public static final String FLIGHT_USE_SESSION_SERVICE = "services.flight.use_session_service";
 
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.io;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decorator over AsyncByteReader hedging slow reads.
+ *
+ * <p>A read still outstanding after the hedge delay of the {@link HedgingPolicy} of its source is
+ * issued a second time, and whichever completes first completes the read. Once the policy has a
+ * hedge delay, both attempts read into buffers of their own, and the winner is copied into the
+ * destination buffer before the read completes, so that the caller may reuse or release it while
+ * the other attempt is still in flight. Each attempt releases its buffer when it completes.
+ */
+public class HedgedAsyncByteReader extends ReusableAsyncByteReader {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(HedgedAsyncByteReader.class);
+
+  public static final String HEDGES_STAT = "hedged_reads";
+  public static final String HEDGE_WINS_STAT = "hedge_wins";
+
+  private static final ScheduledThreadPoolExecutor delayer;
+
+  static {
+    delayer =
+        new ScheduledThreadPoolExecutor(
+            1, new ThreadFactoryBuilder().setDaemon(true).setNameFormat("hedgeAfter-%d").build());
+    // remove cancelled tasks from the queue to reduce heap usage.
+    delayer.setRemoveOnCancelPolicy(true);
+  }
+
+  private final AsyncByteReader inner;
+  private final HedgingPolicy policy;
+  private final AtomicLong numHedges = new AtomicLong();
+  private final AtomicLong numHedgeWins = new AtomicLong();
+
+  public HedgedAsyncByteReader(AsyncByteReader inner, HedgingPolicy policy) {
+    this.inner = inner;
+    this.policy = policy;
+  }
+
+  /** Wraps the reader if hedging is enabled for its source, i.e. if the policy is not null. */
+  public static AsyncByteReader wrap(AsyncByteReader inner, HedgingPolicy policy) {
+    return policy == null ? inner : new HedgedAsyncByteReader(inner, policy);
+  }
+
+  @Override
+  public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+    policy.recordRead();
+    final long delayMillis = policy.getHedgeDelayMillis();
+    if (delayMillis < 0) {
+      return timed(inner.readFully(offset, dst, dstOffset, len));
+    }
+
+    final HedgedRead read = new HedgedRead(offset, dst, dstOffset, len);
+    read.attempt(false);
+    read.schedule(delayMillis);
+    return read.result;
+  }
+
+  private CompletableFuture<Void> timed(CompletableFuture<Void> read) {
+    final long start = System.nanoTime();
+    return read.whenComplete(
+        (v, e) -> {
+          if (e == null) {
+            policy.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+          }
+        });
+  }
+
+  /** The state of a read which may be hedged. */
+  private final class HedgedRead {
+    private final long offset;
+    private final ByteBuf dst;
+    private final int dstOffset;
+    private final int len;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+
+    // guarded by this
+    private boolean done;
+    // the primary attempt is issued when the read is created
+    private int outstanding = 1;
+    private Throwable primaryFailure;
+    private ScheduledFuture<?> hedgeTask;
+
+    private HedgedRead(long offset, ByteBuf dst, int dstOffset, int len) {
+      this.offset = offset;
+      this.dst = dst;
+      this.dstOffset = dstOffset;
+      this.len = len;
+    }
+
+    private synchronized void schedule(long delayMillis) {
+      if (!done) {
+        hedgeTask = delayer.schedule(this::hedge, delayMillis, TimeUnit.MILLISECONDS);
+      }
+    }
+
+    private void hedge() {
+      synchronized (this) {
+        if (done || !policy.tryAcquireHedge()) {
+          return;
+        }
+        outstanding++;
+      }
+      numHedges.incrementAndGet();
+      logger.debug("Hedging read of {} bytes at offset {} of {}", len, offset, policy.getSource());
+      attempt(true);
+    }
+
+    /** Reads into a buffer of the attempt, which is released once the attempt completes. */
+    private void attempt(boolean isHedge) {
+      final ByteBuf buf = Unpooled.directBuffer(len);
+      final CompletableFuture<Void> read;
+      try {
+        read = timed(inner.readFully(offset, buf, 0, len));
+      } catch (RuntimeException e) {
+        onAttemptComplete(isHedge, buf, e);
+        if (isHedge) {
+          return;
+        }
+        throw e;
+      }
+      read.whenComplete((v, e) -> onAttemptComplete(isHedge, buf, e));
+    }
+
+    private void onAttemptComplete(boolean isHedge, ByteBuf buf, Throwable failure) {
+      boolean won = false;
+      final Throwable outcome;
+      try {
+        synchronized (this) {
+          outstanding--;
+          if (!isHedge && hedgeTask != null) {
+            hedgeTask.cancel(false);
+          }
+          if (done) {
+            return;
+          }
+          if (failure == null) {
+            dst.setBytes(dstOffset, buf, 0, len);
+            won = isHedge;
+            outcome = null;
+          } else {
+            if (!isHedge) {
+              primaryFailure = failure;
+            }
+            if (outstanding > 0) {
+              // wait for the other attempt
+              return;
+            }
+            outcome = primaryFailure != null ? primaryFailure : failure;
+          }
+          done = true;
+        }
+      } finally {
+        buf.release();
+        if (isHedge) {
+          policy.releaseHedge();
+        }
+      }
+      if (won) {
+        numHedgeWins.incrementAndGet();
+      }
+      if (outcome == null) {
+        result.complete(null);
+      } else {
+        result.completeExceptionally(outcome);
+      }
+    }
+  }
+
+  @Override
+  public CompletableFuture<Void> checkVersion(String version) {
+    return inner.checkVersion(version);
+  }
+
+  @Override
+  protected void onClose() throws Exception {
+    inner.close();
+  }
+
+  @Override
+  public List<ReaderStat> getStats() {
+    final List<ReaderStat> stats = new ArrayList<>(inner.getStats());
+    stats.add(new ReaderStat(HEDGES_STAT, numHedges.get()));
+    stats.add(new ReaderStat(HEDGE_WINS_STAT, numHedgeWins.get()));
+    return stats;
+  }
+}
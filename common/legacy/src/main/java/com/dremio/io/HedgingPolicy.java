@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.io;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Decides when the reads of a source, such as an object store bucket or account, are hedged by
+ * {@link HedgedAsyncByteReader}.
+ *
+ * <p>The hedge delay is a percentile of the latencies of the last {@link #WINDOW_SIZE} successful
+ * reads of the source, bounded below by a minimum delay. No read is hedged until {@link
+ * #MIN_SAMPLES} latencies have been observed. Hedges are capped to a ratio of the reads of the
+ * source, and to a number of hedges in flight at once.
+ */
+public final class HedgingPolicy {
+  public static final String ENABLED = "dremio.async.hedging.enabled";
+  public static final String PERCENTILE = "dremio.async.hedging.percentile";
+  public static final String MIN_DELAY_MS = "dremio.async.hedging.min_delay_ms";
+  public static final String MAX_HEDGE_RATIO = "dremio.async.hedging.max_ratio";
+  public static final String MAX_OUTSTANDING_HEDGES = "dremio.async.hedging.max_outstanding";
+
+  static final int WINDOW_SIZE = 1024;
+  static final int MIN_SAMPLES = 100;
+  // the percentile is recomputed after this many new latencies
+  private static final int RECOMPUTE_INTERVAL = 64;
+
+  private final String source;
+  private final double percentile;
+  private final long minDelayMillis;
+  private final double maxHedgeRatio;
+  private final int maxOutstandingHedges;
+
+  private final long[] latencies = new long[WINDOW_SIZE];
+  private int numLatencies;
+  private int nextLatency;
+  private int sinceRecompute;
+  private volatile long delayMillis = -1;
+
+  private final AtomicLong numReads = new AtomicLong();
+  private final AtomicLong numHedges = new AtomicLong();
+  private final AtomicInteger outstandingHedges = new AtomicInteger();
+
+  public HedgingPolicy(
+      String source,
+      double percentile,
+      long minDelayMillis,
+      double maxHedgeRatio,
+      int maxOutstandingHedges) {
+    Preconditions.checkArgument(
+        percentile > 0 && percentile < 1, "Hedging percentile must be in (0, 1)");
+    Preconditions.checkArgument(minDelayMillis >= 0, "Minimum hedge delay must not be negative");
+    this.source = source;
+    this.percentile = percentile;
+    this.minDelayMillis = minDelayMillis;
+    this.maxHedgeRatio = maxHedgeRatio;
+    this.maxOutstandingHedges = maxOutstandingHedges;
+  }
+
+  /**
+   * Creates the policy of a source from its configuration properties. Hedging is off unless {@link
+   * #ENABLED} is set to true.
+   *
+   * @param properties looks up a property, returning null if it is not set
+   * @return the policy, or null if hedging is disabled for the source
+   */
+  public static HedgingPolicy fromProperties(String source, Function<String, String> properties) {
+    if (!Boolean.parseBoolean(valueOf(properties, ENABLED, "false"))) {
+      return null;
+    }
+    return new HedgingPolicy(
+        source,
+        Double.parseDouble(valueOf(properties, PERCENTILE, "0.95")),
+        Long.parseLong(valueOf(properties, MIN_DELAY_MS, "50")),
+        Double.parseDouble(valueOf(properties, MAX_HEDGE_RATIO, "0.05")),
+        Integer.parseInt(valueOf(properties, MAX_OUTSTANDING_HEDGES, "16")));
+  }
+
+  private static String valueOf(
+      Function<String, String> properties, String key, String defaultValue) {
+    final String value = properties.apply(key);
+    return value == null || value.trim().isEmpty() ? defaultValue : value.trim();
+  }
+
+  /** Returns how long to wait for a read before hedging it, or -1 if it should not be hedged. */
+  long getHedgeDelayMillis() {
+    return delayMillis;
+  }
+
+  void recordRead() {
+    numReads.incrementAndGet();
+  }
+
+  synchronized void recordLatency(long millis) {
+    latencies[nextLatency] = millis;
+    nextLatency = (nextLatency + 1) % WINDOW_SIZE;
+    numLatencies = Math.min(numLatencies + 1, WINDOW_SIZE);
+    if (numLatencies >= MIN_SAMPLES
+        && (delayMillis < 0 || ++sinceRecompute >= RECOMPUTE_INTERVAL)) {
+      sinceRecompute = 0;
+      final long[] sorted = Arrays.copyOf(latencies, numLatencies);
+      Arrays.sort(sorted);
+      // nearest-rank percentile
+      final int index = Math.max(0, (int) Math.ceil(percentile * numLatencies) - 1);
+      delayMillis = Math.max(minDelayMillis, sorted[index]);
+    }
+  }
+
+  /** Takes a hedge out of the budget of the source, returning false if it is exhausted. */
+  boolean tryAcquireHedge() {
+    if (numHedges.get() + 1 > maxHedgeRatio * numReads.get()) {
+      return false;
+    }
+    if (outstandingHedges.incrementAndGet() > maxOutstandingHedges) {
+      outstandingHedges.decrementAndGet();
+      return false;
+    }
+    numHedges.incrementAndGet();
+    return true;
+  }
+
+  void releaseHedge() {
+    outstandingHedges.decrementAndGet();
+  }
+
+  public String getSource() {
+    return source;
+  }
+
+  @VisibleForTesting
+  long getNumReads() {
+    return numReads.get();
+  }
+
+  @VisibleForTesting
+  long getNumHedges() {
+    return numHedges.get();
+  }
+
+  @VisibleForTesting
+  int getOutstandingHedges() {
+    return outstandingHedges.get();
+  }
+}
@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.google.common.collect.ImmutableMap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+/** Test for {@link HedgedAsyncByteReader} and {@link HedgingPolicy} */
+public class HedgedAsyncByteReaderTest {
+  private static final byte[] DATA = bytes(100);
+
+  @Test
+  public void testPolicyFromProperties() {
+    // off by default
+    assertNull(HedgingPolicy.fromProperties("s3", key -> null));
+    assertNull(
+        HedgingPolicy.fromProperties("s3", ImmutableMap.of(HedgingPolicy.ENABLED, "false")::get));
+    final HedgingPolicy policy =
+        HedgingPolicy.fromProperties("s3", ImmutableMap.of(HedgingPolicy.ENABLED, "true")::get);
+    assertEquals("s3", policy.getSource());
+    assertEquals(-1, policy.getHedgeDelayMillis());
+  }
+
+  @Test
+  public void testDelayIsPercentileOfRecentLatencies() {
+    final HedgingPolicy policy = new HedgingPolicy("s3", 0.9, 5, 1, 1);
+    for (int i = 1; i < HedgingPolicy.MIN_SAMPLES; i++) {
+      policy.recordLatency(i);
+    }
+    assertEquals(-1, policy.getHedgeDelayMillis());
+
+    policy.recordLatency(HedgingPolicy.MIN_SAMPLES);
+    assertEquals(90, policy.getHedgeDelayMillis());
+
+    // older latencies are evicted, bounded by the minimum delay
+    for (int i = 0; i < HedgingPolicy.WINDOW_SIZE; i++) {
+      policy.recordLatency(1);
+    }
+    assertEquals(5, policy.getHedgeDelayMillis());
+  }
+
+  @Test
+  public void testNotHedgedBeforeWarmUp() throws Exception {
+    final SourceReader source = new SourceReader();
+    final HedgingPolicy policy = new HedgingPolicy("s3", 0.5, 0, 1, 1);
+    final AsyncByteReader reader = HedgedAsyncByteReader.wrap(source, policy);
+
+    final ByteBuf dst = Unpooled.buffer(10);
+    final CompletableFuture<Void> read = reader.readFully(10, dst, 0, 10);
+    Thread.sleep(50);
+    assertEquals(1, source.reads.size());
+    source.complete(0);
+    read.get();
+    assertEquals(1, dst.refCnt());
+    assertEquals(0, policy.getNumHedges());
+  }
+
+  @Test
+  public void testSlowReadIsHedged() throws Exception {
+    final SourceReader source = new SourceReader();
+    final HedgingPolicy policy = warmedUp(1);
+    final AsyncByteReader reader = HedgedAsyncByteReader.wrap(source, policy);
+
+    final ByteBuf dst = Unpooled.buffer(10);
+    final CompletableFuture<Void> read = reader.readFully(10, dst, 0, 10);
+    source.awaitReads(2);
+    assertEquals(source.reads.get(0).offset, source.reads.get(1).offset);
+    assertFalse(read.isDone());
+
+    // both attempts read into buffers of their own
+    assertNotSame(dst, source.reads.get(0).dst);
+    assertNotSame(dst, source.reads.get(1).dst);
+
+    // the hedge wins
+    source.complete(1);
+    read.get(5, TimeUnit.SECONDS);
+    assertArrayEquals(Arrays.copyOfRange(DATA, 10, 20), copy(dst));
+    assertEquals(1, dst.refCnt());
+    assertEquals(0, source.reads.get(1).dst.refCnt());
+
+    // the original read no longer touches the destination buffer
+    dst.setZero(0, 10);
+    source.complete(0);
+    assertArrayEquals(new byte[10], copy(dst));
+    assertEquals(0, source.reads.get(0).dst.refCnt());
+
+    assertEquals(1, policy.getNumHedges());
+    assertEquals(0, policy.getOutstandingHedges());
+    final List<AsyncByteReader.ReaderStat> stats = reader.getStats();
+    assertEquals(HedgedAsyncByteReader.HEDGES_STAT, stats.get(0).getName());
+    assertEquals(1, stats.get(0).getValue(), 0);
+    assertEquals(HedgedAsyncByteReader.HEDGE_WINS_STAT, stats.get(1).getName());
+    assertEquals(1, stats.get(1).getValue(), 0);
+  }
+
+  @Test
+  public void testHedgeCoversFailedRead() throws Exception {
+    final SourceReader source = new SourceReader();
+    final HedgingPolicy policy = warmedUp(1);
+    final AsyncByteReader reader = HedgedAsyncByteReader.wrap(source, policy);
+
+    final ByteBuf dst = Unpooled.buffer(10);
+    final CompletableFuture<Void> read = reader.readFully(30, dst, 0, 10);
+    source.awaitReads(2);
+    source.fail(0, new IOException("failed"));
+    assertFalse(read.isDone());
+    source.complete(1);
+    read.get(5, TimeUnit.SECONDS);
+    assertArrayEquals(Arrays.copyOfRange(DATA, 30, 40), copy(dst));
+    assertEquals(1, dst.refCnt());
+    assertEquals(0, source.reads.get(0).dst.refCnt());
+    assertEquals(0, source.reads.get(1).dst.refCnt());
+  }
+
+  @Test
+  public void testBothFailing() throws Exception {
+    final SourceReader source = new SourceReader();
+    final AsyncByteReader reader = HedgedAsyncByteReader.wrap(source, warmedUp(1));
+
+    final CompletableFuture<Void> read = reader.readFully(30, Unpooled.buffer(10), 0, 10);
+    source.awaitReads(2);
+    final IOException failure = new IOException("primary");
+    source.fail(1, new IOException("hedge"));
+    source.fail(0, failure);
+    try {
+      read.get(5, TimeUnit.SECONDS);
+    } catch (ExecutionException e) {
+      assertSame(failure, e.getCause());
+      return;
+    }
+    throw new AssertionError("Expected the read to fail");
+  }
+
+  @Test
+  public void testHedgeBudget() throws Exception {
+    final SourceReader source = new SourceReader();
+    // no more than one hedge for 1000 reads
+    final HedgingPolicy policy = warmedUp(0.001);
+    final AsyncByteReader reader = HedgedAsyncByteReader.wrap(source, policy);
+    for (int i = 0; i < 999; i++) {
+      policy.recordRead();
+    }
+
+    final CompletableFuture<Void> first = reader.readFully(0, Unpooled.buffer(10), 0, 10);
+    source.awaitReads(2);
+    final CompletableFuture<Void> second = reader.readFully(0, Unpooled.buffer(10), 0, 10);
+    Thread.sleep(50);
+    assertEquals(3, source.reads.size());
+    assertEquals(1, policy.getNumHedges());
+    assertEquals(1001, policy.getNumReads());
+
+    source.complete(0);
+    source.complete(1);
+    source.complete(2);
+    first.get();
+    second.get();
+  }
+
+  private static HedgingPolicy warmedUp(double maxHedgeRatio) {
+    final HedgingPolicy policy = new HedgingPolicy("s3", 0.5, 0, maxHedgeRatio, 4);
+    for (int i = 0; i < HedgingPolicy.MIN_SAMPLES + 64; i++) {
+      policy.recordLatency(1);
+    }
+    return policy;
+  }
+
+  private static byte[] copy(ByteBuf buf) {
+    final byte[] bytes = new byte[buf.capacity()];
+    buf.getBytes(0, bytes);
+    return bytes;
+  }
+
+  private static byte[] bytes(int length) {
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  /** Reads from {@link #DATA}, completing the reads on demand. */
+  private static final class SourceReader implements AsyncByteReader {
+    private final List<Read> reads = new ArrayList<>();
+
+    @Override
+    public synchronized CompletableFuture<Void> readFully(
+        long offset, ByteBuf dst, int dstOffset, int len) {
+      final Read read = new Read(offset, dst, dstOffset, len);
+      reads.add(read);
+      notifyAll();
+      return read.future;
+    }
+
+    private synchronized void awaitReads(int count) throws InterruptedException {
+      final long deadline = System.currentTimeMillis() + 5000;
+      while (reads.size() < count && System.currentTimeMillis() < deadline) {
+        wait(100);
+      }
+      assertEquals(count, reads.size());
+    }
+
+    private void complete(int index) {
+      final Read read;
+      synchronized (this) {
+        read = reads.get(index);
+      }
+      read.dst.setBytes(read.dstOffset, DATA, (int) read.offset, read.len);
+      read.future.complete(null);
+    }
+
+    private void fail(int index, Throwable t) {
+      final Read read;
+      synchronized (this) {
+        read = reads.get(index);
+      }
+      read.future.completeExceptionally(t);
+    }
+  }
+
+  private static final class Read {
+    private final long offset;
+    private final ByteBuf dst;
+    private final int dstOffset;
+    private final int len;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+    private Read(long offset, ByteBuf dst, int dstOffset, int len) {
+      this.offset = offset;
+      this.dst = dst;
+      this.dstOffset = dstOffset;
+      this.len = len;
+    }
+  }
+}
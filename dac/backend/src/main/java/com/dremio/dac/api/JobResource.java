@@ -33,6 +33,7 @@ import com.dremio.service.job.JobSummaryRequest;
 import com.dremio.service.job.ReflectionJobDetailsRequest;
 import com.dremio.service.job.proto.JobId;
 import com.dremio.service.job.proto.JobProtobuf;
+import com.dremio.service.jobs.JobDataClientUtils;
 import com.dremio.service.jobs.JobException;
 import com.dremio.service.jobs.JobNotFoundException;
 import com.dremio.service.jobs.JobsProtoUtil;
@@ -42,6 +43,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.instrumentation.annotations.WithSpan;
+import java.util.Locale;
 import javax.annotation.security.RolesAllowed;
 import javax.inject.Inject;
 import javax.validation.Valid;
@@ -55,7 +57,11 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.StreamingOutput;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionUtil;
 
 /** Jobs API resource */
 @APIResource
@@ -65,6 +71,8 @@ import javax.ws.rs.core.SecurityContext;
 @Consumes(APPLICATION_JSON)
 @Produces(APPLICATION_JSON)
 public class JobResource extends BaseResourceWithAllocator {
+  static final String ARROW_STREAM = "application/vnd.apache.arrow.stream";
+
   private final JobsService jobs;
   private final SecurityContext securityContext;
 
@@ -126,6 +134,67 @@ public class JobResource extends BaseResourceWithAllocator {
       @QueryParam("offset") @DefaultValue("0") Integer offset,
       @Valid @QueryParam("limit") @DefaultValue("100") Integer limit) {
     Preconditions.checkArgument(limit <= 500, "limit can not exceed 500 rows");
+    final JobSummary jobSummary = getCompletedJobSummary(id);
+    // Additional wait not necessary since we check for job completion via JobState
+    return new JobResourceData(
+        jobs,
+        jobSummary,
+        securityContext.getUserPrincipal().getName(),
+        getOrCreateAllocator("getQueryResults"),
+        offset,
+        limit);
+  }
+
+  /**
+   * Streams the results of a completed job as an Arrow IPC stream, without the row limit of {@link
+   * #getQueryResults}.
+   *
+   * @param offset index of the first row to return
+   * @param limit max number of rows to return, all the rows after offset if absent
+   * @param compression compression of the record batch buffers, "none" or "lz4_frame"
+   */
+  @WithSpan
+  @GET
+  @Path("/{id}/results/arrow")
+  @Produces(ARROW_STREAM)
+  public Response getQueryResultsAsArrow(
+      @PathParam("id") String id,
+      @QueryParam("offset") @DefaultValue("0") Long offset,
+      @QueryParam("limit") Long limit,
+      @QueryParam("compression") @DefaultValue("none") String compression) {
+    Preconditions.checkArgument(offset >= 0, "offset can not be negative");
+    Preconditions.checkArgument(limit == null || limit >= 0, "limit can not be negative");
+    final CompressionUtil.CodecType codecType = toCodecType(compression);
+    final JobSummary jobSummary = getCompletedJobSummary(id);
+
+    final long start = Math.min(offset, jobSummary.getOutputRecords());
+    final long count =
+        limit == null
+            ? jobSummary.getOutputRecords() - start
+            : Math.min(limit, jobSummary.getOutputRecords() - start);
+    final BufferAllocator allocator = getOrCreateAllocator("getQueryResultsAsArrow");
+    final StreamingOutput output =
+        out ->
+            JobDataClientUtils.writeJobDataAsArrowStream(
+                jobs, allocator, new JobId(id), start, count, codecType, out);
+    return Response.ok(output, ARROW_STREAM).build();
+  }
+
+  private static CompressionUtil.CodecType toCodecType(String compression) {
+    switch (compression.toLowerCase(Locale.ROOT)) {
+      case "none":
+        return CompressionUtil.CodecType.NO_COMPRESSION;
+      case "lz4":
+      case "lz4_frame":
+        return CompressionUtil.CodecType.LZ4_FRAME;
+      default:
+        throw new BadRequestException(
+            String.format(
+                "Unsupported compression [%s], expected one of [none, lz4_frame].", compression));
+    }
+  }
+
+  private JobSummary getCompletedJobSummary(String id) {
     try {
       JobSummaryRequest request =
           JobSummaryRequest.newBuilder()
@@ -140,14 +209,7 @@ public class JobResource extends BaseResourceWithAllocator {
                 "Can not fetch details for a job that is in [%s] state.",
                 jobSummary.getJobState()));
       }
-      // Additional wait not necessary since we check for job completion via JobState
-      return new JobResourceData(
-          jobs,
-          jobSummary,
-          securityContext.getUserPrincipal().getName(),
-          getOrCreateAllocator("getQueryResults"),
-          offset,
-          limit);
+      return jobSummary;
     } catch (JobNotFoundException e) {
       throw new NotFoundException(String.format("Could not find a job with id [%s]", id));
     }
@@ -172,7 +172,7 @@ import com.dremio.resource.GroupResourceInformation;
 import com.dremio.resource.QueryCancelTool;
 import com.dremio.resource.ResourceAllocator;
 import com.dremio.resource.RuleBasedEngineSelector;
-import com.dremio.resource.basic.BasicResourceAllocator;
+import com.dremio.resource.basic.MemoryAwareResourceAllocator;
 import com.dremio.sabot.exec.CancelQueryContext;
 import com.dremio.sabot.exec.CoordinatorHeapClawBackStrategy;
 import com.dremio.sabot.exec.ExecToCoordTunnelCreator;
@@ -182,6 +182,7 @@ import com.dremio.sabot.exec.TaskPoolInitializer;
 import com.dremio.sabot.exec.WorkloadTicketDepot;
 import com.dremio.sabot.exec.WorkloadTicketDepotService;
 import com.dremio.sabot.exec.context.ContextInformationFactory;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
 import com.dremio.sabot.op.common.spill.SpillServiceOptionsImpl;
 import com.dremio.sabot.rpc.CoordExecService;
 import com.dremio.sabot.rpc.ExecToCoordResultsHandler;
@@ -233,6 +234,7 @@ import com.dremio.service.executor.ExecutorServiceClientFactory;
 import com.dremio.service.flight.DremioFlightAuthProvider;
 import com.dremio.service.flight.DremioFlightAuthProviderImpl;
 import com.dremio.service.flight.DremioFlightService;
+import com.dremio.service.flight.ExecutorFlightService;
 import com.dremio.service.flight.FlightRequestContextDecorator;
 import com.dremio.service.grpc.GrpcChannelBuilderFactory;
 import com.dremio.service.grpc.GrpcServerBuilderFactory;
@@ -1185,9 +1187,10 @@ public class DACDaemonModule implements DACModule {
 
     registry.bind(
         ResourceAllocator.class,
-        new BasicResourceAllocator(
+        new MemoryAwareResourceAllocator(
             registry.provider(ClusterCoordinator.class),
-            registry.provider(GroupResourceInformation.class)));
+            registry.provider(GroupResourceInformation.class),
+            sabotConfig));
     if (isCoordinator) {
 
       registry.bind(ExecutorSelectorFactory.class, new ExecutorSelectorFactoryImpl());
@@ -1241,7 +1244,8 @@ public class DACDaemonModule implements DACModule {
               registry.provider(MaestroForwarder.class),
               registry.provider(RuleBasedEngineSelector.class),
               registry.provider(RequestContext.class),
-              registry.provider(PartitionStatsCacheStoreProvider.class));
+              registry.provider(PartitionStatsCacheStoreProvider.class),
+              registry.provider(PubSubClient.class));
 
       if (config.getBoolean(DremioConfig.JOBS_ENABLED_BOOL)) {
         registerJobsServices(conduitServiceRegistry, registry, bootstrap);
@@ -1313,6 +1317,8 @@ public class DACDaemonModule implements DACModule {
       registry.bindSelf(fragmentWorkManager);
 
       registry.bindProvider(WorkStats.class, fragmentWorkManager::getWorkStats);
+      registry.bindProvider(
+          ResultStreamRegistry.class, fragmentWorkManager::getResultStreamRegistry);
 
       registry.bindProvider(ExecutorService.class, fragmentWorkManager::getExecutorService);
       registry.bind(
@@ -1708,6 +1714,16 @@ public class DACDaemonModule implements DACModule {
       logger.info("Not starting the flight service.");
     }
 
+    if (isExecutor && config.getBoolean(DremioConfig.FLIGHT_EXECUTOR_ENABLED_BOOLEAN)) {
+      registry.bindSelf(
+          new ExecutorFlightService(
+              registry.provider(DremioConfig.class),
+              registry.provider(BufferAllocator.class),
+              registry.provider(ResultStreamRegistry.class),
+              registry.provider(OptionManager.class),
+              registry.provider(CredentialsService.class)));
+    }
+
     // NOTE : Should be last after all other services
     // used as health check to know when to start serving traffic.
     if (isCoordinator) {
@@ -422,7 +422,7 @@ public class FragmentWrapper {
         // Categorize each of the blocked durations as upstream/downstream/other.
         long blockedOnDownstreamDuration = minor.getBlockedOnDownstreamDuration();
         long blockedOnUpstreamDuration = minor.getBlockedOnUpstreamDuration();
-        long blockedOnOtherDuration = 0;
+        long blockedOnOtherDuration = minor.getBlockedOnMemoryDuration();
         for (BlockedResourceDuration resourceDuration : minor.getPerResourceBlockedDurationList()) {
           switch (resourceDuration.getCategory()) {
             case UPSTREAM:
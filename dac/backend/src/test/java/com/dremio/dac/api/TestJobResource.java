@@ -20,6 +20,7 @@ import static org.junit.Assert.assertTrue;
 
 import com.dremio.common.util.DremioVersionInfo;
 import com.dremio.dac.server.BaseTestServer;
+import com.dremio.exec.store.easy.arrow.Lz4FrameCompressionCodec;
 import com.dremio.service.job.proto.JobId;
 import com.dremio.service.job.proto.JobState;
 import com.dremio.service.job.proto.QueryType;
@@ -28,10 +29,15 @@ import com.dremio.service.jobs.JobsService;
 import com.dremio.service.jobs.JobsServiceUtil;
 import com.dremio.service.jobs.SqlQuery;
 import com.dremio.service.users.SystemUser;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.concurrent.TimeUnit;
 import javax.ws.rs.core.Response;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Rule;
@@ -122,6 +128,61 @@ public class TestJobResource extends BaseTestServer {
     assertTrue(body.contains("\"rows\":[{\"version\":\"" + DremioVersionInfo.getVersion() + "\""));
   }
 
+  @Test
+  public void testGetJobResultsAsArrow() throws Exception {
+    final SqlQuery query =
+        new SqlQuery(
+            "select * from sys.version", Collections.emptyList(), SystemUser.SYSTEM_USERNAME);
+
+    final JobId jobId =
+        submitJobAndWaitUntilCompletion(
+            JobRequest.newBuilder().setSqlQuery(query).setQueryType(QueryType.REST).build());
+
+    final Response response =
+        expectSuccess(
+            getBuilder(
+                    getHttpClient()
+                        .getAPIv3()
+                        .path(JOB_PATH)
+                        .path(jobId.getId())
+                        .path("results")
+                        .path("arrow")
+                        .queryParam("compression", "lz4_frame"))
+                .buildGet());
+
+    try (BufferAllocator allocator = new RootAllocator(Long.MAX_VALUE);
+        ArrowStreamReader reader =
+            new ArrowStreamReader(
+                response.readEntity(InputStream.class),
+                allocator,
+                Lz4FrameCompressionCodec.FACTORY)) {
+      assertEquals(
+          "version", reader.getVectorSchemaRoot().getSchema().getFields().get(0).getName());
+      int rowCount = 0;
+      while (reader.loadNextBatch()) {
+        final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+        if (root.getRowCount() > 0) {
+          assertEquals(
+              DremioVersionInfo.getVersion(), root.getVector("version").getObject(0).toString());
+        }
+        rowCount += root.getRowCount();
+      }
+      assertEquals(1, rowCount);
+    }
+
+    expectStatus(
+        Response.Status.BAD_REQUEST,
+        getBuilder(
+                getHttpClient()
+                    .getAPIv3()
+                    .path(JOB_PATH)
+                    .path(jobId.getId())
+                    .path("results")
+                    .path("arrow")
+                    .queryParam("compression", "snappy"))
+            .buildGet());
+  }
+
   @Test
   public void testCancelJob() throws InterruptedException {
     JobsService jobs = l(JobsService.class);
@@ -269,7 +269,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(32, tables.size());
+    assertEquals(33, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -302,6 +302,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys.cache", "datasets", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
+    verifyTable("sys.cache", "parquet_footers", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
   }
 
@@ -329,7 +330,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(31, tables.size());
+    assertEquals(32, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -362,6 +363,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys.cache", "datasets", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
+    verifyTable("sys.cache", "parquet_footers", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
   }
 
@@ -375,7 +377,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<TableMetadata> tables = resp.getTablesList();
-    assertEquals(20, tables.size());
+    assertEquals(21, tables.size());
 
     Iterator<TableMetadata> iterator = tables.iterator();
     verifyTable("INFORMATION_SCHEMA", "CATALOGS", iterator.next());
@@ -397,6 +399,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyTable("sys", "version", iterator.next());
     verifyTable("sys.cache", "mount_points", iterator.next());
     verifyTable("sys.cache", "objects", iterator.next());
+    verifyTable("sys.cache", "parquet_footers", iterator.next());
     verifyTable("sys.cache", "storage_plugins", iterator.next());
   }
 
@@ -431,7 +434,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     assertEquals(RequestStatus.OK, resp1.getStatus());
 
     final List<ColumnMetadata> columns1 = resp1.getColumnsList();
-    assertEquals(345, columns1.size());
+    assertEquals(354, columns1.size());
     assertTrue(
         "incremental update column shouldn't be returned",
         columns1.stream()
@@ -455,7 +458,7 @@ public class TestMetadataProvider extends BaseTestQuery {
 
     assertEquals(RequestStatus.OK, resp.getStatus());
     List<ColumnMetadata> columns = resp.getColumnsList();
-    assertEquals(27, columns.size());
+    assertEquals(28, columns.size());
 
     Iterator<ColumnMetadata> iterator = columns.iterator();
     verifyColumn("INFORMATION_SCHEMA", "COLUMNS", "ORDINAL_POSITION", iterator.next());
@@ -486,6 +489,7 @@ public class TestMetadataProvider extends BaseTestQuery {
     verifyColumn("sys.cache", "datasets", "storage_plugin_name", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_path", iterator.next());
     verifyColumn("sys.cache", "mount_points", "mount_point_id", iterator.next());
+    verifyColumn("sys.cache", "parquet_footers", "fabric_port", iterator.next());
     verifyColumn("sys.cache", "storage_plugins", "storage_plugin_name", iterator.next());
   }
 
@@ -18,6 +18,8 @@ package com.dremio.plugins.adl.store;
 import com.dremio.exec.hadoop.MayProvideAsyncStream;
 import com.dremio.exec.store.dfs.FileSystemConf;
 import com.dremio.io.AsyncByteReader;
+import com.dremio.io.HedgedAsyncByteReader;
+import com.dremio.io.HedgingPolicy;
 import com.microsoft.azure.datalake.store.ADLSClient;
 import com.microsoft.azure.datalake.store.AdlsListPathResponse;
 import com.microsoft.azure.datalake.store.DirectoryEntry;
@@ -150,6 +152,8 @@ public class DremioAdlFileSystem extends AdlFileSystem implements MayProvideAsyn
   }
 
   private volatile AsyncHttpClientManager asyncHttpClientManager;
+  // set before asyncHttpClientManager, which publishes it
+  private HedgingPolicy hedgingPolicy;
 
   @Override
   public String getScheme() {
@@ -176,18 +180,21 @@ public class DremioAdlFileSystem extends AdlFileSystem implements MayProvideAsyn
         if (asyncHttpClientManager == null) {
           final AzureDataLakeConf adlsConf =
               AzureDataLakeConf.fromConfiguration(getUri(), getConf());
+          hedgingPolicy = HedgingPolicy.fromProperties("adls:" + getUri(), getConf()::get);
           asyncHttpClientManager =
               new AsyncHttpClientManager("dist-uri-" + getUri().toASCIIString(), adlsConf);
         }
       }
     }
 
-    return new AdlsAsyncFileReader(
-        new ADLSClient(asyncHttpClientManager.getClient()),
-        asyncHttpClientManager.getAsyncHttpClient(),
-        path.toUri().getPath(),
-        version,
-        this,
-        asyncHttpClientManager.getUtilityThreadPool());
+    return HedgedAsyncByteReader.wrap(
+        new AdlsAsyncFileReader(
+            new ADLSClient(asyncHttpClientManager.getClient()),
+            asyncHttpClientManager.getAsyncHttpClient(),
+            path.toUri().getPath(),
+            version,
+            this,
+            asyncHttpClientManager.getUtilityThreadPool()),
+        hedgingPolicy);
   }
 }
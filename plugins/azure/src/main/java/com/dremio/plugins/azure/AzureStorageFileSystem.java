@@ -26,6 +26,8 @@ import com.dremio.exec.store.dfs.DremioFileSystemCache;
 import com.dremio.exec.store.dfs.FileSystemConf;
 import com.dremio.http.AsyncHttpClientProvider;
 import com.dremio.io.AsyncByteReader;
+import com.dremio.io.HedgedAsyncByteReader;
+import com.dremio.io.HedgingPolicy;
 import com.dremio.plugins.azure.AbstractAzureStorageConf.AccountKind;
 import com.dremio.plugins.util.ContainerFileSystem;
 import com.google.common.annotations.VisibleForTesting;
@@ -84,6 +86,7 @@ public class AzureStorageFileSystem extends ContainerFileSystem implements MayPr
   private AzureAuthTokenProvider tokenProvider;
 
   private boolean enableMD5Checksum;
+  private HedgingPolicy hedgingPolicy;
 
   @Override
   public void close() throws IOException {
@@ -122,6 +125,7 @@ public class AzureStorageFileSystem extends ContainerFileSystem implements MayPr
     account = Objects.requireNonNull(conf.get(ACCOUNT));
     asyncHttpClient = AsyncHttpClientProvider.getInstance();
     enableMD5Checksum = conf.getBoolean(AzureStorageOptions.ENABLE_CHECKSUM.getOptionName(), true);
+    hedgingPolicy = HedgingPolicy.fromProperties("azure:" + account, conf::get);
 
     switch (credentialsType) {
       case AZURE_ACTIVE_DIRECTORY:
@@ -333,14 +337,16 @@ public class AzureStorageFileSystem extends ContainerFileSystem implements MayPr
   @Override
   public AsyncByteReader getAsyncByteReader(
       Path path, String version, Map<String, String> options) {
-    return new AzureAsyncReader(
-        azureEndpoint,
-        account,
-        path,
-        tokenProvider,
-        version,
-        secure,
-        asyncHttpClient,
-        enableMD5Checksum);
+    return HedgedAsyncByteReader.wrap(
+        new AzureAsyncReader(
+            azureEndpoint,
+            account,
+            path,
+            tokenProvider,
+            version,
+            secure,
+            asyncHttpClient,
+            enableMD5Checksum),
+        hedgingPolicy);
   }
 }
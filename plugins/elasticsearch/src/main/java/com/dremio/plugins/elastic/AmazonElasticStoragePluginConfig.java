@@ -200,6 +200,8 @@ public class AmazonElasticStoragePluginConfig
         amazonOSStoragePluginConfig.pushdownWithKeyword,
         amazonOSStoragePluginConfig.warnOnRowCountMismatch,
         amazonOSStoragePluginConfig.encryptionValidationMode,
-        false);
+        false,
+        amazonOSStoragePluginConfig.slicesPerShard,
+        amazonOSStoragePluginConfig.prefetchScrollPages);
   }
 }
@@ -110,6 +110,17 @@ public abstract class BaseElasticStoragePluginConfig<
   @DisplayMetadata(label = "Force Double Precision")
   public boolean forceDoublePrecision = false;
 
+  @Tag(21)
+  @Min(1)
+  @Max(1024)
+  @DisplayMetadata(label = "Slices per shard")
+  public int slicesPerShard = 1;
+
+  @Tag(22)
+  @NotMetadataImpacting
+  @DisplayMetadata(label = "Prefetch the next scroll page while reading the current one")
+  public boolean prefetchScrollPages = true;
+
   public BaseElasticStoragePluginConfig() {}
 
   public BaseElasticStoragePluginConfig(
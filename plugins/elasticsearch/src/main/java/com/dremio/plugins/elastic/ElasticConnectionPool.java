@@ -141,6 +141,18 @@ public class ElasticConnectionPool implements AutoCloseable {
    */
   private boolean enable7vFeatures;
 
+  /**
+   * Flag to indicate if composite aggregations, including their missing buckets, are supported.
+   * They are used to push aggregations down.
+   */
+  private boolean enableCompositeAggregations;
+
+  /**
+   * Flag to indicate if the shards can be read as sliced scrolls. Sliced scrolls don't exist before
+   * 5.0, and slicing a scroll pinned to a single shard is only correct from 6.4.
+   */
+  private boolean enableSlicedScrolls;
+
   private int elasticVersion;
 
   public ElasticConnectionPool(
@@ -369,7 +381,12 @@ public class ElasticConnectionPool implements AutoCloseable {
         new BooleanCapabilityValue(ElasticsearchStoragePlugin.ENABLE_V5_FEATURES, enable5vFeatures),
         new BooleanCapabilityValue(
             ElasticsearchStoragePlugin.SUPPORTS_NEW_FEATURES, enableNewFeatures),
-        new BooleanCapabilityValue(SourceCapabilities.SUPPORTS_CONTAINS, enableContains));
+        new BooleanCapabilityValue(SourceCapabilities.SUPPORTS_CONTAINS, enableContains),
+        new BooleanCapabilityValue(
+            ElasticsearchStoragePlugin.SUPPORTS_COMPOSITE_AGGREGATIONS,
+            enableCompositeAggregations),
+        new BooleanCapabilityValue(
+            ElasticsearchStoragePlugin.SUPPORTS_SLICED_SCROLLS, enableSlicedScrolls));
   }
 
   public Version getMinVersionInCluster() {
@@ -489,6 +506,12 @@ public class ElasticConnectionPool implements AutoCloseable {
     enable7vFeatures =
         minVersionInCluster.compareTo(ElasticsearchConstants.ELASTICSEARCH_VERSION_7_0_X) >= 0;
 
+    enableCompositeAggregations =
+        minVersionInCluster.compareTo(ElasticsearchConstants.ELASTICSEARCH_VERSION_6_4_X) >= 0;
+
+    enableSlicedScrolls =
+        minVersionInCluster.compareTo(ElasticsearchConstants.ELASTICSEARCH_VERSION_6_4_X) >= 0;
+
     elasticVersion = minVersionInCluster.getMajor();
 
     return hosts;
@@ -819,6 +842,10 @@ public class ElasticConnectionPool implements AutoCloseable {
     public boolean enable7vFeatures() {
       return ElasticConnectionPool.this.enable7vFeatures;
     }
+
+    public boolean enableSlicedScrolls() {
+      return ElasticConnectionPool.this.enableSlicedScrolls;
+    }
   }
 
   @Override
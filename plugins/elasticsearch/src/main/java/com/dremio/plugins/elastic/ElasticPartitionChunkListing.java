@@ -51,6 +51,7 @@ class ElasticPartitionChunkListing implements PartitionChunkListing {
   private final ElasticDatasetHandle datasetHandle;
   private final String indexOrAlias;
   private final String typeName;
+  private final int slicesPerShard;
 
   private long rowCount;
   private List<PartitionChunk> partitionChunkList;
@@ -69,6 +70,11 @@ class ElasticPartitionChunkListing implements PartitionChunkListing {
     } catch (Exception ignore) {
     }
     this.typeName = temp;
+    // clusters without sliced scrolls get a single split per shard
+    this.slicesPerShard =
+        datasetHandle.getConnection().enableSlicedScrolls()
+            ? Math.max(1, datasetHandle.getPluginConfig().getSlicesPerShard())
+            : 1;
   }
 
   String getIndexOrAlias() {
@@ -142,21 +148,30 @@ class ElasticPartitionChunkListing implements PartitionChunkListing {
 
       indexes.add(onlyIndex);
 
-      final ElasticSplitXattr splitAttributes =
-          ElasticSplitXattr.newBuilder()
-              .setResource(RESOURCE_JOINER.join(onlyIndex, typeName))
-              .setShard(onlyShard)
-              .build();
-
       List<DatasetSplitAffinity> affinity = new ArrayList<>();
       for (String host : hosts) {
         affinity.add(DatasetSplitAffinity.of(host, SPLIT_DEFAULT_SIZE));
       }
 
-      partitionChunks.add(
-          PartitionChunk.of(
-              DatasetSplit.of(
-                  affinity, (long) SPLIT_DEFAULT_SIZE, 0, os -> splitAttributes.writeTo(os))));
+      // each slice of the shard is a split of its own so that they can be read in parallel
+      for (int slice = 0; slice < slicesPerShard; slice++) {
+        final ElasticSplitXattr.Builder splitAttributesBuilder =
+            ElasticSplitXattr.newBuilder()
+                .setResource(RESOURCE_JOINER.join(onlyIndex, typeName))
+                .setShard(onlyShard);
+        if (slicesPerShard > 1) {
+          splitAttributesBuilder.setSliceId(slice).setSliceMax(slicesPerShard);
+        }
+        final ElasticSplitXattr splitAttributes = splitAttributesBuilder.build();
+
+        partitionChunks.add(
+            PartitionChunk.of(
+                DatasetSplit.of(
+                    affinity,
+                    (long) (SPLIT_DEFAULT_SIZE / slicesPerShard),
+                    0,
+                    os -> splitAttributes.writeTo(os))));
+      }
 
       partitionChunkList = partitionChunks;
     }
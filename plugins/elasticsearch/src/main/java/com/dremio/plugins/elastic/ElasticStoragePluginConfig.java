@@ -170,7 +170,9 @@ public class ElasticStoragePluginConfig
             elasticStoragePluginConfig.pushdownWithKeyword,
             elasticStoragePluginConfig.warnOnRowCountMismatch,
             elasticStoragePluginConfig.encryptionValidationMode,
-            elasticStoragePluginConfig.forceDoublePrecision);
+            elasticStoragePluginConfig.forceDoublePrecision,
+            elasticStoragePluginConfig.slicesPerShard,
+            elasticStoragePluginConfig.prefetchScrollPages);
     return elasticsearchConf;
   }
 }
@@ -56,6 +56,8 @@ public class ElasticsearchConf {
   private final boolean warnOnRowCountMismatch;
   private final EncryptionValidationMode encryptionValidationMode;
   private final boolean forceDoublePrecision;
+  private final int slicesPerShard;
+  private final boolean prefetchScrollPages;
   private final String accessKey;
   private final SecretRef accessSecret;
   private final String regionName;
@@ -82,7 +84,9 @@ public class ElasticsearchConf {
       boolean pushdownWithKeyword,
       boolean warnOnRowCountMismatch,
       EncryptionValidationMode encryptionValidationMode,
-      boolean forceDoublePrecision) {
+      boolean forceDoublePrecision,
+      int slicesPerShard,
+      boolean prefetchScrollPages) {
     this.hostList = hostList;
     this.username = username;
     this.password = password;
@@ -106,6 +110,8 @@ public class ElasticsearchConf {
     this.warnOnRowCountMismatch = warnOnRowCountMismatch;
     this.encryptionValidationMode = encryptionValidationMode;
     this.forceDoublePrecision = forceDoublePrecision;
+    this.slicesPerShard = slicesPerShard;
+    this.prefetchScrollPages = prefetchScrollPages;
   }
 
   public List<Host> getHostList() {
@@ -196,6 +202,15 @@ public class ElasticsearchConf {
     return forceDoublePrecision;
   }
 
+  /** Number of sliced scrolls each shard split is divided into. */
+  public int getSlicesPerShard() {
+    return slicesPerShard;
+  }
+
+  public boolean isPrefetchScrollPages() {
+    return prefetchScrollPages;
+  }
+
   public static ElasticsearchConf createElasticsearchConf(
       BaseElasticStoragePluginConfig elasticStoragePluginConfig) {
     if (elasticStoragePluginConfig instanceof ElasticStoragePluginConfig) {
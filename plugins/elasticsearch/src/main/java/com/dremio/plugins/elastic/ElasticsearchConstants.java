@@ -50,6 +50,9 @@ public interface ElasticsearchConstants {
   // Version 6.0.x or higher
   public static final Version ELASTICSEARCH_VERSION_DEFAULT = new Version(6, 0, 0);
 
+  // Version 6.4.x or higher, composite aggregations with missing buckets
+  public static final Version ELASTICSEARCH_VERSION_6_4_X = new Version(6, 4, 0);
+
   // Version 6.8.x or higher
   public static final Version ELASTICSEARCH_VERSION_6_8_X = new Version(6, 8, 0);
 
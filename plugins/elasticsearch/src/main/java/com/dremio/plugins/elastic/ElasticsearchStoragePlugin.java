@@ -105,6 +105,10 @@ public class ElasticsearchStoragePlugin implements StoragePlugin, SupportsListin
       new BooleanCapability("enable_elastic_v5_feature", false);
   public static final BooleanCapability SUPPORTS_NEW_FEATURES =
       new BooleanCapability("supports_new_features", false);
+  public static final BooleanCapability SUPPORTS_COMPOSITE_AGGREGATIONS =
+      new BooleanCapability("supports_composite_aggregations", false);
+  public static final BooleanCapability SUPPORTS_SLICED_SCROLLS =
+      new BooleanCapability("supports_sliced_scrolls", false);
 
   private final String name;
   private final SabotContext context;
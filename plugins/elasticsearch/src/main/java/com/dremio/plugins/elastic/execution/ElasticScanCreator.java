@@ -77,6 +77,18 @@ public class ElasticScanCreator implements ProducerOperator.Creator<Elasticsearc
                           }
                         }));
 
+        if (spec.isAggregation()) {
+          readers.add(
+              new ElasticsearchAggregationReader(
+                  context,
+                  subScan.getColumns(),
+                  spec,
+                  split,
+                  connection,
+                  Iterables.getOnlyElement(subScan.getReferencedTables())));
+          continue;
+        }
+
         readers.add(
             new ElasticsearchRecordReader(
                 plugin,
@@ -0,0 +1,297 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.execution;
+
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.COMPOSITE_NAME;
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.COUNT_PREFIX;
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.KEY_PREFIX;
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.METRIC_PREFIX;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.exceptions.InvalidMetadataErrorContext;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.elastic.proto.ElasticReaderProto.ElasticSplitXattr;
+import com.dremio.exec.proto.UserBitShared.DremioPBError.ErrorType;
+import com.dremio.exec.store.AbstractRecordReader;
+import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.plugins.elastic.ElasticActions.Search;
+import com.dremio.plugins.elastic.ElasticActions.SearchBytes;
+import com.dremio.plugins.elastic.ElasticConnectionPool.ElasticConnection;
+import com.dremio.plugins.elastic.ElasticVersionBehaviorProvider;
+import com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec;
+import com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.Metric;
+import com.dremio.plugins.elastic.planning.ElasticsearchScanSpec;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.TimeStampMilliVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the groups of an aggregation pushed down into Elastic, see {@link
+ * ElasticsearchAggregationSpec}. The groups of the composite aggregation are requested page by page
+ * using the after key of the previous page, and written directly into the output vectors.
+ *
+ * <p>The whole shard is aggregated by the first slice of a sliced shard, the other slices return no
+ * groups.
+ */
+public class ElasticsearchAggregationReader extends AbstractRecordReader {
+  private static final Logger logger =
+      LoggerFactory.getLogger(ElasticsearchAggregationReader.class);
+
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper()
+          .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+          .setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
+
+  private final String query;
+  private final String resource;
+  private final ElasticsearchScanSpec spec;
+  private final ElasticsearchAggregationSpec aggregation;
+  private final ElasticSplitXattr splitAttributes;
+  private final ElasticConnection connection;
+  private final ElasticVersionBehaviorProvider elasticVersionBehaviorProvider;
+  private final List<String> tableSchemaPath;
+  private final OperatorStats stats;
+
+  private List<ValueVector> vectors;
+  private Iterator<JsonNode> buckets = Collections.emptyIterator();
+  private JsonNode afterKey;
+  private boolean lastPage;
+
+  public ElasticsearchAggregationReader(
+      OperatorContext context,
+      List<SchemaPath> columns,
+      ElasticsearchScanSpec spec,
+      SplitAndPartitionInfo split,
+      ElasticConnection connection,
+      List<String> tableSchemaPath)
+      throws InvalidProtocolBufferException {
+    super(context, columns);
+    Preconditions.checkArgument(spec.isAggregation(), "Scan spec is not an aggregation.");
+    this.spec = spec;
+    this.aggregation = spec.getAggregation();
+    this.query = spec.getQuery();
+    this.connection = connection;
+    this.tableSchemaPath = tableSchemaPath;
+    this.stats = context == null ? null : context.getStats();
+    this.splitAttributes =
+        split == null
+            ? null
+            : ElasticSplitXattr.parseFrom(split.getDatasetSplitInfo().getExtendedProperty());
+    this.resource = split == null ? spec.getResource() : splitAttributes.getResource();
+    this.elasticVersionBehaviorProvider =
+        new ElasticVersionBehaviorProvider(connection.getESVersionInCluster());
+    // other slices of the shard are aggregated by the first one.
+    this.lastPage = splitAttributes != null && splitAttributes.getSliceId() > 0;
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    vectors = new ArrayList<>();
+    for (SchemaPath column : getColumns()) {
+      vectors.add(output.getVector(column.getRootSegment().getPath()));
+    }
+    Preconditions.checkState(
+        vectors.size() == aggregation.getGroupCount() + aggregation.getMetrics().size(),
+        "Unexpected number of columns for the aggregation.");
+  }
+
+  @Override
+  public int next() {
+    int count = 0;
+    while (count < numRowsPerBatch) {
+      if (!buckets.hasNext()) {
+        if (lastPage) {
+          break;
+        }
+        readPage();
+        continue;
+      }
+      writeBucket(buckets.next(), count++);
+    }
+    for (ValueVector vector : vectors) {
+      vector.setValueCount(count);
+    }
+    return count;
+  }
+
+  private void readPage() {
+    final JsonNode response;
+    try {
+      final Search<byte[]> search =
+          new SearchBytes()
+              .setQuery(
+                  elasticVersionBehaviorProvider.processElasticSearchQuery(
+                      withAfterKey(query, afterKey)))
+              .setResource(resource);
+      if (splitAttributes != null) {
+        search.setParameter("preference", "_shards:" + splitAttributes.getShard());
+      }
+      response = MAPPER.readTree(search(search));
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+          .message("Failure when reading Elastic aggregation.")
+          .addContext("Resource", resource)
+          .addContext("Shard %s", splitAttributes == null ? "all" : splitAttributes.getShard())
+          .addContext("Query", query)
+          .build(logger);
+    }
+
+    if (aggregation.getGroupCount() == 0) {
+      // a single group, read from the response itself.
+      buckets = Iterators.singletonIterator(response);
+      lastPage = true;
+      return;
+    }
+
+    final JsonNode composite = response.path("aggregations").path(COMPOSITE_NAME);
+    final JsonNode page = composite.path("buckets");
+    buckets = page.elements();
+    afterKey = composite.get("after_key");
+    lastPage = afterKey == null || afterKey.isNull() || page.size() < spec.getFetch();
+  }
+
+  private byte[] search(Search<byte[]> search) {
+    try {
+      if (stats != null) {
+        stats.startWait();
+      }
+      return elasticVersionBehaviorProvider.getSearchBytes(connection, search);
+    } catch (UserException e) {
+      if (e.getErrorType() == ErrorType.INVALID_DATASET_METADATA) {
+        logger.trace("failed with invalid metadata, ", e);
+        throw UserException.invalidMetadataError()
+            .setAdditionalExceptionContext(
+                new InvalidMetadataErrorContext(Collections.singletonList(tableSchemaPath)))
+            .build(logger);
+      }
+      throw e;
+    } finally {
+      if (stats != null) {
+        stats.stopWait();
+      }
+    }
+  }
+
+  private void writeBucket(JsonNode bucket, int index) {
+    final int groupCount = aggregation.getGroupCount();
+    final JsonNode metrics;
+    final long docCount;
+    if (groupCount == 0) {
+      metrics = bucket.path("aggregations");
+      docCount = getTotalHits(bucket);
+    } else {
+      metrics = bucket;
+      docCount = bucket.path("doc_count").asLong();
+      final JsonNode key = bucket.path("key");
+      for (int i = 0; i < groupCount; i++) {
+        writeValue(vectors.get(i), index, key.get(KEY_PREFIX + i));
+      }
+    }
+
+    final List<Metric> metricList = aggregation.getMetrics();
+    for (int i = 0; i < metricList.size(); i++) {
+      final ValueVector vector = vectors.get(groupCount + i);
+      final JsonNode value = metrics.path(METRIC_PREFIX + i).path("value");
+      switch (metricList.get(i)) {
+        case COUNT_STAR:
+          ((BigIntVector) vector).setSafe(index, docCount);
+          break;
+        case SUM:
+          if (metrics.path(COUNT_PREFIX + i).path("value").asLong() > 0) {
+            writeValue(vector, index, value);
+          }
+          break;
+        default:
+          writeValue(vector, index, value);
+          break;
+      }
+    }
+  }
+
+  private static void writeValue(ValueVector vector, int index, JsonNode value) {
+    if (value == null || value.isNull() || value.isMissingNode()) {
+      // left null
+      return;
+    }
+    if (vector instanceof VarCharVector) {
+      ((VarCharVector) vector).setSafe(index, value.asText().getBytes(UTF_8));
+    } else if (vector instanceof IntVector) {
+      ((IntVector) vector).setSafe(index, value.asInt());
+    } else if (vector instanceof BigIntVector) {
+      ((BigIntVector) vector).setSafe(index, value.asLong());
+    } else if (vector instanceof Float4Vector) {
+      ((Float4Vector) vector).setSafe(index, (float) value.asDouble());
+    } else if (vector instanceof Float8Vector) {
+      ((Float8Vector) vector).setSafe(index, value.asDouble());
+    } else if (vector instanceof TimeStampMilliVector) {
+      ((TimeStampMilliVector) vector).setSafe(index, value.asLong());
+    } else if (vector instanceof BitVector) {
+      final boolean bool =
+          value.isNumber() ? value.asLong() != 0 : Boolean.parseBoolean(value.asText());
+      ((BitVector) vector).setSafe(index, bool ? 1 : 0);
+    } else {
+      throw UserException.unsupportedError()
+          .message("Elastic aggregations can't be read into %s.", vector.getField())
+          .build(logger);
+    }
+  }
+
+  /** Get the total hits of a response, an object since Elastic 7. */
+  static long getTotalHits(JsonNode response) {
+    final JsonNode total = response.path("hits").path("total");
+    return total.isObject() ? total.path("value").asLong() : total.asLong();
+  }
+
+  /** Sets the after key of the composite aggregation of a request, if any. */
+  static String withAfterKey(String query, JsonNode afterKey) throws IOException {
+    if (afterKey == null) {
+      return query;
+    }
+    final ObjectNode request = (ObjectNode) MAPPER.readTree(query);
+    final JsonNode composite = request.path("aggregations").path(COMPOSITE_NAME).path("composite");
+    Preconditions.checkArgument(composite.isObject(), "Query has no composite aggregation.");
+    ((ObjectNode) composite).set("after", afterKey);
+    return MAPPER.writeValueAsString(request);
+  }
+
+  @Override
+  public void close() throws Exception {}
+}
@@ -43,14 +43,21 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.op.scan.OutputMutator;
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.protobuf.InvalidProtocolBufferException;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import javax.ws.rs.client.InvocationCallback;
 import javax.ws.rs.core.Response;
@@ -73,6 +80,11 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
   public static final String MATCH_ALL_REQUEST = String.format("{\"query\": %s }", MATCH_ALL_QUERY);
   private static final int STREAM_COUNT_BREAK_MULTIPLIER = 3;
   private static final String TIMED_OUT = "\"timed_out\": true";
+  // keeps the literals of the pushed down filters as they are
+  private static final ObjectMapper MAPPER =
+      new ObjectMapper()
+          .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS)
+          .setNodeFactory(JsonNodeFactory.withExactBigDecimals(true));
 
   enum State {
     INIT,
@@ -103,6 +115,8 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
   private long totalSize;
   private long totalCount;
   private String scrollId;
+  private int pageSize;
+  private ListenableFuture<byte[]> prefetchedPage;
   private VectorContainerWriter complexWriter;
   private BaseJsonProcessor jsonReader;
   private State state = State.INIT;
@@ -209,9 +223,23 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
       searchSize = fetch;
     }
 
+    pageSize = searchSize;
+
     final Search<byte[]> search;
-    final String newQuery;
+    String newQuery;
     newQuery = elasticVersionBehaviorProvider.processElasticSearchQuery(query);
+    if (isSliced()) {
+      try {
+        newQuery =
+            addSlice(newQuery, splitAttributes.getSliceId(), splitAttributes.getSliceMax());
+      } catch (IOException e) {
+        throw UserException.dataReadError(e)
+            .message("Failure when slicing Elastic query.")
+            .addContext("Resource", resource)
+            .addContext("Query", query)
+            .build(logger);
+      }
+    }
     search =
         new SearchBytes()
             .setQuery(newQuery)
@@ -250,6 +278,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
 
       scrollId = scrollIdAndTotalSize.getKey();
       totalSize = scrollIdAndTotalSize.getValue();
+      prefetchNextPage();
     } catch (IOException e) {
       String bestEffortMessage = bestEffortMessageForUnknownException(e.getCause());
       if (bestEffortMessage != null) {
@@ -260,6 +289,11 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
           .message("Failure when initiating Elastic query.")
           .addContext("Resource", resource)
           .addContext("Shard %s", splitAttributes == null ? "all" : splitAttributes.getShard())
+          .addContext(
+              "Slice %s",
+              !isSliced()
+                  ? "all"
+                  : splitAttributes.getSliceId() + "/" + splitAttributes.getSliceMax())
           .addContext("Query", query)
           .build(logger);
     }
@@ -267,16 +301,74 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     state = State.READ;
   }
 
+  /**
+   * Whether the split is a slice of its shard. When the cluster does not support sliced scrolls,
+   * the first slice of a split listed with slices reads the whole shard, see {@link
+   * #isSkippedSlice()}.
+   */
+  private boolean isSliced() {
+    return splitAttributes != null
+        && splitAttributes.getSliceMax() > 1
+        && connection.enableSlicedScrolls();
+  }
+
+  /** Whether the split is a slice whose shard is read whole by its first slice. */
+  private boolean isSkippedSlice() {
+    return splitAttributes != null
+        && splitAttributes.getSliceMax() > 1
+        && splitAttributes.getSliceId() > 0
+        && !connection.enableSlicedScrolls();
+  }
+
+  /** Adds the slice of a sliced scroll to the body of a search request. */
+  @VisibleForTesting
+  static String addSlice(String query, int sliceId, int sliceMax) throws IOException {
+    final ObjectNode request = (ObjectNode) MAPPER.readTree(query);
+    request.putObject("slice").put("id", sliceId).put("max", sliceMax);
+    return MAPPER.writeValueAsString(request);
+  }
+
+  private SearchScroll newSearchScroll() {
+    return new SearchScroll()
+        .setScrollId(scrollId)
+        .setScrollTimeout(config.getScrollTimeoutFormatted());
+  }
+
+  /**
+   * Requests the next page of the scroll while the current one is parsed, when the current page
+   * cannot hold all the remaining records.
+   */
+  private void prefetchNextPage() {
+    if (!config.isPrefetchScrollPages() || scrollId == null) {
+      return;
+    }
+    final long readAfterCurrentPage = totalCount + pageSize;
+    if (readAfterCurrentPage >= totalSize
+        || (spec.getFetch() >= 0 && readAfterCurrentPage >= spec.getFetch())) {
+      return;
+    }
+    prefetchedPage = connection.executeAsync(newSearchScroll());
+  }
+
   private byte[] getNextPage() throws IOException {
     try {
       if (stats != null) {
         stats.startWait();
       }
-      SearchScroll searchScroll =
-          new SearchScroll()
-              .setScrollId(scrollId)
-              .setScrollTimeout(config.getScrollTimeoutFormatted());
-      return connection.execute(searchScroll, elasticVersionBehaviorProvider.geMajorVersion());
+      if (prefetchedPage != null) {
+        final ListenableFuture<byte[]> page = prefetchedPage;
+        prefetchedPage = null;
+        try {
+          return page.get();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while waiting for the next scroll page", e);
+        } catch (ExecutionException e) {
+          logger.debug("Failed to prefetch the next scroll page, requesting it again", e);
+        }
+      }
+      return connection.execute(
+          newSearchScroll(), elasticVersionBehaviorProvider.geMajorVersion());
     } finally {
       if (stats != null) {
         stats.stopWait();
@@ -291,6 +383,10 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     }
 
     if (state == State.INIT) {
+      if (isSkippedSlice()) {
+        state = State.DEPLETED;
+        return 0;
+      }
       getFirstPage();
     }
 
@@ -334,6 +430,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
         if (!badStreamBreak) {
           jsonReader.setSource(bytes);
           scrollId = jsonReader.getScrollAndTotalSizeThenSeekToHits().getKey();
+          prefetchNextPage();
           continue;
         }
 
@@ -403,7 +500,7 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
       return;
     }
 
-    if (state == State.INIT) {
+    if (state == State.INIT || scrollId == null) {
       state = State.CLOSED;
       return; // scroll id is not yet set
     }
@@ -413,6 +510,11 @@ public class ElasticsearchRecordReader extends AbstractRecordReader {
     // could be in #getFirstPage, right before setting scrollId. In this case, the scroll will never
     // be deleted.
 
+    if (prefetchedPage != null) {
+      prefetchedPage.cancel(true);
+      prefetchedPage = null;
+    }
+
     try {
       final DeleteScroll delete = new DeleteScroll(scrollId);
       final CountDownLatch countDownLatch = new CountDownLatch(1);
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.planning;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+
+/**
+ * Describes the output of an aggregation pushed down into Elastic. The group keys are the sources
+ * of a composite aggregation, named {@link #KEY_PREFIX} followed by their ordinal, and come first.
+ * The metrics follow, named {@link #METRIC_PREFIX} followed by their ordinal.
+ */
+public class ElasticsearchAggregationSpec {
+
+  public static final String COMPOSITE_NAME = "groups";
+  public static final String KEY_PREFIX = "k";
+  public static final String METRIC_PREFIX = "m";
+  // value counts paired with sums, sums of no values being 0 in Elastic but null in SQL.
+  public static final String COUNT_PREFIX = "c";
+
+  /** Kinds of metrics, and how each of them is read from the response. */
+  public enum Metric {
+    // doc count of the bucket or total hits
+    COUNT_STAR,
+    // value_count aggregation
+    COUNT,
+    // sum aggregation, null when its paired value_count is 0
+    SUM,
+    // sum aggregation
+    SUM0,
+    // min aggregation
+    MIN,
+    // max aggregation
+    MAX
+  }
+
+  private final int groupCount;
+  private final List<Metric> metrics;
+
+  @JsonCreator
+  public ElasticsearchAggregationSpec(
+      @JsonProperty("groupCount") int groupCount,
+      @JsonProperty("metrics") List<Metric> metrics) {
+    this.groupCount = groupCount;
+    this.metrics = ImmutableList.copyOf(metrics);
+  }
+
+  public int getGroupCount() {
+    return groupCount;
+  }
+
+  public List<Metric> getMetrics() {
+    return metrics;
+  }
+
+  @Override
+  public boolean equals(final Object other) {
+    if (!(other instanceof ElasticsearchAggregationSpec)) {
+      return false;
+    }
+    ElasticsearchAggregationSpec castOther = (ElasticsearchAggregationSpec) other;
+    return groupCount == castOther.groupCount && Objects.equal(metrics, castOther.metrics);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(groupCount, metrics);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("groupCount", groupCount)
+        .add("metrics", metrics)
+        .toString();
+  }
+}
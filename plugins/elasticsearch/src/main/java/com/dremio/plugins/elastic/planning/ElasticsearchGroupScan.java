@@ -67,7 +67,8 @@ public class ElasticsearchGroupScan extends AbstractGroupScan {
         splitWork,
         getColumns(),
         Iterables.getOnlyElement(getReferencedTables()),
-        getDataset().getSchema(),
+        // aggregations output their own schema rather than the one of the table
+        spec.isAggregation() ? getProps().getSchema() : getDataset().getSchema(),
         getDataset().getReadDefinition().getExtendedProperty());
   }
 
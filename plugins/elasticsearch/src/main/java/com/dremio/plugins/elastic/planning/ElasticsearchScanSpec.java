@@ -16,6 +16,7 @@
 package com.dremio.plugins.elastic.planning;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
@@ -27,17 +28,24 @@ public class ElasticsearchScanSpec {
   private final int fetch;
   private final String resource;
   private final boolean pushdown;
+  private final ElasticsearchAggregationSpec aggregation;
+
+  public ElasticsearchScanSpec(String resource, String query, int fetch, boolean pushdown) {
+    this(resource, query, fetch, pushdown, null);
+  }
 
   @JsonCreator
   public ElasticsearchScanSpec(
       @JsonProperty("resource") String resource,
       @JsonProperty("query") String query,
       @JsonProperty("fetch") int fetch,
-      @JsonProperty("pushdown") boolean pushdown) {
+      @JsonProperty("pushdown") boolean pushdown,
+      @JsonProperty("aggregation") ElasticsearchAggregationSpec aggregation) {
     this.resource = resource;
     this.query = query;
     this.fetch = fetch;
     this.pushdown = pushdown;
+    this.aggregation = aggregation;
   }
 
   // This is only for testing purposes. Execution doesn't need this information.
@@ -57,6 +65,16 @@ public class ElasticsearchScanSpec {
     return fetch;
   }
 
+  /** The pushed down aggregation, null when reading documents. */
+  public ElasticsearchAggregationSpec getAggregation() {
+    return aggregation;
+  }
+
+  @JsonIgnore
+  public boolean isAggregation() {
+    return aggregation != null;
+  }
+
   @Override
   public boolean equals(final Object other) {
     if (!(other instanceof ElasticsearchScanSpec)) {
@@ -65,12 +83,13 @@ public class ElasticsearchScanSpec {
     ElasticsearchScanSpec castOther = (ElasticsearchScanSpec) other;
     return Objects.equal(query, castOther.query)
         && Objects.equal(fetch, castOther.fetch)
-        && Objects.equal(resource, castOther.resource);
+        && Objects.equal(resource, castOther.resource)
+        && Objects.equal(aggregation, castOther.aggregation);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hashCode(query, fetch, resource);
+    return Objects.hashCode(query, fetch, resource, aggregation);
   }
 
   @Override
@@ -79,6 +98,7 @@ public class ElasticsearchScanSpec {
         .add("query", query)
         .add("fetch", fetch)
         .add("resource", resource)
+        .add("aggregation", aggregation)
         .toString();
   }
 }
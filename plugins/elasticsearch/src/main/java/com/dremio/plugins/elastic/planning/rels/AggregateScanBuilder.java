@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.planning.rels;
+
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.COMPOSITE_NAME;
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.COUNT_PREFIX;
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.KEY_PREFIX;
+import static com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.METRIC_PREFIX;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.elastic.proto.ElasticReaderProto.ElasticTableXattr;
+import com.dremio.exec.expr.fn.FunctionLookupContext;
+import com.dremio.exec.physical.base.GroupScan;
+import com.dremio.exec.physical.base.OpProps;
+import com.dremio.exec.store.SplitWork;
+import com.dremio.plugins.elastic.ElasticsearchConf;
+import com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec;
+import com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.Metric;
+import com.dremio.plugins.elastic.planning.ElasticsearchGroupScan;
+import com.dremio.plugins.elastic.planning.ElasticsearchScanSpec;
+import com.dremio.plugins.elastic.planning.rules.ExpressionNotAnalyzableException;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.Ord;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.rel.type.RelDataTypeField;
+import org.apache.calcite.sql.SqlKind;
+import org.elasticsearch.action.search.SearchRequestBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
+
+/**
+ * Builds the request of an {@link ElasticsearchAggregate}. Group keys become the terms sources of
+ * a composite aggregation, paged through by the reader, and aggregate calls its metrics. Without
+ * group keys, the metrics are top level aggregations.
+ *
+ * <p>The stack must be ElasticsearchAggregate \ ElasticsearchProject (optional) \
+ * ElasticsearchFilter (optional) \ ElasticsearchScanPrel.
+ */
+public class AggregateScanBuilder extends ScanBuilder {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(AggregateScanBuilder.class);
+
+  private List<SchemaPath> columns;
+
+  @Override
+  public GroupScan<SplitWork> toGroupScan(OpProps props, long estimatedRowCount) {
+    return new ElasticsearchGroupScan(
+        props, getSpec(), getScan().getTableMetadata(), columns, estimatedRowCount);
+  }
+
+  @Override
+  public List<SchemaPath> getColumns() {
+    return columns;
+  }
+
+  @Override
+  public void setup(List<ElasticsearchPrel> stack, FunctionLookupContext functionLookupContext) {
+    Preconditions.checkArgument(
+        stack.size() >= 2 && stack.get(0) instanceof ElasticsearchAggregate,
+        "Aggregation stacks must start with an aggregation.");
+    final ElasticsearchAggregate aggregate = (ElasticsearchAggregate) stack.get(0);
+    ElasticsearchProject project = null;
+    ElasticsearchFilter filter = null;
+    for (ElasticsearchPrel prel : stack.subList(1, stack.size() - 1)) {
+      if (prel instanceof ElasticsearchProject && project == null && filter == null) {
+        project = (ElasticsearchProject) prel;
+      } else if (prel instanceof ElasticsearchFilter && filter == null) {
+        filter = (ElasticsearchFilter) prel;
+      } else {
+        throw new IllegalStateException(
+            String.format(
+                "AggregateScanBuilder can't consume a %s.", prel.getClass().getName()));
+      }
+    }
+    Preconditions.checkArgument(
+        stack.get(stack.size() - 1) instanceof ElasticIntermediateScanPrel,
+        "Stacks must include a scan.");
+    final ElasticIntermediateScanPrel scan =
+        (ElasticIntermediateScanPrel) stack.get(stack.size() - 1);
+    final ElasticTableXattr tableAttributes = scan.getExtendedAttributes();
+    final int pageSize =
+        ElasticsearchConf.createElasticsearchConf(scan.getPluginId().getConnectionConf())
+            .getScrollSize();
+
+    try {
+      final SearchRequestBuilder searchRequest = buildRequestBuilder();
+      applyFilter(searchRequest, scan, filter, tableAttributes);
+      searchRequest.setSize(0);
+
+      final List<CompositeValuesSourceBuilder<?>> sources = new ArrayList<>();
+      for (int index : aggregate.getGroupSet()) {
+        sources.add(
+            new TermsValuesSourceBuilder(KEY_PREFIX + sources.size())
+                .field(ElasticsearchAggregate.getFieldName(project, scan, index))
+                .missingBucket(true));
+      }
+
+      final List<AggregationBuilder> aggregations = new ArrayList<>();
+      final List<Metric> metrics = new ArrayList<>();
+      for (Ord<AggregateCall> call : Ord.zip(aggregate.getAggCallList())) {
+        final Metric metric = getMetric(call.e);
+        metrics.add(metric);
+        if (metric == Metric.COUNT_STAR) {
+          continue;
+        }
+        final String field =
+            ElasticsearchAggregate.getFieldName(project, scan, call.e.getArgList().get(0));
+        final String name = METRIC_PREFIX + call.i;
+        switch (metric) {
+          case COUNT:
+            aggregations.add(AggregationBuilders.count(name).field(field));
+            break;
+          case SUM:
+            aggregations.add(AggregationBuilders.sum(name).field(field));
+            aggregations.add(AggregationBuilders.count(COUNT_PREFIX + call.i).field(field));
+            break;
+          case SUM0:
+            aggregations.add(AggregationBuilders.sum(name).field(field));
+            break;
+          case MIN:
+            aggregations.add(AggregationBuilders.min(name).field(field));
+            break;
+          case MAX:
+            aggregations.add(AggregationBuilders.max(name).field(field));
+            break;
+          default:
+            throw new IllegalStateException("Unexpected metric " + metric);
+        }
+      }
+
+      if (sources.isEmpty()) {
+        searchRequest.setTrackTotalHits(true);
+        aggregations.forEach(searchRequest::addAggregation);
+      } else {
+        final CompositeAggregationBuilder composite =
+            AggregationBuilders.composite(COMPOSITE_NAME, sources).size(pageSize);
+        aggregations.forEach(composite::subAggregation);
+        searchRequest.addAggregation(composite);
+      }
+
+      final ImmutableList.Builder<SchemaPath> columnsBuilder = ImmutableList.builder();
+      for (RelDataTypeField field : aggregate.getRowType().getFieldList()) {
+        columnsBuilder.add(SchemaPath.getSimplePath(field.getName()));
+      }
+
+      setSpec(
+          new ElasticsearchScanSpec(
+              tableAttributes.getResource(),
+              searchRequest.toString(),
+              pageSize,
+              true,
+              new ElasticsearchAggregationSpec(sources.size(), metrics)));
+      setScan(scan);
+      this.columns = columnsBuilder.build();
+    } catch (ExpressionNotAnalyzableException e) {
+      throw UserException.dataReadError(e)
+          .message("Elastic pushdown failed. Too late to recover query.")
+          .build(logger);
+    }
+  }
+
+  /** Get the metric computing an aggregate call, or null if it cannot be computed by Elastic. */
+  public static Metric getMetric(AggregateCall call) {
+    if (call.isDistinct() || call.filterArg >= 0 || call.getArgList().size() > 1) {
+      return null;
+    }
+    if (call.getArgList().isEmpty()) {
+      return call.getAggregation().getKind() == SqlKind.COUNT ? Metric.COUNT_STAR : null;
+    }
+    switch (call.getAggregation().getKind()) {
+      case COUNT:
+        return Metric.COUNT;
+      case SUM:
+        return Metric.SUM;
+      case SUM0:
+        return Metric.SUM0;
+      case MIN:
+        return Metric.MIN;
+      case MAX:
+        return Metric.MAX;
+      default:
+        return null;
+    }
+  }
+}
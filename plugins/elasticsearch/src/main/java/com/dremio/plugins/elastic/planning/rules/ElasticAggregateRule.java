@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.planning.rules;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.planner.logical.RelOptHelper;
+import com.dremio.exec.planner.physical.AggregatePrel;
+import com.dremio.exec.planner.physical.AggregatePrel.OperatorPhase;
+import com.dremio.exec.planner.physical.StreamAggPrel;
+import com.dremio.plugins.elastic.ElasticsearchConstants;
+import com.dremio.plugins.elastic.ElasticsearchStoragePlugin;
+import com.dremio.plugins.elastic.mapping.FieldAnnotation;
+import com.dremio.plugins.elastic.planning.ElasticsearchAggregationSpec.Metric;
+import com.dremio.plugins.elastic.planning.rels.AggregateScanBuilder;
+import com.dremio.plugins.elastic.planning.rels.ElasticIntermediateScanPrel;
+import com.dremio.plugins.elastic.planning.rels.ElasticsearchAggregate;
+import com.dremio.plugins.elastic.planning.rels.ElasticsearchIntermediatePrel;
+import com.dremio.plugins.elastic.planning.rels.ElasticsearchLimit;
+import com.dremio.plugins.elastic.planning.rels.ElasticsearchProject;
+import com.dremio.plugins.elastic.planning.rels.ElasticsearchSample;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.calcite.linq4j.Ord;
+import org.apache.calcite.plan.RelOptRule;
+import org.apache.calcite.plan.RelOptRuleCall;
+import org.apache.calcite.rel.InvalidRelException;
+import org.apache.calcite.rel.RelNode;
+import org.apache.calcite.rel.core.AggregateCall;
+import org.apache.calcite.sql.SqlAggFunction;
+import org.apache.calcite.sql.SqlKind;
+import org.apache.calcite.sql.fun.SqlStdOperatorTable;
+import org.apache.calcite.sql.type.SqlTypeName;
+import org.apache.calcite.util.ImmutableBitSet;
+
+/**
+ * Pushes an aggregation down into Elastic as a composite aggregation. Each split aggregates its
+ * own shard, so the aggregation is kept on top of the pushdown to merge the groups of the splits.
+ *
+ * <p>Only plain references to fields with doc values are pushed down. Sums are only pushed down on
+ * floating point fields and min/max are not pushed down on long fields, as Elastic computes them as
+ * doubles.
+ */
+public class ElasticAggregateRule extends RelOptRule {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ElasticAggregateRule.class);
+
+  public static final ElasticAggregateRule INSTANCE = new ElasticAggregateRule();
+
+  private static final ImmutableSet<SqlTypeName> KEY_TYPES =
+      ImmutableSet.of(
+          SqlTypeName.VARCHAR,
+          SqlTypeName.INTEGER,
+          SqlTypeName.BIGINT,
+          SqlTypeName.FLOAT,
+          SqlTypeName.DOUBLE,
+          SqlTypeName.BOOLEAN,
+          SqlTypeName.TIMESTAMP);
+  private static final ImmutableSet<SqlTypeName> SUM_TYPES =
+      ImmutableSet.of(SqlTypeName.FLOAT, SqlTypeName.DOUBLE);
+  private static final ImmutableSet<SqlTypeName> MIN_MAX_TYPES =
+      ImmutableSet.of(
+          SqlTypeName.INTEGER, SqlTypeName.FLOAT, SqlTypeName.DOUBLE, SqlTypeName.TIMESTAMP);
+  private static final ImmutableSet<String> META_FIELDS =
+      ImmutableSet.of(
+          ElasticsearchConstants.ID,
+          ElasticsearchConstants.UID,
+          ElasticsearchConstants.TYPE,
+          ElasticsearchConstants.INDEX);
+
+  public ElasticAggregateRule() {
+    super(
+        RelOptHelper.some(
+            AggregatePrel.class, RelOptHelper.any(ElasticsearchIntermediatePrel.class)),
+        "ElasticAggregateRule");
+  }
+
+  @Override
+  public boolean matches(RelOptRuleCall call) {
+    final AggregatePrel aggregate = call.rel(0);
+    final ElasticsearchIntermediatePrel intermediatePrel = call.rel(1);
+
+    if (intermediatePrel.hasTerminalPrel()
+        || intermediatePrel.contains(ElasticsearchLimit.class)
+        || intermediatePrel.contains(ElasticsearchSample.class)) {
+      return false;
+    }
+
+    // the merging aggregation keeps the phase and the implementation of the aggregation, stream
+    // aggregations with keys would need sorted groups.
+    if (aggregate.getOperatorPhase() == OperatorPhase.PHASE_2of2
+        || aggregate.getGroupSets().size() > 1
+        || (aggregate instanceof StreamAggPrel && !aggregate.getGroupSet().isEmpty())) {
+      return false;
+    }
+
+    if (!intermediatePrel
+        .getPluginId()
+        .getCapabilities()
+        .getCapability(ElasticsearchStoragePlugin.SUPPORTS_COMPOSITE_AGGREGATIONS)) {
+      return false;
+    }
+
+    final ElasticIntermediateScanPrel scan =
+        intermediatePrel.get(ElasticIntermediateScanPrel.class);
+    final ElasticsearchProject project = intermediatePrel.getNoCheck(ElasticsearchProject.class);
+    for (int index : aggregate.getGroupSet()) {
+      if (!isPushable(aggregate.getInput(), project, scan, index, KEY_TYPES)) {
+        return false;
+      }
+    }
+
+    for (AggregateCall aggCall : aggregate.getAggCallList()) {
+      final Metric metric = AggregateScanBuilder.getMetric(aggCall);
+      if (metric == null) {
+        return false;
+      }
+      final ImmutableSet<SqlTypeName> types;
+      switch (metric) {
+        case COUNT_STAR:
+          continue;
+        case COUNT:
+          types = KEY_TYPES;
+          break;
+        case SUM:
+        case SUM0:
+          types = SUM_TYPES;
+          break;
+        default:
+          types = MIN_MAX_TYPES;
+          break;
+      }
+      if (!isPushable(aggregate.getInput(), project, scan, aggCall.getArgList().get(0), types)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isPushable(
+      RelNode input,
+      ElasticsearchProject project,
+      ElasticIntermediateScanPrel scan,
+      int index,
+      ImmutableSet<SqlTypeName> types) {
+    if (!types.contains(input.getRowType().getFieldList().get(index).getType().getSqlTypeName())) {
+      return false;
+    }
+    final String name = ElasticsearchAggregate.getFieldName(project, scan, index);
+    if (name == null || META_FIELDS.contains(name)) {
+      return false;
+    }
+    // aggregations read doc values, which analyzed and normalized fields lack or alter.
+    final FieldAnnotation annotation = scan.getAnnotation(SchemaPath.getSimplePath(name));
+    return annotation == null
+        || !(annotation.isAnalyzed()
+            || annotation.isNormalized()
+            || annotation.isDocValueMissing()
+            || annotation.hasSpecialType());
+  }
+
+  @Override
+  public void onMatch(RelOptRuleCall call) {
+    final AggregatePrel aggregate = call.rel(0);
+    final ElasticsearchIntermediatePrel intermediatePrel = call.rel(1);
+    final RelNode input = intermediatePrel.getInput();
+
+    final ElasticsearchAggregate newAggregate;
+    try {
+      newAggregate =
+          new ElasticsearchAggregate(
+              input.getCluster(),
+              input.getTraitSet(),
+              input,
+              aggregate.getGroupSet(),
+              aggregate.getAggCallList(),
+              intermediatePrel.getPluginId());
+    } catch (InvalidRelException e) {
+      logger.debug("Failed to push aggregation into Elastic", e);
+      return;
+    }
+
+    // merge the groups returned by each split, summing their counts.
+    final int groupCount = aggregate.getGroupCount();
+    final List<AggregateCall> mergeCalls = new ArrayList<>();
+    for (Ord<AggregateCall> aggCall : Ord.zip(aggregate.getAggCallList())) {
+      final SqlAggFunction function =
+          aggCall.e.getAggregation().getKind() == SqlKind.COUNT
+              ? SqlStdOperatorTable.SUM0
+              : aggCall.e.getAggregation();
+      mergeCalls.add(
+          AggregateCall.create(
+              function,
+              false,
+              false,
+              ImmutableList.of(groupCount + aggCall.i),
+              -1,
+              aggCall.e.getType(),
+              aggCall.e.getName()));
+    }
+
+    call.transformTo(
+        aggregate.copy(
+            aggregate.getTraitSet(),
+            intermediatePrel.withNewInput(newAggregate),
+            ImmutableBitSet.range(groupCount),
+            null,
+            mergeCalls));
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.execution;
+
+import static org.junit.Assert.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+/** Test the paging requests and responses of {@link ElasticsearchAggregationReader} */
+public class ElasticsearchAggregationReaderTest {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private static final String QUERY =
+      "{\"size\":0,\"query\":{\"range\":{\"a\":{\"gt\":1.100000000000000000001}}},"
+          + "\"aggregations\":{\"groups\":{\"composite\":{\"size\":2,\"sources\":"
+          + "[{\"k0\":{\"terms\":{\"field\":\"b\",\"missing_bucket\":true}}}]}}}}";
+
+  @Test
+  public void withAfterKeyTest() throws Exception {
+    assertEquals(QUERY, ElasticsearchAggregationReader.withAfterKey(QUERY, null));
+    assertEquals(
+        "{\"size\":0,\"query\":{\"range\":{\"a\":{\"gt\":1.100000000000000000001}}},"
+            + "\"aggregations\":{\"groups\":{\"composite\":{\"size\":2,\"sources\":"
+            + "[{\"k0\":{\"terms\":{\"field\":\"b\",\"missing_bucket\":true}}}],"
+            + "\"after\":{\"k0\":null}}}}}",
+        ElasticsearchAggregationReader.withAfterKey(QUERY, MAPPER.readTree("{\"k0\":null}")));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void withAfterKeyWithoutCompositeTest() throws Exception {
+    ElasticsearchAggregationReader.withAfterKey(
+        "{\"size\":0}", MAPPER.readTree("{\"k0\":\"value\"}"));
+  }
+
+  @Test
+  public void getTotalHitsTest() throws Exception {
+    assertEquals(
+        12,
+        ElasticsearchAggregationReader.getTotalHits(MAPPER.readTree("{\"hits\":{\"total\":12}}")));
+    assertEquals(
+        12,
+        ElasticsearchAggregationReader.getTotalHits(
+            MAPPER.readTree("{\"hits\":{\"total\":{\"value\":12,\"relation\":\"eq\"}}}")));
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.plugins.elastic.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.elastic.proto.ElasticReaderProto.ElasticSplitXattr;
+import com.dremio.exec.store.SplitAndPartitionInfo;
+import com.dremio.plugins.Version;
+import com.dremio.plugins.elastic.ElasticConnectionPool.ElasticConnection;
+import com.dremio.plugins.elastic.ElasticsearchConf;
+import com.dremio.plugins.elastic.planning.ElasticsearchScanSpec;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.NormalizedDatasetSplitInfo;
+import com.dremio.service.namespace.dataset.proto.PartitionProtobuf.NormalizedPartitionInfo;
+import java.util.Collections;
+import org.junit.Test;
+
+/** Test the slicing of the scans of {@link ElasticsearchRecordReader} */
+public class ElasticsearchRecordReaderTest {
+
+  @Test
+  public void addSliceTest() throws Exception {
+    assertEquals(
+        "{\"query\":{\"match_all\":{}},\"slice\":{\"id\":1,\"max\":4}}",
+        ElasticsearchRecordReader.addSlice("{\"query\": {\"match_all\": {}}}", 1, 4));
+  }
+
+  @Test
+  public void addSliceKeepsLiteralsTest() throws Exception {
+    assertEquals(
+        "{\"query\":{\"range\":{\"a\":{\"gt\":1.100000000000000000001,"
+            + "\"lt\":12345678901234567890}}},\"slice\":{\"id\":0,\"max\":2}}",
+        ElasticsearchRecordReader.addSlice(
+            "{\"query\":{\"range\":{\"a\":{\"gt\":1.100000000000000000001,"
+                + "\"lt\":12345678901234567890}}}}",
+            0,
+            2));
+  }
+
+  @Test
+  public void unsupportedSliceIsSkippedTest() throws Exception {
+    final ElasticConnection connection = mock(ElasticConnection.class);
+    when(connection.getESVersionInCluster()).thenReturn(new Version(5, 6, 0));
+    when(connection.enableSlicedScrolls()).thenReturn(false);
+
+    final ElasticsearchRecordReader reader = newSliceReader(connection, 1, 2);
+    assertEquals(0, reader.next());
+    assertEquals(0, reader.next());
+    reader.close();
+
+    verify(connection, never()).getTarget();
+  }
+
+  private static ElasticsearchRecordReader newSliceReader(
+      ElasticConnection connection, int sliceId, int sliceMax) throws Exception {
+    final ElasticSplitXattr splitAttributes =
+        ElasticSplitXattr.newBuilder()
+            .setResource("index/type")
+            .setShard(0)
+            .setSliceId(sliceId)
+            .setSliceMax(sliceMax)
+            .build();
+    final SplitAndPartitionInfo split =
+        new SplitAndPartitionInfo(
+            NormalizedPartitionInfo.newBuilder().setId("0").build(),
+            NormalizedDatasetSplitInfo.newBuilder()
+                .setPartitionId("0")
+                .setExtendedProperty(splitAttributes.toByteString())
+                .build());
+    return new ElasticsearchRecordReader(
+        null,
+        Collections.singletonList("elastic"),
+        null,
+        null,
+        mock(ElasticsearchScanSpec.class),
+        false,
+        split,
+        connection,
+        Collections.singletonList(SchemaPath.getSimplePath("a")),
+        null,
+        mock(ElasticsearchConf.class));
+  }
+}
@@ -27,6 +27,8 @@ import com.dremio.exec.catalog.conf.SecretRef;
 import com.dremio.exec.hadoop.MayProvideAsyncStream;
 import com.dremio.exec.store.dfs.DremioFileSystemCache;
 import com.dremio.io.AsyncByteReader;
+import com.dremio.io.HedgedAsyncByteReader;
+import com.dremio.io.HedgingPolicy;
 import com.dremio.plugins.gcs.GCSConf.AuthMode;
 import com.dremio.plugins.util.ContainerFileSystem;
 import com.dremio.plugins.util.ContainerNotFoundException;
@@ -103,6 +105,7 @@ public class GoogleBucketFileSystem extends ContainerFileSystem implements MayPr
   private GCSConf connectionConf;
   private Supplier<Storage> storageProvider;
   private GCSAsyncClient client;
+  private HedgingPolicy hedgingPolicy;
 
   static final Predicate<CorrectableFileStatus> ELIMINATE_PARENT_DIRECTORY =
       (input -> {
@@ -181,6 +184,7 @@ public class GoogleBucketFileSystem extends ContainerFileSystem implements MayPr
     gcsConf.bucketWhitelist = getWhiteListBuckets(conf);
 
     this.connectionConf = gcsConf;
+    this.hedgingPolicy = HedgingPolicy.fromProperties("gcs", conf::get);
 
     String bypassAuthConfigForTestingUrl = conf.get(DREMIO_BYPASS_AUTH_CONFIG_FOR_TESTING_WITH_URL);
     if (!Strings.isNullOrEmpty(bypassAuthConfigForTestingUrl)) {
@@ -371,7 +375,7 @@ public class GoogleBucketFileSystem extends ContainerFileSystem implements MayPr
   @Override
   public AsyncByteReader getAsyncByteReader(Path path, String version, Map<String, String> options)
       throws IOException {
-    return client.newByteReader(path, version);
+    return HedgedAsyncByteReader.wrap(client.newByteReader(path, version), hedgingPolicy);
   }
 
   @Override
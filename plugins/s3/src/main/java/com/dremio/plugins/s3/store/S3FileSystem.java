@@ -41,6 +41,8 @@ import com.dremio.exec.store.dfs.DremioFileSystemCache;
 import com.dremio.exec.store.dfs.FileSystemConf;
 import com.dremio.io.AsyncByteReader;
 import com.dremio.io.FSOutputStream;
+import com.dremio.io.HedgedAsyncByteReader;
+import com.dremio.io.HedgingPolicy;
 import com.dremio.plugins.util.AwsCredentialProviderUtils;
 import com.dremio.plugins.util.CloseableRef;
 import com.dremio.plugins.util.CloseableResource;
@@ -195,6 +197,7 @@ public class S3FileSystem extends ContainerFileSystem implements MayProvideAsync
   private S3ClientKey clientKey;
   private final DremioFileSystemCache fsCache = new DremioFileSystemCache();
   private boolean useWhitelistedBuckets;
+  private HedgingPolicy hedgingPolicy;
 
   public S3FileSystem() {
     super(
@@ -246,6 +249,7 @@ public class S3FileSystem extends ContainerFileSystem implements MayProvideAsync
   protected void setup(Configuration conf) throws IOException {
     clientKey = S3ClientKey.create(conf);
     useWhitelistedBuckets = !conf.get(S3StoragePlugin.WHITELISTED_BUCKETS, "").isEmpty();
+    hedgingPolicy = HedgingPolicy.fromProperties("s3", conf::get);
     if (!NONE_PROVIDER.equals(conf.get(Constants.AWS_CREDENTIALS_PROVIDER))
         && !conf.getBoolean(COMPATIBILITY_MODE, false)) {
       verifyCredentials(conf);
@@ -393,31 +397,37 @@ public class S3FileSystem extends ContainerFileSystem implements MayProvideAsync
     pathStr = (pathStr.startsWith("/")) ? pathStr.substring(1) : pathStr;
     boolean ssecUsed = isSsecUsed();
     String sseCustomerKey = getCustomerSSEKey(ssecUsed);
+    boolean shouldCheckTimestamp =
+        "true".equals(options.get(ENABLE_STORE_PARQUET_ASYNC_TIMESTAMP_CHECK.getOptionName()));
     // If proxy is enabled.
     // Use SyncClient to do async byte read.
     // Once AWS-SDK-2.x upgrade happened with aws-sdk-2.17+, This can be handled with S3AsyncClient.
     // https://dremio.atlassian.net/browse/DX-49510?focusedCommentId=545929
     if (ApacheHttpConnectionUtil.isProxyEnabled(getConf())
         || "false".equals(options.get(S3_NATIVE_ASYNC_CLIENT.getOptionName()))) {
-      return new S3AsyncByteReaderUsingSyncClient(
-          getSyncClient(bucket),
-          bucket,
-          pathStr,
-          version,
-          isRequesterPays(),
-          ssecUsed,
-          sseCustomerKey,
-          "true".equals(options.get(ENABLE_STORE_PARQUET_ASYNC_TIMESTAMP_CHECK.getOptionName())));
+      return HedgedAsyncByteReader.wrap(
+          new S3AsyncByteReaderUsingSyncClient(
+              getSyncClient(bucket),
+              bucket,
+              pathStr,
+              version,
+              isRequesterPays(),
+              ssecUsed,
+              sseCustomerKey,
+              shouldCheckTimestamp),
+          hedgingPolicy);
     }
-    return new S3AsyncByteReader(
-        getAsyncClient(bucket),
-        bucket,
-        pathStr,
-        version,
-        isRequesterPays(),
-        ssecUsed,
-        sseCustomerKey,
-        "true".equals(options.get(ENABLE_STORE_PARQUET_ASYNC_TIMESTAMP_CHECK.getOptionName())));
+    return HedgedAsyncByteReader.wrap(
+        new S3AsyncByteReader(
+            getAsyncClient(bucket),
+            bucket,
+            pathStr,
+            version,
+            isRequesterPays(),
+            ssecUsed,
+            sseCustomerKey,
+            shouldCheckTimestamp),
+        hedgingPolicy);
   }
 
   @Override
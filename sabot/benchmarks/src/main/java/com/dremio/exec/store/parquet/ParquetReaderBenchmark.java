@@ -0,0 +1,291 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.TestOutputMutator;
+import com.dremio.exec.store.parquet.columnar.ColumnarParquetReaderFactory;
+import com.dremio.io.file.FileAttributes;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionValue;
+import com.dremio.options.OptionValue.OptionType;
+import com.dremio.sabot.BaseTestOperator.OperatorTestContext;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.exec.store.parquet.proto.ParquetProtobuf.ParquetDatasetSplitScanXAttr;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.arrow.schema.SchemaConverter;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.CompressionCodecName;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scans a local, uncompressed Parquet file of {@link #ROWS} flat rows with the row-wise reader and
+ * with the columnar reader, through {@link UnifiedParquetReader} as the scan operator does. The
+ * throughput is the number of rows read per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ParquetReaderBenchmark {
+  private static final int ROWS = 1 << 20;
+  private static final int BATCH_SIZE = 4096;
+  private static final int CARDINALITY = 1024;
+  private static final MessageType TYPE =
+      MessageTypeParser.parseMessageType(
+          "message benchmark {"
+              + " required int32 id;"
+              + " optional int64 amount;"
+              + " optional double price;"
+              + " optional binary name (UTF8);"
+              + "}");
+  private static final List<SchemaPath> COLUMNS =
+      ImmutableList.of("id", "amount", "price", "name").stream()
+          .map(SchemaPath::getSimplePath)
+          .collect(Collectors.toList());
+
+  /** Readers of the flat columns of a row group. */
+  public enum ReaderType {
+    /** {@code ParquetRowiseReader}, used for every column no reader factory supports */
+    ROWWISE,
+    /** {@link com.dremio.exec.store.parquet.columnar.ColumnarParquetReader} */
+    COLUMNAR
+  }
+
+  @Param({"ROWWISE", "COLUMNAR"})
+  public ReaderType readerType;
+
+  @Param({"true", "false"})
+  public boolean dictionary;
+
+  private final OperatorTestContext testContext = new OperatorTestContext();
+  private BufferAllocator allocator;
+  private OperatorContextImpl context;
+  private FileSystem fs;
+  private java.nio.file.Path file;
+  private FileAttributes attributes;
+  private ParquetReaderFactory readerFactory;
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    testContext.setup();
+    testContext
+        .getOptions()
+        .setOption(
+            OptionValue.createBoolean(
+                OptionType.SYSTEM,
+                ExecConstants.PARQUET_COLUMNAR_READER_ENABLED.getOptionName(),
+                readerType == ReaderType.COLUMNAR));
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    context = testContext.getNewOperatorContext(allocator, null, BATCH_SIZE, null);
+    fs = HadoopFileSystem.get(Path.of("/"), new Configuration(), context.getStats());
+    file = Files.createTempFile("ParquetReaderBenchmark", ".parquet");
+    write(file, dictionary);
+    attributes = fs.getFileAttributes(Path.of(file.toString()));
+    readerFactory =
+        readerType == ReaderType.COLUMNAR
+            ? new ColumnarParquetReaderFactory()
+            : ParquetReaderFactory.NONE;
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws Exception {
+    Files.deleteIfExists(file);
+    AutoCloseables.close(context, allocator, testContext);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public int scan() throws Exception {
+    final ParquetScanProjectedColumns projectedColumns =
+        ParquetScanProjectedColumns.fromSchemaPaths(COLUMNS);
+    final List<AutoCloseable> providers = new ArrayList<>();
+    try {
+      InputStreamProvider provider = openRowGroup(0, null, null, projectedColumns);
+      providers.add(provider);
+      final MutableParquetMetadata footer = provider.getFooter();
+      int records = read(provider, footer, 0, projectedColumns);
+      for (int rowGroup = 1; rowGroup < footer.getBlocks().size(); rowGroup++) {
+        provider = openRowGroup(rowGroup, footer, provider, projectedColumns);
+        providers.add(provider);
+        records += read(provider, footer, rowGroup, projectedColumns);
+      }
+      return records;
+    } finally {
+      AutoCloseables.close(providers);
+    }
+  }
+
+  private InputStreamProvider openRowGroup(
+      int rowGroupIndex,
+      MutableParquetMetadata footer,
+      InputStreamProvider previous,
+      ParquetScanProjectedColumns projectedColumns)
+      throws IOException {
+    return InputStreamProviderFactory.DEFAULT.create(
+        fs,
+        context,
+        attributes.getPath(),
+        attributes.size(),
+        attributes.size(),
+        projectedColumns,
+        footer,
+        previous,
+        f -> rowGroupIndex,
+        false,
+        null,
+        attributes.lastModifiedTime().toMillis(),
+        false,
+        false,
+        ParquetFilters.NONE,
+        newFilterCreator(),
+        InputStreamProviderFactory.DEFAULT_NON_PARTITION_COLUMN_RF);
+  }
+
+  private ParquetFilterCreator newFilterCreator() {
+    return readerFactory.newFilterCreator(
+        context, ParquetReaderFactory.ManagedSchemaType.ICEBERG, null, context.getAllocator());
+  }
+
+  private int read(
+      InputStreamProvider provider,
+      MutableParquetMetadata footer,
+      int rowGroupIndex,
+      ParquetScanProjectedColumns projectedColumns)
+      throws Exception {
+    final BatchSchema schema =
+        BatchSchema.newBuilder()
+            .addFields(
+                CompleteType.convertToDremioFields(
+                    new SchemaConverter(false)
+                        .fromParquet(footer.getFileMetaData().getSchema())
+                        .getArrowSchema()
+                        .getFields()))
+            .build();
+    final ParquetDatasetSplitScanXAttr readEntry =
+        ParquetDatasetSplitScanXAttr.newBuilder()
+            .setPath(attributes.getPath().toString())
+            .setStart(0)
+            .setLength(attributes.size())
+            .setFileLength(attributes.size())
+            .setLastModificationTime(attributes.lastModifiedTime().toMillis())
+            .setRowGroupIndex(rowGroupIndex)
+            .build();
+    final SchemaDerivationHelper schemaHelper =
+        SchemaDerivationHelper.builder()
+            .noSchemaLearning(schema)
+            .dateCorruptionStatus(
+                ParquetReaderUtility.DateCorruptionStatus.META_SHOWS_NO_CORRUPTION)
+            .mapDataTypeEnabled(context.getOptions().getOption(ExecConstants.ENABLE_MAP_DATA_TYPE))
+            .build();
+
+    int records = 0;
+    try (UnifiedParquetReader reader =
+            new UnifiedParquetReader(
+                context,
+                readerFactory,
+                schema,
+                projectedColumns,
+                ParquetFilters.NONE,
+                newFilterCreator(),
+                ParquetDictionaryConvertor.DEFAULT,
+                readEntry,
+                fs,
+                footer,
+                schemaHelper,
+                true,
+                false,
+                false,
+                provider,
+                new ArrayList<>(),
+                false);
+        TestOutputMutator mutator = new TestOutputMutator(allocator)) {
+      reader.setIgnoreSchemaLearning(true);
+      schema.materializeVectors(COLUMNS, mutator);
+      reader.setup(mutator);
+      reader.allocate(mutator.getFieldVectorMap());
+      int batch;
+      while ((batch = reader.next()) > 0) {
+        records += batch;
+      }
+    }
+    return records;
+  }
+
+  /** Writes {@link #ROWS} rows whose values are drawn from {@link #CARDINALITY} distinct ones. */
+  private static void write(java.nio.file.Path file, boolean dictionary) throws IOException {
+    final Random random = new Random(0);
+    final SimpleGroupFactory groups = new SimpleGroupFactory(TYPE);
+    try (ParquetWriter<Group> writer =
+        ExampleParquetWriter.builder(new org.apache.hadoop.fs.Path(file.toUri()))
+            .withType(TYPE)
+            .withConf(new Configuration())
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .withCompressionCodec(CompressionCodecName.UNCOMPRESSED)
+            .withDictionaryEncoding(dictionary)
+            .build()) {
+      for (int i = 0; i < ROWS; i++) {
+        final Group group = groups.newGroup().append("id", i);
+        // one row out of 64 has null values
+        if (random.nextInt(64) != 0) {
+          final int value = random.nextInt(CARDINALITY);
+          group
+              .append("amount", value * 0x9E3779B97F4A7C15L)
+              .append("price", value / 3.0d)
+              .append("name", "name-" + value);
+        }
+        writer.write(group);
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adds {@link #KEYS} keys to a {@link BloomFilter}, and probes it with as many keys half of which
+ * were added. The filter is sized for the expected insertions, as the runtime filters of the hash
+ * join are.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class BloomFilterBenchmark {
+  private static final int KEYS = 4096;
+
+  @Param({"4", "8", "16", "32"})
+  public int keyLength;
+
+  @Param({"4096", "1048576"})
+  public int expectedInsertions;
+
+  private BufferAllocator allocator;
+  private ArrowBuf keyData;
+  private ArrowBuf[] keys;
+  private BloomFilter insertFilter;
+  private BloomFilter probeFilter;
+
+  @Setup
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    keyData = allocator.buffer(2L * KEYS * keyLength);
+    final Random random = new Random(42);
+    for (long i = 0; i < keyData.capacity(); i++) {
+      keyData.setByte(i, random.nextInt());
+    }
+    keys = new ArrowBuf[2 * KEYS];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = keyData.slice((long) i * keyLength, keyLength);
+    }
+
+    final long size = BloomFilter.getOptimalSize(expectedInsertions);
+    insertFilter = new BloomFilter(allocator, "insert", size);
+    insertFilter.setup();
+    probeFilter = new BloomFilter(allocator, "probe", size);
+    probeFilter.setup();
+    for (int i = 0; i < KEYS; i++) {
+      probeFilter.put(keys[2 * i], keyLength);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    insertFilter.close();
+    probeFilter.close();
+    keyData.close();
+    allocator.close();
+  }
+
+  @Benchmark
+  public int put() {
+    int changed = 0;
+    for (int i = 0; i < KEYS; i++) {
+      if (insertFilter.put(keys[i], keyLength)) {
+        changed++;
+      }
+    }
+    return changed;
+  }
+
+  @Benchmark
+  public int mightContain() {
+    int found = 0;
+    for (int i = 0; i < keys.length; i++) {
+      if (probeFilter.mightContain(keys[i], keyLength)) {
+        found++;
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.benchmark;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DecimalVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+
+/** Vectors of random keys shared by the benchmarks. */
+public final class BenchmarkVectors {
+  public static final int BATCH_SIZE = 4096;
+
+  /** Key types, from the narrowest to the widest pivot. */
+  public enum KeyType {
+    /** 4 byte keys */
+    INT,
+    /** 8 byte keys */
+    BIGINT,
+    /** 16 byte keys */
+    DECIMAL,
+    /** variable width keys, 5 to 27 bytes long */
+    VARCHAR,
+    /** 8 byte floating point values, used as aggregation input */
+    DOUBLE
+  }
+
+  private BenchmarkVectors() {}
+
+  public static FieldVector newVector(String name, KeyType type, BufferAllocator allocator) {
+    switch (type) {
+      case INT:
+        return new IntVector(name, allocator);
+      case BIGINT:
+        return new BigIntVector(name, allocator);
+      case DECIMAL:
+        return new DecimalVector(name, allocator, 38, 0);
+      case VARCHAR:
+        return new VarCharVector(name, allocator);
+      case DOUBLE:
+        return new Float8Vector(name, allocator);
+      default:
+        throw new UnsupportedOperationException("Unsupported key type " + type);
+    }
+  }
+
+  /**
+   * Fills the vector with {@code records} keys drawn uniformly from {@code cardinality} distinct
+   * values. One key out of 64 is null.
+   */
+  public static void fill(FieldVector vector, int records, int cardinality, long seed) {
+    final Random random = new Random(seed);
+    vector.allocateNew();
+    for (int i = 0; i < records; i++) {
+      final int value = random.nextInt(cardinality);
+      if (random.nextInt(64) == 0) {
+        vector.setNull(i);
+        continue;
+      }
+      if (vector instanceof IntVector) {
+        ((IntVector) vector).setSafe(i, value);
+      } else if (vector instanceof BigIntVector) {
+        ((BigIntVector) vector).setSafe(i, value * 0x9E3779B97F4A7C15L);
+      } else if (vector instanceof DecimalVector) {
+        ((DecimalVector) vector).setSafe(i, BigDecimal.valueOf(value).movePointRight(20));
+      } else if (vector instanceof VarCharVector) {
+        ((VarCharVector) vector).setSafe(i, varcharKey(value));
+      } else if (vector instanceof Float8Vector) {
+        ((Float8Vector) vector).setSafe(i, value / 3.0d);
+      } else {
+        throw new UnsupportedOperationException("Unsupported vector " + vector.getField());
+      }
+    }
+    vector.setValueCount(records);
+  }
+
+  private static byte[] varcharKey(int value) {
+    final StringBuilder key = new StringBuilder("key-").append(value);
+    // spread the key lengths
+    for (int i = value % 17; i > 0; i--) {
+      key.append('.');
+    }
+    return key.toString().getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.aggregate.vectorized;
+
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.HTORDINAL_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.KEYINDEX_OFFSET;
+import static com.dremio.sabot.op.aggregate.vectorized.VectorizedHashAggOperator.PARTITIONINDEX_HTORDINAL_WIDTH;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.benchmark.BenchmarkVectors;
+import com.dremio.sabot.benchmark.BenchmarkVectors.KeyType;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Accumulates an incoming batch into the {@link AccumulatorSet} of a {@link
+ * VectorizedHashAggOperator} partition, for groups spread over as many hash table batches as the
+ * cardinality requires.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AccumulatorBenchmark {
+  private static final int RECORDS = BenchmarkVectors.BATCH_SIZE;
+  private static final int MAX_VALUES_PER_BATCH = BenchmarkVectors.BATCH_SIZE;
+  private static final int BITS_IN_CHUNK = Integer.numberOfTrailingZeros(MAX_VALUES_PER_BATCH);
+  private static final int CHUNK_OFFSET_MASK = MAX_VALUES_PER_BATCH - 1;
+  private static final int JOINT_ALLOCATION_MIN = 4 * 1024;
+  private static final int JOINT_ALLOCATION_MAX = 64 * 1024;
+
+  /** Aggregate functions. */
+  public enum Function {
+    SUM,
+    MIN,
+    MAX
+  }
+
+  @Param({"SUM", "MIN", "MAX"})
+  public Function function;
+
+  @Param({"INT", "BIGINT", "DOUBLE"})
+  public KeyType type;
+
+  @Param({"16", "4096", "65536", "1048576"})
+  public int cardinality;
+
+  private BufferAllocator allocator;
+  private FieldVector input;
+  private FieldVector output;
+  private ArrowBuf offsets;
+  private AccumulatorSet accumulators;
+
+  @Setup
+  public void setup() throws Exception {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    input = BenchmarkVectors.newVector("in", type, allocator);
+    BenchmarkVectors.fill(input, RECORDS, Integer.MAX_VALUE, 42);
+    // integer sums are accumulated into longs
+    output =
+        BenchmarkVectors.newVector(
+            "out",
+            function == Function.SUM && type == KeyType.INT ? KeyType.BIGINT : type,
+            allocator);
+
+    accumulators =
+        new AccumulatorSet(
+            JOINT_ALLOCATION_MIN, JOINT_ALLOCATION_MAX, allocator, newAccumulator());
+    for (int i = 0; i < cardinality; i += MAX_VALUES_PER_BATCH) {
+      accumulators.addBatch();
+    }
+
+    final Random random = new Random(42);
+    offsets = allocator.buffer((long) RECORDS * PARTITIONINDEX_HTORDINAL_WIDTH);
+    for (int i = 0; i < RECORDS; i++) {
+      final long entry = (long) i * PARTITIONINDEX_HTORDINAL_WIDTH;
+      offsets.setInt(entry + HTORDINAL_OFFSET, random.nextInt(cardinality));
+      offsets.setInt(entry + KEYINDEX_OFFSET, i);
+    }
+  }
+
+  private Accumulator newAccumulator() {
+    switch (function) {
+      case SUM:
+        switch (type) {
+          case INT:
+            return new SumAccumulators.IntSumAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          case BIGINT:
+            return new SumAccumulators.BigIntSumAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          case DOUBLE:
+            return new SumAccumulators.DoubleSumAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          default:
+            break;
+        }
+        break;
+      case MIN:
+        switch (type) {
+          case INT:
+            return new MinAccumulators.IntMinAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          case BIGINT:
+            return new MinAccumulators.BigIntMinAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          case DOUBLE:
+            return new MinAccumulators.DoubleMinAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          default:
+            break;
+        }
+        break;
+      case MAX:
+        switch (type) {
+          case INT:
+            return new MaxAccumulators.IntMaxAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          case BIGINT:
+            return new MaxAccumulators.BigIntMaxAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          case DOUBLE:
+            return new MaxAccumulators.DoubleMaxAccumulator(
+                input, output, output, MAX_VALUES_PER_BATCH, allocator);
+          default:
+            break;
+        }
+        break;
+      default:
+        break;
+    }
+    throw new UnsupportedOperationException(
+        String.format("Unsupported accumulator %s(%s)", function, type));
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    AutoCloseables.close(accumulators, offsets, input, output);
+    allocator.close();
+  }
+
+  @Benchmark
+  public void accumulate() {
+    accumulators.accumulate(offsets.memoryAddress(), RECORDS, BITS_IN_CHUNK, CHUNK_OFFSET_MASK);
+  }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.benchmark.BenchmarkVectors;
+import com.dremio.sabot.benchmark.BenchmarkVectors.KeyType;
+import com.koloboke.collect.hash.HashConfig;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.SimpleBigIntVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserts into and probes a {@link LBlockHashTable} with pivoted and hashed keys, the way the
+ * vectorized hash aggregation and hash join do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LBlockHashTableBenchmark {
+  static final int RECORDS = 1 << 20;
+  static final int MAX_VALUES_PER_BATCH = BenchmarkVectors.BATCH_SIZE;
+  private static final int DEFAULT_VAR_LENGTH = 16;
+
+  /**
+   * {@link #RECORDS} pivoted keys. All key columns are filled from the same seed, so that the
+   * number of distinct keys is the cardinality whatever the number of columns.
+   */
+  @State(Scope.Benchmark)
+  public static class Keys {
+    @Param({"INT", "BIGINT", "DECIMAL", "VARCHAR"})
+    public KeyType keyType;
+
+    @Param({"1", "2"})
+    public int keyColumns;
+
+    @Param({"1024", "65536", "1048576"})
+    public int cardinality;
+
+    BufferAllocator allocator;
+    PivotDef pivot;
+    FixedBlockVector fixed;
+    VariableBlockVector variable;
+    SimpleBigIntVector hashValues;
+    private final List<FieldVector> vectors = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() {
+      allocator = new RootAllocator(Long.MAX_VALUE);
+      final FieldVectorPair[] pairs = new FieldVectorPair[keyColumns];
+      for (int i = 0; i < keyColumns; i++) {
+        final FieldVector vector = BenchmarkVectors.newVector("key" + i, keyType, allocator);
+        BenchmarkVectors.fill(vector, RECORDS, cardinality, 42);
+        vectors.add(vector);
+        pairs[i] = new FieldVectorPair(vector, vector);
+      }
+      pivot = PivotBuilder.getBlockDefinition(pairs);
+      fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+      variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+      Pivots.pivot(pivot, RECORDS, fixed, variable);
+
+      hashValues = new SimpleBigIntVector("hashvalues", allocator);
+      hashValues.allocateNew(RECORDS);
+      HashComputation.computeHash(
+          new BlockChunk(
+              fixed.getMemoryAddress(),
+              variable.getMemoryAddress(),
+              variable.getCapacity(),
+              pivot.getVariableCount() == 0,
+              pivot.getBlockWidth(),
+              RECORDS,
+              hashValues.getBufferAddress(),
+              0));
+    }
+
+    LBlockHashTable newTable() {
+      return new LBlockHashTable(
+          HashConfig.getDefault(),
+          pivot,
+          allocator,
+          MAX_VALUES_PER_BATCH,
+          DEFAULT_VAR_LENGTH,
+          false,
+          MAX_VALUES_PER_BATCH);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      AutoCloseables.close(hashValues, fixed, variable);
+      AutoCloseables.close(vectors);
+      vectors.clear();
+      allocator.close();
+    }
+  }
+
+  /** An empty table for each insert run. */
+  @State(Scope.Thread)
+  public static class EmptyTable {
+    LBlockHashTable table;
+
+    @Setup(Level.Invocation)
+    public void setup(Keys keys) {
+      table = keys.newTable();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() throws Exception {
+      table.close();
+    }
+  }
+
+  /** A table holding all the keys, probed by every run. */
+  @State(Scope.Thread)
+  public static class FilledTable {
+    LBlockHashTable table;
+
+    @Setup(Level.Trial)
+    public void setup(Keys keys) {
+      table = keys.newTable();
+      insertAll(keys, table);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+      table.close();
+    }
+  }
+
+  @Benchmark
+  public int insert(Keys keys, EmptyTable empty) {
+    insertAll(keys, empty.table);
+    return empty.table.size();
+  }
+
+  @Benchmark
+  public long probe(Keys keys, FilledTable filled) {
+    final LBlockHashTable table = filled.table;
+    final long fixedAddr = keys.fixed.getMemoryAddress();
+    final long varAddr = keys.variable.getMemoryAddress();
+    final long varCapacity = keys.variable.getCapacity();
+    long ordinals = 0;
+    for (int i = 0; i < RECORDS; i++) {
+      ordinals += table.find(fixedAddr, varAddr, varCapacity, i, (int) keys.hashValues.get(i));
+    }
+    return ordinals;
+  }
+
+  private static void insertAll(Keys keys, LBlockHashTable table) {
+    final long fixedAddr = keys.fixed.getMemoryAddress();
+    final long varAddr = keys.variable.getMemoryAddress();
+    final long varCapacity = keys.variable.getCapacity();
+    for (int i = 0; i < RECORDS; i++) {
+      table.add(fixedAddr, varAddr, varCapacity, i, (int) keys.hashValues.get(i));
+    }
+  }
+}
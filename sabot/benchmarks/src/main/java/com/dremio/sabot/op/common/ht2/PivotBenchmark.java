@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.benchmark.BenchmarkVectors;
+import com.dremio.sabot.benchmark.BenchmarkVectors.KeyType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pivots a batch of key columns into blocks with {@link Pivots}, and back with {@link Unpivots}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PivotBenchmark {
+  private static final int RECORDS = BenchmarkVectors.BATCH_SIZE;
+
+  @Param({"INT", "BIGINT", "DECIMAL", "VARCHAR"})
+  public KeyType keyType;
+
+  @Param({"1", "4"})
+  public int keyColumns;
+
+  @Param({"16", "4096"})
+  public int cardinality;
+
+  private BufferAllocator allocator;
+  private PivotDef pivot;
+  private FixedBlockVector fixed;
+  private VariableBlockVector variable;
+  private final List<FieldVector> vectors = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final FieldVectorPair[] pairs = new FieldVectorPair[keyColumns];
+    for (int i = 0; i < keyColumns; i++) {
+      final FieldVector incoming = BenchmarkVectors.newVector("in" + i, keyType, allocator);
+      BenchmarkVectors.fill(incoming, RECORDS, cardinality, i);
+      final FieldVector outgoing = BenchmarkVectors.newVector("out" + i, keyType, allocator);
+      vectors.add(incoming);
+      vectors.add(outgoing);
+      pairs[i] = new FieldVectorPair(incoming, outgoing);
+    }
+    pivot = PivotBuilder.getBlockDefinition(pairs);
+    fixed = new FixedBlockVector(allocator, pivot.getBlockWidth());
+    variable = new VariableBlockVector(allocator, pivot.getVariableCount());
+    Pivots.pivot(pivot, RECORDS, fixed, variable);
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    AutoCloseables.close(fixed, variable);
+    AutoCloseables.close(vectors);
+    vectors.clear();
+    allocator.close();
+  }
+
+  @Benchmark
+  public long pivot() {
+    Pivots.pivot(pivot, RECORDS, fixed, variable);
+    return fixed.getMemoryAddress();
+  }
+
+  @Benchmark
+  public int unpivot() {
+    Unpivots.unpivot(pivot, fixed, variable, 0, RECORDS);
+    return pivot.getOutputVectors().get(0).getValueCount();
+  }
+}
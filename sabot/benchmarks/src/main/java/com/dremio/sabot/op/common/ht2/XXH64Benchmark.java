@@ -0,0 +1,87 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.common.ht2;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Hashes {@link #KEYS} consecutive keys of a given length with {@link XXH64}. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class XXH64Benchmark {
+  private static final int KEYS = 4096;
+
+  @Param({"4", "8", "16", "32", "64", "256"})
+  public int keyLength;
+
+  private BufferAllocator allocator;
+  private ArrowBuf keys;
+
+  @Setup
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    keys = allocator.buffer((long) KEYS * keyLength);
+    final Random random = new Random(42);
+    for (long i = 0; i < keys.capacity(); i += 8) {
+      keys.setLong(i, random.nextLong());
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    keys.close();
+    allocator.close();
+  }
+
+  @Benchmark
+  public long xxHash64() {
+    final long addr = keys.memoryAddress();
+    long hashes = 0;
+    for (int i = 0; i < KEYS; i++) {
+      hashes ^= XXH64.xxHash64(addr + (long) i * keyLength, keyLength, 0);
+    }
+    return hashes;
+  }
+
+  @Benchmark
+  public int xxHash6432() {
+    final long addr = keys.memoryAddress();
+    int hashes = 0;
+    for (int i = 0; i < KEYS; i++) {
+      hashes ^= XXH64.xxHash6432(addr + (long) i * keyLength, keyLength, 0);
+    }
+    return hashes;
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.copier;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.sabot.benchmark.BenchmarkVectors;
+import com.dremio.sabot.benchmark.BenchmarkVectors.KeyType;
+import com.google.common.collect.ImmutableList;
+import io.netty.util.internal.PlatformDependent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Copies a batch of randomly selected records with the {@link FieldBufferCopier} variants: 2 byte
+ * selection vectors of the filter, 4 byte selection vectors of the sort, and 6 byte record links of
+ * the hash join, with and without skipped links.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldBufferCopierBenchmark {
+  private static final int RECORDS = BenchmarkVectors.BATCH_SIZE;
+  private static final int BATCHES = 8;
+
+  /** Kinds of copiers, by width of the record offsets they read. */
+  public enum CopierKind {
+    TWO_BYTE,
+    FOUR_BYTE,
+    SIX_BYTE,
+    SIX_BYTE_CONDITIONAL
+  }
+
+  @Param({"INT", "BIGINT", "DECIMAL", "VARCHAR"})
+  public KeyType type;
+
+  @Param({"TWO_BYTE", "FOUR_BYTE", "SIX_BYTE", "SIX_BYTE_CONDITIONAL"})
+  public CopierKind copierKind;
+
+  private BufferAllocator allocator;
+  private final List<FieldVector> vectors = new ArrayList<>();
+  private FieldVector output;
+  private ArrowBuf offsets;
+  private FieldBufferCopier copier;
+
+  @Setup
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    final FieldVector[] batches = new FieldVector[BATCHES];
+    for (int i = 0; i < BATCHES; i++) {
+      batches[i] = BenchmarkVectors.newVector("in", type, allocator);
+      BenchmarkVectors.fill(batches[i], RECORDS, RECORDS, i);
+      vectors.add(batches[i]);
+    }
+    output = BenchmarkVectors.newVector("out", type, allocator);
+    vectors.add(output);
+
+    final FieldBufferCopierFactory factory = new FieldBufferCopierFactory(null);
+    final Random random = new Random(42);
+    switch (copierKind) {
+      case TWO_BYTE:
+        // filters keep the incoming order
+        final int[] selected = random.ints(RECORDS, 0, RECORDS).sorted().toArray();
+        offsets = allocator.buffer(RECORDS * 2L);
+        for (int i = 0; i < RECORDS; i++) {
+          offsets.setShort(i * 2L, selected[i]);
+        }
+        copier =
+            factory
+                .getTwoByteCopiers(
+                    ImmutableList.of(batches[0]), ImmutableList.of(output), false)
+                .get(0);
+        break;
+      case FOUR_BYTE:
+        offsets = allocator.buffer(RECORDS * 4L);
+        for (int i = 0; i < RECORDS; i++) {
+          offsets.setInt(i * 4L, random.nextInt(BATCHES) << 16 | random.nextInt(RECORDS));
+        }
+        copier =
+            factory
+                .getFourByteCopiers(
+                    Collections.singletonList(batches), Collections.singletonList(output))
+                .get(0);
+        break;
+      case SIX_BYTE:
+      case SIX_BYTE_CONDITIONAL:
+        final boolean conditional = copierKind == CopierKind.SIX_BYTE_CONDITIONAL;
+        offsets = allocator.buffer(RECORDS * (long) FieldBufferCopier.BUILD_RECORD_LINK_SIZE);
+        for (int i = 0; i < RECORDS; i++) {
+          final long link = (long) i * FieldBufferCopier.BUILD_RECORD_LINK_SIZE;
+          // unmatched probe records of outer joins have no build record
+          final boolean skip = conditional && random.nextInt(8) == 0;
+          offsets.setInt(link, skip ? -1 : random.nextInt(BATCHES));
+          offsets.setShort(link + 4, random.nextInt(RECORDS));
+        }
+        final List<FieldVector[]> inputs = Collections.singletonList(batches);
+        final List<FieldVector> outputs = Collections.singletonList(output);
+        copier =
+            conditional
+                ? factory.getSixByteConditionalCopiers(inputs, outputs).get(0)
+                : factory.getSixByteCopiers(inputs, outputs).get(0);
+        break;
+      default:
+        throw new UnsupportedOperationException("Unsupported copier " + copierKind);
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws Exception {
+    offsets.close();
+    AutoCloseables.close(vectors);
+    vectors.clear();
+    allocator.close();
+  }
+
+  @Benchmark
+  public long copy() {
+    copier.copy(offsets.memoryAddress(), RECORDS);
+    return PlatformDependent.getLong(output.getDataBufferAddress());
+  }
+}
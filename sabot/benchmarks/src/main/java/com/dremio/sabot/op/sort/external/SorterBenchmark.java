@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.FieldReference;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.expr.ClassProducer;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.sabot.BaseTestOperator.OperatorTestContext;
+import com.dremio.sabot.benchmark.BenchmarkVectors;
+import com.dremio.sabot.benchmark.BenchmarkVectors.KeyType;
+import com.dremio.sabot.exec.context.BufferManagerImpl;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+import org.apache.calcite.rel.RelFieldCollation.NullDirection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Sorts {@link #BATCHES} batches held in memory with the {@link Sorter}s of a {@link MemoryRun}.
+ * The batches and the sorter are rebuilt before each sort, the generated comparator being cached.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SorterBenchmark {
+  private static final int BATCHES = 64;
+  private static final int RECORDS = BenchmarkVectors.BATCH_SIZE;
+  private static final String KEY = "key";
+
+  /** Sorters of a {@link MemoryRun}. */
+  public enum SorterType {
+    QUICK,
+    SPLAY
+  }
+
+  @Param({"QUICK", "SPLAY"})
+  public SorterType sorterType;
+
+  @Param({"INT", "BIGINT", "DECIMAL", "VARCHAR"})
+  public KeyType keyType;
+
+  @Param({"16", "1048576"})
+  public int cardinality;
+
+  private final OperatorTestContext testContext = new OperatorTestContext();
+  private final List<RecordBatchData> batches = new ArrayList<>();
+  private BufferAllocator allocator;
+  private BufferManagerImpl bufferManager;
+  private ClassProducer producer;
+  private Sorter sorter;
+  private SelectionVector4 sv4;
+
+  @Setup(Level.Trial)
+  public void setupTrial() {
+    testContext.setup();
+    allocator = new RootAllocator(Long.MAX_VALUE);
+    bufferManager = new BufferManagerImpl(allocator);
+    producer = testContext.newClassProducer(bufferManager);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDownTrial() throws Exception {
+    AutoCloseables.close(bufferManager, allocator, testContext);
+  }
+
+  @Setup(Level.Invocation)
+  public void setup() throws Exception {
+    for (int i = 0; i < BATCHES; i++) {
+      final VectorContainer container = new VectorContainer(allocator);
+      final FieldVector key = BenchmarkVectors.newVector(KEY, keyType, allocator);
+      BenchmarkVectors.fill(key, RECORDS, cardinality, i);
+      container.add(key);
+      container.setAllCount(RECORDS);
+      container.buildSchema();
+      if (i == 0) {
+        newSorter(container);
+      }
+      batches.add(new RecordBatchData(container, allocator));
+    }
+  }
+
+  private void newSorter(VectorContainer container) throws Exception {
+    final List<Ordering> orderings =
+        ImmutableList.of(
+            new Ordering(Direction.ASCENDING, new FieldReference(KEY), NullDirection.FIRST));
+    sorter =
+        sorterType == SorterType.QUICK
+            ? new QuickSorter(orderings, producer, container.getSchema(), allocator)
+            : new SplaySorter(orderings, producer, container.getSchema(), allocator);
+    sorter.setup(container);
+  }
+
+  @TearDown(Level.Invocation)
+  public void tearDown() throws Exception {
+    AutoCloseables.close(sv4, sorter);
+    AutoCloseables.close(batches);
+    batches.clear();
+    sv4 = null;
+    sorter = null;
+  }
+
+  @Benchmark
+  public int sort() throws Exception {
+    int records = 0;
+    for (RecordBatchData batch : batches) {
+      records += batch.getRecordCount();
+      sorter.expandMemoryIfNecessary(records);
+      sorter.addBatch(batch, allocator);
+    }
+    sv4 = sorter.getFinalSort(allocator, RECORDS);
+    return sv4.getTotalCount();
+  }
+}
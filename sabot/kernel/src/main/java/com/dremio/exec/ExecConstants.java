@@ -61,10 +61,26 @@ public interface ExecConstants {
   RangeLongValidator INCOMING_BUFFER_SIZE =
       new RangeLongValidator("exec.buffer.size", 0, Integer.MAX_VALUE, 6);
 
+  // Codec used to compress the batches sent by hash partition, broadcast and round robin senders
+  EnumeratedStringValidator EXCHANGE_COMPRESSION_CODEC =
+      new EnumeratedStringValidator("exec.exchange.compression.codec", "none", "none", "lz4");
+  // Send a batch uncompressed when compressing it does not shrink it enough
+  BooleanValidator EXCHANGE_COMPRESSION_ADAPTIVE =
+      new BooleanValidator("exec.exchange.compression.adaptive", true);
+  DoubleValidator EXCHANGE_COMPRESSION_MIN_RATIO =
+      new RangeDoubleValidator("exec.exchange.compression.min_ratio", 1.0, 100.0, 1.2);
+  // Batches smaller than this are always sent uncompressed
+  RangeLongValidator EXCHANGE_COMPRESSION_MIN_BATCH_BYTES =
+      new RangeLongValidator(
+          "exec.exchange.compression.min_batch_bytes", 0, Integer.MAX_VALUE, 16 * 1024);
+
   String SPOOLING_BUFFER_DELETE = "dremio.exec.buffer.spooling.delete";
   String SPOOLING_BUFFER_SIZE = "dremio.exec.buffer.spooling.size";
   String BATCH_PURGE_THRESHOLD = "dremio.exec.sort.purge.threshold";
   String SPILL_DIRS = "dremio.exec.sort.external.spill.directories";
+  String BOOST_LOCAL_ENABLED = "dremio.exec.boost.local.enabled";
+  String BOOST_LOCAL_DIRS = "dremio.exec.boost.local.directories";
+  String BOOST_LOCAL_MAX_SIZE_BYTES = "dremio.exec.boost.local.max_size_bytes";
   String HTTP_ENABLE = "dremio.exec.http.enabled";
 
   /* Spill disk space configurations */
@@ -294,6 +310,11 @@ public interface ExecConstants {
   LongValidator PARQUET_MAX_FOOTER_LEN_VALIDATOR =
       new LongValidator(PARQUET_MAX_FOOTER_LEN, 16 * 1024 * 1024);
 
+  // Executor wide cache of parquet footers and page indexes, weighed by serialized size. 0 disables
+  String PARQUET_FOOTER_CACHE_MAX_SIZE = "store.parquet.footer_cache.max_size_bytes";
+  RangeLongValidator PARQUET_FOOTER_CACHE_MAX_SIZE_VALIDATOR =
+      new RangeLongValidator(PARQUET_FOOTER_CACHE_MAX_SIZE, 0, Long.MAX_VALUE, 256 * 1024 * 1024);
+
   String PARQUET_MEMORY_THRESHOLD = "store.parquet.memory_threshold";
   LongValidator PARQUET_MEMORY_THRESHOLD_VALIDATOR =
       new LongValidator(PARQUET_MEMORY_THRESHOLD, 512 * 1024 * 1024);
@@ -335,6 +356,9 @@ public interface ExecConstants {
       new BooleanValidator(PARQUET_AUTO_CORRECT_DATES, false);
 
   BooleanValidator PARQUET_READER_VECTORIZE = new BooleanValidator("store.parquet.vectorize", true);
+  // Decode flat columns with the columnar reader when dremio.plugins.parquet.factory points to it
+  BooleanValidator PARQUET_COLUMNAR_READER_ENABLED =
+      new BooleanValidator("store.parquet.columnar_reader.enabled", false);
   BooleanValidator ENABLED_PARQUET_TRACING =
       new BooleanValidator("store.parquet.vectorize.tracing.enable", false);
   BooleanValidator ENABLED_PARQUET_VECTORIZED_DETAILED_STATS =
@@ -504,6 +528,10 @@ public interface ExecConstants {
   String BOOTSTRAP_STORAGE_PLUGINS_FILE = "bootstrap-storage-plugins.json";
   String MAX_LOADING_CACHE_SIZE_CONFIG = "dremio.exec.compile.cache_max_size";
   String MAX_SPLIT_CACHE_SIZE_CONFIG = "dremio.exec.compile.split_cache_max_size";
+  // local directory keeping the compiled classes across restarts, disabled when empty
+  String PERSISTENT_CLASS_CACHE_PATH_CONFIG = "dremio.exec.compile.persistent_cache.path";
+  String PERSISTENT_CLASS_CACHE_MAX_SIZE_CONFIG =
+      "dremio.exec.compile.persistent_cache.max_size_bytes";
 
   // enable EXTEND on SELECT
   BooleanValidator ENABLE_EXTEND_ON_SELECT =
@@ -592,6 +620,35 @@ public interface ExecConstants {
   BooleanValidator PARQUET_COLUMN_ORDERING =
       new BooleanValidator("store.parquet.column_ordering", false);
 
+  // Coalesced ranged reads of the column chunks of a row group, for file systems with async reads
+  BooleanValidator PARQUET_COALESCED_READ_ENABLED =
+      new BooleanValidator("store.parquet.coalesced_read.enabled", false);
+  RangeLongValidator PARQUET_COALESCED_READ_MAX_GAP =
+      new RangeLongValidator(
+          "store.parquet.coalesced_read.max_gap_bytes", 0, 64 * 1024 * 1024, 1024 * 1024);
+  RangeLongValidator PARQUET_COALESCED_READ_MAX_RANGE =
+      new RangeLongValidator(
+          "store.parquet.coalesced_read.max_range_bytes",
+          1024 * 1024,
+          Integer.MAX_VALUE,
+          8 * 1024 * 1024);
+  RangeLongValidator PARQUET_COALESCED_READ_SUB_RANGE =
+      new RangeLongValidator(
+          "store.parquet.coalesced_read.sub_range_bytes",
+          64 * 1024,
+          Integer.MAX_VALUE,
+          4 * 1024 * 1024);
+  RangeLongValidator PARQUET_COALESCED_READ_MAX_BUFFERED =
+      new RangeLongValidator(
+          "store.parquet.coalesced_read.max_buffered_bytes",
+          0,
+          Long.MAX_VALUE,
+          16 * 1024 * 1024);
+
+  // Caching of async reads of remote sources in blocks on the executor cache mount points
+  BooleanValidator LOCAL_BLOCK_CACHE_ENABLED =
+      new BooleanValidator("store.local_block_cache.enabled", false);
+
   BooleanValidator HIVE_COMPLEXTYPES_ENABLED =
       new BooleanValidator("store.hive.parquet.support_complex_types", true);
   String PARQUET_LIST_ITEMS_KEY = "store.parquet.list_items.threshold";
@@ -643,6 +700,8 @@ public interface ExecConstants {
       new BooleanValidator("exec.operator.sort.external.compress_spill_files", true);
   BooleanValidator EXTERNAL_SORT_ENABLE_SPLAY_SORT =
       new BooleanValidator("exec.operator.sort.external.enable_splay_sort", false);
+  BooleanValidator EXTERNAL_SORT_ENABLE_RADIX_SORT =
+      new BooleanValidator("exec.operator.sort.external.enable_radix_sort", false);
   BooleanValidator EXTERNAL_SORT_ENABLE_MICRO_SPILL =
       new BooleanValidator("exec.operator.sort.external.enable_micro_spill", true);
   PositiveLongValidator SORT_MAX_WRITE_BATCH =
@@ -777,6 +836,14 @@ public interface ExecConstants {
   BooleanValidator ENABLE_READING_POSITIONAL_DELETE_WITH_ANTI_JOIN =
       new BooleanValidator("dremio.iceberg.reading_positional_delete_with_anti_join.enabled", true);
 
+  // executor wide bound of the off-heap positional delete bitmaps, 0 disables the cache
+  RangeLongValidator ICEBERG_POSITIONAL_DELETE_CACHE_MAX_SIZE =
+      new RangeLongValidator(
+          "dremio.iceberg.positional_delete_cache.max_size_bytes",
+          0,
+          Long.MAX_VALUE,
+          128 * 1024 * 1024);
+
   BooleanValidator ENABLE_ICEBERG_COMBINE_SMALL_FILES_FOR_DML =
       new BooleanValidator("dremio.iceberg.combine_small_files_for_dml.enabled", false);
   BooleanValidator ENABLE_ICEBERG_COMBINE_SMALL_FILES_FOR_OPTIMIZE =
@@ -872,6 +939,12 @@ public interface ExecConstants {
   PositiveLongValidator SLICING_THREAD_SPINDOWN_MULTIPLE =
       new com.dremio.options.TypeValidators.PositiveLongValidator(
           "dremio.sliced.spindown_multiple", Long.MAX_VALUE, 100);
+  // number of threads of the time-sliced task pool, 0 uses one thread per core
+  RangeLongValidator SLICING_NUM_THREADS =
+      new RangeLongValidator("dremio.sliced.num_threads", 0, 4096, 0);
+  // time a task runs on a slicing thread before the thread picks the next task to run
+  PositiveLongValidator SLICING_QUANTUM_MS =
+      new PositiveLongValidator("dremio.sliced.quantum_ms", 10_000, 10);
 
   // warning threshold for spilling
   PositiveLongValidator SPILL_IO_WARN_MAX_RUNTIME_MS =
@@ -1076,6 +1149,10 @@ public interface ExecConstants {
   RangeLongValidator OUTSTANDING_RPCS_PER_TUNNEL =
       new RangeLongValidator("dremio.exec.outstanding_rpcs_per_tunnel", 3, 64, 3);
 
+  // How long a result stream read directly from an executor waits for its fragment or its reader
+  PositiveLongValidator RESULT_STREAM_ATTACH_TIMEOUT_MILLIS =
+      new PositiveLongValidator("exec.result_stream.attach_timeout_ms", Long.MAX_VALUE, 300_000);
+
   BooleanValidator ENABLE_NATIVE_ROW_COLUMN_POLICIES =
       new BooleanValidator("dremio.native_row_column_policies.enabled", true);
 
@@ -1254,6 +1331,13 @@ public interface ExecConstants {
   PositiveLongValidator WINDOW_FRAME_MAX_BOUND_THRESHOLD =
       new PositiveLongValidator("exec.window.max_bound_threshold", Integer.MAX_VALUE, 1000);
 
+  // Spill the batches buffered by the window operator when memory runs low
+  BooleanValidator WINDOW_SPILL_ENABLED = new BooleanValidator("exec.window.spill.enabled", true);
+  // Maximum memory the window operator keeps buffered batches in before spilling some of them
+  RangeLongValidator WINDOW_SPILL_MAX_IN_MEMORY_BYTES =
+      new RangeLongValidator(
+          "exec.window.spill.max_in_memory_bytes", 0, Long.MAX_VALUE, Long.MAX_VALUE);
+
   PositiveLongValidator NAMED_EXPRESSION_LENGTH_THRESHOLD =
       new PositiveLongValidator(
           "exec.operator.named_expression_length.threshold.", Long.MAX_VALUE, 512);
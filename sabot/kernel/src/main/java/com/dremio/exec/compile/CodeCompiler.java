@@ -46,6 +46,8 @@ public class CodeCompiler {
       generatedCodeToCompiledClazzCache;
   private final LoadingCache<ExpressionsHolder, GeneratedClassEntryWithFunctionErrorContextSizeInfo>
       expressionsToCompiledClazzCache;
+  // compiled classes kept across restarts, null if disabled
+  private final PersistentClassCache persistentClassCache;
 
   @SuppressWarnings("NoGuavaCacheUsage") // TODO: fix as part of DX-51884
   public CodeCompiler(final SabotConfig config, final OptionManager optionManager) {
@@ -62,6 +64,7 @@ public class CodeCompiler {
             .softValues()
             .maximumSize(cacheMaxSize)
             .build(new ExpressionsToCompiledClazzCacheLoader());
+    persistentClassCache = PersistentClassCache.create(config);
   }
 
   @SuppressWarnings("unchecked")
@@ -136,12 +139,31 @@ public class CodeCompiler {
     this.expressionsToCompiledClazzCache.invalidateAll();
   }
 
+  /** Compiles the generated code, unless the persistent cache holds the compiled classes. */
+  private Class<?> compile(final CodeGenerator.CodeDefinition<?> cgd)
+      throws ClassTransformationException {
+    if (persistentClassCache != null) {
+      final Class<?> cached = persistentClassCache.load(new QueryClassLoader(selector), cgd);
+      if (cached != null) {
+        logger.debug("Loaded {} from the persistent cache", cached.getName());
+        return cached;
+      }
+    }
+    final QueryClassLoader loader = new QueryClassLoader(selector);
+    final Class<?> c =
+        transformer.getImplementationClass(
+            loader, cgd.getDefinition(), cgd.getGeneratedCode(), cgd.getMaterializedClassName());
+    if (persistentClassCache != null) {
+      persistentClassCache.store(loader, cgd, c);
+    }
+    return c;
+  }
+
   private class ExpressionsToCompiledClazzCacheLoader
       extends CacheLoader<ExpressionsHolder, GeneratedClassEntryWithFunctionErrorContextSizeInfo> {
     @Override
     public GeneratedClassEntryWithFunctionErrorContextSizeInfo load(
         final ExpressionsHolder expressionsHolder) throws Exception {
-      final QueryClassLoader loader = new QueryClassLoader(selector);
       ClassGenerator<?> rootGenerator = expressionsHolder.cg.getRoot();
       // adjust count as the root generator is per operator while the cache entry is per split. So
       // cached counts
@@ -150,10 +172,7 @@ public class CodeCompiler {
       CodeGenerator<?> cg = expressionsHolder.cg;
       cg.getRoot().evaluateAllLazyExps();
       cg.generate();
-      final CodeGenerator.CodeDefinition<?> cgd = cg.getCodeDefinition();
-      final Class<?> c =
-          transformer.getImplementationClass(
-              loader, cgd.getDefinition(), cgd.getGeneratedCode(), cgd.getMaterializedClassName());
+      final Class<?> c = compile(cg.getCodeDefinition());
       final GeneratedClassEntryWithFunctionErrorContextSizeInfo ce =
           new GeneratedClassEntryWithFunctionErrorContextSizeInfo(
               c, rootGenerator.getFunctionErrorContextsCount() - currentCount);
@@ -167,10 +186,7 @@ public class CodeCompiler {
     @Override
     public GeneratedClassEntry load(final CodeGenerator.CodeDefinition<?> cgd) throws Exception {
       logger.debug("In Cache load; Compile code");
-      final QueryClassLoader loader = new QueryClassLoader(selector);
-      final Class<?> c =
-          transformer.getImplementationClass(
-              loader, cgd.getDefinition(), cgd.getGeneratedCode(), cgd.getMaterializedClassName());
+      final Class<?> c = compile(cgd);
       logger.debug("Exit Cache load");
       return new GeneratedClassEntry(c);
     }
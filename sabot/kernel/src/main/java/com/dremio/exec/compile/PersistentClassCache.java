@@ -0,0 +1,311 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.compile;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.expr.CodeGenerator.CodeDefinition;
+import com.dremio.exec.store.sys.VersionIterator.VersionInfo;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Strings;
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the byte code of the generated classes on local disk, so that the classes compiled before
+ * a restart do not have to be compiled again.
+ *
+ * <p>Entries are keyed by a digest of the build, the byte code of the template and the generated
+ * code before it is named after its materialized class. The build is identified by its commit and
+ * build time on top of its version, as SNAPSHOT builds of different commits share a version. A
+ * cached class keeps the name it was compiled with, which is safe since every compiled class gets
+ * its own {@link QueryClassLoader}. Entries are only read when requested, and the least recently
+ * used ones are deleted once the cache grows over its maximum size.
+ */
+public class PersistentClassCache {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(PersistentClassCache.class);
+
+  private static final String SUFFIX = ".classes";
+  private static final int MAGIC = 0x44434331;
+
+  private final Path directory;
+  private final long maxSizeBytes;
+  private final String version;
+  // digests of the byte code of the templates, by class name
+  private final Map<String, String> templateDigests = new ConcurrentHashMap<>();
+
+  // digests of the entries on disk and their sizes, in access order
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeBytes;
+
+  @VisibleForTesting
+  PersistentClassCache(Path directory, long maxSizeBytes, String version) throws IOException {
+    Preconditions.checkArgument(maxSizeBytes > 0, "Invalid cache size %s", maxSizeBytes);
+    this.directory = Files.createDirectories(directory);
+    this.maxSizeBytes = maxSizeBytes;
+    this.version = version;
+
+    final List<Path> files;
+    try (Stream<Path> stream = Files.list(directory)) {
+      files = stream.collect(Collectors.toList());
+    }
+    final List<Path> cached = new ArrayList<>();
+    for (Path file : files) {
+      if (file.getFileName().toString().endsWith(SUFFIX)) {
+        cached.add(file);
+      } else {
+        // left over by an interrupted write
+        Files.deleteIfExists(file);
+      }
+    }
+    // files are touched when read, so the least recently used ones come first
+    cached.sort(Comparator.comparing(PersistentClassCache::lastModified));
+    for (Path file : cached) {
+      final String name = file.getFileName().toString();
+      final long size = Files.size(file);
+      entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+      sizeBytes += size;
+    }
+    evict();
+  }
+
+  /** Returns the cache configured for this node, or null if it is disabled. */
+  public static PersistentClassCache create(SabotConfig config) {
+    final String path = config.getString(ExecConstants.PERSISTENT_CLASS_CACHE_PATH_CONFIG);
+    if (path.isEmpty()) {
+      return null;
+    }
+    try {
+      return new PersistentClassCache(
+          Paths.get(path),
+          config.getLong(ExecConstants.PERSISTENT_CLASS_CACHE_MAX_SIZE_CONFIG),
+          buildId(new VersionInfo()));
+    } catch (IOException e) {
+      logger.warn("Failed to open the persistent class cache in {}, disabling it", path, e);
+      return null;
+    }
+  }
+
+  /** Identifies the build that compiles the cached classes. */
+  @VisibleForTesting
+  static String buildId(VersionInfo info) {
+    return String.join(
+        "/",
+        Strings.nullToEmpty(info.version),
+        Strings.nullToEmpty(info.commit_id),
+        Strings.nullToEmpty(info.build_time));
+  }
+
+  /**
+   * Loads the class cached for the code definition into the class loader.
+   *
+   * @return the loaded class, or null if it is not cached or cannot be loaded
+   */
+  public Class<?> load(QueryClassLoader loader, CodeDefinition<?> cgd) {
+    final String digest = digest(cgd);
+    synchronized (this) {
+      if (digest == null || entries.get(digest) == null) {
+        return null;
+      }
+    }
+
+    final Path file = file(digest);
+    try {
+      final String className;
+      final List<ClassBytes> classes = new ArrayList<>();
+      try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+        Preconditions.checkState(in.readInt() == MAGIC, "Invalid cache file %s", file);
+        className = in.readUTF();
+        final int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+          final String name = in.readUTF();
+          final byte[] bytes = new byte[in.readInt()];
+          in.readFully(bytes);
+          classes.add(new ClassBytes(name, bytes));
+        }
+      }
+      for (ClassBytes clazz : classes) {
+        loader.injectByteCode(clazz.getName(), clazz.getBytes());
+      }
+      final Class<?> c = loader.loadClass(className);
+      Preconditions.checkState(
+          cgd.getDefinition().getExternalInterface().isAssignableFrom(c),
+          "Cached class %s does not implement %s",
+          className,
+          cgd.getDefinition().getExternalInterface().getName());
+      touch(file);
+      return c;
+    } catch (IOException | ClassNotFoundException | RuntimeException | LinkageError e) {
+      logger.warn("Failed to load cached class {}, removing it", file, e);
+      remove(digest);
+      return null;
+    }
+  }
+
+  /** Stores the classes compiled for the code definition by the class loader. */
+  public void store(QueryClassLoader loader, CodeDefinition<?> cgd, Class<?> clazz) {
+    final String digest = digest(cgd);
+    synchronized (this) {
+      if (digest == null || entries.containsKey(digest)) {
+        return;
+      }
+    }
+
+    final List<ClassBytes> classes = loader.getInjectedByteCode();
+    final Path file = file(digest);
+    Path tmp = null;
+    try {
+      tmp = Files.createTempFile(directory, digest, ".tmp");
+      try (OutputStream os = Files.newOutputStream(tmp);
+          DataOutputStream out = new DataOutputStream(os)) {
+        out.writeInt(MAGIC);
+        out.writeUTF(clazz.getName());
+        out.writeInt(classes.size());
+        for (ClassBytes c : classes) {
+          out.writeUTF(c.getName());
+          out.writeInt(c.getBytes().length);
+          out.write(c.getBytes());
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      final long size = Files.size(file);
+      synchronized (this) {
+        final Long previous = entries.put(digest, size);
+        sizeBytes += size - (previous == null ? 0 : previous);
+        evict();
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to cache class {}", clazz.getName(), e);
+      if (tmp != null) {
+        deleteQuietly(tmp);
+      }
+    }
+  }
+
+  @VisibleForTesting
+  synchronized int getNumEntries() {
+    return entries.size();
+  }
+
+  @VisibleForTesting
+  synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  /** Returns the digest of the code definition, or null if its template cannot be read. */
+  private String digest(CodeDefinition<?> cgd) {
+    final String templateClassName = cgd.getDefinition().getTemplateClassName();
+    final String templateDigest =
+        templateDigests.computeIfAbsent(templateClassName, PersistentClassCache::digestTemplate);
+    if (templateDigest.isEmpty()) {
+      return null;
+    }
+    return Hashing.sha256()
+        .newHasher()
+        .putString(version, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(templateClassName, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(templateDigest, StandardCharsets.UTF_8)
+        .putByte((byte) 0)
+        .putString(cgd.getGenerifiedCode(), StandardCharsets.UTF_8)
+        .hash()
+        .toString();
+  }
+
+  private static String digestTemplate(String className) {
+    final String resource = className.replace('.', '/') + ".class";
+    try (InputStream in =
+        PersistentClassCache.class.getClassLoader().getResourceAsStream(resource)) {
+      if (in == null) {
+        logger.warn("Failed to find the byte code of template {}, not caching it", className);
+        return "";
+      }
+      return Hashing.sha256().hashBytes(ByteStreams.toByteArray(in)).toString();
+    } catch (IOException e) {
+      logger.warn("Failed to read the byte code of template {}, not caching it", className, e);
+      return "";
+    }
+  }
+
+  private Path file(String digest) {
+    return directory.resolve(digest + SUFFIX);
+  }
+
+  private synchronized void remove(String digest) {
+    final Long size = entries.remove(digest);
+    if (size != null) {
+      sizeBytes -= size;
+    }
+    deleteQuietly(file(digest));
+  }
+
+  private synchronized void evict() {
+    final Iterator<Map.Entry<String, Long>> it = entries.entrySet().iterator();
+    while (sizeBytes > maxSizeBytes && it.hasNext()) {
+      final Map.Entry<String, Long> eldest = it.next();
+      it.remove();
+      sizeBytes -= eldest.getValue();
+      deleteQuietly(file(eldest.getKey()));
+    }
+  }
+
+  private static void touch(Path file) {
+    try {
+      Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+    } catch (IOException e) {
+      logger.debug("Failed to touch {}", file, e);
+    }
+  }
+
+  private static FileTime lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file);
+    } catch (IOException e) {
+      return FileTime.fromMillis(0);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      logger.warn("Failed to delete {}", file, e);
+    }
+  }
+}
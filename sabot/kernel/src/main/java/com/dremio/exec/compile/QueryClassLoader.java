@@ -21,8 +21,10 @@ import com.google.common.collect.MapMaker;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import org.codehaus.commons.compiler.CompileException;
 
 public class QueryClassLoader extends URLClassLoader {
@@ -50,6 +52,13 @@ public class QueryClassLoader extends URLClassLoader {
     customClasses.put(className, classBytes);
   }
 
+  /** Returns the byte code injected so far. */
+  public List<ClassBytes> getInjectedByteCode() {
+    return customClasses.entrySet().stream()
+        .map(e -> new ClassBytes(e.getKey(), e.getValue()))
+        .collect(Collectors.toList());
+  }
+
   @Override
   protected Class<?> findClass(String className) throws ClassNotFoundException {
     byte[] ba = customClasses.get(className);
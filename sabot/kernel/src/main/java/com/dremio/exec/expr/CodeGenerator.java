@@ -53,6 +53,9 @@ public class CodeGenerator<T> {
 
     String getGeneratedCode();
 
+    /** The generated code before it is named after the materialized class. */
+    String getGenerifiedCode();
+
     String getMaterializedClassName();
   }
 
@@ -222,6 +225,11 @@ public class CodeGenerator<T> {
       return generifiedCode.replaceAll("GenericGenerated", this.className);
     }
 
+    @Override
+    public String getGenerifiedCode() {
+      return generifiedCode;
+    }
+
     @Override
     public String getMaterializedClassName() {
       return fqcn;
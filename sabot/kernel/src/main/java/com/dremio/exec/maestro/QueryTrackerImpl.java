@@ -35,6 +35,7 @@ import com.dremio.exec.testing.ControlsInjectorFactory;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.exec.work.foreman.CompletionListener;
 import com.dremio.exec.work.foreman.ExecutionPlan;
+import com.dremio.exec.work.protector.ResultStreamRequest;
 import com.dremio.resource.ResourceAllocator;
 import com.dremio.resource.ResourceSet;
 import com.dremio.resource.exception.ResourceAllocationException;
@@ -129,6 +130,11 @@ public class QueryTrackerImpl implements QueryTracker {
 
   @Override
   public void planExecution() throws ExecutionSetupException {
+    final ResultStreamRequest resultStreamRequest = context.getResultStreamRequest();
+    if (resultStreamRequest != null) {
+      physicalPlan = ResultStreams.insert(physicalPlan, resultStreamRequest.getStreamId());
+    }
+
     executionPlanningResources =
         ExecutionPlanCreator.getParallelizationInfo(
             context,
@@ -155,6 +161,11 @@ public class QueryTrackerImpl implements QueryTracker {
             resourceTracker.getResourceSchedulingDecisionInfo(),
             executionPlanningResources.getGroupResourceInformation());
     observer.planCompleted(executionPlan, null);
+    if (resultStreamRequest != null) {
+      resultStreamRequest.streamsPlanned(
+          ResultStreams.getEndpoints(
+              executionPlan, ResultStreams.getMajorFragmentId(physicalPlan)));
+    }
     physicalPlan = null; // no longer needed
   }
 
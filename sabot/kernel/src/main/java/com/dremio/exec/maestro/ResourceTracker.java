@@ -18,6 +18,8 @@ package com.dremio.exec.maestro;
 import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.exec.ops.QueryContext;
 import com.dremio.exec.physical.PhysicalPlan;
+import com.dremio.exec.physical.base.OpProps;
+import com.dremio.exec.physical.base.PhysicalOperator;
 import com.dremio.exec.planner.observer.AttemptObserver;
 import com.dremio.exec.proto.UserBitShared.AttemptEvent;
 import com.dremio.exec.testing.ControlsInjector;
@@ -83,6 +85,7 @@ public class ResourceTracker implements AutoCloseable {
     final double planCost = physicalPlan.getCost();
     ResourceSchedulingProperties resourceSchedulingProperties = new ResourceSchedulingProperties();
     resourceSchedulingProperties.setQueryCost(planCost);
+    resourceSchedulingProperties.setQueryMemoryEstimate(estimateMemoryPerNode(physicalPlan));
     resourceSchedulingProperties.setRoutingQueue(context.getSession().getRoutingQueue());
     resourceSchedulingProperties.setRoutingTag(context.getSession().getRoutingTag());
     resourceSchedulingProperties.setQueryType(
@@ -144,6 +147,24 @@ public class ResourceTracker implements AutoCloseable {
     }
   }
 
+  /**
+   * Estimates the memory the query needs on a node running one slice of each fragment, from the
+   * reservations of its operators. Memory bound operators need their low limit to run, e.g. the
+   * hash aggregation reserves one batch of each of its partitions, see HashAggMemoryEstimator.
+   */
+  @VisibleForTesting
+  static long estimateMemoryPerNode(PhysicalPlan physicalPlan) {
+    long estimate = 0;
+    for (PhysicalOperator operator : physicalPlan.getSortedOperators()) {
+      final OpProps props = operator.getProps();
+      estimate +=
+          props.isMemoryExpensive()
+              ? Math.max(props.getMemReserve(), props.getMemLowLimit())
+              : props.getMemReserve();
+    }
+    return estimate;
+  }
+
   ResourceSchedulingDecisionInfo getResourceSchedulingDecisionInfo() {
     return resourceSchedulingDecisionInfo;
   }
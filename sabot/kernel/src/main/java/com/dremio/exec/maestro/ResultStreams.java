@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.maestro;
+
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.exec.physical.PhysicalPlan;
+import com.dremio.exec.physical.base.AbstractPhysicalVisitor;
+import com.dremio.exec.physical.base.Exchange;
+import com.dremio.exec.physical.base.OpProps;
+import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.physical.config.ResultStream;
+import com.dremio.exec.physical.config.Screen;
+import com.dremio.exec.planner.fragment.PlanFragmentFull;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.work.foreman.ExecutionPlan;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Plans the streams of a query whose results are read directly from the executors, see {@link
+ * com.dremio.exec.work.protector.ResultStreamRequest}.
+ *
+ * <p>A {@link ResultStream} is inserted below the exchange gathering the results of the last
+ * parallel phase into the screen, or right below the screen if the query has a single phase. Each
+ * minor fragment of that phase then has its own stream.
+ */
+final class ResultStreams {
+
+  private ResultStreams() {}
+
+  /** Returns the given plan with its results sent to the streams of the given id. */
+  static PhysicalPlan insert(PhysicalPlan plan, String streamId) throws ExecutionSetupException {
+    Preconditions.checkArgument(
+        plan.getRoot() instanceof Screen, "Only the results of a screen can be streamed.");
+    final Screen screen = (Screen) plan.getRoot();
+    final List<PhysicalOperator> ops = collect(screen);
+    final PhysicalOperator top = screen.getChild();
+
+    final PhysicalOperator newTop;
+    if (top instanceof Exchange) {
+      final PhysicalOperator child = Iterables.getOnlyElement(top);
+      newTop = top.getNewWithChildren(ImmutableList.of(newResultStream(ops, child, streamId)));
+    } else {
+      newTop = newResultStream(ops, top, streamId);
+    }
+    return new PhysicalPlan(
+        plan.getProperties(),
+        collect(screen.getNewWithChildren(ImmutableList.of(newTop))),
+        plan.getCommitter().orElse(null),
+        plan.getCleaner().orElse(null));
+  }
+
+  /** Returns the major fragment id of the phase sending to the streams of the given plan. */
+  static int getMajorFragmentId(PhysicalPlan plan) {
+    return collect(plan.getRoot()).stream()
+        .filter(op -> op instanceof ResultStream)
+        .findFirst()
+        .orElseThrow(() -> new IllegalStateException("The plan does not stream its results."))
+        .getProps()
+        .getMajorFragmentId();
+  }
+
+  /**
+   * Returns the executors running the fragments of the given phase, indexed by minor fragment id.
+   */
+  static List<NodeEndpoint> getEndpoints(ExecutionPlan plan, int majorFragmentId) {
+    return plan.getFragments().stream()
+        .filter(fragment -> fragment.getMajorFragmentId() == majorFragmentId)
+        .sorted(Comparator.comparingInt(PlanFragmentFull::getMinorFragmentId))
+        .map(PlanFragmentFull::getAssignment)
+        .collect(Collectors.toList());
+  }
+
+  private static ResultStream newResultStream(
+      List<PhysicalOperator> ops, PhysicalOperator child, String streamId) {
+    final int majorFragmentId = child.getProps().getMajorFragmentId();
+    // exchanges carry the operator ids of the fragment receiving from them
+    final int localOperatorId =
+        ops.stream()
+                .map(PhysicalOperator::getProps)
+                .filter(props -> props.getMajorFragmentId() == majorFragmentId)
+                .mapToInt(OpProps::getLocalOperatorId)
+                .max()
+                .getAsInt()
+            + 1;
+    return new ResultStream(
+        child
+            .getProps()
+            .cloneWithNewIdAndSchema(
+                OpProps.buildOperatorId(majorFragmentId, localOperatorId),
+                child.getProps().getSchema()),
+        child,
+        streamId);
+  }
+
+  private static List<PhysicalOperator> collect(PhysicalOperator root) {
+    final List<PhysicalOperator> ops = new ArrayList<>();
+    root.accept(new PopCollector(), ops);
+    return ops;
+  }
+
+  private static class PopCollector
+      extends AbstractPhysicalVisitor<Void, Collection<PhysicalOperator>, RuntimeException> {
+
+    @Override
+    public Void visitOp(PhysicalOperator op, Collection<PhysicalOperator> collection)
+        throws RuntimeException {
+      collection.add(op);
+      for (PhysicalOperator o : op) {
+        o.accept(this, collection);
+      }
+      return null;
+    }
+  }
+}
@@ -32,6 +32,7 @@ import com.dremio.sabot.op.receiver.BridgeFileReaderReceiverOperator;
 import com.dremio.sabot.op.receiver.merging.MergingReceiverOperator;
 import com.dremio.sabot.op.receiver.unordered.UnorderedReceiverOperator;
 import com.dremio.sabot.op.scan.ScanOperator;
+import com.dremio.sabot.op.screen.ResultStreamOperator;
 import com.dremio.sabot.op.screen.ScreenOperator;
 import com.dremio.sabot.op.sender.BridgeFileWriterSenderOperator;
 import com.dremio.sabot.op.sender.broadcast.BroadcastOperator;
@@ -40,6 +41,7 @@ import com.dremio.sabot.op.sender.roundrobin.RoundRobinOperator;
 import com.dremio.sabot.op.sender.single.SingleSenderOperator;
 import com.dremio.sabot.op.sort.external.ExternalSortStats;
 import com.dremio.sabot.op.tablefunction.TableFunctionOperator;
+import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 import com.dremio.sabot.op.writer.WriterCommitterOperator;
 import com.dremio.sabot.op.writer.WriterOperator;
 import java.util.ArrayList;
@@ -60,6 +62,7 @@ public class OperatorMetricRegistry {
   static {
     final CoreOperatorTypeMetricsMap.Builder builder = getMapBuilder();
     register(builder, CoreOperatorType.SCREEN_VALUE, ScreenOperator.Metric.class);
+    register(builder, CoreOperatorType.RESULT_STREAM_VALUE, ResultStreamOperator.Metric.class);
     register(builder, CoreOperatorType.SINGLE_SENDER_VALUE, SingleSenderOperator.Metric.class);
     register(builder, CoreOperatorType.BROADCAST_SENDER_VALUE, BroadcastOperator.Metric.class);
     register(builder, CoreOperatorType.ROUND_ROBIN_SENDER_VALUE, RoundRobinOperator.Metric.class);
@@ -86,6 +89,7 @@ public class OperatorMetricRegistry {
     register(builder, CoreOperatorType.PROJECT_VALUE, ProjectorStats.Metric.class);
     register(builder, CoreOperatorType.FILTER_VALUE, FilterStats.Metric.class);
     register(builder, CoreOperatorType.NESTED_LOOP_JOIN_VALUE, NLJEOperator.Metric.class);
+    register(builder, CoreOperatorType.WINDOW_VALUE, WindowFrameOperator.Metric.class);
     register(
         builder,
         CoreOperatorType.TABLE_FUNCTION_VALUE,
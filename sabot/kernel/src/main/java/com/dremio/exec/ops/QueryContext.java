@@ -76,6 +76,7 @@ import com.dremio.exec.store.sys.statistics.StatisticsService;
 import com.dremio.exec.testing.ExecutionControls;
 import com.dremio.exec.util.Utilities;
 import com.dremio.exec.work.WorkStats;
+import com.dremio.exec.work.protector.ResultStreamRequest;
 import com.dremio.options.OptionList;
 import com.dremio.options.OptionManager;
 import com.dremio.options.OptionResolver;
@@ -142,6 +143,7 @@ public class QueryContext
   private final SubstitutionProviderFactory substitutionProviderFactory;
   private final FunctionImplementationRegistry functionImplementationRegistry;
   private GroupResourceInformation groupResourceInformation;
+  private ResultStreamRequest resultStreamRequest;
 
   /* Stores constants and their holders by type */
   private final Map<String, Map<MinorType, ValueHolder>> constantValueHolderCache;
@@ -552,6 +554,15 @@ public class QueryContext
     return groupResourceInformation;
   }
 
+  public void setResultStreamRequest(ResultStreamRequest resultStreamRequest) {
+    this.resultStreamRequest = resultStreamRequest;
+  }
+
+  /** The request to read the results of the query directly from the executors, or null. */
+  public ResultStreamRequest getResultStreamRequest() {
+    return resultStreamRequest;
+  }
+
   @Override
   public void close() throws Exception {
     try {
@@ -29,6 +29,7 @@ import com.dremio.options.OptionManager;
 public class BroadcastExchange extends AbstractExchange {
 
   private final OptionManager optionManager;
+  private boolean oncePerNode;
 
   public BroadcastExchange(
       OpProps props,
@@ -43,7 +44,18 @@ public class BroadcastExchange extends AbstractExchange {
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new BroadcastExchange(props, senderProps, receiverProps, schema, child, optionManager);
+    final BroadcastExchange exchange =
+        new BroadcastExchange(props, senderProps, receiverProps, schema, child, optionManager);
+    exchange.setOncePerNode(oncePerNode);
+    return exchange;
+  }
+
+  /**
+   * Sends the broadcast once per node, to the fragment building the shared build side of the hash
+   * join consuming it there.
+   */
+  public void setOncePerNode(boolean oncePerNode) {
+    this.oncePerNode = oncePerNode;
   }
 
   @Override
@@ -55,7 +67,8 @@ public class BroadcastExchange extends AbstractExchange {
         schema,
         child,
         receiverMajorFragmentId,
-        PhysicalOperatorUtil.getIndexOrderedEndpoints(receiverLocations, builder));
+        PhysicalOperatorUtil.getIndexOrderedEndpoints(receiverLocations, builder),
+        oncePerNode);
   }
 
   @Override
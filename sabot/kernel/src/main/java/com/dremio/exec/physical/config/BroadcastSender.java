@@ -31,6 +31,7 @@ import java.util.List;
 @JsonTypeName("broadcast-sender")
 public class BroadcastSender extends AbstractSender {
   private final List<MinorFragmentIndexEndpoint> destinations;
+  private final boolean oncePerNode;
 
   @JsonCreator
   public BroadcastSender(
@@ -38,14 +39,26 @@ public class BroadcastSender extends AbstractSender {
       @JsonProperty("schema") BatchSchema schema,
       @JsonProperty("child") PhysicalOperator child,
       @JsonProperty("receiverMajorFragmentId") int receiverMajorFragmentId,
-      @JsonProperty("destinations") List<MinorFragmentIndexEndpoint> destinations) {
+      @JsonProperty("destinations") List<MinorFragmentIndexEndpoint> destinations,
+      @JsonProperty("oncePerNode") boolean oncePerNode) {
     super(props, schema, child, receiverMajorFragmentId);
     this.destinations = destinations;
+    this.oncePerNode = oncePerNode;
+  }
+
+  public BroadcastSender(
+      OpProps props,
+      BatchSchema schema,
+      PhysicalOperator child,
+      int receiverMajorFragmentId,
+      List<MinorFragmentIndexEndpoint> destinations) {
+    this(props, schema, child, receiverMajorFragmentId, destinations, false);
   }
 
   @Override
   protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
-    return new BroadcastSender(props, schema, child, receiverMajorFragmentId, destinations);
+    return new BroadcastSender(
+        props, schema, child, receiverMajorFragmentId, destinations, oncePerNode);
   }
 
   @Override
@@ -59,6 +72,15 @@ public class BroadcastSender extends AbstractSender {
     return destinations;
   }
 
+  /**
+   * Whether the batches are only sent to the lowest receiving fragment of each node, which builds
+   * a hash table shared by all the receiving fragments of that node. The other receiving fragments
+   * only get the end of the stream.
+   */
+  public boolean isOncePerNode() {
+    return oncePerNode;
+  }
+
   @Override
   public int getOperatorType() {
     return CoreOperatorType.BROADCAST_SENDER_VALUE;
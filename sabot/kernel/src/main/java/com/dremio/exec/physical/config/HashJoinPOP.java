@@ -47,6 +47,7 @@ public class HashJoinPOP extends AbstractBase {
   private final boolean vectorize;
 
   private final boolean spill;
+  private final boolean sharedBuild;
   private RuntimeFilterInfo runtimeFilterInfo;
 
   @JsonCreator
@@ -59,6 +60,7 @@ public class HashJoinPOP extends AbstractBase {
       @JsonProperty("joinType") JoinRelType joinType,
       @JsonProperty("vectorize") boolean vectorize,
       @JsonProperty("spill") boolean spill,
+      @JsonProperty("sharedBuild") boolean sharedBuild,
       @JsonProperty("runtimeFilterInfo") RuntimeFilterInfo runtimeFilterInfo) {
     super(props);
     this.left = left;
@@ -68,9 +70,33 @@ public class HashJoinPOP extends AbstractBase {
     this.joinType = joinType;
     this.vectorize = vectorize;
     this.spill = spill;
+    this.sharedBuild = sharedBuild;
     this.runtimeFilterInfo = runtimeFilterInfo;
   }
 
+  public HashJoinPOP(
+      OpProps props,
+      PhysicalOperator left,
+      PhysicalOperator right,
+      List<JoinCondition> conditions,
+      LogicalExpression extraCondition,
+      JoinRelType joinType,
+      boolean vectorize,
+      boolean spill,
+      RuntimeFilterInfo runtimeFilterInfo) {
+    this(
+        props,
+        left,
+        right,
+        conditions,
+        extraCondition,
+        joinType,
+        vectorize,
+        spill,
+        false,
+        runtimeFilterInfo);
+  }
+
   public HashJoinPOP(
       OpProps props,
       PhysicalOperator left,
@@ -88,6 +114,7 @@ public class HashJoinPOP extends AbstractBase {
     this.joinType = joinType;
     this.vectorize = vectorize;
     this.spill = false;
+    this.sharedBuild = false;
     this.runtimeFilterInfo = runtimeFilterInfo;
   }
 
@@ -109,6 +136,7 @@ public class HashJoinPOP extends AbstractBase {
         joinType,
         vectorize,
         spill,
+        sharedBuild,
         runtimeFilterInfo);
   }
 
@@ -145,6 +173,14 @@ public class HashJoinPOP extends AbstractBase {
     return spill;
   }
 
+  /**
+   * Whether the build side is a broadcast that the fragments of this join on one node may build
+   * once and probe together.
+   */
+  public boolean isSharedBuild() {
+    return sharedBuild;
+  }
+
   @Override
   public int getOperatorType() {
     return CoreOperatorType.HASH_JOIN_VALUE;
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.physical.config;
+
+import com.dremio.exec.physical.base.AbstractSingle;
+import com.dremio.exec.physical.base.OpProps;
+import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.physical.base.PhysicalVisitor;
+import com.dremio.exec.proto.UserBitShared.CoreOperatorType;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+
+/**
+ * Sends the results of each minor fragment of its phase to a stream read directly from the
+ * executor running the fragment, instead of sending them to the coordinator. Outputs no records.
+ */
+@JsonTypeName("result-stream")
+public class ResultStream extends AbstractSingle {
+
+  private final String streamId;
+
+  @JsonCreator
+  public ResultStream(
+      @JsonProperty("props") OpProps props,
+      @JsonProperty("child") PhysicalOperator child,
+      @JsonProperty("streamId") String streamId) {
+    super(props, child);
+    this.streamId = streamId;
+  }
+
+  public String getStreamId() {
+    return streamId;
+  }
+
+  @Override
+  protected PhysicalOperator getNewWithChild(PhysicalOperator child) {
+    return new ResultStream(props, child, streamId);
+  }
+
+  @Override
+  public <T, X, E extends Throwable> T accept(PhysicalVisitor<T, X, E> physicalVisitor, X value)
+      throws E {
+    return physicalVisitor.visitOp(this, value);
+  }
+
+  @Override
+  public int getOperatorType() {
+    return CoreOperatorType.RESULT_STREAM_VALUE;
+  }
+}
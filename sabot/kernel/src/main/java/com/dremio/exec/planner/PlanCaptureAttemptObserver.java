@@ -77,6 +77,7 @@ import org.apache.calcite.sql.SqlNode;
 
 public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
   public static final String PLAN_CACHE_USED = "Plan Cache Used";
+  public static final String QUERY_RESULT_CACHE = "Query Result Cache";
 
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(PlanCaptureAttemptObserver.class);
@@ -475,6 +476,27 @@ public class PlanCaptureAttemptObserver extends AbstractAttemptObserver {
     numPlanCacheUses = count;
   }
 
+  @Override
+  public void resultCacheUsed(String jobId, int count) {
+    planPhases.add(
+        PlanPhaseProfile.newBuilder()
+            .setPhaseName(QUERY_RESULT_CACHE)
+            .setPlan(
+                String.format(
+                    "Cache hit: the query is served from the results of job %s, which have been used %d times",
+                    jobId, count))
+            .build());
+  }
+
+  @Override
+  public void resultCacheMissed() {
+    planPhases.add(
+        PlanPhaseProfile.newBuilder()
+            .setPhaseName(QUERY_RESULT_CACHE)
+            .setPlan("Cache miss: no cached results can be served for the query")
+            .build());
+  }
+
   public int getNumPlanCacheUses() {
     return numPlanCacheUses;
   }
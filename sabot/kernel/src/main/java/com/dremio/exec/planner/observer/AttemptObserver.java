@@ -100,6 +100,12 @@ public interface AttemptObserver {
   /** Printing a message to indicate the plan cache is used. */
   default void planCacheUsed(int count) {}
 
+  /** Printing a message to indicate the query is served from the results of a previous job. */
+  default void resultCacheUsed(String jobId, int count) {}
+
+  /** Printing a message to indicate no cached results could be served for the query. */
+  default void resultCacheMissed() {}
+
   /** Adding updated Acceleration profile into cached plan */
   default void addAccelerationProfileToCachedPlan(CachedPlan plan) {}
 
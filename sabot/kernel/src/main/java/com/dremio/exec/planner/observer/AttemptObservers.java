@@ -109,6 +109,20 @@ public class AttemptObservers implements AttemptObserver {
     }
   }
 
+  @Override
+  public void resultCacheUsed(String jobId, int count) {
+    for (final AttemptObserver observer : observers) {
+      observer.resultCacheUsed(jobId, count);
+    }
+  }
+
+  @Override
+  public void resultCacheMissed() {
+    for (final AttemptObserver observer : observers) {
+      observer.resultCacheMissed();
+    }
+  }
+
   @Override
   public void addAccelerationProfileToCachedPlan(CachedPlan cachedPlan) {
     for (final AttemptObserver observer : observers) {
@@ -277,6 +277,16 @@ public class OutOfBandAttemptObserver implements AttemptObserver {
     execute(() -> innerObserver.planCacheUsed(count));
   }
 
+  @Override
+  public void resultCacheUsed(String jobId, int count) {
+    execute(() -> innerObserver.resultCacheUsed(jobId, count));
+  }
+
+  @Override
+  public void resultCacheMissed() {
+    execute(innerObserver::resultCacheMissed);
+  }
+
   @Override
   public void planSerializable(final RelNode serializable) {
     execute(() -> innerObserver.planSerializable(serializable));
@@ -21,7 +21,9 @@ import com.dremio.common.logical.data.JoinCondition;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.expr.ExpressionTreeMaterializer;
 import com.dremio.exec.expr.fn.FunctionLookupContext;
+import com.dremio.exec.physical.base.Exchange;
 import com.dremio.exec.physical.base.PhysicalOperator;
+import com.dremio.exec.physical.config.BroadcastExchange;
 import com.dremio.exec.physical.config.HashJoinPOP;
 import com.dremio.exec.physical.config.RuntimeFilterProbeTarget;
 import com.dremio.exec.planner.physical.explain.PrelSequencer;
@@ -42,6 +44,7 @@ import com.dremio.sabot.op.join.JoinUtils.JoinCategory;
 import com.dremio.sabot.op.join.hash.HashJoinOperator;
 import com.dremio.sabot.op.join.vhash.spill.VectorizedSpillingHashJoinOperator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
 import java.io.IOException;
 import java.util.ArrayDeque;
 import java.util.Deque;
@@ -210,7 +213,18 @@ public class HashJoinPrel extends JoinPrel {
         options.getOption(ExecConstants.ENABLE_VECTORIZED_HASHJOIN)
             && canVectorize(
                 creator.getContext().getFunctionRegistry(), leftPop, rightPop, conditions);
-    boolean canSpill = vectorize && options.getOption(HashJoinOperator.ENABLE_SPILL);
+    // Only joins that don't track build side matches can probe a build side shared between
+    // fragments, and a shared table is never spilled.
+    final boolean sharedBuild =
+        vectorize
+            && options.getOption(HashJoinOperator.ENABLE_SHARED_BROADCAST_BUILD)
+            && (joinType == JoinRelType.INNER || joinType == JoinRelType.LEFT)
+            && isBroadcast(currentRight);
+    if (sharedBuild) {
+      sendOncePerNode(rightPop);
+    }
+    boolean canSpill =
+        vectorize && !sharedBuild && options.getOption(HashJoinOperator.ENABLE_SPILL);
 
     try {
       Double maxRowCount = getCluster().getMetadataQuery().getMaxRowCount(right);
@@ -261,9 +275,32 @@ public class HashJoinPrel extends JoinPrel {
         joinType,
         vectorize,
         canSpill,
+        sharedBuild,
         buildRuntimeFilterInfo(creator));
   }
 
+  /** Whether the nearest exchange below the given input broadcasts it to every fragment. */
+  private static boolean isBroadcast(RelNode relNode) {
+    if (relNode instanceof ExchangePrel) {
+      return relNode instanceof BroadcastExchangePrel;
+    } else if (relNode instanceof ScanPrelBase || 1 != relNode.getInputs().size()) {
+      return false;
+    }
+    return isBroadcast(relNode.getInput(0));
+  }
+
+  /**
+   * Makes the broadcast found by {@link #isBroadcast} send the build side once per node, to the
+   * fragment building the shared table there.
+   */
+  private static void sendOncePerNode(PhysicalOperator pop) {
+    if (pop instanceof BroadcastExchange) {
+      ((BroadcastExchange) pop).setOncePerNode(true);
+    } else if (!(pop instanceof Exchange) && Iterables.size(pop) == 1) {
+      sendOncePerNode(Iterables.getOnlyElement(pop));
+    }
+  }
+
   private RuntimeFilterInfo buildRuntimeFilterInfo(PhysicalPlanCreator creator) {
     if (null == runtimeFilterId) {
       return null;
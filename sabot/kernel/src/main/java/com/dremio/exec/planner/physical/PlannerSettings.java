@@ -42,6 +42,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.calcite.config.CalciteConnectionConfig;
 import org.apache.calcite.config.CalciteConnectionConfigImpl;
@@ -699,6 +700,16 @@ public class PlannerSettings implements Context {
   public static final BooleanValidator QUERY_PLAN_CACHE_ENABLED_SECURED_USER_BASED_CACHING =
       new BooleanValidator("planner.query_plan_cache_enabled_secured_user_based_caching", true);
 
+  /**
+   * Options to enable the query result cache, which serves repeated queries from the stored results
+   * of a previous job, and to set how long those results may be served.
+   */
+  public static final BooleanValidator QUERY_RESULT_CACHE_ENABLED =
+      new BooleanValidator("planner.query_result_cache_enabled", false);
+
+  public static final PositiveLongValidator QUERY_RESULT_CACHE_TTL_SECONDS =
+      new PositiveLongValidator("planner.query_result_cache_ttl_seconds", Integer.MAX_VALUE, 3600);
+
   public static final BooleanValidator REFLECTION_ROUTING_INHERITANCE_ENABLED =
       new BooleanValidator("planner.reflection_routing_inheritance_enabled", false);
 
@@ -970,6 +981,14 @@ public class PlannerSettings implements Context {
     return options.getOption(QUERY_PLAN_CACHE_ENABLED_SECURED_USER_BASED_CACHING);
   }
 
+  public boolean isQueryResultCacheEnabled() {
+    return options.getOption(QUERY_RESULT_CACHE_ENABLED);
+  }
+
+  public long getQueryResultCacheTtlMillis() {
+    return TimeUnit.SECONDS.toMillis(options.getOption(QUERY_RESULT_CACHE_TTL_SECONDS));
+  }
+
   public boolean isEnforceValidJsonFormatEnabled() {
     return options.getOption(ENFORCE_VALID_JSON_DATE_FORMAT_ENABLED);
   }
@@ -17,6 +17,8 @@ package com.dremio.exec.planner.plancache;
 
 import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class CachedPlan {
@@ -25,6 +27,8 @@ public class CachedPlan {
   private AtomicInteger useCount;
   private final long creationTime;
   private AccelerationProfile accelerationProfile;
+  // tags of the datasets the plan was built against, keyed by dataset id
+  private Map<String, String> datasetVersions = ImmutableMap.of();
 
   private CachedPlan(Prel prel, int useCount, int estimatedSize) {
     this.prel = prel;
@@ -49,6 +53,14 @@ public class CachedPlan {
     this.accelerationProfile = profile;
   }
 
+  public Map<String, String> getDatasetVersions() {
+    return datasetVersions;
+  }
+
+  public void setDatasetVersions(Map<String, String> datasetVersions) {
+    this.datasetVersions = ImmutableMap.copyOf(datasetVersions);
+  }
+
   public int updateUseCount() {
     return this.useCount.incrementAndGet();
   }
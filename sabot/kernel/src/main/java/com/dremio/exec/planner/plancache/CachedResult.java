@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** The stored results of a completed job which can be served to later runs of the same query. */
+public class CachedResult {
+  private final String jobId;
+  private final String userName;
+  private final long creationTime;
+  private final AtomicInteger useCount = new AtomicInteger();
+
+  CachedResult(String jobId, String userName, long creationTime) {
+    this.jobId = jobId;
+    this.userName = userName;
+    this.creationTime = creationTime;
+  }
+
+  public String getJobId() {
+    return jobId;
+  }
+
+  public String getUserName() {
+    return userName;
+  }
+
+  public long getCreationTime() {
+    return creationTime;
+  }
+
+  public int updateUseCount() {
+    return useCount.incrementAndGet();
+  }
+
+  public int getUseCount() {
+    return useCount.get();
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import com.dremio.service.namespace.CatalogEventProto;
+import com.dremio.service.namespace.catalogpubsub.CatalogEventsTopic;
+import com.dremio.services.pubsub.Subscription;
+import com.dremio.services.pubsub.Topic;
+import com.google.protobuf.Parser;
+
+/** Subscription of the plan cache of a coordinator to the catalog events. */
+public class CatalogEventsPlanCacheSubscription
+    implements Subscription<CatalogEventProto.CatalogEventMessage> {
+  @Override
+  public String getName() {
+    return "catalog-events-plan-cache";
+  }
+
+  @Override
+  public Parser<CatalogEventProto.CatalogEventMessage> getMessageParser() {
+    return CatalogEventProto.CatalogEventMessage.parser();
+  }
+
+  @Override
+  public Class<? extends Topic<CatalogEventProto.CatalogEventMessage>> getTopicClass() {
+    return CatalogEventsTopic.class;
+  }
+}
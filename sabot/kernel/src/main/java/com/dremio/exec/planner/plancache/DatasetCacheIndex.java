@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Concurrent index of the cache entries depending on each dataset.
+ *
+ * <p>Entries are indexed both ways so that evicting a cache entry only touches the datasets it
+ * depends on, instead of scanning the whole index under a global lock. The index is local to the
+ * coordinator, like the caches using it.
+ */
+public class DatasetCacheIndex {
+  private final ConcurrentMap<String, Set<String>> cacheIdsByDataset = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Set<String>> datasetsByCacheId = new ConcurrentHashMap<>();
+
+  /** Records that the cache entry {@code cacheId} depends on {@code datasetId}. */
+  public void put(String datasetId, String cacheId) {
+    // both maps are updated under the lock of the cache entry, so that a concurrent removal of the
+    // entry either sees the dataset in both maps or in none of them
+    datasetsByCacheId.compute(
+        cacheId,
+        (k, datasetIds) -> {
+          final Set<String> ids = datasetIds == null ? ConcurrentHashMap.newKeySet() : datasetIds;
+          ids.add(datasetId);
+          cacheIdsByDataset.compute(
+              datasetId,
+              (d, cacheIds) -> {
+                final Set<String> entries =
+                    cacheIds == null ? ConcurrentHashMap.newKeySet() : cacheIds;
+                entries.add(cacheId);
+                return entries;
+              });
+          return ids;
+        });
+  }
+
+  /** Returns a snapshot of the cache entries depending on {@code datasetId}. */
+  public Set<String> get(String datasetId) {
+    final Set<String> cacheIds = cacheIdsByDataset.get(datasetId);
+    return cacheIds == null ? ImmutableSet.of() : ImmutableSet.copyOf(cacheIds);
+  }
+
+  /** Removes the cache entry {@code cacheId} from the index. */
+  public void removeCacheId(String cacheId) {
+    datasetsByCacheId.computeIfPresent(
+        cacheId,
+        (k, datasetIds) -> {
+          for (String datasetId : datasetIds) {
+            cacheIdsByDataset.computeIfPresent(
+                datasetId,
+                (d, cacheIds) -> {
+                  cacheIds.remove(cacheId);
+                  return cacheIds.isEmpty() ? null : cacheIds;
+                });
+          }
+          return null;
+        });
+  }
+
+  public int getNumDatasets() {
+    return cacheIdsByDataset.size();
+  }
+}
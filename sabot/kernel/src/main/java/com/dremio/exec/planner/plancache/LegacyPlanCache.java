@@ -22,28 +22,44 @@ import com.dremio.exec.planner.common.PlannerMetrics;
 import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.service.namespace.NamespaceKey;
 import com.dremio.service.namespace.dataset.proto.DatasetConfig;
 import com.dremio.service.namespace.source.proto.SourceConfig;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
-import com.google.common.collect.Multimap;
+import com.google.common.collect.ImmutableMap;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Metrics;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
 import javax.annotation.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * In-memory cache of the physical plans built by this coordinator.
+ *
+ * <p>Plans are neither shared between coordinators nor kept across restarts, as the group scans of
+ * a Prel hold table metadata which the physical plan serialization leaves out. No invalidation is
+ * sent between coordinators either: a cached plan is dropped on lookup when the tag of one of its
+ * datasets changed in the catalog, which also catches changes made through other coordinators.
+ */
 public class LegacyPlanCache implements PlanCache {
   private static final Logger LOGGER = LoggerFactory.getLogger(LegacyPlanCache.class);
 
   private final Cache<String, CachedPlan> cachePlans;
-  private final Multimap<String, String> datasetMap;
+  private final DatasetCacheIndex datasetIndex;
+  private final DatasetCacheIndex pathIndex = new DatasetCacheIndex();
+  private final QueryResultCache queryResultCache;
 
-  public LegacyPlanCache(Cache<String, CachedPlan> cachePlans, Multimap<String, String> map) {
+  public LegacyPlanCache(
+      Cache<String, CachedPlan> cachePlans,
+      DatasetCacheIndex datasetIndex,
+      QueryResultCache queryResultCache) {
     this.cachePlans = cachePlans;
-    this.datasetMap = map;
+    this.datasetIndex = datasetIndex;
+    this.queryResultCache = queryResultCache;
 
     Gauge.builder(
             PlannerMetrics.createName(PlannerMetrics.PREFIX, PlannerMetrics.PLAN_CACHE_ENTRIES),
@@ -58,6 +74,7 @@ public class LegacyPlanCache implements PlanCache {
         Preconditions.checkNotNull(config.getConverter().getPlannerCatalog());
 
     boolean addedCacheToDatasetMap = false;
+    final ImmutableMap.Builder<String, String> datasetVersions = ImmutableMap.builder();
     Iterable<DremioTable> datasets = catalog.getAllRequestedTables();
     for (DremioTable dataset : datasets) {
       DatasetConfig datasetConfig;
@@ -79,8 +96,11 @@ public class LegacyPlanCache implements PlanCache {
       if (datasetConfig.getPhysicalDataset() == null) {
         continue;
       }
-      synchronized (datasetMap) {
-        datasetMap.put(datasetConfig.getId().getId(), cachedKey.getHash());
+      final String datasetId = datasetConfig.getId().getId();
+      datasetIndex.put(datasetId, cachedKey.getHash());
+      pathIndex.put(getPathKey(dataset.getPath().getPathComponents()), cachedKey.getHash());
+      if (datasetConfig.getTag() != null) {
+        datasetVersions.put(datasetId, datasetConfig.getTag());
       }
       addedCacheToDatasetMap = true;
     }
@@ -90,6 +110,7 @@ public class LegacyPlanCache implements PlanCache {
       prel.getCluster().invalidateMetadataQuery();
 
       CachedPlan newCachedPlan = CachedPlan.createCachedPlan(prel, prel.getEstimatedSize());
+      newCachedPlan.setDatasetVersions(datasetVersions.buildKeepingLast());
       config.getObserver().addAccelerationProfileToCachedPlan(newCachedPlan);
       cachePlans.put(cachedKey.getHash(), newCachedPlan);
       config.getConverter().dispose();
@@ -106,86 +127,137 @@ public class LegacyPlanCache implements PlanCache {
   @Override
   public @Nullable CachedPlan getIfPresentAndValid(
       SqlHandlerConfig sqlHandlerConfig, PlanCacheKey planCacheKey) {
-    CatalogService catalogService = sqlHandlerConfig.getContext().getCatalogService();
-    final PlannerCatalog catalog =
-        Preconditions.checkNotNull(sqlHandlerConfig.getConverter().getPlannerCatalog());
-
     if (cachePlans == null) {
       return null;
     }
     final CachedPlan cachedPlan = cachePlans.getIfPresent(planCacheKey.getHash());
     if (cachedPlan != null) {
-      Iterable<DremioTable> datasets = catalog.getAllRequestedTables();
-      for (DremioTable dataset : datasets) {
-        try {
-          DatasetConfig datasetConfig = dataset.getDatasetConfig();
-          if (datasetConfig != null) {
-            // DatasetConfig modified
-            if (datasetConfig.getLastModified() != null
-                && datasetConfig.getLastModified() > cachedPlan.getCreationTime()) {
-              // for this case, we can only invalidate this cache entry, other cache entries may
-              // still be valid
-              cachePlans.invalidate(planCacheKey.getHash());
-              LOGGER.debug(
-                  "Physical plan cache hit with cacheKey {}: Cache invalidated due to updated dataset {}. datasetTime={} planTime={}",
-                  planCacheKey,
-                  datasetConfig.getFullPathList(),
-                  datasetConfig.getLastModified(),
-                  cachedPlan.getCreationTime());
-              return null;
-            } else {
-              // Check if source config is modified and invalidate the cache.
-              try {
-                ManagedStoragePlugin plugin =
-                    catalogService.getManagedSource(dataset.getPath().getRoot());
-                if (plugin != null) {
-                  SourceConfig sourceConfig = plugin.getConfig();
-                  if ((sourceConfig != null)) {
-                    long lastModifiedAt =
-                        sourceConfig.getLastModifiedAt() != null
-                            ? sourceConfig.getLastModifiedAt()
-                            : sourceConfig.getCtime();
-                    if (lastModifiedAt > cachedPlan.getCreationTime()) {
-                      cachePlans.invalidate(planCacheKey.getHash());
-                      LOGGER.debug(
-                          "Physical plan cache hit with cacheKey {}: Cache invalidated due to updated source {}. sourceTime={} planTime={}",
-                          planCacheKey,
-                          sourceConfig.getName(),
-                          sourceConfig.getLastModifiedAt(),
-                          cachedPlan.getCreationTime());
-                      return null;
-                    }
+      if (!isValid(
+          sqlHandlerConfig,
+          planCacheKey,
+          cachedPlan.getDatasetVersions(),
+          cachedPlan.getCreationTime())) {
+        cachePlans.invalidate(planCacheKey.getHash());
+        return null;
+      }
+      LOGGER.debug("Physical plan cache hit with cacheKey {}", planCacheKey);
+      return cachedPlan;
+    }
+
+    LOGGER.debug("Physical plan cache miss with cacheKey {}", planCacheKey);
+    return null;
+  }
+
+  /**
+   * Checks that the datasets and sources of the query were not modified since a plan of it was
+   * built.
+   *
+   * @param datasetVersions tags of the datasets the plan was built against, keyed by dataset id
+   * @param creationTime when the plan was built
+   */
+  protected boolean isValid(
+      SqlHandlerConfig sqlHandlerConfig,
+      PlanCacheKey planCacheKey,
+      Map<String, String> datasetVersions,
+      long creationTime) {
+    CatalogService catalogService = sqlHandlerConfig.getContext().getCatalogService();
+    final PlannerCatalog catalog =
+        Preconditions.checkNotNull(sqlHandlerConfig.getConverter().getPlannerCatalog());
+
+    Iterable<DremioTable> datasets = catalog.getAllRequestedTables();
+    for (DremioTable dataset : datasets) {
+      try {
+        DatasetConfig datasetConfig = dataset.getDatasetConfig();
+        if (datasetConfig != null) {
+          final String cachedVersion =
+              datasetConfig.getId() != null
+                  ? datasetVersions.get(datasetConfig.getId().getId())
+                  : null;
+          // DatasetConfig modified: the tag changes with every update of the dataset, whatever
+          // the clock of the coordinator that updated it
+          if (cachedVersion != null && !cachedVersion.equals(datasetConfig.getTag())) {
+            LOGGER.debug(
+                "Physical plan cache hit with cacheKey {}: Cache invalidated due to new version of dataset {}. datasetTag={} planTag={}",
+                planCacheKey,
+                datasetConfig.getFullPathList(),
+                datasetConfig.getTag(),
+                cachedVersion);
+            return false;
+          } else if (datasetConfig.getLastModified() != null
+              && datasetConfig.getLastModified() > creationTime) {
+            // for this case, we can only invalidate this cache entry, other cache entries may
+            // still be valid
+            LOGGER.debug(
+                "Physical plan cache hit with cacheKey {}: Cache invalidated due to updated dataset {}. datasetTime={} planTime={}",
+                planCacheKey,
+                datasetConfig.getFullPathList(),
+                datasetConfig.getLastModified(),
+                creationTime);
+            return false;
+          } else {
+            // Check if source config is modified and invalidate the cache.
+            try {
+              ManagedStoragePlugin plugin =
+                  catalogService.getManagedSource(dataset.getPath().getRoot());
+              if (plugin != null) {
+                SourceConfig sourceConfig = plugin.getConfig();
+                if ((sourceConfig != null)) {
+                  long lastModifiedAt =
+                      sourceConfig.getLastModifiedAt() != null
+                          ? sourceConfig.getLastModifiedAt()
+                          : sourceConfig.getCtime();
+                  if (lastModifiedAt > creationTime) {
+                    LOGGER.debug(
+                        "Physical plan cache hit with cacheKey {}: Cache invalidated due to updated source {}. sourceTime={} planTime={}",
+                        planCacheKey,
+                        sourceConfig.getName(),
+                        sourceConfig.getLastModifiedAt(),
+                        creationTime);
+                    return false;
                   }
                 }
-              } catch (RuntimeException e) {
-                LOGGER.error(
-                    "Exception while checking for Source config modification for dataset {}",
-                    dataset.getPath().getRoot(),
-                    e);
               }
+            } catch (RuntimeException e) {
+              LOGGER.error(
+                  "Exception while checking for Source config modification for dataset {}",
+                  dataset.getPath().getRoot(),
+                  e);
             }
           }
-        } catch (IllegalStateException ignore) {
-          LOGGER.debug(
-              String.format(
-                  "Dataset %s is ignored (no dataset config available).", dataset.getPath()),
-              ignore);
         }
+      } catch (IllegalStateException ignore) {
+        LOGGER.debug(
+            String.format(
+                "Dataset %s is ignored (no dataset config available).", dataset.getPath()),
+            ignore);
       }
-      LOGGER.debug("Physical plan cache hit with cacheKey {}", planCacheKey);
-      return cachedPlan;
     }
+    return true;
+  }
 
-    LOGGER.debug("Physical plan cache miss with cacheKey {}", planCacheKey);
-    return null;
+  /**
+   * Adds a plan which was not built by this coordinator, indexed by the datasets it was built
+   * against.
+   */
+  protected void addCachedPlan(SqlHandlerConfig config, String cacheId, CachedPlan cachedPlan) {
+    final PlannerCatalog catalog =
+        Preconditions.checkNotNull(config.getConverter().getPlannerCatalog());
+    for (DremioTable dataset : catalog.getAllRequestedTables()) {
+      pathIndex.put(getPathKey(dataset.getPath().getPathComponents()), cacheId);
+    }
+    for (String datasetId : cachedPlan.getDatasetVersions().keySet()) {
+      datasetIndex.put(datasetId, cacheId);
+    }
+    cachePlans.put(cacheId, cachedPlan);
   }
 
   @Override
   public void invalidateCacheOnDataset(String datasetId) {
-    List<String> affectedCaches = datasetMap.get(datasetId).stream().collect(Collectors.toList());
+    Set<String> affectedCaches = datasetIndex.get(datasetId);
     for (String cacheId : affectedCaches) {
       cachePlans.invalidate(cacheId);
     }
+    queryResultCache.invalidateCacheOnDataset(datasetId);
     if (!affectedCaches.isEmpty()) {
       LOGGER.debug(
           "Physical plan cache invalidated by datasetId {} for cacheKeys {}",
@@ -194,14 +266,39 @@ public class LegacyPlanCache implements PlanCache {
     }
   }
 
+  /**
+   * Invalidates the plans depending on the dataset with the given path, as notified by the catalog
+   * events of any coordinator.
+   */
+  public void invalidateCacheOnDatasetPath(List<String> path) {
+    Set<String> affectedCaches = pathIndex.get(getPathKey(path));
+    for (String cacheId : affectedCaches) {
+      cachePlans.invalidate(cacheId);
+    }
+    if (!affectedCaches.isEmpty()) {
+      LOGGER.debug(
+          "Physical plan cache invalidated by dataset {} for cacheKeys {}", path, affectedCaches);
+    }
+  }
+
   @Override
   public void invalidateAll() {
     cachePlans.invalidateAll();
+    queryResultCache.invalidateAll();
+  }
+
+  @Override
+  public QueryResultCache getQueryResultCache() {
+    return queryResultCache;
   }
 
   public void clearDatasetMapOnCacheGC(String cacheId) {
-    synchronized (datasetMap) {
-      datasetMap.entries().removeIf(datasetMapEntry -> datasetMapEntry.getValue().equals(cacheId));
-    }
+    datasetIndex.removeCacheId(cacheId);
+    pathIndex.removeCacheId(cacheId);
+  }
+
+  private static String getPathKey(List<String> path) {
+    // paths are case insensitive
+    return new NamespaceKey(path).asLowerCase().toString();
   }
 }
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.datastore.api.LegacyKVStoreCreationFunction;
+import com.dremio.datastore.api.LegacyStoreBuildingFactory;
+import com.dremio.datastore.format.Format;
+import com.dremio.exec.planner.acceleration.MaterializationExpander;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.sql.SqlConverter;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.proto.UserBitShared.AccelerationProfile;
+import com.dremio.sabot.kernel.proto.PlanCacheProtobuf.DatasetVersion;
+import com.dremio.sabot.kernel.proto.PlanCacheProtobuf.PersistedPlan;
+import com.dremio.sabot.kernel.proto.PlanCacheProtobuf.PlanInvalidation;
+import com.google.common.cache.Cache;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.InvalidProtocolBufferException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import org.apache.calcite.rel.RelNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plan cache whose plans are also kept in a store shared by the coordinators, so that a plan built
+ * by one coordinator is used by the others and survives restarts.
+ *
+ * <p>Plans are serialized with the planning rel serializer, the tables of their scans being looked
+ * up again in the catalog when read. Plans which cannot be serialized, e.g. those with pruned
+ * scans, are only cached locally. A shared plan is only used if the datasets it was built against
+ * still have the same tags, and if none of them was invalidated since by any coordinator.
+ */
+public class PersistentPlanCache extends LegacyPlanCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PersistentPlanCache.class);
+
+  public static final String PLAN_STORE_NAME = "plan_cache";
+  public static final String INVALIDATION_STORE_NAME = "plan_cache_invalidations";
+
+  // invalidation of all the plans, dataset ids are uuids so this cannot clash with them
+  private static final String ALL_DATASETS = "*";
+
+  private final Supplier<LegacyKVStore<String, PersistedPlan>> plans;
+  private final Supplier<LegacyKVStore<String, PlanInvalidation>> invalidations;
+  private final long timeoutMillis;
+
+  public PersistentPlanCache(
+      Cache<String, CachedPlan> cachePlans,
+      DatasetCacheIndex datasetIndex,
+      QueryResultCache queryResultCache,
+      Supplier<LegacyKVStore<String, PersistedPlan>> plans,
+      Supplier<LegacyKVStore<String, PlanInvalidation>> invalidations,
+      long timeoutMillis) {
+    super(cachePlans, datasetIndex, queryResultCache);
+    this.plans = plans;
+    this.invalidations = invalidations;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  @Override
+  public void putCachedPlan(SqlHandlerConfig config, PlanCacheKey cachedKey, Prel prel) {
+    // serialize before the local cache disposes of the planner of the plan
+    final byte[] serialized = serialize(config.getConverter(), prel);
+    super.putCachedPlan(config, cachedKey, prel);
+
+    final CachedPlan cachedPlan = getCachePlans().getIfPresent(cachedKey.getHash());
+    if (serialized == null || cachedPlan == null) {
+      return;
+    }
+    final PersistedPlan.Builder persisted =
+        PersistedPlan.newBuilder()
+            .setPrel(ByteString.copyFrom(serialized))
+            .setEstimatedSize(cachedPlan.getEstimatedSize())
+            .setCreationTime(cachedPlan.getCreationTime());
+    for (Map.Entry<String, String> version : cachedPlan.getDatasetVersions().entrySet()) {
+      persisted.addDatasetVersions(
+          DatasetVersion.newBuilder()
+              .setDatasetId(version.getKey())
+              .setTag(version.getValue())
+              .build());
+    }
+    if (cachedPlan.getAccelerationProfile() != null) {
+      persisted.setAccelerationProfile(cachedPlan.getAccelerationProfile().toByteString());
+    }
+    try {
+      plans.get().put(cachedKey.getHash(), persisted.build());
+      LOGGER.debug("Physical plan shared with cacheKey {}", cachedKey);
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to share physical plan with cacheKey {}", cachedKey, e);
+    }
+  }
+
+  @Override
+  public @Nullable CachedPlan getIfPresentAndValid(
+      SqlHandlerConfig sqlHandlerConfig, PlanCacheKey planCacheKey) {
+    final CachedPlan cachedPlan = super.getIfPresentAndValid(sqlHandlerConfig, planCacheKey);
+    if (cachedPlan != null) {
+      return cachedPlan;
+    }
+
+    final String cacheId = planCacheKey.getHash();
+    final PersistedPlan persisted = plans.get().get(cacheId);
+    if (persisted == null) {
+      LOGGER.debug("Shared physical plan cache miss with cacheKey {}", planCacheKey);
+      return null;
+    }
+
+    final Map<String, String> datasetVersions = new HashMap<>();
+    for (DatasetVersion version : persisted.getDatasetVersionsList()) {
+      datasetVersions.put(version.getDatasetId(), version.getTag());
+    }
+    if (System.currentTimeMillis() - persisted.getCreationTime() > timeoutMillis
+        || isInvalidated(planCacheKey, datasetVersions, persisted.getCreationTime())
+        || !isValid(sqlHandlerConfig, planCacheKey, datasetVersions, persisted.getCreationTime())) {
+      plans.get().delete(cacheId);
+      return null;
+    }
+
+    final Prel prel;
+    final AccelerationProfile accelerationProfile;
+    try {
+      prel = deserialize(sqlHandlerConfig, persisted.getPrel().toByteArray());
+      accelerationProfile =
+          persisted.hasAccelerationProfile()
+              ? AccelerationProfile.parseFrom(persisted.getAccelerationProfile())
+              : AccelerationProfile.getDefaultInstance();
+    } catch (RuntimeException | InvalidProtocolBufferException e) {
+      LOGGER.warn("Failed to read shared physical plan with cacheKey {}", planCacheKey, e);
+      plans.get().delete(cacheId);
+      return null;
+    }
+
+    final CachedPlan sharedPlan = CachedPlan.createCachedPlan(prel, persisted.getEstimatedSize());
+    sharedPlan.setDatasetVersions(datasetVersions);
+    sharedPlan.setAccelerationProfile(accelerationProfile);
+    addCachedPlan(sqlHandlerConfig, cacheId, sharedPlan);
+    // the plan now outlives the query, as the plans put in the cache
+    prel.getCluster().invalidateMetadataQuery();
+    sqlHandlerConfig.getConverter().dispose();
+    LOGGER.debug("Shared physical plan cache hit with cacheKey {}", planCacheKey);
+    return sharedPlan;
+  }
+
+  @Override
+  public void invalidateCacheOnDataset(String datasetId) {
+    super.invalidateCacheOnDataset(datasetId);
+    recordInvalidation(datasetId);
+  }
+
+  @Override
+  public void invalidateAll() {
+    super.invalidateAll();
+    recordInvalidation(ALL_DATASETS);
+  }
+
+  /**
+   * Whether any coordinator invalidated the plans depending on one of the given datasets after the
+   * plan was built. This covers the invalidations which do not change the tag of the datasets,
+   * such as the refresh of a reflection.
+   */
+  private boolean isInvalidated(
+      PlanCacheKey planCacheKey, Map<String, String> datasetVersions, long creationTime) {
+    final List<String> keys = new ArrayList<>(datasetVersions.keySet());
+    keys.add(ALL_DATASETS);
+    final List<PlanInvalidation> found = invalidations.get().get(keys);
+    for (int i = 0; i < keys.size(); i++) {
+      final PlanInvalidation invalidation = found.get(i);
+      if (invalidation != null && invalidation.getInvalidatedAt() >= creationTime) {
+        LOGGER.debug(
+            "Shared physical plan cache hit with cacheKey {}: Cache invalidated on dataset {}",
+            planCacheKey,
+            keys.get(i));
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void recordInvalidation(String datasetId) {
+    try {
+      invalidations
+          .get()
+          .put(
+              datasetId,
+              PlanInvalidation.newBuilder().setInvalidatedAt(System.currentTimeMillis()).build());
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to invalidate shared physical plans on dataset {}", datasetId, e);
+    }
+  }
+
+  private static @Nullable byte[] serialize(SqlConverter converter, Prel prel) {
+    try {
+      return converter
+          .getSerializerFactory()
+          .getSerializer(prel.getCluster(), converter.getOpTab())
+          .serializeToBytes(prel);
+    } catch (RuntimeException e) {
+      LOGGER.debug("Physical plan not shared: it cannot be serialized.", e);
+      return null;
+    }
+  }
+
+  private static Prel deserialize(SqlHandlerConfig config, byte[] serialized) {
+    final RelNode rel =
+        MaterializationExpander.deserializePlan(
+            serialized, config.getConverter(), config.getContext().getCatalogService());
+    if (!(rel instanceof Prel)) {
+      throw new IllegalStateException("Shared plan is not a physical plan: " + rel.getClass());
+    }
+    return (Prel) rel;
+  }
+
+  /** Creator of the store of the shared plans, keyed by plan cache key. */
+  public static class PlanStoreCreator
+      implements LegacyKVStoreCreationFunction<String, PersistedPlan> {
+    @Override
+    public LegacyKVStore<String, PersistedPlan> build(LegacyStoreBuildingFactory factory) {
+      return factory
+          .<String, PersistedPlan>newStore()
+          .name(PLAN_STORE_NAME)
+          .keyFormat(Format.ofString())
+          .valueFormat(Format.ofProtobuf(PersistedPlan.class))
+          .build();
+    }
+  }
+
+  /** Creator of the store of the last invalidation of the shared plans, keyed by dataset id. */
+  public static class InvalidationStoreCreator
+      implements LegacyKVStoreCreationFunction<String, PlanInvalidation> {
+    @Override
+    public LegacyKVStore<String, PlanInvalidation> build(LegacyStoreBuildingFactory factory) {
+      return factory
+          .<String, PlanInvalidation>newStore()
+          .name(INVALIDATION_STORE_NAME)
+          .keyFormat(Format.ofString())
+          .valueFormat(Format.ofProtobuf(PlanInvalidation.class))
+          .build();
+    }
+  }
+}
@@ -17,6 +17,7 @@ package com.dremio.exec.planner.plancache;
 
 import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import javax.annotation.Nullable;
 
 public interface PlanCache {
   PlanCache EMPTY_CACHE =
@@ -35,6 +36,11 @@ public interface PlanCache {
 
         @Override
         public void invalidateAll() {}
+
+        @Override
+        public QueryResultCache getQueryResultCache() {
+          return null;
+        }
       };
 
   void putCachedPlan(SqlHandlerConfig config, PlanCacheKey cachedKey, Prel prel);
@@ -45,4 +51,8 @@ public interface PlanCache {
   void invalidateCacheOnDataset(String datasetId);
 
   void invalidateAll();
+
+  /** The cache of query results, invalidated along with the plans, or null if not available. */
+  @Nullable
+  QueryResultCache getQueryResultCache();
 }
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage;
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage.CatalogEvent;
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage.CatalogEventType;
+import com.dremio.services.pubsub.MessageConsumer;
+import com.dremio.services.pubsub.MessageContainerBase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Invalidates the plans of the local plan cache depending on the datasets updated or deleted
+ * through any coordinator, as published on the catalog events topic.
+ */
+public class PlanCacheCatalogEventConsumer implements MessageConsumer<CatalogEventMessage> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(PlanCacheCatalogEventConsumer.class);
+
+  private final LegacyPlanCache planCache;
+
+  public PlanCacheCatalogEventConsumer(LegacyPlanCache planCache) {
+    this.planCache = planCache;
+  }
+
+  @Override
+  public void process(MessageContainerBase<CatalogEventMessage> message) {
+    try {
+      for (CatalogEvent event : message.getMessage().getEventsList()) {
+        if (event.getEventType() == CatalogEventType.CATALOG_EVENT_TYPE_UPDATED
+            || event.getEventType() == CatalogEventType.CATALOG_EVENT_TYPE_DELETED) {
+          planCache.invalidateCacheOnDatasetPath(event.getPathList());
+        }
+      }
+    } catch (RuntimeException e) {
+      // the plans are still checked against the versions of their datasets when used
+      LOGGER.warn("Failed to invalidate the plan cache on catalog event {}", message.getId(), e);
+    }
+    message.ack();
+  }
+}
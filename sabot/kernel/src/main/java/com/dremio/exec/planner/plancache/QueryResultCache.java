@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import static com.dremio.exec.planner.physical.PlannerSettings.STORE_QUERY_RESULTS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.dremio.common.logical.PlanProperties.Generator.ResultMode;
+import com.dremio.common.utils.PathUtils;
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.catalog.CatalogUtil;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.ops.PlannerCatalog;
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.common.PlannerMetrics;
+import com.dremio.exec.planner.physical.PlannerSettings.StoreQueryResultsPolicy;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.server.JobResultInfoProvider;
+import com.dremio.options.OptionValue;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
+import com.dremio.service.namespace.dataset.proto.PhysicalDataset;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Metrics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
+import org.apache.calcite.sql.SqlNode;
+import org.apache.calcite.sql.SqlOperator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the stored results of queries, see {@link StoreQueryResultsPolicy#PATH_AND_ATTEMPT_ID},
+ * so that later runs of the same query read the results of the previous job instead of scanning
+ * the queried datasets again.
+ *
+ * <p>Entries are keyed on the {@link PlanCacheKey} of the query and the version of every dataset
+ * it reads. They are registered when a query is planned and only become visible once the job
+ * completes successfully. Like the plans of {@link LegacyPlanCache}, they are invalidated when one
+ * of their datasets changes.
+ */
+public class QueryResultCache {
+  private static final Logger LOGGER = LoggerFactory.getLogger(QueryResultCache.class);
+
+  private static final List<String> UNCACHEABLE_SOURCES =
+      ImmutableList.of("sys", "information_schema");
+
+  private static final Meter.MeterProvider<Counter> LOOKUPS_COUNTER =
+      Counter.builder(
+              PlannerMetrics.createName(
+                  PlannerMetrics.PREFIX, PlannerMetrics.QUERY_RESULT_CACHE_LOOKUPS))
+          .description("Number of query result cache lookups")
+          .withRegistry(Metrics.globalRegistry);
+
+  private final Cache<String, CachedResult> cachedResults;
+  private final DatasetCacheIndex datasetIndex;
+  private final Map<String, PendingResult> pendingResults = new ConcurrentHashMap<>();
+
+  public QueryResultCache(
+      Cache<String, CachedResult> cachedResults, DatasetCacheIndex datasetIndex) {
+    this.cachedResults = cachedResults;
+    this.datasetIndex = datasetIndex;
+
+    Gauge.builder(
+            PlannerMetrics.createName(
+                PlannerMetrics.PREFIX, PlannerMetrics.QUERY_RESULT_CACHE_ENTRIES),
+            cachedResults::size)
+        .description("Number of query result cache entries")
+        .register(Metrics.globalRegistry);
+  }
+
+  /**
+   * Whether the results of the query can be cached. Besides the conditions of the plan cache,
+   * results must be stored per job and the data of every dataset read must only change with its
+   * version, see {@link #isDataVersioned}.
+   */
+  public static boolean supportResultCache(
+      SqlHandlerConfig config,
+      SqlNode sqlNode,
+      PlannerCatalog catalog,
+      List<SqlOperator> uncacheableFunctions) {
+    final QueryContext context = config.getContext();
+    if (!context.getPlannerSettings().isQueryResultCacheEnabled()
+        || config.getResultMode() != ResultMode.EXEC) {
+      return false;
+    }
+    if (getStoreQueryResultsPolicy(context) != StoreQueryResultsPolicy.PATH_AND_ATTEMPT_ID) {
+      LOGGER.debug("Query results not cached: Results are not stored per job.");
+      return false;
+    }
+    if (org.apache.commons.lang3.StringUtils.containsIgnoreCase(
+        sqlNode.toString(), "external_query")) {
+      LOGGER.debug("Query results not cached: Query contains an external_query.");
+      return false;
+    }
+    if (!uncacheableFunctions.isEmpty()) {
+      LOGGER.debug(
+          "Query results not cached: Query contains dynamic or non-deterministic functions.");
+      return false;
+    }
+
+    boolean hasDatasets = false;
+    for (DremioTable table : catalog.getAllRequestedTables()) {
+      if (UNCACHEABLE_SOURCES.contains(table.getPath().getRoot().toLowerCase(Locale.ROOT))) {
+        LOGGER.debug("Query results not cached: Query reads system table {}.", table.getPath());
+        return false;
+      }
+      final DatasetConfig datasetConfig = getDatasetConfig(table);
+      if (datasetConfig == null) {
+        LOGGER.debug("Query results not cached: No dataset config for {}.", table.getPath());
+        return false;
+      }
+      if (datasetConfig.getPhysicalDataset() == null) {
+        continue;
+      }
+      if (!isDataVersioned(datasetConfig)) {
+        LOGGER.debug(
+            "Query results not cached: Data of {} can change without a new dataset version.",
+            table.getPath());
+        return false;
+      }
+      if (getSnapshotId(datasetConfig) == null
+          && CatalogUtil.requestedPluginSupportsVersionedTables(
+              table.getPath(), context.getCatalog())) {
+        LOGGER.debug(
+            "Query results not cached: No snapshot for versioned table {}.", table.getPath());
+        return false;
+      }
+      hasDatasets = true;
+    }
+    if (!hasDatasets) {
+      LOGGER.debug("Query results not cached: Query contains no physical datasets.");
+    }
+    return hasDatasets;
+  }
+
+  /**
+   * Extends the plan cache key of a query with the version of every dataset read: its tag, last
+   * modification time and, for Iceberg tables, snapshot.
+   */
+  public static PlanCacheKey generateCacheKey(PlanCacheKey planCacheKey, PlannerCatalog catalog) {
+    final Hasher hasher = Hashing.sha256().newHasher().putString(planCacheKey.getHash(), UTF_8);
+    final List<DatasetConfig> datasetConfigs = new ArrayList<>();
+    for (DremioTable table : catalog.getAllRequestedTables()) {
+      final DatasetConfig datasetConfig = getDatasetConfig(table);
+      if (datasetConfig != null) {
+        datasetConfigs.add(datasetConfig);
+      }
+    }
+    datasetConfigs.sort(Comparator.comparing(datasetConfig -> datasetConfig.getId().getId()));
+    for (DatasetConfig datasetConfig : datasetConfigs) {
+      hasher
+          .putString(datasetConfig.getId().getId(), UTF_8)
+          .putString(String.valueOf(datasetConfig.getTag()), UTF_8)
+          .putLong(Optional.ofNullable(datasetConfig.getLastModified()).orElse(-1L))
+          .putLong(Optional.ofNullable(getSnapshotId(datasetConfig)).orElse(-1L));
+    }
+    return new PlanCacheKey(hasher.hash().toString());
+  }
+
+  /**
+   * Returns the cached results of a query if they are recent enough and visible to the user
+   * running it, null otherwise. Results are only served to the user who ran the job that produced
+   * them, and only when that user can still read them as a job results table.
+   */
+  public @Nullable CachedResult getIfPresentAndVisible(
+      SqlHandlerConfig config, PlanCacheKey cacheKey) {
+    final QueryContext context = config.getContext();
+    final CachedResult cachedResult = cachedResults.getIfPresent(cacheKey.getHash());
+    if (cachedResult == null) {
+      return miss(cacheKey, "no entry");
+    }
+    if (System.currentTimeMillis() - cachedResult.getCreationTime()
+        > context.getPlannerSettings().getQueryResultCacheTtlMillis()) {
+      cachedResults.invalidate(cacheKey.getHash());
+      return miss(cacheKey, "entry expired");
+    }
+    if (!cachedResult.getUserName().equals(context.getQueryUserName())) {
+      return miss(cacheKey, "entry of another user");
+    }
+    try {
+      if (context.getCatalog().getTable(new NamespaceKey(getResultsTablePath(cachedResult)))
+          == null) {
+        cachedResults.invalidate(cacheKey.getHash());
+        return miss(cacheKey, "results not available");
+      }
+    } catch (RuntimeException e) {
+      LOGGER.warn("Failed to look up the results of job {}", cachedResult.getJobId(), e);
+      return miss(cacheKey, "results not available");
+    }
+
+    LOOKUPS_COUNTER.withTag(PlannerMetrics.TAG_REASON, "hit").increment();
+    LOGGER.debug(
+        "Query result cache hit with cacheKey {}: Serving results of job {}",
+        cacheKey.getHash(),
+        cachedResult.getJobId());
+    return cachedResult;
+  }
+
+  private static CachedResult miss(PlanCacheKey cacheKey, String reason) {
+    LOOKUPS_COUNTER.withTag(PlannerMetrics.TAG_REASON, "miss").increment();
+    LOGGER.debug("Query result cache miss with cacheKey {}: {}", cacheKey.getHash(), reason);
+    return null;
+  }
+
+  /** Query reading the stored results of a cached job. */
+  public static String getResultsQuery(CachedResult cachedResult) {
+    return String.format(
+        "SELECT * FROM %s", PathUtils.constructFullPath(getResultsTablePath(cachedResult)));
+  }
+
+  private static List<String> getResultsTablePath(CachedResult cachedResult) {
+    return ImmutableList.of("sys", JobResultInfoProvider.JOB_RESULTS, cachedResult.getJobId());
+  }
+
+  /**
+   * Registers the results the query being planned will store. They are added to the cache when
+   * the attempt completes successfully, see {@link #attemptCompleted}.
+   */
+  public void putPendingResult(
+      SqlHandlerConfig config, PlanCacheKey cacheKey, PlannerCatalog catalog) {
+    final QueryContext context = config.getContext();
+    final List<String> datasetIds = new ArrayList<>();
+    for (DremioTable table : catalog.getAllRequestedTables()) {
+      final DatasetConfig datasetConfig = getDatasetConfig(table);
+      if (datasetConfig != null && datasetConfig.getPhysicalDataset() != null) {
+        datasetIds.add(datasetConfig.getId().getId());
+      }
+    }
+    final String jobId =
+        ExternalIdHelper.toString(ExternalIdHelper.toExternal(context.getQueryId()));
+    pendingResults.put(
+        QueryIdHelper.getQueryId(context.getQueryId()),
+        new PendingResult(
+            cacheKey.getHash(),
+            new CachedResult(jobId, context.getQueryUserName(), System.currentTimeMillis()),
+            datasetIds));
+  }
+
+  /** Adds the pending results of a query attempt to the cache if the attempt succeeded. */
+  public void attemptCompleted(QueryId attemptId, boolean succeeded) {
+    final PendingResult pendingResult =
+        pendingResults.remove(QueryIdHelper.getQueryId(attemptId));
+    if (pendingResult == null || !succeeded) {
+      return;
+    }
+    for (String datasetId : pendingResult.datasetIds) {
+      datasetIndex.put(datasetId, pendingResult.cacheKey);
+    }
+    cachedResults.put(pendingResult.cacheKey, pendingResult.cachedResult);
+    LOGGER.debug(
+        "Query result cache created with cacheKey {} for job {}",
+        pendingResult.cacheKey,
+        pendingResult.cachedResult.getJobId());
+  }
+
+  public Cache<String, CachedResult> getCachedResults() {
+    return cachedResults;
+  }
+
+  public void invalidateCacheOnDataset(String datasetId) {
+    final Set<String> affectedCaches = datasetIndex.get(datasetId);
+    for (String cacheId : affectedCaches) {
+      cachedResults.invalidate(cacheId);
+    }
+    pendingResults.values().removeIf(pending -> pending.datasetIds.contains(datasetId));
+    if (!affectedCaches.isEmpty()) {
+      LOGGER.debug(
+          "Query result cache invalidated by datasetId {} for cacheKeys {}",
+          datasetId,
+          affectedCaches);
+    }
+  }
+
+  public void invalidateAll() {
+    cachedResults.invalidateAll();
+    pendingResults.clear();
+  }
+
+  public void clearDatasetMapOnCacheGC(String cacheId) {
+    datasetIndex.removeCacheId(cacheId);
+  }
+
+  /**
+   * Whether the data read from a physical dataset only changes along with its version. Iceberg
+   * tables are read at their snapshot, and file datasets read the files listed when their metadata
+   * was last refreshed. Tables of other sources, like JDBC or Elasticsearch, are read live from
+   * the source, so results cached for them would be stale as soon as the source data changes.
+   */
+  @VisibleForTesting
+  static boolean isDataVersioned(DatasetConfig datasetConfig) {
+    if (getSnapshotId(datasetConfig) != null) {
+      return true;
+    }
+    if (datasetConfig.getType() == null) {
+      return false;
+    }
+    switch (datasetConfig.getType()) {
+      case PHYSICAL_DATASET_SOURCE_FILE:
+      case PHYSICAL_DATASET_SOURCE_FOLDER:
+      case PHYSICAL_DATASET_HOME_FILE:
+      case PHYSICAL_DATASET_HOME_FOLDER:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private static StoreQueryResultsPolicy getStoreQueryResultsPolicy(QueryContext context) {
+    return Optional.ofNullable(context.getOptions().getOption(STORE_QUERY_RESULTS.getOptionName()))
+        .map(OptionValue::getStringVal)
+        .map(policy -> StoreQueryResultsPolicy.valueOf(policy.toUpperCase(Locale.ROOT)))
+        .orElse(StoreQueryResultsPolicy.NO);
+  }
+
+  private static @Nullable DatasetConfig getDatasetConfig(DremioTable table) {
+    try {
+      return table.getDatasetConfig();
+    } catch (IllegalStateException ignore) {
+      return null;
+    }
+  }
+
+  private static @Nullable Long getSnapshotId(DatasetConfig datasetConfig) {
+    return Optional.ofNullable(datasetConfig.getPhysicalDataset())
+        .map(PhysicalDataset::getIcebergMetadata)
+        .map(IcebergMetadata::getSnapshotId)
+        .orElse(null);
+  }
+
+  private static final class PendingResult {
+    private final String cacheKey;
+    private final CachedResult cachedResult;
+    private final List<String> datasetIds;
+
+    private PendingResult(String cacheKey, CachedResult cachedResult, List<String> datasetIds) {
+      this.cacheKey = cacheKey;
+      this.cachedResult = cachedResult;
+      this.datasetIds = datasetIds;
+    }
+  }
+}
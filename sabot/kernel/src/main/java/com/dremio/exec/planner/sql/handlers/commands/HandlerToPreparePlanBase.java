@@ -305,6 +305,16 @@ public abstract class HandlerToPreparePlanBase<T> implements CommandRunner<T> {
       calls.add(observer -> observer.planCacheUsed(count));
     }
 
+    @Override
+    public void resultCacheUsed(String jobId, int count) {
+      calls.add(observer -> observer.resultCacheUsed(jobId, count));
+    }
+
+    @Override
+    public void resultCacheMissed() {
+      calls.add(AttemptObserver::resultCacheMissed);
+    }
+
     @Override
     public void updateReflectionsWithHints(
         ReflectionExplanationsAndQueryDistance reflectionExplanationsAndQueryDistance) {
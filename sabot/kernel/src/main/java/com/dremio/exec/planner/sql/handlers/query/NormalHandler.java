@@ -33,9 +33,11 @@ import com.dremio.exec.planner.physical.Prel;
 import com.dremio.exec.planner.physical.explain.PrelSequencer;
 import com.dremio.exec.planner.physical.visitor.WriterPathUpdater;
 import com.dremio.exec.planner.plancache.CachedPlan;
+import com.dremio.exec.planner.plancache.CachedResult;
 import com.dremio.exec.planner.plancache.PlanCache;
 import com.dremio.exec.planner.plancache.PlanCacheKey;
 import com.dremio.exec.planner.plancache.PlanCacheUtils;
+import com.dremio.exec.planner.plancache.QueryResultCache;
 import com.dremio.exec.planner.sql.SqlExceptionHelper;
 import com.dremio.exec.planner.sql.UncacheableFunctionDetector;
 import com.dremio.exec.planner.sql.handlers.ConvertedRelNode;
@@ -95,13 +97,46 @@ public class NormalHandler implements SqlToPlanHandler {
       convertedRelNode = SqlToRelTransformer.validateAndConvert(config, sqlNode);
       convertedRelNode = postConvertToRel(convertedRelNode);
 
-      final RelDataType validatedRowType = convertedRelNode.getValidatedRowType();
-      final RelNode queryRelNode = convertedRelNode.getConvertedNode();
+      RelDataType validatedRowType = convertedRelNode.getValidatedRowType();
+      RelNode queryRelNode = convertedRelNode.getConvertedNode();
       final PlannerCatalog catalog = config.getConverter().getPlannerCatalog();
 
       final PlanCacheKey cachedKey =
           PlanCacheUtils.generateCacheKey(sqlNode, queryRelNode, config.getContext());
-      CachedPlan cachedPlan = planCache.getIfPresentAndValid(config, cachedKey);
+
+      final QueryResultCache resultCache = planCache.getQueryResultCache();
+      final PlanCacheKey resultCacheKey =
+          resultCache != null
+                  && QueryResultCache.supportResultCache(
+                      config,
+                      sqlNode,
+                      catalog,
+                      uncacheableFunctionDetectedEventHandler.getUncacheableFunctions())
+              ? QueryResultCache.generateCacheKey(cachedKey, catalog)
+              : null;
+      final CachedResult cachedResult =
+          resultCacheKey != null
+              ? resultCache.getIfPresentAndVisible(config, resultCacheKey)
+              : null;
+      if (cachedResult != null) {
+        // plan a scan of the stored results of the previous job instead of the query
+        config
+            .getObserver()
+            .resultCacheUsed(cachedResult.getJobId(), cachedResult.updateUseCount());
+        final SqlNode resultsNode =
+            config.getConverter().parse(QueryResultCache.getResultsQuery(cachedResult));
+        convertedRelNode =
+            postConvertToRel(SqlToRelTransformer.validateAndConvert(config, resultsNode));
+        validatedRowType = convertedRelNode.getValidatedRowType();
+        queryRelNode = convertedRelNode.getConvertedNode();
+      } else if (resultCacheKey != null) {
+        config.getObserver().resultCacheMissed();
+      }
+      Span.current()
+          .setAttribute("dremio.planner.result_cache.result_used", (cachedResult != null));
+
+      CachedPlan cachedPlan =
+          cachedResult == null ? planCache.getIfPresentAndValid(config, cachedKey) : null;
 
       Span.current()
           .setAttribute("dremio.planner.cache.enabled", plannerSettings.isPlanCacheEnabled());
@@ -131,11 +166,12 @@ public class NormalHandler implements SqlToPlanHandler {
         textPlan = convertToPrel.getValue();
 
         // after we generate a physical plan, save it in the plan cache if plan cache is present
-        if (PlanCacheUtils.supportPlanCache(
-            config,
-            sqlNode,
-            catalog,
-            uncacheableFunctionDetectedEventHandler.getUncacheableFunctions())) {
+        if (cachedResult == null
+            && PlanCacheUtils.supportPlanCache(
+                config,
+                sqlNode,
+                catalog,
+                uncacheableFunctionDetectedEventHandler.getUncacheableFunctions())) {
           planCache.putCachedPlan(config, cachedKey, prel);
         }
       } else {
@@ -191,6 +227,10 @@ public class NormalHandler implements SqlToPlanHandler {
       plan = postConvertToPhysicalPlan(plan);
 
       PlanLogUtil.log(config, "Dremio Plan", plan, LOGGER);
+      if (resultCacheKey != null && cachedResult == null) {
+        // the results of the job become visible in the cache once it completes
+        resultCache.putPendingResult(config, resultCacheKey, catalog);
+      }
       this.prel = prel;
       return plan;
     } catch (Error ex) {
@@ -28,6 +28,9 @@ import org.apache.calcite.sql.SqlKind;
 import org.apache.calcite.sql.SqlLiteral;
 import org.apache.calcite.sql.SqlNode;
 import org.apache.calcite.sql.SqlOperator;
+import org.apache.calcite.sql.SqlOrderBy;
+import org.apache.calcite.sql.SqlSelect;
+import org.apache.calcite.sql.SqlWith;
 import org.apache.calcite.sql.SqlWriterConfig;
 import org.apache.calcite.sql.dialect.CalciteSqlDialect;
 import org.apache.calcite.sql.parser.SqlParseException;
@@ -149,6 +152,35 @@ public class ParserUtil {
     return sqlNode != null;
   }
 
+  /**
+   * Returns whether the results of the given query are ordered, or whether it can't tell because
+   * the query does not parse.
+   */
+  public static boolean isOrderedQuery(String query) {
+    ParserConfig PARSER_CONFIG = new ParserConfig(Quoting.DOUBLE_QUOTE, 1000, true);
+    SqlParser parser = SqlParser.create(query, PARSER_CONFIG);
+    try {
+      return isOrderedQuery(parser.parseStmt());
+    } catch (SqlParseException parseException) {
+      return true;
+    }
+  }
+
+  private static boolean isOrderedQuery(SqlNode sqlNode) {
+    if (sqlNode instanceof SqlWith) {
+      return isOrderedQuery(((SqlWith) sqlNode).body);
+    }
+    if (sqlNode instanceof SqlOrderBy) {
+      final SqlOrderBy orderBy = (SqlOrderBy) sqlNode;
+      return orderBy.orderList.size() > 0 || isOrderedQuery(orderBy.query);
+    }
+    if (sqlNode instanceof SqlSelect) {
+      final SqlSelect select = (SqlSelect) sqlNode;
+      return select.getOrderList() != null && select.getOrderList().size() > 0;
+    }
+    return false;
+  }
+
   public static String mergeBehaviorToSql(MergeBehavior mergeBehavior) {
     switch (mergeBehavior) {
       case FORCE:
@@ -38,9 +38,13 @@ import com.dremio.exec.planner.cost.RelMetadataQuerySupplier;
 import com.dremio.exec.planner.observer.QueryObserverFactory;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.store.CatalogService;
+import com.dremio.exec.store.cache.BlockCachingFileSystemWrapper;
+import com.dremio.exec.store.cache.LocalBlockCache;
 import com.dremio.exec.store.dfs.FileSystemWrapper;
 import com.dremio.exec.store.dfs.LoggedFileSystemWrapper;
 import com.dremio.exec.store.dfs.MetadataIOPool;
+import com.dremio.exec.store.dfs.boost.BoostingFileSystemWrapper;
+import com.dremio.exec.store.dfs.boost.LocalBoostedFileSystem;
 import com.dremio.exec.store.sys.accel.AccelerationListManager;
 import com.dremio.exec.store.sys.accel.AccelerationManager;
 import com.dremio.exec.store.sys.statistics.StatisticsAdministrationService;
@@ -308,18 +312,29 @@ public class ContextService implements Service, Provider<SabotContext> {
     FunctionImplementationRegistry decimalFunctionImplementationRegistry =
         FunctionImplementationRegistry.create(sConfig, classpathScan, optionManager, true);
     CodeCompiler compiler = new CodeCompiler(sConfig, optionManager);
+    FileSystemWrapper defaultFileSystemWrapper =
+        sConfig.getInstance(
+            FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
+            FileSystemWrapper.class,
+            (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
+            dremioConfig,
+            optionManager,
+            allocator,
+            new ServiceSetDecorator(coordinator.getServiceSet(Role.EXECUTOR)),
+            identity);
+    if (roles.contains(Role.EXECUTOR) && dremioConfig.getBoolean(DremioConfig.CACHE_ENABLED)) {
+      defaultFileSystemWrapper =
+          new BlockCachingFileSystemWrapper(
+              defaultFileSystemWrapper,
+              LocalBlockCache.create(dremioConfig, identity.getAddress()));
+    }
+    if (roles.contains(Role.EXECUTOR) && sConfig.getBoolean(ExecConstants.BOOST_LOCAL_ENABLED)) {
+      defaultFileSystemWrapper =
+          new BoostingFileSystemWrapper(
+              defaultFileSystemWrapper, LocalBoostedFileSystem.create(sConfig));
+    }
     FileSystemWrapper fileSystemWrapper =
-        new LoggedFileSystemWrapper(
-            sConfig.getInstance(
-                FileSystemWrapper.FILE_SYSTEM_WRAPPER_CLASS,
-                FileSystemWrapper.class,
-                (fs, storageId, conf, operatorContext, enableAsync, isMetadataEnabled) -> fs,
-                dremioConfig,
-                optionManager,
-                allocator,
-                new ServiceSetDecorator(coordinator.getServiceSet(Role.EXECUTOR)),
-                identity),
-            optionManager);
+        new LoggedFileSystemWrapper(defaultFileSystemWrapper, optionManager);
 
     return new SabotContext(
         dremioConfig,
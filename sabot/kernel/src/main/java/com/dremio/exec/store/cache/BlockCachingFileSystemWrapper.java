@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.dfs.AsyncStreamConf;
+import com.dremio.exec.store.dfs.CacheProperties;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.exec.store.sys.CacheManagerStatsProvider;
+import com.dremio.exec.work.CacheManagerDatasetInfo;
+import com.dremio.exec.work.CacheManagerFilesInfo;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.sabot.exec.context.OperatorContext;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import org.rocksdb.RocksIterator;
+
+/**
+ * A {@link FileSystemWrapper} caching the async reads of the sources requesting it, see {@link
+ * CacheProperties}, in a {@link LocalBlockCache}. Caching is off unless {@link
+ * ExecConstants#LOCAL_BLOCK_CACHE_ENABLED} is set.
+ *
+ * <p>Provides the statistics of the cache mount points and storage plugins. Blocks are not tracked
+ * per dataset nor per file, so the datasets and files system tables stay empty.
+ */
+public class BlockCachingFileSystemWrapper
+    implements FileSystemWrapper, CacheManagerStatsProvider {
+  private static final String LOCAL_SCHEME = "file";
+
+  private final FileSystemWrapper defaultWrapper;
+  private final LocalBlockCache cache;
+
+  public BlockCachingFileSystemWrapper(FileSystemWrapper defaultWrapper, LocalBlockCache cache) {
+    this.defaultWrapper = defaultWrapper;
+    this.cache = cache;
+  }
+
+  @Override
+  public FileSystem wrap(
+      FileSystem fs,
+      String storageId,
+      AsyncStreamConf conf,
+      OperatorContext context,
+      boolean enableAsync,
+      boolean isMetadataRefresh)
+      throws IOException {
+    final FileSystem wrappedFs =
+        defaultWrapper.wrap(fs, storageId, conf, context, enableAsync, isMetadataRefresh);
+    // caching local files on local disks would only copy them
+    if (isMetadataRefresh
+        || !enableAsync
+        || conf == null
+        || context == null
+        || LOCAL_SCHEME.equals(wrappedFs.getScheme())) {
+      return wrappedFs;
+    }
+    final CacheProperties cacheProperties = conf.getCacheProperties();
+    if (!context.getOptions().getOption(ExecConstants.LOCAL_BLOCK_CACHE_ENABLED)
+        || !cacheProperties.isCachingEnabled(context.getOptions())) {
+      return wrappedFs;
+    }
+    return new BlockCachingFileSystem(
+        wrappedFs, storageId, cacheProperties.cacheMaxSpaceLimitPct(), cache);
+  }
+
+  @Override
+  public List<CacheManagerMountPointInfo> getMountPointStats() {
+    return cache.getMountPointStats();
+  }
+
+  @Override
+  public List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    return cache.getStoragePluginStats();
+  }
+
+  @Override
+  public RocksIterator getDatasetIterator() {
+    return null;
+  }
+
+  @Override
+  public List<CacheManagerDatasetInfo> getDatasetStats(RocksIterator dsIterator) {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public RocksIterator getCachedFilesIterator() {
+    return null;
+  }
+
+  @Override
+  public List<CacheManagerFilesInfo> getCachedFilesStats(RocksIterator fileIterator) {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> clazz) {
+    if (clazz.isInstance(this)) {
+      return clazz.cast(this);
+    }
+    return defaultWrapper.unwrap(clazz);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> clazz) {
+    return clazz.isInstance(this) || defaultWrapper.isWrapperFor(clazz);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      cache.close();
+    } finally {
+      defaultWrapper.close();
+    }
+  }
+
+  private static final class BlockCachingFileSystem extends FilterFileSystem {
+    private final String storageId;
+    private final int maxSpacePct;
+    private final LocalBlockCache cache;
+
+    private BlockCachingFileSystem(
+        FileSystem fs, String storageId, int maxSpacePct, LocalBlockCache cache) {
+      super(fs);
+      this.storageId = storageId;
+      this.maxSpacePct = maxSpacePct;
+      this.cache = cache;
+    }
+
+    @Override
+    public AsyncByteReader getAsyncByteReader(
+        AsyncByteReader.FileKey fileKey, Map<String, String> options) throws IOException {
+      return new CachingAsyncByteReader(
+          super.getAsyncByteReader(fileKey, options), fileKey, storageId, maxSpacePct, cache);
+    }
+  }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import com.dremio.exec.store.cache.LocalBlockCache.BlockKey;
+import com.dremio.io.AsyncByteReader;
+import com.google.common.collect.Range;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link AsyncByteReader} reading through a {@link LocalBlockCache}.
+ *
+ * <p>Reads are split along the blocks of the cache. A miss does not read its whole block: it reads
+ * from the requested offset, aligned down to {@link LocalBlockCache#getAlignment()}, to the end of
+ * the requested range, so that small reads like footer reads are not amplified to a block. When
+ * part of the block is cached already, the miss reads the range covering both, so that the cached
+ * range grows towards the whole block. A read never goes past the requested range, which needs no
+ * file length. When a range cannot be cached, the requested range is read from the wrapped reader.
+ * Version checks are left to the wrapped reader.
+ */
+public class CachingAsyncByteReader implements AsyncByteReader {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(CachingAsyncByteReader.class);
+
+  static final String HITS_STAT = "blockCacheHits";
+  static final String MISSES_STAT = "blockCacheMisses";
+
+  private final AsyncByteReader reader;
+  private final FileKey fileKey;
+  private final String source;
+  private final int sourceMaxSpacePct;
+  private final LocalBlockCache cache;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  public CachingAsyncByteReader(
+      AsyncByteReader reader,
+      FileKey fileKey,
+      String source,
+      int sourceMaxSpacePct,
+      LocalBlockCache cache) {
+    this.reader = reader;
+    this.fileKey = fileKey;
+    this.source = source;
+    this.sourceMaxSpacePct = sourceMaxSpacePct;
+    this.cache = cache;
+  }
+
+  @Override
+  public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+    if (len == 0) {
+      return completedFuture;
+    }
+    final long blockSize = cache.getBlockSize();
+    final long end = offset + len;
+    final List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (long index = offset / blockSize; index * blockSize < end; index++) {
+      final long blockStart = index * blockSize;
+      final long start = Math.max(offset, blockStart);
+      final int length = (int) (Math.min(end, blockStart + blockSize) - start);
+      futures.add(
+          readBlock(index, start - blockStart, dst, dstOffset + (int) (start - offset), length));
+    }
+    return futures.size() == 1
+        ? futures.get(0)
+        : CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+  }
+
+  private CompletableFuture<Void> readBlock(
+      long index, long offsetInBlock, ByteBuf dst, int dstIndex, int len) {
+    final BlockKey key = new BlockKey(fileKey.getPath().toString(), fileKey.getVersion(), index);
+    final long blockStart = index * cache.getBlockSize();
+    try {
+      if (cache.read(key, offsetInBlock, dst, dstIndex, len)) {
+        hits.incrementAndGet();
+        return completedFuture;
+      }
+    } catch (IOException e) {
+      logger.warn("Failed to read cached block {}", key, e);
+      return reader.readFully(blockStart + offsetInBlock, dst, dstIndex, len);
+    }
+
+    misses.incrementAndGet();
+    long fetchStart = offsetInBlock - offsetInBlock % cache.getAlignment();
+    long fetchEnd = offsetInBlock + len;
+    final Range<Long> cached = cache.getCachedRange(key);
+    if (cached != null) {
+      fetchStart = Math.min(fetchStart, cached.lowerEndpoint());
+      fetchEnd = Math.max(fetchEnd, cached.upperEndpoint());
+    }
+    final long start = fetchStart;
+    final int length = (int) (fetchEnd - fetchStart);
+    return cache
+        .load(source, sourceMaxSpacePct, key, start, () -> fetchRange(blockStart + start, length))
+        .thenCompose(
+            loaded -> {
+              try {
+                if (loaded && cache.read(key, offsetInBlock, dst, dstIndex, len)) {
+                  return completedFuture;
+                }
+              } catch (IOException e) {
+                logger.warn("Failed to read cached block {}", key, e);
+              }
+              return reader.readFully(blockStart + offsetInBlock, dst, dstIndex, len);
+            });
+  }
+
+  private CompletableFuture<ByteBuf> fetchRange(long offset, int length) {
+    final ByteBuf buf = Unpooled.directBuffer(length);
+    return reader
+        .readFully(offset, buf, 0, length)
+        .handle(
+            (v, throwable) -> {
+              if (throwable != null) {
+                buf.release();
+                throw throwable instanceof RuntimeException
+                    ? (RuntimeException) throwable
+                    : new RuntimeException(throwable);
+              }
+              return buf.writerIndex(length);
+            });
+  }
+
+  @Override
+  public CompletableFuture<Void> checkVersion(String version) {
+    return reader.checkVersion(version);
+  }
+
+  @Override
+  public List<ReaderStat> getStats() {
+    final List<ReaderStat> stats = new ArrayList<>(reader.getStats());
+    stats.add(new ReaderStat(HITS_STAT, hits.get()));
+    stats.add(new ReaderStat(MISSES_STAT, misses.get()));
+    return stats;
+  }
+
+  @Override
+  public void close() throws Exception {
+    reader.close();
+  }
+}
@@ -0,0 +1,574 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.store.dfs.CacheProperties;
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Range;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.ByteBuf;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A read-through cache of fixed size blocks of remote files, stored on local disks of the executor.
+ *
+ * <p>Blocks are keyed by the path of their file and their index, and tagged with the version of
+ * the file: reading a block of a modified file drops the stale copy and misses. A block may only
+ * hold a contiguous range of its bytes, as misses are read from the source at the granularity of
+ * {@link #getAlignment()} rather than whole blocks. Concurrent misses of the same block are
+ * de-duplicated, only one of them reads from the source.
+ *
+ * <p>Every mount point uses up to a share of its disk and leaves a share of it free, every source
+ * up to a share of the whole cache, see {@link CacheProperties#cacheMaxSpaceLimitPct()}. The least
+ * recently read blocks are evicted first. The mount points are emptied on startup.
+ */
+public class LocalBlockCache implements Closeable {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(LocalBlockCache.class);
+
+  static final long DEFAULT_BLOCK_SIZE = 1024 * 1024;
+  static final long DEFAULT_ALIGNMENT = 64 * 1024;
+
+  private static final String CACHE_DIR_NAME = "block-cache";
+  private static final String BLOCK_SUFFIX = ".block";
+  private static final String INFLIGHT_SUFFIX = ".inflight";
+
+  private final String hostname;
+  private final List<MountPoint> mountPoints;
+  private final long blockSize;
+  private final long alignment;
+  private final long maxSizeBytes;
+
+  // cached blocks, in access order
+  private final LinkedHashMap<BlockKey, Block> blocks = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, SourceUsage> sources = new HashMap<>();
+  private final ConcurrentMap<BlockKey, CompletableFuture<Boolean>> loading =
+      new ConcurrentHashMap<>();
+
+  @VisibleForTesting
+  LocalBlockCache(
+      String hostname,
+      List<Path> directories,
+      List<Long> maxSizes,
+      List<Long> minFreeSizes,
+      long blockSize,
+      long alignment)
+      throws IOException {
+    Preconditions.checkArgument(!directories.isEmpty(), "No directory to cache blocks");
+    Preconditions.checkArgument(
+        directories.size() == maxSizes.size() && directories.size() == minFreeSizes.size(),
+        "Mismatching cache directories and quotas");
+    Preconditions.checkArgument(blockSize > 0, "Invalid block size %s", blockSize);
+    Preconditions.checkArgument(
+        alignment > 0 && blockSize % alignment == 0, "Invalid alignment %s", alignment);
+    this.hostname = hostname;
+    this.blockSize = blockSize;
+    this.alignment = alignment;
+    final List<MountPoint> mountPoints = new ArrayList<>();
+    long maxSizeBytes = 0;
+    for (int i = 0; i < directories.size(); i++) {
+      final Path directory = directories.get(i);
+      Files.createDirectories(directory);
+      deleteBlockFiles(directory);
+      mountPoints.add(new MountPoint(i, directory, maxSizes.get(i), minFreeSizes.get(i)));
+      maxSizeBytes += maxSizes.get(i);
+    }
+    this.mountPoints = mountPoints;
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  /**
+   * Creates a cache on the executor cache mount points, each one using the configured percentages
+   * of the total space of its disk.
+   */
+  public static LocalBlockCache create(DremioConfig config, String hostname) throws IOException {
+    final List<String> paths = config.getStringList(DremioConfig.CACHE_FS_PATH_LIST);
+    final List<Integer> quotas = config.getIntList(DremioConfig.CACHE_FS_QUOTA_LIST);
+    final List<Integer> freeSpaces =
+        config.getIntList(DremioConfig.CACHE_FS_ENSURE_FREE_SPACE_LIST);
+    final List<Path> directories = new ArrayList<>();
+    final List<Long> maxSizes = new ArrayList<>();
+    final List<Long> minFreeSizes = new ArrayList<>();
+    for (int i = 0; i < paths.size(); i++) {
+      final Path directory = Paths.get(paths.get(i)).resolve(CACHE_DIR_NAME);
+      Files.createDirectories(directory);
+      final long totalSpace = directory.toFile().getTotalSpace();
+      directories.add(directory);
+      maxSizes.add(totalSpace * getOrLast(quotas, i) / 100);
+      minFreeSizes.add(totalSpace * getOrLast(freeSpaces, i) / 100);
+    }
+    return new LocalBlockCache(
+        hostname, directories, maxSizes, minFreeSizes, DEFAULT_BLOCK_SIZE, DEFAULT_ALIGNMENT);
+  }
+
+  public long getBlockSize() {
+    return blockSize;
+  }
+
+  /** Granularity at which the ranges of a block are read from the source. */
+  public long getAlignment() {
+    return alignment;
+  }
+
+  /** Returns the range of the block cached for the key version, relative to the block start. */
+  public synchronized @Nullable Range<Long> getCachedRange(BlockKey key) {
+    final Block block = blocks.get(key);
+    if (block == null || !block.version.equals(key.version)) {
+      return null;
+    }
+    return Range.closedOpen(block.start, block.start + block.length);
+  }
+
+  /**
+   * Copies a range of a cached block into the destination buffer.
+   *
+   * @return {@code true} on hit, {@code false} if the range is not cached for the key version
+   */
+  public boolean read(BlockKey key, long offsetInBlock, ByteBuf dst, int dstIndex, int len)
+      throws IOException {
+    final Block block;
+    synchronized (this) {
+      final Block current = blocks.get(key);
+      if (current != null && !current.version.equals(key.version)) {
+        logger.debug("Dropping stale block {}", key);
+        remove(key);
+        return false;
+      }
+      block = current;
+    }
+    if (block == null
+        || offsetInBlock < block.start
+        || offsetInBlock + len > block.start + block.length) {
+      return false;
+    }
+    final long position = offsetInBlock - block.start;
+
+    final long start = System.nanoTime();
+    try (FileChannel channel = FileChannel.open(block.path, StandardOpenOption.READ)) {
+      // composite buffers only expose copies of their bytes
+      final boolean shared = dst.nioBufferCount() == 1;
+      final ByteBuffer target = shared ? dst.nioBuffer(dstIndex, len) : ByteBuffer.allocate(len);
+      while (target.hasRemaining()) {
+        final int read = channel.read(target, position + target.position());
+        if (read < 0) {
+          // truncated in the meantime
+          return false;
+        }
+      }
+      if (!shared) {
+        target.flip();
+        dst.setBytes(dstIndex, target);
+      }
+    } catch (NoSuchFileException e) {
+      // evicted in the meantime
+      return false;
+    }
+    block.mountPoint.recordRead(System.nanoTime() - start);
+    return true;
+  }
+
+  /**
+   * Loads a range of a block, replacing the range cached so far, unless another reader is already
+   * loading the block.
+   *
+   * @param source the storage plugin the block belongs to
+   * @param sourceMaxSpacePct the share of the cache the source can use
+   * @param key the block to load
+   * @param offsetInBlock offset of the fetched range in the block
+   * @param fetcher reads the range from the source, the cache releases the buffer
+   * @return a future informed with {@code true} if the range got cached
+   */
+  public CompletableFuture<Boolean> load(
+      String source,
+      int sourceMaxSpacePct,
+      BlockKey key,
+      long offsetInBlock,
+      Supplier<CompletableFuture<ByteBuf>> fetcher) {
+    final CompletableFuture<Boolean> future = new CompletableFuture<>();
+    final CompletableFuture<Boolean> existing = loading.putIfAbsent(key, future);
+    if (existing != null) {
+      return existing;
+    }
+
+    CompletableFuture<ByteBuf> fetched;
+    try {
+      fetched = fetcher.get();
+    } catch (RuntimeException e) {
+      fetched = new CompletableFuture<>();
+      fetched.completeExceptionally(e);
+    }
+    fetched.whenComplete(
+        (buf, throwable) -> {
+          boolean cached = false;
+          try {
+            if (throwable == null) {
+              cached = put(source, sourceMaxSpacePct, key, offsetInBlock, buf);
+            } else {
+              logger.debug("Failed to load block {}", key, throwable);
+            }
+          } catch (IOException | RuntimeException e) {
+            logger.warn("Failed to cache block {}", key, e);
+          } finally {
+            if (buf != null) {
+              buf.release();
+            }
+            loading.remove(key, future);
+            future.complete(cached);
+          }
+        });
+    return future;
+  }
+
+  private boolean put(
+      String source, int sourceMaxSpacePct, BlockKey key, long offsetInBlock, ByteBuf buf)
+      throws IOException {
+    final int length = buf.readableBytes();
+    final long sourceMaxSize = maxSizeBytes * sourceMaxSpacePct / 100;
+    final MountPoint mountPoint = getMountPoint(key);
+    if (length > sourceMaxSize || length > mountPoint.maxSizeBytes) {
+      return false;
+    }
+    if (mountPoint.directory.toFile().getUsableSpace() - length < mountPoint.minFreeBytes) {
+      logger.debug("Not caching block {}, {} is running out of space", key, mountPoint.directory);
+      mountPoint.full = true;
+      return false;
+    }
+    mountPoint.full = false;
+
+    final Path inflight = getPath(mountPoint, key, INFLIGHT_SUFFIX);
+    final long start = System.nanoTime();
+    try (FileChannel channel =
+        FileChannel.open(
+            inflight,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      final ByteBuffer src = buf.nioBuffer(buf.readerIndex(), length);
+      while (src.hasRemaining()) {
+        channel.write(src);
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(inflight);
+      throw e;
+    }
+    mountPoint.recordWrite(System.nanoTime() - start);
+
+    final Path path = getPath(mountPoint, key, BLOCK_SUFFIX);
+    synchronized (this) {
+      Files.move(
+          inflight, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      remove(key, path);
+      final SourceUsage usage = sources.computeIfAbsent(source, SourceUsage::new);
+      usage.maxSizeBytes = sourceMaxSize;
+      evict(b -> b.source == usage, () -> usage.sizeBytes + length > usage.maxSizeBytes);
+      evict(
+          b -> b.mountPoint == mountPoint,
+          () -> mountPoint.sizeBytes + length > mountPoint.maxSizeBytes);
+
+      blocks.put(key, new Block(key.version, path, offsetInBlock, length, usage, mountPoint));
+      usage.add(length);
+      mountPoint.add(length);
+    }
+    return true;
+  }
+
+  public synchronized List<CacheManagerMountPointInfo> getMountPointStats() {
+    final List<CacheManagerMountPointInfo> stats = new ArrayList<>();
+    for (MountPoint mountPoint : mountPoints) {
+      final File directory = mountPoint.directory.toFile();
+      stats.add(
+          new CacheManagerMountPointInfo(
+              hostname,
+              mountPoint.directory.toString(),
+              mountPoint.id,
+              0,
+              mountPoint.numBlocks,
+              mountPoint.maxSizeBytes,
+              mountPoint.sizeBytes,
+              mountPoint.getAvgReadNanos(),
+              mountPoint.getAvgWriteNanos(),
+              "ONLINE",
+              mountPoint.full ? "FULL" : "AVAILABLE",
+              directory.getTotalSpace(),
+              directory.getUsableSpace(),
+              mountPoint.lastEvictionMillis,
+              mountPoint.lastEvictedBytes));
+    }
+    return stats;
+  }
+
+  public synchronized List<CacheManagerStoragePluginInfo> getStoragePluginStats() {
+    final List<CacheManagerStoragePluginInfo> stats = new ArrayList<>();
+    for (SourceUsage usage : sources.values()) {
+      stats.add(
+          new CacheManagerStoragePluginInfo(
+              hostname, usage.name, usage.numBlocks, usage.sizeBytes, usage.maxSizeBytes));
+    }
+    return stats;
+  }
+
+  @VisibleForTesting
+  synchronized long getSizeBytes() {
+    return blocks.values().stream().mapToLong(b -> b.length).sum();
+  }
+
+  @VisibleForTesting
+  synchronized int getNumBlocks() {
+    return blocks.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    blocks.clear();
+    sources.clear();
+    for (MountPoint mountPoint : mountPoints) {
+      deleteBlockFiles(mountPoint.directory);
+    }
+  }
+
+  private void evict(Predicate<Block> candidate, Supplier<Boolean> overBudget) {
+    final Iterator<Block> iterator = blocks.values().iterator();
+    while (overBudget.get() && iterator.hasNext()) {
+      final Block block = iterator.next();
+      if (candidate.test(block)) {
+        iterator.remove();
+        release(block, true);
+      }
+    }
+  }
+
+  private void remove(BlockKey key) {
+    final Block block = blocks.remove(key);
+    if (block != null) {
+      release(block, false);
+      delete(block.path);
+    }
+  }
+
+  /** Removes a block replaced by the given file, without deleting the new file. */
+  private void remove(BlockKey key, Path replacement) {
+    final Block block = blocks.remove(key);
+    if (block != null) {
+      release(block, false);
+      if (!block.path.equals(replacement)) {
+        delete(block.path);
+      }
+    }
+  }
+
+  private void release(Block block, boolean evicted) {
+    block.source.add(-block.length);
+    block.mountPoint.add(-block.length);
+    if (evicted) {
+      block.mountPoint.lastEvictionMillis = System.currentTimeMillis();
+      block.mountPoint.lastEvictedBytes = block.length;
+      delete(block.path);
+    }
+  }
+
+  private MountPoint getMountPoint(BlockKey key) {
+    return mountPoints.get(Math.floorMod(key.hashCode(), mountPoints.size()));
+  }
+
+  /** Names the block files after their key and version. */
+  private static Path getPath(MountPoint mountPoint, BlockKey key, String suffix) {
+    final HashCode hash =
+        Hashing.sha256()
+            .newHasher()
+            .putString(key.path, StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(key.version, StandardCharsets.UTF_8)
+            .putLong(key.index)
+            .hash();
+    return mountPoint.directory.resolve(hash + suffix);
+  }
+
+  private static int getOrLast(List<Integer> values, int index) {
+    Preconditions.checkArgument(!values.isEmpty(), "Missing cache quotas");
+    return values.get(Math.min(index, values.size() - 1));
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Failed to delete cached block {}", path, e);
+    }
+  }
+
+  private static void deleteBlockFiles(Path directory) throws IOException {
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, "*{" + BLOCK_SUFFIX + "," + INFLIGHT_SUFFIX + "}")) {
+      for (Path path : stream) {
+        delete(path);
+      }
+    }
+  }
+
+  /** A block of a file, the version of the file being only used to validate cached blocks. */
+  public static final class BlockKey {
+    private final String path;
+    private final String version;
+    private final long index;
+
+    public BlockKey(String path, String version, long index) {
+      this.path = path;
+      this.version = version;
+      this.index = index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof BlockKey)) {
+        return false;
+      }
+      final BlockKey that = (BlockKey) o;
+      return index == that.index && path.equals(that.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, index);
+    }
+
+    @Override
+    public String toString() {
+      return path + "@" + version + "[" + index + "]";
+    }
+  }
+
+  private static final class Block {
+    private final String version;
+    private final Path path;
+    // offset of the cached range in the block
+    private final long start;
+    private final int length;
+    private final SourceUsage source;
+    private final MountPoint mountPoint;
+
+    private Block(
+        String version,
+        Path path,
+        long start,
+        int length,
+        SourceUsage source,
+        MountPoint mountPoint) {
+      this.version = version;
+      this.path = path;
+      this.start = start;
+      this.length = length;
+      this.source = source;
+      this.mountPoint = mountPoint;
+    }
+  }
+
+  private static final class SourceUsage {
+    private final String name;
+    private long maxSizeBytes;
+    private long sizeBytes;
+    private long numBlocks;
+
+    private SourceUsage(String name) {
+      this.name = name;
+    }
+
+    private void add(long length) {
+      sizeBytes += length;
+      numBlocks += Long.signum(length);
+    }
+  }
+
+  private static final class MountPoint {
+    private final int id;
+    private final Path directory;
+    private final long maxSizeBytes;
+    private final long minFreeBytes;
+    private long sizeBytes;
+    private long numBlocks;
+    private long lastEvictionMillis;
+    private long lastEvictedBytes;
+    private volatile boolean full;
+
+    // guarded by the mount point, updated outside of the cache lock
+    private long reads;
+    private long readNanos;
+    private long writes;
+    private long writeNanos;
+
+    private MountPoint(int id, Path directory, long maxSizeBytes, long minFreeBytes) {
+      this.id = id;
+      this.directory = directory;
+      this.maxSizeBytes = maxSizeBytes;
+      this.minFreeBytes = minFreeBytes;
+    }
+
+    private void add(long length) {
+      sizeBytes += length;
+      numBlocks += Long.signum(length);
+    }
+
+    private synchronized void recordRead(long nanos) {
+      reads++;
+      readNanos += nanos;
+    }
+
+    private synchronized void recordWrite(long nanos) {
+      writes++;
+      writeNanos += nanos;
+    }
+
+    private synchronized long getAvgReadNanos() {
+      return reads == 0 ? 0 : readNanos / reads;
+    }
+
+    private synchronized long getAvgWriteNanos() {
+      return writes == 0 ? 0 : writeNanos / writes;
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.boost;
+
+import com.dremio.exec.store.dfs.AsyncStreamConf;
+import com.dremio.exec.store.dfs.FileSystemWrapper;
+import com.dremio.io.file.BoostedFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.sabot.exec.context.OperatorContext;
+import java.io.IOException;
+
+/**
+ * A {@link FileSystemWrapper} making the remote file systems used by scans support boosting, with
+ * the boosted columns stored by a {@link LocalBoostedFileSystem}.
+ */
+public class BoostingFileSystemWrapper implements FileSystemWrapper {
+  private static final String LOCAL_SCHEME = "file";
+
+  private final FileSystemWrapper defaultWrapper;
+  private final LocalBoostedFileSystem boostedFileSystem;
+
+  public BoostingFileSystemWrapper(
+      FileSystemWrapper defaultWrapper, LocalBoostedFileSystem boostedFileSystem) {
+    this.defaultWrapper = defaultWrapper;
+    this.boostedFileSystem = boostedFileSystem;
+  }
+
+  @Override
+  public FileSystem wrap(
+      FileSystem fs,
+      String storageId,
+      AsyncStreamConf conf,
+      OperatorContext context,
+      boolean enableAsync,
+      boolean isMetadataRefresh)
+      throws IOException {
+    final FileSystem wrappedFs =
+        defaultWrapper.wrap(fs, storageId, conf, context, enableAsync, isMetadataRefresh);
+    // boosting local files to local disks would only copy them
+    if (isMetadataRefresh
+        || wrappedFs.supportsBoosting()
+        || LOCAL_SCHEME.equals(wrappedFs.getScheme())) {
+      return wrappedFs;
+    }
+    return new BoostingFileSystem(wrappedFs, boostedFileSystem);
+  }
+
+  @Override
+  public <T> T unwrap(Class<T> clazz) {
+    if (clazz.isInstance(this)) {
+      return clazz.cast(this);
+    }
+    return defaultWrapper.unwrap(clazz);
+  }
+
+  @Override
+  public boolean isWrapperFor(Class<?> clazz) {
+    return clazz.isInstance(this) || defaultWrapper.isWrapperFor(clazz);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      boostedFileSystem.close();
+    } finally {
+      defaultWrapper.close();
+    }
+  }
+
+  private static final class BoostingFileSystem extends FilterFileSystem {
+    private final BoostedFileSystem boostedFileSystem;
+
+    private BoostingFileSystem(FileSystem fs, BoostedFileSystem boostedFileSystem) {
+      super(fs);
+      this.boostedFileSystem = boostedFileSystem;
+    }
+
+    @Override
+    public boolean supportsBoosting() {
+      return true;
+    }
+
+    @Override
+    public BoostedFileSystem getBoostedFilesystem() {
+      return boostedFileSystem;
+    }
+  }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.boost;
+
+import com.dremio.common.collections.Tuple;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.FSOutputStream;
+import com.dremio.io.file.BoostedFileSystem;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * A {@link BoostedFileSystem} storing boosted columns on local disks of the executor.
+ *
+ * <p>Every boosted column is written to an in-flight file, renamed to its final name on commit.
+ * Committed files are kept within a size budget, the least recently read ones are deleted first.
+ * Boosted columns are keyed by the version of their source file, its modification time, so reading
+ * a column of a modified file drops the stale copy and misses.
+ *
+ * <p>Boosted columns are read through memory mappings, see {@link MappedFSInputStream}. The
+ * directories are emptied on startup, the cache is rebuilt by the next boosts.
+ */
+public class LocalBoostedFileSystem implements BoostedFileSystem, Closeable {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(LocalBoostedFileSystem.class);
+
+  static final String HITS_STAT = "boostHits";
+  static final String MISSES_STAT = "boostMisses";
+
+  private static final String BOOST_SUFFIX = ".arrow";
+  private static final String INFLIGHT_SUFFIX = ".inflight";
+
+  private final List<Path> directories;
+  private final long maxSizeBytes;
+
+  // committed boost files, in access order
+  private final LinkedHashMap<ColumnKey, BoostFile> files = new LinkedHashMap<>(16, 0.75f, true);
+  private long sizeBytes;
+
+  public LocalBoostedFileSystem(List<Path> directories, long maxSizeBytes) throws IOException {
+    Preconditions.checkArgument(!directories.isEmpty(), "No directory to store boosted columns");
+    Preconditions.checkArgument(maxSizeBytes > 0, "Invalid boost size budget %s", maxSizeBytes);
+    this.directories = directories;
+    this.maxSizeBytes = maxSizeBytes;
+    for (Path directory : directories) {
+      Files.createDirectories(directory);
+      deleteBoostFiles(directory);
+    }
+  }
+
+  public static LocalBoostedFileSystem create(SabotConfig config) throws IOException {
+    return new LocalBoostedFileSystem(
+        config.getStringList(ExecConstants.BOOST_LOCAL_DIRS).stream()
+            .map(Paths::get)
+            .collect(Collectors.toList()),
+        config.getLong(ExecConstants.BOOST_LOCAL_MAX_SIZE_BYTES));
+  }
+
+  @Override
+  public FSOutputStream createBoostFile(
+      AsyncByteReader.FileKey fileKey, long offset, String columnName) throws IOException {
+    final Path inflight = getPath(fileKey, offset, columnName, INFLIGHT_SUFFIX);
+    return new LocalOutputStream(Files.newOutputStream(inflight));
+  }
+
+  @Override
+  public Tuple<FSInputStream, Long> getBoostFile(
+      AsyncByteReader.FileKey fileKey,
+      long offset,
+      String columnName,
+      List<AsyncByteReader.ReaderStat> stats,
+      BufferAllocator allocator)
+      throws IOException {
+    final ColumnKey key = new ColumnKey(fileKey, offset, columnName);
+    final BoostFile file;
+    synchronized (this) {
+      final BoostFile current = files.get(key);
+      if (current != null && !current.version.equals(fileKey.getVersion())) {
+        logger.debug("Dropping stale boost file {} of {}", current.path, key);
+        remove(key);
+        file = null;
+      } else {
+        file = current;
+      }
+    }
+
+    if (file != null) {
+      try {
+        final MappedFSInputStream input = MappedFSInputStream.open(file.path);
+        addStat(stats, HITS_STAT);
+        return Tuple.of(input, input.getSize());
+      } catch (NoSuchFileException e) {
+        // evicted in the meantime
+      }
+    }
+    addStat(stats, MISSES_STAT);
+    return null;
+  }
+
+  @Override
+  public void commitBoostFile(AsyncByteReader.FileKey fileKey, long offset, String columnName)
+      throws IOException {
+    final ColumnKey key = new ColumnKey(fileKey, offset, columnName);
+    final Path inflight = getPath(fileKey, offset, columnName, INFLIGHT_SUFFIX);
+    final long size = Files.size(inflight);
+    if (size > maxSizeBytes || size > Integer.MAX_VALUE) {
+      logger.debug("Not keeping boost file of {}, {} bytes is too large", key, size);
+      Files.deleteIfExists(inflight);
+      return;
+    }
+
+    final Path path = getPath(fileKey, offset, columnName, BOOST_SUFFIX);
+    synchronized (this) {
+      Files.move(
+          inflight, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      final BoostFile previous = files.put(key, new BoostFile(fileKey.getVersion(), path, size));
+      if (previous != null) {
+        sizeBytes -= previous.size;
+        if (!previous.path.equals(path)) {
+          delete(previous.path);
+        }
+      }
+      sizeBytes += size;
+      evict();
+    }
+  }
+
+  @Override
+  public void abortBoostFile(AsyncByteReader.FileKey fileKey, long offset, String columnName)
+      throws IOException {
+    Files.deleteIfExists(getPath(fileKey, offset, columnName, INFLIGHT_SUFFIX));
+  }
+
+  @VisibleForTesting
+  synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  @VisibleForTesting
+  synchronized int getNumFiles() {
+    return files.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    files.clear();
+    sizeBytes = 0;
+    for (Path directory : directories) {
+      deleteBoostFiles(directory);
+    }
+  }
+
+  private void evict() {
+    final Iterator<Map.Entry<ColumnKey, BoostFile>> iterator = files.entrySet().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      final BoostFile file = iterator.next().getValue();
+      iterator.remove();
+      sizeBytes -= file.size;
+      delete(file.path);
+    }
+  }
+
+  private void remove(ColumnKey key) {
+    final BoostFile file = files.remove(key);
+    if (file != null) {
+      sizeBytes -= file.size;
+      delete(file.path);
+    }
+  }
+
+  /** Spreads the boost files over the directories, named after their key and version. */
+  private Path getPath(
+      AsyncByteReader.FileKey fileKey, long offset, String columnName, String suffix) {
+    final HashCode hash =
+        Hashing.sha256()
+            .newHasher()
+            .putString(fileKey.getPath().toString(), StandardCharsets.UTF_8)
+            .putByte((byte) 0)
+            .putString(fileKey.getVersion(), StandardCharsets.UTF_8)
+            .putLong(offset)
+            .putString(columnName, StandardCharsets.UTF_8)
+            .hash();
+    final Path directory = directories.get(Math.floorMod(hash.asInt(), directories.size()));
+    return directory.resolve(hash + suffix);
+  }
+
+  private static void addStat(List<AsyncByteReader.ReaderStat> stats, String name) {
+    if (stats == null) {
+      return;
+    }
+    for (AsyncByteReader.ReaderStat stat : stats) {
+      if (stat.getName().equals(name)) {
+        stat.setValue(stat.getValue() + 1);
+        return;
+      }
+    }
+    stats.add(new AsyncByteReader.ReaderStat(name, 1));
+  }
+
+  private static void delete(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      logger.warn("Failed to delete boost file {}", path, e);
+    }
+  }
+
+  private static void deleteBoostFiles(Path directory) throws IOException {
+    try (DirectoryStream<Path> stream =
+        Files.newDirectoryStream(directory, "*{" + BOOST_SUFFIX + "," + INFLIGHT_SUFFIX + "}")) {
+      for (Path path : stream) {
+        delete(path);
+      }
+    }
+  }
+
+  /** Tracks the position of the stream writing a boost file. */
+  private static final class LocalOutputStream extends FSOutputStream {
+    private final OutputStream out;
+    private long position;
+
+    private LocalOutputStream(OutputStream out) {
+      this.out = new BufferedOutputStream(out);
+    }
+
+    @Override
+    public long getPosition() throws IOException {
+      return position;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      position++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      position += len;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      out.close();
+    }
+  }
+
+  /** A boosted column, independently of the version of its file. */
+  private static final class ColumnKey {
+    private final String path;
+    private final long offset;
+    private final String column;
+
+    private ColumnKey(AsyncByteReader.FileKey fileKey, long offset, String column) {
+      this.path = fileKey.getPath().toString();
+      this.offset = offset;
+      this.column = column;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof ColumnKey)) {
+        return false;
+      }
+      final ColumnKey that = (ColumnKey) o;
+      return offset == that.offset && path.equals(that.path) && column.equals(that.column);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(path, offset, column);
+    }
+
+    @Override
+    public String toString() {
+      return path + "[" + offset + "]." + column;
+    }
+  }
+
+  private static final class BoostFile {
+    private final String version;
+    private final Path path;
+    private final long size;
+
+    private BoostFile(String version, Path path, long size) {
+      this.version = version;
+      this.path = path;
+      this.size = size;
+    }
+  }
+}
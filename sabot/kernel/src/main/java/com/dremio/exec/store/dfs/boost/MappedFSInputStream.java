@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.boost;
+
+import com.dremio.io.FSInputStream;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link FSInputStream} over a memory mapped local file.
+ *
+ * <p>Besides the stream methods, {@link #getBuffer()} gives readers direct access to the mapped
+ * bytes, without copying them. The mapping is released once the stream and all the buffers
+ * obtained from it are garbage collected; the file can be deleted in the meantime.
+ */
+public final class MappedFSInputStream extends FSInputStream {
+  private final ByteBuffer buffer;
+
+  private MappedFSInputStream(ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  /** Maps the given file, which must be smaller than 2GB. */
+  public static MappedFSInputStream open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      Preconditions.checkArgument(
+          size <= Integer.MAX_VALUE, "File %s is too large to be mapped: %s bytes", path, size);
+      return new MappedFSInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /** A read-only view of the whole file, independent of the stream position. */
+  public ByteBuffer getBuffer() {
+    final ByteBuffer view = buffer.asReadOnlyBuffer();
+    view.clear();
+    return view;
+  }
+
+  public long getSize() {
+    return buffer.capacity();
+  }
+
+  @Override
+  public int read() throws IOException {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+    final int n = Math.min(len, buffer.remaining());
+    buffer.get(b, off, n);
+    return n;
+  }
+
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    final int n = read(buffer.position(), dst);
+    if (n > 0) {
+      buffer.position(buffer.position() + n);
+    }
+    return n;
+  }
+
+  @Override
+  public int read(long position, ByteBuffer dst) throws IOException {
+    Preconditions.checkArgument(position >= 0, "Invalid position %s", position);
+    if (position >= buffer.capacity()) {
+      return -1;
+    }
+    final int n = (int) Math.min(dst.remaining(), buffer.capacity() - position);
+    final ByteBuffer src = buffer.duplicate();
+    src.limit((int) position + n).position((int) position);
+    dst.put(src);
+    return n;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    final int skipped = (int) Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + skipped);
+    return skipped;
+  }
+
+  @Override
+  public int available() throws IOException {
+    return buffer.remaining();
+  }
+
+  @Override
+  public long getPosition() throws IOException {
+    return buffer.position();
+  }
+
+  @Override
+  public void setPosition(long position) throws IOException {
+    Preconditions.checkArgument(
+        position >= 0 && position <= buffer.capacity(), "Invalid position %s", position);
+    buffer.position((int) position);
+  }
+}
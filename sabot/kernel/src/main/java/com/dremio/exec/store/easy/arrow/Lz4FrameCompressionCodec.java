@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.arrow;
+
+import com.google.common.base.Preconditions;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.AbstractCompressionCodec;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+
+/**
+ * Arrow IPC buffer compression with LZ4 frames, based on the lz4-java library, for writers of Arrow
+ * streams read by external clients. Arrow's own LZ4 codec lives in a module the tree does not
+ * depend on.
+ */
+public class Lz4FrameCompressionCodec extends AbstractCompressionCodec {
+  /** Creates LZ4 frame codecs, or no-op codecs when no compression is requested. */
+  public static final CompressionCodec.Factory FACTORY =
+      new CompressionCodec.Factory() {
+        @Override
+        public CompressionCodec createCodec(CompressionUtil.CodecType codecType) {
+          switch (codecType) {
+            case NO_COMPRESSION:
+              return NoCompressionCodec.INSTANCE;
+            case LZ4_FRAME:
+              return new Lz4FrameCompressionCodec();
+            default:
+              throw new IllegalArgumentException("Unsupported codec: " + codecType);
+          }
+        }
+
+        @Override
+        public CompressionCodec createCodec(
+            CompressionUtil.CodecType codecType, int compressionLevel) {
+          return createCodec(codecType);
+        }
+      };
+
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private final byte[] chunk = new byte[CHUNK_SIZE];
+
+  @Override
+  protected ArrowBuf doCompress(BufferAllocator allocator, ArrowBuf uncompressedBuffer) {
+    final long length = uncompressedBuffer.writerIndex();
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream(CHUNK_SIZE);
+    try (OutputStream out =
+        new LZ4FrameOutputStream(compressed, LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB)) {
+      for (long pos = 0; pos < length; ) {
+        final int n = (int) Math.min(CHUNK_SIZE, length - pos);
+        uncompressedBuffer.getBytes(pos, chunk, 0, n);
+        out.write(chunk, 0, n);
+        pos += n;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    final byte[] bytes = compressed.toByteArray();
+    final ArrowBuf compressedBuffer =
+        allocator.buffer(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + bytes.length);
+    compressedBuffer.setBytes(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH, bytes);
+    compressedBuffer.writerIndex(CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + bytes.length);
+    return compressedBuffer;
+  }
+
+  @Override
+  protected ArrowBuf doDecompress(BufferAllocator allocator, ArrowBuf compressedBuffer) {
+    final long length = readUncompressedLength(compressedBuffer);
+    final ArrowBuf uncompressedBuffer = allocator.buffer(length);
+    try (InputStream in =
+        new LZ4FrameInputStream(
+            new ArrowBufInputStream(
+                compressedBuffer,
+                CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH,
+                compressedBuffer.writerIndex()))) {
+      for (long pos = 0; pos < length; ) {
+        final int n = in.read(chunk, 0, (int) Math.min(CHUNK_SIZE, length - pos));
+        Preconditions.checkState(n > 0, "LZ4 frame shorter than its uncompressed length");
+        uncompressedBuffer.setBytes(pos, chunk, 0, n);
+        pos += n;
+      }
+    } catch (IOException | RuntimeException e) {
+      uncompressedBuffer.close();
+      throw e instanceof IOException
+          ? new UncheckedIOException((IOException) e)
+          : (RuntimeException) e;
+    }
+    uncompressedBuffer.writerIndex(length);
+    return uncompressedBuffer;
+  }
+
+  @Override
+  public CompressionUtil.CodecType getCodecType() {
+    return CompressionUtil.CodecType.LZ4_FRAME;
+  }
+
+  /** Reads a range of an ArrowBuf. */
+  private static final class ArrowBufInputStream extends InputStream {
+    private final ArrowBuf buf;
+    private final long end;
+    private long position;
+
+    private ArrowBufInputStream(ArrowBuf buf, long start, long end) {
+      this.buf = buf;
+      this.position = start;
+      this.end = end;
+    }
+
+    @Override
+    public int read() {
+      return position < end ? buf.getByte(position++) & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (position >= end) {
+        return -1;
+      }
+      final int n = (int) Math.min(len, end - position);
+      buf.getBytes(position, b, off, n);
+      position += n;
+      return n;
+    }
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg.deletes;
+
+import java.util.NoSuchElementException;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/**
+ * A PositionalDeleteIterator over the positions of a bitmap, either a cached 32-bit bitmap or the
+ * 64-bit bitmap of a data file whose positions do not fit in it. Unlike merged delete file
+ * iterators, it can skip to a position without going through the positions before it.
+ */
+public class BitmapPositionalDeleteIterator implements PositionalDeleteIterator {
+
+  private final PeekableIntIterator intIterator;
+  private final PeekableLongIterator longIterator;
+
+  public BitmapPositionalDeleteIterator(ImmutableRoaringBitmap bitmap) {
+    this.intIterator = bitmap.getIntIterator();
+    this.longIterator = null;
+  }
+
+  public BitmapPositionalDeleteIterator(Roaring64Bitmap bitmap) {
+    this.intIterator = null;
+    this.longIterator = bitmap.getLongIterator();
+  }
+
+  @Override
+  public boolean hasNext() {
+    return intIterator != null ? intIterator.hasNext() : longIterator.hasNext();
+  }
+
+  @Override
+  public Long next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    // 32-bit positions are unsigned
+    return intIterator != null ? Integer.toUnsignedLong(intIterator.next()) : longIterator.next();
+  }
+
+  /** Skips the positions lower than the given one. */
+  public void skipTo(long pos) {
+    if (longIterator != null) {
+      longIterator.advanceIfNeeded(pos);
+    } else if (pos <= 0xFFFFFFFFL) {
+      intIterator.advanceIfNeeded((int) pos);
+    } else {
+      while (intIterator.hasNext()) {
+        intIterator.next();
+      }
+    }
+  }
+
+  @Override
+  public void close() {}
+}
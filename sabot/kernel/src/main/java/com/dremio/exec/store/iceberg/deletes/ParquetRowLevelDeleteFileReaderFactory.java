@@ -39,6 +39,7 @@ import com.google.common.collect.ImmutableList;
 import java.util.List;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 /**
  * Factory for creating Parquet-based {@link PositionalDeleteFileReader} and {@link
@@ -137,6 +138,12 @@ public class ParquetRowLevelDeleteFileReaderFactory implements RowLevelDeleteFil
         recordCount);
   }
 
+  @Override
+  public Roaring64Bitmap readDeletionVector(
+      OperatorContext context, Path deleteFilePath, String dataFilePath) {
+    return PuffinDeletionVectorReader.read(fs, deleteFilePath, dataFilePath);
+  }
+
   private ParquetScanProjectedColumns getProjectedColumnsFromEqualityIds(
       OperatorContext context,
       Path deleteFilePath,
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg.deletes;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/**
+ * Executor wide cache of the positions deleted from Iceberg data files, shared by all fragments and
+ * queries.
+ *
+ * <p>Entries are keyed by the data file path and the paths of the delete files applied to it.
+ * Iceberg never rewrites a file in place, so a new delete file gives a new key. Positions are kept
+ * as run-optimized Roaring bitmaps serialized in direct buffers, weighed by their serialized size
+ * and bounded by {@link ExecConstants#ICEBERG_POSITIONAL_DELETE_CACHE_MAX_SIZE}; a size of 0
+ * disables the cache. Data files with positions above 2^32 are not cached.
+ */
+public final class PositionalDeleteBitmapCache {
+
+  private static final long MAX_CACHED_POSITION = 0xFFFFFFFFL;
+
+  private static final Cache<Key, ImmutableRoaringBitmap> CACHE =
+      Caffeine.newBuilder()
+          .maximumWeight(
+              ExecConstants.ICEBERG_POSITIONAL_DELETE_CACHE_MAX_SIZE.getDefault().getNumVal())
+          .weigher((Key key, ImmutableRoaringBitmap bitmap) -> bitmap.serializedSizeInBytes())
+          .build();
+
+  private PositionalDeleteBitmapCache() {
+    // Not to be instantiated
+  }
+
+  /** Whether the cache is enabled, applying the current size bound to the cache. */
+  static boolean isEnabled(OperatorContext context) {
+    if (context == null || context.getOptions() == null) {
+      return false;
+    }
+    final long maxSize =
+        context.getOptions().getOption(ExecConstants.ICEBERG_POSITIONAL_DELETE_CACHE_MAX_SIZE);
+    CACHE
+        .policy()
+        .eviction()
+        .ifPresent(
+            eviction -> {
+              if (eviction.getMaximum() != maxSize) {
+                eviction.setMaximum(maxSize);
+              }
+            });
+    return maxSize > 0;
+  }
+
+  /** Returns the cached positions deleted from the data file, or null if they are not cached. */
+  static ImmutableRoaringBitmap get(String dataFilePath, List<String> deleteFilePaths) {
+    return CACHE.getIfPresent(new Key(dataFilePath, deleteFilePaths));
+  }
+
+  /**
+   * Caches the positions deleted from the data file.
+   *
+   * @return the cached bitmap, or null if the positions cannot be cached
+   */
+  static ImmutableRoaringBitmap put(
+      String dataFilePath, List<String> deleteFilePaths, Roaring64Bitmap positions) {
+    if (!positions.isEmpty() && positions.last() > MAX_CACHED_POSITION) {
+      return null;
+    }
+    final ImmutableRoaringBitmap bitmap = toOffHeap(positions);
+    CACHE.put(new Key(dataFilePath, deleteFilePaths), bitmap);
+    return bitmap;
+  }
+
+  private static ImmutableRoaringBitmap toOffHeap(Roaring64Bitmap positions) {
+    final RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+    final LongIterator iterator = positions.getLongIterator();
+    while (iterator.hasNext()) {
+      writer.add((int) iterator.next());
+    }
+    final RoaringBitmap bitmap = writer.get();
+    bitmap.runOptimize();
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(bitmap.serializedSizeInBytes());
+    bitmap.serialize(buffer);
+    buffer.flip();
+    return new ImmutableRoaringBitmap(buffer);
+  }
+
+  @VisibleForTesting
+  static void invalidateAll() {
+    CACHE.invalidateAll();
+    CACHE.cleanUp();
+  }
+
+  private static final class Key {
+    private final String dataFilePath;
+    private final List<String> deleteFilePaths;
+
+    private Key(String dataFilePath, List<String> deleteFilePaths) {
+      this.dataFilePath = dataFilePath;
+      this.deleteFilePaths = ImmutableList.sortedCopyOf(deleteFilePaths);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return dataFilePath.equals(key.dataFilePath) && deleteFilePaths.equals(key.deleteFilePaths);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(dataFilePath, deleteFilePaths);
+    }
+  }
+}
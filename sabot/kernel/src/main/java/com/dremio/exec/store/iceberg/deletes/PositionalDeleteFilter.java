@@ -82,6 +82,9 @@ public class PositionalDeleteFilter implements AutoCloseable {
       iterator = iteratorSupplier.get();
     }
     currentRowPos = rowPos;
+    if (iterator instanceof BitmapPositionalDeleteIterator && nextDeletePos < currentRowPos) {
+      ((BitmapPositionalDeleteIterator) iterator).skipTo(currentRowPos);
+    }
     while (nextDeletePos < currentRowPos) {
       advance();
     }
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg.deletes;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+/**
+ * Reads Iceberg deletion vectors stored in Puffin files as {@link Roaring64Bitmap}s.
+ *
+ * <p>The blob of a data file is found through the {@code referenced-data-file} property of the
+ * {@code deletion-vector-v1} blobs listed in the Puffin footer. Compressed footers and blobs are
+ * not supported; deletion vectors are written uncompressed.
+ */
+public final class PuffinDeletionVectorReader {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(PuffinDeletionVectorReader.class);
+
+  public static final String PUFFIN_EXTENSION = ".puffin";
+
+  static final String DELETION_VECTOR_BLOB_TYPE = "deletion-vector-v1";
+  static final String REFERENCED_DATA_FILE_PROPERTY = "referenced-data-file";
+
+  private static final byte[] FILE_MAGIC = {0x50, 0x46, 0x41, 0x31};
+  private static final byte[] VECTOR_MAGIC = {(byte) 0xD1, (byte) 0xD3, 0x39, 0x64};
+  // footer payload size, flags and magic
+  private static final int FOOTER_STRUCT_LENGTH = 12;
+  private static final int FOOTER_COMPRESSED_FLAG = 0x1;
+
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+
+  private PuffinDeletionVectorReader() {
+    // Not to be instantiated
+  }
+
+  /** Whether the given delete file holds deletion vectors rather than positional deletes. */
+  public static boolean isDeletionVectorFile(String deleteFilePath) {
+    return deleteFilePath.toLowerCase().endsWith(PUFFIN_EXTENSION);
+  }
+
+  /** Returns the positions deleted from the data file, empty if the file has no vector for it. */
+  public static Roaring64Bitmap read(FileSystem fs, Path puffinPath, String dataFilePath) {
+    try (FSInputStream input = fs.open(puffinPath)) {
+      final long fileLength = fs.getFileAttributes(puffinPath).size();
+      final JsonNode blob = findBlob(readFooter(input, puffinPath, fileLength), dataFilePath);
+      if (blob == null) {
+        return new Roaring64Bitmap();
+      }
+      if (blob.hasNonNull("compression-codec")) {
+        throw new IOException(
+            String.format(
+                "Unsupported compression %s of deletion vector",
+                blob.get("compression-codec").asText()));
+      }
+      final byte[] bytes =
+          readFully(input, blob.get("offset").asLong(), blob.get("length").asInt());
+      return deserialize(bytes);
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+          .message("Failed to read deletion vector of %s from %s", dataFilePath, puffinPath)
+          .build(logger);
+    }
+  }
+
+  private static JsonNode readFooter(FSInputStream input, Path puffinPath, long fileLength)
+      throws IOException {
+    if (fileLength < FILE_MAGIC.length * 2L + FOOTER_STRUCT_LENGTH) {
+      throw new IOException(String.format("%s is too short to be a Puffin file", puffinPath));
+    }
+    final ByteBuffer struct =
+        ByteBuffer.wrap(readFully(input, fileLength - FOOTER_STRUCT_LENGTH, FOOTER_STRUCT_LENGTH))
+            .order(ByteOrder.LITTLE_ENDIAN);
+    final int payloadSize = struct.getInt(0);
+    final int flags = struct.getInt(4);
+    if (!Arrays.equals(Arrays.copyOfRange(struct.array(), 8, 12), FILE_MAGIC)) {
+      throw new IOException(String.format("%s is not a Puffin file", puffinPath));
+    }
+    if ((flags & FOOTER_COMPRESSED_FLAG) != 0) {
+      throw new IOException("Compressed Puffin footers are not supported");
+    }
+    final long payloadStart = fileLength - FOOTER_STRUCT_LENGTH - payloadSize;
+    if (payloadSize < 0 || payloadStart < FILE_MAGIC.length * 2L) {
+      throw new IOException(String.format("Invalid Puffin footer size %d", payloadSize));
+    }
+    final byte[] payload = readFully(input, payloadStart, payloadSize);
+    return MAPPER.readTree(new String(payload, StandardCharsets.UTF_8));
+  }
+
+  private static JsonNode findBlob(JsonNode footer, String dataFilePath) {
+    for (JsonNode blob : footer.path("blobs")) {
+      if (DELETION_VECTOR_BLOB_TYPE.equals(blob.path("type").asText())
+          && dataFilePath.equals(
+              blob.path("properties").path(REFERENCED_DATA_FILE_PROPERTY).asText())) {
+        return blob;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Deserializes a {@code deletion-vector-v1} blob: its big-endian length, magic, 64-bit portable
+   * Roaring bitmap and big-endian CRC-32 of the magic and bitmap.
+   */
+  static Roaring64Bitmap deserialize(byte[] bytes) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    final int length = buffer.getInt(0);
+    if (length + 8 != bytes.length
+        || !Arrays.equals(Arrays.copyOfRange(bytes, 4, 8), VECTOR_MAGIC)) {
+      throw new IOException("Invalid deletion vector");
+    }
+    final CRC32 crc = new CRC32();
+    crc.update(bytes, 4, length);
+    if ((int) crc.getValue() != buffer.getInt(4 + length)) {
+      throw new IOException("Invalid deletion vector checksum");
+    }
+
+    final ByteBuffer vector = ByteBuffer.wrap(bytes, 8, length - VECTOR_MAGIC.length).slice();
+    vector.order(ByteOrder.LITTLE_ENDIAN);
+    final long bitmapCount = vector.getLong();
+    final Roaring64Bitmap bitmap = new Roaring64Bitmap();
+    for (long i = 0; i < bitmapCount; i++) {
+      // each bitmap holds the low 32 bits of the positions sharing the same high 32 bits
+      final long high = Integer.toUnsignedLong(vector.getInt()) << 32;
+      final RoaringBitmap positions = new RoaringBitmap();
+      positions.deserialize(vector.slice());
+      vector.position(vector.position() + positions.serializedSizeInBytes());
+      positions.forEach((int low) -> bitmap.addLong(high | Integer.toUnsignedLong(low)));
+    }
+    return bitmap;
+  }
+
+  private static byte[] readFully(FSInputStream input, long offset, int length)
+      throws IOException {
+    final byte[] bytes = new byte[length];
+    input.setPosition(offset);
+    ByteStreams.readFully(input, bytes);
+    return bytes;
+  }
+}
@@ -20,10 +20,11 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf;
 import com.dremio.sabot.exec.store.iceberg.proto.IcebergProtobuf.DefaultNameMapping;
 import java.util.List;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 /**
  * A storage format agnostic factory interface for creating {@link PositionalDeleteFileReader} and
- * {@link EqualityDeleteFileReader} instances.
+ * {@link EqualityDeleteFileReader} instances, and reading Puffin deletion vectors.
  */
 public interface RowLevelDeleteFileReaderFactory {
   PositionalDeleteFileReader createPositionalDeleteFileReader(
@@ -36,4 +37,7 @@ public interface RowLevelDeleteFileReaderFactory {
       List<Integer> equalityIds,
       List<IcebergProtobuf.IcebergSchemaField> icebergColumnIds,
       List<DefaultNameMapping> icebergDefaultNameMapping);
+
+  Roaring64Bitmap readDeletionVector(
+      OperatorContext context, Path deleteFilePath, String dataFilePath);
 }
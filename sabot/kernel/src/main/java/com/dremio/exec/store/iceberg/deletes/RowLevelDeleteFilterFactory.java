@@ -17,6 +17,8 @@ package com.dremio.exec.store.iceberg.deletes;
 
 import static com.dremio.sabot.op.scan.ScanOperator.Metric.PARQUET_BYTES_READ;
 import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_DELETE_FILE_READERS;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_POS_DELETE_BITMAP_CACHE_HITS;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_POS_DELETE_BITMAP_CACHE_MISSES;
 import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.PARQUET_DELETE_FILE_BYTES_READ;
 
 import com.dremio.common.AutoCloseables;
@@ -35,6 +37,8 @@ import java.util.Map;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.iceberg.FileContent;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 /**
  * Factory for creating {@link PositionalDeleteFilter} and {@link EqualityDeleteFilter} instances.
@@ -67,6 +71,11 @@ import org.apache.iceberg.FileContent;
  *       is closed.
  * </ul>
  *
+ * <p>When the {@link PositionalDeleteBitmapCache} is enabled, the positions deleted from a data
+ * file are read into a bitmap the first time the file is scanned. Data files whose bitmap is cached
+ * when a batch starts need no delete file reader at all. Puffin deletion vectors are always read
+ * into a bitmap, merged with the positions of the other delete files of the data file.
+ *
  * <p>
  *
  * <h3>Equality delete handling</h3>
@@ -113,6 +122,7 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
   private final Map<String, PositionalDeleteFileReader> positionalDeleteFileReaders =
       new HashMap<>();
   private final Map<String, PositionalDeleteFilter> positionalDeleteFilters = new HashMap<>();
+  private final Map<String, ImmutableRoaringBitmap> cachedPositionalDeletes = new HashMap<>();
   private final Map<String, EqualityDeleteFilter> equalityDeleteFilters = new HashMap<>();
 
   private Map<String, DataFileInfo> dataFileInfo;
@@ -189,10 +199,12 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
       // if the rowgroup count adjustment results in the data file being skipped completely,
       // decrement
       // refcounts on associated positional delete files, and then remove the data file from all
-      // maps
+      // maps - data files with cached positional deletes hold no reference on the readers
       if (info.getNumRowGroups() == 0) {
+        final boolean cached = cachedPositionalDeletes.remove(dataFilePath) != null;
         for (DeleteFileInfo deleteFile : info.getDeleteFiles()) {
-          if (deleteFile.getContent() == FileContent.POSITION_DELETES
+          if (!cached
+              && deleteFile.getContent() == FileContent.POSITION_DELETES
               && positionalDeleteFileReaders.containsKey(deleteFile.getPath())) {
             PositionalDeleteFileReader reader =
                 positionalDeleteFileReaders.get(deleteFile.getPath());
@@ -223,21 +235,49 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
     positionalDeleteFileReaders.clear();
     positionalDeleteFilters.clear();
     equalityDeleteFilters.clear();
+    cachedPositionalDeletes.clear();
 
-    // build an inverse mapping from delete file path to a sorted list of data file paths
+    // build an inverse mapping from delete file path to a sorted list of data file paths, leaving
+    // out the positional delete files of data files with cached positions and deletion vectors,
+    // which are not read with delete file readers
     dataFilesByDeleteFile.clear();
+    final boolean cacheEnabled = PositionalDeleteBitmapCache.isEnabled(context);
     dataFileInfo.keySet().stream()
         .sorted()
         .forEachOrdered(
-            dataFile ->
-                dataFileInfo
-                    .get(dataFile)
-                    .getDeleteFiles()
-                    .forEach(
-                        deleteFile ->
-                            dataFilesByDeleteFile
-                                .computeIfAbsent(deleteFile.getPath(), k -> new ArrayList<>())
-                                .add(dataFile)));
+            dataFile -> {
+              final boolean cached =
+                  cacheEnabled
+                      && lookupCachedPositionalDeletes(dataFile, dataFileInfo.get(dataFile));
+              dataFileInfo.get(dataFile).getDeleteFiles().stream()
+                  .filter(
+                      deleteFile ->
+                          deleteFile.getContent() != FileContent.POSITION_DELETES
+                              || (!cached
+                                  && !PuffinDeletionVectorReader.isDeletionVectorFile(
+                                      deleteFile.getPath())))
+                  .forEach(
+                      deleteFile ->
+                          dataFilesByDeleteFile
+                              .computeIfAbsent(deleteFile.getPath(), k -> new ArrayList<>())
+                              .add(dataFile));
+            });
+  }
+
+  private boolean lookupCachedPositionalDeletes(String dataFilePath, DataFileInfo info) {
+    List<DeleteFileInfo> deleteFiles = info.getPositionalDeleteFiles();
+    if (deleteFiles.isEmpty()) {
+      return false;
+    }
+    ImmutableRoaringBitmap bitmap =
+        PositionalDeleteBitmapCache.get(dataFilePath, getPaths(deleteFiles));
+    if (bitmap == null) {
+      baseStats.addLongStat(NUM_POS_DELETE_BITMAP_CACHE_MISSES, 1);
+      return false;
+    }
+    baseStats.addLongStat(NUM_POS_DELETE_BITMAP_CACHE_HITS, 1);
+    cachedPositionalDeletes.put(dataFilePath, bitmap);
+    return true;
   }
 
   public List<Integer> getEqualityIds(String dataFilePath) {
@@ -286,6 +326,19 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
     return positionalDeleteFilters.computeIfAbsent(
         dataFilePath,
         path -> {
+          int initialRefCount = dataFileInfo.get(path).getNumRowGroups();
+          ImmutableRoaringBitmap cached = cachedPositionalDeletes.get(path);
+          if (cached != null) {
+            return new PositionalDeleteFilter(
+                () -> new BitmapPositionalDeleteIterator(cached), initialRefCount, baseStats);
+          }
+
+          List<String> deletionVectorFiles =
+              deleteFiles.stream()
+                  .map(DeleteFileInfo::getPath)
+                  .filter(PuffinDeletionVectorReader::isDeletionVectorFile)
+                  .collect(Collectors.toList());
+
           // Fetch the iterator creators for each delete file outside of the supplier... this serves
           // two purposes:
           //  - it will start prefetching of the delete files, and
@@ -296,6 +349,7 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
           //    instances
           List<PositionalDeleteFileReader> readers =
               deleteFiles.stream()
+                  .filter(f -> !PuffinDeletionVectorReader.isDeletionVectorFile(f.getPath()))
                   .map(this::getOrCreatePositionalDeleteReader)
                   .collect(Collectors.toList());
 
@@ -306,20 +360,80 @@ public class RowLevelDeleteFilterFactory implements AutoCloseable {
           // supplier for the last data
           // file from the previous batch may be called after internal state has been reset to
           // handle the next batch.
-          Supplier<PositionalDeleteIterator> supplier =
-              () -> {
-                List<PositionalDeleteIterator> iterators =
-                    readers.stream()
-                        .map(r -> r.createIteratorForDataFile(path))
-                        .collect(Collectors.toList());
-                return MergingPositionalDeleteIterator.merge(iterators);
-              };
+          Supplier<PositionalDeleteIterator> supplier;
+          if (deletionVectorFiles.isEmpty() && !PositionalDeleteBitmapCache.isEnabled(context)) {
+            supplier =
+                () -> {
+                  List<PositionalDeleteIterator> iterators =
+                      readers.stream()
+                          .map(r -> r.createIteratorForDataFile(path))
+                          .collect(Collectors.toList());
+                  return MergingPositionalDeleteIterator.merge(iterators);
+                };
+          } else {
+            List<String> deleteFilePaths = getPaths(deleteFiles);
+            OperatorContext deleteFileContext = context;
+            RowLevelDeleteFileReaderFactory deleteFileReaderFactory = readerFactory;
+            supplier =
+                () ->
+                    readPositionalDeletes(
+                        deleteFileContext,
+                        deleteFileReaderFactory,
+                        path,
+                        deleteFilePaths,
+                        readers,
+                        deletionVectorFiles);
+          }
 
-          int initialRefCount = dataFileInfo.get(path).getNumRowGroups();
           return new PositionalDeleteFilter(supplier, initialRefCount, baseStats);
         });
   }
 
+  /**
+   * Reads all the positions deleted from the data file into a bitmap, caching it if the cache is
+   * enabled.
+   */
+  private static PositionalDeleteIterator readPositionalDeletes(
+      OperatorContext context,
+      RowLevelDeleteFileReaderFactory readerFactory,
+      String dataFilePath,
+      List<String> deleteFilePaths,
+      List<PositionalDeleteFileReader> readers,
+      List<String> deletionVectorFiles) {
+    Roaring64Bitmap positions = new Roaring64Bitmap();
+    for (String deletionVectorFile : deletionVectorFiles) {
+      positions.or(
+          readerFactory.readDeletionVector(context, Path.of(deletionVectorFile), dataFilePath));
+    }
+    if (!readers.isEmpty()) {
+      List<PositionalDeleteIterator> iterators =
+          readers.stream()
+              .map(r -> r.createIteratorForDataFile(dataFilePath))
+              .collect(Collectors.toList());
+      PositionalDeleteIterator iterator = MergingPositionalDeleteIterator.merge(iterators);
+      try {
+        while (iterator.hasNext()) {
+          positions.addLong(iterator.next());
+        }
+      } finally {
+        AutoCloseables.close(RuntimeException.class, iterator);
+      }
+    }
+
+    if (PositionalDeleteBitmapCache.isEnabled(context)) {
+      ImmutableRoaringBitmap cached =
+          PositionalDeleteBitmapCache.put(dataFilePath, deleteFilePaths, positions);
+      if (cached != null) {
+        return new BitmapPositionalDeleteIterator(cached);
+      }
+    }
+    return new BitmapPositionalDeleteIterator(positions);
+  }
+
+  private static List<String> getPaths(List<DeleteFileInfo> deleteFiles) {
+    return deleteFiles.stream().map(DeleteFileInfo::getPath).collect(Collectors.toList());
+  }
+
   private EqualityDeleteFileReader getOrCreateEqualityDeleteReader(
       DeleteFileInfo deleteFile,
       List<IcebergProtobuf.IcebergSchemaField> icebergColumnIds,
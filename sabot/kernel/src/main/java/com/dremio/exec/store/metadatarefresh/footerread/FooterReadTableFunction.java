@@ -209,10 +209,12 @@ public class FooterReadTableFunction extends AbstractTableFunction {
         if (fileSize == 0) {
           return 0; // Ignore 0 size files
         }
+        mTime = mtimeVector.get(currentRow);
         Footer footer = null;
         try {
           footer =
-              footerReader(getFS(path)).getFooter(PathUtils.withoutQueryParams(path), fileSize);
+              footerReader(getFS(path))
+                  .getFooter(PathUtils.withoutQueryParams(path), fileSize, mTime);
         } catch (Exception e) {
           String msg =
               String.format(
@@ -221,7 +223,6 @@ public class FooterReadTableFunction extends AbstractTableFunction {
           throw UserException.validationError(e).message(msg).buildSilently();
         }
         recordCount = footer.getRowCount();
-        mTime = mtimeVector.get(currentRow);
         fileSchema = footer.getSchema();
 
         fileSchema = fileSchema.removeNullFields();
@@ -19,4 +19,12 @@ import java.io.IOException;
 
 public interface FooterReader {
   Footer getFooter(String path, long fileSize) throws IOException;
+
+  /**
+   * Reads the footer of a file whose modification time is known, which lets readers serve it from
+   * a cache.
+   */
+  default Footer getFooter(String path, long fileSize, long mTime) throws IOException {
+    return getFooter(path, fileSize);
+  }
 }
@@ -96,8 +96,13 @@ public class ParquetFooterReader implements FooterReader, SupportsTypeCoercionsA
 
   @Override
   public Footer getFooter(String path, long fileSize) throws IOException {
+    return getFooter(path, fileSize, -1);
+  }
+
+  @Override
+  public Footer getFooter(String path, long fileSize, long mTime) throws IOException {
     MutableParquetMetadata parquetMetadata =
-        this.readFooter ? readParquetMetadata(path, fileSize) : null;
+        this.readFooter ? readParquetMetadata(path, fileSize, mTime) : null;
     if (readFooter) {
       return new ParquetFooter(
           createBatchSchemaIfNeeded(parquetMetadata, path, fileSize),
@@ -297,12 +302,18 @@ public class ParquetFooterReader implements FooterReader, SupportsTypeCoercionsA
   }
 
   public MutableParquetMetadata readParquetMetadata(String path, long fileSize) throws IOException {
+    return readParquetMetadata(path, fileSize, -1);
+  }
+
+  public MutableParquetMetadata readParquetMetadata(String path, long fileSize, long mTime)
+      throws IOException {
     logger.debug("Reading footer of file [{}]", path);
     try (SingleStreamProvider singleStreamProvider =
         new SingleStreamProvider(
             this.fs,
             Path.of(path),
             fileSize,
+            mTime,
             maxFooterLen(),
             false,
             null,
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.dremio.common.collections.Tuple;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.BoostedFileSystem;
+import com.dremio.io.file.Path;
+import java.io.IOException;
+import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+/**
+ * An {@link InputStreamProvider} which also serves the boosted copies of the columns of its file,
+ * looked up in the {@link BoostedFileSystem} of the file system the file is read from.
+ *
+ * <p>Boosted copies are keyed the same way {@link com.dremio.sabot.op.boost.ArrowColumnWriter}
+ * writes them: by file path and modification time, row group index and column name.
+ */
+class BoostedInputStreamProvider implements InputStreamProvider {
+  private final InputStreamProvider delegate;
+  private final BoostedFileSystem boostedFileSystem;
+  private final AsyncByteReader.FileKey fileKey;
+  private final BufferAllocator allocator;
+
+  BoostedInputStreamProvider(
+      InputStreamProvider delegate,
+      BoostedFileSystem boostedFileSystem,
+      Path path,
+      long mTime,
+      List<String> dataset,
+      BufferAllocator allocator) {
+    this.delegate = delegate;
+    this.boostedFileSystem = boostedFileSystem;
+    this.fileKey =
+        AsyncByteReader.FileKey.of(
+            path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.OTHER, dataset);
+    this.allocator = allocator;
+  }
+
+  @Override
+  public boolean isBoostingEnabled() {
+    return true;
+  }
+
+  @Override
+  public Tuple<FSInputStream, Long> getBoostedStream(int rowGroupIndex, String columnName)
+      throws IOException {
+    return boostedFileSystem.getBoostFile(fileKey, rowGroupIndex, columnName, null, allocator);
+  }
+
+  @Override
+  public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
+    return delegate.getStream(column);
+  }
+
+  @Override
+  public Path getStreamPath() {
+    return delegate.getStreamPath();
+  }
+
+  @Override
+  public void planColumnReads(List<ColumnChunkMetaData> columns) throws IOException {
+    delegate.planColumnReads(columns);
+  }
+
+  @Override
+  public MutableParquetMetadata getFooter() throws IOException {
+    return delegate.getFooter();
+  }
+
+  @Override
+  public boolean isSingleStream() {
+    return delegate.isSingleStream();
+  }
+
+  @Override
+  public AsyncByteReader getAsyncByteReader() {
+    return delegate.getAsyncByteReader();
+  }
+
+  @Override
+  public Tuple<FSInputStream, Long> getBoostedStream(ColumnChunkMetaData column)
+      throws IOException {
+    return delegate.getBoostedStream(column);
+  }
+
+  @Override
+  public OffsetIndexProvider getOffsetIndexProvider(List<ColumnChunkMetaData> columns) {
+    return delegate.getOffsetIndexProvider(columns);
+  }
+
+  @Override
+  public ColumnIndexProvider getColumnIndexProvider(List<ColumnChunkMetaData> columns) {
+    return delegate.getColumnIndexProvider(columns);
+  }
+
+  @Override
+  public void enableColumnIndices(List<ColumnChunkMetaData> selectedColumns) throws IOException {
+    delegate.enableColumnIndices(selectedColumns);
+  }
+
+  @Override
+  public boolean isRowGroupFilteredForReading() {
+    return delegate.isRowGroupFilteredForReading();
+  }
+
+  @Override
+  public void close() throws Exception {
+    delegate.close();
+  }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.io.SeekableInputStream;
+
+/**
+ * Plans the reads of the column chunks of a row group against an {@link AsyncByteReader}.
+ *
+ * <p>Chunks separated by at most {@code maxGapBytes} are merged into a single ranged read of at
+ * most {@code maxRangeBytes}, and ranges larger than {@code subRangeBytes} are split into
+ * sub-range reads issued in parallel. Each chunk is then served as a {@link BulkInputStream} over
+ * its slice of the merged buffer. Ranges that do not fit in {@code maxBufferedBytes} are not read,
+ * and {@link #getStream} returns null for their chunks so that the caller opens its own stream.
+ */
+class CoalescingRangeReader implements AutoCloseable {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(CoalescingRangeReader.class);
+
+  private final AsyncByteReader reader;
+  private final BufferAllocator allocator;
+  private final long maxGapBytes;
+  private final long maxRangeBytes;
+  private final long subRangeBytes;
+  private final long maxBufferedBytes;
+  private final OperatorStats stats;
+
+  // planned ranges not yet handed out, keyed by the starting position of their chunks
+  private final Map<Long, LoadedRange> pending = new HashMap<>();
+
+  CoalescingRangeReader(
+      AsyncByteReader reader,
+      BufferAllocator allocator,
+      long maxGapBytes,
+      long maxRangeBytes,
+      long subRangeBytes,
+      long maxBufferedBytes,
+      OperatorStats stats) {
+    Preconditions.checkArgument(subRangeBytes > 0, "sub-range size must be positive");
+    this.reader = reader;
+    this.allocator = allocator;
+    this.maxGapBytes = maxGapBytes;
+    this.maxRangeBytes = maxRangeBytes;
+    this.subRangeBytes = subRangeBytes;
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.stats = stats;
+  }
+
+  /**
+   * Issues the reads of the given column chunks. Chunks planned by a previous call and not yet
+   * handed out are released.
+   */
+  void plan(List<ColumnChunkMetaData> chunks) {
+    releasePending();
+    long buffered = 0;
+    for (Range range : plan(chunks, maxGapBytes, maxRangeBytes)) {
+      if (buffered + range.length > maxBufferedBytes) {
+        continue;
+      }
+      buffered += range.length;
+      final LoadedRange loaded = load(range);
+      for (ColumnChunkMetaData chunk : range.chunks) {
+        pending.put(chunk.getStartingPos(), loaded);
+      }
+    }
+  }
+
+  /**
+   * Returns a stream over the given column chunk if it was planned, waiting for its range to be
+   * read. Returns null if the chunk was not planned or its range could not be read.
+   */
+  BulkInputStream getStream(ColumnChunkMetaData chunk) throws IOException {
+    final LoadedRange loaded = pending.remove(chunk.getStartingPos());
+    if (loaded == null) {
+      return null;
+    }
+
+    try {
+      loaded.future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      loaded.unclaim();
+      throw new InterruptedIOException("Interrupted while reading column chunk " + chunk);
+    } catch (ExecutionException e) {
+      logger.debug("Coalesced read of {} failed, reading it on its own", chunk, e.getCause());
+      loaded.unclaim();
+      return null;
+    }
+
+    final ChunkInputStream stream =
+        new ChunkInputStream(
+            loaded.buf.retain(),
+            (int) (chunk.getStartingPos() - loaded.range.offset),
+            chunk.getStartingPos(),
+            (int) chunk.getTotalSize());
+    loaded.unclaim();
+    addStat(ScanOperator.Metric.NUM_COALESCED_COLUMN_CHUNKS, 1);
+    return stream;
+  }
+
+  @Override
+  public void close() {
+    releasePending();
+  }
+
+  private LoadedRange load(Range range) {
+    final int length = (int) range.length;
+    final ByteBuf buf = NettyArrowBuf.unwrapBuffer(allocator.buffer(length));
+    final List<CompletableFuture<Void>> reads = new ArrayList<>();
+    for (long start = 0; start < length; start += subRangeBytes) {
+      final int len = (int) Math.min(subRangeBytes, length - start);
+      reads.add(reader.readFully(range.offset + start, buf, (int) start, len));
+    }
+    addStat(ScanOperator.Metric.NUM_COALESCED_READ_REQUESTS, reads.size());
+    addStat(ScanOperator.Metric.COALESCED_READ_GAP_BYTES, range.gapBytes());
+    return new LoadedRange(
+        range, buf, CompletableFuture.allOf(reads.toArray(new CompletableFuture<?>[0])));
+  }
+
+  private void releasePending() {
+    final Set<LoadedRange> ranges = new LinkedHashSet<>(pending.values());
+    pending.clear();
+    for (LoadedRange loaded : ranges) {
+      // the buffer can only be released once no read is writing into it anymore
+      loaded.future.handle((v, e) -> null).join();
+      loaded.buf.release();
+    }
+  }
+
+  private void addStat(ScanOperator.Metric metric, long value) {
+    if (stats != null) {
+      stats.addLongStat(metric, value);
+    }
+  }
+
+  /**
+   * Merges the given column chunks into ranges, in file order. Chunks which can't be buffered
+   * (empty or larger than 2GB) are left out.
+   */
+  @VisibleForTesting
+  static List<Range> plan(List<ColumnChunkMetaData> chunks, long maxGapBytes, long maxRangeBytes) {
+    final List<ColumnChunkMetaData> sorted = new ArrayList<>(chunks);
+    sorted.sort(Comparator.comparingLong(ColumnChunkMetaData::getStartingPos));
+
+    final List<Range> ranges = new ArrayList<>();
+    Range current = null;
+    for (ColumnChunkMetaData chunk : sorted) {
+      if (chunk == null || chunk.getTotalSize() <= 0 || chunk.getTotalSize() > Integer.MAX_VALUE) {
+        continue;
+      }
+      final long start = chunk.getStartingPos();
+      final long end = start + chunk.getTotalSize();
+      if (current != null
+          && start - current.end() <= maxGapBytes
+          && Math.max(end, current.end()) - current.offset <= maxRangeBytes) {
+        current.add(chunk);
+      } else {
+        current = new Range(chunk);
+        ranges.add(current);
+      }
+    }
+    return ranges;
+  }
+
+  /** A contiguous range of the file covering one or more column chunks. */
+  @VisibleForTesting
+  static final class Range {
+    private final long offset;
+    private long length;
+    private final List<ColumnChunkMetaData> chunks = new ArrayList<>();
+
+    private Range(ColumnChunkMetaData chunk) {
+      this.offset = chunk.getStartingPos();
+      add(chunk);
+    }
+
+    private void add(ColumnChunkMetaData chunk) {
+      length = Math.max(length, chunk.getStartingPos() + chunk.getTotalSize() - offset);
+      chunks.add(chunk);
+    }
+
+    private long end() {
+      return offset + length;
+    }
+
+    private long gapBytes() {
+      long chunkBytes = 0;
+      for (ColumnChunkMetaData chunk : chunks) {
+        chunkBytes += chunk.getTotalSize();
+      }
+      return Math.max(0, length - chunkBytes);
+    }
+
+    long getOffset() {
+      return offset;
+    }
+
+    long getLength() {
+      return length;
+    }
+
+    List<ColumnChunkMetaData> getChunks() {
+      return Collections.unmodifiableList(chunks);
+    }
+  }
+
+  /** A range being read, with the number of its chunks not handed out yet. */
+  private static final class LoadedRange {
+    private final Range range;
+    private final ByteBuf buf;
+    private final CompletableFuture<Void> future;
+    private int unclaimed;
+
+    private LoadedRange(Range range, ByteBuf buf, CompletableFuture<Void> future) {
+      this.range = range;
+      this.buf = buf;
+      this.future = future;
+      this.unclaimed = range.chunks.size();
+    }
+
+    /** Drops the reference held for planned chunks once all of them have been handed out. */
+    private void unclaim() {
+      if (--unclaimed == 0) {
+        future.whenComplete((v, e) -> buf.release());
+      }
+    }
+  }
+
+  /** A stream over a column chunk held in a slice of a coalesced buffer. */
+  @VisibleForTesting
+  static final class ChunkInputStream extends SeekableInputStream implements BulkInputStream {
+    private final ByteBuf buf;
+    private final int bufOffset;
+    private final long fileOffset;
+    private final int length;
+    private long pos;
+    private boolean closed;
+
+    ChunkInputStream(ByteBuf buf, int bufOffset, long fileOffset, int length) {
+      this.buf = buf;
+      this.bufOffset = bufOffset;
+      this.fileOffset = fileOffset;
+      this.length = length;
+      this.pos = fileOffset;
+    }
+
+    @Override
+    public long getPos() {
+      return pos;
+    }
+
+    @Override
+    public void seek(long newPos) throws IOException {
+      if (newPos < fileOffset || newPos > fileOffset + length) {
+        throw new EOFException(
+            String.format(
+                "Seek to %d is outside of the column chunk [%d, %d)",
+                newPos, fileOffset, fileOffset + length));
+      }
+      pos = newPos;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      final long skipped = Math.max(0, Math.min(n, remaining()));
+      pos += skipped;
+      return skipped;
+    }
+
+    @Override
+    public void readFully(ByteBuf dst, int len) throws IOException {
+      checkRemaining(len);
+      dst.writeBytes(buf, index(), len);
+      pos += len;
+    }
+
+    @Override
+    public int read() {
+      if (remaining() <= 0) {
+        return -1;
+      }
+      final int value = buf.getByte(index()) & 0xff;
+      pos++;
+      return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      final int n = Math.min(len, remaining());
+      if (n <= 0) {
+        return -1;
+      }
+      buf.getBytes(index(), b, off, n);
+      pos += n;
+      return n;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int start, int len) throws IOException {
+      checkRemaining(len);
+      buf.getBytes(index(), b, start, len);
+      pos += len;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+      if (!dst.hasRemaining()) {
+        return 0;
+      }
+      final int n = Math.min(dst.remaining(), remaining());
+      if (n <= 0) {
+        return -1;
+      }
+      final ByteBuffer limited = dst.duplicate();
+      limited.limit(limited.position() + n);
+      buf.getBytes(index(), limited);
+      dst.position(dst.position() + n);
+      pos += n;
+      return n;
+    }
+
+    @Override
+    public void readFully(ByteBuffer dst) throws IOException {
+      final int len = dst.remaining();
+      checkRemaining(len);
+      buf.getBytes(index(), dst);
+      pos += len;
+    }
+
+    @Override
+    public SeekableInputStream asSeekableInputStream() {
+      return this;
+    }
+
+    @Override
+    public void close() {
+      if (!closed) {
+        closed = true;
+        buf.release();
+      }
+    }
+
+    private int index() {
+      return bufOffset + (int) (pos - fileOffset);
+    }
+
+    private int remaining() {
+      return (int) (fileOffset + length - pos);
+    }
+
+    private void checkRemaining(int len) throws EOFException {
+      if (len > remaining()) {
+        throw new EOFException(
+            String.format(
+                "Reading %d bytes at %d past the end of the column chunk [%d, %d)",
+                len, pos, fileOffset, fileOffset + length));
+      }
+    }
+  }
+}
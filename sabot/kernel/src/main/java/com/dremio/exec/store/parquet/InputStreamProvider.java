@@ -38,6 +38,12 @@ public interface InputStreamProvider extends AutoCloseable {
    */
   Path getStreamPath();
 
+  /**
+   * Hints the column chunks of a row group which are about to be opened through {@link
+   * #getStream}, so that the provider can plan and issue their reads together.
+   */
+  default void planColumnReads(List<ColumnChunkMetaData> columns) throws IOException {}
+
   /** Reads the footer -- or returns the cached one */
   MutableParquetMetadata getFooter() throws IOException;
 
@@ -61,6 +67,24 @@ public interface InputStreamProvider extends AutoCloseable {
     return null;
   }
 
+  /** Whether the columns read through this provider can be boosted to a local store. */
+  default boolean isBoostingEnabled() {
+    return false;
+  }
+
+  /**
+   * Obtains the boosted copy of a column of a row group, as written by the boost fragment.
+   *
+   * @param rowGroupIndex index of the row group in the file
+   * @param columnName name of the column in the table
+   * @return The boosted input stream + Size of the InputStream, null if the column is not boosted.
+   * @throws IOException
+   */
+  default Tuple<FSInputStream, Long> getBoostedStream(int rowGroupIndex, String columnName)
+      throws IOException {
+    return null;
+  }
+
   /** getOffsetIndexProvider. */
   OffsetIndexProvider getOffsetIndexProvider(List<ColumnChunkMetaData> columns);
 
@@ -93,28 +93,36 @@ public interface InputStreamProviderFactory {
 
           final long maxFooterLen =
               context.getOptions().getOption(ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR);
-          return useSingleStream
-              ? new SingleStreamProvider(
-                  fs,
-                  path,
-                  fileLength,
-                  maxFooterLen,
-                  readFullFile,
-                  footerIfKnown,
-                  context,
-                  readColumnIndices,
-                  parquetFilters,
-                  parquetFilterCreator)
-              : new StreamPerColumnProvider(
-                  fs,
-                  path,
-                  fileLength,
-                  maxFooterLen,
-                  footerIfKnown,
-                  context,
-                  readColumnIndices,
-                  parquetFilters,
-                  parquetFilterCreator);
+          final InputStreamProvider provider =
+              useSingleStream
+                  ? new SingleStreamProvider(
+                      fs,
+                      path,
+                      fileLength,
+                      mTime,
+                      maxFooterLen,
+                      readFullFile,
+                      footerIfKnown,
+                      context,
+                      readColumnIndices,
+                      parquetFilters,
+                      parquetFilterCreator)
+                  : new StreamPerColumnProvider(
+                      fs,
+                      path,
+                      fileLength,
+                      mTime,
+                      maxFooterLen,
+                      footerIfKnown,
+                      context,
+                      readColumnIndices,
+                      parquetFilters,
+                      parquetFilterCreator);
+          if (!enableBoosting || !fs.supportsBoosting()) {
+            return provider;
+          }
+          return new BoostedInputStreamProvider(
+              provider, fs.getBoostedFilesystem(), path, mTime, dataset, context.getAllocator());
         }
       };
 }
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.hadoop.metadata.IndexReference;
+
+/**
+ * Executor wide cache of parquet footers, column indexes and offset indexes.
+ *
+ * <p>Entries are keyed by file path, modification time and length, so a rewritten file is never
+ * served stale metadata, and are weighed by their serialized size in the file. The total weight is
+ * bounded by {@link ExecConstants#PARQUET_FOOTER_CACHE_MAX_SIZE_VALIDATOR}; a size of 0, a missing
+ * operator context or an unknown modification time bypass the cache.
+ *
+ * <p>{@link MutableParquetMetadata} trims the block list of the footer it wraps, so footers are
+ * handed out as shallow copies with their own block list.
+ */
+public final class ParquetFooterCache {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ParquetFooterCache.class);
+
+  private static final Cache<Key, Entry> CACHE =
+      Caffeine.newBuilder()
+          .maximumWeight(
+              ExecConstants.PARQUET_FOOTER_CACHE_MAX_SIZE_VALIDATOR.getDefault().getNumVal())
+          .weigher((Key key, Entry entry) -> entry.weight)
+          .recordStats()
+          .build();
+
+  private static final String NON_PARQUET_ERROR_MESSAGE = "not a parquet file";
+
+  private ParquetFooterCache() {
+    // Not to be instantiated
+  }
+
+  /** Supplies the stream the footer is read from on a cache miss. */
+  @FunctionalInterface
+  interface StreamSupplier {
+    BulkInputStream get() throws IOException;
+  }
+
+  /**
+   * Returns the footer of the given file, reading it from {@code stream} on a cache miss.
+   *
+   * @param mTime modification time of the file, or a negative value if unknown
+   */
+  static ParquetMetadata getFooter(
+      OperatorContext context,
+      StreamSupplier stream,
+      Path path,
+      long mTime,
+      long fileLength,
+      FileSystem fs,
+      long maxFooterLen) {
+    if (!isEnabled(context, mTime)) {
+      return readFooter(stream, path, fileLength, fs, maxFooterLen).footer;
+    }
+
+    final Key key = new Key(Kind.FOOTER, path.toString(), mTime, fileLength, 0);
+    Entry entry = CACHE.getIfPresent(key);
+    addStat(context, entry != null);
+    if (entry == null) {
+      final FooterAndSize read = readFooter(stream, path, fileLength, fs, maxFooterLen);
+      entry = new Entry(read.footer, read.size);
+      CACHE.put(key, entry);
+    }
+    final ParquetMetadata footer = (ParquetMetadata) entry.value;
+    return new ParquetMetadata(footer.getFileMetaData(), new ArrayList<>(footer.getBlocks()));
+  }
+
+  /**
+   * Returns the column indexes of the given columns. Indexes not in the cache are read with {@code
+   * reader}, which may return null if they cannot be read.
+   */
+  static ColumnIndexProvider getColumnIndexProvider(
+      OperatorContext context,
+      Path path,
+      long mTime,
+      long fileLength,
+      List<ColumnChunkMetaData> columns,
+      Function<List<ColumnChunkMetaData>, ColumnIndexProvider> reader) {
+    if (!isEnabled(context, mTime)) {
+      return reader.apply(columns);
+    }
+    final Map<Long, ColumnIndex> indexes =
+        getIndexes(
+            context,
+            Kind.COLUMN_INDEX,
+            path,
+            mTime,
+            fileLength,
+            columns,
+            ColumnChunkMetaData::getColumnIndexReference,
+            reader,
+            ColumnIndexProvider::getColumnIndex);
+    return indexes == null ? null : new ColumnIndexProvider(indexes);
+  }
+
+  /**
+   * Returns the offset indexes of the given columns. Indexes not in the cache are read with {@code
+   * reader}, which may return null if they cannot be read.
+   */
+  static OffsetIndexProvider getOffsetIndexProvider(
+      OperatorContext context,
+      Path path,
+      long mTime,
+      long fileLength,
+      List<ColumnChunkMetaData> columns,
+      Function<List<ColumnChunkMetaData>, OffsetIndexProvider> reader) {
+    if (!isEnabled(context, mTime)) {
+      return reader.apply(columns);
+    }
+    final Map<Long, OffsetIndex> indexes =
+        getIndexes(
+            context,
+            Kind.OFFSET_INDEX,
+            path,
+            mTime,
+            fileLength,
+            columns,
+            ColumnChunkMetaData::getOffsetIndexReference,
+            reader,
+            OffsetIndexProvider::getOffsetIndex);
+    return indexes == null ? null : new OffsetIndexProvider(indexes);
+  }
+
+  /** Returns the cache counters accumulated on this executor. */
+  public static ParquetReaderStats getStats() {
+    final CacheStats stats = CACHE.stats();
+    final ParquetReaderStats readerStats = new ParquetReaderStats();
+    readerStats.footerCacheHits = stats.hitCount();
+    readerStats.footerCacheMisses = stats.missCount();
+    readerStats.footerCacheEvictions = stats.evictionCount();
+    readerStats.footerCacheEntries = CACHE.estimatedSize();
+    CACHE
+        .policy()
+        .eviction()
+        .ifPresent(
+            eviction -> {
+              readerStats.footerCacheWeight = eviction.weightedSize().orElse(0L);
+              readerStats.footerCacheMaxWeight = eviction.getMaximum();
+            });
+    return readerStats;
+  }
+
+  @VisibleForTesting
+  static void invalidateAll() {
+    CACHE.invalidateAll();
+    CACHE.cleanUp();
+  }
+
+  private static boolean isEnabled(OperatorContext context, long mTime) {
+    if (context == null || context.getOptions() == null || mTime < 0) {
+      return false;
+    }
+    final long maxSize =
+        context.getOptions().getOption(ExecConstants.PARQUET_FOOTER_CACHE_MAX_SIZE_VALIDATOR);
+    CACHE
+        .policy()
+        .eviction()
+        .ifPresent(
+            eviction -> {
+              if (eviction.getMaximum() != maxSize) {
+                eviction.setMaximum(maxSize);
+              }
+            });
+    return maxSize > 0;
+  }
+
+  private static void addStat(OperatorContext context, boolean hit) {
+    if (context.getStats() != null) {
+      context
+          .getStats()
+          .addLongStat(
+              hit
+                  ? ScanOperator.Metric.NUM_FOOTER_CACHE_HITS
+                  : ScanOperator.Metric.NUM_FOOTER_CACHE_MISSES,
+              1);
+    }
+  }
+
+  private static <P, T> Map<Long, T> getIndexes(
+      OperatorContext context,
+      Kind kind,
+      Path path,
+      long mTime,
+      long fileLength,
+      List<ColumnChunkMetaData> columns,
+      Function<ColumnChunkMetaData, IndexReference> referenceGetter,
+      Function<List<ColumnChunkMetaData>, P> reader,
+      BiFunction<P, ColumnChunkMetaData, T> indexGetter) {
+    final String file = path.toString();
+    final Map<Long, T> indexes = new HashMap<>();
+    final List<ColumnChunkMetaData> missing = new ArrayList<>();
+    for (ColumnChunkMetaData column : columns) {
+      final IndexReference reference = referenceGetter.apply(column);
+      if (reference == null) {
+        continue;
+      }
+      final Entry entry =
+          CACHE.getIfPresent(new Key(kind, file, mTime, fileLength, reference.getOffset()));
+      if (entry != null) {
+        @SuppressWarnings("unchecked")
+        final T index = (T) entry.value;
+        indexes.put(reference.getOffset(), index);
+      } else {
+        missing.add(column);
+      }
+    }
+    addStat(context, missing.isEmpty());
+    if (missing.isEmpty()) {
+      return indexes;
+    }
+
+    final P provider = reader.apply(missing);
+    if (provider == null) {
+      return indexes.isEmpty() ? null : indexes;
+    }
+    for (ColumnChunkMetaData column : missing) {
+      final IndexReference reference = referenceGetter.apply(column);
+      final T index = indexGetter.apply(provider, column);
+      if (index != null) {
+        indexes.put(reference.getOffset(), index);
+        CACHE.put(
+            new Key(kind, file, mTime, fileLength, reference.getOffset()),
+            new Entry(index, reference.getLength()));
+      }
+    }
+    return indexes;
+  }
+
+  private static FooterAndSize readFooter(
+      StreamSupplier stream, Path path, long fileLength, FileSystem fs, long maxFooterLen) {
+    try {
+      final byte[] footerBytes =
+          SingletonParquetFooterCache.readFooterBytes(
+              stream.get(), path.toString(), fileLength, fs, maxFooterLen);
+      return new FooterAndSize(
+          SingletonParquetFooterCache.parseFooter(footerBytes), footerBytes.length);
+    } catch (IOException ioe) {
+      if (ioe.getMessage() != null
+          && ioe.getMessage().toLowerCase().contains(NON_PARQUET_ERROR_MESSAGE)) {
+        throw UserException.dataReadError(ioe)
+            .message(
+                "The file %s is not in Parquet format. Please check the size and format of the files you are promoting and select the format from the dropdown box accordingly.",
+                path)
+            .build(logger);
+      }
+      throw new RuntimeException("Failed to read parquet footer for file " + path, ioe);
+    }
+  }
+
+  private enum Kind {
+    FOOTER,
+    COLUMN_INDEX,
+    OFFSET_INDEX
+  }
+
+  private static final class FooterAndSize {
+    private final ParquetMetadata footer;
+    private final int size;
+
+    private FooterAndSize(ParquetMetadata footer, int size) {
+      this.footer = footer;
+      this.size = size;
+    }
+  }
+
+  private static final class Entry {
+    private final Object value;
+    private final int weight;
+
+    private Entry(Object value, int weight) {
+      this.value = value;
+      this.weight = weight;
+    }
+  }
+
+  private static final class Key {
+    private final Kind kind;
+    private final String path;
+    private final long mTime;
+    private final long length;
+    private final long offset;
+
+    private Key(Kind kind, String path, long mTime, long length, long offset) {
+      this.kind = kind;
+      this.path = path;
+      this.mTime = mTime;
+      this.length = length;
+      this.offset = offset;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return mTime == key.mTime
+          && length == key.length
+          && offset == key.offset
+          && kind == key.kind
+          && path.equals(key.path);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(kind, path, mTime, length, offset);
+    }
+  }
+}
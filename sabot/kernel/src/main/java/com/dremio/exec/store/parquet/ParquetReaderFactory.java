@@ -24,6 +24,7 @@ import java.util.List;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
@@ -35,6 +36,14 @@ public interface ParquetReaderFactory {
 
   boolean isSupported(ColumnChunkMetaData chunk, OperatorContext context);
 
+  /**
+   * Variant of {@link #isSupported(ColumnChunkMetaData, OperatorContext)} that also knows the
+   * field of the vector the column is read into, or null if the column is not projected.
+   */
+  default boolean isSupported(ColumnChunkMetaData chunk, Field field, OperatorContext context) {
+    return isSupported(chunk, context);
+  }
+
   RecordReader newReader(
       OperatorContext context,
       ParquetScanProjectedColumns projectedColumns,
@@ -38,5 +38,13 @@ public class ParquetReaderStats {
   public long timeDictPagesDecompressed;
   public long timePagesDecompressed;
 
+  // executor wide counters of ParquetFooterCache
+  public long footerCacheHits;
+  public long footerCacheMisses;
+  public long footerCacheEvictions;
+  public long footerCacheEntries;
+  public long footerCacheWeight;
+  public long footerCacheMaxWeight;
+
   public ParquetReaderStats() {}
 }
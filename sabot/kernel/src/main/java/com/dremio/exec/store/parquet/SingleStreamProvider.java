@@ -38,6 +38,7 @@ public class SingleStreamProvider implements InputStreamProvider {
   private final Path path;
   private final BufferAllocator allocator;
   private final long fileLength;
+  private final long mTime;
   private final long maxFooterLen;
   private final boolean readFullFile;
   private BulkInputStream stream;
@@ -60,9 +61,40 @@ public class SingleStreamProvider implements InputStreamProvider {
       boolean readColumnOffsetIndices,
       ParquetFilters parquetFilters,
       ParquetFilterCreator parquetFilterCreator) {
+    this(
+        fs,
+        path,
+        fileLength,
+        -1,
+        maxFooterLen,
+        readFullFile,
+        footer,
+        context,
+        readColumnOffsetIndices,
+        parquetFilters,
+        parquetFilterCreator);
+  }
+
+  /**
+   * @param mTime modification time of the file, used to look up its footer and page indexes in
+   *     {@link ParquetFooterCache}. Negative if unknown, which bypasses the cache.
+   */
+  public SingleStreamProvider(
+      FileSystem fs,
+      Path path,
+      long fileLength,
+      long mTime,
+      long maxFooterLen,
+      boolean readFullFile,
+      MutableParquetMetadata footer,
+      OperatorContext context,
+      boolean readColumnOffsetIndices,
+      ParquetFilters parquetFilters,
+      ParquetFilterCreator parquetFilterCreator) {
     this.fs = fs;
     this.path = path;
     this.fileLength = fileLength;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.readFullFile = readFullFile;
     this.footer = footer;
@@ -124,18 +156,24 @@ public class SingleStreamProvider implements InputStreamProvider {
       if ((columns.size() == 0) || (columns.get(0).getOffsetIndexReference() == null)) {
         return null;
       }
-      try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
-        OffsetIndexProvider offsetIndexProvider;
-        offsetIndexProvider = new OffsetIndexProvider(inputStream, allocator, columns);
-        if ((context != null) && (context.getStats() != null)) {
-          context
-              .getStats()
-              .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.OFFSET_INDEX_READ, 1);
-        }
-        return offsetIndexProvider;
-      } catch (IOException ex) {
-        // Ignore error and return null;
+      return ParquetFooterCache.getOffsetIndexProvider(
+          context, path, mTime, fileLength, columns, this::readOffsetIndexProvider);
+    }
+    return null;
+  }
+
+  private OffsetIndexProvider readOffsetIndexProvider(List<ColumnChunkMetaData> columns) {
+    try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
+      OffsetIndexProvider offsetIndexProvider;
+      offsetIndexProvider = new OffsetIndexProvider(inputStream, allocator, columns);
+      if ((context != null) && (context.getStats() != null)) {
+        context
+            .getStats()
+            .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.OFFSET_INDEX_READ, 1);
       }
+      return offsetIndexProvider;
+    } catch (IOException ex) {
+      // Ignore error and return null;
     }
     return null;
   }
@@ -146,18 +184,24 @@ public class SingleStreamProvider implements InputStreamProvider {
       if ((columns.size() == 0) || (columns.get(0).getColumnIndexReference() == null)) {
         return null;
       }
-      try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
-        ColumnIndexProvider columnIndexProvider;
-        columnIndexProvider = new ColumnIndexProvider(inputStream, allocator, columns);
-        if ((context != null) && (context.getStats() != null)) {
-          context
-              .getStats()
-              .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.COLUMN_INDEX_READ, 1);
-        }
-        return columnIndexProvider;
-      } catch (IOException ex) {
-        // Ignore error and return null;
+      return ParquetFooterCache.getColumnIndexProvider(
+          context, path, mTime, fileLength, columns, this::readColumnIndexProvider);
+    }
+    return null;
+  }
+
+  private ColumnIndexProvider readColumnIndexProvider(List<ColumnChunkMetaData> columns) {
+    try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
+      ColumnIndexProvider columnIndexProvider;
+      columnIndexProvider = new ColumnIndexProvider(inputStream, allocator, columns);
+      if ((context != null) && (context.getStats() != null)) {
+        context
+            .getStats()
+            .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.COLUMN_INDEX_READ, 1);
       }
+      return columnIndexProvider;
+    } catch (IOException ex) {
+      // Ignore error and return null;
     }
     return null;
   }
@@ -165,10 +209,10 @@ public class SingleStreamProvider implements InputStreamProvider {
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if (footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
       footer =
           new MutableParquetMetadata(
-              footerCache.getFooter(getStream(null), path.toString(), fileLength, fs, maxFooterLen),
+              ParquetFooterCache.getFooter(
+                  context, () -> getStream(null), path, mTime, fileLength, fs, maxFooterLen),
               path.getName());
     }
     return footer;
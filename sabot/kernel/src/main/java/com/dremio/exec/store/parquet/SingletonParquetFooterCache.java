@@ -15,7 +15,6 @@
  */
 package com.dremio.exec.store.parquet;
 
-import com.dremio.common.exceptions.UserException;
 import com.dremio.io.file.FileAttributes;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
@@ -32,7 +31,10 @@ import org.apache.parquet.format.converter.ParquetMetadataConverter.MetadataFilt
 import org.apache.parquet.hadoop.ParquetFileWriter;
 import org.apache.parquet.hadoop.metadata.ParquetMetadata;
 
-/** Single object cache that holds the parquet footer for last file. */
+/**
+ * Reads parquet footers. Footers of data files read during scans and metadata refresh are cached
+ * by {@link ParquetFooterCache}.
+ */
 public class SingletonParquetFooterCache {
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(SingletonParquetFooterCache.class);
@@ -44,31 +46,6 @@ public class SingletonParquetFooterCache {
   private static final int MAGIC_LENGTH = ParquetFileWriter.MAGIC.length;
   private static final int MIN_FILE_SIZE = ParquetFileWriter.MAGIC.length + FOOTER_METADATA_SIZE;
 
-  private ParquetMetadata footer;
-  private String lastFile;
-
-  public ParquetMetadata getFooter(
-      BulkInputStream is, String path, long fileLength, FileSystem fs, long maxFooterLen) {
-    if (footer == null || !lastFile.equals(path)) {
-      String non_Parquet_Error_Message = "not a parquet file";
-      try {
-        footer = readFooter(is, path, fileLength, fs, maxFooterLen);
-      } catch (IOException ioe) {
-        if (ioe.getMessage() != null
-            && ioe.getMessage().toLowerCase().contains(non_Parquet_Error_Message)) {
-          throw UserException.dataReadError(ioe)
-              .message(
-                  "The file %s is not in Parquet format. Please check the size and format of the files you are promoting and select the format from the dropdown box accordingly.",
-                  path)
-              .build(logger);
-        }
-        throw new RuntimeException("Failed to read parquet footer for file " + path, ioe);
-      }
-      lastFile = path;
-    }
-    return footer;
-  }
-
   private static void checkMagicBytes(String path, byte[] data, int offset) throws IOException {
     for (int i = 0, v = offset; i < MAGIC_LENGTH; i++, v++) {
       if (ParquetFileWriter.MAGIC[i] != data[v]) {
@@ -113,12 +90,6 @@ public class SingletonParquetFooterCache {
     }
   }
 
-  private ParquetMetadata readFooter(
-      BulkInputStream file, String path, long fileLength, FileSystem fs, long maxFooterLen)
-      throws IOException {
-    return readFooter(file, path, fileLength, ParquetMetadataConverter.NO_FILTER, fs, maxFooterLen);
-  }
-
   private static ParquetMetadata readFooter(
       BulkInputStream file,
       String path,
@@ -127,6 +98,21 @@ public class SingletonParquetFooterCache {
       FileSystem fs,
       long maxFooterLen)
       throws IOException {
+    return ParquetFormatPlugin.parquetMetadataConverter.readParquetMetadata(
+        new ByteArrayInputStream(readFooterBytes(file, path, fileLength, fs, maxFooterLen)),
+        filter);
+  }
+
+  /** Parses a footer returned by {@link #readFooterBytes}. */
+  static ParquetMetadata parseFooter(byte[] footerBytes) throws IOException {
+    return ParquetFormatPlugin.parquetMetadataConverter.readParquetMetadata(
+        new ByteArrayInputStream(footerBytes), ParquetMetadataConverter.NO_FILTER);
+  }
+
+  /** Reads the serialized footer at the end of the file, without its length and magic bytes. */
+  static byte[] readFooterBytes(
+      BulkInputStream file, String path, long fileLength, FileSystem fs, long maxFooterLen)
+      throws IOException {
     Preconditions.checkArgument(
         fileLength >= MIN_FILE_SIZE || fileLength == -1,
         "%s is not a Parquet file (too small)",
@@ -171,7 +157,6 @@ public class SingletonParquetFooterCache {
     }
     logger.debug(
         "Read footer of {} of length {} in {} ms ", path, size, w.elapsed(TimeUnit.MILLISECONDS));
-    return ParquetFormatPlugin.parquetMetadataConverter.readParquetMetadata(
-        new ByteArrayInputStream(footerBytes), filter);
+    return footerBytes;
   }
 }
@@ -16,22 +16,35 @@
 package com.dremio.exec.store.parquet;
 
 import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
+import com.dremio.io.AsyncByteReader;
 import com.dremio.io.FSInputStream;
+import com.dremio.io.HedgedAsyncByteReader;
 import com.dremio.io.file.FileSystem;
 import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.scan.ScanOperator;
 import com.google.common.base.Preconditions;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
 
-/** An InputStreamProvider that opens a separate stream for each column. */
+/**
+ * An InputStreamProvider that opens a separate stream for each column.
+ *
+ * <p>On file systems supporting async reads, the column chunks hinted through {@link
+ * #planColumnReads} are read with coalesced ranged reads by a {@link CoalescingRangeReader}
+ * instead, and served from its buffers.
+ */
 public class StreamPerColumnProvider implements InputStreamProvider {
   private final FileSystem fs;
   private final Path path;
   private final long length;
+  private final long mTime;
   private MutableParquetMetadata footer;
   private final long maxFooterLen;
   private boolean readColumnOffsetIndexes;
@@ -42,6 +55,8 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   private ParquetFilterCreator parquetFilterCreator;
 
   private final List<BulkInputStream> streams = new ArrayList<>();
+  private AsyncByteReader asyncReader;
+  private CoalescingRangeReader rangeReader;
 
   public StreamPerColumnProvider(
       FileSystem fs,
@@ -53,9 +68,38 @@ public class StreamPerColumnProvider implements InputStreamProvider {
       boolean readColumnOffsetIndexes,
       ParquetFilters parquetFilters,
       ParquetFilterCreator parquetFilterCreator) {
+    this(
+        fs,
+        path,
+        length,
+        -1,
+        maxFooterLen,
+        footer,
+        context,
+        readColumnOffsetIndexes,
+        parquetFilters,
+        parquetFilterCreator);
+  }
+
+  /**
+   * @param mTime modification time of the file, used to look up its footer and page indexes in
+   *     {@link ParquetFooterCache}. Negative if unknown, which bypasses the cache.
+   */
+  public StreamPerColumnProvider(
+      FileSystem fs,
+      Path path,
+      long length,
+      long mTime,
+      long maxFooterLen,
+      MutableParquetMetadata footer,
+      OperatorContext context,
+      boolean readColumnOffsetIndexes,
+      ParquetFilters parquetFilters,
+      ParquetFilterCreator parquetFilterCreator) {
     this.fs = fs;
     this.path = path;
     this.length = length;
+    this.mTime = mTime;
     this.maxFooterLen = maxFooterLen;
     this.footer = footer;
     this.readColumnOffsetIndexes = readColumnOffsetIndexes;
@@ -76,12 +120,46 @@ public class StreamPerColumnProvider implements InputStreamProvider {
 
   @Override
   public BulkInputStream getStream(ColumnChunkMetaData column) throws IOException {
-    FSInputStream is = fs.open(path);
-    BulkInputStream stream = BulkInputStream.wrap(Streams.wrap(is));
+    BulkInputStream stream = null;
+    if (column != null && rangeReader != null) {
+      stream = rangeReader.getStream(column);
+    }
+    if (stream == null) {
+      FSInputStream is = fs.open(path);
+      stream = BulkInputStream.wrap(Streams.wrap(is));
+    }
     streams.add(stream);
     return stream;
   }
 
+  @Override
+  public void planColumnReads(List<ColumnChunkMetaData> columns) throws IOException {
+    if (context == null
+        || allocator == null
+        || !context.getOptions().getOption(ExecConstants.PARQUET_COALESCED_READ_ENABLED)
+        || !fs.supportsAsync()) {
+      return;
+    }
+    if (rangeReader == null) {
+      final OptionManager options = context.getOptions();
+      asyncReader =
+          fs.getAsyncByteReader(
+              AsyncByteReader.FileKey.of(
+                  path, Long.toString(mTime), AsyncByteReader.FileKey.FileType.PARQUET),
+              Collections.emptyMap());
+      rangeReader =
+          new CoalescingRangeReader(
+              asyncReader,
+              allocator,
+              options.getOption(ExecConstants.PARQUET_COALESCED_READ_MAX_GAP),
+              options.getOption(ExecConstants.PARQUET_COALESCED_READ_MAX_RANGE),
+              options.getOption(ExecConstants.PARQUET_COALESCED_READ_SUB_RANGE),
+              options.getOption(ExecConstants.PARQUET_COALESCED_READ_MAX_BUFFERED),
+              context.getStats());
+    }
+    rangeReader.plan(columns);
+  }
+
   @Override
   public boolean isSingleStream() {
     return false;
@@ -98,20 +176,26 @@ public class StreamPerColumnProvider implements InputStreamProvider {
       if ((columns.size() == 0) || (columns.get(0).getOffsetIndexReference() == null)) {
         return null;
       }
-      OffsetIndexProvider offsetIndexProvider;
-      Preconditions.checkState(
-          allocator != null, "Allocator null when trying to getOffsetIndexProvider");
-      try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
-        offsetIndexProvider = new OffsetIndexProvider(inputStream, allocator, columns);
-        if ((context != null) && (context.getStats() != null)) {
-          context
-              .getStats()
-              .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.OFFSET_INDEX_READ, 1);
-        }
-        return offsetIndexProvider;
-      } catch (IOException ex) {
-        // Ignore IOException.
+      return ParquetFooterCache.getOffsetIndexProvider(
+          context, path, mTime, length, columns, this::readOffsetIndexProvider);
+    }
+    return null;
+  }
+
+  private OffsetIndexProvider readOffsetIndexProvider(List<ColumnChunkMetaData> columns) {
+    OffsetIndexProvider offsetIndexProvider;
+    Preconditions.checkState(
+        allocator != null, "Allocator null when trying to getOffsetIndexProvider");
+    try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
+      offsetIndexProvider = new OffsetIndexProvider(inputStream, allocator, columns);
+      if ((context != null) && (context.getStats() != null)) {
+        context
+            .getStats()
+            .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.OFFSET_INDEX_READ, 1);
       }
+      return offsetIndexProvider;
+    } catch (IOException ex) {
+      // Ignore IOException.
     }
     return null;
   }
@@ -122,20 +206,26 @@ public class StreamPerColumnProvider implements InputStreamProvider {
       if ((columns.size() == 0) || (columns.get(0).getColumnIndexReference() == null)) {
         return null;
       }
-      Preconditions.checkState(
-          allocator != null, "Allocator null when trying to getColumnIndexProvider");
-      try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
-        ColumnIndexProvider columnIndexProvider;
-        columnIndexProvider = new ColumnIndexProvider(inputStream, allocator, columns);
-        if ((context != null) && (context.getStats() != null)) {
-          context
-              .getStats()
-              .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.COLUMN_INDEX_READ, 1);
-        }
-        return columnIndexProvider;
-      } catch (IOException ex) {
-        // Ignore IOException.
+      return ParquetFooterCache.getColumnIndexProvider(
+          context, path, mTime, length, columns, this::readColumnIndexProvider);
+    }
+    return null;
+  }
+
+  private ColumnIndexProvider readColumnIndexProvider(List<ColumnChunkMetaData> columns) {
+    Preconditions.checkState(
+        allocator != null, "Allocator null when trying to getColumnIndexProvider");
+    try (BulkInputStream inputStream = BulkInputStream.wrap(Streams.wrap(fs.open(path)))) {
+      ColumnIndexProvider columnIndexProvider;
+      columnIndexProvider = new ColumnIndexProvider(inputStream, allocator, columns);
+      if ((context != null) && (context.getStats() != null)) {
+        context
+            .getStats()
+            .addLongStat(com.dremio.sabot.op.scan.ScanOperator.Metric.COLUMN_INDEX_READ, 1);
       }
+      return columnIndexProvider;
+    } catch (IOException ex) {
+      // Ignore IOException.
     }
     return null;
   }
@@ -143,19 +233,45 @@ public class StreamPerColumnProvider implements InputStreamProvider {
   @Override
   public MutableParquetMetadata getFooter() throws IOException {
     if (footer == null) {
-      SingletonParquetFooterCache footerCache = new SingletonParquetFooterCache();
       footer =
           new MutableParquetMetadata(
-              footerCache.getFooter(getStream(null), path.toString(), length, fs, maxFooterLen),
+              ParquetFooterCache.getFooter(
+                  context, () -> getStream(null), path, mTime, length, fs, maxFooterLen),
               path.getName());
     }
     return footer;
   }
 
+  /** Adds the hedging counts of the async reader to the scan operator metrics. */
+  private void addReaderStats() {
+    for (AsyncByteReader.ReaderStat stat : asyncReader.getStats()) {
+      switch (stat.getName()) {
+        case HedgedAsyncByteReader.HEDGES_STAT:
+          context
+              .getStats()
+              .addLongStat(ScanOperator.Metric.NUM_HEDGED_READS, (long) stat.getValue());
+          break;
+        case HedgedAsyncByteReader.HEDGE_WINS_STAT:
+          context
+              .getStats()
+              .addLongStat(ScanOperator.Metric.NUM_HEDGE_WINS, (long) stat.getValue());
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
   @Override
   public void close() throws IOException {
+    if (asyncReader != null && context != null && context.getStats() != null) {
+      addReaderStats();
+    }
     try {
-      AutoCloseables.close(streams);
+      List<AutoCloseable> closeables = new ArrayList<>(streams);
+      closeables.add(rangeReader);
+      closeables.add(asyncReader);
+      AutoCloseables.close(closeables);
     } catch (IOException | RuntimeException e) {
       throw e;
     } catch (Exception e) {
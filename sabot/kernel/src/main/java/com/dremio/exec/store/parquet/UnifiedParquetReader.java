@@ -77,6 +77,7 @@ import org.apache.arrow.vector.complex.ListVector;
 import org.apache.arrow.vector.complex.MapVector;
 import org.apache.arrow.vector.complex.StructVector;
 import org.apache.arrow.vector.complex.UnionVector;
+import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.parquet.compression.CompressionCodecFactory;
 import org.apache.parquet.hadoop.CodecFactory;
@@ -622,7 +623,7 @@ public class UnifiedParquetReader implements RecordReader {
 
     for (ColumnChunkMetaData c : block.getColumns()) {
       String field = c.getPath().iterator().next();
-      if (!readerFactory.isSupported(c, context)) {
+      if (!readerFactory.isSupported(c, getOutputField(field), context)) {
         // we'll skip columns we can't read.
         fieldsWithPartialOrNoEncodingsSupportedByVectorizedReader.add(field);
         fieldsWithEncodingsSupportedByVectorizedReader.remove(field);
@@ -678,6 +679,12 @@ public class UnifiedParquetReader implements RecordReader {
     }
   }
 
+  private Field getOutputField(String parquetName) {
+    final String name = columnResolver.getBatchSchemaColumnName(parquetName);
+    final ValueVector vector = name == null ? null : outputMutator.getVector(name);
+    return vector == null ? null : vector.getField();
+  }
+
   private boolean isParquetFieldVectorizable(
       Map<String, ColumnChunkMetaData> fields, Type parquetField, boolean isArrowSchemaPresent) {
     return ((parquetField.isPrimitive()
@@ -859,9 +866,13 @@ public class UnifiedParquetReader implements RecordReader {
         boolean isVectorizableFilterOn =
             unifiedReader.isConditionSet(unifiedReader.nonVectorizableReaderColumns);
         final SimpleIntVector deltas;
+        // runtime filters arriving after setup may drop rows in the vectorized reader, which the
+        // row-wise reader of the same row group has to skip as well
         if (isVectorizableFilterOn
             || unifiedReader.isVectorizableNonPartitionColFilterPresent()
-            || unifiedReader.filters.hasPositionalDeleteFilter()) {
+            || unifiedReader.filters.hasPositionalDeleteFilter()
+            || (!unifiedReader.vectorizableReaderColumns.isEmpty()
+                && !unifiedReader.nonVectorizableReaderColumns.isEmpty())) {
           deltas = new SimpleIntVector("deltas", unifiedReader.context.getAllocator());
         } else {
           deltas = null;
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import java.nio.ByteBuffer;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.io.ParquetDecodingException;
+
+/** Decoder for BOOLEAN columns, encoded either PLAIN (bit-packed, LSB first) or RLE. */
+final class BooleanColumnDecoder extends ColumnDecoder {
+
+  private final int[] scratch;
+
+  private ByteBuffer values;
+  private long bitOffset;
+  private RleBitPackedDecoder rleValues;
+
+  BooleanColumnDecoder(
+      ColumnDescriptor descriptor, BitVector vector, PageReader pageReader, int batchSize) {
+    super(descriptor, vector, pageReader, batchSize);
+    this.scratch = new int[batchSize];
+  }
+
+  @Override
+  protected void initPlain(Encoding encoding, ByteBuffer values) {
+    switch (encoding) {
+      case PLAIN:
+        this.values = values;
+        this.bitOffset = (long) values.position() * 8;
+        this.rleValues = null;
+        break;
+      case RLE:
+        // RLE booleans are prefixed with the length of the encoded data
+        final int start = values.position();
+        final int length = values.getInt(start);
+        this.rleValues = new RleBitPackedDecoder(values, start + 4, start + 4 + length, 1);
+        this.values = null;
+        break;
+      default:
+        throw new ParquetDecodingException(
+            "Unsupported encoding " + encoding + " for column " + descriptor);
+    }
+  }
+
+  @Override
+  protected void loadDictionary(ByteBuffer dictionary, int size) {
+    throw new ParquetDecodingException("Dictionary encoding is not valid for boolean columns");
+  }
+
+  @Override
+  protected void readPlain(int outIndex, int count) {
+    final ArrowBuf data = vector.getDataBuffer();
+    if (rleValues != null) {
+      int done = 0;
+      while (done < count) {
+        final int n = Math.min(count - done, scratch.length);
+        rleValues.readInts(scratch, 0, n);
+        for (int i = 0; i < n; i++) {
+          BitVectorHelper.setValidityBit(data, outIndex + done + i, scratch[i]);
+        }
+        done += n;
+      }
+      return;
+    }
+    for (int i = 0; i < count; i++, bitOffset++) {
+      final int bit = (values.get((int) (bitOffset >>> 3)) >>> (bitOffset & 7)) & 1;
+      BitVectorHelper.setValidityBit(data, outIndex + i, bit);
+    }
+  }
+
+  @Override
+  protected void skipPlain(int count) {
+    if (rleValues != null) {
+      rleValues.skip(count);
+    } else {
+      bitOffset += count;
+    }
+  }
+
+  @Override
+  protected void gather(int outIndex, int[] ids, int count) {
+    throw new ParquetDecodingException("Dictionary encoding is not valid for boolean columns");
+  }
+}
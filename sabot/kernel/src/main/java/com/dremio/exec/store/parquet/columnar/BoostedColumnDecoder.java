@@ -0,0 +1,283 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.dfs.boost.MappedFSInputStream;
+import com.dremio.io.FSInputStream;
+import io.netty.util.internal.PlatformDependent;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.ForeignAllocation;
+import org.apache.arrow.memory.util.MemoryUtil;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+
+/**
+ * Serves a column from its boosted copy instead of decoding its pages.
+ *
+ * <p>The copy is an Arrow file written by {@link com.dremio.sabot.op.boost.ArrowColumnWriter} with
+ * every row of the row group, in order, already in the type of the table column. Batches of the
+ * file are loaded one at a time; when the copy is memory mapped their buffers point straight into
+ * the mapping, so the values are never read into the heap nor copied into direct memory before
+ * being written to the output vector.
+ */
+final class BoostedColumnDecoder extends ColumnDecoder implements AutoCloseable {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(BoostedColumnDecoder.class);
+
+  private static final byte[] MAGIC = "DREMARROWFLATBUF".getBytes(StandardCharsets.US_ASCII);
+  private static final int LENGTHS_SIZE = 4 * Integer.BYTES;
+
+  private final FSInputStream input;
+  private final ByteBuffer mapped;
+  private final BufferAllocator allocator;
+  private final long[] batchOffsets;
+  // first row of every batch, followed by the number of rows of the file
+  private final long[] batchStartRows;
+  private final VectorContainer batch;
+  private final FieldVector boostedVector;
+
+  private int loadedBatch = -1;
+  private long bytesLoaded;
+
+  private BoostedColumnDecoder(
+      ColumnDescriptor descriptor,
+      FieldVector vector,
+      FSInputStream input,
+      BufferAllocator allocator,
+      Field field,
+      long[] batchOffsets,
+      long[] batchStartRows) {
+    super(descriptor, vector, null, 0);
+    this.input = input;
+    this.mapped =
+        input instanceof MappedFSInputStream ? ((MappedFSInputStream) input).getBuffer() : null;
+    this.allocator = allocator;
+    this.batchOffsets = batchOffsets;
+    this.batchStartRows = batchStartRows;
+    this.batch = new VectorContainer(allocator);
+    this.boostedVector = batch.addOrGet(field);
+    batch.buildSchema();
+  }
+
+  /**
+   * Opens the boosted copy of a column, or returns null and closes the stream if the copy does not
+   * hold {@code rowCount} values of the type of {@code vector}.
+   */
+  static BoostedColumnDecoder open(
+      ColumnDescriptor descriptor,
+      FieldVector vector,
+      FSInputStream input,
+      long size,
+      long rowCount,
+      BufferAllocator allocator)
+      throws IOException {
+    try {
+      final long footerOffsetPosition = size - MAGIC.length - Long.BYTES;
+      if (footerOffsetPosition < MAGIC.length) {
+        logger.debug("Boosted copy of {} is too small to be an Arrow file", descriptor);
+        input.close();
+        return null;
+      }
+      final byte[] tail = readFully(input, footerOffsetPosition, Long.BYTES + MAGIC.length);
+      if (!Arrays.equals(Arrays.copyOfRange(tail, Long.BYTES, tail.length), MAGIC)) {
+        logger.debug("Boosted copy of {} is not an Arrow file", descriptor);
+        input.close();
+        return null;
+      }
+      final long footerOffset = PlatformDependent.getLong(tail, 0);
+      final byte[] footer =
+          readFully(input, footerOffset, (int) (footerOffsetPosition - footerOffset));
+
+      int index = 0;
+      final int schemaLength = PlatformDependent.getInt(footer, index);
+      index += Integer.BYTES;
+      final Schema schema =
+          Schema.convertSchema(
+              org.apache.arrow.flatbuf.Schema.getRootAsSchema(
+                  ByteBuffer.wrap(footer, index, schemaLength)));
+      index += schemaLength;
+      final int numBatches = PlatformDependent.getInt(footer, index);
+      index += Integer.BYTES;
+      final long[] batchOffsets = new long[numBatches];
+      for (int i = 0; i < numBatches; i++, index += Long.BYTES) {
+        batchOffsets[i] = PlatformDependent.getLong(footer, index);
+      }
+      final long[] batchStartRows = new long[numBatches + 1];
+      for (int i = 0; i < numBatches; i++, index += Integer.BYTES) {
+        batchStartRows[i + 1] = batchStartRows[i] + PlatformDependent.getInt(footer, index);
+      }
+
+      final List<Field> fields = schema.getFields();
+      if (fields.size() != 1
+          || !fields.get(0).getType().equals(vector.getField().getType())
+          || !fields.get(0).getChildren().isEmpty()
+          || batchStartRows[numBatches] != rowCount) {
+        logger.debug(
+            "Boosted copy of {} does not match the column, schema {} with {} rows",
+            descriptor,
+            schema,
+            batchStartRows[numBatches]);
+        input.close();
+        return null;
+      }
+      return new BoostedColumnDecoder(
+          descriptor, vector, input, allocator, fields.get(0), batchOffsets, batchStartRows);
+    } catch (IOException | RuntimeException e) {
+      AutoCloseables.close(e, input);
+      throw e;
+    }
+  }
+
+  @Override
+  void init() {}
+
+  /** Copies the values of the given rows from the batches of the boosted copy holding them. */
+  @Override
+  void readAt(long[] rowPositions, int count) {
+    for (int i = 0; i < count; i++) {
+      final long row = rowPositions[i];
+      if (loadedBatch < 0
+          || row < batchStartRows[loadedBatch]
+          || row >= batchStartRows[loadedBatch + 1]) {
+        final int found = Arrays.binarySearch(batchStartRows, row);
+        loadBatch(found >= 0 ? found : -found - 2);
+      }
+      vector.copyFromSafe((int) (row - batchStartRows[loadedBatch]), i, boostedVector);
+    }
+  }
+
+  /** Number of bytes of the boosted copy loaded so far. */
+  long getBytesLoaded() {
+    return bytesLoaded;
+  }
+
+  private void loadBatch(int batchIndex) {
+    try {
+      final long offset = batchOffsets[batchIndex];
+      final byte[] lengths = readFully(input, offset, LENGTHS_SIZE);
+      final int headerLength = PlatformDependent.getInt(lengths, Integer.BYTES);
+      final int bodyLength = PlatformDependent.getInt(lengths, 2 * Integer.BYTES);
+      final byte[] header = readFully(input, offset + LENGTHS_SIZE, headerLength);
+      final RecordBatch recordBatch = RecordBatch.getRootAsRecordBatch(ByteBuffer.wrap(header));
+      try (ArrowBuf body = loadBody(offset + LENGTHS_SIZE + headerLength, bodyLength)) {
+        // the vector keeps its own references to the slices of the body
+        ArrowRecordBatchLoader.load(recordBatch, batch, body);
+      }
+      loadedBatch = batchIndex;
+      bytesLoaded += LENGTHS_SIZE + headerLength + bodyLength;
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+          .message("Failure reading batch %s of the boosted copy of %s", batchIndex, descriptor)
+          .build(logger);
+    }
+  }
+
+  private ArrowBuf loadBody(long position, int length) throws IOException {
+    if (mapped != null && length > 0) {
+      return allocator.wrapForeignAllocation(new MappedAllocation(mapped, position, length));
+    }
+    final ArrowBuf body = allocator.buffer(length);
+    try {
+      final ByteBuffer buffer = body.nioBuffer(0, length);
+      while (buffer.hasRemaining()) {
+        final int read = input.read(position + buffer.position(), buffer);
+        if (read < 0) {
+          throw new EOFException("Unexpected end of boosted copy of " + descriptor);
+        }
+      }
+      return body;
+    } catch (IOException | RuntimeException e) {
+      body.close();
+      throw e;
+    }
+  }
+
+  private static byte[] readFully(FSInputStream input, long position, int length)
+      throws IOException {
+    final byte[] bytes = new byte[length];
+    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      if (input.read(position + buffer.position(), buffer) < 0) {
+        throw new EOFException("Unexpected end of boosted copy");
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(batch, input);
+  }
+
+  // the boosted copy is served as is, none of its pages are ever decoded
+
+  @Override
+  protected void initPlain(Encoding encoding, ByteBuffer values) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected void loadDictionary(ByteBuffer dictionary, int size) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected void readPlain(int outIndex, int count) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected void skipPlain(int count) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  protected void gather(int outIndex, int[] ids, int count) {
+    throw new UnsupportedOperationException();
+  }
+
+  /**
+   * Direct memory of a region of a mapped file. The allocation holds on to the mapping, which is
+   * only unmapped once it is garbage collected, after the last buffer over the region is released.
+   */
+  private static final class MappedAllocation extends ForeignAllocation {
+    @SuppressWarnings("unused")
+    private final ByteBuffer mapping;
+
+    private MappedAllocation(ByteBuffer mapping, long position, int length) {
+      super(length, MemoryUtil.getByteBufferAddress(mapping) + position);
+      this.mapping = mapping;
+    }
+
+    @Override
+    protected void release0() {}
+  }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.common.exceptions.UserException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.apache.arrow.vector.BitVectorHelper;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.DataPage;
+import org.apache.parquet.column.page.DataPageV1;
+import org.apache.parquet.column.page.DataPageV2;
+import org.apache.parquet.column.page.DictionaryPage;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
+import org.apache.parquet.io.ParquetDecodingException;
+
+/**
+ * Decodes the pages of a single flat column chunk directly into an Arrow vector.
+ *
+ * <p>The base class walks data pages and definition levels and splits every request into runs of
+ * non-null values and runs of nulls. Subclasses only have to copy runs of values, either from a
+ * PLAIN encoded page or by gathering from the dictionary.
+ */
+abstract class ColumnDecoder {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ColumnDecoder.class);
+
+  protected final ColumnDescriptor descriptor;
+  protected final FieldVector vector;
+  private final PageReader pageReader;
+  private final int maxDefinitionLevel;
+  private final int[] levels;
+  private final int[] dictionaryIds;
+
+  private long rowsConsumed;
+  private int pageValuesRemaining;
+  private RleBitPackedDecoder definitionLevels;
+  private RleBitPackedDecoder dictionaryIdDecoder;
+  private boolean hasDictionary;
+  private long pagesSkipped;
+
+  ColumnDecoder(
+      ColumnDescriptor descriptor, FieldVector vector, PageReader pageReader, int batchSize) {
+    this.descriptor = descriptor;
+    this.vector = vector;
+    this.pageReader = pageReader;
+    this.maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+    this.levels = new int[batchSize];
+    this.dictionaryIds = new int[batchSize];
+  }
+
+  /** Reads the dictionary page if the column chunk has one. Must be called before any read. */
+  void init() {
+    final DictionaryPage dictionaryPage = pageReader.readDictionaryPage();
+    if (dictionaryPage != null) {
+      try {
+        final ByteBuffer buffer =
+            dictionaryPage.getBytes().toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+        loadDictionary(buffer, dictionaryPage.getDictionarySize());
+        hasDictionary = true;
+      } catch (IOException e) {
+        throw UserException.dataReadError(e)
+            .message("Failure reading dictionary page of column %s", descriptor)
+            .build(logger);
+      }
+    }
+  }
+
+  FieldVector getVector() {
+    return vector;
+  }
+
+  /** Reads {@code count} consecutive rows into the vector starting at {@code outIndex}. */
+  final void read(int outIndex, int count) {
+    while (count > 0) {
+      if (pageValuesRemaining == 0) {
+        readNextPage();
+      }
+      final int n = Math.min(Math.min(count, pageValuesRemaining), levels.length);
+      if (definitionLevels == null) {
+        readValues(outIndex, n);
+      } else {
+        definitionLevels.readInts(levels, 0, n);
+        int i = 0;
+        while (i < n) {
+          final int start = i;
+          final boolean present = levels[i] == maxDefinitionLevel;
+          while (i < n && (levels[i] == maxDefinitionLevel) == present) {
+            i++;
+          }
+          if (present) {
+            readValues(outIndex + start, i - start);
+          } else {
+            writeNulls(outIndex + start, i - start);
+          }
+        }
+      }
+      outIndex += n;
+      count -= n;
+      pageValuesRemaining -= n;
+      rowsConsumed += n;
+    }
+  }
+
+  /**
+   * Reads the rows at the given row group relative positions. Positions must be increasing;
+   * row {@code i} is written to index {@code i} of the vector.
+   */
+  void readAt(long[] rowPositions, int count) {
+    int i = 0;
+    while (i < count) {
+      final int start = i;
+      i++;
+      while (i < count && rowPositions[i] == rowPositions[i - 1] + 1) {
+        i++;
+      }
+      skipTo(rowPositions[start]);
+      read(start, i - start);
+    }
+  }
+
+  /**
+   * Advances the decoder so that the next row read is {@code row}. Pages lying entirely before
+   * {@code row} are skipped without being decompressed.
+   */
+  final void skipTo(long row) {
+    long toSkip = row - rowsConsumed;
+    while (toSkip > 0) {
+      if (pageValuesRemaining == 0) {
+        final long skipped = skipPage(toSkip);
+        if (skipped > 0) {
+          toSkip -= skipped;
+          rowsConsumed += skipped;
+          continue;
+        }
+        readNextPage();
+      }
+      final int n = (int) Math.min(toSkip, pageValuesRemaining);
+      final int nonNulls =
+          definitionLevels == null ? n : definitionLevels.countAndSkip(n, maxDefinitionLevel);
+      if (nonNulls > 0) {
+        if (dictionaryIdDecoder != null) {
+          dictionaryIdDecoder.skip(nonNulls);
+        } else {
+          skipPlain(nonNulls);
+        }
+      }
+      toSkip -= n;
+      pageValuesRemaining -= n;
+      rowsConsumed += n;
+    }
+  }
+
+  /** Number of data pages that were skipped without being decompressed. */
+  long getPagesSkipped() {
+    return pagesSkipped;
+  }
+
+  private long skipPage(long maxRows) {
+    if (!(pageReader instanceof ColumnChunkIncReadStore.ColumnChunkIncPageReader)) {
+      return 0;
+    }
+    // flat columns have exactly one value per row
+    final long skipped =
+        ((ColumnChunkIncReadStore.ColumnChunkIncPageReader) pageReader).skipPage(maxRows);
+    if (skipped > 0) {
+      pagesSkipped++;
+    }
+    return skipped;
+  }
+
+  private void readValues(int outIndex, int count) {
+    if (dictionaryIdDecoder != null) {
+      int done = 0;
+      while (done < count) {
+        final int n = Math.min(count - done, dictionaryIds.length);
+        dictionaryIdDecoder.readInts(dictionaryIds, 0, n);
+        gather(outIndex + done, dictionaryIds, n);
+        done += n;
+      }
+    } else {
+      readPlain(outIndex, count);
+    }
+    BitVectorHelper.setRangeToOne(vector.getValidityBuffer(), outIndex, count);
+  }
+
+  /** Marks {@code count} entries starting at {@code outIndex} as null. */
+  protected void writeNulls(int outIndex, int count) {
+    for (int i = outIndex, last = outIndex + count; i < last; i++) {
+      BitVectorHelper.unsetBit(vector.getValidityBuffer(), i);
+    }
+  }
+
+  private void readNextPage() {
+    final DataPage page = pageReader.readPage();
+    if (page == null) {
+      throw UserException.dataReadError()
+          .message("Unexpected end of column chunk for column %s", descriptor)
+          .build(logger);
+    }
+    try {
+      if (page instanceof DataPageV1) {
+        initPage((DataPageV1) page);
+      } else {
+        initPage((DataPageV2) page);
+      }
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+          .message("Failure reading data page of column %s", descriptor)
+          .build(logger);
+    }
+    pageValuesRemaining = page.getValueCount();
+  }
+
+  private void initPage(DataPageV1 page) throws IOException {
+    final ByteBuffer buffer = page.getBytes().toByteBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    int offset = buffer.position();
+    if (maxDefinitionLevel == 0) {
+      definitionLevels = null;
+    } else {
+      final int bitWidth = bitWidth(maxDefinitionLevel);
+      switch (page.getDlEncoding()) {
+        case RLE:
+          final int length = buffer.getInt(offset);
+          definitionLevels =
+              new RleBitPackedDecoder(buffer, offset + 4, offset + 4 + length, bitWidth);
+          offset += 4 + length;
+          break;
+        case BIT_PACKED:
+          definitionLevels =
+              RleBitPackedDecoder.forDeprecatedBitPacked(
+                  buffer, offset, page.getValueCount(), bitWidth);
+          offset += (page.getValueCount() * bitWidth + 7) / 8;
+          break;
+        default:
+          throw new ParquetDecodingException(
+              "Unsupported definition level encoding " + page.getDlEncoding());
+      }
+    }
+    final ByteBuffer values = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    values.position(offset);
+    initValues(page.getValueEncoding(), values.slice().order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  private void initPage(DataPageV2 page) throws IOException {
+    if (maxDefinitionLevel == 0) {
+      definitionLevels = null;
+    } else {
+      final ByteBuffer levelBuffer = page.getDefinitionLevels().toByteBuffer();
+      definitionLevels =
+          new RleBitPackedDecoder(
+              levelBuffer,
+              levelBuffer.position(),
+              levelBuffer.limit(),
+              bitWidth(maxDefinitionLevel));
+    }
+    initValues(
+        page.getDataEncoding(), page.getData().toByteBuffer().order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  private void initValues(Encoding encoding, ByteBuffer values) {
+    switch (encoding) {
+      case PLAIN_DICTIONARY:
+      case RLE_DICTIONARY:
+        if (!hasDictionary) {
+          throw new ParquetDecodingException(
+              "Dictionary encoded page without a dictionary in column " + descriptor);
+        }
+        final int start = values.position();
+        final int bitWidth = values.get(start) & 0xFF;
+        dictionaryIdDecoder = new RleBitPackedDecoder(values, start + 1, values.limit(), bitWidth);
+        break;
+      default:
+        dictionaryIdDecoder = null;
+        initPlain(encoding, values);
+    }
+  }
+
+  static int bitWidth(int maxLevel) {
+    return 32 - Integer.numberOfLeadingZeros(maxLevel);
+  }
+
+  /**
+   * Called with the value section of every page that is not dictionary encoded. The buffer is
+   * positioned at the first value and is valid until the next page is read.
+   */
+  protected abstract void initPlain(Encoding encoding, ByteBuffer values);
+
+  /** Decodes the dictionary page. The buffer remains valid until the column chunk is closed. */
+  protected abstract void loadDictionary(ByteBuffer dictionary, int size);
+
+  /** Copies {@code count} non-null values from the current plain page. */
+  protected abstract void readPlain(int outIndex, int count);
+
+  /** Skips {@code count} non-null values of the current plain page. */
+  protected abstract void skipPlain(int count);
+
+  /** Copies the dictionary entries referenced by the first {@code count} ids. */
+  protected abstract void gather(int outIndex, int[] ids, int count);
+}
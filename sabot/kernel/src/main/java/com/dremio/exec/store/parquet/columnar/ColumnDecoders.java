@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.store.parquet.ParquetReaderUtility.DateCorruptionStatus;
+import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.dremio.exec.store.parquet.columnar.FixedWidthColumnDecoder.Conversion;
+import com.google.common.collect.ImmutableSet;
+import java.util.Set;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.EnumLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.JsonLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimeUnit;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.Type.Repetition;
+
+/** Decides which column chunks the columnar reader handles and creates their decoders. */
+final class ColumnDecoders {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ColumnDecoders.class);
+
+  private static final Set<Encoding> SUPPORTED_ENCODINGS =
+      ImmutableSet.of(
+          Encoding.PLAIN,
+          Encoding.PLAIN_DICTIONARY,
+          Encoding.RLE_DICTIONARY,
+          Encoding.RLE,
+          Encoding.BIT_PACKED);
+
+  private ColumnDecoders() {}
+
+  /**
+   * Returns true for top level, non repeated columns of a supported type whose pages only use
+   * PLAIN, dictionary and RLE encodings.
+   */
+  static boolean isSupported(ColumnChunkMetaData chunk) {
+    if (chunk.getPath().size() != 1 || !SUPPORTED_ENCODINGS.containsAll(chunk.getEncodings())) {
+      return false;
+    }
+    final PrimitiveType type = chunk.getPrimitiveType();
+    if (type.getRepetition() == Repetition.REPEATED) {
+      return false;
+    }
+    final LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+      case FLOAT:
+      case DOUBLE:
+        return annotation == null;
+      case INT32:
+        return annotation == null
+            || annotation instanceof DateLogicalTypeAnnotation
+            || annotation instanceof IntLogicalTypeAnnotation
+            || (annotation instanceof TimeLogicalTypeAnnotation
+                && ((TimeLogicalTypeAnnotation) annotation).getUnit() == TimeUnit.MILLIS);
+      case INT64:
+        return annotation == null
+            || annotation instanceof IntLogicalTypeAnnotation
+            || (annotation instanceof TimestampLogicalTypeAnnotation
+                && ((TimestampLogicalTypeAnnotation) annotation).getUnit() != TimeUnit.NANOS)
+            || (annotation instanceof TimeLogicalTypeAnnotation
+                && ((TimeLogicalTypeAnnotation) annotation).getUnit() == TimeUnit.MICROS);
+      case BINARY:
+        return annotation == null
+            || annotation instanceof StringLogicalTypeAnnotation
+            || annotation instanceof EnumLogicalTypeAnnotation
+            || annotation instanceof JsonLogicalTypeAnnotation;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Returns true if values of the Parquet {@code type} can be decoded into a vector of the Arrow
+   * {@code target} type. Columns failing this check have to be left to the row-wise reader, which
+   * coerces them instead.
+   */
+  static boolean canDecode(PrimitiveType type, ArrowType target) {
+    final MinorType minorType = Types.getMinorTypeForArrowType(target);
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return minorType == MinorType.BIT;
+      case BINARY:
+        return minorType == MinorType.VARCHAR || minorType == MinorType.VARBINARY;
+      default:
+        return conversion(type, minorType, DateCorruptionStatus.META_SHOWS_NO_CORRUPTION) != null;
+    }
+  }
+
+  static ColumnDecoder create(
+      ColumnDescriptor descriptor,
+      FieldVector vector,
+      PageReader pageReader,
+      int batchSize,
+      int maxValueSize,
+      SchemaDerivationHelper schemaHelper) {
+    final PrimitiveType type = descriptor.getPrimitiveType();
+    if (!canDecode(type, vector.getField().getType())) {
+      throw UserException.unsupportedError()
+          .message(
+              "Columnar Parquet reader cannot read column %s of type %s into %s",
+              String.join(".", descriptor.getPath()),
+              type,
+              vector.getField().getType())
+          .build(logger);
+    }
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return new BooleanColumnDecoder(descriptor, (BitVector) vector, pageReader, batchSize);
+      case BINARY:
+        return new VariableWidthColumnDecoder(
+            descriptor, (BaseVariableWidthVector) vector, pageReader, batchSize, maxValueSize);
+      case INT32:
+      case FLOAT:
+        return fixedWidth(descriptor, vector, pageReader, batchSize, 4, schemaHelper);
+      default:
+        return fixedWidth(descriptor, vector, pageReader, batchSize, 8, schemaHelper);
+    }
+  }
+
+  private static ColumnDecoder fixedWidth(
+      ColumnDescriptor descriptor,
+      FieldVector vector,
+      PageReader pageReader,
+      int batchSize,
+      int sourceWidth,
+      SchemaDerivationHelper schemaHelper) {
+    final Conversion conversion =
+        conversion(
+            descriptor.getPrimitiveType(),
+            vector.getMinorType(),
+            schemaHelper.getDateCorruptionStatus());
+    return new FixedWidthColumnDecoder(
+        descriptor, (BaseFixedWidthVector) vector, pageReader, batchSize, sourceWidth, conversion);
+  }
+
+  /**
+   * Returns the conversion of fixed width Parquet values of {@code type} into a vector of {@code
+   * target}, or null if the column cannot be read into that vector.
+   */
+  private static Conversion conversion(
+      PrimitiveType type, MinorType target, DateCorruptionStatus dateCorruptionStatus) {
+    final LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+    switch (type.getPrimitiveTypeName()) {
+      case INT32:
+        if (annotation instanceof DateLogicalTypeAnnotation) {
+          return target == MinorType.DATEMILLI ? dateConversion(dateCorruptionStatus) : null;
+        }
+        if (annotation instanceof TimeLogicalTypeAnnotation) {
+          return target == MinorType.TIMEMILLI ? Conversion.NONE : null;
+        }
+        if (annotation instanceof IntLogicalTypeAnnotation
+            && !((IntLogicalTypeAnnotation) annotation).isSigned()
+            && ((IntLogicalTypeAnnotation) annotation).getBitWidth() == 32) {
+          return target == MinorType.BIGINT ? Conversion.UNSIGNED_INT_TO_LONG : null;
+        }
+        return target == MinorType.INT || target == MinorType.BIGINT ? Conversion.NONE : null;
+      case INT64:
+        if (annotation instanceof TimestampLogicalTypeAnnotation) {
+          if (target != MinorType.TIMESTAMPMILLI) {
+            return null;
+          }
+          return ((TimestampLogicalTypeAnnotation) annotation).getUnit() == TimeUnit.MICROS
+              ? Conversion.MICROS_TO_MILLIS
+              : Conversion.NONE;
+        }
+        if (annotation instanceof TimeLogicalTypeAnnotation) {
+          return target == MinorType.TIMEMILLI ? Conversion.MICROS_TO_MILLIS : null;
+        }
+        return target == MinorType.BIGINT ? Conversion.NONE : null;
+      case FLOAT:
+        if (target == MinorType.FLOAT4) {
+          return Conversion.NONE;
+        }
+        return target == MinorType.FLOAT8 ? Conversion.FLOAT_TO_DOUBLE : null;
+      case DOUBLE:
+        return target == MinorType.FLOAT8 ? Conversion.NONE : null;
+      default:
+        return null;
+    }
+  }
+
+  private static Conversion dateConversion(DateCorruptionStatus dateCorruptionStatus) {
+    switch (dateCorruptionStatus) {
+      case META_SHOWS_CORRUPTION:
+        return Conversion.CORRUPT_DAYS_TO_MILLIS;
+      case META_UNCLEAR_TEST_VALUES:
+        return Conversion.DETECT_CORRUPT_DAYS_TO_MILLIS;
+      case META_SHOWS_NO_CORRUPTION:
+      default:
+        return Conversion.DAYS_TO_MILLIS;
+    }
+  }
+}
@@ -0,0 +1,782 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.collections.Tuple;
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.expression.BasePath;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.exec.expr.ClassGenerator;
+import com.dremio.exec.expr.ReturnValueExpression;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.record.TypedFieldId;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.dremio.exec.store.CompositeColumnFilter;
+import com.dremio.exec.store.CompositeColumnFilter.RuntimeFilterType;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.iceberg.deletes.PositionalDeleteFilter;
+import com.dremio.exec.store.parquet.AbstractParquetReader;
+import com.dremio.exec.store.parquet.BigIntAutoIncrementer;
+import com.dremio.exec.store.parquet.ColumnIndexProvider;
+import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
+import com.dremio.exec.store.parquet.ParquetColumnResolver;
+import com.dremio.exec.store.parquet.ParquetFilterCondition;
+import com.dremio.exec.store.parquet.ParquetFilterCreator;
+import com.dremio.exec.store.parquet.ParquetFilters;
+import com.dremio.exec.store.parquet.ParquetReaderUtility.DateCorruptionStatus;
+import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
+import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.dremio.exec.util.ColumnUtils;
+import com.dremio.exec.util.ValueListFilter;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.filter.Filterer;
+import com.dremio.sabot.op.scan.OutputMutator;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseIntVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.ColumnChunkIncReadStore;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.Type;
+
+/**
+ * Reads flat Parquet columns of a single row group straight into Arrow vectors.
+ *
+ * <p>Rows are produced in three steps per batch: the candidate rows are determined from the
+ * positional delete filter (if any); the columns referenced by exact pushdown filters and by value
+ * list runtime filters are decoded and the filters are evaluated; finally the remaining columns are
+ * decoded only for the rows that passed. When the file has a page index, rows in pages whose
+ * statistics cannot match the filter are never candidates, and those pages are skipped without
+ * being decompressed.
+ *
+ * <p>The surviving row positions are published through {@link #deltas} so that a row-wise reader
+ * handling the non vectorizable columns of the same row group stays aligned.
+ *
+ * <p>When the file system supports boosting, columns with a boosted copy of the row group are
+ * served from that copy, see {@link BoostedColumnDecoder}; the others are reported by {@link
+ * #getColumnsToBoost()} so that the scan boosts them once it is done.
+ */
+public class ColumnarParquetReader extends AbstractParquetReader {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ColumnarParquetReader.class);
+
+  private final ParquetScanProjectedColumns projectedColumns;
+  private final String path;
+  private final CompressionCodecFactory codecFactory;
+  private final ParquetFilters filters;
+  private final ParquetFilterCreator filterCreator;
+  private final MutableParquetMetadata footer;
+  private final int rowGroupIndex;
+  private final SchemaDerivationHelper schemaHelper;
+  private final InputStreamProvider inputStreamProvider;
+  private final List<RuntimeFilter> runtimeFilters;
+  private final BatchSchema tableSchema;
+
+  private final List<ColumnDecoder> filterDecoders = new ArrayList<>();
+  private final List<ColumnDecoder> projectionDecoders = new ArrayList<>();
+  private final List<ValueVector> missingColumnVectors = new ArrayList<>();
+  private final Map<String, ColumnChunkMetaData> filterColumnChunks = new HashMap<>();
+  private final List<ValueListColumnFilter> valueListFilters = new ArrayList<>();
+  private final List<BoostedColumnDecoder> boostedDecoders = new ArrayList<>();
+  private final List<SchemaPath> columnsToBoost = new ArrayList<>();
+
+  private ColumnChunkIncReadStore pageReadStore;
+  private PositionalDeleteFilter positionalDeleteFilter;
+  private Filterer filterer;
+  private SelectionVector2 filterOutput;
+  private BigIntAutoIncrementer rowIndexGenerator;
+  private List<RowRanges.Range> matchingRanges;
+  private int rangeIndex;
+
+  private long rowCount;
+  private long nextRow;
+  private long lastEmittedRow = -1;
+  private long rowGroupStartPosition;
+  private long[] candidateRows;
+  private long[] selectedRows;
+  private int[] selectedIndexes;
+  private boolean done;
+
+  public ColumnarParquetReader(
+      OperatorContext context,
+      ParquetScanProjectedColumns projectedColumns,
+      String path,
+      CompressionCodecFactory codecFactory,
+      ParquetFilters filters,
+      ParquetFilterCreator filterCreator,
+      MutableParquetMetadata footer,
+      int rowGroupIndex,
+      SimpleIntVector deltas,
+      SchemaDerivationHelper schemaHelper,
+      InputStreamProvider inputStreamProvider,
+      List<RuntimeFilter> runtimeFilters,
+      BatchSchema tableSchema) {
+    super(context, projectedColumns.getBatchSchemaProjectedColumns(), deltas);
+    this.projectedColumns = projectedColumns;
+    this.path = path;
+    this.codecFactory = codecFactory;
+    this.filters = filters;
+    this.filterCreator = filterCreator;
+    this.footer = footer;
+    this.rowGroupIndex = rowGroupIndex;
+    this.schemaHelper = schemaHelper;
+    this.inputStreamProvider = inputStreamProvider;
+    // filters arriving after setup are handed over through addRuntimeFilter
+    this.runtimeFilters = new ArrayList<>(runtimeFilters);
+    this.tableSchema = tableSchema;
+  }
+
+  @Override
+  public void setup(OutputMutator output) throws ExecutionSetupException {
+    final BlockMetaData block = footer.getBlocks().get(rowGroupIndex);
+    Preconditions.checkArgument(
+        block != null,
+        "Parquet file '%s' footer does not have information about row group %s",
+        path,
+        rowGroupIndex);
+    if (!inputStreamProvider.isRowGroupFilteredForReading()) {
+      done = true;
+      return;
+    }
+
+    rowCount = block.getRowCount();
+    rowGroupStartPosition = footer.getAccumulatedRowCount(rowGroupIndex);
+    candidateRows = new long[numRowsPerBatch];
+    selectedRows = new long[numRowsPerBatch];
+    selectedIndexes = new int[numRowsPerBatch];
+    if (deltas != null) {
+      deltas.allocateNew(numRowsPerBatch);
+    }
+    if (filters.hasPositionalDeleteFilter()) {
+      Preconditions.checkState(
+          deltas != null, "Positional deletes require a deltas vector to be provided");
+      positionalDeleteFilter = filters.getPositionalDeleteFilter();
+      positionalDeleteFilter.seek(rowGroupStartPosition);
+    }
+
+    try {
+      setupDecoders(output, block);
+      setupFilter(output);
+      setupPageIndexFilter(block);
+      setupRowIndex(output);
+      runtimeFilters.forEach(this::addRuntimeFilter);
+    } catch (Exception e) {
+      throw new ExecutionSetupException(
+          String.format("Failure setting up columnar reader for file %s", path), e);
+    }
+  }
+
+  private void setupDecoders(OutputMutator output, BlockMetaData block) throws Exception {
+    final MessageType schema = footer.getFileMetaData().getSchema();
+    final ParquetColumnResolver columnResolver = projectedColumns.getColumnResolver(schema);
+    final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      chunks.put(chunk.getPath(), chunk);
+    }
+    final Map<String, Type> fileFields = new HashMap<>();
+    for (Type field : schema.getFields()) {
+      fileFields.put(field.getName().toLowerCase(), field);
+    }
+    final List<String> filterColumns = getFilterColumns();
+
+    pageReadStore =
+        new ColumnChunkIncReadStore(
+            rowCount, codecFactory, context.getAllocator(), Path.of(path), inputStreamProvider);
+
+    final List<SchemaPath> parquetColumns =
+        isStarQuery()
+            ? schema.getFields().stream()
+                .map(f -> SchemaPath.getSimplePath(f.getName()))
+                .collect(Collectors.toList())
+            : columnResolver.getProjectedParquetColumns();
+    final List<ValueVector> projectedVectors = new ArrayList<>();
+    final List<ColumnDescriptor> projectedDescriptors = new ArrayList<>();
+    final List<ColumnChunkMetaData> projectedChunks = new ArrayList<>();
+    for (SchemaPath parquetColumn : parquetColumns) {
+      final String parquetName = parquetColumn.getRootSegment().getNameSegment().getPath();
+      final ValueVector vector =
+          output.getVector(columnResolver.getBatchSchemaColumnName(parquetName));
+      if (vector == null) {
+        continue;
+      }
+      final Type field = fileFields.get(parquetName.toLowerCase());
+      if (field == null) {
+        // column is not present in this file, leave it null
+        missingColumnVectors.add(vector);
+        continue;
+      }
+      final ColumnChunkMetaData chunk = chunks.get(ColumnPath.get(field.getName()));
+      if (chunk == null) {
+        missingColumnVectors.add(vector);
+        continue;
+      }
+      projectedVectors.add(vector);
+      projectedDescriptors.add(schema.getColumnDescription(new String[] {field.getName()}));
+      projectedChunks.add(chunk);
+    }
+
+    final List<ColumnDecoder> decoders = new ArrayList<>();
+    final List<ColumnChunkMetaData> chunksToRead = new ArrayList<>();
+    for (int i = 0; i < projectedVectors.size(); i++) {
+      final ColumnDecoder decoder =
+          openBoostedColumn(projectedDescriptors.get(i), (FieldVector) projectedVectors.get(i));
+      decoders.add(decoder);
+      if (decoder == null) {
+        chunksToRead.add(projectedChunks.get(i));
+      }
+    }
+
+    inputStreamProvider.planColumnReads(chunksToRead);
+    for (int i = 0; i < projectedVectors.size(); i++) {
+      final ValueVector vector = projectedVectors.get(i);
+      final ColumnDescriptor descriptor = projectedDescriptors.get(i);
+      final ColumnChunkMetaData chunk = projectedChunks.get(i);
+      ColumnDecoder decoder = decoders.get(i);
+      if (decoder == null) {
+        pageReadStore.addColumn(descriptor, chunk);
+        decoder =
+            ColumnDecoders.create(
+                descriptor,
+                (FieldVector) vector,
+                pageReadStore.getPageReader(descriptor),
+                numRowsPerBatch,
+                varValueSizeLimit,
+                schemaHelper);
+      }
+      decoder.init();
+      final String columnName = vector.getField().getName().toLowerCase();
+      if (filterColumns.contains(columnName)) {
+        filterDecoders.add(decoder);
+        filterColumnChunks.put(columnName, chunk);
+      } else {
+        projectionDecoders.add(decoder);
+      }
+    }
+  }
+
+  /**
+   * Opens the boosted copy of a column, if the file system keeps one for this row group. Columns
+   * without a usable copy are reported by {@link #getColumnsToBoost()} once the scan is done.
+   */
+  private BoostedColumnDecoder openBoostedColumn(ColumnDescriptor descriptor, FieldVector vector)
+      throws IOException {
+    if (!inputStreamProvider.isBoostingEnabled()) {
+      return null;
+    }
+    final String columnName = vector.getField().getName();
+    final Tuple<FSInputStream, Long> boosted =
+        inputStreamProvider.getBoostedStream(rowGroupIndex, columnName);
+    final BoostedColumnDecoder decoder =
+        boosted == null
+            ? null
+            : BoostedColumnDecoder.open(
+                descriptor,
+                vector,
+                boosted.first,
+                boosted.second,
+                rowCount,
+                context.getAllocator());
+    if (decoder == null) {
+      columnsToBoost.add(SchemaPath.getSimplePath(columnName));
+      return null;
+    }
+    boostedDecoders.add(decoder);
+    if (context.getStats() != null) {
+      context.getStats().addLongStat(Metric.NUM_COLUMNS_BOOSTED, 1);
+    }
+    return decoder;
+  }
+
+  private List<String> getFilterColumns() {
+    if (!filters.hasPushdownFilters()) {
+      return new ArrayList<>();
+    }
+    return filters.getPushdownFilters().stream()
+        .filter(c -> c.getFilter().exact())
+        .map(c -> c.getPath().getRootSegment().getNameSegment().getPath().toLowerCase())
+        .collect(Collectors.toList());
+  }
+
+  private void setupFilter(OutputMutator output) throws Exception {
+    if (!filters.hasPushdownFilters()) {
+      return;
+    }
+    if (filterCreator.filterMayChange()) {
+      // let the coercion reader apply the filters once the values have their final type
+      filters.getPushdownFilters().stream()
+          .filter(c -> c.getFilter().exact())
+          .forEach(c -> c.setFilterModifiedForPushdown(true));
+      projectionDecoders.addAll(0, filterDecoders);
+      filterDecoders.clear();
+      return;
+    }
+    final List<LogicalExpression> expressions =
+        filters.getPushdownFilters().stream()
+            .filter(c -> c.getFilter().exact())
+            .map(ParquetFilterCondition::getExpr)
+            .collect(Collectors.toList());
+    if (expressions.isEmpty()) {
+      return;
+    }
+    Preconditions.checkState(deltas != null, "Pushdown filters require a deltas vector");
+    final LogicalExpression filterExpr =
+        expressions.size() == 1
+            ? expressions.get(0)
+            : FunctionCallFactory.createBooleanOperator("and", expressions);
+
+    final VectorContainer incoming = new VectorContainer();
+    incoming.addCollection(output.getVectors());
+    incoming.buildSchema();
+
+    final ClassGenerator<Filterer> cg =
+        context.getClassProducer().createGenerator(Filterer.TEMPLATE_DEFINITION2).getRoot();
+    final LogicalExpression expr =
+        context.getClassProducer().materializeAndAllowComplex(filterExpr, incoming);
+    cg.addExpr(new ReturnValueExpression(expr), ClassGenerator.BlockCreateMode.MERGE);
+
+    filterOutput = new SelectionVector2(context.getAllocator());
+    filterer = cg.getCodeGenerator().getImplementationClass();
+    filterer.setup(
+        context.getClassProducer().getFunctionContext(), incoming, new SV2Holder(filterOutput));
+  }
+
+  /**
+   * Narrows the rows to read down to the pages whose min/max statistics may match the exact
+   * pushdown filters. The filter is still evaluated on every row read from the remaining pages.
+   */
+  private void setupPageIndexFilter(BlockMetaData block) throws IOException {
+    if (filterer == null || filterColumnChunks.isEmpty()) {
+      return;
+    }
+    final List<LogicalExpression> expressions =
+        filters.getPushdownFilters().stream()
+            .filter(c -> c.getFilter().exact())
+            .map(ParquetFilterCondition::getExpr)
+            .collect(Collectors.toList());
+    final List<ColumnChunkMetaData> chunks = new ArrayList<>(filterColumnChunks.values());
+    // the providers return null unless reading column indexes was enabled for this scan
+    try (ColumnIndexProvider columnIndexProvider =
+            inputStreamProvider.getColumnIndexProvider(chunks);
+        OffsetIndexProvider offsetIndexProvider =
+            inputStreamProvider.getOffsetIndexProvider(chunks)) {
+      if (columnIndexProvider == null || offsetIndexProvider == null) {
+        return;
+      }
+      final boolean datesCorrupted =
+          schemaHelper.getDateCorruptionStatus() != DateCorruptionStatus.META_SHOWS_NO_CORRUPTION;
+      final RowRanges rowRanges =
+          new PageIndexFilter(filterColumnChunks, datesCorrupted)
+              .calculateRowRanges(expressions, block, columnIndexProvider, offsetIndexProvider);
+      if (rowRanges == null || rowRanges.rowCount() == rowCount) {
+        return;
+      }
+      matchingRanges = rowRanges.getRanges();
+      logger.debug(
+          "Page index of {}, row group {} leaves {} of {} rows",
+          path,
+          rowGroupIndex,
+          rowRanges.rowCount(),
+          rowCount);
+    }
+  }
+
+  private void setupRowIndex(OutputMutator output) {
+    if (tableSchema == null
+        || !tableSchema.findFieldIgnoreCase(ColumnUtils.ROW_INDEX_COLUMN_NAME).isPresent()) {
+      return;
+    }
+    // without columns of its own, this reader only runs next to the row-wise reader, which then
+    // produces the row index
+    if (filterDecoders.isEmpty() && projectionDecoders.isEmpty() && hasOtherColumns(output)) {
+      return;
+    }
+    rowIndexGenerator =
+        new BigIntAutoIncrementer(ColumnUtils.ROW_INDEX_COLUMN_NAME, numRowsPerBatch, deltas);
+    rowIndexGenerator.setRowIndexBase(rowGroupStartPosition);
+    rowIndexGenerator.setup(output);
+  }
+
+  private static boolean hasOtherColumns(OutputMutator output) {
+    for (ValueVector vector : output.getVectors()) {
+      final String name = vector.getField().getName();
+      if (!ColumnUtils.ROW_INDEX_COLUMN_NAME.equalsIgnoreCase(name)
+          && !ColumnUtils.FILE_PATH_COLUMN_NAME.equalsIgnoreCase(name)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int next() {
+    if (done) {
+      return 0;
+    }
+    final Stopwatch filterWatch = Stopwatch.createUnstarted();
+    int selected = 0;
+    while (selected == 0) {
+      final int candidates = nextCandidates();
+      if (candidates == 0) {
+        done = true;
+        break;
+      }
+      if (filterDecoders.isEmpty()) {
+        System.arraycopy(candidateRows, 0, selectedRows, 0, candidates);
+        selected = candidates;
+        continue;
+      }
+      for (ColumnDecoder decoder : filterDecoders) {
+        decoder.readAt(candidateRows, candidates);
+        decoder.getVector().setValueCount(candidates);
+      }
+      for (ValueVector vector : missingColumnVectors) {
+        vector.setValueCount(candidates);
+      }
+      if (filterer == null) {
+        for (int i = 0; i < candidates; i++) {
+          selectedIndexes[i] = i;
+        }
+        selected = candidates;
+      } else {
+        filterWatch.start();
+        selected = filterer.filterBatch(candidates);
+        filterWatch.stop();
+        for (int i = 0; i < selected; i++) {
+          selectedIndexes[i] = filterOutput.getIndex(i);
+        }
+      }
+      selected = applyValueListFilters(selected);
+      compactFilterColumns(selected);
+    }
+    if (filterer != null && context.getStats() != null) {
+      context.getStats().addLongStat(Metric.FILTER_NS, filterWatch.elapsed(TimeUnit.NANOSECONDS));
+    }
+
+    for (ColumnDecoder decoder : projectionDecoders) {
+      decoder.readAt(selectedRows, selected);
+    }
+    publishDeltas(selected);
+    if (rowIndexGenerator != null) {
+      rowIndexGenerator.populate(selected);
+    }
+    for (ColumnDecoder decoder : filterDecoders) {
+      decoder.getVector().setValueCount(selected);
+    }
+    for (ColumnDecoder decoder : projectionDecoders) {
+      decoder.getVector().setValueCount(selected);
+    }
+    for (ValueVector vector : missingColumnVectors) {
+      vector.setValueCount(selected);
+    }
+    return selected;
+  }
+
+  /**
+   * Fills {@link #candidateRows} with the next row group relative positions that are not deleted.
+   */
+  private int nextCandidates() {
+    int count = 0;
+    if (positionalDeleteFilter == null) {
+      while (count < numRowsPerBatch) {
+        nextRow = nextMatchingRow(nextRow);
+        if (nextRow >= rowCount) {
+          break;
+        }
+        candidateRows[count++] = nextRow++;
+      }
+      return count;
+    }
+    while (count == 0 && nextMatchingRow(nextRow) < rowCount) {
+      final int remaining =
+          positionalDeleteFilter.applyToDeltas(
+              rowGroupStartPosition + rowCount, numRowsPerBatch, deltas);
+      if (remaining == 0) {
+        break;
+      }
+      for (int i = 0; i < remaining; i++) {
+        nextRow += deltas.get(i);
+        final long row = nextRow++;
+        if (nextMatchingRow(row) == row) {
+          candidateRows[count++] = row;
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the first row at or after {@code row} that lies in a page matching the page index
+   * filter, or the row group row count if there is none. Rows must be asked for in increasing
+   * order.
+   */
+  private long nextMatchingRow(long row) {
+    if (matchingRanges == null) {
+      return row;
+    }
+    while (rangeIndex < matchingRanges.size() && matchingRanges.get(rangeIndex).to < row) {
+      rangeIndex++;
+    }
+    if (rangeIndex == matchingRanges.size()) {
+      return rowCount;
+    }
+    return Math.max(row, matchingRanges.get(rangeIndex).from);
+  }
+
+  /** Keeps the first {@code count} {@link #selectedIndexes} that pass every value list filter. */
+  private int applyValueListFilters(int count) {
+    if (valueListFilters.isEmpty()) {
+      return count;
+    }
+    int selected = 0;
+    rows:
+    for (int i = 0; i < count; i++) {
+      final int index = selectedIndexes[i];
+      for (ValueListColumnFilter filter : valueListFilters) {
+        if (!filter.mightContain(index)) {
+          continue rows;
+        }
+      }
+      selectedIndexes[selected++] = index;
+    }
+    return selected;
+  }
+
+  private void compactFilterColumns(int selected) {
+    for (int i = 0; i < selected; i++) {
+      final int index = selectedIndexes[i];
+      selectedRows[i] = candidateRows[index];
+      if (index != i) {
+        for (ColumnDecoder decoder : filterDecoders) {
+          final ValueVector vector = decoder.getVector();
+          vector.copyFrom(index, i, vector);
+        }
+      }
+    }
+  }
+
+  private void publishDeltas(int selected) {
+    if (deltas == null) {
+      lastEmittedRow = selected == 0 ? lastEmittedRow : selectedRows[selected - 1];
+      return;
+    }
+    for (int i = 0; i < selected; i++) {
+      deltas.set(i, (int) (selectedRows[i] - lastEmittedRow - 1));
+      lastEmittedRow = selectedRows[i];
+    }
+    deltas.setValueCount(selected);
+  }
+
+  /**
+   * Applies the value list filters of a join on a single integer column read by this reader; rows
+   * whose value is not in the list are dropped while decoding, before the remaining columns are
+   * read. Other runtime filters are dropped, the join still applies its condition to their rows.
+   */
+  @Override
+  public void addRuntimeFilter(RuntimeFilter runtimeFilter) {
+    if (done || runtimeFilter == null) {
+      return;
+    }
+    int dropped = 0;
+    for (CompositeColumnFilter filter : runtimeFilter.getNonPartitionColumnFilters()) {
+      final ColumnDecoder decoder = getValueListFilterDecoder(filter);
+      if (decoder == null) {
+        dropped++;
+        continue;
+      }
+      if (projectionDecoders.remove(decoder)) {
+        // rows are read in increasing order by both lists, so the decoder can move between them
+        filterDecoders.add(decoder);
+      }
+      valueListFilters.add(
+          new ValueListColumnFilter((BaseIntVector) decoder.getVector(), filter.getValueList()));
+    }
+    if (dropped > 0 && context.getStats() != null) {
+      logger.debug(
+          "Dropping {} runtime filters from {} that are not value lists on an integer column",
+          dropped,
+          runtimeFilter.getSenderInfo());
+      context.getStats().addLongStat(Metric.RUNTIME_COL_FILTER_DROP_COUNT, dropped);
+    }
+  }
+
+  private ColumnDecoder getValueListFilterDecoder(CompositeColumnFilter filter) {
+    final ValueListFilter valueList = filter.getValueList();
+    if (valueList == null
+        || filter.getFilterType() == RuntimeFilterType.BLOOM_FILTER
+        || filter.getColumnsList().size() != 1
+        || !valueList.isFixedWidth()
+        || (valueList.getFieldType() != MinorType.INT
+            && valueList.getFieldType() != MinorType.BIGINT)) {
+      return null;
+    }
+    final String column = filter.getColumnsList().get(0);
+    for (List<ColumnDecoder> decoders : ImmutableList.of(filterDecoders, projectionDecoders)) {
+      for (ColumnDecoder decoder : decoders) {
+        final ValueVector vector = decoder.getVector();
+        if (vector instanceof BaseIntVector
+            && vector.getField().getName().equalsIgnoreCase(column)) {
+          return decoder;
+        }
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public List<SchemaPath> getColumnsToBoost() {
+    return columnsToBoost;
+  }
+
+  @Override
+  protected boolean supportsSkipAllQuery() {
+    return true;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (context.getStats() != null) {
+      long pagesSkipped = 0;
+      for (ColumnDecoder decoder : filterDecoders) {
+        pagesSkipped += decoder.getPagesSkipped();
+      }
+      for (ColumnDecoder decoder : projectionDecoders) {
+        pagesSkipped += decoder.getPagesSkipped();
+      }
+      context.getStats().addLongStat(Metric.NUM_PAGES_PRUNED, pagesSkipped);
+      long boostedBytes = 0;
+      for (BoostedColumnDecoder decoder : boostedDecoders) {
+        boostedBytes += decoder.getBytesLoaded();
+      }
+      context.getStats().addLongStat(Metric.TOTAL_BOOSTED_BYTES_READ, boostedBytes);
+    }
+    try {
+      AutoCloseables.close(
+          filterOutput,
+          deltas,
+          pageReadStore == null ? null : (AutoCloseable) pageReadStore::close,
+          AutoCloseables.all(boostedDecoders));
+    } finally {
+      filterOutput = null;
+      pageReadStore = null;
+      boostedDecoders.clear();
+      logger.debug("Closed columnar reader for {}, row group {}", path, rowGroupIndex);
+    }
+  }
+
+  /** Membership test of the values of an integer column in the sorted value list of a join. */
+  private static final class ValueListColumnFilter {
+    private final BaseIntVector vector;
+    private final long[] values;
+    private final boolean containsNull;
+
+    private ValueListColumnFilter(BaseIntVector vector, ValueListFilter valueList) {
+      this.vector = vector;
+      this.values = new long[valueList.getValueCount()];
+      final ArrowBuf buf = valueList.valOnlyBuf();
+      final boolean isInt = valueList.getFieldType() == MinorType.INT;
+      for (int i = 0; i < values.length; i++) {
+        values[i] =
+            isInt ? buf.getInt((long) i * Integer.BYTES) : buf.getLong((long) i * Long.BYTES);
+      }
+      Arrays.sort(values);
+      this.containsNull = valueList.isContainsNull();
+    }
+
+    private boolean mightContain(int index) {
+      if (vector.isNull(index)) {
+        return containsNull;
+      }
+      return Arrays.binarySearch(values, vector.getValueAsLong(index)) >= 0;
+    }
+  }
+
+  /** Exposes the filter output selection vector to the generated {@link Filterer}. */
+  private static final class SV2Holder implements VectorAccessible {
+    private final SelectionVector2 sv2;
+
+    private SV2Holder(SelectionVector2 sv2) {
+      this.sv2 = sv2;
+    }
+
+    @Override
+    public Iterator<VectorWrapper<?>> iterator() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public <T extends ValueVector> VectorWrapper<T> getValueAccessorById(
+        Class<T> clazz, int... fieldIds) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public TypedFieldId getValueVectorId(BasePath path) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BatchSchema getSchema() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getRecordCount() {
+      return sv2.getCount();
+    }
+
+    @Override
+    public SelectionVector2 getSelectionVector2() {
+      return sv2;
+    }
+
+    @Override
+    public SelectionVector4 getSelectionVector4() {
+      throw new UnsupportedOperationException();
+    }
+  }
+}
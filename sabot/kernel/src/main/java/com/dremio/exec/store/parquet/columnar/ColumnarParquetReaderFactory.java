@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.RecordReader;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.iceberg.deletes.ParquetDeleteFileFilterCreator;
+import com.dremio.exec.store.parquet.InputStreamProvider;
+import com.dremio.exec.store.parquet.ManagedSchema;
+import com.dremio.exec.store.parquet.MutableParquetMetadata;
+import com.dremio.exec.store.parquet.ParquetDictionaryConvertor;
+import com.dremio.exec.store.parquet.ParquetFilterCreator;
+import com.dremio.exec.store.parquet.ParquetFilters;
+import com.dremio.exec.store.parquet.ParquetReaderFactory;
+import com.dremio.exec.store.parquet.ParquetScanProjectedColumns;
+import com.dremio.exec.store.parquet.SchemaDerivationHelper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import java.util.List;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.SimpleIntVector;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.parquet.compression.CompressionCodecFactory;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+
+/**
+ * {@link ParquetReaderFactory} backed by {@link ColumnarParquetReader}. Flat columns using PLAIN,
+ * dictionary and RLE encodings are decoded page by page into Arrow vectors when their values can be
+ * stored in the vector of the table column as is or by widening; everything else is left to the
+ * row-wise reader by {@link com.dremio.exec.store.parquet.UnifiedParquetReader}.
+ *
+ * <p>Registered through the {@code dremio.plugins.parquet.factory} configuration key and only used
+ * once {@link ExecConstants#PARQUET_COLUMNAR_READER_ENABLED} is turned on.
+ */
+public class ColumnarParquetReaderFactory implements ParquetReaderFactory {
+
+  @Override
+  public boolean isSupported(ColumnChunkMetaData chunk, OperatorContext context) {
+    if (context != null
+        && context.getOptions() != null
+        && !context.getOptions().getOption(ExecConstants.PARQUET_COLUMNAR_READER_ENABLED)) {
+      return false;
+    }
+    return ColumnDecoders.isSupported(chunk);
+  }
+
+  @Override
+  public boolean isSupported(ColumnChunkMetaData chunk, Field field, OperatorContext context) {
+    return field != null
+        && isSupported(chunk, context)
+        && ColumnDecoders.canDecode(chunk.getPrimitiveType(), field.getType());
+  }
+
+  @Override
+  public RecordReader newReader(
+      OperatorContext context,
+      ParquetScanProjectedColumns projectedColumns,
+      String path,
+      CompressionCodecFactory codecFactory,
+      ParquetFilters filters,
+      ParquetFilterCreator filterCreator,
+      ParquetDictionaryConvertor dictionaryConvertor,
+      boolean enableDetailedTracing,
+      MutableParquetMetadata footer,
+      int rowGroupIndex,
+      SimpleIntVector deltas,
+      SchemaDerivationHelper schemaHelper,
+      InputStreamProvider inputStreamProvider,
+      List<RuntimeFilter> runtimeFilters,
+      ArrowBuf validityBuf,
+      BatchSchema tableSchema,
+      boolean ignoreSchemaLearning) {
+    // rows are always fully filtered, which leaves validityBuf untouched
+    return new ColumnarParquetReader(
+        context,
+        projectedColumns,
+        path,
+        codecFactory,
+        filters,
+        filterCreator,
+        footer,
+        rowGroupIndex,
+        deltas,
+        schemaHelper,
+        inputStreamProvider,
+        runtimeFilters,
+        tableSchema);
+  }
+
+  @Override
+  public ParquetFilterCreator newFilterCreator(
+      OperatorContext operatorContext,
+      ManagedSchemaType type,
+      ManagedSchema schema,
+      BufferAllocator allocator) {
+    return ParquetFilterCreator.DEFAULT;
+  }
+
+  @Override
+  public ParquetDeleteFileFilterCreator newDeleteFileFilterCreator() {
+    return ParquetDeleteFileFilterCreator.DEFAULT;
+  }
+
+  @Override
+  public ParquetDictionaryConvertor newDictionaryConvertor(
+      ManagedSchemaType type, ManagedSchema schema) {
+    return ParquetDictionaryConvertor.DEFAULT;
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.exec.store.parquet.ParquetReaderUtility;
+import java.nio.ByteBuffer;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.io.ParquetDecodingException;
+import org.joda.time.DateTimeConstants;
+
+/**
+ * Decoder for INT32, INT64, FLOAT and DOUBLE columns. When the Parquet physical type has the same
+ * representation as the target vector, PLAIN pages are copied into the vector with a single
+ * memory copy per run; otherwise every value goes through a {@link Conversion}.
+ */
+final class FixedWidthColumnDecoder extends ColumnDecoder {
+
+  /** Conversion from a Parquet physical value to the value stored in the Arrow vector. */
+  enum Conversion {
+    NONE {
+      @Override
+      long apply(long value) {
+        return value;
+      }
+    },
+    UNSIGNED_INT_TO_LONG {
+      @Override
+      long apply(long value) {
+        return value & 0xFFFFFFFFL;
+      }
+    },
+    FLOAT_TO_DOUBLE {
+      @Override
+      long apply(long value) {
+        return Double.doubleToRawLongBits(Float.intBitsToFloat((int) value));
+      }
+    },
+    DAYS_TO_MILLIS {
+      @Override
+      long apply(long value) {
+        return value * DateTimeConstants.MILLIS_PER_DAY;
+      }
+    },
+    CORRUPT_DAYS_TO_MILLIS {
+      @Override
+      long apply(long value) {
+        return (value - ParquetReaderUtility.CORRECT_CORRUPT_DATE_SHIFT)
+            * DateTimeConstants.MILLIS_PER_DAY;
+      }
+    },
+    DETECT_CORRUPT_DAYS_TO_MILLIS {
+      @Override
+      long apply(long value) {
+        return value > ParquetReaderUtility.DATE_CORRUPTION_THRESHOLD
+            ? CORRUPT_DAYS_TO_MILLIS.apply(value)
+            : DAYS_TO_MILLIS.apply(value);
+      }
+    },
+    MICROS_TO_MILLIS {
+      @Override
+      long apply(long value) {
+        return value / 1000;
+      }
+    };
+
+    abstract long apply(long value);
+  }
+
+  private final int sourceWidth;
+  private final int targetWidth;
+  private final Conversion conversion;
+  private final boolean directCopy;
+
+  private ByteBuffer values;
+  private long[] dictionary;
+
+  FixedWidthColumnDecoder(
+      ColumnDescriptor descriptor,
+      BaseFixedWidthVector vector,
+      PageReader pageReader,
+      int batchSize,
+      int sourceWidth,
+      Conversion conversion) {
+    super(descriptor, vector, pageReader, batchSize);
+    this.sourceWidth = sourceWidth;
+    this.targetWidth = vector.getTypeWidth();
+    this.conversion = conversion;
+    this.directCopy = conversion == Conversion.NONE && sourceWidth == targetWidth;
+  }
+
+  @Override
+  protected void initPlain(Encoding encoding, ByteBuffer values) {
+    if (encoding != Encoding.PLAIN) {
+      throw new ParquetDecodingException(
+          "Unsupported encoding " + encoding + " for column " + descriptor);
+    }
+    this.values = values;
+  }
+
+  @Override
+  protected void loadDictionary(ByteBuffer buffer, int size) {
+    dictionary = new long[size];
+    int offset = buffer.position();
+    for (int i = 0; i < size; i++, offset += sourceWidth) {
+      dictionary[i] = conversion.apply(readRaw(buffer, offset));
+    }
+  }
+
+  @Override
+  protected void readPlain(int outIndex, int count) {
+    final ArrowBuf data = vector.getDataBuffer();
+    final int position = values.position();
+    if (directCopy) {
+      data.setBytes((long) outIndex * targetWidth, values, position, count * sourceWidth);
+    } else {
+      for (int i = 0; i < count; i++) {
+        write(data, outIndex + i, conversion.apply(readRaw(values, position + i * sourceWidth)));
+      }
+    }
+    values.position(position + count * sourceWidth);
+  }
+
+  @Override
+  protected void skipPlain(int count) {
+    values.position(values.position() + count * sourceWidth);
+  }
+
+  @Override
+  protected void gather(int outIndex, int[] ids, int count) {
+    final ArrowBuf data = vector.getDataBuffer();
+    final long[] dictionary = this.dictionary;
+    if (targetWidth == 8) {
+      for (int i = 0; i < count; i++) {
+        data.setLong((long) (outIndex + i) * 8, dictionary[ids[i]]);
+      }
+    } else {
+      for (int i = 0; i < count; i++) {
+        data.setInt((long) (outIndex + i) * 4, (int) dictionary[ids[i]]);
+      }
+    }
+  }
+
+  private long readRaw(ByteBuffer buffer, int offset) {
+    return sourceWidth == 8 ? buffer.getLong(offset) : buffer.getInt(offset);
+  }
+
+  private void write(ArrowBuf data, int index, long value) {
+    if (targetWidth == 8) {
+      data.setLong((long) index * 8, value);
+    } else {
+      data.setInt((long) index * 4, (int) value);
+    }
+  }
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.common.expression.FunctionCall;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.expression.ValueExpressions.BooleanExpression;
+import com.dremio.common.expression.ValueExpressions.DateExpression;
+import com.dremio.common.expression.ValueExpressions.DoubleExpression;
+import com.dremio.common.expression.ValueExpressions.FloatExpression;
+import com.dremio.common.expression.ValueExpressions.IntExpression;
+import com.dremio.common.expression.ValueExpressions.LongExpression;
+import com.dremio.common.expression.ValueExpressions.QuotedString;
+import com.dremio.common.expression.ValueExpressions.TimeStampExpression;
+import com.dremio.exec.store.parquet.ColumnIndexProvider;
+import com.dremio.exec.store.parquet.OffsetIndexProvider;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.parquet.filter2.compat.FilterCompat;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.filter2.predicate.FilterPredicate;
+import org.apache.parquet.filter2.predicate.Operators.Column;
+import org.apache.parquet.filter2.predicate.Operators.SupportsLtGt;
+import org.apache.parquet.hadoop.metadata.BlockMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.internal.column.columnindex.ColumnIndex;
+import org.apache.parquet.internal.column.columnindex.OffsetIndex;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexFilter;
+import org.apache.parquet.internal.filter2.columnindex.ColumnIndexStore;
+import org.apache.parquet.internal.filter2.columnindex.RowRanges;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.DateLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.IntLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.StringLogicalTypeAnnotation;
+import org.apache.parquet.schema.LogicalTypeAnnotation.TimestampLogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+
+/**
+ * Evaluates exact pushdown filters against the page level min/max statistics kept in the column
+ * index of a row group.
+ *
+ * <p>Filter expressions are translated into Parquet {@link FilterPredicate}s. The translation is
+ * allowed to be looser than the original filter (a sub-expression that cannot be translated drops
+ * out of a conjunction) but never stricter, because the filter itself is still evaluated on every
+ * row that is read. The row ranges of the matching pages are intersected across the filter columns
+ * by {@link ColumnIndexFilter}.
+ */
+final class PageIndexFilter {
+  private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+  private static final long MICROS_PER_MILLI = 1000;
+
+  private enum Comparison {
+    EQ,
+    NOT_EQ,
+    LT,
+    LT_EQ,
+    GT,
+    GT_EQ;
+
+    /** The comparison to use when the operands are swapped. */
+    Comparison flip() {
+      switch (this) {
+        case LT:
+          return GT;
+        case LT_EQ:
+          return GT_EQ;
+        case GT:
+          return LT;
+        case GT_EQ:
+          return LT_EQ;
+        default:
+          return this;
+      }
+    }
+
+    static Comparison of(String functionName) {
+      switch (functionName) {
+        case "equal":
+          return EQ;
+        case "not_equal":
+          return NOT_EQ;
+        case "less_than":
+          return LT;
+        case "less_than_or_equal_to":
+          return LT_EQ;
+        case "greater_than":
+          return GT;
+        case "greater_than_or_equal_to":
+          return GT_EQ;
+        default:
+          return null;
+      }
+    }
+  }
+
+  private final Map<String, ColumnChunkMetaData> columns;
+  private final boolean datesCorrupted;
+
+  /**
+   * @param columns the column chunks the filters may reference, keyed by lower cased column name
+   * @param datesCorrupted whether DATE columns of the file may hold corrupted values, in which case
+   *     filters on them are not translated
+   */
+  PageIndexFilter(Map<String, ColumnChunkMetaData> columns, boolean datesCorrupted) {
+    this.columns = columns;
+    this.datesCorrupted = datesCorrupted;
+  }
+
+  /**
+   * Returns the row ranges of the row group that may contain rows matching all of the given filter
+   * expressions, or null if none of the expressions can be evaluated against the page index.
+   */
+  RowRanges calculateRowRanges(
+      List<LogicalExpression> expressions,
+      BlockMetaData block,
+      ColumnIndexProvider columnIndexProvider,
+      OffsetIndexProvider offsetIndexProvider) {
+    FilterPredicate predicate = null;
+    for (LogicalExpression expression : expressions) {
+      predicate = and(predicate, toPredicate(expression));
+    }
+    if (predicate == null) {
+      return null;
+    }
+
+    final Map<ColumnPath, ColumnChunkMetaData> chunks = new HashMap<>();
+    for (ColumnChunkMetaData chunk : block.getColumns()) {
+      chunks.put(chunk.getPath(), chunk);
+    }
+    final ColumnIndexStore indexStore =
+        new ColumnIndexStore() {
+          @Override
+          public ColumnIndex getColumnIndex(ColumnPath column) {
+            final ColumnChunkMetaData chunk = chunks.get(column);
+            return chunk == null ? null : columnIndexProvider.getColumnIndex(chunk);
+          }
+
+          @Override
+          public OffsetIndex getOffsetIndex(ColumnPath column) {
+            final ColumnChunkMetaData chunk = chunks.get(column);
+            final OffsetIndex offsetIndex =
+                chunk == null ? null : offsetIndexProvider.getOffsetIndex(chunk);
+            if (offsetIndex == null) {
+              throw new MissingOffsetIndexException(column);
+            }
+            return offsetIndex;
+          }
+        };
+    return ColumnIndexFilter.calculateRowRanges(
+        FilterCompat.get(predicate), indexStore, chunks.keySet(), block.getRowCount());
+  }
+
+  /** Translates a filter expression, returning null if it cannot be evaluated on page stats. */
+  @VisibleForTesting
+  FilterPredicate toPredicate(LogicalExpression expression) {
+    if (!(expression instanceof FunctionCall)) {
+      return null;
+    }
+    final FunctionCall call = (FunctionCall) expression;
+    final String name = call.getName().toLowerCase();
+    switch (name) {
+      case "booleanand":
+        {
+          FilterPredicate predicate = null;
+          for (LogicalExpression arg : call.args) {
+            predicate = and(predicate, toPredicate(arg));
+          }
+          return predicate;
+        }
+      case "booleanor":
+        {
+          FilterPredicate predicate = null;
+          for (LogicalExpression arg : call.args) {
+            final FilterPredicate argPredicate = toPredicate(arg);
+            if (argPredicate == null) {
+              return null;
+            }
+            predicate = predicate == null ? argPredicate : FilterApi.or(predicate, argPredicate);
+          }
+          return predicate;
+        }
+      case "isnull":
+      case "isnotnull":
+        {
+          final ColumnChunkMetaData chunk =
+              call.args.size() == 1 ? resolveColumn(call.args.get(0)) : null;
+          return chunk == null ? null : nullCheck(chunk, name.equals("isnull"));
+        }
+      default:
+        break;
+    }
+
+    Comparison comparison = Comparison.of(name);
+    if (comparison == null || call.args.size() != 2) {
+      return null;
+    }
+    ColumnChunkMetaData chunk = resolveColumn(call.args.get(0));
+    LogicalExpression literal = call.args.get(1);
+    if (chunk == null) {
+      chunk = resolveColumn(call.args.get(1));
+      literal = call.args.get(0);
+      comparison = comparison.flip();
+    }
+    return chunk == null ? null : compareLiteral(chunk, comparison, literal);
+  }
+
+  private ColumnChunkMetaData resolveColumn(LogicalExpression expression) {
+    if (!(expression instanceof SchemaPath) || !((SchemaPath) expression).isSimplePath()) {
+      return null;
+    }
+    final ColumnChunkMetaData chunk =
+        columns.get(((SchemaPath) expression).getRootSegment().getPath().toLowerCase());
+    // FilterApi resolves columns from their dotted path, which is ambiguous for names with dots
+    if (chunk == null
+        || chunk.getPath().size() != 1
+        || chunk.getPath().toDotString().contains(".")) {
+      return null;
+    }
+    return chunk;
+  }
+
+  private FilterPredicate compareLiteral(
+      ColumnChunkMetaData chunk, Comparison comparison, LogicalExpression literal) {
+    final PrimitiveType type = chunk.getPrimitiveType();
+    final LogicalTypeAnnotation annotation = type.getLogicalTypeAnnotation();
+    final String column = chunk.getPath().toDotString();
+    switch (type.getPrimitiveTypeName()) {
+      case BOOLEAN:
+        if (annotation == null && literal instanceof BooleanExpression) {
+          final boolean value = ((BooleanExpression) literal).getBoolean();
+          switch (comparison) {
+            case EQ:
+              return FilterApi.eq(FilterApi.booleanColumn(column), value);
+            case NOT_EQ:
+              return FilterApi.notEq(FilterApi.booleanColumn(column), value);
+            default:
+              return null;
+          }
+        }
+        return null;
+      case INT32:
+        if (annotation instanceof DateLogicalTypeAnnotation) {
+          if (datesCorrupted || !(literal instanceof DateExpression)) {
+            return null;
+          }
+          return compareDays(column, comparison, ((DateExpression) literal).getDate());
+        }
+        if (isSignedInt(annotation)) {
+          final Long value = integralValue(literal);
+          if (value == null || value != value.intValue()) {
+            return null;
+          }
+          return compare(FilterApi.intColumn(column), comparison, value.intValue());
+        }
+        return null;
+      case INT64:
+        if (annotation instanceof TimestampLogicalTypeAnnotation) {
+          if (!(literal instanceof TimeStampExpression)) {
+            return null;
+          }
+          final long millis = ((TimeStampExpression) literal).getTimeStamp();
+          switch (((TimestampLogicalTypeAnnotation) annotation).getUnit()) {
+            case MILLIS:
+              return compare(FilterApi.longColumn(column), comparison, millis);
+            case MICROS:
+              return compareMicros(column, comparison, millis);
+            default:
+              return null;
+          }
+        }
+        if (isSignedInt(annotation)) {
+          final Long value = integralValue(literal);
+          return value == null ? null : compare(FilterApi.longColumn(column), comparison, value);
+        }
+        return null;
+      case FLOAT:
+        if (annotation == null && literal instanceof FloatExpression) {
+          return compare(
+              FilterApi.floatColumn(column), comparison, ((FloatExpression) literal).getFloat());
+        }
+        return null;
+      case DOUBLE:
+        if (annotation != null) {
+          return null;
+        }
+        if (literal instanceof DoubleExpression) {
+          return compare(
+              FilterApi.doubleColumn(column), comparison, ((DoubleExpression) literal).getDouble());
+        } else if (literal instanceof FloatExpression) {
+          return compare(
+              FilterApi.doubleColumn(column),
+              comparison,
+              (double) ((FloatExpression) literal).getFloat());
+        }
+        return null;
+      case BINARY:
+        if (annotation instanceof StringLogicalTypeAnnotation && literal instanceof QuotedString) {
+          return compare(
+              FilterApi.binaryColumn(column),
+              comparison,
+              Binary.fromString(((QuotedString) literal).getString()));
+        }
+        return null;
+      default:
+        return null;
+    }
+  }
+
+  /** DATE columns hold days, the literal is in milliseconds. */
+  private static FilterPredicate compareDays(String column, Comparison comparison, long millis) {
+    final long days;
+    final Comparison dayComparison;
+    switch (comparison) {
+      case LT:
+      case GT_EQ:
+        // d * MILLIS_PER_DAY < millis  <=>  d <= floor((millis - 1) / MILLIS_PER_DAY)
+        days = Math.floorDiv(millis - 1, MILLIS_PER_DAY);
+        dayComparison = comparison == Comparison.LT ? Comparison.LT_EQ : Comparison.GT;
+        break;
+      case EQ:
+      case NOT_EQ:
+        if (Math.floorMod(millis, MILLIS_PER_DAY) != 0) {
+          // no day matches exactly
+          return null;
+        }
+        days = millis / MILLIS_PER_DAY;
+        dayComparison = comparison;
+        break;
+      default:
+        days = Math.floorDiv(millis, MILLIS_PER_DAY);
+        dayComparison = comparison;
+        break;
+    }
+    if (days != (int) days) {
+      return null;
+    }
+    return compare(FilterApi.intColumn(column), dayComparison, (int) days);
+  }
+
+  /**
+   * Microsecond timestamps are truncated to milliseconds when read, so the bounds are widened by a
+   * millisecond on either side to keep the predicate a superset of the filter.
+   */
+  private static FilterPredicate compareMicros(String column, Comparison comparison, long millis) {
+    if (Math.abs(millis) >= Long.MAX_VALUE / MICROS_PER_MILLI - 1) {
+      return null;
+    }
+    final long upper = (millis + 1) * MICROS_PER_MILLI;
+    final long lower = (millis - 1) * MICROS_PER_MILLI;
+    switch (comparison) {
+      case LT:
+      case LT_EQ:
+        return FilterApi.lt(FilterApi.longColumn(column), upper);
+      case GT:
+      case GT_EQ:
+        return FilterApi.gt(FilterApi.longColumn(column), lower);
+      case EQ:
+        return FilterApi.and(
+            FilterApi.gt(FilterApi.longColumn(column), lower),
+            FilterApi.lt(FilterApi.longColumn(column), upper));
+      default:
+        return null;
+    }
+  }
+
+  private static <T extends Comparable<T>, C extends Column<T> & SupportsLtGt>
+      FilterPredicate compare(C column, Comparison comparison, T value) {
+    switch (comparison) {
+      case EQ:
+        return FilterApi.eq(column, value);
+      case NOT_EQ:
+        return FilterApi.notEq(column, value);
+      case LT:
+        return FilterApi.lt(column, value);
+      case LT_EQ:
+        return FilterApi.ltEq(column, value);
+      case GT:
+        return FilterApi.gt(column, value);
+      case GT_EQ:
+        return FilterApi.gtEq(column, value);
+      default:
+        throw new IllegalStateException("Unexpected comparison " + comparison);
+    }
+  }
+
+  private static FilterPredicate nullCheck(ColumnChunkMetaData chunk, boolean isNull) {
+    final String column = chunk.getPath().toDotString();
+    switch (chunk.getPrimitiveType().getPrimitiveTypeName()) {
+      case BOOLEAN:
+        return isNull
+            ? FilterApi.eq(FilterApi.booleanColumn(column), null)
+            : FilterApi.notEq(FilterApi.booleanColumn(column), null);
+      case INT32:
+        return isNull
+            ? FilterApi.eq(FilterApi.intColumn(column), null)
+            : FilterApi.notEq(FilterApi.intColumn(column), null);
+      case INT64:
+        return isNull
+            ? FilterApi.eq(FilterApi.longColumn(column), null)
+            : FilterApi.notEq(FilterApi.longColumn(column), null);
+      case FLOAT:
+        return isNull
+            ? FilterApi.eq(FilterApi.floatColumn(column), null)
+            : FilterApi.notEq(FilterApi.floatColumn(column), null);
+      case DOUBLE:
+        return isNull
+            ? FilterApi.eq(FilterApi.doubleColumn(column), null)
+            : FilterApi.notEq(FilterApi.doubleColumn(column), null);
+      case BINARY:
+        return isNull
+            ? FilterApi.eq(FilterApi.binaryColumn(column), null)
+            : FilterApi.notEq(FilterApi.binaryColumn(column), null);
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isSignedInt(LogicalTypeAnnotation annotation) {
+    return annotation == null
+        || (annotation instanceof IntLogicalTypeAnnotation
+            && ((IntLogicalTypeAnnotation) annotation).isSigned());
+  }
+
+  private static Long integralValue(LogicalExpression literal) {
+    if (literal instanceof IntExpression) {
+      return (long) ((IntExpression) literal).getInt();
+    } else if (literal instanceof LongExpression) {
+      return ((LongExpression) literal).getLong();
+    }
+    return null;
+  }
+
+  private static FilterPredicate and(FilterPredicate left, FilterPredicate right) {
+    if (left == null) {
+      return right;
+    } else if (right == null) {
+      return left;
+    }
+    return FilterApi.and(left, right);
+  }
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import org.apache.parquet.column.values.bitpacking.BytePacker;
+import org.apache.parquet.column.values.bitpacking.Packer;
+import org.apache.parquet.io.ParquetDecodingException;
+
+/**
+ * Bulk decoder for the Parquet RLE/bit-packed hybrid encoding, used for definition levels,
+ * dictionary ids and RLE encoded booleans.
+ *
+ * <p>Unlike {@link org.apache.parquet.column.values.rle.RunLengthBitPackingHybridDecoder}, values
+ * are handed out a run at a time: RLE runs are expanded with {@link Arrays#fill} and bit-packed
+ * runs are unpacked eight values at a time into a reusable buffer.
+ */
+final class RleBitPackedDecoder {
+
+  private final ByteBuffer in;
+  private final int end;
+  private final int bitWidth;
+  private final int bytesWidth;
+  private final BytePacker packer;
+
+  private int pos;
+  private boolean rleRun;
+  private int rleValue;
+  private int runRemaining;
+  private int[] packed = new int[64];
+  private int packedIndex;
+
+  RleBitPackedDecoder(ByteBuffer in, int start, int end, int bitWidth) {
+    Preconditions.checkArgument(
+        bitWidth >= 0 && bitWidth <= 32, "Invalid bit width %s", bitWidth);
+    this.in = in;
+    this.pos = start;
+    this.end = end;
+    this.bitWidth = bitWidth;
+    this.bytesWidth = (bitWidth + 7) / 8;
+    this.packer = Packer.LITTLE_ENDIAN.newBytePacker(bitWidth);
+  }
+
+  /**
+   * Creates a decoder over the deprecated BIT_PACKED encoding, which has no run headers and packs
+   * values most significant bit first. The whole page is unpacked eagerly.
+   */
+  static RleBitPackedDecoder forDeprecatedBitPacked(
+      ByteBuffer in, int start, int valueCount, int bitWidth) {
+    final RleBitPackedDecoder decoder = new RleBitPackedDecoder(in, start, start, bitWidth);
+    final BytePacker bigEndianPacker = Packer.BIG_ENDIAN.newBytePacker(bitWidth);
+    final int groups = (valueCount + 7) / 8;
+    final int length = (valueCount * bitWidth + 7) / 8;
+    // pad the input so that the last (partial) group can be unpacked like the others
+    final byte[] padded = new byte[groups * bitWidth];
+    for (int i = 0; i < length; i++) {
+      padded[i] = in.get(start + i);
+    }
+    decoder.packed = new int[groups * 8];
+    for (int g = 0; g < groups; g++) {
+      bigEndianPacker.unpack8Values(padded, g * bitWidth, decoder.packed, g * 8);
+    }
+    decoder.rleRun = false;
+    decoder.packedIndex = 0;
+    decoder.runRemaining = valueCount;
+    return decoder;
+  }
+
+  /** Reads the next {@code count} values into {@code dest} starting at {@code offset}. */
+  void readInts(int[] dest, int offset, int count) {
+    while (count > 0) {
+      if (runRemaining == 0) {
+        readNextRun();
+      }
+      final int n = Math.min(count, runRemaining);
+      if (rleRun) {
+        Arrays.fill(dest, offset, offset + n, rleValue);
+      } else {
+        System.arraycopy(packed, packedIndex, dest, offset, n);
+        packedIndex += n;
+      }
+      offset += n;
+      count -= n;
+      runRemaining -= n;
+    }
+  }
+
+  /**
+   * Counts how many of the next {@code count} values are equal to {@code value}, consuming them.
+   * Used to skip over definition levels without materializing them.
+   */
+  int countAndSkip(int count, int value) {
+    int matches = 0;
+    while (count > 0) {
+      if (runRemaining == 0) {
+        readNextRun();
+      }
+      final int n = Math.min(count, runRemaining);
+      if (rleRun) {
+        if (rleValue == value) {
+          matches += n;
+        }
+      } else {
+        for (int i = packedIndex, last = packedIndex + n; i < last; i++) {
+          if (packed[i] == value) {
+            matches++;
+          }
+        }
+        packedIndex += n;
+      }
+      count -= n;
+      runRemaining -= n;
+    }
+    return matches;
+  }
+
+  /** Skips the next {@code count} values. */
+  void skip(int count) {
+    while (count > 0) {
+      if (runRemaining == 0) {
+        readNextRun();
+      }
+      final int n = Math.min(count, runRemaining);
+      if (!rleRun) {
+        packedIndex += n;
+      }
+      count -= n;
+      runRemaining -= n;
+    }
+  }
+
+  private void readNextRun() {
+    if (pos >= end) {
+      throw new ParquetDecodingException("Unexpected end of RLE/bit-packed encoded data");
+    }
+    final int header = readUnsignedVarInt();
+    if ((header & 1) == 0) {
+      rleRun = true;
+      runRemaining = header >>> 1;
+      int value = 0;
+      for (int i = 0; i < bytesWidth; i++) {
+        value |= (in.get(pos++) & 0xFF) << (i * 8);
+      }
+      rleValue = value;
+    } else {
+      rleRun = false;
+      final int groups = header >>> 1;
+      final int values = groups * 8;
+      if (packed.length < values) {
+        packed = new int[values];
+      }
+      // the last run of a page may be truncated; only unpack the groups that are present
+      final int availableGroups = Math.min(groups, bitWidth == 0 ? groups : (end - pos) / bitWidth);
+      for (int g = 0; g < availableGroups; g++) {
+        packer.unpack8Values(in, pos + g * bitWidth, packed, g * 8);
+      }
+      if (availableGroups < groups) {
+        unpackTruncatedGroup(availableGroups);
+      }
+      pos += Math.min(groups * bitWidth, end - pos);
+      packedIndex = 0;
+      runRemaining = values;
+    }
+  }
+
+  private void unpackTruncatedGroup(int group) {
+    final byte[] padded = new byte[bitWidth];
+    final int start = pos + group * bitWidth;
+    for (int i = 0; start + i < end && i < bitWidth; i++) {
+      padded[i] = in.get(start + i);
+    }
+    packer.unpack8Values(padded, 0, packed, group * 8);
+  }
+
+  private int readUnsignedVarInt() {
+    int value = 0;
+    int shift = 0;
+    int b;
+    do {
+      b = in.get(pos++) & 0xFF;
+      value |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    return value;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import com.dremio.common.exceptions.FieldSizeLimitExceptionHelper;
+import java.nio.ByteBuffer;
+import org.apache.arrow.vector.BaseVariableWidthVector;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.column.page.PageReader;
+import org.apache.parquet.io.ParquetDecodingException;
+
+/**
+ * Decoder for BINARY columns read into VARCHAR or VARBINARY vectors. PLAIN values are copied
+ * straight from the page buffer; dictionary entries are indexed once when the dictionary is loaded
+ * and then copied by reference.
+ */
+final class VariableWidthColumnDecoder extends ColumnDecoder {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(VariableWidthColumnDecoder.class);
+
+  private final BaseVariableWidthVector variableWidthVector;
+  private final int maxValueSize;
+
+  private ByteBuffer values;
+  private ByteBuffer dictionary;
+  private int[] dictionaryOffsets;
+  private int[] dictionaryLengths;
+
+  VariableWidthColumnDecoder(
+      ColumnDescriptor descriptor,
+      BaseVariableWidthVector vector,
+      PageReader pageReader,
+      int batchSize,
+      int maxValueSize) {
+    super(descriptor, vector, pageReader, batchSize);
+    this.variableWidthVector = vector;
+    this.maxValueSize = maxValueSize;
+  }
+
+  @Override
+  protected void initPlain(Encoding encoding, ByteBuffer values) {
+    if (encoding != Encoding.PLAIN) {
+      throw new ParquetDecodingException(
+          "Unsupported encoding " + encoding + " for column " + descriptor);
+    }
+    this.values = values;
+  }
+
+  @Override
+  protected void loadDictionary(ByteBuffer buffer, int size) {
+    dictionary = buffer;
+    dictionaryOffsets = new int[size];
+    dictionaryLengths = new int[size];
+    int offset = buffer.position();
+    for (int i = 0; i < size; i++) {
+      final int length = buffer.getInt(offset);
+      FieldSizeLimitExceptionHelper.checkSizeLimit(
+          length, maxValueSize, descriptor.getPath()[0], logger);
+      dictionaryOffsets[i] = offset + 4;
+      dictionaryLengths[i] = length;
+      offset += 4 + length;
+    }
+  }
+
+  @Override
+  protected void readPlain(int outIndex, int count) {
+    int offset = values.position();
+    for (int i = 0; i < count; i++) {
+      final int length = values.getInt(offset);
+      FieldSizeLimitExceptionHelper.checkSizeLimit(
+          length, maxValueSize, descriptor.getPath()[0], logger);
+      variableWidthVector.setSafe(outIndex + i, values, offset + 4, length);
+      offset += 4 + length;
+    }
+    values.position(offset);
+  }
+
+  @Override
+  protected void skipPlain(int count) {
+    int offset = values.position();
+    for (int i = 0; i < count; i++) {
+      offset += 4 + values.getInt(offset);
+    }
+    values.position(offset);
+  }
+
+  @Override
+  protected void gather(int outIndex, int[] ids, int count) {
+    for (int i = 0; i < count; i++) {
+      final int id = ids[i];
+      variableWidthVector.setSafe(
+          outIndex + i, dictionary, dictionaryOffsets[id], dictionaryLengths[id]);
+    }
+  }
+
+  @Override
+  protected void writeNulls(int outIndex, int count) {
+    for (int i = outIndex, last = outIndex + count; i < last; i++) {
+      variableWidthVector.setNull(i);
+    }
+  }
+}
@@ -41,6 +41,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -408,13 +409,18 @@ public class ParquetRowiseReader extends AbstractParquetReader {
         for (ColumnChunkMetaData md : footer.getBlocks().get(rowGroupIndex).getColumns()) {
           paths.put(md.getPath(), md);
         }
+        Map<ColumnDescriptor, ColumnChunkMetaData> projectedChunks = new LinkedHashMap<>();
         for (String[] path : projection.getPaths()) {
           Type type = schema.getType(path);
           if (type.isPrimitive()) {
             ColumnChunkMetaData md = paths.get(ColumnPath.get(path));
-            pageReadStore.addColumn(schema.getColumnDescription(path), md);
+            projectedChunks.put(schema.getColumnDescription(path), md);
           }
         }
+        inputStreamProvider.planColumnReads(new ArrayList<>(projectedChunks.values()));
+        for (Map.Entry<ColumnDescriptor, ColumnChunkMetaData> entry : projectedChunks.entrySet()) {
+          pageReadStore.addColumn(entry.getKey(), entry.getValue());
+        }
 
         ColumnIOFactory factory = new ColumnIOFactory(false);
         MessageColumnIO columnIO = factory.getColumnIO(projection, schema);
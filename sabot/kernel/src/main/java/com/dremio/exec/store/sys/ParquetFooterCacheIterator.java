@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.sys;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.server.SabotContext;
+import com.dremio.exec.store.parquet.ParquetFooterCache;
+import com.dremio.exec.store.parquet.ParquetReaderStats;
+import java.util.Iterator;
+
+/** Iterator over the parquet footer cache counters of this node, as a single record. */
+public class ParquetFooterCacheIterator implements Iterator<Object> {
+
+  private boolean beforeFirst = true;
+  private final SabotContext dbContext;
+
+  public ParquetFooterCacheIterator(final SabotContext dbContext) {
+    this.dbContext = dbContext;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return beforeFirst;
+  }
+
+  @Override
+  public Object next() {
+    if (!beforeFirst) {
+      throw new IllegalStateException();
+    }
+    beforeFirst = false;
+    final ParquetFooterCacheInfo info = new ParquetFooterCacheInfo();
+
+    final NodeEndpoint endpoint = dbContext.getEndpoint();
+    info.node_id = endpoint.getAddress() + ":" + endpoint.getFabricPort();
+    info.hostname = endpoint.getAddress();
+    info.fabric_port = endpoint.getFabricPort();
+
+    final ParquetReaderStats stats = ParquetFooterCache.getStats();
+    info.entries = stats.footerCacheEntries;
+    info.size_bytes = stats.footerCacheWeight;
+    info.max_size_bytes = stats.footerCacheMaxWeight;
+    info.hits = stats.footerCacheHits;
+    info.misses = stats.footerCacheMisses;
+    info.evictions = stats.footerCacheEvictions;
+    return info;
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  public static class ParquetFooterCacheInfo {
+    public String node_id;
+    public String hostname;
+    public long fabric_port;
+    public long entries;
+    public long size_bytes;
+    public long max_size_bytes;
+    public long hits;
+    public long misses;
+    public long evictions;
+  }
+}
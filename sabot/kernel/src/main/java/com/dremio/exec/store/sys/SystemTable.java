@@ -190,6 +190,14 @@ public enum SystemTable implements DatasetHandle, DatasetMetadata, PartitionChun
     }
   },
 
+  PARQUET_FOOTER_CACHE(
+      true, ParquetFooterCacheIterator.ParquetFooterCacheInfo.class, "cache", "parquet_footers") {
+    @Override
+    public Iterator<?> getIterator(final SabotContext sContext, final OperatorContext context) {
+      return new ParquetFooterCacheIterator(sContext);
+    }
+  },
+
   TIMEZONE_ABBREVIATIONS(false, TimezoneAbbreviations.TimezoneAbbr.class, "timezone_abbrevs") {
     @Override
     public Iterator<?> getIterator(
@@ -256,6 +256,7 @@ public class AttemptManager implements Runnable, MaestroObserver.ExecutionStageC
     if (options != null) {
       options.applyOptions(optionManager);
     }
+    queryContext.setResultStreamRequest(queryRequest.getResultStreamRequest());
     profileTracker =
         new AttemptProfileTracker(
             queryId,
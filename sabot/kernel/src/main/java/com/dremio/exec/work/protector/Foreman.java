@@ -39,6 +39,7 @@ import com.dremio.exec.planner.observer.QueryObserver;
 import com.dremio.exec.planner.physical.HashAggPrel;
 import com.dremio.exec.planner.physical.PlannerSettings;
 import com.dremio.exec.planner.plancache.LegacyPlanCache;
+import com.dremio.exec.planner.plancache.QueryResultCache;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
 import com.dremio.exec.planner.sql.handlers.query.SupportsSystemIcebergTables;
 import com.dremio.exec.proto.GeneralRPCProtos;
@@ -644,6 +645,12 @@ public class Foreman {
       final QueryState queryState = result.getState();
       final boolean queryFailed = queryState == QueryState.FAILED;
 
+      final QueryResultCache queryResultCache = planCache.getQueryResultCache();
+      if (queryResultCache != null) {
+        queryResultCache.attemptCompleted(
+            attemptId.toQueryId(), queryState == QueryState.COMPLETED);
+      }
+
       // if the query failed we may be able to recover from it
       if (queryFailed) {
         // if it wasn't canceled
@@ -34,6 +34,7 @@ import com.dremio.common.utils.protos.QueryIdHelper;
 import com.dremio.config.DremioConfig;
 import com.dremio.context.RequestContext;
 import com.dremio.datastore.WarningTimer;
+import com.dremio.datastore.api.LegacyKVStoreProvider;
 import com.dremio.datastore.format.Format;
 import com.dremio.exec.ExecConstants;
 import com.dremio.exec.maestro.MaestroForwarder;
@@ -41,7 +42,13 @@ import com.dremio.exec.maestro.MaestroService;
 import com.dremio.exec.planner.observer.OutOfBandQueryObserver;
 import com.dremio.exec.planner.observer.QueryObserver;
 import com.dremio.exec.planner.plancache.CachedPlan;
+import com.dremio.exec.planner.plancache.CachedResult;
+import com.dremio.exec.planner.plancache.CatalogEventsPlanCacheSubscription;
+import com.dremio.exec.planner.plancache.DatasetCacheIndex;
 import com.dremio.exec.planner.plancache.LegacyPlanCache;
+import com.dremio.exec.planner.plancache.PersistentPlanCache;
+import com.dremio.exec.planner.plancache.PlanCacheCatalogEventConsumer;
+import com.dremio.exec.planner.plancache.QueryResultCache;
 import com.dremio.exec.planner.sql.handlers.commands.PreparedPlan;
 import com.dremio.exec.proto.GeneralRPCProtos.Ack;
 import com.dremio.exec.proto.UserBitShared;
@@ -78,9 +85,13 @@ import com.dremio.service.Service;
 import com.dremio.service.commandpool.CommandPool;
 import com.dremio.service.jobresults.JobResultsRequest;
 import com.dremio.service.jobtelemetry.JobTelemetryClient;
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage;
 import com.dremio.services.fabric.api.FabricRunnerFactory;
 import com.dremio.services.fabric.api.FabricService;
 import com.dremio.services.jobresults.common.JobResultsRequestWrapper;
+import com.dremio.services.pubsub.ImmutableMessageSubscriberOptions;
+import com.dremio.services.pubsub.MessageSubscriber;
+import com.dremio.services.pubsub.PubSubClient;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Throwables;
@@ -89,10 +100,8 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.RemovalListener;
 import com.google.common.cache.RemovalNotification;
 import com.google.common.cache.Weigher;
-import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimaps;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.protobuf.Empty;
@@ -161,8 +170,11 @@ public class ForemenWorkManager implements Service, SafeExit {
   private CloseableSchedulerThreadPool profileSender;
   private Cache<String, CachedPlan> cachedPlans;
   private LegacyPlanCache legacyPlanCache;
+  private QueryResultCache queryResultCache;
+  private MessageSubscriber<CatalogEventMessage> planCacheEventSubscriber;
   private final Provider<RequestContext> requestContextProvider;
   private final Provider<PartitionStatsCacheStoreProvider> transientStoreProvider;
+  private final Provider<PubSubClient> pubSubClientProvider;
   private PartitionStatsCache partitionStatsCache;
   private final CloseableExecutorService jobSubmissionExecutorService;
 
@@ -175,7 +187,8 @@ public class ForemenWorkManager implements Service, SafeExit {
       final Provider<MaestroForwarder> forwarder,
       final Provider<RuleBasedEngineSelector> ruleBasedEngineSelector,
       final Provider<RequestContext> requestContextProvider,
-      final Provider<PartitionStatsCacheStoreProvider> transientStoreProvider) {
+      final Provider<PartitionStatsCacheStoreProvider> transientStoreProvider,
+      final Provider<PubSubClient> pubSubClientProvider) {
     this.dbContext = dbContext;
     this.fabric = fabric;
     this.commandPool = commandPool;
@@ -189,6 +202,7 @@ public class ForemenWorkManager implements Service, SafeExit {
     this.queryCancelTool = new QueryCancelToolImpl();
     this.requestContextProvider = requestContextProvider;
     this.transientStoreProvider = transientStoreProvider;
+    this.pubSubClientProvider = pubSubClientProvider;
     this.jobSubmissionExecutorService =
         new ContextMigratingCloseableExecutorService<>(
             CloseableThreadPool.newFixedThreadPool("job-submission-", VM.availableProcessors()));
@@ -278,9 +292,48 @@ public class ForemenWorkManager implements Service, SafeExit {
                 TimeUnit.MINUTES)
             .build();
 
-    legacyPlanCache =
-        new LegacyPlanCache(
-            cachedPlans, Multimaps.synchronizedListMultimap(ArrayListMultimap.create()));
+    // cache for the stored results of queries, only the job ids are held in memory.
+    final Cache<String, CachedResult> cachedResults =
+        CacheBuilder.newBuilder()
+            .maximumSize(
+                dbContext.get().getDremioConfig().getLong(DremioConfig.PLAN_CACHE_MAX_ENTRIES))
+            .removalListener(
+                new RemovalListener<String, CachedResult>() {
+                  @Override
+                  public void onRemoval(RemovalNotification<String, CachedResult> notification) {
+                    queryResultCache.clearDatasetMapOnCacheGC(notification.getKey());
+                  }
+                })
+            .build();
+    queryResultCache = new QueryResultCache(cachedResults, new DatasetCacheIndex());
+
+    final DremioConfig dremioConfig = dbContext.get().getDremioConfig();
+    if (dremioConfig.getBoolean(DremioConfig.PLAN_CACHE_SHARED_BOOL)) {
+      // plans are also shared with the other coordinators through the kv store
+      final LegacyKVStoreProvider kvStoreProvider = dbContext.get().getKVStoreProvider();
+      legacyPlanCache =
+          new PersistentPlanCache(
+              cachedPlans,
+              new DatasetCacheIndex(),
+              queryResultCache,
+              () -> kvStoreProvider.getStore(PersistentPlanCache.PlanStoreCreator.class),
+              () -> kvStoreProvider.getStore(PersistentPlanCache.InvalidationStoreCreator.class),
+              TimeUnit.MINUTES.toMillis(
+                  dremioConfig.getLong(DremioConfig.PLAN_CACHE_TIMEOUT_MINUTES)));
+    } else {
+      legacyPlanCache =
+          new LegacyPlanCache(cachedPlans, new DatasetCacheIndex(), queryResultCache);
+    }
+
+    // datasets updated or deleted through any coordinator invalidate the plans cached here
+    planCacheEventSubscriber =
+        pubSubClientProvider
+            .get()
+            .getSubscriber(
+                CatalogEventsPlanCacheSubscription.class,
+                new PlanCacheCatalogEventConsumer(legacyPlanCache),
+                new ImmutableMessageSubscriberOptions.Builder().build());
+    planCacheEventSubscriber.start();
 
     partitionStatsCache =
         new PartitionStatsCache(
@@ -297,7 +350,12 @@ public class ForemenWorkManager implements Service, SafeExit {
 
   @Override
   public void close() throws Exception {
-    AutoCloseables.close(profileSender, pool, jobResultsAllocator, jobSubmissionExecutorService);
+    AutoCloseables.close(
+        planCacheEventSubscriber,
+        profileSender,
+        pool,
+        jobResultsAllocator,
+        jobSubmissionExecutorService);
   }
 
   @VisibleForTesting
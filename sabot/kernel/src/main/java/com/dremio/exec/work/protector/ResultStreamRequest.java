@@ -0,0 +1,35 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.work.protector;
+
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import java.util.List;
+
+/**
+ * Asks for the results of a query to be read directly from the executors running its last parallel
+ * phase, one stream per minor fragment of the phase, instead of being sent to the coordinator.
+ */
+public interface ResultStreamRequest {
+
+  /** The id of the streams of the query, which their readers present to the executors. */
+  String getStreamId();
+
+  /**
+   * Called once the query is planned with the executors running the fragments of its last parallel
+   * phase, indexed by minor fragment id. There is one stream per fragment.
+   */
+  void streamsPlanned(List<NodeEndpoint> endpoints);
+}
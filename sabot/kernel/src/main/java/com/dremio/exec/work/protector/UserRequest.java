@@ -60,6 +60,8 @@ public class UserRequest {
 
   private final long jobSubmissionTime;
 
+  private final ResultStreamRequest resultStreamRequest;
+
   public UserRequest(RpcType type, Object request) {
     this(type, request, false, System.currentTimeMillis());
   }
@@ -70,16 +72,39 @@ public class UserRequest {
 
   public UserRequest(
       RpcType type, Object request, boolean runInSameThread, long jobSubmissionTime) {
+    this(type, request, runInSameThread, jobSubmissionTime, null);
+  }
+
+  /**
+   * Creates a request whose results are read directly from the executors, see {@link
+   * ResultStreamRequest}.
+   */
+  public UserRequest(RpcType type, Object request, ResultStreamRequest resultStreamRequest) {
+    this(type, request, false, System.currentTimeMillis(), resultStreamRequest);
+  }
+
+  private UserRequest(
+      RpcType type,
+      Object request,
+      boolean runInSameThread,
+      long jobSubmissionTime,
+      ResultStreamRequest resultStreamRequest) {
     this.type = Preconditions.checkNotNull(type);
     this.request = Preconditions.checkNotNull(request);
     this.runInSameThread = runInSameThread;
     this.jobSubmissionTime = jobSubmissionTime;
+    this.resultStreamRequest = resultStreamRequest;
   }
 
   public RpcType getType() {
     return type;
   }
 
+  /** The request to read the results directly from the executors, or null. */
+  public ResultStreamRequest getResultStreamRequest() {
+    return resultStreamRequest;
+  }
+
   public boolean runInSameThread() {
     return runInSameThread;
   }
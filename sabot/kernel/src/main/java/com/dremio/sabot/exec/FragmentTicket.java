@@ -16,6 +16,7 @@
 package com.dremio.sabot.exec;
 
 import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.sabot.op.join.vhash.SharedBuildSideRegistry;
 import com.dremio.sabot.task.AsyncTaskWrapper;
 import com.dremio.sabot.task.SchedulingGroup;
 import com.google.common.base.Preconditions;
@@ -52,6 +53,20 @@ public class FragmentTicket implements AutoCloseable {
     return schedulingGroup;
   }
 
+  public SharedBuildSideRegistry getSharedBuildSides() {
+    return phaseTicket.getSharedBuildSides();
+  }
+
+  /**
+   * This fragment's share of the memory held by the build sides shared within its phase. Shared
+   * build sides are allocated outside of any fragment allocator, so their memory is split evenly
+   * between the fragments probing them.
+   */
+  public long getSharedBuildMemory() {
+    final long allocated = phaseTicket.getSharedBuildSides().getAllocatedMemory();
+    return allocated / Math.max(1, phaseTicket.getFragmentCount());
+  }
+
   @Override
   public void close() throws Exception {
     Preconditions.checkState(!closed, "Trying to close FragmentTicket more than once");
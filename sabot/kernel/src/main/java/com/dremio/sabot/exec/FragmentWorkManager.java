@@ -53,6 +53,7 @@ import com.dremio.sabot.exec.rpc.ExecProtocol;
 import com.dremio.sabot.exec.rpc.ExecTunnel;
 import com.dremio.sabot.exec.rpc.FabricExecTunnel;
 import com.dremio.sabot.exec.rpc.InProcessExecTunnel;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
 import com.dremio.sabot.task.TaskPool;
 import com.dremio.service.Service;
 import com.dremio.service.coordinator.ClusterCoordinator;
@@ -91,6 +92,7 @@ public class FragmentWorkManager implements Service, SafeExit {
   private final Provider<ContextInformationFactory> contextInformationFactory;
   private final Provider<WorkloadTicketDepot> workloadTicketDepotProvider;
   private final WorkStats workStats;
+  private final ResultStreamRegistry resultStreamRegistry = new ResultStreamRegistry();
 
   private FragmentStatusThread statusThread;
   private ThreadsStatsCollector statsCollectorThread;
@@ -304,6 +306,10 @@ public class FragmentWorkManager implements Service, SafeExit {
     return executorService;
   }
 
+  public ResultStreamRegistry getResultStreamRegistry() {
+    return resultStreamRegistry;
+  }
+
   @Override
   public void start() {
     bitContext = dbContext.get();
@@ -473,7 +479,8 @@ public class FragmentWorkManager implements Service, SafeExit {
         jobResultsClientFactoryProvider,
         identity,
         expressionSplitCache,
-        heapLowMemController);
+        heapLowMemController,
+        resultStreamRegistry);
   }
 
   public class ExecConnectionCreator {
@@ -15,7 +15,9 @@
  */
 package com.dremio.sabot.exec;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.exec.proto.CoordExecRPC.NodePhaseStatus;
+import com.dremio.sabot.op.join.vhash.SharedBuildSideRegistry;
 import com.google.common.collect.ImmutableList;
 import java.util.Collection;
 import java.util.Set;
@@ -41,6 +43,7 @@ public class PhaseTicket extends TicketWithChildren {
   private final int majorFragmentId;
   private final int phaseWeight;
   private final Set<FragmentTicket> fragmentTickets = ConcurrentHashMap.newKeySet();
+  private final SharedBuildSideRegistry sharedBuildSides;
 
   public PhaseTicket(
       QueryTicket queryTicket, int majorFragmentId, BufferAllocator allocator, int phaseWeight) {
@@ -48,6 +51,7 @@ public class PhaseTicket extends TicketWithChildren {
     this.queryTicket = queryTicket;
     this.majorFragmentId = majorFragmentId;
     this.phaseWeight = phaseWeight;
+    this.sharedBuildSides = new SharedBuildSideRegistry(allocator);
   }
 
   public int getMajorFragmentId() {
@@ -68,6 +72,16 @@ public class PhaseTicket extends TicketWithChildren {
     return super.release();
   }
 
+  /** Hash join build sides shared by the fragments of this phase on this node. */
+  public SharedBuildSideRegistry getSharedBuildSides() {
+    return sharedBuildSides;
+  }
+
+  /** Number of fragments of this phase still running on this node. */
+  public int getFragmentCount() {
+    return fragmentTickets.size();
+  }
+
   public Collection<FragmentTicket> getFragmentTickets() {
     return ImmutableList.copyOf(fragmentTickets);
   }
@@ -84,4 +98,9 @@ public class PhaseTicket extends TicketWithChildren {
   public int getPhaseWeight() {
     return phaseWeight;
   }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(sharedBuildSides, super::close);
+  }
 }
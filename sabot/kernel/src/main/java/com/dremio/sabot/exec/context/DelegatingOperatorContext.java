@@ -35,6 +35,7 @@ import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.join.vhash.SharedBuildSide;
 import com.dremio.service.spill.SpillService;
 import com.google.common.base.Preconditions;
 import java.util.List;
@@ -222,4 +223,9 @@ public class DelegatingOperatorContext extends OperatorContext {
   public Provider<CoordinationProtos.NodeEndpoint> getNodeEndpointProvider() {
     return delegate.getNodeEndpointProvider();
   }
+
+  @Override
+  public SharedBuildSide acquireSharedBuildSide(int operatorId) {
+    return delegate.acquireSharedBuildSide(operatorId);
+  }
 }
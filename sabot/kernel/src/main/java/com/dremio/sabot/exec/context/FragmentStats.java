@@ -63,6 +63,7 @@ public class FragmentStats {
   private long blockedOnUpstreamDuration;
   private long blockedOnDownstreamDuration;
   private long blockedOnMemoryDuration;
+  private long numShrinkMemoryRequests;
   private long blockedOnSharedResourceDuration;
 
   private long numRuns;
@@ -150,6 +151,7 @@ public class FragmentStats {
     prfB.setNumShortSlices(numShortSlices);
     prfB.setRecentSliceStartTime(recentSliceStartTime);
     prfB.setCancelStartTime(cancelStartTime);
+    prfB.setNumShrinkMemoryRequests(numShrinkMemoryRequests);
   }
 
   public long getNumSlices() {
@@ -292,6 +294,11 @@ public class FragmentStats {
     this.blockedOnMemoryDuration = blockedDuration;
   }
 
+  /** An operator of the fragment was asked to spill by the memory arbiter. */
+  public void addShrinkMemoryRequest() {
+    numShrinkMemoryRequests++;
+  }
+
   public void addBlockedOnSharedResourceDuration(
       SharedResourceType resource, long blockedDuration) {
     this.blockedOnSharedResourceDuration += blockedDuration;
@@ -37,6 +37,7 @@ import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.join.vhash.SharedBuildSide;
 import com.dremio.service.spill.SpillService;
 import java.util.Iterator;
 import java.util.List;
@@ -149,6 +150,14 @@ public abstract class OperatorContext {
 
   public abstract Provider<CoordinationProtos.NodeEndpoint> getNodeEndpointProvider();
 
+  /**
+   * Acquires a lease on the hash join build side that the given operator shares with the other
+   * fragments of this phase on this node. The caller must close the lease.
+   *
+   * @return the lease, or null if this context can't share build sides
+   */
+  public abstract SharedBuildSide acquireSharedBuildSide(int operatorId);
+
   public interface Creator {
     public OperatorContext newOperatorContext(PhysicalOperator popConfig) throws Exception;
   }
@@ -43,6 +43,9 @@ import com.dremio.sabot.exec.fragment.FragmentExecutorBuilder;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.filter.VectorContainerWithSV;
+import com.dremio.sabot.op.join.vhash.SharedBuildSide;
+import com.dremio.sabot.op.join.vhash.SharedBuildSideRegistry;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.spill.SpillService;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
@@ -91,6 +94,10 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
   private final List<MinorFragmentEndpoint> minorFragmentEndpoints;
   private final ExpressionSplitCache expressionSplitCache;
   private final HeapLowMemController heapLowMemController;
+  private SharedBuildSideRegistry sharedBuildSides;
+  private SharedResourceGroup pipelineResourceGroup;
+  private boolean sharedBuilder;
+  private int localFragmentCount;
 
   public OperatorContextImpl(
       SabotConfig sabotConfig,
@@ -333,6 +340,35 @@ public class OperatorContextImpl extends OperatorContext implements AutoCloseabl
     return nodeEndpointProvider;
   }
 
+  /**
+   * Lets the operators of this context share hash join build sides with the other fragments of the
+   * phase on this node.
+   *
+   * @param sharedBuilder whether this fragment builds the shared build sides of its phase on this
+   *     node
+   * @param localFragmentCount number of fragments of the phase on this node
+   */
+  public void setSharedBuildSides(
+      SharedBuildSideRegistry sharedBuildSides,
+      SharedResourceGroup pipelineResourceGroup,
+      boolean sharedBuilder,
+      int localFragmentCount) {
+    this.sharedBuildSides = sharedBuildSides;
+    this.pipelineResourceGroup = pipelineResourceGroup;
+    this.sharedBuilder = sharedBuilder;
+    this.localFragmentCount = localFragmentCount;
+  }
+
+  @Override
+  public SharedBuildSide acquireSharedBuildSide(int operatorId) {
+    if (sharedBuildSides == null) {
+      return null;
+    }
+    // bound the shared build side by the limit the builder would have for a build of its own
+    return sharedBuildSides.acquire(
+        operatorId, pipelineResourceGroup, allocator.getLimit(), sharedBuilder, localFragmentCount);
+  }
+
   @Override
   public VectorContainer createOutputVectorContainer() {
     return new VectorContainer(fragmentOutputAllocator);
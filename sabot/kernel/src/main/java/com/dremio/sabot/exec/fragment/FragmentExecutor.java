@@ -390,7 +390,7 @@ public class FragmentExecutor implements MemoryArbiterTask {
 
   @Override
   public long getUsedMemory() {
-    return allocator.getAllocatedMemory();
+    return allocator.getAllocatedMemory() + ticket.getSharedBuildMemory();
   }
 
   @Override
@@ -1066,7 +1066,9 @@ public class FragmentExecutor implements MemoryArbiterTask {
         message.getPayload(ExecProtos.ShrinkMemoryUsage.parser());
     Long prevValue =
         spillingOperators.put(message.getOperatorId(), shrinkMemoryUsage.getMemoryInBytes());
-    if (prevValue != null) {
+    if (prevValue == null) {
+      stats.addShrinkMemoryRequest();
+    } else {
       logger.debug(
           "Operator {} got duplicate OOM message, previous request {}, current request {}",
           message.getOperatorId(),
@@ -65,8 +65,10 @@ import com.dremio.sabot.exec.context.FragmentStats;
 import com.dremio.sabot.exec.context.StatusHandler;
 import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.memory.MemoryArbiter;
+import com.dremio.sabot.op.join.vhash.SharedBuildSideRegistry;
 import com.dremio.sabot.threads.SendingAccountor;
 import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.sabot.threads.sharedres.SharedResourceManager;
@@ -126,6 +128,7 @@ public class FragmentExecutorBuilder {
   private final Provider<JobResultsClientFactory> jobResultsClientFactoryProvider;
   private final Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider;
   private final HeapLowMemController heapLowMemController;
+  private final ResultStreamRegistry resultStreamRegistry;
 
   public FragmentExecutorBuilder(
       QueriesClerk clerk,
@@ -152,7 +155,8 @@ public class FragmentExecutorBuilder {
       Provider<JobResultsClientFactory> jobResultsClientFactoryProvider,
       Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider,
       ExpressionSplitCache expressionSplitCache,
-      HeapLowMemController heapLowMemController) {
+      HeapLowMemController heapLowMemController,
+      ResultStreamRegistry resultStreamRegistry) {
     this.clerk = clerk;
     this.fragmentExecutors = fragmentExecutors;
     this.nodeEndpoint = nodeEndpoint;
@@ -178,6 +182,7 @@ public class FragmentExecutorBuilder {
     this.spillService = spillService;
     this.jobResultsClientFactoryProvider = jobResultsClientFactoryProvider;
     this.heapLowMemController = heapLowMemController;
+    this.resultStreamRegistry = resultStreamRegistry;
   }
 
   public FragmentExecutors getFragmentExecutors() {
@@ -376,6 +381,15 @@ public class FragmentExecutorBuilder {
                 major.getExtFragmentAssignmentsList(),
                 expressionSplitCache,
                 heapLowMemController);
+        // the broadcasts feeding shared build sides are only sent to the lowest local fragment
+        final List<Integer> localMinorFragments =
+            SharedBuildSideRegistry.getLocalMinorFragments(
+                major.getAllAssignmentList(), handle.getMinorFragmentId());
+        creator.setSharedBuildSides(
+            ticket.getSharedBuildSides(),
+            sharedResources.getGroup(PIPELINE_RES_GRP),
+            handle.getMinorFragmentId() == Collections.min(localMinorFragments),
+            localMinorFragments.size());
 
         final FragmentStatusReporter statusReporter =
             new FragmentStatusReporter(
@@ -455,7 +469,8 @@ public class FragmentExecutorBuilder {
         handler,
         sharedResourceGroup,
         fileCursorManagerFactory,
-        outstandingRPCsPerTunnel);
+        outstandingRPCsPerTunnel,
+        resultStreamRegistry);
   }
 
   protected OperatorContextCreator getOperatorContextCreator(
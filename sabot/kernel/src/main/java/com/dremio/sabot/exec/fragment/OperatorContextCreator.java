@@ -47,6 +47,8 @@ import com.dremio.sabot.exec.context.OperatorContextImpl;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.join.vhash.SharedBuildSideRegistry;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.spill.SpillService;
 import com.google.common.base.Preconditions;
@@ -83,6 +85,10 @@ public class OperatorContextCreator implements OperatorContext.Creator, AutoClos
   private Provider<CoordinationProtos.NodeEndpoint> nodeEndpointProvider;
   private final List<CoordExecRPC.MajorFragmentAssignment> extFragmentAssignments;
   private List<MinorFragmentEndpoint> minorFragmentEndpoints;
+  private SharedBuildSideRegistry sharedBuildSides;
+  private SharedResourceGroup pipelineResourceGroup;
+  private boolean sharedBuilder;
+  private int localFragmentCount;
   private final ExpressionSplitCache expressionSplitCache;
   private final HeapLowMemController heapLowMemController;
   private final boolean enableMAStaticMemLimit;
@@ -153,6 +159,17 @@ public class OperatorContextCreator implements OperatorContext.Creator, AutoClos
     }
   }
 
+  public void setSharedBuildSides(
+      SharedBuildSideRegistry sharedBuildSides,
+      SharedResourceGroup pipelineResourceGroup,
+      boolean sharedBuilder,
+      int localFragmentCount) {
+    this.sharedBuildSides = sharedBuildSides;
+    this.pipelineResourceGroup = pipelineResourceGroup;
+    this.sharedBuilder = sharedBuilder;
+    this.localFragmentCount = localFragmentCount;
+  }
+
   @Override
   public OperatorContext newOperatorContext(PhysicalOperator popConfig) throws Exception {
     Preconditions.checkState(this.fragmentOutputAllocator != null);
@@ -213,6 +230,8 @@ public class OperatorContextCreator implements OperatorContext.Creator, AutoClos
               minorFragmentEndpoints,
               expressionSplitCache,
               heapLowMemController);
+      context.setSharedBuildSides(
+          sharedBuildSides, pipelineResourceGroup, sharedBuilder, localFragmentCount);
       operatorContexts.add(context);
       closeable.commit();
       return context;
@@ -23,8 +23,11 @@ import com.dremio.sabot.exec.cursors.FileCursorManagerFactory;
 import com.dremio.sabot.exec.rpc.AccountingExecToCoordTunnel;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.AccountingFileTunnel;
+import com.dremio.sabot.exec.rpc.AccountingResultStreamTunnel;
 import com.dremio.sabot.exec.rpc.FileStreamManager;
 import com.dremio.sabot.exec.rpc.FileTunnel;
+import com.dremio.sabot.exec.rpc.ResultStream;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.threads.SendingAccountor;
 import com.dremio.sabot.threads.SendingMonitor;
@@ -48,6 +51,7 @@ public class TunnelProviderImpl implements TunnelProvider {
   private final RpcOutcomeListener<Ack> statusHandler;
   private final FileCursorManagerFactory cursorManagerFactory;
   private final int outstandingRPCsPerTunnel;
+  private final ResultStreamRegistry resultStreamRegistry;
 
   public TunnelProviderImpl(
       SendingAccountor accountor,
@@ -56,7 +60,8 @@ public class TunnelProviderImpl implements TunnelProvider {
       RpcOutcomeListener<Ack> statusHandler,
       SharedResourceGroup resourceGroup,
       FileCursorManagerFactory cursorManagerFactory,
-      int outstandingRPCsPerTunnel) {
+      int outstandingRPCsPerTunnel,
+      ResultStreamRegistry resultStreamRegistry) {
     super();
     this.accountor = accountor;
     this.statusHandler = statusHandler;
@@ -71,6 +76,7 @@ public class TunnelProviderImpl implements TunnelProvider {
     this.resourceGroup = resourceGroup;
     this.cursorManagerFactory = cursorManagerFactory;
     this.outstandingRPCsPerTunnel = outstandingRPCsPerTunnel;
+    this.resultStreamRegistry = resultStreamRegistry;
   }
 
   @Override
@@ -119,4 +125,16 @@ public class TunnelProviderImpl implements TunnelProvider {
     final FileTunnel fileTunnel = new FileTunnel(streamManager, maxBatchesPerFile);
     return new AccountingFileTunnel(fileTunnel, cursorManagerFactory, resource);
   }
+
+  @Override
+  public AccountingResultStreamTunnel getResultStreamTunnel(
+      String streamId, int minorFragmentId, long timeoutMillis) {
+    final ResultStream stream = resultStreamRegistry.open(streamId, minorFragmentId, timeoutMillis);
+    final SharedResource resource =
+        resourceGroup.createResource(
+            "result-stream-" + minorFragmentId, SharedResourceType.SEND_MSG_RESULT_STREAM);
+    final SendingMonitor monitor =
+        new SendingMonitor(resource, accountor, outstandingRPCsPerTunnel);
+    return new AccountingResultStreamTunnel(stream, monitor, monitor.wrap(statusHandler));
+  }
 }
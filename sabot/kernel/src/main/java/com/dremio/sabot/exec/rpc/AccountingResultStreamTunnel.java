@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.sabot.threads.SendingMonitor;
+
+/**
+ * Wrapper around a {@link ResultStream} that tracks the status of batches sent to its reader, so
+ * that a fragment only sends a bounded number of batches ahead of the client reading them.
+ */
+public class AccountingResultStreamTunnel {
+  private final ResultStream stream;
+  private final SendingMonitor sendMonitor;
+  private final RpcOutcomeListener<Ack> statusHandler;
+
+  public AccountingResultStreamTunnel(
+      ResultStream stream, SendingMonitor sendMonitor, RpcOutcomeListener<Ack> statusHandler) {
+    this.stream = stream;
+    this.sendMonitor = sendMonitor;
+    this.statusHandler = statusHandler;
+  }
+
+  public void sendData(QueryWritableBatch data) {
+    sendMonitor.increment();
+    stream.send(statusHandler, data);
+  }
+
+  /** Ends the stream once the fragment sent all its batches. */
+  public void complete(QueryId queryId) {
+    stream.complete(
+        new UserResult(null, queryId, QueryState.COMPLETED, null, null, null, false, false, false));
+  }
+
+  /** Ends the stream of a fragment which did not send all its batches. */
+  public void fail(QueryId queryId, String reason) {
+    stream.complete(
+        new UserResult(
+            null,
+            queryId,
+            QueryState.FAILED,
+            null,
+            UserException.dataReadError().message(reason).buildSilently(),
+            null,
+            false,
+            false,
+            false));
+  }
+}
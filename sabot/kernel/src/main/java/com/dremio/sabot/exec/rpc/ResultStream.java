@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.NettyArrowBuf;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * Hands the results of one minor fragment over to the reader of its stream, a Flight client
+ * connected to the executor running the fragment.
+ *
+ * <p>The sender and the reader can come in any order. Batches sent before the stream is read are
+ * queued. A batch is only acknowledged to its sender once the reader handed it over to its client,
+ * so the sender bounds the number of queued batches as it does for the batches it sends to the
+ * coordinator.
+ */
+public class ResultStream {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ResultStream.class);
+
+  private final String name;
+  private final BlockingQueue<Message> messages = new LinkedBlockingQueue<>();
+  private final AtomicBoolean opened = new AtomicBoolean();
+  private final AtomicBoolean read = new AtomicBoolean();
+  private volatile String cancelReason;
+
+  ResultStream(String name) {
+    this.name = name;
+  }
+
+  /** Marks the stream as having a sender. A stream only has one sender. */
+  void open() {
+    Preconditions.checkState(opened.compareAndSet(false, true), "%s is already sent to.", name);
+  }
+
+  /** Whether both the sender and the reader of the stream are connected. */
+  boolean isConnected() {
+    return opened.get() && read.get();
+  }
+
+  /**
+   * Sends a batch to the reader.
+   *
+   * @param listener acknowledged once the reader handed the batch over, or interrupted when the
+   *     stream is cancelled before
+   * @param batch the batch, released by the stream
+   */
+  public void send(RpcOutcomeListener<Ack> listener, QueryWritableBatch batch) {
+    messages.add(new Message(listener, batch, null));
+    if (cancelReason != null) {
+      discardQueued();
+    }
+  }
+
+  /** Ends the stream with the outcome of the fragment. */
+  public void complete(UserResult result) {
+    if (result.getState() != QueryState.COMPLETED) {
+      // nobody may read the batches sent so far, release them so that the fragment can finish
+      discardQueued();
+    }
+    messages.add(new Message(null, null, result));
+  }
+
+  /**
+   * Reads the stream until its end. Batches are handed over to the handler in the order they were
+   * sent, after their buffers are moved to the given allocator.
+   *
+   * @param handler gets the batches and then the outcome of the fragment
+   * @param allocator the allocator of the reader
+   * @throws InterruptedException if the reading thread is interrupted, the stream is then
+   *     cancelled
+   */
+  public void read(UserResponseHandler handler, BufferAllocator allocator)
+      throws InterruptedException {
+    Preconditions.checkState(read.compareAndSet(false, true), "%s is already read.", name);
+    try {
+      while (true) {
+        final Message message = messages.take();
+        if (message.result != null) {
+          handler.completed(message.result);
+          return;
+        }
+        if (cancelReason != null) {
+          message.discard(cancelReason);
+          continue;
+        }
+        handler.sendData(message.listener, transfer(message.batch, allocator));
+      }
+    } catch (InterruptedException e) {
+      cancel("Reader of the result stream interrupted.");
+      throw e;
+    }
+  }
+
+  /**
+   * Cancels the stream. Queued batches and batches sent later are dropped, and their senders get
+   * interrupted, which fails the fragment.
+   */
+  public void cancel(String reason) {
+    if (cancelReason == null) {
+      logger.debug("{} cancelled: {}", name, reason);
+      cancelReason = reason;
+    }
+    discardQueued();
+  }
+
+  /** Cancels a stream whose sender or reader did not come in time. */
+  void expire() {
+    final String reason = String.format("%s was not both sent to and read in time.", name);
+    cancel(reason);
+    messages.add(
+        new Message(
+            null,
+            null,
+            new UserResult(
+                null,
+                QueryId.getDefaultInstance(),
+                QueryState.FAILED,
+                null,
+                UserException.resourceTimeoutError().message(reason).buildSilently(),
+                null,
+                false,
+                false,
+                false)));
+  }
+
+  private void discardQueued() {
+    final List<Message> drained = new ArrayList<>();
+    messages.drainTo(drained);
+    for (Message message : drained) {
+      if (message.result != null) {
+        messages.add(message);
+      } else {
+        message.discard(cancelReason != null ? cancelReason : "Fragment failed.");
+      }
+    }
+  }
+
+  private static QueryWritableBatch transfer(QueryWritableBatch batch, BufferAllocator allocator) {
+    final ByteBuf[] buffers = batch.getBuffers();
+    final ByteBuf[] transferred = new ByteBuf[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      try {
+        final ArrowBuf buffer = ((NettyArrowBuf) buffers[i]).arrowBuf();
+        transferred[i] =
+            NettyArrowBuf.unwrapBuffer(
+                buffer
+                    .getReferenceManager()
+                    .transferOwnership(buffer, allocator)
+                    .getTransferredBuffer());
+      } finally {
+        buffers[i].release();
+      }
+    }
+    return new QueryWritableBatch(batch.getHeader(), transferred);
+  }
+
+  private static final class Message {
+    private final RpcOutcomeListener<Ack> listener;
+    private final QueryWritableBatch batch;
+    private final UserResult result;
+
+    private Message(RpcOutcomeListener<Ack> listener, QueryWritableBatch batch, UserResult result) {
+      this.listener = listener;
+      this.batch = batch;
+      this.result = result;
+    }
+
+    private void discard(String reason) {
+      for (ByteBuf buffer : batch.getBuffers()) {
+        buffer.release();
+      }
+      listener.interrupted(new InterruptedException(reason));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * The result streams of the fragments running on this executor, by the stream id of their query
+ * and their minor fragment id.
+ *
+ * <p>A stream is created by whichever of its sender, the fragment, and its reader, a Flight client,
+ * comes first. A stream which does not have both within the given timeout is cancelled, which
+ * fails its fragment, and dropped.
+ */
+public class ResultStreamRegistry {
+  private final ConcurrentMap<Key, ResultStream> streams = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the stream the given fragment sends its results to.
+   *
+   * @param streamId the stream id of the query
+   * @param minorFragmentId the minor fragment id of the fragment
+   * @param timeoutMillis how long the stream waits for its reader
+   */
+  public ResultStream open(String streamId, int minorFragmentId, long timeoutMillis) {
+    final ResultStream stream = getOrCreate(new Key(streamId, minorFragmentId), timeoutMillis);
+    stream.open();
+    return stream;
+  }
+
+  /**
+   * Reads a stream until its end, see {@link ResultStream#read(UserResponseHandler,
+   * BufferAllocator)}.
+   *
+   * @param streamId the stream id of the query
+   * @param minorFragmentId the minor fragment id of the fragment sending to the stream
+   * @param timeoutMillis how long the stream waits for its sender
+   * @param handler gets the batches and then the outcome of the fragment
+   * @param allocator the allocator of the reader
+   */
+  public void read(
+      String streamId,
+      int minorFragmentId,
+      long timeoutMillis,
+      UserResponseHandler handler,
+      BufferAllocator allocator)
+      throws InterruptedException {
+    final Key key = new Key(streamId, minorFragmentId);
+    final ResultStream stream = getOrCreate(key, timeoutMillis);
+    try {
+      stream.read(handler, allocator);
+    } finally {
+      streams.remove(key, stream);
+    }
+  }
+
+  /**
+   * Cancels a stream, see {@link ResultStream#cancel(String)}. Does nothing if the stream does not
+   * exist.
+   */
+  public void cancel(String streamId, int minorFragmentId, String reason) {
+    final ResultStream stream = streams.get(new Key(streamId, minorFragmentId));
+    if (stream != null) {
+      stream.cancel(reason);
+    }
+  }
+
+  @VisibleForTesting
+  int size() {
+    return streams.size();
+  }
+
+  private ResultStream getOrCreate(Key key, long timeoutMillis) {
+    return streams.computeIfAbsent(
+        key,
+        k -> {
+          final ResultStream stream = new ResultStream("Result stream " + k);
+          CompletableFuture.delayedExecutor(timeoutMillis, TimeUnit.MILLISECONDS)
+              .execute(() -> expire(k, stream));
+          return stream;
+        });
+  }
+
+  private void expire(Key key, ResultStream stream) {
+    if (!stream.isConnected() && streams.remove(key, stream)) {
+      stream.expire();
+    }
+  }
+
+  private static final class Key {
+    private final String streamId;
+    private final int minorFragmentId;
+
+    private Key(String streamId, int minorFragmentId) {
+      this.streamId = streamId;
+      this.minorFragmentId = minorFragmentId;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return minorFragmentId == key.minorFragmentId && streamId.equals(key.streamId);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(streamId, minorFragmentId);
+    }
+
+    @Override
+    public String toString() {
+      // the stream id is a secret shared with the reader, only log the fragment
+      return "of minor fragment " + minorFragmentId;
+    }
+  }
+}
@@ -30,4 +30,15 @@ public interface TunnelProvider {
 
   AccountingFileTunnel getFileTunnel(FileStreamManager streamManager, int maxBatchesPerFile)
       throws IOException;
+
+  /**
+   * Returns the tunnel to the result stream of the given minor fragment, read directly from this
+   * executor.
+   *
+   * @param streamId the stream id of the query
+   * @param minorFragmentId the minor fragment sending to the stream
+   * @param timeoutMillis how long the stream waits for its reader
+   */
+  AccountingResultStreamTunnel getResultStreamTunnel(
+      String streamId, int minorFragmentId, long timeoutMillis);
 }
@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.memory;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.FragmentExecutors;
+import com.dremio.sabot.exec.QueriesClerk;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+
+/**
+ * A {@link MemoryArbiter} granting memory to tasks against the direct memory budget of the
+ * executor, the limit of the root allocator.
+ *
+ * <p>A grant is available when the memory allocated and the outstanding grants leave room for it.
+ * Tasks that cannot get a grant are blocked, and unblocked in the order they blocked in as memory
+ * is released, with the grant they asked for. While tasks are blocked, new requests are not
+ * granted so that blocked tasks are not starved.
+ *
+ * <p>When a task blocks, shrinkable operators are asked to spill until their shrinkable memory
+ * covers the missing memory. Operators of the queries using the most memory above their fair share
+ * of the budget spill first, then the operators with the most shrinkable memory. When no grant is
+ * outstanding and no operator is spilling, nothing would release memory, so the first blocked task
+ * is granted its memory regardless of the budget.
+ *
+ * <p>Use it by setting {@link MemoryArbiterFactory#DREMIO_MEMORY_ARBITER_FACTORY_CLASS} to {@link
+ * GrantingMemoryArbiter.Factory}.
+ */
+public class GrantingMemoryArbiter implements MemoryArbiter {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(GrantingMemoryArbiter.class);
+
+  private final BufferAllocator allocator;
+
+  private final Set<MemoryArbiterTask> tasks = new HashSet<>();
+  // blocked tasks and the grant they asked for, in the order they blocked in
+  private final LinkedHashMap<MemoryArbiterTask, Long> blockedTasks = new LinkedHashMap<>();
+  private final Set<MemoryTaskAndShrinkableOperator> spillingOperators = new HashSet<>();
+  private long outstandingGrants;
+  private long numBlocked;
+  private long numShrinkRequests;
+
+  public GrantingMemoryArbiter(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  @Override
+  public void startTask(MemoryArbiterTask memoryArbiterTask) {
+    synchronized (this) {
+      tasks.add(memoryArbiterTask);
+    }
+  }
+
+  @Override
+  public void taskDone(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> unblocked;
+    synchronized (this) {
+      tasks.remove(memoryArbiterTask);
+      blockedTasks.remove(memoryArbiterTask);
+      spillingOperators.removeIf(
+          operator -> memoryArbiterTask.getShrinkableOperators().contains(operator));
+      release(memoryArbiterTask);
+      unblocked = grantBlockedTasks();
+    }
+    unblock(unblocked);
+  }
+
+  @Override
+  public boolean acquireMemoryGrant(MemoryArbiterTask memoryArbiterTask, long memoryGrantInBytes) {
+    final List<MemoryTaskAndShrinkableOperator> operatorsToShrink;
+    final List<MemoryArbiterTask> unblocked;
+    synchronized (this) {
+      if (memoryArbiterTask.getMemoryGrant() >= memoryGrantInBytes) {
+        // granted when the task was unblocked
+        return true;
+      }
+      release(memoryArbiterTask);
+
+      if (blockedTasks.isEmpty() && isAvailable(memoryGrantInBytes)) {
+        grant(memoryArbiterTask, memoryGrantInBytes);
+        return true;
+      }
+
+      blockedTasks.put(memoryArbiterTask, memoryGrantInBytes);
+      operatorsToShrink = selectOperatorsToShrink(getMissingMemory());
+      if (outstandingGrants == 0 && spillingOperators.isEmpty()) {
+        // nothing would release memory, let the first blocked task try.
+        unblocked = grantFirstBlockedTask();
+        if (unblocked.remove(memoryArbiterTask)) {
+          return true;
+        }
+      } else {
+        unblocked = new ArrayList<>();
+      }
+
+      numBlocked++;
+      memoryArbiterTask.blockOnMemory();
+    }
+    unblock(unblocked);
+    shrink(operatorsToShrink);
+    return false;
+  }
+
+  @Override
+  public void releaseMemoryGrant(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> unblocked;
+    synchronized (this) {
+      if (memoryArbiterTask.getMemoryGrant() == 0) {
+        return;
+      }
+      release(memoryArbiterTask);
+      unblocked = grantBlockedTasks();
+    }
+    unblock(unblocked);
+  }
+
+  @Override
+  public boolean removeFromBlocked(MemoryArbiterTask memoryArbiterTask) {
+    synchronized (this) {
+      return blockedTasks.remove(memoryArbiterTask) != null;
+    }
+  }
+
+  @Override
+  public void removeFromSpilling(MemoryTaskAndShrinkableOperator memoryTaskAndShrinkableOperator) {
+    final List<MemoryArbiterTask> unblocked;
+    synchronized (this) {
+      spillingOperators.remove(memoryTaskAndShrinkableOperator);
+      unblocked = grantBlockedTasks();
+    }
+    unblock(unblocked);
+  }
+
+  /** The task is done spilling, the memory it released may unblock other tasks. */
+  @Override
+  public void addTaskToQueue(MemoryArbiterTask memoryArbiterTask) {
+    final List<MemoryArbiterTask> unblocked;
+    synchronized (this) {
+      unblocked = grantBlockedTasks();
+    }
+    unblock(unblocked);
+  }
+
+  private boolean isAvailable(long memoryGrantInBytes) {
+    return memoryGrantInBytes <= getAvailableMemory();
+  }
+
+  private long getAvailableMemory() {
+    return allocator.getLimit() - allocator.getAllocatedMemory() - outstandingGrants;
+  }
+
+  private long getMissingMemory() {
+    long requested = 0;
+    for (long grant : blockedTasks.values()) {
+      requested += grant;
+    }
+    return requested - getAvailableMemory();
+  }
+
+  private void grant(MemoryArbiterTask memoryArbiterTask, long memoryGrantInBytes) {
+    memoryArbiterTask.setMemoryGrant(memoryGrantInBytes);
+    outstandingGrants += memoryGrantInBytes;
+  }
+
+  private void release(MemoryArbiterTask memoryArbiterTask) {
+    outstandingGrants -= memoryArbiterTask.getMemoryGrant();
+    memoryArbiterTask.setMemoryGrant(0);
+  }
+
+  /** Grants the blocked tasks that fit in the available memory, in the order they blocked in. */
+  private List<MemoryArbiterTask> grantBlockedTasks() {
+    final List<MemoryArbiterTask> unblocked = new ArrayList<>();
+    final Iterator<Map.Entry<MemoryArbiterTask, Long>> iterator =
+        blockedTasks.entrySet().iterator();
+    while (iterator.hasNext()) {
+      final Map.Entry<MemoryArbiterTask, Long> entry = iterator.next();
+      if (!isAvailable(entry.getValue())) {
+        break;
+      }
+      grant(entry.getKey(), entry.getValue());
+      iterator.remove();
+      unblocked.add(entry.getKey());
+    }
+    if (unblocked.isEmpty() && outstandingGrants == 0 && spillingOperators.isEmpty()) {
+      return grantFirstBlockedTask();
+    }
+    return unblocked;
+  }
+
+  private List<MemoryArbiterTask> grantFirstBlockedTask() {
+    final Iterator<Map.Entry<MemoryArbiterTask, Long>> iterator =
+        blockedTasks.entrySet().iterator();
+    if (!iterator.hasNext()) {
+      return new ArrayList<>();
+    }
+    final Map.Entry<MemoryArbiterTask, Long> entry = iterator.next();
+    grant(entry.getKey(), entry.getValue());
+    iterator.remove();
+    final List<MemoryArbiterTask> unblocked = new ArrayList<>();
+    unblocked.add(entry.getKey());
+    return unblocked;
+  }
+
+  /**
+   * Selects the operators to shrink to release the missing memory. Operators of the queries using
+   * the most memory above their fair share come first, then the operators with the most
+   * shrinkable memory.
+   */
+  private List<MemoryTaskAndShrinkableOperator> selectOperatorsToShrink(long missingMemory) {
+    final List<MemoryTaskAndShrinkableOperator> selected = new ArrayList<>();
+    if (missingMemory <= 0) {
+      return selected;
+    }
+    long shrinking = 0;
+    for (MemoryTaskAndShrinkableOperator operator : spillingOperators) {
+      shrinking += operator.getShrinkableMemory();
+    }
+    if (shrinking >= missingMemory) {
+      return selected;
+    }
+
+    final Map<Object, Long> usedMemoryByQuery = new HashMap<>();
+    final List<MemoryTaskAndShrinkableOperator> candidates = new ArrayList<>();
+    for (MemoryArbiterTask task : tasks) {
+      usedMemoryByQuery.merge(getQueryKey(task), task.getUsedMemory(), Long::sum);
+      for (MemoryTaskAndShrinkableOperator operator : task.getShrinkableOperators()) {
+        if (spillingOperators.contains(operator) || operator.isOperatorShrinkingMemory()) {
+          continue;
+        }
+        if (operator.updateShrinkableMemory() > 0) {
+          candidates.add(operator);
+        }
+      }
+    }
+
+    final Map<MemoryTaskAndShrinkableOperator, Long> overFairShare = new HashMap<>();
+    final long fairShare = allocator.getLimit() / Math.max(usedMemoryByQuery.size(), 1);
+    for (MemoryArbiterTask task : tasks) {
+      final long over = usedMemoryByQuery.get(getQueryKey(task)) - fairShare;
+      for (MemoryTaskAndShrinkableOperator operator : task.getShrinkableOperators()) {
+        overFairShare.put(operator, over);
+      }
+    }
+    candidates.sort(
+        Comparator.<MemoryTaskAndShrinkableOperator>comparingLong(overFairShare::get)
+            .reversed()
+            .thenComparing(MemoryTaskAndShrinkableOperator.getComparator()));
+
+    for (MemoryTaskAndShrinkableOperator operator : candidates) {
+      if (shrinking >= missingMemory) {
+        break;
+      }
+      selected.add(operator);
+      spillingOperators.add(operator);
+      shrinking += operator.getShrinkableMemory();
+    }
+    numShrinkRequests += selected.size();
+    return selected;
+  }
+
+  private static Object getQueryKey(MemoryArbiterTask task) {
+    final QueryId queryId = task.getQueryId();
+    return queryId != null ? queryId : task;
+  }
+
+  private void shrink(List<MemoryTaskAndShrinkableOperator> operators) {
+    for (MemoryTaskAndShrinkableOperator operator : operators) {
+      try {
+        logger.debug("Asking {} to shrink its memory", operator);
+        operator.shrinkMemory(operator.getShrinkableMemory());
+      } catch (Exception e) {
+        logger.warn("Failed to ask {} to shrink its memory", operator, e);
+        removeFromSpilling(operator);
+      }
+    }
+  }
+
+  private static void unblock(List<MemoryArbiterTask> unblocked) {
+    for (MemoryArbiterTask task : unblocked) {
+      task.unblockOnMemory();
+    }
+  }
+
+  @VisibleForTesting
+  synchronized long getOutstandingGrants() {
+    return outstandingGrants;
+  }
+
+  @VisibleForTesting
+  synchronized int getNumBlockedTasks() {
+    return blockedTasks.size();
+  }
+
+  @VisibleForTesting
+  synchronized int getNumSpillingOperators() {
+    return spillingOperators.size();
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(
+        "GrantingMemoryArbiter[tasks: %d, blocked: %s, spilling: %s, outstanding grants: %d,"
+            + " times blocked: %d, shrink requests: %d]",
+        tasks.size(),
+        blockedTasks.keySet(),
+        spillingOperators,
+        outstandingGrants,
+        numBlocked,
+        numShrinkRequests);
+  }
+
+  @Override
+  public void close() throws Exception {}
+
+  public static class Factory implements MemoryArbiterFactory {
+    @Override
+    public MemoryArbiter newInstance(
+        SabotConfig sabotConfig,
+        RootAllocator rootAllocator,
+        FragmentExecutors fragmentExecutors,
+        QueriesClerk clerk,
+        OptionManager options) {
+      return new GrantingMemoryArbiter(rootAllocator);
+    }
+  }
+}
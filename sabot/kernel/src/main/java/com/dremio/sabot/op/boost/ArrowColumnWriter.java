@@ -20,6 +20,7 @@ import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.store.RecordWriter;
 import com.dremio.exec.store.easy.arrow.ArrowFlatBufRecordWriter;
 import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSOutputStream;
 import com.dremio.io.file.BoostedFileSystem;
 import com.dremio.io.file.Path;
 import com.dremio.sabot.exec.context.OperatorContext;
@@ -41,6 +42,7 @@ public class ArrowColumnWriter implements AutoCloseable {
   public final RecordWriter recordWriter;
   public final AsyncByteReader.FileKey fileKey;
   public final VectorContainer outputVectorContainer;
+  private final FSOutputStream outputStream;
   public boolean isClosed = false;
   private BoostedFileSystem boostedFS;
 
@@ -61,9 +63,8 @@ public class ArrowColumnWriter implements AutoCloseable {
             AsyncByteReader.FileKey.FileType.OTHER,
             dataset);
     this.boostedFS = boostedFS;
-    recordWriter =
-        new ArrowFlatBufRecordWriter(
-            context, boostedFS.createBoostFile(fileKey, rowGroupIndex, column));
+    outputStream = boostedFS.createBoostFile(fileKey, rowGroupIndex, column);
+    recordWriter = new ArrowFlatBufRecordWriter(context, outputStream);
     this.outputVectorContainer = context.createOutputVectorContainer();
   }
 
@@ -85,7 +86,8 @@ public class ArrowColumnWriter implements AutoCloseable {
   @Override
   public void close() throws Exception {
     if (!isClosed) {
-      AutoCloseables.close(recordWriter); // file write is done on closing RecordWriter
+      // file write is done on closing RecordWriter, which leaves the stream open
+      AutoCloseables.close(recordWriter, outputStream);
       isClosed = true;
     }
   }
@@ -98,7 +100,7 @@ public class ArrowColumnWriter implements AutoCloseable {
 
   public void abort() {
     try {
-      AutoCloseables.close(recordWriter);
+      AutoCloseables.close(recordWriter, outputStream);
       boostedFS.abortBoostFile(fileKey, rowGroupIndex, column);
     } catch (Exception ex) {
       logger.error(
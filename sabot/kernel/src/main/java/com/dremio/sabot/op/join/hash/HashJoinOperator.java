@@ -94,6 +94,10 @@ public class HashJoinOperator implements DualInputOperator {
   public static final StringValidator TEST_SPILL_MODE =
       new StringValidator("exec.op.join.spill.test_spill_mode", "none");
 
+  // When enabled, fragments on the same node build a broadcast build side once and share it.
+  public static final BooleanValidator ENABLE_SHARED_BROADCAST_BUILD =
+      new BooleanValidator("exec.op.join.broadcast.shared_build", false);
+
   private long outputRecords;
 
   // Constant to indicate index is empty.
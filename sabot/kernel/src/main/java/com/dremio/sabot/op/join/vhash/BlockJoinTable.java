@@ -44,6 +44,8 @@ public class BlockJoinTable implements JoinTable {
   private final Stopwatch pivotBuildWatch = Stopwatch.createUnstarted();
   private final Stopwatch insertWatch = Stopwatch.createUnstarted();
   private boolean tableTracing;
+  // false for probe views, which share the hash table of the table that built it
+  private final boolean ownsTable;
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
 
@@ -78,6 +80,22 @@ public class BlockJoinTable implements JoinTable {
     this.buildPivot = buildPivot;
     this.probePivot = probePivot;
     this.tableTracing = false;
+    this.ownsTable = true;
+  }
+
+  private BlockJoinTable(BlockJoinTable shared, BufferAllocator allocator, PivotDef probePivot) {
+    Preconditions.checkState(shared.buildPivot.getBlockWidth() == probePivot.getBlockWidth());
+    this.allocator = allocator.newChildAllocator("block-join", 0, allocator.getLimit());
+    this.table = shared.table;
+    this.buildPivot = shared.buildPivot;
+    this.probePivot = probePivot;
+    this.tableTracing = false;
+    this.ownsTable = false;
+  }
+
+  @Override
+  public JoinTable probeView(BufferAllocator allocator, PivotDef probePivot) {
+    return new BlockJoinTable(this, allocator, probePivot);
   }
 
   /**
@@ -224,7 +242,9 @@ public class BlockJoinTable implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    table.close();
+    if (ownsTable) {
+      table.close();
+    }
     AutoCloseables.close(allocator);
   }
 
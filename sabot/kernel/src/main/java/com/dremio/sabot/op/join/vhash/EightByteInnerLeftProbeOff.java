@@ -57,6 +57,8 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
   private final BufferAllocator allocator;
   private final Stopwatch buildHashComputationWatch = Stopwatch.createUnstarted();
   private final Stopwatch probeHashComputationWatch = Stopwatch.createUnstarted();
+  // false for probe views, which share the map of the table that built it
+  private final boolean ownsMap;
 
   public EightByteInnerLeftProbeOff(
       BufferAllocator allocator,
@@ -71,6 +73,23 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
     this.build = buildDef.getFixedPivots().get(0).getIncomingVector();
     this.map = new LBlockHashTableEight(HashConfig.getDefault(), allocator, initialSize);
     this.isEqualForNullKey = isEqualForNullKey;
+    this.ownsMap = true;
+  }
+
+  private EightByteInnerLeftProbeOff(
+      EightByteInnerLeftProbeOff shared, BufferAllocator allocator, PivotDef probeDef) {
+    Preconditions.checkArgument(probeDef.getFixedPivots().size() == 1);
+    this.allocator = allocator;
+    this.probe = probeDef.getFixedPivots().get(0).getIncomingVector();
+    this.build = shared.build;
+    this.map = shared.map;
+    this.isEqualForNullKey = shared.isEqualForNullKey;
+    this.ownsMap = false;
+  }
+
+  @Override
+  public JoinTable probeView(BufferAllocator allocator, PivotDef probePivot) {
+    return new EightByteInnerLeftProbeOff(this, allocator, probePivot);
   }
 
   @Override
@@ -366,7 +385,9 @@ public class EightByteInnerLeftProbeOff implements JoinTable {
 
   @Override
   public void close() throws Exception {
-    map.close();
+    if (ownsMap) {
+      map.close();
+    }
   }
 
   @Override
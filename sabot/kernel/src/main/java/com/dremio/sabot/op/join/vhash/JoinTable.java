@@ -15,8 +15,10 @@
  */
 package com.dremio.sabot.op.join.vhash;
 
+import com.dremio.sabot.op.common.ht2.PivotDef;
 import java.util.concurrent.TimeUnit;
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
 
 public interface JoinTable extends AutoCloseable {
   public void insert(final ArrowBuf output, final int records);
@@ -74,4 +76,18 @@ public interface JoinTable extends AutoCloseable {
    *     target.
    */
   void prepareValueListFilters(NonPartitionColFilters nonPartitionColFilters);
+
+  /**
+   * Creates a read-only view of this table that probes it with the given probe pivot. The view
+   * shares the hash table of this table but not its probe state, so several fragments can probe the
+   * same build side concurrently. Closing the view does not release the shared hash table.
+   *
+   * @param allocator allocator for the view's temporary probe buffers
+   * @param probePivot pivot over the probe side vectors of the fragment using the view
+   * @return a view that must only be used for {@link #find(ArrowBuf, int)}
+   */
+  default JoinTable probeView(BufferAllocator allocator, PivotDef probePivot) {
+    throw new UnsupportedOperationException(
+        getClass().getSimpleName() + " can't be shared between fragments");
+  }
 }
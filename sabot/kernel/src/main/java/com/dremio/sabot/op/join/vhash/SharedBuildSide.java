@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.sabot.op.join.hash.BuildInfo;
+import com.dremio.sabot.threads.sharedres.SharedResource;
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * A fragment's lease on the build side of a broadcast hash join shared by all fragments of the
+ * same phase on this node. Exactly one lease is the builder, the one of the fragment the broadcast
+ * is sent to: it builds the hash table into {@link #getAllocator()} and publishes it. The other
+ * leases wait for the published build side, blocking their pipeline on a {@link SharedResource}
+ * instead of a thread, and then probe it read-only.
+ */
+public class SharedBuildSide implements AutoCloseable {
+
+  private final SharedBuildSideRegistry registry;
+  private final int operatorId;
+  private final Entry entry;
+  private final boolean builder;
+  private final SharedResource waiter;
+
+  SharedBuildSide(
+      SharedBuildSideRegistry registry,
+      int operatorId,
+      Entry entry,
+      boolean builder,
+      SharedResource waiter) {
+    this.registry = registry;
+    this.operatorId = operatorId;
+    this.entry = entry;
+    this.builder = builder;
+    this.waiter = waiter;
+  }
+
+  /** Whether this fragment builds the shared table, as opposed to waiting for it. */
+  public boolean isBuilder() {
+    return builder;
+  }
+
+  /** Allocator the builder must allocate the shared build side from. */
+  public BufferAllocator getAllocator() {
+    Preconditions.checkState(builder, "Only the builder allocates the shared build side");
+    return entry.allocator;
+  }
+
+  /**
+   * Hands the completed build side over to the shared entry and wakes up the waiting fragments.
+   * From now on the entry owns the given resources, and nobody may modify them.
+   */
+  public void publish(
+      ExpandableHyperContainer hyperContainer,
+      JoinTable table,
+      List<BuildInfo> buildInfos,
+      List<ArrowBuf> startIndices,
+      int maxHashTableIndex) {
+    Preconditions.checkState(builder, "Only the builder publishes the shared build side");
+    synchronized (entry) {
+      Preconditions.checkState(entry.state == State.BUILDING);
+      entry.hyperContainer = hyperContainer;
+      entry.table = table;
+      entry.buildInfos.addAll(buildInfos);
+      entry.startIndices.addAll(startIndices);
+      entry.maxHashTableIndex = maxHashTableIndex;
+      entry.state = State.READY;
+      entry.wakeWaiters();
+    }
+  }
+
+  /**
+   * Checks whether the build side has been published. If not, blocks the calling fragment's
+   * pipeline until it is; the caller should then return and check again when rescheduled.
+   *
+   * @return true if the build side can be probed
+   */
+  public boolean awaitPublished() {
+    synchronized (entry) {
+      switch (entry.state) {
+        case READY:
+          return true;
+        case FAILED:
+          throw new IllegalStateException(
+              String.format(
+                  "Fragment building the shared build side of operator %d failed", operatorId));
+        default:
+          waiter.markBlocked();
+          if (!entry.waiters.contains(waiter)) {
+            entry.waiters.add(waiter);
+          }
+          return false;
+      }
+    }
+  }
+
+  public ExpandableHyperContainer getHyperContainer() {
+    return entry.hyperContainer;
+  }
+
+  public JoinTable getTable() {
+    return entry.table;
+  }
+
+  public List<BuildInfo> getBuildInfos() {
+    return entry.buildInfos;
+  }
+
+  public List<ArrowBuf> getStartIndices() {
+    return entry.startIndices;
+  }
+
+  public int getMaxHashTableIndex() {
+    return entry.maxHashTableIndex;
+  }
+
+  @Override
+  public void close() throws Exception {
+    synchronized (entry) {
+      if (builder && entry.state == State.BUILDING) {
+        // only the builder received the build side, so nobody can build it again
+        entry.state = State.FAILED;
+        entry.wakeWaiters();
+      }
+      entry.waiters.remove(waiter);
+    }
+    waiter.markAvailable();
+    registry.release(operatorId, entry);
+  }
+
+  enum State {
+    BUILDING,
+    READY,
+    FAILED
+  }
+
+  /** Build side shared by the leases of one operator, released with the last lease. */
+  static class Entry implements AutoCloseable {
+    private final BufferAllocator allocator;
+    private final List<SharedResource> waiters = new ArrayList<>();
+    private final List<BuildInfo> buildInfos = new ArrayList<>();
+    private final List<ArrowBuf> startIndices = new ArrayList<>();
+    private State state = State.BUILDING;
+    private ExpandableHyperContainer hyperContainer;
+    private JoinTable table;
+    private int maxHashTableIndex;
+    // guarded by the registry
+    int refCount;
+    boolean hasBuilder;
+    private boolean closed;
+
+    Entry(BufferAllocator allocator, int refCount) {
+      this.allocator = allocator;
+      this.refCount = refCount;
+    }
+
+    long getAllocatedMemory() {
+      return allocator.getAllocatedMemory();
+    }
+
+    private void wakeWaiters() {
+      for (SharedResource waiter : waiters) {
+        waiter.markAvailable();
+      }
+      waiters.clear();
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+      // the registry also closes the entries still leased when the phase ends
+      if (closed) {
+        return;
+      }
+      closed = true;
+      AutoCloseables.close(
+          hyperContainer,
+          table,
+          AutoCloseables.all(buildInfos),
+          AutoCloseables.all(startIndices),
+          allocator);
+    }
+  }
+}
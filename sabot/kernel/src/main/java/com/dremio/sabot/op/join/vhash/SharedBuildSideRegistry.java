@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.proto.CoordExecRPC.FragmentAssignment;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * Shared build sides of the broadcast hash joins of one phase on this node, keyed by operator id.
+ * The lowest minor fragment of the phase on this node builds them: it is the only one the
+ * broadcast senders send the build side to. A build side is released once all the fragments of
+ * the phase on this node closed their lease, or with the phase.
+ */
+public class SharedBuildSideRegistry implements AutoCloseable {
+
+  private final BufferAllocator allocator;
+  private final Map<Integer, SharedBuildSide.Entry> entries = new HashMap<>();
+
+  public SharedBuildSideRegistry(BufferAllocator allocator) {
+    this.allocator = allocator;
+  }
+
+  /**
+   * Acquires a lease on the shared build side of the given operator.
+   *
+   * @param operatorId id of the hash join within the phase
+   * @param resourceGroup resource group of the calling fragment's pipeline, used to block it while
+   *     the build side is being built
+   * @param limit memory limit of the build side, applied when the caller creates its entry
+   * @param builder whether the caller builds the build side
+   * @param leases number of fragments of the phase on this node, each of which takes one lease
+   */
+  public synchronized SharedBuildSide acquire(
+      int operatorId, SharedResourceGroup resourceGroup, long limit, boolean builder, int leases) {
+    final String name = "shared-build-" + operatorId;
+    SharedBuildSide.Entry entry = entries.get(operatorId);
+    if (entry == null) {
+      entry = new SharedBuildSide.Entry(allocator.newChildAllocator(name, 0, limit), leases);
+      entries.put(operatorId, entry);
+    }
+    Preconditions.checkState(
+        !builder || !entry.hasBuilder, "Shared build side of operator %s built twice", operatorId);
+    entry.hasBuilder |= builder;
+    return new SharedBuildSide(
+        this,
+        operatorId,
+        entry,
+        builder,
+        resourceGroup.createResource(name, SharedResourceType.SHARED_JOIN_BUILD));
+  }
+
+  /** Memory currently held by the shared build sides of this phase. */
+  public synchronized long getAllocatedMemory() {
+    long allocated = 0;
+    for (SharedBuildSide.Entry entry : entries.values()) {
+      allocated += entry.getAllocatedMemory();
+    }
+    return allocated;
+  }
+
+  void release(int operatorId, SharedBuildSide.Entry entry) throws Exception {
+    synchronized (this) {
+      if (--entry.refCount > 0) {
+        return;
+      }
+      entries.remove(operatorId, entry);
+    }
+    entry.close();
+  }
+
+  /** Releases the build sides some fragments of the phase never leased, e.g. as they failed. */
+  @Override
+  public void close() throws Exception {
+    final List<SharedBuildSide.Entry> remaining;
+    synchronized (this) {
+      remaining = new ArrayList<>(entries.values());
+      entries.clear();
+    }
+    AutoCloseables.close(remaining);
+  }
+
+  /**
+   * Minor fragments of a phase running on the same node as the given one, in the order of the
+   * assignments. The lowest of them builds the shared build sides of the phase on the node.
+   */
+  public static List<Integer> getLocalMinorFragments(
+      List<FragmentAssignment> assignments, int minorFragmentId) {
+    for (FragmentAssignment assignment : assignments) {
+      if (assignment.getMinorFragmentIdList().contains(minorFragmentId)) {
+        return assignment.getMinorFragmentIdList();
+      }
+    }
+    return ImmutableList.of(minorFragmentId);
+  }
+}
@@ -59,6 +59,7 @@ import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VarBinaryVector;
@@ -149,12 +150,22 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   private PartitionColFilters partitionColFilters = null;
   private NonPartitionColFilters nonPartitionColFilters = null;
 
+  // Lease on the build side shared with the other fragments of this phase on this node, if any
+  private SharedBuildSide sharedBuild;
+  // Allocator of the build side: the shared one when building it for other fragments
+  private BufferAllocator buildAllocator;
+  // Whether the hyper container, table, links and start indices are ours to close
+  private boolean ownsBuildSide = true;
+  // Whether the build side is consumed but the shared one isn't published yet
+  private boolean awaitingSharedBuild = false;
+
   public VectorizedHashJoinOperator(OperatorContext context, HashJoinPOP popConfig)
       throws OutOfMemoryException {
     this.context = context;
     this.config = popConfig;
     this.joinType = popConfig.getJoinType();
     this.outgoing = new VectorContainer(context.getAllocator());
+    this.buildAllocator = context.getAllocator();
     final Set<Integer> allMinorFragments =
         context.getAssignments().stream()
             .flatMap(a -> a.getMinorFragmentIdList().stream())
@@ -333,18 +344,30 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
         buildPivot.getBitCount(),
         probePivot.getBitCount());
 
+    if (config.isSharedBuild()) {
+      sharedBuild = context.acquireSharedBuildSide(config.getProps().getOperatorId());
+    }
+    if (sharedBuild != null && sharedBuild.isBuilder()) {
+      buildAllocator = sharedBuild.getAllocator();
+    }
+    // fragments waiting for a shared build side adopt its container and table instead
+    final boolean buildsTable = sharedBuild == null || sharedBuild.isBuilder();
+
     this.mode = mode;
     switch (mode) {
       case VECTORIZED_BIGINT:
         // For only one eight byte key, we keep key in hyper container, so we don't need to unpivot
         // the key
         this.buildUnpivot = null;
+        if (!buildsTable) {
+          break;
+        }
         // Create the hyper container that all the fields, including key, will be added
-        hyperContainer = new ExpandableHyperContainer(context.getAllocator(), right.getSchema());
+        hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema());
         // Create eight byte key hash table to improve the performance for only one eight byte key
         this.table =
             new EightByteInnerLeftProbeOff(
-                context.getAllocator(),
+                buildAllocator,
                 (int) context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE),
                 probePivot,
                 buildPivot,
@@ -353,16 +376,18 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
       case VECTORIZED_GENERIC:
         // Create the PivotDef for unpivot in projectBuildNonMatches
         this.buildUnpivot = PivotBuilder.getBlockDefinition(buildOutputFields);
+        if (!buildsTable) {
+          break;
+        }
         // Create the hyper container with isKeyBits that indicates which field is key and will not
         // be added to hyper container
-        hyperContainer =
-            new ExpandableHyperContainer(context.getAllocator(), right.getSchema(), isKeyBits);
+        hyperContainer = new ExpandableHyperContainer(buildAllocator, right.getSchema(), isKeyBits);
         // Create generic hash table
         this.table =
             new BlockJoinTable(
                 buildPivot,
                 probePivot,
-                context.getAllocator(),
+                buildAllocator,
                 comparator,
                 (int) context.getOptions().getOption(ExecConstants.MIN_HASH_TABLE_SIZE),
                 INITIAL_VAR_FIELD_AVERAGE_SIZE,
@@ -405,6 +430,11 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void consumeDataRight(int records) throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (sharedBuild != null && !sharedBuild.isBuilder()) {
+      // the broadcast is normally only sent to the builder, which inserts it into the shared table
+      return;
+    }
+
     // ensure that none of the variable length vectors are corrupt so we can avoid doing bounds
     // checking later.
     for (FieldVector v : buildVectorsToValidate) {
@@ -431,7 +461,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
      * to the hyper vector container. Will be used when we want to retrieve
      * records that have matching keys on the probe side.
      */
-    hyperContainer.addBatch(VectorContainer.getTransferClone(right, context.getAllocator()));
+    hyperContainer.addBatch(VectorContainer.getTransferClone(right, buildAllocator));
     // completed processing a batch, increment batch index
 
     buildBatchIndex++;
@@ -578,6 +608,35 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public void noMoreToConsumeRight() throws Exception {
     state.is(State.CAN_CONSUME_R);
 
+    if (sharedBuild != null) {
+      if (sharedBuild.isBuilder()) {
+        sharedBuild.publish(hyperContainer, table, buildInfoList, startIndices, maxHashTableIndex);
+        ownsBuildSide = false;
+      } else if (sharedBuild.awaitPublished()) {
+        adoptSharedBuild();
+      } else {
+        // outputData() produces nothing until the builder publishes and unblocks our pipeline
+        awaitingSharedBuild = true;
+        state = State.CAN_PRODUCE;
+        return;
+      }
+    }
+    finishBuild();
+  }
+
+  private void adoptSharedBuild() {
+    hyperContainer = sharedBuild.getHyperContainer();
+    table = sharedBuild.getTable().probeView(context.getAllocator(), probePivot);
+    ownsBuildSide = false;
+    buildInfoList.addAll(sharedBuild.getBuildInfos());
+    startIndices.addAll(sharedBuild.getStartIndices());
+    maxHashTableIndex = sharedBuild.getMaxHashTableIndex();
+    for (int i = 0; i < startIndices.size(); i++) {
+      keyMatchBitVectors.add(new MatchBitSet(HashTable.BATCH_SIZE, context.getAllocator()));
+    }
+  }
+
+  private void finishBuild() throws Exception {
     if (runtimeFilterEnabled
         && (!config.getRuntimeFilterInfo().isBroadcastJoin() || table.size() > 0)) {
       // for shuffled hash join case, need push runtime filer even though build side
@@ -631,6 +690,16 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
 
+    if (awaitingSharedBuild) {
+      if (!sharedBuild.awaitPublished()) {
+        return outgoing.setAllCount(0);
+      }
+      awaitingSharedBuild = false;
+      adoptSharedBuild();
+      finishBuild();
+      return outgoing.setAllCount(0);
+    }
+
     updateStats();
 
     if (!finishedProbe) {
@@ -674,8 +743,7 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     // Each link is 6 bytes.
     // First 4 bytes are used to identify the batch and remaining 2 bytes for record within the
     // batch.
-    final ArrowBuf linkBuf =
-        context.getAllocator().buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
+    final ArrowBuf linkBuf = buildAllocator.buffer(recordCount * HashTable.BUILD_RECORD_LINK_SIZE);
 
     // Initialize the buffer. Write -1 (int) in the first four bytes.
     long bufOffset = linkBuf.memoryAddress();
@@ -792,15 +860,22 @@ public class VectorizedHashJoinOperator implements DualInputOperator {
     autoCloseables.add(partitionColFilters);
     autoCloseables.add(nonPartitionColFilters);
     autoCloseables.add(filterManager);
-    autoCloseables.add(hyperContainer);
-    autoCloseables.add(table);
+    if (ownsBuildSide) {
+      autoCloseables.add(hyperContainer);
+      autoCloseables.addAll(buildInfoList);
+      autoCloseables.addAll(startIndices);
+    }
+    if (ownsBuildSide || (sharedBuild != null && !sharedBuild.isBuilder())) {
+      // a fragment that adopted a shared build side probes it through its own view of the table
+      autoCloseables.add(table);
+    }
     autoCloseables.add(probe);
     autoCloseables.add(outgoing);
-    autoCloseables.addAll(buildInfoList);
     autoCloseables.addAll(probeIncomingKeys);
     autoCloseables.addAll(buildOutputKeys);
-    autoCloseables.addAll(startIndices);
     autoCloseables.addAll(keyMatchBitVectors);
+    // released last, as the shared build side may be freed with our lease
+    autoCloseables.add(sharedBuild);
     AutoCloseables.close(autoCloseables);
   }
 
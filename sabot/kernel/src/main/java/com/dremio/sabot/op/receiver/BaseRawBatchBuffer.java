@@ -137,7 +137,13 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
   }
 
   @Override
-  public synchronized RawFragmentBatch getNext() {
+  public RawFragmentBatch getNext() {
+    final RawFragmentBatch b = pollBatch();
+    // decompress outside of the locks, the batch is already out of the queue
+    return b == null ? null : ExchangeDecompressor.decompress(b, allocator);
+  }
+
+  private synchronized RawFragmentBatch pollBatch() {
     RawFragmentBatch b;
 
     synchronized (resource) {
@@ -161,8 +167,8 @@ public abstract class BaseRawBatchBuffer<T> implements RawBatchBuffer {
       upkeep(b);
 
       assertAckSent(b);
-      return b;
     }
+    return b;
   }
 
   @Override
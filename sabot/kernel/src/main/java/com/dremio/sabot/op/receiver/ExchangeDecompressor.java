@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.receiver;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.proto.ExecRPC.FragmentRecordBatch;
+import com.dremio.sabot.op.sender.ExchangeLz4Frames;
+import com.google.flatbuffers.FlatBufferBuilder;
+import com.google.protobuf.ByteString;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.flatbuf.BodyCompression;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.CompressionType;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowFieldNode;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+/**
+ * Decompresses the body of the batches compressed by {@link
+ * com.dremio.sabot.op.sender.ExchangeCompressor}, so that the receivers load them as usual.
+ */
+public final class ExchangeDecompressor {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ExchangeDecompressor.class);
+
+  private ExchangeDecompressor() {}
+
+  /**
+   * Decompresses the body of the given batch, taking over its ownership.
+   *
+   * @return the given batch when its body is not compressed, otherwise a new batch with an
+   *     uncompressed body allocated from the given allocator, in which case the given batch is
+   *     closed.
+   */
+  public static RawFragmentBatch decompress(RawFragmentBatch batch, BufferAllocator allocator) {
+    final ArrowBuf body = batch.getBody();
+    if (body == null) {
+      return batch;
+    }
+    final FragmentRecordBatch header = batch.getHeader();
+    final RecordBatch recordBatch =
+        RecordBatch.getRootAsRecordBatch(header.getArrowRecordBatch().asReadOnlyByteBuffer());
+    final BodyCompression compression = recordBatch.compression();
+    if (compression == null) {
+      return batch;
+    }
+    if (compression.codec() != CompressionType.LZ4_FRAME) {
+      throw UserException.unsupportedError()
+          .message(
+              "Unsupported compression codec %s of a received batch",
+              CompressionType.name(compression.codec()))
+          .build(logger);
+    }
+
+    final int numBuffers = recordBatch.buffersLength();
+    final long[] lengths = new long[numBuffers];
+    long totalLength = 0;
+    for (int i = 0; i < numBuffers; i++) {
+      final Buffer buffer = recordBatch.buffers(i);
+      lengths[i] = uncompressedLength(body, buffer.offset(), buffer.length());
+      totalLength += lengths[i];
+    }
+
+    try (ArrowBuf uncompressed = allocator.buffer(totalLength)) {
+      final List<ArrowBuf> buffers = new ArrayList<>(numBuffers);
+      long offset = 0;
+      for (int i = 0; i < numBuffers; i++) {
+        final Buffer buffer = recordBatch.buffers(i);
+        decompressBuffer(body, buffer.offset(), buffer.length(), uncompressed, offset, lengths[i]);
+        buffers.add(uncompressed.slice(offset, lengths[i]));
+        offset += lengths[i];
+      }
+      uncompressed.writerIndex(totalLength);
+
+      final List<ArrowFieldNode> nodes = new ArrayList<>(recordBatch.nodesLength());
+      for (int i = 0; i < recordBatch.nodesLength(); i++) {
+        final FieldNode node = recordBatch.nodes(i);
+        nodes.add(new ArrowFieldNode(node.length(), node.nullCount()));
+      }
+      final FlatBufferBuilder builder = new FlatBufferBuilder();
+      try (ArrowRecordBatch uncompressedBatch =
+          new ArrowRecordBatch(
+              (int) recordBatch.length(),
+              nodes,
+              buffers,
+              NoCompressionCodec.DEFAULT_BODY_COMPRESSION,
+              false)) {
+        builder.finish(uncompressedBatch.writeTo(builder));
+      }
+
+      final FragmentRecordBatch uncompressedHeader =
+          header.toBuilder()
+              .setArrowRecordBatch(ByteString.copyFrom(builder.dataBuffer()))
+              .build();
+      // the ack was sent when the batch was queued
+      return new RawFragmentBatch(uncompressedHeader, uncompressed, null);
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+          .message("Failed to decompress a batch received from another fragment")
+          .build(logger);
+    } finally {
+      batch.close();
+    }
+  }
+
+  private static long uncompressedLength(ArrowBuf body, long offset, long length) {
+    if (length == 0) {
+      return 0;
+    }
+    final long uncompressedLength = body.getLong(offset);
+    return uncompressedLength == CompressionUtil.NO_COMPRESSION_LENGTH
+        ? length - CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH
+        : uncompressedLength;
+  }
+
+  private static void decompressBuffer(
+      ArrowBuf body, long offset, long length, ArrowBuf out, long outOffset, long outLength)
+      throws IOException {
+    if (length == 0) {
+      return;
+    }
+    final long dataOffset = offset + CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH;
+    final long dataLength = length - CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH;
+    if (body.getLong(offset) == CompressionUtil.NO_COMPRESSION_LENGTH) {
+      out.setBytes(outOffset, body, dataOffset, dataLength);
+      return;
+    }
+
+    ExchangeLz4Frames.decompress(body, dataOffset, dataLength, out, outOffset, outLength);
+  }
+}
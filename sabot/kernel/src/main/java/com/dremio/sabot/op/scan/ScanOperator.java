@@ -223,6 +223,13 @@ public class ScanOperator implements ProducerOperator {
     NUM_ORPHAN_FILES, // Number of orphan files
     NUM_READERS_SKIPPED, // The number of readers skipped due to errors (COPY INTO 'skip_file')
     DRY_RUN_READ_TIME_NS, // The read time of the dry-run phase (COPY INTO 'skip_file')
+    NUM_FOOTER_CACHE_HITS, // Number of parquet footer and page index lookups served from cache
+    NUM_FOOTER_CACHE_MISSES, // Number of parquet footer and page index lookups read from the file
+    NUM_COALESCED_READ_REQUESTS, // Number of ranged reads issued for coalesced parquet chunks
+    NUM_COALESCED_COLUMN_CHUNKS, // Number of parquet column chunks served from coalesced reads
+    COALESCED_READ_GAP_BYTES, // Bytes read between coalesced parquet column chunks and discarded
+    NUM_HEDGED_READS, // Number of async reads issued a second time after the hedge delay
+    NUM_HEDGE_WINS, // Number of hedged async reads completed by the second attempt
     ;
 
     private final DisplayType displayType;
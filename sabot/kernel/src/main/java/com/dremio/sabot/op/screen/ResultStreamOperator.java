@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.screen;
+
+import com.dremio.common.exceptions.ExecutionSetupException;
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.physical.config.ResultStream;
+import com.dremio.exec.proto.UserBitShared.QueryData;
+import com.dremio.exec.record.BatchSchema.SelectionVectorMode;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.WritableBatch;
+import com.dremio.sabot.exec.context.MetricDef;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.exec.rpc.AccountingResultStreamTunnel;
+import com.dremio.sabot.op.spi.SingleInputOperator;
+
+/**
+ * Sends the records of its fragment to the result stream of the fragment, read directly from this
+ * executor. The operator outputs no records, so the screen above it only sends the schema of the
+ * results to the coordinator.
+ */
+public class ResultStreamOperator implements SingleInputOperator {
+
+  private final OperatorContext context;
+  private final OperatorStats stats;
+  private final ResultStream config;
+
+  private State state = State.NEEDS_SETUP;
+  private VectorAccessible incoming;
+  private VectorContainer outgoing;
+  private RecordMaterializer materializer;
+  private AccountingResultStreamTunnel tunnel;
+  private long batchesSent = 0;
+  private boolean completed;
+
+  public enum Metric implements MetricDef {
+    BYTES_SENT;
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
+  public ResultStreamOperator(OperatorContext context, ResultStream config) {
+    this.context = context;
+    this.stats = context.getStats();
+    this.config = config;
+  }
+
+  @Override
+  public VectorAccessible setup(VectorAccessible incoming) throws Exception {
+    state.is(State.NEEDS_SETUP);
+    this.incoming = incoming;
+    this.materializer = new VectorRecordMaterializer(context, incoming);
+    this.outgoing = context.createOutputVectorContainer(incoming.getSchema());
+    outgoing.buildSchema(SelectionVectorMode.NONE);
+    this.tunnel =
+        context
+            .getTunnelProvider()
+            .getResultStreamTunnel(
+                config.getStreamId(),
+                context.getFragmentHandle().getMinorFragmentId(),
+                context.getOptions().getOption(ExecConstants.RESULT_STREAM_ATTACH_TIMEOUT_MILLIS));
+    state = State.CAN_CONSUME;
+    return outgoing;
+  }
+
+  @Override
+  public void consumeData(int records) throws Exception {
+    state.is(State.CAN_CONSUME);
+    final QueryWritableBatch batch = materializer.convertNext(records);
+    stats.addLongStat(Metric.BYTES_SENT, batch.getByteCount());
+    send(batch);
+    batchesSent++;
+  }
+
+  @Override
+  public void noMoreToConsume() throws Exception {
+    state.is(State.CAN_CONSUME);
+    // make sure the reader gets the schema of the results.
+    if (batchesSent == 0) {
+      final WritableBatch writable = WritableBatch.getBatchNoHVWrap(0, incoming, false);
+      final QueryData header =
+          QueryData.newBuilder()
+              .setQueryId(context.getFragmentHandle().getQueryId())
+              .setRowCount(0)
+              .setDef(writable.getDef())
+              .build();
+      writable.close();
+      send(new QueryWritableBatch(header));
+    }
+    tunnel.complete(context.getFragmentHandle().getQueryId());
+    completed = true;
+    state = State.DONE;
+  }
+
+  @Override
+  public int outputData() throws Exception {
+    throw new IllegalStateException("The result stream operator outputs no records.");
+  }
+
+  @Override
+  public <OUT, IN, EXCEP extends Throwable> OUT accept(
+      OperatorVisitor<OUT, IN, EXCEP> visitor, IN value) throws EXCEP {
+    return visitor.visitSingleInput(this, value);
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (tunnel != null && !completed) {
+      tunnel.fail(
+          context.getFragmentHandle().getQueryId(),
+          "Fragment failed before sending all its results.");
+    }
+    if (outgoing != null) {
+      outgoing.close();
+    }
+  }
+
+  @Override
+  public State getState() {
+    return state;
+  }
+
+  private void send(QueryWritableBatch batch) {
+    stats.startWait();
+    try {
+      tunnel.sendData(batch);
+    } finally {
+      stats.stopWait();
+    }
+  }
+
+  public static class Creator implements SingleInputOperator.Creator<ResultStream> {
+
+    @Override
+    public SingleInputOperator create(OperatorContext context, ResultStream operator)
+        throws ExecutionSetupException {
+      return new ResultStreamOperator(context, operator);
+    }
+  }
+}
@@ -0,0 +1,190 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.google.common.annotations.VisibleForTesting;
+import java.util.ArrayList;
+import java.util.List;
+import net.jpountz.lz4.LZ4Exception;
+import org.apache.arrow.flatbuf.BodyCompressionMethod;
+import org.apache.arrow.flatbuf.CompressionType;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.message.ArrowBodyCompression;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+
+/**
+ * Compresses the body of the batches sent by a sender, see {@link
+ * com.dremio.sabot.op.receiver.ExchangeDecompressor} for the receiving side.
+ *
+ * <p>Buffers are compressed one by one, as in the Arrow IPC format: every compressed buffer starts
+ * with its uncompressed length as a little endian long, followed by an LZ4 frame written by {@link
+ * ExchangeLz4Frames} straight from the direct memory of the buffer. A length of -1 means the buffer
+ * did not compress and its raw bytes follow. Empty buffers stay empty.
+ *
+ * <p>In adaptive mode, batches that do not compress at least by the configured ratio are sent
+ * uncompressed, and compression is skipped for the next few batches: 1 after the first poorly
+ * compressed batch, twice as many after each following one, up to {@link #MAX_SKIPPED_BATCHES}.
+ *
+ * <p>Not thread safe, senders that flush from several threads use one instance per destination.
+ */
+public class ExchangeCompressor {
+  public static final ArrowBodyCompression LZ4_FRAME_BODY_COMPRESSION =
+      new ArrowBodyCompression(CompressionType.LZ4_FRAME, BodyCompressionMethod.BUFFER);
+
+  @VisibleForTesting static final int MAX_SKIPPED_BATCHES = 64;
+
+  private final BufferAllocator allocator;
+  private final SenderLatencyTracker tracker;
+  private final boolean enabled;
+  private final boolean adaptive;
+  private final double minRatio;
+  private final long minBatchBytes;
+
+  private int batchesToSkip;
+  private int nextSkip = 1;
+
+  public ExchangeCompressor(
+      OptionManager options, BufferAllocator allocator, SenderLatencyTracker tracker) {
+    this(
+        "lz4".equals(options.getOption(ExecConstants.EXCHANGE_COMPRESSION_CODEC)),
+        options.getOption(ExecConstants.EXCHANGE_COMPRESSION_ADAPTIVE),
+        options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MIN_RATIO),
+        options.getOption(ExecConstants.EXCHANGE_COMPRESSION_MIN_BATCH_BYTES),
+        allocator,
+        tracker);
+  }
+
+  @VisibleForTesting
+  ExchangeCompressor(
+      boolean enabled,
+      boolean adaptive,
+      double minRatio,
+      long minBatchBytes,
+      BufferAllocator allocator,
+      SenderLatencyTracker tracker) {
+    this.enabled = enabled;
+    this.adaptive = adaptive;
+    this.minRatio = minRatio;
+    this.minBatchBytes = minBatchBytes;
+    this.allocator = allocator;
+    this.tracker = tracker;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Compresses the body of the given batch, taking over its ownership.
+   *
+   * @return the given batch when it is sent uncompressed, otherwise a new batch owning the
+   *     compressed buffers, in which case the given batch is closed.
+   */
+  public ArrowRecordBatch compress(ArrowRecordBatch batch) {
+    if (!enabled) {
+      return batch;
+    }
+    if (batchesToSkip > 0) {
+      batchesToSkip--;
+      return batch;
+    }
+
+    final List<ArrowBuf> buffers = batch.getBuffers();
+    long uncompressedBytes = 0;
+    for (ArrowBuf buf : buffers) {
+      uncompressedBytes += buf.readableBytes();
+    }
+    if (uncompressedBytes < minBatchBytes) {
+      return batch;
+    }
+
+    final long start = System.nanoTime();
+    final List<ArrowBuf> compressed = new ArrayList<>(buffers.size());
+    try {
+      long compressedBytes = 0;
+      for (ArrowBuf buf : buffers) {
+        final ArrowBuf compressedBuf = compressBuffer(buf);
+        compressed.add(compressedBuf);
+        compressedBytes += compressedBuf.readableBytes();
+      }
+
+      if (adaptive && uncompressedBytes < minRatio * compressedBytes) {
+        batchesToSkip = nextSkip;
+        nextSkip = Math.min(nextSkip * 2, MAX_SKIPPED_BATCHES);
+        return batch;
+      }
+      nextSkip = 1;
+
+      // the new batch holds its own reference to the compressed buffers
+      final ArrowRecordBatch compressedBatch =
+          new ArrowRecordBatch(
+              batch.getLength(), batch.getNodes(), compressed, LZ4_FRAME_BODY_COMPRESSION, false);
+      tracker.addCompressedBatch(uncompressedBytes, compressedBytes);
+      batch.close();
+      return compressedBatch;
+    } catch (LZ4Exception e) {
+      throw UserException.dataWriteError(e)
+          .message("Failed to compress a batch sent to another fragment")
+          .buildSilently();
+    } finally {
+      for (ArrowBuf buf : compressed) {
+        buf.close();
+      }
+      tracker.addCompressionNanos(System.nanoTime() - start);
+    }
+  }
+
+  private ArrowBuf compressBuffer(ArrowBuf buf) {
+    final long length = buf.readableBytes();
+    if (length == 0) {
+      return allocator.getEmpty();
+    }
+
+    final ArrowBuf compressedBuf =
+        allocator.buffer(
+            CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH
+                + ExchangeLz4Frames.maxCompressedLength(length));
+    try {
+      final long frameLength =
+          ExchangeLz4Frames.compress(
+              buf,
+              buf.readerIndex(),
+              length,
+              compressedBuf,
+              CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH);
+      final long compressedLength;
+      if (frameLength < length) {
+        compressedLength = CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + frameLength;
+        compressedBuf.setLong(0, length);
+      } else {
+        compressedLength = CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH + length;
+        compressedBuf.setLong(0, CompressionUtil.NO_COMPRESSION_LENGTH);
+        compressedBuf.setBytes(
+            CompressionUtil.SIZE_OF_UNCOMPRESSED_LENGTH, buf, buf.readerIndex(), length);
+      }
+      compressedBuf.writerIndex(compressedLength);
+      return compressedBuf;
+    } catch (RuntimeException e) {
+      compressedBuf.close();
+      throw e;
+    }
+  }
+}
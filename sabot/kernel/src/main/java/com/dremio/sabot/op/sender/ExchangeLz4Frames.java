@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import net.jpountz.xxhash.XXHashFactory;
+import org.apache.arrow.memory.ArrowBuf;
+
+/**
+ * Writes and reads the LZ4 frames of the buffers sent between fragments, block by block, straight
+ * between direct memory buffers.
+ *
+ * <p>The frames written have independent blocks of at most 64 KB, without checksums or content
+ * size. Blocks which do not compress are stored raw. Frames with block or content checksums are
+ * read as well, without checking them.
+ */
+public final class ExchangeLz4Frames {
+  private static final int MAGIC = 0x184D2204;
+  private static final int VERSION = 1;
+  private static final int FLAG_BLOCK_INDEPENDENCE = 0x20;
+  private static final int FLAG_BLOCK_CHECKSUM = 0x10;
+  private static final int FLAG_CONTENT_SIZE = 0x08;
+  private static final int FLAG_CONTENT_CHECKSUM = 0x04;
+  private static final int FLAG_DICTIONARY_ID = 0x01;
+  private static final int BLOCK_SIZE = 64 * 1024;
+  private static final int BLOCK_MAX_SIZE_64KB = 4 << 4;
+  private static final int RAW_BLOCK = 0x80000000;
+
+  private static final byte FLAGS = (byte) ((VERSION << 6) | FLAG_BLOCK_INDEPENDENCE);
+  private static final byte BLOCK_DESCRIPTOR = (byte) BLOCK_MAX_SIZE_64KB;
+  private static final byte HEADER_CHECKSUM =
+      (byte)
+          (XXHashFactory.fastestInstance()
+                  .hash32()
+                  .hash(new byte[] {FLAGS, BLOCK_DESCRIPTOR}, 0, 2, 0)
+              >> 8);
+  // magic, flags, block descriptor and header checksum
+  private static final int HEADER_SIZE = 7;
+  private static final int END_MARK_SIZE = 4;
+
+  private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+  private static final LZ4SafeDecompressor DECOMPRESSOR =
+      LZ4Factory.fastestInstance().safeDecompressor();
+
+  private ExchangeLz4Frames() {}
+
+  /** Returns the maximum length of the frame of {@code length} bytes. */
+  public static long maxCompressedLength(long length) {
+    final long fullBlocks = length / BLOCK_SIZE;
+    final int lastBlock = (int) (length % BLOCK_SIZE);
+    return HEADER_SIZE
+        + fullBlocks * (Integer.BYTES + COMPRESSOR.maxCompressedLength(BLOCK_SIZE))
+        + (lastBlock == 0 ? 0 : Integer.BYTES + COMPRESSOR.maxCompressedLength(lastBlock))
+        + END_MARK_SIZE;
+  }
+
+  /**
+   * Writes the frame of the given bytes.
+   *
+   * @param dst the buffer to write the frame to, with at least {@link #maxCompressedLength(long)}
+   *     bytes available from {@code dstOffset}.
+   * @return the length of the frame.
+   */
+  public static long compress(
+      ArrowBuf src, long srcOffset, long srcLength, ArrowBuf dst, long dstOffset) {
+    long out = dstOffset;
+    dst.setInt(out, MAGIC);
+    dst.setByte(out + 4, FLAGS);
+    dst.setByte(out + 5, BLOCK_DESCRIPTOR);
+    dst.setByte(out + 6, HEADER_CHECKSUM);
+    out += HEADER_SIZE;
+
+    for (long pos = 0; pos < srcLength; ) {
+      final int n = (int) Math.min(BLOCK_SIZE, srcLength - pos);
+      final int maxLength = COMPRESSOR.maxCompressedLength(n);
+      final int compressedLength =
+          COMPRESSOR.compress(
+              src.nioBuffer(srcOffset + pos, n),
+              0,
+              n,
+              dst.nioBuffer(out + Integer.BYTES, maxLength),
+              0,
+              maxLength);
+      if (compressedLength < n) {
+        dst.setInt(out, compressedLength);
+        out += Integer.BYTES + compressedLength;
+      } else {
+        dst.setInt(out, n | RAW_BLOCK);
+        dst.setBytes(out + Integer.BYTES, src, srcOffset + pos, n);
+        out += Integer.BYTES + n;
+      }
+      pos += n;
+    }
+
+    dst.setInt(out, 0);
+    out += END_MARK_SIZE;
+    return out - dstOffset;
+  }
+
+  /**
+   * Reads the frame in the given bytes.
+   *
+   * @param dst the buffer to write the {@code dstLength} bytes of the frame to.
+   * @throws IOException when the frame is invalid, or does not hold {@code dstLength} bytes.
+   */
+  public static void decompress(
+      ArrowBuf src, long srcOffset, long srcLength, ArrowBuf dst, long dstOffset, long dstLength)
+      throws IOException {
+    final long srcEnd = srcOffset + srcLength;
+    long in = srcOffset;
+    if (srcLength < HEADER_SIZE || src.getInt(in) != MAGIC) {
+      throw new IOException("Not an LZ4 frame");
+    }
+    final int flags = src.getByte(in + 4);
+    if ((flags >>> 6 & 0x3) != VERSION || (flags & FLAG_BLOCK_INDEPENDENCE) == 0) {
+      throw new IOException(String.format("Unsupported LZ4 frame flags 0x%02x", flags & 0xFF));
+    }
+    in += 6;
+    if ((flags & FLAG_CONTENT_SIZE) != 0) {
+      in += Long.BYTES;
+    }
+    if ((flags & FLAG_DICTIONARY_ID) != 0) {
+      in += Integer.BYTES;
+    }
+    // header checksum
+    in++;
+
+    long pos = 0;
+    while (true) {
+      checkAvailable(in, Integer.BYTES, srcEnd);
+      final int blockSize = src.getInt(in);
+      in += Integer.BYTES;
+      if (blockSize == 0) {
+        break;
+      }
+      final int n = blockSize & ~RAW_BLOCK;
+      checkAvailable(in, n, srcEnd);
+      final int maxLength = (int) Math.min(BLOCK_SIZE, dstLength - pos);
+      if ((blockSize & RAW_BLOCK) != 0) {
+        if (n > maxLength) {
+          throw new IOException("LZ4 frame holds more than " + dstLength + " bytes");
+        }
+        dst.setBytes(dstOffset + pos, src, in, n);
+        pos += n;
+      } else {
+        final ByteBuffer out = dst.nioBuffer(dstOffset + pos, maxLength);
+        try {
+          pos += DECOMPRESSOR.decompress(src.nioBuffer(in, n), 0, n, out, 0, maxLength);
+        } catch (LZ4Exception e) {
+          throw new IOException("Invalid LZ4 block", e);
+        }
+      }
+      in += n;
+      if ((flags & FLAG_BLOCK_CHECKSUM) != 0) {
+        in += Integer.BYTES;
+      }
+    }
+    if (pos != dstLength) {
+      throw new EOFException("LZ4 frame ended after " + pos + " of " + dstLength + " bytes");
+    }
+  }
+
+  private static void checkAvailable(long offset, long length, long end) throws EOFException {
+    if (offset + length > end) {
+      throw new EOFException("LZ4 frame is truncated");
+    }
+  }
+}
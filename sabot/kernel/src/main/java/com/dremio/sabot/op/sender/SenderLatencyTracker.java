@@ -21,6 +21,10 @@ import java.util.concurrent.atomic.AtomicLong;
 public class SenderLatencyTracker {
   private final AtomicLong sumAckMillis = new AtomicLong();
   private final AtomicLong maxAckMillis = new AtomicLong();
+  private final AtomicLong compressionNanos = new AtomicLong();
+  private final AtomicLong batchesCompressed = new AtomicLong();
+  private final AtomicLong bytesBeforeCompression = new AtomicLong();
+  private final AtomicLong bytesAfterCompression = new AtomicLong();
 
   public SenderLatencyTracker() {}
 
@@ -32,6 +36,35 @@ public class SenderLatencyTracker {
     return sumAckMillis.get();
   }
 
+  /** Time spent compressing batches, including the batches that were sent uncompressed. */
+  public long getCompressionNanos() {
+    return compressionNanos.get();
+  }
+
+  public long getBatchesCompressed() {
+    return batchesCompressed.get();
+  }
+
+  /** Size of the compressed batches before compression. */
+  public long getBytesBeforeCompression() {
+    return bytesBeforeCompression.get();
+  }
+
+  /** Size of the compressed batches after compression. */
+  public long getBytesAfterCompression() {
+    return bytesAfterCompression.get();
+  }
+
+  void addCompressionNanos(long nanos) {
+    compressionNanos.getAndAdd(nanos);
+  }
+
+  void addCompressedBatch(long bytesBefore, long bytesAfter) {
+    batchesCompressed.getAndIncrement();
+    bytesBeforeCompression.getAndAdd(bytesBefore);
+    bytesAfterCompression.getAndAdd(bytesAfter);
+  }
+
   public SenderLatencyObserver getLatencyObserver() {
     return this::updateAckMillis;
   }
@@ -30,6 +30,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -41,12 +42,17 @@ import javax.annotation.Nullable;
 import org.apache.arrow.memory.ArrowBuf;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.compression.NoCompressionCodec;
+import org.apache.arrow.vector.ipc.message.ArrowBodyCompression;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 /**
  * Broadcast Sender broadcasts incoming batches to all receivers (one or more). This is useful in
  * cases such as broadcast join where sending the entire table to join to all nodes is cheaper than
  * merging and computing all the joins in the same node.
+ *
+ * <p>Each batch is sent once per node, the node handing it to its receiving fragments. When the
+ * receiving fragments of a node share the build side of a hash join, the batch is only handed to
+ * the fragment building it.
  */
 public class BroadcastOperator extends BaseSender {
   private static final org.slf4j.Logger logger =
@@ -56,11 +62,14 @@ public class BroadcastOperator extends BaseSender {
 
   private final BroadcastSender config;
   private final int[][] receivingMinorFragments;
+  // fragments the batches are sent to, a subset of the receiving ones when sending once per node
+  private final int[][] dataMinorFragments;
   private final AccountingExecTunnel[] tunnels;
   private final ExecProtos.FragmentHandle handle;
   private final OperatorStats stats;
   private final OperatorContext context;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   private VectorAccessible incoming;
 
@@ -69,7 +78,11 @@ public class BroadcastOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    COMPRESSION_NANOS,
+    BATCHES_COMPRESSED,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
 
     @Override
     public int metricId() {
@@ -85,6 +98,8 @@ public class BroadcastOperator extends BaseSender {
     this.context = context;
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.compressor =
+        new ExchangeCompressor(context.getOptions(), context.getAllocator(), latencyTracker);
 
     final List<MinorFragmentEndpoint> destinations =
         config.getDestinations(context.getEndpointsIndex());
@@ -99,6 +114,7 @@ public class BroadcastOperator extends BaseSender {
 
     this.tunnels = new AccountingExecTunnel[destCount];
     this.receivingMinorFragments = new int[destCount][];
+    this.dataMinorFragments = new int[destCount][];
     for (final NodeEndpoint ep : dests.keySet()) {
       List<Integer> minorsList = dests.get(ep);
       int[] minorsArray = new int[minorsList.size()];
@@ -107,6 +123,9 @@ public class BroadcastOperator extends BaseSender {
         minorsArray[x++] = m;
       }
       receivingMinorFragments[i] = minorsArray;
+      // the lowest fragment of each node builds the hash table shared by the node's fragments
+      dataMinorFragments[i] =
+          config.isOncePerNode() ? new int[] {Ints.min(minorsArray)} : minorsArray;
       tunnels[i] = tunnelProvider.getExecTunnel(ep);
       i++;
     }
@@ -130,6 +149,11 @@ public class BroadcastOperator extends BaseSender {
   public void close() throws Exception {
     stats.setLongStat(Metric.SUM_ACK_MILLIS, latencyTracker.getSumAckMillis());
     stats.setLongStat(Metric.MAX_ACK_MILLIS, latencyTracker.getMaxAckMillis());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, latencyTracker.getCompressionNanos());
+    stats.setLongStat(Metric.BATCHES_COMPRESSED, latencyTracker.getBatchesCompressed());
+    stats.setLongStat(
+        Metric.BYTES_BEFORE_COMPRESSION, latencyTracker.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, latencyTracker.getBytesAfterCompression());
   }
 
   @Override
@@ -188,6 +212,25 @@ public class BroadcastOperator extends BaseSender {
                 })
             .toList();
 
+    // compress once for all the receivers
+    ArrowBodyCompression bodyCompression = NoCompressionCodec.DEFAULT_BODY_COMPRESSION;
+    if (compressor.isEnabled()) {
+      final ArrowRecordBatch compressed =
+          compressor.compress(
+              new ArrowRecordBatch(
+                  arrowRecordBatch.getLength(),
+                  arrowRecordBatch.getNodes(),
+                  buffers,
+                  NoCompressionCodec.DEFAULT_BODY_COMPRESSION,
+                  false));
+      // the batch returned by the compressor holds the only reference to the buffers to send
+      for (ArrowBuf buf : buffers) {
+        buf.close();
+      }
+      buffers = compressed.getBuffers();
+      bodyCompression = compressed.getBodyCompression();
+    }
+
     if (tunnels.length > 1) {
       for (ArrowBuf buf : buffers) {
         buf.getReferenceManager().retain(tunnels.length - 1);
@@ -205,9 +248,9 @@ public class BroadcastOperator extends BaseSender {
                   arrowRecordBatch.getLength(),
                   arrowRecordBatch.getNodes(),
                   buffers,
-                  NoCompressionCodec.DEFAULT_BODY_COMPRESSION,
+                  bodyCompression,
                   false),
-              receivingMinorFragments[i]);
+              dataMinorFragments[i]);
       updateStats(batch);
       tunnels[i].sendRecordBatch(batch, latencyTracker.getLatencyObserver());
       for (ArrowBuf buf : buffers) {
@@ -106,7 +106,13 @@ public class PartitionSenderOperator extends BaseSender {
     OOB_PARTITION_COUNTERS_RECEIVES, // Number of times operator received a notification of
     // partition counters from peers.
 
-    OOB_DOP; // Adjusted DOP based on oob messages
+    OOB_DOP, // Adjusted DOP based on oob messages
+
+    // exchange compression metrics
+    COMPRESSION_NANOS,
+    BATCHES_COMPRESSED,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
 
     @Override
     public int metricId() {
@@ -301,6 +307,7 @@ public class PartitionSenderOperator extends BaseSender {
   public void close() throws Exception {
     stats.setLongStat(Metric.SUM_ACK_MILLIS, latencyTracker.getSumAckMillis());
     stats.setLongStat(Metric.MAX_ACK_MILLIS, latencyTracker.getMaxAckMillis());
+    updateCompressionStats(stats, latencyTracker);
 
     if (partitioner != null) {
       updateAggregateStats();
@@ -308,6 +315,15 @@ public class PartitionSenderOperator extends BaseSender {
     }
   }
 
+  public static void updateCompressionStats(
+      OperatorStats stats, SenderLatencyTracker latencyTracker) {
+    stats.setLongStat(Metric.COMPRESSION_NANOS, latencyTracker.getCompressionNanos());
+    stats.setLongStat(Metric.BATCHES_COMPRESSED, latencyTracker.getBatchesCompressed());
+    stats.setLongStat(
+        Metric.BYTES_BEFORE_COMPRESSION, latencyTracker.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, latencyTracker.getBytesAfterCompression());
+  }
+
   static int getNumberPartitions(OperatorContext context, HashPartitionSender config) {
     final OptionManager optMgr = context.getOptions();
     long sliceTarget = optMgr.getOption(ExecConstants.SLICE_TARGET).getNumVal();
@@ -41,6 +41,7 @@ import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Throwables;
@@ -54,6 +55,7 @@ import javax.inject.Named;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.AllocationHelper;
 import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 
 public abstract class PartitionerTemplate implements Partitioner {
   private static final org.slf4j.Logger logger =
@@ -288,6 +290,7 @@ public abstract class PartitionerTemplate implements Partitioner {
     private final VectorContainer vectorContainer = new VectorContainer();
     private final int oppositeMinorFragmentId;
     private final OperatorStats stats;
+    private final ExchangeCompressor compressor;
 
     private int maxRecordCount;
 
@@ -310,6 +313,7 @@ public abstract class PartitionerTemplate implements Partitioner {
       this.stats = stats;
       this.oppositeMinorFragmentId = oppositeMinorFragmentId;
       this.maxRecordCount = maxRecordCount;
+      this.compressor = new ExchangeCompressor(context.getOptions(), allocator, latencyTracker);
     }
 
     protected void copy(int inIndex) throws IOException {
@@ -380,23 +384,26 @@ public abstract class PartitionerTemplate implements Partitioner {
         vectorContainer.buildSchema();
       }
 
-      FragmentWritableBatch writableBatch =
-          FragmentWritableBatch.create(
-              handle.getQueryId(),
-              handle.getMajorFragmentId(),
-              handle.getMinorFragmentId(),
-              operator.getReceiverMajorFragmentId(),
-              vectorContainer,
-              oppositeMinorFragmentId);
+      final ArrowRecordBatch recordBatch =
+          FragmentWritableBatch.getArrowRecordBatch(vectorContainer);
 
-      // update the outgoing batch size if the buffer is too big
-      final long batchLength = writableBatch.getByteCount();
+      // update the outgoing batch size if the buffer is too big, before compression
+      final long batchLength = recordBatch.computeBodyLength();
       if (batchLength > targetOutgoingBatchSize) {
         maxRecordCount = Math.max(minOutgoingBatchRecordCount, maxRecordCount / 2);
       } else if (batchLength * 2 <= targetOutgoingBatchSize) {
         maxRecordCount = Math.min(Character.MAX_VALUE, maxRecordCount * 2);
       }
 
+      FragmentWritableBatch writableBatch =
+          new FragmentWritableBatch(
+              handle.getQueryId(),
+              handle.getMajorFragmentId(),
+              handle.getMinorFragmentId(),
+              operator.getReceiverMajorFragmentId(),
+              compressor.compress(recordBatch),
+              oppositeMinorFragmentId);
+
       updateStats(writableBatch);
       tunnel.sendRecordBatch(writableBatch, latencyTracker.getLatencyObserver());
 
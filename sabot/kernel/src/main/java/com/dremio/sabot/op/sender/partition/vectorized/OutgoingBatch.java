@@ -25,6 +25,7 @@ import com.dremio.exec.record.VectorWrapper;
 import com.dremio.sabot.exec.context.OperatorContext;
 import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.google.common.base.Preconditions;
@@ -65,6 +66,7 @@ public class OutgoingBatch extends VectorContainer {
   private volatile boolean dropAll;
 
   private final SenderLatencyTracker senderLatencyTracker;
+  private final ExchangeCompressor compressor;
 
   OutgoingBatch(
       int batchIdx,
@@ -91,6 +93,8 @@ public class OutgoingBatch extends VectorContainer {
 
     this.stats = stats;
     this.senderLatencyTracker = senderLatencyTracker;
+    this.compressor =
+        new ExchangeCompressor(context.getOptions(), context.getAllocator(), senderLatencyTracker);
 
     for (VectorWrapper<?> v : incoming) {
       ValueVector outgoingVector = TypeHelper.getNewVector(v.getField(), allocator);
@@ -186,12 +190,12 @@ public class OutgoingBatch extends VectorContainer {
 
     final ExecProtos.FragmentHandle handle = context.getFragmentHandle();
     FragmentWritableBatch writableBatch =
-        FragmentWritableBatch.create(
+        new FragmentWritableBatch(
             handle.getQueryId(),
             handle.getMajorFragmentId(),
             handle.getMinorFragmentId(),
             config.getReceiverMajorFragmentId(),
-            this,
+            compressor.compress(FragmentWritableBatch.getArrowRecordBatch(this)),
             oppositeMinorFragmentId);
 
     updateStats(writableBatch);
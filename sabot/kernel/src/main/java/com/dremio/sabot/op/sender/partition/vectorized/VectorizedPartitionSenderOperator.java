@@ -38,6 +38,7 @@ import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
+import com.dremio.sabot.op.sender.partition.PartitionSenderOperator;
 import com.dremio.sabot.op.sender.partition.PartitionSenderOperator.Metric;
 import com.dremio.sabot.op.sender.partition.vectorized.MultiDestCopier.CopyWatches;
 import com.google.common.annotations.VisibleForTesting;
@@ -437,6 +438,7 @@ public class VectorizedPartitionSenderOperator extends BaseSender {
   public void close() throws Exception {
     stats.setLongStat(Metric.SUM_ACK_MILLIS, latencyTracker.getSumAckMillis());
     stats.setLongStat(Metric.MAX_ACK_MILLIS, latencyTracker.getMaxAckMillis());
+    PartitionSenderOperator.updateCompressionStats(stats, latencyTracker);
     AutoCloseables.close(Arrays.asList(batches), Arrays.asList(copyIndices, partitionIndices));
   }
 
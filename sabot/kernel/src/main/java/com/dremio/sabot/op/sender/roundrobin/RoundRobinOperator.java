@@ -30,6 +30,7 @@ import com.dremio.sabot.exec.context.OperatorStats;
 import com.dremio.sabot.exec.rpc.AccountingExecTunnel;
 import com.dremio.sabot.exec.rpc.TunnelProvider;
 import com.dremio.sabot.op.sender.BaseSender;
+import com.dremio.sabot.op.sender.ExchangeCompressor;
 import com.dremio.sabot.op.sender.SenderLatencyTracker;
 import com.dremio.sabot.op.spi.TerminalOperator;
 import com.google.common.base.Function;
@@ -62,6 +63,7 @@ public class RoundRobinOperator extends BaseSender {
   private int currentTunnelsIndex;
   private int currentMinorFragmentsIndex;
   private final SenderLatencyTracker latencyTracker = new SenderLatencyTracker();
+  private final ExchangeCompressor compressor;
 
   private VectorAccessible incoming;
 
@@ -70,7 +72,11 @@ public class RoundRobinOperator extends BaseSender {
     BYTES_SENT,
     BATCHES_SENT,
     SUM_ACK_MILLIS,
-    MAX_ACK_MILLIS;
+    MAX_ACK_MILLIS,
+    COMPRESSION_NANOS,
+    BATCHES_COMPRESSED,
+    BYTES_BEFORE_COMPRESSION,
+    BYTES_AFTER_COMPRESSION;
 
     @Override
     public int metricId() {
@@ -86,6 +92,7 @@ public class RoundRobinOperator extends BaseSender {
     this.allocator = context.getAllocator();
     this.handle = context.getFragmentHandle();
     this.stats = context.getStats();
+    this.compressor = new ExchangeCompressor(context.getOptions(), allocator, latencyTracker);
 
     List<MinorFragmentEndpoint> destinations = config.getDestinations(context.getEndpointsIndex());
     final ArrayListMultimap<NodeEndpoint, Integer> dests = ArrayListMultimap.create();
@@ -125,6 +132,11 @@ public class RoundRobinOperator extends BaseSender {
   public void close() throws Exception {
     stats.setLongStat(Metric.SUM_ACK_MILLIS, latencyTracker.getSumAckMillis());
     stats.setLongStat(Metric.MAX_ACK_MILLIS, latencyTracker.getMaxAckMillis());
+    stats.setLongStat(Metric.COMPRESSION_NANOS, latencyTracker.getCompressionNanos());
+    stats.setLongStat(Metric.BATCHES_COMPRESSED, latencyTracker.getBatchesCompressed());
+    stats.setLongStat(
+        Metric.BYTES_BEFORE_COMPRESSION, latencyTracker.getBytesBeforeCompression());
+    stats.setLongStat(Metric.BYTES_AFTER_COMPRESSION, latencyTracker.getBytesAfterCompression());
   }
 
   @Override
@@ -188,12 +200,13 @@ public class RoundRobinOperator extends BaseSender {
             handle.getMajorFragmentId(),
             handle.getMinorFragmentId(),
             config.getReceiverMajorFragmentId(),
-            new ArrowRecordBatch(
-                arrowRecordBatch.getLength(),
-                arrowRecordBatch.getNodes(),
-                buffers,
-                NoCompressionCodec.DEFAULT_BODY_COMPRESSION,
-                false),
+            compressor.compress(
+                new ArrowRecordBatch(
+                    arrowRecordBatch.getLength(),
+                    arrowRecordBatch.getNodes(),
+                    buffers,
+                    NoCompressionCodec.DEFAULT_BODY_COMPRESSION,
+                    false)),
             minorFragments.get(currentTunnelsIndex).get(currentMinorFragmentsIndex));
     updateStats(batch);
     tunnels.get(currentTunnelsIndex).sendRecordBatch(batch, latencyTracker.getLatencyObserver());
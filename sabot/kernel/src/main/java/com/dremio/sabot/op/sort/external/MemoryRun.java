@@ -92,6 +92,30 @@ class MemoryRun implements AutoCloseable {
       boolean useSplaySort,
       int targetBatchSize,
       ExecutionControls executionControls) {
+    this(
+        sortOrderings,
+        classProducer,
+        allocator,
+        schema,
+        tracer,
+        batchsizeMultiplier,
+        useSplaySort,
+        false,
+        targetBatchSize,
+        executionControls);
+  }
+
+  public MemoryRun(
+      List<Ordering> sortOrderings,
+      ClassProducer classProducer,
+      BufferAllocator allocator,
+      Schema schema,
+      VectorSortTracer tracer,
+      int batchsizeMultiplier,
+      boolean useSplaySort,
+      boolean useRadixSort,
+      int targetBatchSize,
+      ExecutionControls executionControls) {
     this.schema = schema;
     this.allocator = allocator;
     this.classProducer = classProducer;
@@ -102,6 +126,8 @@ class MemoryRun implements AutoCloseable {
     try {
       if (useSplaySort) {
         this.sorter = new SplaySorter(sortOrderings, classProducer, schema, allocator);
+      } else if (useRadixSort && RadixSorter.isSupported(sortOrderings, schema)) {
+        this.sorter = new RadixSorter(sortOrderings, schema, allocator);
       } else {
         this.sorter = new QuickSorter(sortOrderings, classProducer, schema, allocator);
       }
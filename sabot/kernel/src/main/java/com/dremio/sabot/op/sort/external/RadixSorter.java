@@ -0,0 +1,361 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sort.external;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.PathSegment.NameSegment;
+import com.dremio.common.expression.SchemaPath;
+import com.dremio.common.logical.data.Order.Ordering;
+import com.dremio.exec.record.ExpandableHyperContainer;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.exec.record.selection.SelectionVector2;
+import com.dremio.exec.record.selection.SelectionVector4;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Stopwatch;
+import io.netty.util.internal.PlatformDependent;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.ValueVector;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.Types.MinorType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.calcite.rel.RelFieldCollation.Direction;
+
+/**
+ * Sorts the records on fixed-width keys with a LSD radix sort instead of the generated comparator.
+ *
+ * <p>Each record added is turned into a byte-comparable key followed by its sv4 index. For each
+ * sort field, the key holds a null byte then the value in big-endian with its sign bit flipped,
+ * all inverted for descending orderings. Only sorts on top-level INT, BIGINT, DATE, TIME and
+ * TIMESTAMP fields are supported, see {@link #isSupported(List, Schema)}.
+ */
+public class RadixSorter implements Sorter {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(RadixSorter.class);
+
+  // sorts on wider keys take more passes than comparisons
+  static final int MAX_KEY_WIDTH = 32;
+  private static final int SV4_WIDTH = 4;
+
+  private final List<KeyField> keyFields;
+  private final int keyWidth;
+  private final int entryWidth;
+  private final Schema schema;
+  private final BufferAllocator allocator;
+
+  private ExpandableHyperContainer hyperBatch;
+  private ArrowBuf entries;
+  private ArrowBuf scratch;
+  private int capacity;
+  private int totalCount;
+
+  public RadixSorter(List<Ordering> sortOrderings, Schema schema, BufferAllocator allocator) {
+    Preconditions.checkArgument(isSupported(sortOrderings, schema), "Unsupported sort keys.");
+    this.schema = schema;
+    this.allocator = allocator;
+    this.keyFields = new ArrayList<>();
+    int offset = 0;
+    for (Ordering ordering : sortOrderings) {
+      final Field field = findField(schema, ordering.getExpr());
+      final KeyField keyField =
+          new KeyField(
+              field.getName(),
+              getValueWidth(field),
+              ordering.nullsSortHigh(),
+              ordering.getDirection() == Direction.DESCENDING,
+              offset);
+      keyFields.add(keyField);
+      offset += 1 + keyField.valueWidth;
+    }
+    this.keyWidth = offset;
+    this.entryWidth = keyWidth + SV4_WIDTH;
+  }
+
+  /** Whether all the sort keys are top-level fixed-width fields the sorter can normalize. */
+  public static boolean isSupported(List<Ordering> sortOrderings, Schema schema) {
+    if (sortOrderings.isEmpty()) {
+      return false;
+    }
+    int keyWidth = 0;
+    for (Ordering ordering : sortOrderings) {
+      final Field field = findField(schema, ordering.getExpr());
+      if (field == null) {
+        return false;
+      }
+      final int valueWidth = getValueWidth(field);
+      if (valueWidth == 0) {
+        return false;
+      }
+      keyWidth += 1 + valueWidth;
+    }
+    return keyWidth <= MAX_KEY_WIDTH;
+  }
+
+  private static Field findField(Schema schema, LogicalExpression expr) {
+    if (!(expr instanceof SchemaPath)) {
+      return null;
+    }
+    final SchemaPath path = (SchemaPath) expr;
+    if (!(path.getLastSegment() instanceof NameSegment) || path.getNameSegments().size() != 1) {
+      return null;
+    }
+    final String name = path.getNameSegments().get(0);
+    for (Field field : schema.getFields()) {
+      if (field.getName().equalsIgnoreCase(name)) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  /** Returns the width of the values of the field, 0 if the sorter does not support it. */
+  private static int getValueWidth(Field field) {
+    final MinorType minorType = Types.getMinorTypeForArrowType(field.getType());
+    switch (minorType) {
+      case INT:
+      case TIMEMILLI:
+        return 4;
+      case BIGINT:
+      case DATEMILLI:
+      case TIMESTAMPMILLI:
+        return 8;
+      default:
+        return 0;
+    }
+  }
+
+  @Override
+  public boolean expandMemoryIfNecessary(int newRequiredSize) {
+    if (capacity >= newRequiredSize) {
+      return true;
+    }
+    final int newCapacity = MemoryRun.nextPowerOfTwo(newRequiredSize);
+    ArrowBuf newEntries = null;
+    ArrowBuf newScratch = null;
+    try {
+      newEntries = allocator.buffer((long) newCapacity * entryWidth);
+      newScratch = allocator.buffer((long) newCapacity * entryWidth);
+    } catch (OutOfMemoryException ex) {
+      if (newEntries != null) {
+        newEntries.close();
+      }
+      return false;
+    }
+    if (entries != null) {
+      PlatformDependent.copyMemory(
+          entries.memoryAddress(), newEntries.memoryAddress(), (long) totalCount * entryWidth);
+      entries.close();
+      scratch.close();
+    }
+    entries = newEntries;
+    scratch = newScratch;
+    capacity = newCapacity;
+    return true;
+  }
+
+  @Override
+  public void setup(VectorAccessible batch) {
+    hyperBatch = new Sv4HyperContainer(allocator, schema);
+  }
+
+  @Override
+  public void addBatch(RecordBatchData data, BufferAllocator copyTargetAllocator) {
+    final int batchIndex = hyperBatch.size();
+    final VectorAccessible batch = data.getVectorAccessible();
+    hyperBatch.addBatch(batch);
+
+    final int numFields = keyFields.size();
+    final long[] validityAddresses = new long[numFields];
+    final long[] dataAddresses = new long[numFields];
+    for (int i = 0; i < numFields; i++) {
+      final BaseFixedWidthVector vector = findVector(batch, keyFields.get(i).name);
+      validityAddresses[i] = vector.getValidityBufferAddress();
+      dataAddresses[i] = vector.getDataBufferAddress();
+    }
+
+    final SelectionVector2 sv2 = data.getSv2();
+    final int recordCount = data.getRecordCount();
+    Preconditions.checkState(totalCount + recordCount <= capacity, "Sorter was not expanded.");
+    long entryAddress = entries.memoryAddress() + (long) totalCount * entryWidth;
+    for (int count = 0; count < recordCount; count++) {
+      final int index = (sv2 != null ? sv2.getIndex(count) : count) & 65535;
+      for (int i = 0; i < numFields; i++) {
+        keyFields.get(i).writeKey(validityAddresses[i], dataAddresses[i], index, entryAddress);
+      }
+      PlatformDependent.putInt(entryAddress + keyWidth, (batchIndex << 16) | index);
+      entryAddress += entryWidth;
+    }
+    totalCount += recordCount;
+  }
+
+  private static BaseFixedWidthVector findVector(VectorAccessible batch, String name) {
+    for (VectorWrapper<?> wrapper : batch) {
+      final ValueVector vector = wrapper.getValueVector();
+      if (vector.getField().getName().equalsIgnoreCase(name)) {
+        return (BaseFixedWidthVector) vector;
+      }
+    }
+    throw new IllegalStateException(String.format("Sort field %s not found in batch.", name));
+  }
+
+  @Override
+  public ExpandableHyperContainer getHyperBatch() {
+    return hyperBatch;
+  }
+
+  @Override
+  public int getHyperBatchSize() {
+    return hyperBatch != null ? hyperBatch.size() : 0;
+  }
+
+  @Override
+  public SelectionVector4 getFinalSort(BufferAllocator copyTargetAllocator, int targetBatchSize) {
+    final Stopwatch watch = Stopwatch.createStarted();
+    final int passes = totalCount > 1 ? sort() : 0;
+
+    final SelectionVector4 sv4 =
+        new SelectionVector4(
+            copyTargetAllocator.buffer((long) totalCount * SV4_WIDTH),
+            totalCount,
+            targetBatchSize);
+    long entryAddress = entries != null ? entries.memoryAddress() + keyWidth : 0;
+    for (int i = 0; i < totalCount; i++) {
+      sv4.set(i, PlatformDependent.getInt(entryAddress));
+      entryAddress += entryWidth;
+    }
+
+    logger.debug(
+        "Took {} us to radix sort {} records in {} batches with {} passes",
+        watch.elapsed(TimeUnit.MICROSECONDS),
+        totalCount,
+        getHyperBatchSize(),
+        passes);
+    return sv4;
+  }
+
+  /**
+   * Sorts the entries one key byte at a time, from the last one. Bytes equal for all the entries
+   * are skipped, like the high bytes of timestamps close to each other.
+   *
+   * @return the number of passes over the entries
+   */
+  private int sort() {
+    final int[][] histograms = new int[keyWidth][256];
+    long entryAddress = entries.memoryAddress();
+    for (int i = 0; i < totalCount; i++) {
+      for (int b = 0; b < keyWidth; b++) {
+        histograms[b][PlatformDependent.getByte(entryAddress + b) & 0xFF]++;
+      }
+      entryAddress += entryWidth;
+    }
+
+    int passes = 0;
+    final int[] offsets = new int[256];
+    for (int b = keyWidth - 1; b >= 0; b--) {
+      final int[] histogram = histograms[b];
+      if (histogram[PlatformDependent.getByte(entries.memoryAddress() + b) & 0xFF]
+          == totalCount) {
+        continue;
+      }
+      int offset = 0;
+      for (int value = 0; value < 256; value++) {
+        offsets[value] = offset;
+        offset += histogram[value];
+      }
+
+      final long srcAddress = entries.memoryAddress();
+      final long dstAddress = scratch.memoryAddress();
+      long entry = srcAddress;
+      for (int i = 0; i < totalCount; i++) {
+        final int value = PlatformDependent.getByte(entry + b) & 0xFF;
+        PlatformDependent.copyMemory(
+            entry, dstAddress + (long) offsets[value]++ * entryWidth, entryWidth);
+        entry += entryWidth;
+      }
+
+      final ArrowBuf sorted = scratch;
+      scratch = entries;
+      entries = sorted;
+      passes++;
+    }
+    return passes;
+  }
+
+  @Override
+  public void close() throws Exception {
+    AutoCloseables.close(entries, scratch);
+    entries = null;
+    scratch = null;
+  }
+
+  /** A sort field and where its normalized value goes in the keys. */
+  private static final class KeyField {
+    private final String name;
+    private final int valueWidth;
+    private final byte nullByte;
+    private final byte notNullByte;
+    private final boolean descending;
+    private final int offset;
+
+    private KeyField(
+        String name, int valueWidth, boolean nullsHigh, boolean descending, int offset) {
+      this.name = name;
+      this.valueWidth = valueWidth;
+      this.descending = descending;
+      this.offset = offset;
+      // descending orderings invert the whole key, so nulls sort high in the ascending key
+      final byte high = (byte) (descending ? 0x00 : 0x01);
+      final byte low = (byte) (descending ? 0x01 : 0x00);
+      this.nullByte = nullsHigh ? high : low;
+      this.notNullByte = nullsHigh ? low : high;
+    }
+
+    private void writeKey(long validityAddress, long dataAddress, int index, long entryAddress) {
+      final boolean isNull =
+          (PlatformDependent.getByte(validityAddress + (index >>> 3)) & (1 << (index & 7))) == 0;
+      final long address = entryAddress + offset;
+      PlatformDependent.putByte(address, isNull ? nullByte : notNullByte);
+      if (valueWidth == 4) {
+        int value = isNull ? 0 : PlatformDependent.getInt(dataAddress + ((long) index << 2));
+        value ^= Integer.MIN_VALUE;
+        if (descending) {
+          value = ~value;
+        }
+        PlatformDependent.putInt(
+            address + 1,
+            PlatformDependent.BIG_ENDIAN_NATIVE_ORDER ? value : Integer.reverseBytes(value));
+      } else {
+        long value = isNull ? 0 : PlatformDependent.getLong(dataAddress + ((long) index << 3));
+        value ^= Long.MIN_VALUE;
+        if (descending) {
+          value = ~value;
+        }
+        PlatformDependent.putLong(
+            address + 1,
+            PlatformDependent.BIG_ENDIAN_NATIVE_ORDER ? value : Long.reverseBytes(value));
+      }
+    }
+  }
+}
@@ -65,6 +65,7 @@ public abstract class FrameSupportTemplate implements WindowFramer {
 
   private WindowPOP popConfig;
   private int currentBatchIndex;
+  private VectorAccessible frameLastBatch; // batch holding the last row of the current RANGE frame
 
   @Override
   public void setup(
@@ -106,6 +107,14 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     this.current = batches.get(currentBatchIndex);
     outputCount = current.getRecordCount();
     setupSaveFirstValue(current, internal);
+    if (remainingPeersFull > 0 && frameLastBatch != null) {
+      // the pending frame ends in a batch that may have been spilled since the previous call, get
+      // it back in memory before reading its last value
+      final int frameLastBatchIndex = batches.indexOf(frameLastBatch);
+      if (frameLastBatchIndex >= 0) {
+        setupReadLastValue(batches.get(frameLastBatchIndex), container);
+      }
+    }
 
     while (currentRow < outputCount) {
       if (!isPartitionDone()) {
@@ -585,6 +594,7 @@ public abstract class FrameSupportTemplate implements WindowFramer {
     }
 
     setupReadLastValue(last, container);
+    frameLastBatch = last;
     return Pair.of(length, lengthWithSamePeer);
   }
 
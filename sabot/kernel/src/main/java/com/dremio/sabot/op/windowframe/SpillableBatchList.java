@@ -0,0 +1,335 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.windowframe;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.exceptions.UserException;
+import com.dremio.common.utils.protos.QueryIdHelper;
+import com.dremio.exec.proto.ExecProtos.FragmentHandle;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.op.sort.external.SpillManager;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillFile;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillInputStream;
+import com.dremio.sabot.op.sort.external.SpillManager.SpillOutputStream;
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The batches buffered by {@link WindowFrameOperator}, some of which may live on disk.
+ *
+ * <p>Spilling a batch writes it to a spill file and releases the buffers of its vectors, but keeps
+ * the {@link VectorContainer} and its vectors. {@link #get(int)} loads a spilled batch back into
+ * the very same vectors, so the window framers, which bind vectors in their generated code, keep
+ * working on reloaded batches.
+ *
+ * <p>Batches returned by {@link #get(int)} are pinned until the next call to {@link #unpinAll()}
+ * and are never spilled while pinned: the framers may still hold bindings to their vectors. The
+ * last batch is never spilled either, every new batch is compared to it.
+ */
+public final class SpillableBatchList extends AbstractList<VectorContainer>
+    implements AutoCloseable {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(SpillableBatchList.class);
+
+  private final OperatorContext context;
+  private final int operatorId;
+  private final List<Entry> entries = new ArrayList<>();
+
+  private SpillManager spillManager;
+  private int numSpillFiles;
+  private long epoch;
+  private long inMemoryBytes;
+  private long maxBatchBytes;
+
+  private long spillCount;
+  private long batchesSpilled;
+  private long bytesSpilled;
+  private long batchesReloaded;
+  private long reloadNanos;
+
+  public SpillableBatchList(OperatorContext context, int operatorId) {
+    this.context = context;
+    this.operatorId = operatorId;
+  }
+
+  @Override
+  public boolean add(VectorContainer container) {
+    final Entry entry = new Entry(container);
+    entries.add(entry);
+    inMemoryBytes += entry.sizeInBytes;
+    maxBatchBytes = Math.max(maxBatchBytes, entry.sizeInBytes);
+    return true;
+  }
+
+  /** Returns the batch at the given index, loading it back from disk if it was spilled. */
+  @Override
+  public VectorContainer get(int index) {
+    final Entry entry = entries.get(index);
+    if (!entry.inMemory) {
+      reload(entry);
+    }
+    entry.pinnedEpoch = epoch;
+    return entry.container;
+  }
+
+  /** Removes the batch at the given index and releases its memory. */
+  @Override
+  public VectorContainer remove(int index) {
+    final Entry entry = entries.remove(index);
+    if (entry.inMemory) {
+      inMemoryBytes -= entry.sizeInBytes;
+    }
+    entry.container.close();
+    if (entry.file != null) {
+      entry.file.release();
+    }
+    return entry.container;
+  }
+
+  @Override
+  public int size() {
+    return entries.size();
+  }
+
+  /** Looks up a batch by identity, without loading any spilled batch. */
+  @Override
+  public int indexOf(Object o) {
+    for (int i = 0; i < entries.size(); i++) {
+      if (entries.get(i).container == o) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /** Unpins all batches, called at the start of every pump of the operator. */
+  public void unpinAll() {
+    epoch++;
+  }
+
+  /** Memory held by the batches currently in memory. */
+  public long getInMemoryBytes() {
+    return inMemoryBytes;
+  }
+
+  /** Size of the largest batch added to this list. */
+  public long getMaxBatchBytes() {
+    return maxBatchBytes;
+  }
+
+  /** Memory that {@link #spill(long)} can release right now. */
+  public long getSpillableBytes() {
+    long bytes = 0;
+    for (int i = 0; i < entries.size() - 1; i++) {
+      final Entry entry = entries.get(i);
+      if (entry.isSpillable(epoch)) {
+        bytes += entry.sizeInBytes;
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Spills the oldest unpinned batches until at least {@code bytesToRelease} bytes of memory are
+   * released, or nothing else can be spilled. Batches already written by an earlier spill are
+   * released without being written again.
+   *
+   * @return released memory, in bytes
+   */
+  public long spill(long bytesToRelease) throws IOException {
+    long released = 0;
+    long written = 0;
+    int spilled = 0;
+    SharedSpillFile file = null;
+    SpillOutputStream output = null;
+    try {
+      // the last batch is never spilled
+      for (int i = 0; i < entries.size() - 1 && released < bytesToRelease; i++) {
+        final Entry entry = entries.get(i);
+        if (!entry.isSpillable(epoch)) {
+          continue;
+        }
+        if (entry.file == null) {
+          if (output == null) {
+            file = newSpillFile();
+            output = file.spillFile.create(false);
+          }
+          entry.file = file;
+          entry.offset = written;
+          written += output.writeBatch(entry.container);
+          file.retain();
+          spilled++;
+        }
+        entry.container.zeroVectors();
+        entry.inMemory = false;
+        inMemoryBytes -= entry.sizeInBytes;
+        released += entry.sizeInBytes;
+      }
+    } finally {
+      if (output != null) {
+        output.close();
+      }
+    }
+
+    if (released > 0) {
+      spillCount++;
+      batchesSpilled += spilled;
+      bytesSpilled += written;
+      logger.debug(
+          "Released {} bytes of buffered batches, wrote {} batches ({} bytes) to disk",
+          released,
+          spilled,
+          written);
+    }
+    return released;
+  }
+
+  public long getSpillCount() {
+    return spillCount;
+  }
+
+  public long getBatchesSpilled() {
+    return batchesSpilled;
+  }
+
+  public long getBytesSpilled() {
+    return bytesSpilled;
+  }
+
+  public long getBatchesReloaded() {
+    return batchesReloaded;
+  }
+
+  public long getReloadNanos() {
+    return reloadNanos;
+  }
+
+  @Override
+  public void close() throws Exception {
+    final List<AutoCloseable> closeables = new ArrayList<>();
+    for (Entry entry : entries) {
+      closeables.add(entry.container);
+    }
+    closeables.add(spillManager);
+    entries.clear();
+    inMemoryBytes = 0;
+    AutoCloseables.close(closeables);
+  }
+
+  private void reload(Entry entry) {
+    final long start = System.nanoTime();
+    try (SpillInputStream input = entry.file.spillFile.open(false)) {
+      ByteStreams.skipFully(input, entry.offset);
+      input.load(entry.container, context.getAllocator());
+    } catch (IOException e) {
+      throw UserException.dataReadError(e)
+          .message("Failed to read a spilled batch of the window operator")
+          .build(logger);
+    }
+    Preconditions.checkState(
+        entry.container.getRecordCount() == entry.recordCount,
+        "Reloaded %s records, expected %s",
+        entry.container.getRecordCount(),
+        entry.recordCount);
+    entry.inMemory = true;
+    inMemoryBytes += entry.sizeInBytes;
+    batchesReloaded++;
+    reloadNanos += System.nanoTime() - start;
+  }
+
+  private SharedSpillFile newSpillFile() {
+    if (spillManager == null) {
+      final FragmentHandle handle = context.getFragmentHandle();
+      final String id =
+          String.format(
+              "windowspill-%s.%s.%s.%s",
+              QueryIdHelper.getQueryId(handle.getQueryId()),
+              handle.getMajorFragmentId(),
+              handle.getMinorFragmentId(),
+              operatorId);
+      spillManager =
+          new SpillManager(
+              context.getConfig(),
+              context.getOptions(),
+              id,
+              null,
+              context.getSpillService(),
+              "window spilling",
+              context.getStats());
+    }
+    return new SharedSpillFile(spillManager.getSpillFile("run" + numSpillFiles++));
+  }
+
+  private static long sizeInBytes(VectorContainer container) {
+    long size = 0;
+    for (VectorWrapper<?> w : container) {
+      size += w.getValueVector().getBufferSize();
+    }
+    return size;
+  }
+
+  /** A spill file holding the batches of one spill, deleted once none of them is buffered. */
+  private static final class SharedSpillFile {
+    private final SpillFile spillFile;
+    private int liveBatches;
+
+    private SharedSpillFile(SpillFile spillFile) {
+      this.spillFile = spillFile;
+    }
+
+    private void retain() {
+      liveBatches++;
+    }
+
+    private void release() {
+      if (--liveBatches == 0) {
+        try {
+          spillFile.close();
+        } catch (Exception e) {
+          logger.warn("Failed to delete window spill file {}", spillFile.getPath(), e);
+        }
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final VectorContainer container;
+    private final int recordCount;
+    private final long sizeInBytes;
+
+    private boolean inMemory = true;
+    private long pinnedEpoch = -1;
+    // location of the batch on disk, once it was spilled
+    private SharedSpillFile file;
+    private long offset;
+
+    private Entry(VectorContainer container) {
+      this.container = container;
+      this.recordCount = container.getRecordCount();
+      this.sizeInBytes = sizeInBytes(container);
+    }
+
+    private boolean isSpillable(long epoch) {
+      return inMemory && pinnedEpoch != epoch && sizeInBytes > 0;
+    }
+  }
+}
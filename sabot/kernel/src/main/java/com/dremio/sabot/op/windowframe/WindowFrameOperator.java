@@ -20,6 +20,7 @@ import com.dremio.common.exceptions.ExecutionSetupException;
 import com.dremio.common.expression.LogicalExpression;
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.TemplateClassDefinition;
 import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
@@ -34,7 +35,10 @@ import com.dremio.exec.physical.config.WindowPOP.BoundType;
 import com.dremio.exec.record.VectorAccessible;
 import com.dremio.exec.record.VectorContainer;
 import com.dremio.exec.record.VectorWrapper;
+import com.dremio.sabot.exec.context.MetricDef;
 import com.dremio.sabot.exec.context.OperatorContext;
+import com.dremio.sabot.exec.context.OperatorStats;
+import com.dremio.sabot.op.spi.Operator.ShrinkableOperator;
 import com.dremio.sabot.op.spi.SingleInputOperator;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -43,8 +47,8 @@ import com.sun.codemodel.JExpr;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.OutOfMemoryException;
 import org.apache.arrow.vector.ValueVector;
 import org.apache.arrow.vector.util.TransferPair;
@@ -52,15 +56,34 @@ import org.apache.arrow.vector.util.TransferPair;
 /**
  * support for OVER(PARTITION BY expression1,expression2,... [ORDER BY expressionA,
  * expressionB,...])
+ *
+ * <p>Incoming batches are buffered until the frames of their rows can be evaluated. When memory
+ * runs low, or when asked to shrink its memory, the operator spills the buffered batches it is not
+ * working on and loads them back when a frame reaches into them.
  */
-public class WindowFrameOperator implements SingleInputOperator {
+public class WindowFrameOperator implements SingleInputOperator, ShrinkableOperator {
   private static final org.slf4j.Logger logger =
       org.slf4j.LoggerFactory.getLogger(WindowFrameOperator.class);
 
+  public enum Metric implements MetricDef {
+    SPILL_COUNT, // number of times buffered batches were spilled
+    BATCHES_SPILLED, // number of batches written to disk
+    BYTES_SPILLED, // bytes written to disk
+    BATCHES_RELOADED, // number of batches loaded back from disk
+    RELOAD_NANOS; // time spent loading batches back from disk
+
+    @Override
+    public int metricId() {
+      return ordinal();
+    }
+  }
+
   private final OperatorContext context;
   private final List<WindowFunction> functions = Lists.newArrayList();
   private final WindowPOP config;
-  private final LinkedList<VectorContainer> batches = new LinkedList<>();
+  private final SpillableBatchList batches;
+  private final boolean spillEnabled;
+  private final long maxInMemoryBytes;
 
   private VectorAccessible incoming;
   private VectorContainer outgoing;
@@ -76,6 +99,10 @@ public class WindowFrameOperator implements SingleInputOperator {
       throws OutOfMemoryException {
     this.context = context;
     this.config = config;
+    this.batches = new SpillableBatchList(context, config.getProps().getOperatorId());
+    this.spillEnabled = context.getOptions().getOption(ExecConstants.WINDOW_SPILL_ENABLED);
+    this.maxInMemoryBytes =
+        context.getOptions().getOption(ExecConstants.WINDOW_SPILL_MAX_IN_MEMORY_BYTES);
   }
 
   @Override
@@ -99,10 +126,15 @@ public class WindowFrameOperator implements SingleInputOperator {
   @Override
   public void consumeData(int records) throws Exception {
     state.is(State.CAN_CONSUME);
+    batches.unpinAll();
     batches.add(VectorContainer.getTransferClone(incoming, context.getAllocator()));
-    if (canDoWork()) {
+    // canDoWork() pins the batches it looks at, so they are not spilled right away
+    final boolean canDoWork = canDoWork();
+    spillIfNecessary();
+    if (canDoWork) {
       state = State.CAN_PRODUCE;
     }
+    updateStats();
   }
 
   @Override
@@ -119,6 +151,7 @@ public class WindowFrameOperator implements SingleInputOperator {
   @Override
   public int outputData() throws Exception {
     state.is(State.CAN_PRODUCE);
+    batches.unpinAll();
     doWork();
 
     if (batches.isEmpty()) {
@@ -126,9 +159,72 @@ public class WindowFrameOperator implements SingleInputOperator {
     } else if (!noMoreToConsume && !canDoWork()) {
       state = State.CAN_CONSUME;
     }
+    spillIfNecessary();
+    updateStats();
     return outgoing.getRecordCount();
   }
 
+  /**
+   * Spills buffered batches if they use more than the configured memory, or if the allocator is
+   * left with too little room to load a spilled batch back and to produce an output batch.
+   */
+  private void spillIfNecessary() throws IOException {
+    if (!spillEnabled) {
+      return;
+    }
+    long bytesToRelease = batches.getInMemoryBytes() - maxInMemoryBytes;
+    final BufferAllocator allocator = context.getAllocator();
+    final long reserve = 2 * batches.getMaxBatchBytes();
+    if (allocator.getHeadroom() < reserve) {
+      bytesToRelease = Math.max(bytesToRelease, reserve - allocator.getHeadroom());
+    }
+    if (bytesToRelease > 0) {
+      batches.spill(bytesToRelease);
+    }
+  }
+
+  private void updateStats() {
+    final OperatorStats stats = context.getStats();
+    stats.setLongStat(Metric.SPILL_COUNT, batches.getSpillCount());
+    stats.setLongStat(Metric.BATCHES_SPILLED, batches.getBatchesSpilled());
+    stats.setLongStat(Metric.BYTES_SPILLED, batches.getBytesSpilled());
+    stats.setLongStat(Metric.BATCHES_RELOADED, batches.getBatchesReloaded());
+    stats.setLongStat(Metric.RELOAD_NANOS, batches.getReloadNanos());
+  }
+
+  @Override
+  public int getOperatorId() {
+    return config.getProps().getLocalOperatorId();
+  }
+
+  @Override
+  public long shrinkableMemory() {
+    if (!spillEnabled || (state != State.CAN_CONSUME && state != State.CAN_PRODUCE)) {
+      return 0;
+    }
+    return batches.getSpillableBytes();
+  }
+
+  @Override
+  public boolean shrinkMemory(long size) throws Exception {
+    if (shrinkableMemory() > 0) {
+      // spill every batch that is not pinned, a single call releases all we can release
+      batches.spill(Long.MAX_VALUE);
+      updateStats();
+    }
+    return true;
+  }
+
+  @Override
+  public String getOperatorStateToPrint() {
+    return state.name();
+  }
+
+  @Override
+  public long getAllocatedMemory() {
+    return context.getAllocator().getAllocatedMemory();
+  }
+
   private int doWork() throws Exception {
     final VectorContainer current = batches.get(currentBatchIndex);
     final int recordCount = current.getRecordCount();
@@ -191,7 +287,6 @@ public class WindowFrameOperator implements SingleInputOperator {
         currentBatchIndex++;
       }
     } else {
-      current.close();
       batches.remove(currentBatchIndex);
       currentBatchIndex = 0;
     }
@@ -205,7 +300,6 @@ public class WindowFrameOperator implements SingleInputOperator {
     // if current batch is the last one - close all batches, otherwise close all batches before
     // current
     for (int i = isLastBatch ? currentBatchIndex : currentBatchIndex - 1; i >= 0; i--) {
-      batches.get(i).close();
       batches.remove(i);
       currentBatchIndex--;
     }
@@ -267,7 +361,7 @@ public class WindowFrameOperator implements SingleInputOperator {
 
     final VectorAccessible current = batches.get(currentBatchIndex);
     final int currentSize = current.getRecordCount();
-    final VectorAccessible last = batches.getLast();
+    final VectorAccessible last = batches.get(batches.size() - 1);
     final int lastSize = last.getRecordCount();
 
     final boolean partitionEndReached =
@@ -457,7 +551,7 @@ public class WindowFrameOperator implements SingleInputOperator {
     if (framers != null) {
       closeables.addAll(Arrays.asList(framers));
     }
-    closeables.addAll(batches);
+    closeables.add(batches);
     AutoCloseables.close(closeables);
   }
 
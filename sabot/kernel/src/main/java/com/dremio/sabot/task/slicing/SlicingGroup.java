@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskManager;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A weighted node of the scheduling tree of {@link SlicingTaskPool}. Workload queues are children
+ * of the root group, queries are children of their queue and fragments are the tasks of their
+ * query group.
+ *
+ * <p>A group only competes for CPU with its siblings while it has live tasks: its share of the
+ * parent is its weight divided by the weights of the parent's live children.
+ */
+class SlicingGroup implements SchedulingGroup<AsyncTaskWrapper> {
+
+  private final SlicingTaskPool pool;
+  private final SlicingGroup parent;
+  private final String name;
+  private final long weight;
+  private final boolean weightBasedScheduler;
+
+  private final AtomicInteger numChildren = new AtomicInteger();
+  // number of tasks not yet done in this group and its descendants
+  private final AtomicInteger liveTasks = new AtomicInteger();
+  // sum of the weights of the live child groups and live tasks of this group
+  private final AtomicLong liveWeight = new AtomicLong();
+
+  private final LongAdder cpuNanos = new LongAdder();
+  private final LongAdder waitNanos = new LongAdder();
+  private final LongAdder slices = new LongAdder();
+  private final AtomicLong maxWaitNanos = new AtomicLong();
+
+  SlicingGroup(
+      SlicingTaskPool pool,
+      SlicingGroup parent,
+      String name,
+      long weight,
+      boolean weightBasedScheduler) {
+    this.pool = pool;
+    this.parent = parent;
+    this.name = name;
+    this.weight = clampWeight(weight);
+    this.weightBasedScheduler = weightBasedScheduler;
+  }
+
+  @Override
+  public SlicingGroup addGroup(long weight, boolean weightBasedScheduler) {
+    final SlicingGroup group =
+        new SlicingGroup(
+            pool,
+            this,
+            name + "." + numChildren.incrementAndGet(),
+            weight,
+            weightBasedScheduler);
+    if (parent == null) {
+      pool.registerTopLevelGroup(group);
+    }
+    return group;
+  }
+
+  @Override
+  public TaskHandle<AsyncTaskWrapper> addTask(AsyncTaskWrapper task, long weight) {
+    final SlicingTask handle =
+        new SlicingTask(pool, this, task, weightBasedScheduler ? clampWeight(weight) : 1);
+    task.setTaskHandle(handle);
+    taskStarted(handle.getWeight());
+    pool.enqueue(handle, -1);
+    return handle;
+  }
+
+  String getName() {
+    return name;
+  }
+
+  long getWeight() {
+    return weight;
+  }
+
+  /** Fraction of the CPU this group is entitled to, given the groups that currently have work. */
+  double getShare() {
+    double share = 1;
+    for (SlicingGroup g = this; g.parent != null; g = g.parent) {
+      share *= (double) g.weight / Math.max(g.parent.liveWeight.get(), g.weight);
+    }
+    return share;
+  }
+
+  /** Fraction of this group's share a task of the given weight is entitled to. */
+  double getTaskShare(long taskWeight) {
+    return (double) taskWeight / Math.max(liveWeight.get(), taskWeight);
+  }
+
+  /** Accounts a time slice run by a task of this group to the group and its ancestors. */
+  void charge(long runNanos, long waitedNanos) {
+    for (SlicingGroup g = this; g != null; g = g.parent) {
+      g.cpuNanos.add(runNanos);
+      g.waitNanos.add(waitedNanos);
+      g.slices.increment();
+      g.maxWaitNanos.accumulateAndGet(waitedNanos, Math::max);
+    }
+  }
+
+  void taskDone(long taskWeight) {
+    liveWeight.addAndGet(-taskWeight);
+    for (SlicingGroup g = this; g != null; g = g.parent) {
+      if (g.liveTasks.decrementAndGet() == 0 && g.parent != null) {
+        g.parent.liveWeight.addAndGet(-g.weight);
+      }
+    }
+  }
+
+  int getLiveTasks() {
+    return liveTasks.get();
+  }
+
+  long getCpuNanos() {
+    return cpuNanos.sum();
+  }
+
+  long getWaitNanos() {
+    return waitNanos.sum();
+  }
+
+  long getSlices() {
+    return slices.sum();
+  }
+
+  long getMaxWaitNanos() {
+    return maxWaitNanos.get();
+  }
+
+  void clearStats() {
+    cpuNanos.reset();
+    waitNanos.reset();
+    slices.reset();
+    maxWaitNanos.set(0);
+  }
+
+  void taskStarted(long taskWeight) {
+    liveWeight.addAndGet(taskWeight);
+    for (SlicingGroup g = this; g != null; g = g.parent) {
+      if (g.liveTasks.incrementAndGet() == 1 && g.parent != null) {
+        g.parent.liveWeight.addAndGet(g.weight);
+      }
+    }
+  }
+
+  private static long clampWeight(long weight) {
+    return Math.max(1, Math.min(weight, TaskManager.MAX_WEIGHT));
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.sabot.task.SchedulerStats;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link SchedulerStats} of a {@link SlicingTaskPool}: for every workload queue, its share of the
+ * CPU time used by all tasks and the time its tasks waited in run queues since the last clear.
+ */
+final class SlicingSchedulerStats implements SchedulerStats {
+
+  private final SlicingTaskPool pool;
+  private volatile long startNanos = System.nanoTime();
+
+  SlicingSchedulerStats(SlicingTaskPool pool) {
+    this.pool = pool;
+  }
+
+  @Override
+  public boolean currentlyIdleAndHasStats() {
+    return pool.getNumQueuedTasks() == 0 && pool.getNumBusyThreads() == 0 && hasStats();
+  }
+
+  @Override
+  public String getStats(boolean force) {
+    final SlicingGroup root = pool.getRoot();
+    if (!force && !hasStats()) {
+      return "";
+    }
+    final long totalCpuNanos = root.getCpuNanos();
+    final StringBuilder sb = new StringBuilder();
+    sb.append(
+        String.format(
+            "Slicing scheduler over %d s: threads=%d busy=%d queued=%d live_tasks=%d",
+            TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos),
+            pool.getNumThreads(),
+            pool.getNumBusyThreads(),
+            pool.getNumQueuedTasks(),
+            root.getLiveTasks()));
+    append(sb, root, totalCpuNanos);
+    for (SlicingGroup group : pool.getTopLevelGroups()) {
+      append(sb, group, totalCpuNanos);
+    }
+    return sb.toString();
+  }
+
+  @Override
+  public void clearStats() {
+    pool.getRoot().clearStats();
+    for (SlicingGroup group : pool.getTopLevelGroups()) {
+      group.clearStats();
+    }
+    startNanos = System.nanoTime();
+  }
+
+  boolean hasStats() {
+    return pool.getRoot().getSlices() > 0;
+  }
+
+  private static void append(StringBuilder sb, SlicingGroup group, long totalCpuNanos) {
+    final long slices = group.getSlices();
+    sb.append(
+        String.format(
+            "%n  group %s: weight=%d live_tasks=%d cpu_share=%.1f%% entitled_share=%.1f%%"
+                + " slices=%d avg_wait_us=%d max_wait_us=%d",
+            group.getName(),
+            group.getWeight(),
+            group.getLiveTasks(),
+            totalCpuNanos == 0 ? 0.0 : 100.0 * group.getCpuNanos() / totalCpuNanos,
+            100.0 * group.getShare(),
+            slices,
+            slices == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(group.getWaitNanos() / slices),
+            TimeUnit.NANOSECONDS.toMicros(group.getMaxWaitNanos())));
+  }
+}
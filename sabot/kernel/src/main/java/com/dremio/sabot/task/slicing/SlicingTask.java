@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.TaskManager.TaskHandle;
+
+/**
+ * Handle of a task scheduled by {@link SlicingTaskPool}.
+ *
+ * <p>Tasks are ordered by virtual runtime: the CPU time they consumed divided by the share of the
+ * CPU their group and weight entitle them to. The virtual runtime only changes while the task is
+ * out of any run queue.
+ */
+final class SlicingTask implements TaskHandle<AsyncTaskWrapper> {
+
+  private final SlicingTaskPool pool;
+  private final SlicingGroup group;
+  private final AsyncTaskWrapper task;
+  private final long weight;
+
+  private volatile double vruntime;
+  private volatile long enqueuedNanos;
+  private volatile int thread = -1;
+
+  SlicingTask(SlicingTaskPool pool, SlicingGroup group, AsyncTaskWrapper task, long weight) {
+    this.pool = pool;
+    this.group = group;
+    this.task = task;
+    this.weight = weight;
+  }
+
+  @Override
+  public AsyncTaskWrapper getTask() {
+    return task;
+  }
+
+  @Override
+  public void reEnqueue() {
+    pool.enqueue(this, thread);
+  }
+
+  @Override
+  public int getThread() {
+    return thread;
+  }
+
+  @Override
+  public int getCurrentTaskLoad() {
+    final int current = thread;
+    return current < 0 ? 0 : pool.getLoad(current);
+  }
+
+  SlicingGroup getGroup() {
+    return group;
+  }
+
+  long getWeight() {
+    return weight;
+  }
+
+  double getVruntime() {
+    return vruntime;
+  }
+
+  /** Moves the task to a run queue whose clock is at {@code minVruntime}. */
+  void enqueued(int thread, double minVruntime, long nowNanos) {
+    this.thread = thread;
+    this.vruntime = Math.max(vruntime, minVruntime);
+    this.enqueuedNanos = nowNanos;
+  }
+
+  void setThread(int thread) {
+    this.thread = thread;
+  }
+
+  long getEnqueuedNanos() {
+    return enqueuedNanos;
+  }
+
+  /** Accounts a time slice of {@code runNanos} after waiting {@code waitedNanos} in a run queue. */
+  void charge(long runNanos, long waitedNanos) {
+    final double share = group.getShare() * group.getTaskShare(weight);
+    vruntime += runNanos / Math.max(share, Double.MIN_NORMAL);
+    group.charge(runNanos, waitedNanos);
+  }
+
+  void done() {
+    group.taskDone(weight);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s", task.getState());
+  }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.common.concurrent.NamedThreadFactory;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.GroupManager;
+import com.dremio.sabot.task.SchedulerStats;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.TaskMonitor;
+import com.dremio.sabot.task.TaskMonitorObserver;
+import com.dremio.sabot.task.TaskPool;
+import com.dremio.sabot.task.TaskPoolFactory;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * A task pool that runs tasks on a fixed number of threads, about one per core, by time slicing
+ * them cooperatively.
+ *
+ * <p>Every thread has its own run queue and runs the task with the smallest virtual runtime until
+ * it blocks or uses up its quantum. The virtual runtime of a task grows with its CPU time divided
+ * by the share its {@link SchedulingGroup}s and weight entitle it to, which gives workload queues
+ * and queries CPU in proportion to their weights. Threads that run out of work steal tasks from
+ * the others.
+ *
+ * <p>Enabled by setting {@code dremio.task.pool.factory.class} to {@link Factory}.
+ */
+public class SlicingTaskPool implements TaskPool, GroupManager<AsyncTaskWrapper>, TaskMonitor {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(SlicingTaskPool.class);
+
+  private static final long MONITOR_INTERVAL_SECONDS = 1;
+  private static final long STATS_INTERVAL_SECONDS = 60;
+
+  /** Factory for {@code SlicingTaskPool} */
+  public static final class Factory implements TaskPoolFactory {
+    @Override
+    public TaskPool newInstance(OptionManager options, DremioConfig config) {
+      int numThreads = (int) options.getOption(ExecConstants.SLICING_NUM_THREADS);
+      if (numThreads == 0) {
+        numThreads = Runtime.getRuntime().availableProcessors();
+      }
+      return new SlicingTaskPool(
+          numThreads,
+          TimeUnit.MILLISECONDS.toNanos(options.getOption(ExecConstants.SLICING_QUANTUM_MS)),
+          options.getOption(ExecConstants.SLICING_THREAD_MONITOR));
+    }
+  }
+
+  private final SlicingGroup root;
+  private final List<SlicingGroup> topLevelGroups = new CopyOnWriteArrayList<>();
+  private final SlicingThread[] threads;
+  private final SlicingSchedulerStats schedulerStats;
+  private final List<TaskMonitorObserver> observers = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService monitor;
+  private volatile boolean closed;
+  private long monitorRuns;
+
+  @VisibleForTesting
+  SlicingTaskPool(int numThreads, long quantumNanos, boolean enableMonitor) {
+    Preconditions.checkArgument(numThreads > 0, "At least one slicing thread is required");
+    this.root = new SlicingGroup(this, null, "root", 1, true);
+    this.threads = new SlicingThread[numThreads];
+    for (int i = 0; i < numThreads; i++) {
+      threads[i] = new SlicingThread(this, i, quantumNanos);
+    }
+    this.schedulerStats = new SlicingSchedulerStats(this);
+    for (SlicingThread thread : threads) {
+      thread.start();
+    }
+    if (enableMonitor) {
+      monitor =
+          Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("slicing-monitor"));
+      monitor.scheduleWithFixedDelay(
+          this::monitor, MONITOR_INTERVAL_SECONDS, MONITOR_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    } else {
+      monitor = null;
+    }
+  }
+
+  @Override
+  public void execute(AsyncTaskWrapper task) {
+    final SchedulingGroup<AsyncTaskWrapper> group = task.getSchedulingGroup();
+    final SlicingGroup slicingGroup = group instanceof SlicingGroup ? (SlicingGroup) group : root;
+    slicingGroup.addTask(task, task.getTaskWeight());
+  }
+
+  @Override
+  public SchedulingGroup<AsyncTaskWrapper> newGroup(long weight) {
+    return root.addGroup(weight);
+  }
+
+  @Override
+  public GroupManager<AsyncTaskWrapper> getGroupManager() {
+    return this;
+  }
+
+  @Override
+  public TaskMonitor getTaskMonitor() {
+    return this;
+  }
+
+  @Override
+  public void addObserver(TaskMonitorObserver observer) {
+    observers.add(observer);
+  }
+
+  @Override
+  public void removeObserver(TaskMonitorObserver observer) {
+    observers.remove(observer);
+  }
+
+  /** Per group CPU share and run queue wait time of the tasks run by this pool. */
+  public SchedulerStats getSchedulerStats() {
+    return schedulerStats;
+  }
+
+  @Override
+  public Iterable<ThreadInfo> getSlicingThreads() {
+    return Arrays.stream(threads).map(SlicingThread::getThreadInfo).collect(Collectors.toList());
+  }
+
+  @Override
+  public boolean areAllThreadsAlive() {
+    return Arrays.stream(threads).allMatch(Thread::isAlive);
+  }
+
+  @Override
+  public void close() throws Exception {
+    closed = true;
+    if (monitor != null) {
+      monitor.shutdownNow();
+    }
+    for (SlicingThread thread : threads) {
+      thread.interrupt();
+    }
+    for (SlicingThread thread : threads) {
+      thread.join(TimeUnit.SECONDS.toMillis(1));
+    }
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * Queues a runnable task, on its previous thread if there is one and it is not much busier than
+   * the least loaded thread.
+   */
+  void enqueue(SlicingTask task, int preferredThread) {
+    final SlicingThread leastLoaded = leastLoadedThread();
+    SlicingThread target = leastLoaded;
+    if (preferredThread >= 0
+        && preferredThread < threads.length
+        && threads[preferredThread].getLoad() <= leastLoaded.getLoad() + 1) {
+      target = threads[preferredThread];
+    }
+    target.enqueue(task);
+
+    // the target may be busy running another task, let an idle thread steal this one
+    if (target.getLoad() > 1) {
+      for (SlicingThread thread : threads) {
+        if (thread != target && thread.isIdle()) {
+          thread.wakeUp();
+          break;
+        }
+      }
+    }
+  }
+
+  /** Takes a queued task from another thread, starting from the next thread after the thief. */
+  SlicingTask steal(int thief) {
+    for (int i = 1; i < threads.length; i++) {
+      final SlicingTask task = threads[(thief + i) % threads.length].stealTask();
+      if (task != null) {
+        return task;
+      }
+    }
+    return null;
+  }
+
+  int getLoad(int thread) {
+    return threads[thread].getLoad();
+  }
+
+  int getNumThreads() {
+    return threads.length;
+  }
+
+  int getNumQueuedTasks() {
+    return Arrays.stream(threads).mapToInt(SlicingThread::getQueued).sum();
+  }
+
+  int getNumBusyThreads() {
+    return (int) Arrays.stream(threads).filter(t -> t.getLoad() > t.getQueued()).count();
+  }
+
+  SlicingGroup getRoot() {
+    return root;
+  }
+
+  List<SlicingGroup> getTopLevelGroups() {
+    return topLevelGroups;
+  }
+
+  void registerTopLevelGroup(SlicingGroup group) {
+    topLevelGroups.add(group);
+  }
+
+  private SlicingThread leastLoadedThread() {
+    SlicingThread best = threads[0];
+    for (int i = 1; i < threads.length && best.getLoad() > 0; i++) {
+      if (threads[i].getLoad() < best.getLoad()) {
+        best = threads[i];
+      }
+    }
+    return best;
+  }
+
+  private void monitor() {
+    try {
+      boolean statsUpdated = false;
+      if (++monitorRuns % (STATS_INTERVAL_SECONDS / MONITOR_INTERVAL_SECONDS) == 0
+          && (schedulerStats.hasStats())) {
+        logger.info(schedulerStats.getStats(false));
+        schedulerStats.clearStats();
+        statsUpdated = true;
+      }
+      for (TaskMonitorObserver observer : observers) {
+        observer.observeTaskMonitorEvent(statsUpdated);
+      }
+    } catch (Throwable t) {
+      logger.warn("Slicing monitor failed", t);
+    }
+  }
+}
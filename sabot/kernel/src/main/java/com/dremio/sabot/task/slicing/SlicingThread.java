@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import com.dremio.common.perf.StatsCollectionEligibilityRegistrar;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.BlockRun;
+import com.dremio.sabot.task.Task;
+import com.dremio.sabot.task.TaskPool.ThreadInfo;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread of {@link SlicingTaskPool} with its own run queue. It repeatedly runs the task with the
+ * smallest virtual runtime for one quantum, and steals work from the other threads when its own
+ * queue is empty.
+ */
+final class SlicingThread extends Thread {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(SlicingThread.class);
+
+  // idle threads look for work to steal at least this often, even if nobody wakes them up
+  private static final long IDLE_WAIT_MS = 10;
+
+  private final SlicingTaskPool pool;
+  private final int threadId;
+  private final long quantumNanos;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition workAvailable = lock.newCondition();
+  private final PriorityQueue<SlicingTask> runQueue =
+      new PriorityQueue<>(Comparator.comparingDouble(SlicingTask::getVruntime));
+  // virtual runtime of the last task picked by this thread, never decreases. Guarded by lock.
+  private double minVruntime;
+
+  private volatile int queued;
+  private volatile SlicingTask current;
+  private volatile boolean idle;
+  private volatile long numSteals;
+
+  SlicingThread(SlicingTaskPool pool, int threadId, long quantumNanos) {
+    super("e" + threadId + " - slicing");
+    this.pool = pool;
+    this.threadId = threadId;
+    this.quantumNanos = quantumNanos;
+    setDaemon(true);
+  }
+
+  @Override
+  public void run() {
+    StatsCollectionEligibilityRegistrar.addSelf();
+    while (!pool.isClosed()) {
+      try {
+        SlicingTask task = poll();
+        if (task == null) {
+          task = pool.steal(threadId);
+          if (task != null) {
+            numSteals++;
+          }
+        }
+        if (task == null) {
+          awaitWork();
+          continue;
+        }
+        runSlice(task);
+      } catch (InterruptedException e) {
+        logger.info("Thread interrupted, exiting.");
+        return;
+      } catch (Throwable t) {
+        // keep the thread alive, the remaining tasks of its queue still need to run
+        logger.error("Unhandled Exception in slicing thread.", t);
+      }
+    }
+  }
+
+  /** Adds a runnable task to the run queue of this thread. */
+  void enqueue(SlicingTask task) {
+    lock.lock();
+    try {
+      task.enqueued(threadId, minVruntime, System.nanoTime());
+      runQueue.add(task);
+      queued = runQueue.size();
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Removes the most eligible task of this thread for a thread that ran out of work. */
+  SlicingTask stealTask() {
+    if (queued == 0 || !lock.tryLock()) {
+      return null;
+    }
+    try {
+      final SlicingTask task = runQueue.poll();
+      queued = runQueue.size();
+      return task;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  void wakeUp() {
+    lock.lock();
+    try {
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getThreadId() {
+    return threadId;
+  }
+
+  /** Number of tasks queued on or running on this thread. */
+  int getLoad() {
+    return queued + (current != null ? 1 : 0);
+  }
+
+  int getQueued() {
+    return queued;
+  }
+
+  boolean isIdle() {
+    return idle;
+  }
+
+  ThreadInfo getThreadInfo() {
+    return new ThreadInfo(
+        getName(), threadId, -1, -1, getLoad(), queued, (int) numSteals, getId());
+  }
+
+  private SlicingTask poll() {
+    lock.lock();
+    try {
+      final SlicingTask task = runQueue.poll();
+      queued = runQueue.size();
+      if (task != null) {
+        minVruntime = Math.max(minVruntime, task.getVruntime());
+      }
+      return task;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void awaitWork() throws InterruptedException {
+    lock.lock();
+    try {
+      if (runQueue.isEmpty() && !pool.isClosed()) {
+        idle = true;
+        workAvailable.await(IDLE_WAIT_MS, TimeUnit.MILLISECONDS);
+      }
+    } finally {
+      idle = false;
+      lock.unlock();
+    }
+  }
+
+  private void runSlice(SlicingTask handle) {
+    final AsyncTaskWrapper task = handle.getTask();
+    handle.setThread(threadId);
+    current = handle;
+
+    final long start = System.nanoTime();
+    final long waited = Math.max(0, start - handle.getEnqueuedNanos());
+    long end = start;
+    final String preRunName = task.getAsyncTask().preRunUpdate(getLoad());
+    try {
+      // keep running the task until it blocks or its quantum is used up
+      do {
+        task.run();
+        end = System.nanoTime();
+      } while (task.getState() == Task.State.RUNNABLE
+          && end - start < quantumNanos
+          && !pool.isClosed());
+    } finally {
+      task.getAsyncTask().postRunUpdate(end - start, preRunName);
+      current = null;
+    }
+
+    handle.charge(end - start, waited);
+    switch (task.getState()) {
+      case BLOCKED_ON_DOWNSTREAM:
+      case BLOCKED_ON_UPSTREAM:
+      case BLOCKED_ON_SHARED_RESOURCE:
+      case BLOCKED_ON_MEMORY:
+        task.setAvailabilityCallback(new BlockRun(handle));
+        break;
+      case DONE:
+        handle.done();
+        try {
+          task.getCleaner().close();
+        } catch (Exception e) {
+          logger.warn("Failed to clean up task {}", task, e);
+        }
+        break;
+      case RUNNABLE:
+      default:
+        pool.enqueue(handle, threadId);
+        break;
+    }
+  }
+}
@@ -29,6 +29,8 @@ public enum SharedResourceType {
   OUTGOING_MSG_ACK(SharedResourceCategory.DOWNSTREAM),
   WAIT_FOR_MEMORY(SharedResourceCategory.MEMORY),
   FRAGMENT_ACTIVATE_SIGNAL(SharedResourceCategory.OTHER),
+  SHARED_JOIN_BUILD(SharedResourceCategory.OTHER),
+  SEND_MSG_RESULT_STREAM(SharedResourceCategory.DOWNSTREAM),
   TEST(SharedResourceCategory.OTHER);
 
   SharedResourceType(SharedResourceCategory category) {
@@ -100,9 +100,21 @@ public class ColumnChunkIncReadStore implements PageReadStore {
         throw new RuntimeException(ioe);
       }
     }
+
+    @Override
+    public long skipPage(long maxValues) {
+      try {
+        in.seek(lastPosition);
+        final long skipped = super.skipPage(maxValues);
+        lastPosition = in.getPos();
+        return skipped;
+      } catch (IOException ioe) {
+        throw new RuntimeException(ioe);
+      }
+    }
   }
 
-  class ColumnChunkIncPageReader implements PageReader {
+  public class ColumnChunkIncPageReader implements PageReader {
 
     ColumnChunkMetaData metaData;
     ColumnDescriptor columnDescriptor;
@@ -267,6 +279,62 @@ public class ColumnChunkIncReadStore implements PageReadStore {
       }
     }
 
+    /**
+     * Skips the next data page without reading or decompressing its data, provided it holds at
+     * most {@code maxValues} values. Used to jump over pages excluded by the page index.
+     *
+     * @return number of values skipped, or 0 if the next data page was left in place
+     */
+    public long skipPage(long maxValues) {
+      PageHeader pageHeader = new PageHeader();
+      try {
+        releasePrevDataPageBuffers();
+        while (valueReadSoFar < metaData.getValueCount()) {
+          final long pos = in.getPos();
+          pageHeader = Util.readPageHeader(in.asSeekableInputStream());
+          final int numValues;
+          switch (pageHeader.type) {
+            case DICTIONARY_PAGE:
+              if (dictionaryPage == null) {
+                dictionaryPage = readDictionaryPageHelper(pageHeader);
+              } else {
+                in.skip(pageHeader.compressed_page_size);
+              }
+              continue;
+            case DATA_PAGE:
+              numValues = pageHeader.data_page_header.getNum_values();
+              break;
+            case DATA_PAGE_V2:
+              numValues = pageHeader.data_page_header_v2.getNum_values();
+              break;
+            default:
+              in.skip(pageHeader.compressed_page_size);
+              continue;
+          }
+          if (numValues > maxValues) {
+            in.seek(pos);
+            return 0;
+          }
+          in.skip(pageHeader.compressed_page_size);
+          valueReadSoFar += numValues;
+          return numValues;
+        }
+        return 0;
+      } catch (IOException e) {
+        throw new RuntimeException(
+            "Error skipping page."
+                + "\nFile path: "
+                + path.toURI().getPath()
+                + "\nColumn Chunk Metadata: "
+                + metaData
+                + "\nPage Header: "
+                + pageHeader
+                + "\nValue read so far: "
+                + valueReadSoFar,
+            e);
+      }
+    }
+
     void close() {
       try {
         releasePrevDataPageBuffers();
@@ -17,27 +17,38 @@ package com.dremio.exec.compile;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import com.dremio.BaseTestQuery;
+import com.dremio.common.config.SabotConfig;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.compile.sig.GeneratorMapping;
 import com.dremio.exec.compile.sig.MappingSet;
 import com.dremio.exec.expr.ClassGenerator;
 import com.dremio.exec.expr.CodeGenerator;
 import com.dremio.exec.server.options.SessionOptionManagerImpl;
+import com.dremio.exec.store.sys.VersionIterator.VersionInfo;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.exec.context.CompilationOptions;
 import com.dremio.sabot.exec.context.FunctionContext;
 import com.dremio.sabot.rpc.user.UserSession;
+import com.typesafe.config.ConfigValueFactory;
+import java.nio.file.Path;
 import org.junit.BeforeClass;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class TestCodeCompiler extends BaseTestQuery {
 
   private static CodeCompiler codeCompiler;
   private static OptionManager sessionOptions;
 
+  @Rule public final TemporaryFolder persistentCacheFolder = new TemporaryFolder();
+
   @BeforeClass
   public static void beforeTestClassTransformation() {
     final UserSession userSession =
@@ -76,6 +87,80 @@ public class TestCodeCompiler extends BaseTestQuery {
     assertNotEquals(clazz1.getClass(), clazz2.getClass());
   }
 
+  // Check that a class compiled before a restart was loaded from the persistent cache
+  @Test
+  public void checkClassWasLoadedFromPersistentCache() {
+    final SabotConfig config =
+        DEFAULT_SABOT_CONFIG.withValue(
+            ExecConstants.PERSISTENT_CLASS_CACHE_PATH_CONFIG,
+            ConfigValueFactory.fromAnyRef(persistentCacheFolder.getRoot().getAbsolutePath()));
+    final TemplateClassDefinition<ExampleInner> template =
+        new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class);
+
+    ExampleTemplateWithInner clazz1 =
+        new CodeCompiler(config, sessionOptions)
+            .getImplementationClass(newCodeGenerator(template, true));
+    assertEquals(1, persistentCacheFolder.getRoot().list().length);
+
+    // a new compiler starts with empty in-heap caches, as after a restart
+    ExampleTemplateWithInner clazz2 =
+        new CodeCompiler(config, sessionOptions)
+            .getImplementationClass(newCodeGenerator(template, true));
+    // a compiled class would have been named after the new code generator
+    assertEquals(clazz1.getClass().getName(), clazz2.getClass().getName());
+    assertNotEquals(clazz1.getClass(), clazz2.getClass());
+  }
+
+  @Test
+  public void checkPersistentCacheVersionAndSize() throws Exception {
+    final TemplateClassDefinition<ExampleInner> template =
+        new TemplateClassDefinition<>(ExampleInner.class, ExampleTemplateWithInner.class);
+    final CodeGenerator<ExampleInner> cg = newCodeGenerator(template, true);
+    cg.generate();
+    final CodeGenerator.CodeDefinition<ExampleInner> cgd = cg.getCodeDefinition();
+    final ClassCompilerSelector selector =
+        new ClassCompilerSelector(DEFAULT_SABOT_CONFIG, sessionOptions);
+    final QueryClassLoader loader = new QueryClassLoader(selector);
+    final Class<?> clazz =
+        new ClassTransformer(sessionOptions)
+            .getImplementationClass(
+                loader,
+                cgd.getDefinition(),
+                cgd.getGeneratedCode(),
+                cgd.getMaterializedClassName());
+
+    final Path path = persistentCacheFolder.getRoot().toPath();
+    new PersistentClassCache(path, 1 << 20, "1.0").store(loader, cgd, clazz);
+    assertNotNull(
+        new PersistentClassCache(path, 1 << 20, "1.0").load(new QueryClassLoader(selector), cgd));
+    // classes compiled by another version are not loaded
+    assertNull(
+        new PersistentClassCache(path, 1 << 20, "2.0").load(new QueryClassLoader(selector), cgd));
+
+    // entries over the maximum size are evicted
+    final PersistentClassCache small = new PersistentClassCache(path, 1, "1.0");
+    assertEquals(0, small.getNumEntries());
+    assertEquals(0, small.getSizeBytes());
+    assertEquals(0, persistentCacheFolder.getRoot().list().length);
+  }
+
+  @Test
+  public void checkPersistentCacheBuildIdIncludesCommit() {
+    final VersionInfo first = new VersionInfo();
+    first.version = "25.0.0-SNAPSHOT";
+    first.commit_id = "1111111";
+    first.build_time = "2024-01-01T00:00:00+0000";
+    final VersionInfo second = new VersionInfo();
+    second.version = "25.0.0-SNAPSHOT";
+    second.commit_id = "2222222";
+    second.build_time = "2024-01-01T00:00:00+0000";
+    // SNAPSHOT builds of different commits share a version, but not their cached classes
+    assertNotEquals(PersistentClassCache.buildId(first), PersistentClassCache.buildId(second));
+
+    second.commit_id = first.commit_id;
+    assertEquals(PersistentClassCache.buildId(first), PersistentClassCache.buildId(second));
+  }
+
   private <T, X extends T> CodeGenerator<T> newCodeGenerator(
       TemplateClassDefinition<T> template, boolean withInner) {
     CompilationOptions compilationOptions = mock(CompilationOptions.class);
@@ -27,15 +27,20 @@ import static com.dremio.sabot.Fixtures.t;
 import static java.util.Collections.singletonList;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import com.dremio.common.logical.data.NamedExpression;
 import com.dremio.common.logical.data.Order;
+import com.dremio.exec.ExecConstants;
 import com.dremio.exec.physical.config.WindowPOP;
 import com.dremio.exec.physical.config.WindowPOP.Bound;
 import com.dremio.exec.physical.config.WindowPOP.BoundType;
 import com.dremio.sabot.BaseTestOperator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.op.spi.SingleInputOperator.State;
 import com.dremio.sabot.op.windowframe.WindowFrameOperator;
 import java.util.Arrays;
 import java.util.Collections;
@@ -142,4 +147,33 @@ public class TestWindowOperator extends BaseTestOperator {
         Fixtures.t(WindowGenerator.header4657, WindowGenerator.generateOutput4657(partitions));
     validateSingle(window, WindowFrameOperator.class, input, output, 20);
   }
+
+  @Test
+  public void testSpillBufferedBatches() throws Exception {
+    // only keeps the batches the operator is working on in memory, all others are spilled
+    try (AutoCloseable ignored = with(ExecConstants.WINDOW_SPILL_MAX_IN_MEMORY_BYTES, 1)) {
+      runTests(dataB3P2(true), dataB3P2(false));
+      runTests(dataB4P4(true), dataB4P4(false));
+    }
+  }
+
+  @Test
+  public void testShrinkMemory() throws Exception {
+    // without PARTITION BY and ORDER BY all rows are buffered until the end of the input
+    final WindowPOP window = createWindowPOP(false, false);
+    final Table input = t(WindowGenerator.header, generateInput(dataB4P4(false)));
+    try (WindowFrameOperator op = newOperator(WindowFrameOperator.class, window, 20);
+        Generator generator = input.toGenerator(getTestAllocator())) {
+      op.setup(generator.getOutput());
+      int count;
+      while ((count = generator.next(20)) > 0) {
+        op.consumeData(count);
+        assertEquals(State.CAN_CONSUME, op.getState());
+      }
+
+      assertTrue(op.shrinkableMemory() > 0);
+      assertTrue(op.shrinkMemory(op.shrinkableMemory()));
+      assertEquals(0, op.shrinkableMemory());
+    }
+  }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Test;
+
+public class TestDatasetCacheIndex {
+
+  @Test
+  public void testPutAndRemove() {
+    final DatasetCacheIndex index = new DatasetCacheIndex();
+    index.put("ds1", "plan1");
+    index.put("ds2", "plan1");
+    index.put("ds1", "plan2");
+
+    assertEquals(ImmutableSet.of("plan1", "plan2"), index.get("ds1"));
+    assertEquals(ImmutableSet.of("plan1"), index.get("ds2"));
+
+    index.removeCacheId("plan1");
+    assertEquals(ImmutableSet.of("plan2"), index.get("ds1"));
+    assertEquals(ImmutableSet.of(), index.get("ds2"));
+    assertEquals(1, index.getNumDatasets());
+
+    index.removeCacheId("plan2");
+    index.removeCacheId("unknown");
+    assertEquals(0, index.getNumDatasets());
+  }
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    final DatasetCacheIndex index = new DatasetCacheIndex();
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+        final int thread = t;
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 1000; i++) {
+                    final String cacheId = "plan" + thread + "_" + i;
+                    index.put("ds" + (i % 10), cacheId);
+                    if (i % 2 == 0) {
+                      index.removeCacheId(cacheId);
+                    }
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    int numEntries = 0;
+    for (int i = 0; i < 10; i++) {
+      numEntries += index.get("ds" + i).size();
+    }
+    assertEquals(2000, numEntries);
+  }
+
+  @Test
+  public void testConcurrentPutAndRemoveOfSameEntry() throws Exception {
+    final DatasetCacheIndex index = new DatasetCacheIndex();
+    final ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      for (int i = 0; i < 1000; i++) {
+        final String cacheId = "plan" + i;
+        final Future<?> put = executor.submit(() -> index.put("ds1", cacheId));
+        final Future<?> remove = executor.submit(() -> index.removeCacheId(cacheId));
+        put.get();
+        remove.get();
+        // whichever ran first, removing the entry again leaves nothing behind
+        index.removeCacheId(cacheId);
+        assertEquals(0, index.getNumDatasets());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
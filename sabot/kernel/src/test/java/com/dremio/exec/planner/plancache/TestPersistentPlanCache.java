@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dremio.context.RequestContext;
+import com.dremio.datastore.api.LegacyKVStore;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.ops.PlannerCatalog;
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.physical.Prel;
+import com.dremio.exec.planner.sql.SqlConverter;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.store.CatalogService;
+import com.dremio.sabot.kernel.proto.PlanCacheProtobuf.DatasetVersion;
+import com.dremio.sabot.kernel.proto.PlanCacheProtobuf.PersistedPlan;
+import com.dremio.sabot.kernel.proto.PlanCacheProtobuf.PlanInvalidation;
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage;
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage.CatalogEvent;
+import com.dremio.service.namespace.CatalogEventProto.CatalogEventMessage.CatalogEventType;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.proto.EntityId;
+import com.dremio.services.pubsub.MessageAckStatus;
+import com.dremio.services.pubsub.MessageContainerBase;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.protobuf.ByteString;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPersistentPlanCache {
+  private static final PlanCacheKey KEY = new PlanCacheKey("plan");
+
+  private LegacyKVStore<String, PersistedPlan> plans;
+  private LegacyKVStore<String, PlanInvalidation> invalidations;
+  private PersistentPlanCache cache;
+  private SqlHandlerConfig config;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setup() {
+    plans = mock(LegacyKVStore.class);
+    invalidations = mock(LegacyKVStore.class);
+    when(invalidations.get(anyList()))
+        .thenAnswer(
+            invocation ->
+                Arrays.asList(new PlanInvalidation[invocation.<List<?>>getArgument(0).size()]));
+    cache =
+        new PersistentPlanCache(
+            CacheBuilder.newBuilder().build(),
+            new DatasetCacheIndex(),
+            new QueryResultCache(CacheBuilder.newBuilder().build(), new DatasetCacheIndex()),
+            () -> plans,
+            () -> invalidations,
+            TimeUnit.HOURS.toMillis(1));
+
+    final PlannerCatalog catalog = mock(PlannerCatalog.class);
+    when(catalog.getAllRequestedTables()).thenReturn(ImmutableList.of(table("ds1", "1")));
+    final SqlConverter converter = mock(SqlConverter.class);
+    when(converter.getPlannerCatalog()).thenReturn(catalog);
+    final QueryContext context = mock(QueryContext.class);
+    when(context.getCatalogService()).thenReturn(mock(CatalogService.class));
+    config = mock(SqlHandlerConfig.class);
+    when(config.getConverter()).thenReturn(converter);
+    when(config.getContext()).thenReturn(context);
+  }
+
+  @Test
+  public void testMissingSharedPlan() {
+    assertNull(cache.getIfPresentAndValid(config, KEY));
+    verify(plans, never()).delete(anyString());
+  }
+
+  @Test
+  public void testExpiredSharedPlanIsDropped() {
+    when(plans.get(KEY.getHash()))
+        .thenReturn(persistedPlan("1", System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2)));
+    assertNull(cache.getIfPresentAndValid(config, KEY));
+    verify(plans).delete(KEY.getHash());
+  }
+
+  @Test
+  public void testSharedPlanOfUpdatedDatasetIsDropped() {
+    when(plans.get(KEY.getHash())).thenReturn(persistedPlan("0", System.currentTimeMillis()));
+    assertNull(cache.getIfPresentAndValid(config, KEY));
+    verify(plans).delete(KEY.getHash());
+  }
+
+  @Test
+  public void testSharedPlanInvalidatedByAnotherCoordinatorIsDropped() {
+    final long creationTime = System.currentTimeMillis() - 1000;
+    when(plans.get(KEY.getHash())).thenReturn(persistedPlan("1", creationTime));
+    when(invalidations.get(anyList()))
+        .thenReturn(
+            Arrays.asList(
+                PlanInvalidation.newBuilder().setInvalidatedAt(creationTime + 1).build(), null));
+    assertNull(cache.getIfPresentAndValid(config, KEY));
+    verify(plans).delete(KEY.getHash());
+  }
+
+  @Test
+  public void testInvalidationsAreShared() {
+    cache.invalidateCacheOnDataset("ds1");
+    verify(invalidations).put(eq("ds1"), any(PlanInvalidation.class));
+    cache.invalidateAll();
+    verify(invalidations).put(eq("*"), any(PlanInvalidation.class));
+  }
+
+  @Test
+  public void testCatalogEventInvalidatesLocalPlans() {
+    final CachedPlan cachedPlan = CachedPlan.createCachedPlan(mock(Prel.class), 1);
+    cachedPlan.setDatasetVersions(ImmutableMap.of("ds1", "1"));
+    cache.addCachedPlan(config, KEY.getHash(), cachedPlan);
+    assertNotNull(cache.getCachePlans().getIfPresent(KEY.getHash()));
+
+    final PlanCacheCatalogEventConsumer consumer = new PlanCacheCatalogEventConsumer(cache);
+    consumer.process(event(CatalogEventType.CATALOG_EVENT_TYPE_UPDATED, "source", "other"));
+    assertNotNull(cache.getCachePlans().getIfPresent(KEY.getHash()));
+    consumer.process(event(CatalogEventType.CATALOG_EVENT_TYPE_UPDATED, "SOURCE", "DS1"));
+    assertNull(cache.getCachePlans().getIfPresent(KEY.getHash()));
+    assertEquals(0, cache.getCachePlans().size());
+  }
+
+  private static PersistedPlan persistedPlan(String tag, long creationTime) {
+    return PersistedPlan.newBuilder()
+        .setPrel(ByteString.EMPTY)
+        .setCreationTime(creationTime)
+        .addDatasetVersions(DatasetVersion.newBuilder().setDatasetId("ds1").setTag(tag).build())
+        .build();
+  }
+
+  private static DremioTable table(String id, String tag) {
+    final DatasetConfig datasetConfig =
+        new DatasetConfig()
+            .setId(new EntityId(id))
+            .setTag(tag)
+            .setType(DatasetType.PHYSICAL_DATASET)
+            .setFullPathList(ImmutableList.of("source", id));
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getDatasetConfig()).thenReturn(datasetConfig);
+    when(table.getPath()).thenReturn(new NamespaceKey(ImmutableList.of("source", id)));
+    return table;
+  }
+
+  private static MessageContainerBase<CatalogEventMessage> event(
+      CatalogEventType type, String... path) {
+    final CatalogEventMessage message =
+        CatalogEventMessage.newBuilder()
+            .addEvents(
+                CatalogEvent.newBuilder().setEventType(type).addAllPath(Arrays.asList(path)))
+            .build();
+    return new MessageContainerBase<>("id", message, RequestContext.empty()) {
+      @Override
+      public CompletableFuture<MessageAckStatus> ack() {
+        return CompletableFuture.completedFuture(MessageAckStatus.SUCCESSFUL);
+      }
+
+      @Override
+      public CompletableFuture<MessageAckStatus> nack() {
+        return CompletableFuture.completedFuture(MessageAckStatus.SUCCESSFUL);
+      }
+    };
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.plancache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.catalog.Catalog;
+import com.dremio.exec.catalog.DremioTable;
+import com.dremio.exec.ops.PlannerCatalog;
+import com.dremio.exec.ops.QueryContext;
+import com.dremio.exec.planner.physical.PlannerSettings;
+import com.dremio.exec.planner.sql.handlers.SqlHandlerConfig;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.service.namespace.NamespaceKey;
+import com.dremio.service.namespace.dataset.proto.DatasetConfig;
+import com.dremio.service.namespace.dataset.proto.DatasetType;
+import com.dremio.service.namespace.dataset.proto.IcebergMetadata;
+import com.dremio.service.namespace.dataset.proto.PhysicalDataset;
+import com.dremio.service.namespace.proto.EntityId;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestQueryResultCache {
+  private static final QueryId QUERY_ID =
+      QueryId.newBuilder().setPart1(0x1234L).setPart2(0x5678L).build();
+
+  private QueryResultCache cache;
+  private QueryContext context;
+  private SqlHandlerConfig config;
+  private PlannerCatalog catalog;
+  private Catalog userCatalog;
+
+  @Before
+  public void setup() {
+    cache = new QueryResultCache(CacheBuilder.newBuilder().build(), new DatasetCacheIndex());
+
+    final PlannerSettings plannerSettings = mock(PlannerSettings.class);
+    when(plannerSettings.getQueryResultCacheTtlMillis()).thenReturn(60_000L);
+    userCatalog = mock(Catalog.class);
+    when(userCatalog.getTable(any(NamespaceKey.class))).thenReturn(mock(DremioTable.class));
+    context = mock(QueryContext.class);
+    when(context.getPlannerSettings()).thenReturn(plannerSettings);
+    when(context.getQueryId()).thenReturn(QUERY_ID);
+    when(context.getQueryUserName()).thenReturn("user1");
+    when(context.getCatalog()).thenReturn(userCatalog);
+    config = mock(SqlHandlerConfig.class);
+    when(config.getContext()).thenReturn(context);
+
+    catalog = mock(PlannerCatalog.class);
+    when(catalog.getAllRequestedTables())
+        .thenReturn(ImmutableList.of(table("ds1", 1L), table("ds2", 1L)));
+  }
+
+  @Test
+  public void testResultsAreCachedOnSuccess() {
+    final PlanCacheKey key = QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog);
+    cache.putPendingResult(config, key, catalog);
+    assertNull(cache.getIfPresentAndVisible(config, key));
+
+    cache.attemptCompleted(QUERY_ID, true);
+    final CachedResult cachedResult = cache.getIfPresentAndVisible(config, key);
+    assertNotNull(cachedResult);
+    assertEquals(
+        ExternalIdHelper.toString(ExternalIdHelper.toExternal(QUERY_ID)),
+        cachedResult.getJobId());
+  }
+
+  @Test
+  public void testResultsAreNotCachedOnFailure() {
+    final PlanCacheKey key = QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog);
+    cache.putPendingResult(config, key, catalog);
+    cache.attemptCompleted(QUERY_ID, false);
+    assertNull(cache.getIfPresentAndVisible(config, key));
+  }
+
+  @Test
+  public void testKeyDependsOnDatasetVersions() {
+    final PlanCacheKey key = QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog);
+    when(catalog.getAllRequestedTables())
+        .thenReturn(ImmutableList.of(table("ds1", 1L), table("ds2", 2L)));
+    assertNotEquals(
+        key.getHash(),
+        QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog).getHash());
+  }
+
+  @Test
+  public void testInvalidateCacheOnDataset() {
+    final PlanCacheKey key = QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog);
+    cache.putPendingResult(config, key, catalog);
+    cache.attemptCompleted(QUERY_ID, true);
+
+    cache.invalidateCacheOnDataset("ds3");
+    assertNotNull(cache.getIfPresentAndVisible(config, key));
+    cache.invalidateCacheOnDataset("ds2");
+    assertNull(cache.getIfPresentAndVisible(config, key));
+  }
+
+  @Test
+  public void testResultsOfOtherUsersAreNotServed() {
+    final PlanCacheKey key = QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog);
+    cache.putPendingResult(config, key, catalog);
+    cache.attemptCompleted(QUERY_ID, true);
+
+    when(context.getQueryUserName()).thenReturn("user2");
+    assertNull(cache.getIfPresentAndVisible(config, key));
+  }
+
+  @Test
+  public void testUnavailableResultsAreNotServed() {
+    final PlanCacheKey key = QueryResultCache.generateCacheKey(new PlanCacheKey("plan"), catalog);
+    cache.putPendingResult(config, key, catalog);
+    cache.attemptCompleted(QUERY_ID, true);
+
+    when(userCatalog.getTable(any(NamespaceKey.class))).thenReturn(null);
+    assertNull(cache.getIfPresentAndVisible(config, key));
+    assertEquals(0, cache.getCachedResults().size());
+  }
+
+  @Test
+  public void testOnlyDatasetsReadAtTheirVersionAreCacheable() {
+    final DatasetConfig folder =
+        new DatasetConfig()
+            .setType(DatasetType.PHYSICAL_DATASET_SOURCE_FOLDER)
+            .setPhysicalDataset(new PhysicalDataset());
+    assertTrue(QueryResultCache.isDataVersioned(folder));
+
+    // tables of external sources like JDBC are read live from the source
+    final DatasetConfig external =
+        new DatasetConfig()
+            .setType(DatasetType.PHYSICAL_DATASET)
+            .setPhysicalDataset(new PhysicalDataset());
+    assertFalse(QueryResultCache.isDataVersioned(external));
+
+    // unless they are Iceberg tables read at a snapshot
+    external.getPhysicalDataset().setIcebergMetadata(new IcebergMetadata().setSnapshotId(7L));
+    assertTrue(QueryResultCache.isDataVersioned(external));
+  }
+
+  private static DremioTable table(String id, long lastModified) {
+    final DatasetConfig datasetConfig =
+        new DatasetConfig()
+            .setId(new EntityId(id))
+            .setTag("1")
+            .setLastModified(lastModified)
+            .setPhysicalDataset(new PhysicalDataset());
+    final DremioTable table = mock(DremioTable.class);
+    when(table.getDatasetConfig()).thenReturn(datasetConfig);
+    return table;
+  }
+}
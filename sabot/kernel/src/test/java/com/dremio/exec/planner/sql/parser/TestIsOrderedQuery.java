@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.planner.sql.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+/** Tests for {@link ParserUtil#isOrderedQuery(String)} */
+public class TestIsOrderedQuery {
+
+  @Test
+  public void testUnorderedQueries() {
+    assertThat(ParserUtil.isOrderedQuery("SELECT a, b FROM t")).isFalse();
+    assertThat(ParserUtil.isOrderedQuery("SELECT a FROM t LIMIT 10")).isFalse();
+    assertThat(ParserUtil.isOrderedQuery("SELECT a FROM (SELECT a FROM t ORDER BY a)")).isFalse();
+    assertThat(ParserUtil.isOrderedQuery("SELECT a FROM t UNION ALL SELECT a FROM u")).isFalse();
+  }
+
+  @Test
+  public void testOrderedQueries() {
+    assertThat(ParserUtil.isOrderedQuery("SELECT a, b FROM t ORDER BY b")).isTrue();
+    assertThat(ParserUtil.isOrderedQuery("SELECT a FROM t ORDER BY a DESC LIMIT 10")).isTrue();
+    assertThat(
+            ParserUtil.isOrderedQuery("SELECT a FROM t UNION ALL SELECT a FROM u ORDER BY 1"))
+        .isTrue();
+    assertThat(ParserUtil.isOrderedQuery("WITH w AS (SELECT a FROM t) SELECT a FROM w ORDER BY a"))
+        .isTrue();
+  }
+
+  @Test
+  public void testUnparsableQueryIsOrdered() {
+    assertThat(ParserUtil.isOrderedQuery("SELECT FROM WHERE")).isTrue();
+  }
+}
@@ -163,6 +163,7 @@ import com.dremio.services.credentials.SystemCipher;
 import com.dremio.services.fabric.FabricServiceImpl;
 import com.dremio.services.fabric.api.FabricService;
 import com.dremio.services.nessie.grpc.client.GrpcClientBuilder;
+import com.dremio.services.pubsub.noop.NoOpPubSubClient;
 import com.dremio.telemetry.utils.GrpcTracerFacade;
 import com.dremio.telemetry.utils.TracerFacade;
 import com.google.common.annotations.VisibleForTesting;
@@ -866,7 +867,8 @@ public class SabotNode implements AutoCloseable {
           forwarderProvider,
           ruleBasedEngineSelectorProvider,
           requestContextProvider,
-          transientStoreProvider);
+          transientStoreProvider,
+          NoOpPubSubClient::new);
     }
 
     @Provides
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.cache;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import com.dremio.exec.work.CacheManagerMountPointInfo;
+import com.dremio.exec.work.CacheManagerStoragePluginInfo;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.file.Path;
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Test for {@link CachingAsyncByteReader} and {@link LocalBlockCache} */
+public class TestCachingAsyncByteReader {
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private static final byte[] DATA = bytes(250);
+
+  private LocalBlockCache cache;
+
+  @Before
+  public void setup() throws Exception {
+    cache =
+        new LocalBlockCache(
+            "localhost",
+            ImmutableList.of(folder.newFolder("m1").toPath(), folder.newFolder("m2").toPath()),
+            ImmutableList.of(500L, 500L),
+            ImmutableList.of(0L, 0L),
+            100,
+            10);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    cache.close();
+  }
+
+  @Test
+  public void testReadThrough() throws Exception {
+    final SourceReader source = new SourceReader(false);
+    final AsyncByteReader reader = newReader(source, "1", 100);
+
+    // misses read up to the end of the requested range only
+    assertArrayEquals(Arrays.copyOfRange(DATA, 53, 170), reader.readFully(53, 117).get());
+    assertEquals(ImmutableList.of(50L, 100L), source.offsets);
+    assertEquals(ImmutableList.of(50, 70), source.lengths);
+
+    // served from the cache
+    assertArrayEquals(Arrays.copyOfRange(DATA, 60, 160), reader.readFully(60, 100).get());
+    assertEquals(2, source.offsets.size());
+
+    // a small read at the end of the file reads its aligned range, not its whole block
+    assertArrayEquals(Arrays.copyOfRange(DATA, 245, 250), reader.readFully(245, 5).get());
+    assertEquals(ImmutableList.of(50L, 100L, 240L), source.offsets);
+    assertEquals(ImmutableList.of(50, 70, 10), source.lengths);
+
+    // a miss in a partly cached block reads the range covering the cached one
+    assertArrayEquals(Arrays.copyOfRange(DATA, 0, 100), reader.readFully(0, 100).get());
+    assertEquals(ImmutableList.of(50L, 100L, 240L, 0L), source.offsets);
+    assertEquals(ImmutableList.of(50, 70, 10, 100), source.lengths);
+    assertEquals(3, cache.getNumBlocks());
+    assertEquals(180, cache.getSizeBytes());
+
+    assertEquals(CachingAsyncByteReader.HITS_STAT, reader.getStats().get(0).getName());
+    assertEquals(2, reader.getStats().get(0).getValue(), 0);
+    assertEquals(CachingAsyncByteReader.MISSES_STAT, reader.getStats().get(1).getName());
+    assertEquals(4, reader.getStats().get(1).getValue(), 0);
+  }
+
+  @Test
+  public void testConcurrentMissesAreDeduplicated() throws Exception {
+    final SourceReader source = new SourceReader(true);
+    final AsyncByteReader reader1 = newReader(source, "1", 100);
+    final AsyncByteReader reader2 = newReader(source, "1", 100);
+
+    final CompletableFuture<byte[]> read1 = reader1.readFully(10, 20);
+    final CompletableFuture<byte[]> read2 = reader2.readFully(12, 10);
+    assertEquals(1, source.pending.size());
+    assertFalse(read1.isDone());
+    assertFalse(read2.isDone());
+
+    source.completePending();
+    assertArrayEquals(Arrays.copyOfRange(DATA, 10, 30), read1.get());
+    assertArrayEquals(Arrays.copyOfRange(DATA, 12, 22), read2.get());
+    assertEquals(1, source.offsets.size());
+  }
+
+  @Test
+  public void testModifiedFileIsNotServed() throws Exception {
+    final SourceReader source = new SourceReader(false);
+    newReader(source, "1", 100).readFully(0, 10).get();
+
+    final byte[] modified = bytes(250);
+    modified[5] = 42;
+    final SourceReader modifiedSource = new SourceReader(false, modified);
+    assertArrayEquals(
+        Arrays.copyOfRange(modified, 0, 10),
+        newReader(modifiedSource, "2", 100).readFully(0, 10).get());
+    assertEquals(1, modifiedSource.offsets.size());
+    assertEquals(1, cache.getNumBlocks());
+  }
+
+  @Test
+  public void testSourceQuota() throws Exception {
+    final SourceReader source = new SourceReader(false);
+    // 20% of the 1000 bytes of the cache
+    final AsyncByteReader reader = newReader(source, "1", 20);
+    assertArrayEquals(DATA, reader.readFully(0, 250).get());
+    assertEquals(2, cache.getNumBlocks());
+    assertEquals(150, cache.getSizeBytes());
+
+    final List<CacheManagerStoragePluginInfo> pluginStats = cache.getStoragePluginStats();
+    assertEquals(1, pluginStats.size());
+    assertEquals("s3", pluginStats.get(0).storage_plugin_name);
+    assertEquals(2, pluginStats.get(0).approx_file_count);
+    assertEquals(150, pluginStats.get(0).approx_size_bytes);
+    assertEquals(200, pluginStats.get(0).max_available_space);
+
+    final List<CacheManagerMountPointInfo> mountPointStats = cache.getMountPointStats();
+    assertEquals(2, mountPointStats.size());
+    assertEquals(150, mountPointStats.get(0).used_space + mountPointStats.get(1).used_space);
+    assertEquals(
+        2, mountPointStats.get(0).approx_file_count + mountPointStats.get(1).approx_file_count);
+  }
+
+  private AsyncByteReader newReader(SourceReader source, String version, int maxSpacePct) {
+    final AsyncByteReader.FileKey fileKey =
+        AsyncByteReader.FileKey.of(
+            Path.of("/bucket/a.parquet"), version, AsyncByteReader.FileKey.FileType.PARQUET);
+    return new CachingAsyncByteReader(source, fileKey, "s3", maxSpacePct, cache);
+  }
+
+  private static byte[] bytes(int length) {
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  /** Reads from a byte array, optionally completing the reads on demand. */
+  private static final class SourceReader implements AsyncByteReader {
+    private final boolean deferred;
+    private final byte[] data;
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+    private final List<Runnable> pending = new ArrayList<>();
+
+    private SourceReader(boolean deferred) {
+      this(deferred, DATA);
+    }
+
+    private SourceReader(boolean deferred, byte[] data) {
+      this.deferred = deferred;
+      this.data = data;
+    }
+
+    @Override
+    public synchronized CompletableFuture<Void> readFully(
+        long offset, ByteBuf dst, int dstOffset, int len) {
+      offsets.add(offset);
+      lengths.add(len);
+      final CompletableFuture<Void> future = new CompletableFuture<>();
+      final Runnable read =
+          () -> {
+            dst.setBytes(dstOffset, data, (int) offset, len);
+            future.complete(null);
+          };
+      if (deferred) {
+        pending.add(read);
+      } else {
+        read.run();
+      }
+      return future;
+    }
+
+    private void completePending() {
+      final List<Runnable> reads;
+      synchronized (this) {
+        reads = new ArrayList<>(pending);
+        pending.clear();
+      }
+      reads.forEach(Runnable::run);
+    }
+  }
+}
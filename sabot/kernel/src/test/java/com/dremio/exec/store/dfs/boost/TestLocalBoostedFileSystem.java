@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.dfs.boost;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import com.dremio.common.collections.Tuple;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.AsyncByteReader.FileKey;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.FSOutputStream;
+import com.dremio.io.file.Path;
+import com.google.common.collect.ImmutableList;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestLocalBoostedFileSystem {
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private LocalBoostedFileSystem boostedFs;
+
+  @Before
+  public void setup() throws Exception {
+    boostedFs =
+        new LocalBoostedFileSystem(
+            ImmutableList.of(folder.newFolder("d1").toPath(), folder.newFolder("d2").toPath()),
+            1000);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    boostedFs.close();
+  }
+
+  @Test
+  public void testCommitAndRead() throws Exception {
+    final FileKey key = key("/a.parquet", "1");
+    final byte[] data = bytes(100, (byte) 1);
+    assertNull(boostedFs.getBoostFile(key, 0, "c1", null, null));
+
+    boost(key, "c1", data);
+    final List<AsyncByteReader.ReaderStat> stats = new ArrayList<>();
+    final Tuple<FSInputStream, Long> file = boostedFs.getBoostFile(key, 0, "c1", stats, null);
+    assertNotNull(file);
+    assertEquals(100L, (long) file.second);
+    final ByteBuffer read = ByteBuffer.allocate(100);
+    assertEquals(60, file.first.read(40, read));
+    assertEquals(60, read.position());
+    assertArrayEquals(Arrays.copyOfRange(data, 40, 100), Arrays.copyOf(read.array(), 60));
+    assertEquals(100, ((MappedFSInputStream) file.first).getBuffer().remaining());
+    assertEquals(LocalBoostedFileSystem.HITS_STAT, stats.get(0).getName());
+
+    // other row groups and columns are not boosted
+    assertNull(boostedFs.getBoostFile(key, 1, "c1", null, null));
+    assertNull(boostedFs.getBoostFile(key, 0, "c2", null, null));
+  }
+
+  @Test
+  public void testAbort() throws Exception {
+    final FileKey key = key("/a.parquet", "1");
+    try (FSOutputStream out = boostedFs.createBoostFile(key, 0, "c1")) {
+      out.write(bytes(10, (byte) 1));
+    }
+    boostedFs.abortBoostFile(key, 0, "c1");
+    assertNull(boostedFs.getBoostFile(key, 0, "c1", null, null));
+    assertEquals(0, folder.getRoot().toPath().resolve("d1").toFile().list().length);
+    assertEquals(0, folder.getRoot().toPath().resolve("d2").toFile().list().length);
+  }
+
+  @Test
+  public void testModifiedFileIsNotServed() throws Exception {
+    boost(key("/a.parquet", "1"), "c1", bytes(100, (byte) 1));
+
+    final List<AsyncByteReader.ReaderStat> stats = new ArrayList<>();
+    assertNull(boostedFs.getBoostFile(key("/a.parquet", "2"), 0, "c1", stats, null));
+    assertEquals(LocalBoostedFileSystem.MISSES_STAT, stats.get(0).getName());
+    assertEquals(0, boostedFs.getNumFiles());
+    assertEquals(0, boostedFs.getSizeBytes());
+  }
+
+  @Test
+  public void testLeastRecentlyReadFilesAreEvicted() throws Exception {
+    boost(key("/a.parquet", "1"), "c1", bytes(400, (byte) 1));
+    boost(key("/b.parquet", "1"), "c1", bytes(400, (byte) 2));
+    // a is read last, b is evicted first
+    assertNotNull(boostedFs.getBoostFile(key("/a.parquet", "1"), 0, "c1", null, null));
+    boost(key("/c.parquet", "1"), "c1", bytes(400, (byte) 3));
+
+    assertEquals(2, boostedFs.getNumFiles());
+    assertEquals(800, boostedFs.getSizeBytes());
+    assertNotNull(boostedFs.getBoostFile(key("/a.parquet", "1"), 0, "c1", null, null));
+    assertNull(boostedFs.getBoostFile(key("/b.parquet", "1"), 0, "c1", null, null));
+    assertNotNull(boostedFs.getBoostFile(key("/c.parquet", "1"), 0, "c1", null, null));
+
+    // files larger than the budget are not kept
+    boost(key("/d.parquet", "1"), "c1", bytes(1001, (byte) 4));
+    assertNull(boostedFs.getBoostFile(key("/d.parquet", "1"), 0, "c1", null, null));
+    assertEquals(2, boostedFs.getNumFiles());
+  }
+
+  private void boost(FileKey key, String column, byte[] data) throws Exception {
+    try (FSOutputStream out = boostedFs.createBoostFile(key, 0, column)) {
+      out.write(data);
+      assertEquals(data.length, out.getPosition());
+    }
+    boostedFs.commitBoostFile(key, 0, column);
+  }
+
+  private static FileKey key(String path, String version) {
+    return FileKey.of(Path.of(path), version, FileKey.FileType.OTHER);
+  }
+
+  private static byte[] bytes(int length, byte value) {
+    final byte[] bytes = new byte[length];
+    Arrays.fill(bytes, value);
+    for (int i = 0; i < length; i += 7) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+}
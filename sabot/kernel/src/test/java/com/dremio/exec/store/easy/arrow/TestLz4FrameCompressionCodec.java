@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.easy.arrow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.Collections;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestLz4FrameCompressionCodec {
+  private static final int COUNT = 10_000;
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator(Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testStreamRoundTrip() throws Exception {
+    final ByteArrayOutputStream uncompressed = write(CompressionUtil.CodecType.NO_COMPRESSION);
+    final ByteArrayOutputStream compressed = write(CompressionUtil.CodecType.LZ4_FRAME);
+    assertTrue(compressed.size() < uncompressed.size());
+
+    try (ArrowStreamReader reader =
+        new ArrowStreamReader(
+            new ByteArrayInputStream(compressed.toByteArray()),
+            allocator,
+            Lz4FrameCompressionCodec.FACTORY)) {
+      assertTrue(reader.loadNextBatch());
+      final VectorSchemaRoot root = reader.getVectorSchemaRoot();
+      assertEquals(COUNT, root.getRowCount());
+      final IntVector vector = (IntVector) root.getVector("a");
+      for (int i = 0; i < COUNT; i++) {
+        if (i % 7 == 0) {
+          assertTrue(vector.isNull(i));
+        } else {
+          assertEquals(i % 100, vector.get(i));
+        }
+      }
+    }
+  }
+
+  private ByteArrayOutputStream write(CompressionUtil.CodecType codecType) throws Exception {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (IntVector vector = new IntVector("a", allocator)) {
+      vector.allocateNew(COUNT);
+      for (int i = 0; i < COUNT; i++) {
+        if (i % 7 != 0) {
+          vector.set(i, i % 100);
+        }
+      }
+      vector.setValueCount(COUNT);
+      try (VectorSchemaRoot root = new VectorSchemaRoot(Collections.singletonList(vector));
+          ArrowStreamWriter writer =
+              new ArrowStreamWriter(
+                  root,
+                  null,
+                  Channels.newChannel(out),
+                  IpcOption.DEFAULT,
+                  Lz4FrameCompressionCodec.FACTORY,
+                  codecType)) {
+        writer.start();
+        writer.writeBatch();
+        writer.end();
+      }
+    }
+    return out;
+  }
+}
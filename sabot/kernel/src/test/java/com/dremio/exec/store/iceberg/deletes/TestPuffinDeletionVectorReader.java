@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.iceberg.deletes;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.dremio.common.exceptions.UserException;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import org.apache.hadoop.conf.Configuration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+public class TestPuffinDeletionVectorReader {
+
+  private static final String DATA_FILE_1 = "s3://bucket/table/data/file1.parquet";
+  private static final String DATA_FILE_2 = "s3://bucket/table/data/file2.parquet";
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private FileSystem fs;
+
+  @Before
+  public void setup() throws Exception {
+    fs = HadoopFileSystem.getLocal(new Configuration());
+  }
+
+  @Test
+  public void testReadDeletionVector() throws Exception {
+    Path path =
+        writePuffinFile(
+            serialize(new long[] {1, 2, 3, 100_000}), serialize(new long[] {5, 0x1_0000_0007L}));
+
+    assertThat(toList(PuffinDeletionVectorReader.read(fs, path, DATA_FILE_1)))
+        .containsExactly(1L, 2L, 3L, 100_000L);
+    assertThat(toList(PuffinDeletionVectorReader.read(fs, path, DATA_FILE_2)))
+        .containsExactly(5L, 0x1_0000_0007L);
+  }
+
+  @Test
+  public void testDataFileWithoutDeletionVectorIsEmpty() throws Exception {
+    Path path = writePuffinFile(serialize(new long[] {1}), serialize(new long[] {2}));
+
+    assertThat(PuffinDeletionVectorReader.read(fs, path, "s3://bucket/other.parquet").isEmpty())
+        .isTrue();
+  }
+
+  @Test
+  public void testInvalidChecksum() throws Exception {
+    byte[] vector = serialize(new long[] {1, 2});
+    vector[vector.length - 1]++;
+    Path path = writePuffinFile(vector, serialize(new long[] {3}));
+
+    assertThatThrownBy(() -> PuffinDeletionVectorReader.read(fs, path, DATA_FILE_1))
+        .isInstanceOf(UserException.class)
+        .hasMessageContaining(DATA_FILE_1);
+  }
+
+  @Test
+  public void testIsDeletionVectorFile() {
+    assertThat(PuffinDeletionVectorReader.isDeletionVectorFile("s3://b/t/data/dv-1.puffin"))
+        .isTrue();
+    assertThat(PuffinDeletionVectorReader.isDeletionVectorFile("s3://b/t/data/deletes.parquet"))
+        .isFalse();
+  }
+
+  private Path writePuffinFile(byte[] vector1, byte[] vector2) throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    out.write(new byte[] {0x50, 0x46, 0x41, 0x31});
+    int offset1 = out.size();
+    out.write(vector1);
+    int offset2 = out.size();
+    out.write(vector2);
+
+    String footer =
+        String.format(
+            "{\"blobs\":[%s,%s],\"properties\":{}}",
+            blobMetadata(DATA_FILE_1, offset1, vector1.length),
+            blobMetadata(DATA_FILE_2, offset2, vector2.length));
+    byte[] payload = footer.getBytes(StandardCharsets.UTF_8);
+    out.write(new byte[] {0x50, 0x46, 0x41, 0x31});
+    out.write(payload);
+    out.write(
+        ByteBuffer.allocate(8)
+            .order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(payload.length)
+            .putInt(0)
+            .array());
+    out.write(new byte[] {0x50, 0x46, 0x41, 0x31});
+
+    File file = folder.newFile();
+    Files.write(file.toPath(), out.toByteArray());
+    return Path.of(file.getAbsolutePath());
+  }
+
+  private static String blobMetadata(String dataFile, int offset, int length) {
+    return String.format(
+        "{\"type\":\"deletion-vector-v1\",\"fields\":[2147483545],"
+            + "\"snapshot-id\":1,\"sequence-number\":1,\"offset\":%d,\"length\":%d,"
+            + "\"properties\":{\"referenced-data-file\":\"%s\",\"cardinality\":\"1\"}}",
+        offset, length, dataFile);
+  }
+
+  /** Serializes positions, all below 2^33, as a {@code deletion-vector-v1} blob. */
+  private static byte[] serialize(long[] positions) {
+    RoaringBitmap low = new RoaringBitmap();
+    RoaringBitmap high = new RoaringBitmap();
+    for (long position : positions) {
+      ((position >>> 32) == 0 ? low : high).add((int) position);
+    }
+    int bitmapCount = high.isEmpty() ? 1 : 2;
+    int vectorLength = 8 + 4 + low.serializedSizeInBytes();
+    if (!high.isEmpty()) {
+      vectorLength += 4 + high.serializedSizeInBytes();
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(4 + 4 + vectorLength + 4);
+    buffer.putInt(4 + vectorLength);
+    buffer.put(new byte[] {(byte) 0xD1, (byte) 0xD3, 0x39, 0x64});
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putLong(bitmapCount);
+    buffer.putInt(0);
+    low.serialize(buffer);
+    if (!high.isEmpty()) {
+      buffer.putInt(1);
+      high.serialize(buffer);
+    }
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 4, 4 + vectorLength);
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    buffer.putInt((int) crc.getValue());
+    return buffer.array();
+  }
+
+  private static List<Long> toList(Roaring64Bitmap bitmap) {
+    List<Long> positions = new ArrayList<>();
+    LongIterator iterator = bitmap.getLongIterator();
+    while (iterator.hasNext()) {
+      positions.add(iterator.next());
+    }
+    return positions;
+  }
+}
@@ -17,6 +17,8 @@ package com.dremio.exec.store.iceberg.deletes;
 
 import static com.dremio.sabot.op.scan.ScanOperator.Metric.PARQUET_BYTES_READ;
 import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_DELETE_FILE_READERS;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_POS_DELETE_BITMAP_CACHE_HITS;
+import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.NUM_POS_DELETE_BITMAP_CACHE_MISSES;
 import static com.dremio.sabot.op.tablefunction.TableFunctionOperator.Metric.PARQUET_DELETE_FILE_BYTES_READ;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
@@ -51,6 +53,7 @@ import org.apache.iceberg.FileContent;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mock;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
 
 public class TestRowLevelDeleteFilterFactory extends BaseTestOperator {
 
@@ -58,6 +61,7 @@ public class TestRowLevelDeleteFilterFactory extends BaseTestOperator {
   private static final Path POS_DELETE_FILE_1 = Path.of("pos-delete1");
   private static final Path POS_DELETE_FILE_2 = Path.of("pos-delete2");
   private static final Path POS_DELETE_FILE_3 = Path.of("pos-delete3");
+  private static final Path DV_FILE_1 = Path.of("dv1.puffin");
   private static final Path EQ_DELETE_FILE_1 = Path.of("eq-delete1");
   private static final Path EQ_DELETE_FILE_2 = Path.of("eq-delete2");
   private static final Path EQ_DELETE_FILE_3 = Path.of("eq-delete3");
@@ -67,6 +71,8 @@ public class TestRowLevelDeleteFilterFactory extends BaseTestOperator {
       new DeleteFileInfo(POS_DELETE_FILE_2.toString(), FileContent.POSITION_DELETES, 20, null);
   private static final DeleteFileInfo POS_DELETE_FILE_INFO_3 =
       new DeleteFileInfo(POS_DELETE_FILE_3.toString(), FileContent.POSITION_DELETES, 30, null);
+  private static final DeleteFileInfo DV_FILE_INFO_1 =
+      new DeleteFileInfo(DV_FILE_1.toString(), FileContent.POSITION_DELETES, 2, null);
   private static final DeleteFileInfo EQ_DELETE_FILE_INFO_1 =
       new DeleteFileInfo(
           EQ_DELETE_FILE_1.toString(), FileContent.EQUALITY_DELETES, 10, ImmutableList.of(1));
@@ -103,6 +109,7 @@ public class TestRowLevelDeleteFilterFactory extends BaseTestOperator {
 
   @Before
   public void beforeTest() throws Exception {
+    PositionalDeleteBitmapCache.invalidateAll();
     context = testContext.getNewOperatorContext(getTestAllocator(), null, DEFAULT_BATCH_SIZE, null);
     testCloseables.add(context);
     deltas = new SimpleIntVector("pos", getTestAllocator());
@@ -606,6 +613,63 @@ public class TestRowLevelDeleteFilterFactory extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void testPositionalDeletesCachedAcrossFactories() throws Exception {
+    Map<String, DataFileInfo> dataFileInfo =
+        ImmutableMap.of(
+            DATA_FILE_1,
+            new DataFileInfo(
+                DATA_FILE_1, ImmutableList.of(POS_DELETE_FILE_INFO_1, POS_DELETE_FILE_INFO_2), 1));
+    for (int i = 0; i < 2; i++) {
+      try (RowLevelDeleteFilterFactory factory =
+          new RowLevelDeleteFilterFactory(context, readerFactory)) {
+        factory.setDataFileInfoForBatch(dataFileInfo);
+        PositionalDeleteFilter filter = factory.createPositionalDeleteFilter(DATA_FILE_1);
+        filter.seek(2);
+
+        // filter rows [ 2 .. 6 ]
+        verifyFilter(filter, ImmutableList.of(5, 0, 0));
+        filter.release();
+      }
+    }
+
+    // the second factory reads no delete file
+    verify(readerFactory, times(1))
+        .createPositionalDeleteFileReader(any(), eq(POS_DELETE_FILE_1), anyList());
+    verify(readerFactory, times(1))
+        .createPositionalDeleteFileReader(any(), eq(POS_DELETE_FILE_2), anyList());
+    assertThat(context.getStats().getLongStat(NUM_POS_DELETE_BITMAP_CACHE_MISSES)).isEqualTo(1);
+    assertThat(context.getStats().getLongStat(NUM_POS_DELETE_BITMAP_CACHE_HITS)).isEqualTo(1);
+  }
+
+  @Test
+  public void testDeletionVectorsMergedWithPositionalDeletes() throws Exception {
+    when(readerFactory.readDeletionVector(any(), eq(DV_FILE_1), eq(DATA_FILE_1)))
+        .thenReturn(Roaring64Bitmap.bitmapOf(0, 10));
+    try (RowLevelDeleteFilterFactory factory =
+        new RowLevelDeleteFilterFactory(context, readerFactory)) {
+      Map<String, DataFileInfo> dataFileInfo =
+          ImmutableMap.of(
+              DATA_FILE_1,
+              new DataFileInfo(
+                  DATA_FILE_1, ImmutableList.of(DV_FILE_INFO_1, POS_DELETE_FILE_INFO_1), 1));
+      factory.setDataFileInfoForBatch(dataFileInfo);
+      PositionalDeleteFilter filter = factory.createPositionalDeleteFilter(DATA_FILE_1);
+      filter.seek(0);
+
+      // filter rows [ 0 .. 3 ] and 10
+      verifyFilter(filter, ImmutableList.of(4, 0, 0));
+      verifyFilter(filter, ImmutableList.of(0, 0, 0));
+      verifyFilter(filter, ImmutableList.of(1, 0, 0));
+      filter.release();
+    }
+
+    // deletion vectors are not read with positional delete file readers
+    verify(readerFactory, times(0))
+        .createPositionalDeleteFileReader(any(), eq(DV_FILE_1), anyList());
+    assertThat(context.getStats().getLongStat(NUM_DELETE_FILE_READERS)).isEqualTo(1);
+  }
+
   @Test
   public void testCreateEqualityDeleteFilterWithSingleFile() throws Exception {
     try (RowLevelDeleteFilterFactory factory =
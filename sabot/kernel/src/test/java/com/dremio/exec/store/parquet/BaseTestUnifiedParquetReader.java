@@ -109,13 +109,27 @@ public class BaseTestUnifiedParquetReader extends BaseTestOperator {
       ParquetReaderOptions parquetReaderOptions,
       RecordBatchValidator validator)
       throws Exception {
+    return readAndValidate(
+        path, null, filters, runtimeFilters, projectedColumns, parquetReaderOptions, validator);
+  }
+
+  /** Reads the file as a table of the given schema, or of the file schema if it is null. */
+  protected int readAndValidate(
+      Path path,
+      BatchSchema tableSchema,
+      ParquetFilters filters,
+      List<RuntimeFilter> runtimeFilters,
+      List<String> projectedColumns,
+      ParquetReaderOptions parquetReaderOptions,
+      RecordBatchValidator validator)
+      throws Exception {
 
     ParquetScanProjectedColumns parquetScanProjectedColumns = getProjectedColumns(projectedColumns);
     FileAttributes fileAttributes = fs.getFileAttributes(path);
     InputStreamProvider inputStreamProvider =
         createInputStreamProvider(path, fileAttributes, 0, null, null, parquetScanProjectedColumns);
     MutableParquetMetadata footer = inputStreamProvider.getFooter();
-    BatchSchema schema = getSchema(inputStreamProvider.getFooter(), projectedColumns);
+    BatchSchema schema = tableSchema != null ? tableSchema : getSchema(footer, projectedColumns);
 
     int totalRecords = 0;
     for (int rowGrpIdx = 0; rowGrpIdx < footer.getBlocks().size(); rowGrpIdx++) {
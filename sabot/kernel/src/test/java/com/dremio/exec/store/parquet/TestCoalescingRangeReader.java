@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.apache.parquet.hadoop.metadata.CompressionCodecName.UNCOMPRESSED;
+import static org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName.INT32;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.dremio.io.AsyncByteReader;
+import com.dremio.test.AllocatorRule;
+import com.google.common.collect.ImmutableList;
+import io.netty.buffer.ByteBuf;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+/** Test for {@link CoalescingRangeReader} */
+public class TestCoalescingRangeReader {
+  @Rule public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private static final byte[] DATA = bytes(1000);
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-coalescing-range-reader", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testPlanMergesNearbyChunks() {
+    final ColumnChunkMetaData a = chunk("a", 100, 50);
+    final ColumnChunkMetaData b = chunk("b", 160, 40);
+    final ColumnChunkMetaData c = chunk("c", 400, 100);
+    final ColumnChunkMetaData d = chunk("d", 500, 300);
+
+    // unsorted input, gaps of 10, 200 and 0 bytes
+    final List<CoalescingRangeReader.Range> ranges =
+        CoalescingRangeReader.plan(ImmutableList.of(c, a, d, b), 20, 350);
+    assertEquals(3, ranges.size());
+    assertRange(ranges.get(0), 100, 100, a, b);
+    assertRange(ranges.get(1), 400, 100, c);
+    // merging d would exceed the maximum range size
+    assertRange(ranges.get(2), 500, 300, d);
+
+    assertEquals(2, CoalescingRangeReader.plan(ImmutableList.of(c, a, d, b), 20, 400).size());
+    assertEquals(4, CoalescingRangeReader.plan(ImmutableList.of(c, a, d, b), -1, 1000).size());
+  }
+
+  @Test
+  public void testChunksAreServedFromSubRangeReads() throws Exception {
+    final SourceReader source = new SourceReader();
+    final ColumnChunkMetaData a = chunk("a", 100, 50);
+    final ColumnChunkMetaData b = chunk("b", 160, 40);
+    final ColumnChunkMetaData c = chunk("c", 600, 250);
+
+    try (CoalescingRangeReader reader =
+        new CoalescingRangeReader(source, allocator, 20, 1000, 100, 1000, null)) {
+      reader.plan(ImmutableList.of(a, b, c));
+      assertEquals(ImmutableList.of(100L, 600L, 700L, 800L), source.offsets);
+      assertEquals(ImmutableList.of(100, 100, 100, 50), source.lengths);
+
+      try (BulkInputStream stream = reader.getStream(b)) {
+        assertEquals(160, stream.getPos());
+        assertArrayEquals(Arrays.copyOfRange(DATA, 160, 200), read(stream, 40));
+      }
+      try (BulkInputStream stream = reader.getStream(c)) {
+        stream.seek(650);
+        assertArrayEquals(Arrays.copyOfRange(DATA, 650, 850), read(stream, 200));
+        stream.seek(600);
+        assertEquals(DATA[600] & 0xff, stream.asSeekableInputStream().read());
+      }
+      // a chunk is handed out only once
+      assertNull(reader.getStream(b));
+      // a is left unclaimed and released on close
+    }
+  }
+
+  @Test
+  public void testStreamStaysWithinChunk() throws Exception {
+    final ColumnChunkMetaData a = chunk("a", 100, 50);
+    try (CoalescingRangeReader reader =
+            new CoalescingRangeReader(new SourceReader(), allocator, 0, 1000, 1000, 1000, null);
+        BulkInputStream stream = plan(reader, a)) {
+      assertThrows(() -> stream.seek(151));
+      stream.seek(140);
+      assertThrows(() -> read(stream, 11));
+    }
+  }
+
+  @Test
+  public void testRangesBeyondBufferLimitAreNotRead() throws Exception {
+    final SourceReader source = new SourceReader();
+    final ColumnChunkMetaData a = chunk("a", 100, 50);
+    final ColumnChunkMetaData b = chunk("b", 300, 400);
+    final ColumnChunkMetaData c = chunk("c", 800, 100);
+
+    try (CoalescingRangeReader reader =
+        new CoalescingRangeReader(source, allocator, 0, 1000, 1000, 200, null)) {
+      reader.plan(ImmutableList.of(a, b, c));
+      assertEquals(ImmutableList.of(100L, 800L), source.offsets);
+      assertNull(reader.getStream(b));
+
+      // planning the next row group releases the chunks of the previous one
+      reader.plan(ImmutableList.of(b));
+      assertNull(reader.getStream(a));
+      assertNull(reader.getStream(b));
+    }
+  }
+
+  @Test
+  public void testFailedReadFallsBack() throws Exception {
+    final AsyncByteReader failing =
+        (offset, dst, dstOffset, len) -> {
+          final CompletableFuture<Void> future = new CompletableFuture<>();
+          future.completeExceptionally(new IOException("failed"));
+          return future;
+        };
+    final ColumnChunkMetaData a = chunk("a", 100, 50);
+    final ColumnChunkMetaData b = chunk("b", 150, 50);
+    try (CoalescingRangeReader reader =
+        new CoalescingRangeReader(failing, allocator, 0, 1000, 1000, 1000, null)) {
+      reader.plan(ImmutableList.of(a, b));
+      assertNull(reader.getStream(a));
+      assertNull(reader.getStream(b));
+    }
+  }
+
+  private static BulkInputStream plan(CoalescingRangeReader reader, ColumnChunkMetaData chunk)
+      throws IOException {
+    reader.plan(ImmutableList.of(chunk));
+    return reader.getStream(chunk);
+  }
+
+  private static byte[] read(BulkInputStream stream, int len) throws IOException {
+    final byte[] bytes = new byte[len];
+    stream.readFully(bytes, 0, len);
+    return bytes;
+  }
+
+  private static void assertRange(
+      CoalescingRangeReader.Range range,
+      long offset,
+      long length,
+      ColumnChunkMetaData... chunks) {
+    assertEquals(offset, range.getOffset());
+    assertEquals(length, range.getLength());
+    assertEquals(Arrays.asList(chunks), range.getChunks());
+  }
+
+  private static void assertThrows(IOAction action) {
+    try {
+      action.run();
+    } catch (EOFException e) {
+      return;
+    } catch (IOException e) {
+      throw new AssertionError(e);
+    }
+    throw new AssertionError("Expected an EOFException");
+  }
+
+  @FunctionalInterface
+  private interface IOAction {
+    void run() throws IOException;
+  }
+
+  private static ColumnChunkMetaData chunk(String name, long start, long size) {
+    return ColumnChunkMetaData.get(
+        ColumnPath.get(name), INT32, UNCOMPRESSED, new HashSet<>(), null, start, 0, 0, size, size);
+  }
+
+  private static byte[] bytes(int length) {
+    final byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) i;
+    }
+    return bytes;
+  }
+
+  /** Reads from {@link #DATA}, recording the requested ranges. */
+  private static final class SourceReader implements AsyncByteReader {
+    private final List<Long> offsets = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+
+    @Override
+    public CompletableFuture<Void> readFully(long offset, ByteBuf dst, int dstOffset, int len) {
+      offsets.add(offset);
+      lengths.add(len);
+      dst.setBytes(dstOffset, DATA, (int) offset, len);
+      return completedFuture;
+    }
+  }
+}
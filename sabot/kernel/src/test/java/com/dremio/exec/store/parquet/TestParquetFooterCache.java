@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.hadoop.HadoopFileSystem;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.context.OperatorContext;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.hadoop.metadata.ParquetMetadata;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestParquetFooterCache {
+  private static final long MAX_FOOTER_LEN =
+      ExecConstants.PARQUET_MAX_FOOTER_LEN_VALIDATOR.getDefault().getNumVal();
+
+  private final List<BulkInputStream> streams = new ArrayList<>();
+  private FileSystem fs;
+  private Path path;
+  private long length;
+
+  @Before
+  public void setup() throws Exception {
+    ParquetFooterCache.invalidateAll();
+    fs = HadoopFileSystem.getLocal(new Configuration());
+    path = Path.of(getClass().getResource("/parquet/all_scalar_types.parquet").toURI());
+    length = fs.getFileAttributes(path).size();
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    AutoCloseables.close(streams);
+    ParquetFooterCache.invalidateAll();
+  }
+
+  @Test
+  public void testFooterIsReadOnce() {
+    OperatorContext context = context(1024 * 1024);
+    long misses = ParquetFooterCache.getStats().footerCacheMisses;
+    long hits = ParquetFooterCache.getStats().footerCacheHits;
+
+    ParquetMetadata first = getFooter(context, 1L);
+    ParquetMetadata second = getFooter(context, 1L);
+
+    assertThat(streams).hasSize(1);
+    assertThat(second.getBlocks()).hasSameSizeAs(first.getBlocks());
+    assertThat(ParquetFooterCache.getStats().footerCacheMisses - misses).isEqualTo(1);
+    assertThat(ParquetFooterCache.getStats().footerCacheHits - hits).isEqualTo(1);
+    assertThat(ParquetFooterCache.getStats().footerCacheEntries).isEqualTo(1);
+  }
+
+  @Test
+  public void testCachedFooterIsNotMutated() {
+    OperatorContext context = context(1024 * 1024);
+    ParquetMetadata first = getFooter(context, 1L);
+    int blocks = first.getBlocks().size();
+    first.getBlocks().clear();
+
+    assertThat(getFooter(context, 1L).getBlocks()).hasSize(blocks);
+  }
+
+  @Test
+  public void testModifiedFileIsReadAgain() {
+    OperatorContext context = context(1024 * 1024);
+    getFooter(context, 1L);
+    getFooter(context, 2L);
+
+    assertThat(streams).hasSize(2);
+  }
+
+  @Test
+  public void testCacheBypassed() {
+    getFooter(context(1024 * 1024), -1L);
+    getFooter(context(1024 * 1024), -1L);
+    getFooter(context(0), 1L);
+    getFooter(context(0), 1L);
+
+    assertThat(streams).hasSize(4);
+    assertThat(ParquetFooterCache.getStats().footerCacheEntries).isEqualTo(0);
+  }
+
+  private ParquetMetadata getFooter(OperatorContext context, long mTime) {
+    return ParquetFooterCache.getFooter(
+        context,
+        () -> {
+          BulkInputStream stream = BulkInputStream.wrap(Streams.wrap(fs.open(path)));
+          streams.add(stream);
+          return stream;
+        },
+        path,
+        mTime,
+        length,
+        fs,
+        MAX_FOOTER_LEN);
+  }
+
+  private static OperatorContext context(long maxSize) {
+    OptionManager options = mock(OptionManager.class);
+    when(options.getOption(ExecConstants.PARQUET_FOOTER_CACHE_MAX_SIZE_VALIDATOR))
+        .thenReturn(maxSize);
+    OperatorContext context = mock(OperatorContext.class);
+    when(context.getOptions()).thenReturn(options);
+    return context;
+  }
+}
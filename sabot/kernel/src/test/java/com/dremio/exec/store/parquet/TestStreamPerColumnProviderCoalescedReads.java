@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.iceberg.IcebergTestTables;
+import com.dremio.io.AsyncByteReader;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.file.FileSystem;
+import com.dremio.io.file.FilterFileSystem;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.op.scan.ScanOperator;
+import com.google.common.collect.ImmutableList;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/** Scans a parquet file through {@link StreamPerColumnProvider} with coalesced reads enabled. */
+public class TestStreamPerColumnProviderCoalescedReads extends BaseTestUnifiedParquetReader {
+
+  private static final ParquetReaderOptions READER_OPTIONS = ParquetReaderOptions.builder().build();
+
+  // data file has 2 row groups of 100 rows each, and contains product_id 0..199
+  private static final String DATA_WIDGET_00 = "widget/widget-00.parquet";
+  private static final List<String> COLUMNS = ImmutableList.of("product_id", "color");
+
+  private static IcebergTestTables.Table table;
+
+  private final AtomicInteger asyncReads = new AtomicInteger();
+  private AutoCloseable multiStream;
+
+  @BeforeClass
+  public static void setupTestData() {
+    table = IcebergTestTables.PRODUCTS_WITH_EQ_DELETES.get();
+  }
+
+  @AfterClass
+  public static void cleanupTestData() throws Exception {
+    AutoCloseables.close(table);
+  }
+
+  @Before
+  public void setupAsyncFileSystem() {
+    fs = new AsyncFileSystem(fs, asyncReads);
+    // the file is below the multi stream size limit, which would select a single stream
+    multiStream = with(ExecConstants.PARQUET_MULTI_STREAM_SIZE_LIMIT_ENABLE, false);
+  }
+
+  @After
+  public void cleanupOptions() throws Exception {
+    multiStream.close();
+  }
+
+  @Test
+  public void testCoalescedReadsReturnSameRows() throws Exception {
+    final List<String> expected = new ArrayList<>();
+    try (AutoCloseable ignored = with(ExecConstants.PARQUET_COALESCED_READ_ENABLED, false)) {
+      assertThat(read(expected)).isEqualTo(200);
+    }
+    assertThat(asyncReads.get()).isEqualTo(0);
+    assertThat(context.getStats().getLongStat(ScanOperator.Metric.NUM_COALESCED_COLUMN_CHUNKS))
+        .isEqualTo(0);
+
+    final List<String> actual = new ArrayList<>();
+    try (AutoCloseable ignored = with(ExecConstants.PARQUET_COALESCED_READ_ENABLED, true)) {
+      assertThat(read(actual)).isEqualTo(200);
+    }
+    assertThat(actual).isEqualTo(expected);
+
+    // both projected chunks of both row groups come from the coalesced reads
+    assertThat(context.getStats().getLongStat(ScanOperator.Metric.NUM_COALESCED_COLUMN_CHUNKS))
+        .isEqualTo(4);
+    assertThat(asyncReads.get()).isGreaterThan(0);
+    assertThat(context.getStats().getLongStat(ScanOperator.Metric.NUM_COALESCED_READ_REQUESTS))
+        .isEqualTo(asyncReads.get());
+  }
+
+  @Test
+  public void testSmallBufferLimitFallsBackToStreams() throws Exception {
+    final List<String> expected = new ArrayList<>();
+    assertThat(read(expected)).isEqualTo(200);
+
+    final List<String> actual = new ArrayList<>();
+    try (AutoCloseable enabled = with(ExecConstants.PARQUET_COALESCED_READ_ENABLED, true);
+        AutoCloseable limit = with(ExecConstants.PARQUET_COALESCED_READ_MAX_BUFFERED, 0L)) {
+      assertThat(read(actual)).isEqualTo(200);
+    }
+    assertThat(actual).isEqualTo(expected);
+    assertThat(asyncReads.get()).isEqualTo(0);
+  }
+
+  private int read(List<String> rows) throws Exception {
+    return readAndValidate(
+        Path.of("file:" + table.getLocation() + "/data/" + DATA_WIDGET_00),
+        ParquetFilters.NONE,
+        COLUMNS,
+        READER_OPTIONS,
+        (rowGroupIndex, outputRowIndex, records, mutator) -> {
+          final IntVector productId = (IntVector) mutator.getVector("product_id");
+          final VarCharVector color = (VarCharVector) mutator.getVector("color");
+          for (int i = 0; i < records; i++) {
+            rows.add(productId.getObject(i) + ":" + color.getObject(i));
+          }
+        });
+  }
+
+  /** Reports async read support and serves async reads with positional reads of the file. */
+  private static final class AsyncFileSystem extends FilterFileSystem {
+    private final FileSystem fs;
+    private final AtomicInteger reads;
+
+    private AsyncFileSystem(FileSystem fs, AtomicInteger reads) {
+      super(fs);
+      this.fs = fs;
+      this.reads = reads;
+    }
+
+    @Override
+    public boolean supportsAsync() {
+      return true;
+    }
+
+    @Override
+    public AsyncByteReader getAsyncByteReader(
+        AsyncByteReader.FileKey fileKey, Map<String, String> options) {
+      final Path path = fileKey.getPath();
+      return (offset, dst, dstOffset, len) -> {
+        reads.incrementAndGet();
+        try (FSInputStream in = fs.open(path)) {
+          final ByteBuffer buffer = dst.nioBuffer(dstOffset, len);
+          long position = offset;
+          while (buffer.hasRemaining()) {
+            final int read = in.read(position, buffer);
+            if (read < 0) {
+              throw new EOFException();
+            }
+            position += read;
+          }
+          return AsyncByteReader.completedFuture;
+        } catch (IOException e) {
+          final CompletableFuture<Void> future = new CompletableFuture<>();
+          future.completeExceptionally(e);
+          return future;
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.dremio.common.collections.Tuple;
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.ExecTest;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.RecordWriter;
+import com.dremio.exec.store.dfs.boost.LocalBoostedFileSystem;
+import com.dremio.exec.store.dfs.boost.MappedFSInputStream;
+import com.dremio.exec.store.easy.arrow.ArrowFlatBufRecordWriter;
+import com.dremio.io.AsyncByteReader.FileKey;
+import com.dremio.io.FSInputStream;
+import com.dremio.io.FSOutputStream;
+import com.dremio.io.file.Path;
+import com.google.common.collect.ImmutableList;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.parquet.column.ColumnDescriptor;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBoostedColumnDecoder extends ExecTest {
+  private static final int BATCH_SIZE = 100;
+  private static final int ROW_COUNT = 250;
+
+  @Rule public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final FileKey fileKey =
+      FileKey.of(Path.of("/data/a.parquet"), "1", FileKey.FileType.OTHER, null);
+  private final ColumnDescriptor descriptor = descriptor();
+  private LocalBoostedFileSystem boostedFs;
+
+  @Before
+  public void setup() throws Exception {
+    boostedFs =
+        new LocalBoostedFileSystem(ImmutableList.of(folder.newFolder().toPath()), 1 << 20);
+    boost();
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    boostedFs.close();
+  }
+
+  @Test
+  public void testReadAcrossBatches() throws Exception {
+    final Tuple<FSInputStream, Long> boosted = boostedFs.getBoostFile(fileKey, 0, "c", null, null);
+    assertNotNull(boosted);
+    assertTrue(boosted.first instanceof MappedFSInputStream);
+
+    try (IntVector output = new IntVector("c", allocator);
+        BoostedColumnDecoder decoder =
+            BoostedColumnDecoder.open(
+                descriptor, output, boosted.first, boosted.second, ROW_COUNT, allocator)) {
+      assertNotNull(decoder);
+      output.allocateNew(BATCH_SIZE);
+      final long[] rows = {0, 3, 99, 100, 101, 199, 200, 249};
+      decoder.readAt(rows, rows.length);
+      output.setValueCount(rows.length);
+      for (int i = 0; i < rows.length; i++) {
+        assertValue(output, i, rows[i]);
+      }
+
+      // later batches of the reader only move forward
+      output.reset();
+      final long[] nextRows = {5, 248};
+      decoder.readAt(nextRows, nextRows.length);
+      output.setValueCount(nextRows.length);
+      assertValue(output, 0, 5);
+      assertValue(output, 1, 248);
+      assertTrue(decoder.getBytesLoaded() > 0);
+    }
+  }
+
+  @Test
+  public void testMismatchedCopyIsIgnored() throws Exception {
+    Tuple<FSInputStream, Long> boosted = boostedFs.getBoostFile(fileKey, 0, "c", null, null);
+    try (BigIntVector output = new BigIntVector("c", allocator)) {
+      assertNull(
+          BoostedColumnDecoder.open(
+              descriptor, output, boosted.first, boosted.second, ROW_COUNT, allocator));
+    }
+
+    boosted = boostedFs.getBoostFile(fileKey, 0, "c", null, null);
+    try (IntVector output = new IntVector("c", allocator)) {
+      assertNull(
+          BoostedColumnDecoder.open(
+              descriptor, output, boosted.first, boosted.second, ROW_COUNT + 1, allocator));
+    }
+  }
+
+  /** Boosts column c of row group 0 in batches of {@link #BATCH_SIZE}; every 7th row is null. */
+  private void boost() throws Exception {
+    try (VectorContainer container = new VectorContainer(allocator)) {
+      final IntVector vector = container.addOrGet(CompleteType.INT.toField("c"));
+      container.buildSchema();
+      final FSOutputStream out = boostedFs.createBoostFile(fileKey, 0, "c");
+      final ArrowFlatBufRecordWriter writer = new ArrowFlatBufRecordWriter(null, out);
+      final RecordWriter.OutputEntryListener listener =
+          (a, b, c, d, e, f, g, partition, h, p, r, s) -> {};
+      writer.setup(container, listener, bytes -> {});
+      for (int start = 0; start < ROW_COUNT; start += BATCH_SIZE) {
+        final int count = Math.min(BATCH_SIZE, ROW_COUNT - start);
+        vector.allocateNew(count);
+        for (int i = 0; i < count; i++) {
+          if ((start + i) % 7 != 0) {
+            vector.set(i, (start + i) * 10);
+          }
+        }
+        container.setAllCount(count);
+        writer.writeBatch(0, count);
+      }
+      writer.close();
+      out.close();
+    }
+    boostedFs.commitBoostFile(fileKey, 0, "c");
+  }
+
+  private static void assertValue(IntVector vector, int index, long row) {
+    if (row % 7 == 0) {
+      assertTrue(vector.isNull(index));
+    } else {
+      assertEquals(row * 10, vector.get(index));
+    }
+  }
+
+  private static ColumnDescriptor descriptor() {
+    final MessageType schema =
+        Types.buildMessage().optional(PrimitiveTypeName.INT32).named("c").named("schema");
+    return schema.getColumnDescription(new String[] {"c"});
+  }
+}
@@ -0,0 +1,306 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.record.BatchSchema;
+import com.dremio.exec.store.CompositeColumnFilter;
+import com.dremio.exec.store.CompositeColumnFilter.RuntimeFilterType;
+import com.dremio.exec.store.RuntimeFilter;
+import com.dremio.exec.store.parquet.BaseTestUnifiedParquetReader;
+import com.dremio.exec.store.parquet.ParquetFilters;
+import com.dremio.exec.store.parquet.ParquetReaderFactory;
+import com.dremio.exec.store.parquet.ParquetReaderOptions;
+import com.dremio.exec.util.RuntimeFilterTestUtils;
+import com.dremio.io.file.Path;
+import com.dremio.sabot.op.scan.ScanOperator.Metric;
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.parquet.column.Encoding;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.SimpleGroupFactory;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.hadoop.ParquetFileWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.apache.parquet.hadoop.example.ExampleParquetWriter;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.util.HadoopInputFile;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.MessageType;
+import org.apache.parquet.schema.MessageTypeParser;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestColumnarParquetReader extends BaseTestUnifiedParquetReader {
+
+  private static final int ROWS = 1000;
+  private static final ParquetReaderOptions VECTORIZED_READER_OPTIONS =
+      ParquetReaderOptions.builder().enableVectorization(true).build();
+
+  @Before
+  public void enableColumnarReader() {
+    testCloseables.add(with(ExecConstants.PARQUET_COLUMNAR_READER_ENABLED, true));
+  }
+
+  @Override
+  protected ParquetReaderFactory getParquetReaderFactory() {
+    return new ColumnarParquetReaderFactory();
+  }
+
+  @Test
+  public void testWideningIntoTableTypes() throws Exception {
+    MessageType type =
+        MessageTypeParser.parseMessageType(
+            "message t { required int32 a; required float f; required int32 u (UINT_32); }");
+    SimpleGroupFactory groups = new SimpleGroupFactory(type);
+    Path path =
+        writeFile(
+            type,
+            false,
+            i -> groups.newGroup().append("a", i - 500).append("f", i / 4f).append("u", -1 - i));
+    BatchSchema schema =
+        BatchSchema.newBuilder()
+            .addField(Field.nullable("a", new ArrowType.Int(64, true)))
+            .addField(
+                Field.nullable("f", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)))
+            .addField(Field.nullable("u", new ArrowType.Int(64, true)))
+            .build();
+
+    int records =
+        readAndValidate(
+            path,
+            schema,
+            ParquetFilters.NONE,
+            null,
+            ImmutableList.of("a", "f", "u"),
+            VECTORIZED_READER_OPTIONS,
+            (rowGroupIndex, outputRowIndex, count, mutator) -> {
+              BigIntVector a = (BigIntVector) mutator.getVector("a");
+              Float8Vector f = (Float8Vector) mutator.getVector("f");
+              BigIntVector u = (BigIntVector) mutator.getVector("u");
+              for (int i = 0; i < count; i++) {
+                int row = outputRowIndex + i;
+                assertThat(a.get(i)).isEqualTo(row - 500L);
+                assertThat(f.get(i)).isEqualTo(row / 4d);
+                // UINT_32 values are zero extended
+                assertThat(u.get(i)).isEqualTo(0xFFFFFFFFL - row);
+              }
+            });
+
+    assertThat(records).isEqualTo(ROWS);
+    assertThat(context.getStats().getLongStat(Metric.NUM_VECTORIZED_COLUMNS)).isEqualTo(3);
+  }
+
+  @Test
+  public void testNullsWithWidening() throws Exception {
+    MessageType type =
+        MessageTypeParser.parseMessageType("message t { optional int32 a; optional float f; }");
+    SimpleGroupFactory groups = new SimpleGroupFactory(type);
+    Path path =
+        writeFile(
+            type,
+            false,
+            i ->
+                i % 3 == 0
+                    ? groups.newGroup()
+                    : groups.newGroup().append("a", -i).append("f", (float) i));
+    BatchSchema schema =
+        BatchSchema.newBuilder()
+            .addField(Field.nullable("a", new ArrowType.Int(64, true)))
+            .addField(
+                Field.nullable("f", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)))
+            .build();
+
+    int records =
+        readAndValidate(
+            path,
+            schema,
+            ParquetFilters.NONE,
+            null,
+            ImmutableList.of("a", "f"),
+            VECTORIZED_READER_OPTIONS,
+            (rowGroupIndex, outputRowIndex, count, mutator) -> {
+              BigIntVector a = (BigIntVector) mutator.getVector("a");
+              Float8Vector f = (Float8Vector) mutator.getVector("f");
+              for (int i = 0; i < count; i++) {
+                int row = outputRowIndex + i;
+                if (row % 3 == 0) {
+                  assertThat(a.isNull(i)).isTrue();
+                  assertThat(f.isNull(i)).isTrue();
+                } else {
+                  assertThat(a.get(i)).isEqualTo(-row);
+                  assertThat(f.get(i)).isEqualTo((double) row);
+                }
+              }
+            });
+
+    assertThat(records).isEqualTo(ROWS);
+    assertThat(context.getStats().getLongStat(Metric.NUM_VECTORIZED_COLUMNS)).isEqualTo(2);
+  }
+
+  @Test
+  public void testDictionaryPagesWithNulls() throws Exception {
+    MessageType type =
+        MessageTypeParser.parseMessageType(
+            "message t { required binary s (UTF8); optional int64 n; }");
+    SimpleGroupFactory groups = new SimpleGroupFactory(type);
+    Path path =
+        writeFile(
+            type,
+            true,
+            i -> {
+              Group group = groups.newGroup().append("s", "value-" + i % 7);
+              return i % 4 == 0 ? group : group.append("n", i % 5 - 2L);
+            });
+    try (ParquetFileReader reader =
+        ParquetFileReader.open(
+            HadoopInputFile.fromPath(
+                new org.apache.hadoop.fs.Path(path.toString()), new Configuration()))) {
+      for (ColumnChunkMetaData chunk : reader.getFooter().getBlocks().get(0).getColumns()) {
+        assertThat(chunk.getEncodings())
+            .containsAnyOf(Encoding.PLAIN_DICTIONARY, Encoding.RLE_DICTIONARY);
+      }
+    }
+
+    int records =
+        readAndValidate(
+            path,
+            ParquetFilters.NONE,
+            ImmutableList.of("s", "n"),
+            VECTORIZED_READER_OPTIONS,
+            (rowGroupIndex, outputRowIndex, count, mutator) -> {
+              VarCharVector s = (VarCharVector) mutator.getVector("s");
+              BigIntVector n = (BigIntVector) mutator.getVector("n");
+              for (int i = 0; i < count; i++) {
+                int row = outputRowIndex + i;
+                assertThat(s.getObject(i).toString()).isEqualTo("value-" + row % 7);
+                if (row % 4 == 0) {
+                  assertThat(n.isNull(i)).isTrue();
+                } else {
+                  assertThat(n.get(i)).isEqualTo(row % 5 - 2L);
+                }
+              }
+            });
+
+    assertThat(records).isEqualTo(ROWS);
+    assertThat(context.getStats().getLongStat(Metric.NUM_VECTORIZED_COLUMNS)).isEqualTo(2);
+  }
+
+  @Test
+  public void testMismatchedTypesAreLeftToRowwiseReader() {
+    PrimitiveType int32 = Types.required(PrimitiveTypeName.INT32).named("c");
+    PrimitiveType uint32 =
+        Types.required(PrimitiveTypeName.INT32)
+            .as(LogicalTypeAnnotation.intType(32, false))
+            .named("c");
+    PrimitiveType int64 = Types.required(PrimitiveTypeName.INT64).named("c");
+
+    assertThat(ColumnDecoders.canDecode(int32, new ArrowType.Int(32, true))).isTrue();
+    assertThat(ColumnDecoders.canDecode(int32, new ArrowType.Int(64, true))).isTrue();
+    assertThat(ColumnDecoders.canDecode(int32, new ArrowType.Decimal(10, 2, 128))).isFalse();
+    assertThat(
+            ColumnDecoders.canDecode(
+                int32, new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)))
+        .isFalse();
+    assertThat(ColumnDecoders.canDecode(int32, new ArrowType.Date(DateUnit.MILLISECOND)))
+        .isFalse();
+    assertThat(ColumnDecoders.canDecode(uint32, new ArrowType.Int(64, true))).isTrue();
+    assertThat(ColumnDecoders.canDecode(uint32, new ArrowType.Int(32, true))).isFalse();
+    assertThat(ColumnDecoders.canDecode(int64, new ArrowType.Int(64, true))).isTrue();
+    assertThat(
+            ColumnDecoders.canDecode(int64, new ArrowType.Timestamp(TimeUnit.MILLISECOND, null)))
+        .isFalse();
+  }
+
+  @Test
+  public void testValueListRuntimeFilter() throws Exception {
+    MessageType type =
+        MessageTypeParser.parseMessageType(
+            "message t { required int32 id; required binary s (UTF8); }");
+    SimpleGroupFactory groups = new SimpleGroupFactory(type);
+    Path path = writeFile(type, false, i -> groups.newGroup().append("id", i).append("s", "s" + i));
+    RuntimeFilter runtimeFilter =
+        new RuntimeFilter(
+            null,
+            ImmutableList.of(
+                new CompositeColumnFilter.Builder()
+                    .setFilterType(RuntimeFilterType.VALUE_LIST)
+                    .setColumnsList(ImmutableList.of("id"))
+                    .setValueList(
+                        new RuntimeFilterTestUtils(getTestAllocator())
+                            .prepareNewValueListFilter("id", false, 998, 3, 500, 5000))
+                    .build()),
+            "join");
+    testCloseables.add(runtimeFilter);
+
+    List<Integer> ids = new ArrayList<>();
+    int records =
+        readAndValidate(
+            path,
+            ParquetFilters.NONE,
+            ImmutableList.of(runtimeFilter),
+            ImmutableList.of("id", "s"),
+            VECTORIZED_READER_OPTIONS,
+            (rowGroupIndex, outputRowIndex, count, mutator) -> {
+              IntVector id = (IntVector) mutator.getVector("id");
+              VarCharVector s = (VarCharVector) mutator.getVector("s");
+              for (int i = 0; i < count; i++) {
+                ids.add(id.get(i));
+                assertThat(s.getObject(i).toString()).isEqualTo("s" + id.get(i));
+              }
+            });
+
+    assertThat(records).isEqualTo(3);
+    assertThat(ids).containsExactly(3, 500, 998);
+  }
+
+  private static Path writeFile(MessageType type, boolean dictionary, IntFunction<Group> rows)
+      throws IOException {
+    java.nio.file.Path file = Files.createTempFile("TestColumnarParquetReader", ".parquet");
+    classCloseables.add(() -> Files.deleteIfExists(file));
+    try (ParquetWriter<Group> writer =
+        ExampleParquetWriter.builder(new org.apache.hadoop.fs.Path(file.toUri()))
+            .withType(type)
+            .withConf(new Configuration())
+            .withWriteMode(ParquetFileWriter.Mode.OVERWRITE)
+            .withDictionaryEncoding(dictionary)
+            .build()) {
+      for (int i = 0; i < ROWS; i++) {
+        writer.write(rows.apply(i));
+      }
+    }
+    return Path.of(file.toString());
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.exec.store.iceberg.deletes.PositionalDeleteFilter;
+import com.dremio.exec.store.parquet.BaseTestUnifiedParquetReaderWithPositionalDeletes;
+import com.dremio.exec.store.parquet.ParquetFilters;
+import com.dremio.exec.store.parquet.ParquetReaderFactory;
+import com.dremio.exec.store.parquet.ParquetReaderOptions;
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import org.apache.arrow.vector.IntVector;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestColumnarParquetReaderWithPositionalDeletes
+    extends BaseTestUnifiedParquetReaderWithPositionalDeletes {
+
+  private static final ParquetReaderOptions VECTORIZED_READER_OPTIONS =
+      ParquetReaderOptions.builder().enableVectorization(true).build();
+
+  @Before
+  public void enableColumnarReader() {
+    testCloseables.add(with(ExecConstants.PARQUET_COLUMNAR_READER_ENABLED, true));
+  }
+
+  @Override
+  protected ParquetReaderFactory getParquetReaderFactory() {
+    return new ColumnarParquetReaderFactory();
+  }
+
+  @Test
+  public void testNoDeletes() throws Exception {
+    Iterator<Long> iterator = Stream.<Long>empty().iterator();
+    PositionalDeleteFilter positionalDeleteFilter = createPositionalDeleteFilter(iterator, 2);
+
+    readAndValidateOrderIdConditionAndRowCount(
+        positionalDeleteFilter, VECTORIZED_READER_OPTIONS, orderId -> true, "any", 1000);
+  }
+
+  @Test
+  public void testFirstRowGroupDeleted() throws Exception {
+    Iterator<Long> iterator =
+        Stream.iterate(0L, i -> i + 1).limit(1000).filter(i -> i < 552).iterator();
+    PositionalDeleteFilter positionalDeleteFilter = createPositionalDeleteFilter(iterator, 2);
+
+    readAndValidateOrderIdConditionAndRowCount(
+        positionalDeleteFilter,
+        VECTORIZED_READER_OPTIONS,
+        orderId -> orderId >= 8552,
+        ">= 8552",
+        448);
+  }
+
+  @Test
+  public void testContiguousDeleteRangeSpanningRowGroups() throws Exception {
+    Iterator<Long> iterator =
+        Stream.iterate(0L, i -> i + 1).limit(1000).filter(i -> i >= 500 && i <= 599).iterator();
+    PositionalDeleteFilter positionalDeleteFilter = createPositionalDeleteFilter(iterator, 2);
+
+    readAndValidateOrderIdConditionAndRowCount(
+        positionalDeleteFilter,
+        VECTORIZED_READER_OPTIONS,
+        orderId -> orderId < 8500 || orderId > 8599,
+        "not between (8500, 8599)",
+        900);
+  }
+
+  @Test
+  public void testAlternatingDeletesKeepOrder() throws Exception {
+    // [ 1, 3, 5, 7, 9, ... 999 ]
+    Iterator<Long> iterator =
+        Stream.iterate(0L, i -> i + 1).limit(1000).filter(i -> i % 2 == 1).iterator();
+
+    int[] expected = {8000};
+    RecordBatchValidator validator =
+        (rowGroupIndex, outputRowIndex, records, mutator) -> {
+          IntVector orderIdVector = (IntVector) mutator.getVector("order_id");
+          for (int i = 0; i < records; i++) {
+            assertThat(orderIdVector.get(i)).isEqualTo(expected[0]);
+            expected[0] += 2;
+          }
+        };
+
+    int recordCount =
+        readAndValidate(
+            DATA_FILE_2,
+            new ParquetFilters(null, createPositionalDeleteFilter(iterator, 2), null),
+            ImmutableList.of("order_id"),
+            VECTORIZED_READER_OPTIONS,
+            validator);
+
+    assertThat(recordCount).isEqualTo(500);
+  }
+}
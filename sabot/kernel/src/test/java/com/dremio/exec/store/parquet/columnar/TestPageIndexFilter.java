@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dremio.common.expression.FieldReference;
+import com.dremio.common.expression.FunctionCallFactory;
+import com.dremio.common.expression.LogicalExpression;
+import com.dremio.common.expression.ValueExpressions;
+import com.dremio.common.expression.ValueExpressions.DateExpression;
+import com.dremio.common.expression.ValueExpressions.TimeStampExpression;
+import com.google.common.collect.ImmutableMap;
+import org.apache.parquet.filter2.predicate.FilterApi;
+import org.apache.parquet.hadoop.metadata.ColumnChunkMetaData;
+import org.apache.parquet.hadoop.metadata.ColumnPath;
+import org.apache.parquet.io.api.Binary;
+import org.apache.parquet.schema.LogicalTypeAnnotation;
+import org.apache.parquet.schema.PrimitiveType;
+import org.apache.parquet.schema.PrimitiveType.PrimitiveTypeName;
+import org.apache.parquet.schema.Types;
+import org.junit.Test;
+
+public class TestPageIndexFilter {
+
+  private static final ColumnChunkMetaData ID =
+      chunk(Types.optional(PrimitiveTypeName.INT32).named("id"));
+  private static final ColumnChunkMetaData NAME =
+      chunk(
+          Types.optional(PrimitiveTypeName.BINARY)
+              .as(LogicalTypeAnnotation.stringType())
+              .named("name"));
+  private static final ColumnChunkMetaData TS =
+      chunk(
+          Types.optional(PrimitiveTypeName.INT64)
+              .as(LogicalTypeAnnotation.timestampType(true, LogicalTypeAnnotation.TimeUnit.MICROS))
+              .named("ts"));
+  private static final ColumnChunkMetaData DAY =
+      chunk(
+          Types.optional(PrimitiveTypeName.INT32)
+              .as(LogicalTypeAnnotation.dateType())
+              .named("day"));
+
+  private final PageIndexFilter filter =
+      new PageIndexFilter(ImmutableMap.of("id", ID, "name", NAME, "ts", TS, "day", DAY), false);
+
+  @Test
+  public void testComparison() {
+    assertThat(filter.toPredicate(call("less_than", field("ID"), ValueExpressions.getInt(10))))
+        .isEqualTo(FilterApi.lt(FilterApi.intColumn("id"), 10));
+    assertThat(filter.toPredicate(call("equal", field("name"), ValueExpressions.getChar("abc"))))
+        .isEqualTo(FilterApi.eq(FilterApi.binaryColumn("name"), Binary.fromString("abc")));
+  }
+
+  @Test
+  public void testLiteralOnTheLeft() {
+    assertThat(filter.toPredicate(call("less_than", ValueExpressions.getInt(10), field("id"))))
+        .isEqualTo(FilterApi.gt(FilterApi.intColumn("id"), 10));
+  }
+
+  @Test
+  public void testConjunctionDropsUntranslatableParts() {
+    LogicalExpression supported = call("greater_than_or_equal_to", field("id"), lit(5));
+    LogicalExpression unsupported = call("like", field("name"), ValueExpressions.getChar("a%"));
+
+    assertThat(
+            filter.toPredicate(
+                FunctionCallFactory.createBooleanOperator("and", supported, unsupported)))
+        .isEqualTo(FilterApi.gtEq(FilterApi.intColumn("id"), 5));
+    assertThat(
+            filter.toPredicate(
+                FunctionCallFactory.createBooleanOperator("or", supported, unsupported)))
+        .isNull();
+  }
+
+  @Test
+  public void testUnknownColumnOrLiteralType() {
+    assertThat(filter.toPredicate(call("equal", field("missing"), lit(1)))).isNull();
+    assertThat(filter.toPredicate(call("equal", field("id"), ValueExpressions.getChar("1"))))
+        .isNull();
+  }
+
+  @Test
+  public void testMicrosTimestampBoundsAreWidened() {
+    assertThat(
+            filter.toPredicate(
+                call("less_than", field("ts"), new TimeStampExpression(2_000L))))
+        .isEqualTo(FilterApi.lt(FilterApi.longColumn("ts"), 3_000_000L));
+    assertThat(
+            filter.toPredicate(
+                call("greater_than", field("ts"), new TimeStampExpression(2_000L))))
+        .isEqualTo(FilterApi.gt(FilterApi.longColumn("ts"), 1_000_000L));
+  }
+
+  @Test
+  public void testDates() {
+    long day = 24L * 60 * 60 * 1000;
+    assertThat(filter.toPredicate(call("less_than", field("day"), new DateExpression(10 * day))))
+        .isEqualTo(FilterApi.ltEq(FilterApi.intColumn("day"), 9));
+    assertThat(
+            filter.toPredicate(
+                call("greater_than_or_equal_to", field("day"), new DateExpression(10 * day))))
+        .isEqualTo(FilterApi.gt(FilterApi.intColumn("day"), 9));
+
+    PageIndexFilter corruptedDates = new PageIndexFilter(ImmutableMap.of("day", DAY), true);
+    assertThat(
+            corruptedDates.toPredicate(
+                call("less_than", field("day"), new DateExpression(10 * day))))
+        .isNull();
+  }
+
+  @Test
+  public void testNullChecks() {
+    assertThat(filter.toPredicate(call("isnull", field("id"))))
+        .isEqualTo(FilterApi.eq(FilterApi.intColumn("id"), null));
+    assertThat(filter.toPredicate(call("isnotnull", field("name"))))
+        .isEqualTo(FilterApi.notEq(FilterApi.binaryColumn("name"), null));
+  }
+
+  private static LogicalExpression call(String name, LogicalExpression... args) {
+    return FunctionCallFactory.createExpression(name, args);
+  }
+
+  private static LogicalExpression field(String name) {
+    return FieldReference.getWithQuotedRef(name);
+  }
+
+  private static LogicalExpression lit(int value) {
+    return ValueExpressions.getInt(value);
+  }
+
+  private static ColumnChunkMetaData chunk(PrimitiveType type) {
+    ColumnChunkMetaData chunk = mock(ColumnChunkMetaData.class);
+    when(chunk.getPath()).thenReturn(ColumnPath.get(type.getName()));
+    when(chunk.getPrimitiveType()).thenReturn(type);
+    return chunk;
+  }
+}
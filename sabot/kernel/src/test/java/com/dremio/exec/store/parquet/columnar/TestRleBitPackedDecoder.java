@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.exec.store.parquet.columnar;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import org.apache.parquet.bytes.HeapByteBufferAllocator;
+import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridEncoder;
+import org.junit.Test;
+
+public class TestRleBitPackedDecoder {
+
+  @Test
+  public void testRepeatedRuns() throws Exception {
+    int[] values = new int[1000];
+    Arrays.fill(values, 0, 400, 3);
+    Arrays.fill(values, 400, 1000, 5);
+    assertRoundTrip(values, 3);
+  }
+
+  @Test
+  public void testBitPackedRuns() throws Exception {
+    Random random = new Random(42);
+    int[] values = new int[1003];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(1 << 7);
+    }
+    assertRoundTrip(values, 7);
+  }
+
+  @Test
+  public void testSkipAndCount() throws Exception {
+    int[] values = new int[300];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i < 100 ? 1 : i % 2;
+    }
+    RleBitPackedDecoder decoder = decoder(values, 1);
+
+    assertThat(decoder.countAndSkip(150, 1)).isEqualTo(125);
+    decoder.skip(50);
+    int[] out = new int[100];
+    decoder.readInts(out, 0, 100);
+    assertThat(out).isEqualTo(Arrays.copyOfRange(values, 200, 300));
+  }
+
+  private static void assertRoundTrip(int[] values, int bitWidth) throws Exception {
+    RleBitPackedDecoder decoder = decoder(values, bitWidth);
+    int[] out = new int[values.length];
+    // read in uneven chunks so that reads straddle run boundaries
+    int offset = 0;
+    while (offset < values.length) {
+      int count = Math.min(37, values.length - offset);
+      decoder.readInts(out, offset, count);
+      offset += count;
+    }
+    assertThat(out).isEqualTo(values);
+  }
+
+  private static RleBitPackedDecoder decoder(int[] values, int bitWidth) throws Exception {
+    RunLengthBitPackingHybridEncoder encoder =
+        new RunLengthBitPackingHybridEncoder(
+            bitWidth, 64, 64 * 1024, HeapByteBufferAllocator.getInstance());
+    for (int value : values) {
+      encoder.writeInt(value);
+    }
+    byte[] bytes = encoder.toBytes().toByteArray();
+    return new RleBitPackedDecoder(ByteBuffer.wrap(bytes), 0, bytes.length, bitWidth);
+  }
+}
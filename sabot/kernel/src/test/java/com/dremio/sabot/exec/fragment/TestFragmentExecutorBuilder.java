@@ -50,6 +50,7 @@ import com.dremio.sabot.exec.QueriesClerk;
 import com.dremio.sabot.exec.QueryTicket;
 import com.dremio.sabot.exec.context.ContextInformationFactory;
 import com.dremio.sabot.exec.heap.HeapLowMemController;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
 import com.dremio.service.coordinator.ClusterCoordinator;
 import com.dremio.service.namespace.NamespaceService;
 import com.dremio.service.spill.SpillService;
@@ -111,7 +112,8 @@ public class TestFragmentExecutorBuilder extends DremioTest {
             mock(Provider.class),
             mock(Provider.class),
             mock(ExpressionSplitCache.class),
-            mock(HeapLowMemController.class));
+            mock(HeapLowMemController.class),
+            new ResultStreamRegistry());
 
     try {
       fragmentExecutorBuilder.build(
@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.exec.rpc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.GeneralRPCProtos.Ack;
+import com.dremio.exec.proto.UserBitShared.QueryData;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.proto.UserBitShared.QueryResult.QueryState;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests for {@link ResultStreamRegistry}. */
+public class TestResultStreamRegistry {
+  private static final long TIMEOUT_MILLIS = 60_000;
+
+  private BufferAllocator allocator;
+  private ResultStreamRegistry registry;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator();
+    registry = new ResultStreamRegistry();
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testSendBeforeRead() throws Exception {
+    final ResultStream stream = registry.open("stream", 0, TIMEOUT_MILLIS);
+    stream.send(mock(RpcOutcomeListener.class), newBatch(1));
+    stream.send(mock(RpcOutcomeListener.class), newBatch(2));
+    stream.complete(newResult(QueryState.COMPLETED));
+
+    final RecordingHandler handler = new RecordingHandler();
+    registry.read("stream", 0, TIMEOUT_MILLIS, handler, allocator);
+
+    assertEquals(2, handler.batches.size());
+    assertEquals(1, handler.batches.get(0).getHeader().getRowCount());
+    assertEquals(2, handler.batches.get(1).getHeader().getRowCount());
+    assertEquals(QueryState.COMPLETED, handler.result.getState());
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testStreamsAreSeparatedByMinorFragment() throws Exception {
+    registry.open("stream", 0, TIMEOUT_MILLIS).complete(newResult(QueryState.COMPLETED));
+    registry.open("stream", 1, TIMEOUT_MILLIS).complete(newResult(QueryState.FAILED));
+    assertEquals(2, registry.size());
+
+    final RecordingHandler handler = new RecordingHandler();
+    registry.read("stream", 1, TIMEOUT_MILLIS, handler, allocator);
+
+    assertEquals(QueryState.FAILED, handler.result.getState());
+    assertEquals(1, registry.size());
+  }
+
+  @Test
+  public void testCancelInterruptsSender() {
+    final ResultStream stream = registry.open("stream", 0, TIMEOUT_MILLIS);
+    final RpcOutcomeListener<Ack> queued = mock(RpcOutcomeListener.class);
+    stream.send(queued, newBatch(1));
+
+    registry.cancel("stream", 0, "client went away");
+    verify(queued).interrupted(any(InterruptedException.class));
+
+    final RpcOutcomeListener<Ack> late = mock(RpcOutcomeListener.class);
+    stream.send(late, newBatch(1));
+    verify(late).interrupted(any(InterruptedException.class));
+  }
+
+  @Test
+  public void testUnreadStreamExpires() {
+    final ResultStream stream = registry.open("stream", 0, 10);
+    final RpcOutcomeListener<Ack> listener = mock(RpcOutcomeListener.class);
+    stream.send(listener, newBatch(1));
+
+    verify(listener, timeout(TIMEOUT_MILLIS)).interrupted(any(InterruptedException.class));
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testReaderWithoutSenderExpires() throws Exception {
+    final RecordingHandler handler = new RecordingHandler();
+    registry.read("stream", 0, 10, handler, allocator);
+
+    assertTrue(handler.batches.isEmpty());
+    assertEquals(QueryState.FAILED, handler.result.getState());
+    assertEquals(0, registry.size());
+  }
+
+  @Test
+  public void testConnectedStreamDoesNotExpire() throws Exception {
+    final ResultStream stream = registry.open("stream", 0, 100);
+    final Thread reader =
+        new Thread(
+            () -> {
+              try {
+                registry.read("stream", 0, 100, new RecordingHandler(), allocator);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    reader.start();
+
+    Thread.sleep(500);
+    final RpcOutcomeListener<Ack> listener = mock(RpcOutcomeListener.class);
+    stream.send(listener, newBatch(1));
+    stream.complete(newResult(QueryState.COMPLETED));
+    reader.join(TIMEOUT_MILLIS);
+
+    verify(listener, never()).interrupted(any(InterruptedException.class));
+    assertEquals(0, registry.size());
+  }
+
+  private static QueryWritableBatch newBatch(int rowCount) {
+    return new QueryWritableBatch(QueryData.newBuilder().setRowCount(rowCount).build());
+  }
+
+  private static UserResult newResult(QueryState state) {
+    return new UserResult(
+        null, QueryId.getDefaultInstance(), state, null, null, null, false, false, false);
+  }
+
+  private static final class RecordingHandler implements UserResponseHandler {
+    private final List<QueryWritableBatch> batches = new ArrayList<>();
+    private UserResult result;
+
+    @Override
+    public void sendData(RpcOutcomeListener<Ack> outcomeListener, QueryWritableBatch batch) {
+      batches.add(batch);
+      outcomeListener.success(Ack.getDefaultInstance(), null);
+    }
+
+    @Override
+    public void completed(UserResult result) {
+      this.result = result;
+    }
+  }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.join.hash;
+
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.NULL_VARCHAR;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.common.logical.data.JoinCondition;
+import com.dremio.exec.physical.config.HashJoinPOP;
+import com.dremio.exec.planner.fragment.EndpointsIndex;
+import com.dremio.exec.record.RecordBatchData;
+import com.dremio.exec.record.VectorAccessible;
+import com.dremio.sabot.BaseTestOperator;
+import com.dremio.sabot.Fixtures.Table;
+import com.dremio.sabot.Generator;
+import com.dremio.sabot.exec.context.OperatorContextImpl;
+import com.dremio.sabot.op.join.vhash.SharedBuildSideRegistry;
+import com.dremio.sabot.op.join.vhash.VectorizedHashJoinOperator;
+import com.dremio.sabot.op.spi.DualInputOperator.State;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.calcite.rel.core.JoinRelType;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs a broadcast hash join with a shared build side in several fragments of the same phase, as
+ * planned when exec.op.join.broadcast.shared_build is enabled.
+ */
+public class TestVHashJoinSharedBuild extends BaseTestOperator {
+  private static final int BATCH_SIZE = 2;
+
+  private static final Table BUILD =
+      t(th("id_r", "name_r"), tr(1, "r1"), tr(2, "r2"), tr(4, "r4"), tr(6, "r6"));
+
+  private static final Table PROBE_0 = t(th("id_l", "name_l"), tr(1, "a1"), tr(3, "a3"));
+  private static final Table PROBE_1 = t(th("id_l", "name_l"), tr(2, "b2"), tr(4, "b4"));
+  private static final Table PROBE_2 =
+      t(th("id_l", "name_l"), tr(5, "c5"), tr(6, "c6"), tr(6, "c6"));
+
+  private static final String[] OUTPUT = {"id_r", "name_r", "id_l", "name_l"};
+
+  private SharedBuildSideRegistry registry;
+
+  @Before
+  public void createRegistry() {
+    registry = new SharedBuildSideRegistry(getTestAllocator());
+  }
+
+  private static HashJoinPOP newJoin(JoinRelType type) {
+    return new HashJoinPOP(
+        PROPS,
+        null,
+        null,
+        Collections.singletonList(new JoinCondition("EQUALS", f("id_l"), f("id_r"))),
+        null,
+        type,
+        true,
+        false,
+        true,
+        null);
+  }
+
+  @Test
+  public void innerJoin() throws Exception {
+    runSharedJoin(
+        JoinRelType.INNER,
+        t(th(OUTPUT), tr(1, "r1", 1, "a1")),
+        t(th(OUTPUT), tr(2, "r2", 2, "b2"), tr(4, "r4", 4, "b4")),
+        t(th(OUTPUT), tr(6, "r6", 6, "c6"), tr(6, "r6", 6, "c6")));
+  }
+
+  @Test
+  public void leftJoin() throws Exception {
+    runSharedJoin(
+        JoinRelType.LEFT,
+        t(th(OUTPUT), tr(1, "r1", 1, "a1"), tr(NULL_INT, NULL_VARCHAR, 3, "a3")),
+        t(th(OUTPUT), tr(2, "r2", 2, "b2"), tr(4, "r4", 4, "b4")),
+        t(
+            th(OUTPUT),
+            tr(NULL_INT, NULL_VARCHAR, 5, "c5"),
+            tr(6, "r6", 6, "c6"),
+            tr(6, "r6", 6, "c6")));
+  }
+
+  /**
+   * The builder builds the table while a fragment set up before it blocks on it, and the last
+   * fragment only gets to the join once the builder is done and gone. As when the broadcast is
+   * sent once per node, only the builder receives the build side.
+   */
+  private void runSharedJoin(JoinRelType type, Table expected0, Table expected1, Table expected2)
+      throws Exception {
+    final HashJoinPOP join = newJoin(type);
+    final JoinFragment waiter = new JoinFragment(join, PROBE_1, false, 3);
+    final JoinFragment builder = new JoinFragment(join, PROBE_0, true, 3);
+    final JoinFragment late = new JoinFragment(join, PROBE_2, false, 3);
+    try {
+      waiter.setup();
+      builder.setup();
+
+      waiter.run();
+      assertFalse("waiter should block until the build side is published", waiter.isAvailable());
+      assertEquals(State.CAN_PRODUCE, waiter.getState());
+
+      builder.run();
+      assertEquals(State.DONE, builder.getState());
+      assertTrue(waiter.isAvailable());
+      builder.checkValid(expected0);
+      builder.close();
+      assertTrue(registry.getAllocatedMemory() > 0);
+
+      // the last fragment only gets to the join once the builder is gone
+      late.setup();
+      waiter.run();
+      late.run();
+      assertEquals(State.DONE, waiter.getState());
+      assertEquals(State.DONE, late.getState());
+      waiter.checkValid(expected1);
+      late.checkValid(expected2);
+    } finally {
+      AutoCloseables.close(late, waiter, builder);
+    }
+    assertEquals(0, registry.getAllocatedMemory());
+  }
+
+  @Test
+  public void builderTerminatesEarly() throws Exception {
+    final HashJoinPOP join = newJoin(JoinRelType.LEFT);
+    final JoinFragment builder = new JoinFragment(join, PROBE_0, true, 3);
+    final JoinFragment waiter = new JoinFragment(join, PROBE_1, false, 3);
+    final JoinFragment late = new JoinFragment(join, PROBE_2, false, 3);
+    try {
+      builder.setup();
+      waiter.setup();
+      waiter.run();
+      assertFalse(waiter.isAvailable());
+
+      // the builder is cancelled after consuming part of the build side
+      builder.step();
+      assertEquals(State.CAN_CONSUME_R, builder.getState());
+      builder.close();
+      assertTrue(waiter.isAvailable());
+
+      try {
+        waiter.run();
+        fail("waiter should fail with the builder");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+
+      // only the builder received the build side, so fragments set up later fail too
+      late.setup();
+      try {
+        late.run();
+        fail("late fragment should fail with the builder");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    } finally {
+      AutoCloseables.close(late, waiter, builder);
+    }
+    assertEquals(0, registry.getAllocatedMemory());
+  }
+
+  private static SharedResourceGroup newGroup() {
+    return SharedResourceManager.newBuilder().addGroup("pipeline").build().getGroup("pipeline");
+  }
+
+  /** One fragment's instance of the join, probing its own share of the left side. */
+  private final class JoinFragment implements AutoCloseable {
+    private final SharedResourceGroup group = newGroup();
+    private final List<RecordBatchData> data = new ArrayList<>();
+    private final Generator left;
+    private final Generator right;
+    private final boolean builder;
+    private final VectorizedHashJoinOperator operator;
+    private VectorAccessible output;
+    private boolean closed;
+
+    private JoinFragment(HashJoinPOP join, Table probe, boolean builder, int localFragments)
+        throws Exception {
+      this.left = probe.toGenerator(getTestAllocator());
+      this.right = BUILD.toGenerator(getTestAllocator());
+      this.builder = builder;
+      final OperatorContextImpl context =
+          testContext.getNewOperatorContext(
+              getTestAllocator().newChildAllocator("fragment", 0, Long.MAX_VALUE),
+              join,
+              BATCH_SIZE,
+              new EndpointsIndex());
+      testCloseables.add(context);
+      context.setSharedBuildSides(registry, group, builder, localFragments);
+      this.operator =
+          (VectorizedHashJoinOperator)
+              testContext.getOperatorCreatorRegistry().getDualInputOperator(context, join);
+    }
+
+    private void setup() throws Exception {
+      output = operator.setup(left.getOutput(), right.getOutput());
+    }
+
+    private State getState() {
+      return operator.getState();
+    }
+
+    /** Whether the fragment's pipeline can run, as opposed to waiting for the build side. */
+    private boolean isAvailable() {
+      return group.isAvailable();
+    }
+
+    private void step() throws Exception {
+      switch (operator.getState()) {
+        case CAN_CONSUME_L:
+          final int leftCount = left.next(BATCH_SIZE);
+          if (leftCount > 0) {
+            operator.consumeDataLeft(leftCount);
+          } else {
+            operator.noMoreToConsumeLeft();
+          }
+          break;
+        case CAN_CONSUME_R:
+          // the broadcast is sent once per node: the other fragments only see its end
+          final int rightCount = builder ? right.next(BATCH_SIZE) : 0;
+          if (rightCount > 0) {
+            operator.consumeDataRight(rightCount);
+          } else {
+            operator.noMoreToConsumeRight();
+          }
+          break;
+        case CAN_PRODUCE:
+          if (operator.outputData() > 0) {
+            data.add(new RecordBatchData(output, getTestAllocator()));
+          }
+          break;
+        default:
+          throw new UnsupportedOperationException("State is: " + operator.getState());
+      }
+    }
+
+    /** Runs the fragment until it is done or its pipeline is blocked. */
+    private void run() throws Exception {
+      while (isAvailable() && operator.getState() != State.DONE) {
+        step();
+      }
+    }
+
+    private void checkValid(Table expected) {
+      expected.checkValid(data);
+    }
+
+    @Override
+    public void close() throws Exception {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      AutoCloseables.close(AutoCloseables.all(data), operator, left, right);
+    }
+  }
+}
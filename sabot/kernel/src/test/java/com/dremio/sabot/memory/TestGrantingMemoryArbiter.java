@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.memory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.sabot.op.spi.Operator;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.arrow.memory.RootAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests for {@link GrantingMemoryArbiter} */
+public class TestGrantingMemoryArbiter {
+  private RootAllocator allocator;
+  private GrantingMemoryArbiter arbiter;
+
+  @Before
+  public void setup() {
+    allocator = new RootAllocator(1000);
+    arbiter = new GrantingMemoryArbiter(allocator);
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    arbiter.close();
+    allocator.close();
+  }
+
+  @Test
+  public void testGrantsWithinBudget() {
+    final Task task1 = newTask("t1", 1);
+    final Task task2 = newTask("t2", 2);
+
+    assertTrue(arbiter.acquireMemoryGrant(task1, 600));
+    assertEquals(600, task1.getMemoryGrant());
+    assertFalse(arbiter.acquireMemoryGrant(task2, 600));
+    assertTrue(task2.blocked);
+    assertEquals(1, arbiter.getNumBlockedTasks());
+
+    // releasing the grant unblocks the task with the grant it asked for
+    arbiter.releaseMemoryGrant(task1);
+    assertFalse(task2.blocked);
+    assertEquals(600, task2.getMemoryGrant());
+    assertFalse(arbiter.removeFromBlocked(task2));
+    assertTrue(arbiter.acquireMemoryGrant(task2, 600));
+    assertEquals(600, arbiter.getOutstandingGrants());
+
+    arbiter.releaseMemoryGrant(task2);
+    assertEquals(0, arbiter.getOutstandingGrants());
+  }
+
+  @Test
+  public void testBlockedTasksAreNotOvertaken() {
+    final Task task1 = newTask("t1", 1);
+    final Task task2 = newTask("t2", 2);
+    final Task task3 = newTask("t3", 3);
+
+    assertTrue(arbiter.acquireMemoryGrant(task1, 600));
+    assertFalse(arbiter.acquireMemoryGrant(task2, 600));
+    // would fit, but task2 blocked first
+    assertFalse(arbiter.acquireMemoryGrant(task3, 100));
+
+    arbiter.releaseMemoryGrant(task1);
+    assertFalse(task2.blocked);
+    assertFalse(task3.blocked);
+    assertEquals(700, arbiter.getOutstandingGrants());
+  }
+
+  @Test
+  public void testBlockingShrinksOperatorsOverFairShare() {
+    final Task task1 = newTask("t1", 1);
+    final Task task2 = newTask("t2", 2);
+    final Task task3 = newTask("t3", 3);
+    final ShrinkableOperator overFairShare = task1.addOperator(1, 300, 700);
+    final ShrinkableOperator underFairShare = task2.addOperator(1, 500, 100);
+
+    assertTrue(arbiter.acquireMemoryGrant(task1, 900));
+    assertFalse(arbiter.acquireMemoryGrant(task3, 200));
+
+    // the query of task1 is over its fair share of the budget
+    assertEquals(1, overFairShare.shrinkRequests);
+    assertEquals(0, underFairShare.shrinkRequests);
+    assertEquals(1, arbiter.getNumSpillingOperators());
+
+    // task1 finishes spilling
+    arbiter.addTaskToQueue(task1);
+    arbiter.releaseMemoryGrant(task1);
+    arbiter.removeFromSpilling(task1.getShrinkableOperators().get(0));
+    assertFalse(task3.blocked);
+    assertEquals(0, arbiter.getNumSpillingOperators());
+  }
+
+  @Test
+  public void testGrantsWhenNothingReleasesMemory() {
+    final Task task = newTask("t1", 1);
+
+    assertTrue(arbiter.acquireMemoryGrant(task, 2000));
+    assertFalse(task.blocked);
+    assertEquals(2000, task.getMemoryGrant());
+
+    arbiter.taskDone(task);
+    assertEquals(0, arbiter.getOutstandingGrants());
+  }
+
+  private Task newTask(String id, long queryPart) {
+    final Task task = new Task(id, QueryId.newBuilder().setPart1(queryPart).build());
+    arbiter.startTask(task);
+    return task;
+  }
+
+  private static final class Task implements MemoryArbiterTask {
+    private final String id;
+    private final QueryId queryId;
+    private final List<MemoryTaskAndShrinkableOperator> operators = new ArrayList<>();
+    private long grant;
+    private long usedMemory;
+    private boolean blocked;
+
+    private Task(String id, QueryId queryId) {
+      this.id = id;
+      this.queryId = queryId;
+    }
+
+    private ShrinkableOperator addOperator(int operatorId, long shrinkable, long used) {
+      final ShrinkableOperator operator = new ShrinkableOperator(operatorId, shrinkable);
+      operators.add(new MemoryTaskAndShrinkableOperator(this, operator));
+      usedMemory += used;
+      return operator;
+    }
+
+    @Override
+    public String getTaskId() {
+      return id;
+    }
+
+    @Override
+    public long getUsedMemory() {
+      return usedMemory;
+    }
+
+    @Override
+    public long getMemoryGrant() {
+      return grant;
+    }
+
+    @Override
+    public void setMemoryGrant(long memoryGrantInBytes) {
+      this.grant = memoryGrantInBytes;
+    }
+
+    @Override
+    public List<MemoryTaskAndShrinkableOperator> getShrinkableOperators() {
+      return operators;
+    }
+
+    @Override
+    public void shrinkMemory(
+        Operator.ShrinkableOperator shrinkableOperator, long currentShrinkableMemory) {
+      ((ShrinkableOperator) shrinkableOperator).shrinkRequests++;
+    }
+
+    @Override
+    public void blockOnMemory() {
+      blocked = true;
+    }
+
+    @Override
+    public void unblockOnMemory() {
+      blocked = false;
+    }
+
+    @Override
+    public QueryId getQueryId() {
+      return queryId;
+    }
+  }
+
+  private static final class ShrinkableOperator implements Operator.ShrinkableOperator {
+    private final int operatorId;
+    private final long shrinkable;
+    private int shrinkRequests;
+
+    private ShrinkableOperator(int operatorId, long shrinkable) {
+      this.operatorId = operatorId;
+      this.shrinkable = shrinkable;
+    }
+
+    @Override
+    public int getOperatorId() {
+      return operatorId;
+    }
+
+    @Override
+    public long shrinkableMemory() {
+      return shrinkable;
+    }
+
+    @Override
+    public boolean shrinkMemory(long size) {
+      return true;
+    }
+  }
+}
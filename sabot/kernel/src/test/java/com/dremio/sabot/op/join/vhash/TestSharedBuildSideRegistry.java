@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.join.vhash;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.dremio.exec.proto.CoordExecRPC.FragmentAssignment;
+import com.dremio.sabot.BaseTestWithAllocator;
+import com.dremio.sabot.threads.sharedres.SharedResourceGroup;
+import com.dremio.sabot.threads.sharedres.SharedResourceManager;
+import com.google.common.collect.ImmutableList;
+import java.util.Collections;
+import java.util.List;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.OutOfMemoryException;
+import org.junit.Test;
+
+/** Unit test for {@link SharedBuildSideRegistry} */
+public class TestSharedBuildSideRegistry extends BaseTestWithAllocator {
+
+  private static SharedResourceGroup newGroup() {
+    return SharedResourceManager.newBuilder().addGroup("test").build().getGroup("test");
+  }
+
+  @Test
+  public void waitersProbeThePublishedBuildSide() throws Exception {
+    final SharedBuildSideRegistry registry = new SharedBuildSideRegistry(allocator);
+    final SharedResourceGroup waiterGroup = newGroup();
+    // the builder is the fragment the broadcast is sent to, whichever fragment gets there first
+    try (SharedBuildSide waiter = registry.acquire(1, waiterGroup, Long.MAX_VALUE, false, 2)) {
+      final SharedBuildSide builder = registry.acquire(1, newGroup(), Long.MAX_VALUE, true, 2);
+      assertTrue(builder.isBuilder());
+      assertFalse(waiter.isBuilder());
+
+      assertFalse(waiter.awaitPublished());
+      assertFalse(waiterGroup.isAvailable());
+
+      final ArrowBuf startIndex = builder.getAllocator().buffer(64);
+      builder.publish(null, null, Collections.emptyList(), ImmutableList.of(startIndex), 7);
+
+      assertTrue(waiterGroup.isAvailable());
+      assertTrue(waiter.awaitPublished());
+      assertSame(startIndex, waiter.getStartIndices().get(0));
+      assertEquals(7, waiter.getMaxHashTableIndex());
+
+      // the waiter still holds the build side once the builder is done
+      builder.close();
+      assertEquals(1, startIndex.refCnt());
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void buildSideOutlivesTheBuilder() throws Exception {
+    final SharedBuildSideRegistry registry = new SharedBuildSideRegistry(allocator);
+    try (SharedBuildSide builder = registry.acquire(1, newGroup(), Long.MAX_VALUE, true, 2)) {
+      final ArrowBuf startIndex = builder.getAllocator().buffer(64);
+      builder.publish(null, null, Collections.emptyList(), ImmutableList.of(startIndex), 0);
+    }
+    assertEquals(64, registry.getAllocatedMemory());
+
+    // a fragment getting to the join after the builder is gone still finds the build side
+    try (SharedBuildSide late = registry.acquire(1, newGroup(), Long.MAX_VALUE, false, 2)) {
+      assertTrue(late.awaitPublished());
+      assertEquals(1, late.getStartIndices().size());
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void waitersFailWithTheBuilder() throws Exception {
+    final SharedBuildSideRegistry registry = new SharedBuildSideRegistry(allocator);
+    final SharedBuildSide builder = registry.acquire(1, newGroup(), Long.MAX_VALUE, true, 2);
+    try (SharedBuildSide waiter = registry.acquire(1, newGroup(), Long.MAX_VALUE, false, 2)) {
+      assertFalse(waiter.awaitPublished());
+      builder.close();
+      waiter.awaitPublished();
+    }
+  }
+
+  @Test
+  public void laterFragmentsFailWithTheBuilder() throws Exception {
+    final SharedBuildSideRegistry registry = new SharedBuildSideRegistry(allocator);
+    registry.acquire(1, newGroup(), Long.MAX_VALUE, true, 2).close();
+    try (SharedBuildSide late = registry.acquire(1, newGroup(), Long.MAX_VALUE, false, 2)) {
+      assertFalse(late.isBuilder());
+      try {
+        late.awaitPublished();
+        fail("only the builder received the build side, so nobody else can build it");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+    }
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void phaseReleasesUnleasedBuildSides() throws Exception {
+    final SharedBuildSideRegistry registry = new SharedBuildSideRegistry(allocator);
+    try (SharedBuildSide builder = registry.acquire(1, newGroup(), Long.MAX_VALUE, true, 3)) {
+      final ArrowBuf startIndex = builder.getAllocator().buffer(64);
+      builder.publish(null, null, Collections.emptyList(), ImmutableList.of(startIndex), 0);
+    }
+    // the two other fragments of the phase failed before getting to the join
+    assertEquals(64, registry.getAllocatedMemory());
+    registry.close();
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void buildSideIsBoundedAndAccounted() throws Exception {
+    final SharedBuildSideRegistry registry = new SharedBuildSideRegistry(allocator);
+    try (SharedBuildSide builder = registry.acquire(1, newGroup(), 1024, true, 2);
+        SharedBuildSide waiter = registry.acquire(1, newGroup(), 1024, false, 2)) {
+      try {
+        builder.getAllocator().buffer(2048);
+        fail("the shared build side should not grow past its limit");
+      } catch (OutOfMemoryException e) {
+        // expected
+      }
+
+      final ArrowBuf startIndex = builder.getAllocator().buffer(512);
+      assertEquals(512, registry.getAllocatedMemory());
+      builder.publish(null, null, Collections.emptyList(), ImmutableList.of(startIndex), 0);
+      assertTrue(waiter.awaitPublished());
+      assertEquals(512, registry.getAllocatedMemory());
+    }
+    assertEquals(0, registry.getAllocatedMemory());
+    assertEquals(0, allocator.getAllocatedMemory());
+  }
+
+  @Test
+  public void localMinorFragments() {
+    final List<FragmentAssignment> assignments =
+        ImmutableList.of(
+            FragmentAssignment.newBuilder()
+                .setAssignmentIndex(0)
+                .addAllMinorFragmentId(ImmutableList.of(0, 2))
+                .build(),
+            FragmentAssignment.newBuilder()
+                .setAssignmentIndex(1)
+                .addAllMinorFragmentId(ImmutableList.of(1, 3, 4))
+                .build());
+    assertEquals(
+        ImmutableList.of(1, 3, 4), SharedBuildSideRegistry.getLocalMinorFragments(assignments, 3));
+    assertEquals(
+        ImmutableList.of(0, 2), SharedBuildSideRegistry.getLocalMinorFragments(assignments, 0));
+    assertEquals(
+        ImmutableList.of(7), SharedBuildSideRegistry.getLocalMinorFragments(assignments, 7));
+  }
+}
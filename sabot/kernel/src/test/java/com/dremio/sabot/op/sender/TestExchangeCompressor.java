@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.dremio.common.expression.CompleteType;
+import com.dremio.exec.proto.UserBitShared.QueryId;
+import com.dremio.exec.record.ArrowRecordBatchLoader;
+import com.dremio.exec.record.FragmentWritableBatch;
+import com.dremio.exec.record.VectorContainer;
+import com.dremio.sabot.op.receiver.ExchangeDecompressor;
+import com.dremio.sabot.op.receiver.RawFragmentBatch;
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import io.netty.buffer.ByteBuf;
+import java.util.Random;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.util.Text;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class TestExchangeCompressor extends DremioTest {
+  private static final int RECORDS = 4096;
+
+  @Rule public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+  private SenderLatencyTracker tracker;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-exchange-compressor", 0, Long.MAX_VALUE);
+    tracker = new SenderLatencyTracker();
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    final ExchangeCompressor compressor =
+        new ExchangeCompressor(true, true, 1.2, 0, allocator, tracker);
+    try (VectorContainer container = newContainer(false)) {
+      final ArrowRecordBatch batch =
+          compressor.compress(FragmentWritableBatch.getArrowRecordBatch(container));
+      assertSame(ExchangeCompressor.LZ4_FRAME_BODY_COMPRESSION, batch.getBodyCompression());
+      assertEquals(1, tracker.getBatchesCompressed());
+      assertTrue(tracker.getBytesAfterCompression() * 2 < tracker.getBytesBeforeCompression());
+
+      try (RawFragmentBatch received = ExchangeDecompressor.decompress(send(batch), allocator);
+          ArrowRecordBatchLoader loader =
+              new ArrowRecordBatchLoader(allocator, container.getSchema())) {
+        loader.load(received);
+        assertEquals(RECORDS, loader.getRecordCount());
+        final BigIntVector longs =
+            container.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+        final VarCharVector strings =
+            container.getValueAccessorById(VarCharVector.class, 1).getValueVector();
+        final BigIntVector loadedLongs =
+            loader.getValueAccessorById(BigIntVector.class, 0).getValueVector();
+        final VarCharVector loadedStrings =
+            loader.getValueAccessorById(VarCharVector.class, 1).getValueVector();
+        for (int i = 0; i < RECORDS; i++) {
+          assertEquals(longs.getObject(i), loadedLongs.getObject(i));
+          assertEquals(strings.getObject(i), loadedStrings.getObject(i));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAdaptiveSkipsIncompressibleBatches() throws Exception {
+    final ExchangeCompressor compressor =
+        new ExchangeCompressor(true, true, 1.2, 0, allocator, tracker);
+    try (VectorContainer container = newContainer(true)) {
+      // the first batch is compressed and sent raw, the next one is not even compressed
+      for (int i = 0; i < 2; i++) {
+        final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+        try (ArrowRecordBatch sent = compressor.compress(batch)) {
+          assertSame(batch, sent);
+        }
+      }
+      assertEquals(0, tracker.getBatchesCompressed());
+
+      // uncompressed batches go through the receiver untouched
+      final ArrowRecordBatch batch =
+          compressor.compress(FragmentWritableBatch.getArrowRecordBatch(container));
+      try (RawFragmentBatch received = send(batch)) {
+        assertSame(received, ExchangeDecompressor.decompress(received, allocator));
+      }
+    }
+  }
+
+  @Test
+  public void testDisabled() throws Exception {
+    final ExchangeCompressor compressor =
+        new ExchangeCompressor(false, true, 1.2, 0, allocator, tracker);
+    try (VectorContainer container = newContainer(false)) {
+      final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+      try (ArrowRecordBatch sent = compressor.compress(batch)) {
+        assertSame(batch, sent);
+      }
+      assertEquals(0, tracker.getCompressionNanos());
+    }
+  }
+
+  @Test
+  public void testEmptyBuffers() throws Exception {
+    final ExchangeCompressor compressor =
+        new ExchangeCompressor(true, false, 1.2, 0, allocator, tracker);
+    try (VectorContainer container = newContainer(false)) {
+      container.setAllCount(0);
+      final ArrowRecordBatch batch = FragmentWritableBatch.getArrowRecordBatch(container);
+      final ArrowRecordBatch sent = compressor.compress(batch);
+      assertNotSame(batch, sent);
+      try (RawFragmentBatch received = ExchangeDecompressor.decompress(send(sent), allocator)) {
+        assertNull(
+            RecordBatch.getRootAsRecordBatch(
+                    received.getHeader().getArrowRecordBatch().asReadOnlyByteBuffer())
+                .compression());
+      }
+    }
+  }
+
+  private VectorContainer newContainer(boolean random) {
+    final VectorContainer container = new VectorContainer(allocator);
+    final BigIntVector longs = container.addOrGet(CompleteType.BIGINT.toField("l"));
+    final VarCharVector strings = container.addOrGet(CompleteType.VARCHAR.toField("s"));
+    container.allocateNew();
+    final Random rand = new Random(42);
+    for (int i = 0; i < RECORDS; i++) {
+      longs.setSafe(i, random ? rand.nextLong() : i % 16);
+      strings.setSafe(i, new Text(random ? Long.toHexString(rand.nextLong()) : "value-" + i % 8));
+    }
+    container.setAllCount(RECORDS);
+    container.buildSchema();
+    return container;
+  }
+
+  /** Mimics a tunnel: serializes the batch and hands its body to the receiver. */
+  private RawFragmentBatch send(ArrowRecordBatch batch) {
+    final FragmentWritableBatch writableBatch =
+        new FragmentWritableBatch(QueryId.getDefaultInstance(), 0, 0, 1, batch, 0);
+    try (ArrowBuf body = allocator.buffer(writableBatch.getByteCount())) {
+      long offset = 0;
+      for (ByteBuf buf : writableBatch.getBuffers()) {
+        final int count = buf.readableBytes();
+        body.setBytes(offset, buf.nioBuffer());
+        offset += count;
+        buf.release();
+      }
+      body.writerIndex(offset);
+      return new RawFragmentBatch(writableBatch.getHeader(), body, null);
+    }
+  }
+}
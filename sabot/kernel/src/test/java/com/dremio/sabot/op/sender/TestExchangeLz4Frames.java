@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.op.sender;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.dremio.test.AllocatorRule;
+import com.dremio.test.DremioTest;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+public class TestExchangeLz4Frames extends DremioTest {
+  // several blocks, the last one partial
+  private static final int LENGTH = 3 * 64 * 1024 + 1000;
+
+  @Rule public final AllocatorRule allocatorRule = AllocatorRule.defaultAllocator();
+
+  private BufferAllocator allocator;
+
+  @Before
+  public void setup() {
+    allocator = allocatorRule.newAllocator("test-exchange-lz4-frames", 0, Long.MAX_VALUE);
+  }
+
+  @After
+  public void cleanup() {
+    allocator.close();
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    for (boolean random : new boolean[] {false, true}) {
+      final byte[] data = newData(random);
+      try (ArrowBuf src = allocator.buffer(LENGTH);
+          ArrowBuf frame = allocator.buffer(ExchangeLz4Frames.maxCompressedLength(LENGTH));
+          ArrowBuf dst = allocator.buffer(LENGTH)) {
+        src.setBytes(0, data);
+        final long frameLength = ExchangeLz4Frames.compress(src, 0, LENGTH, frame, 0);
+        if (!random) {
+          assertTrue(frameLength * 4 < LENGTH);
+        }
+
+        ExchangeLz4Frames.decompress(frame, 0, frameLength, dst, 0, LENGTH);
+        final byte[] decompressed = new byte[LENGTH];
+        dst.getBytes(0, decompressed);
+        assertArrayEquals(data, decompressed);
+      }
+    }
+  }
+
+  @Test
+  public void testFramesAreStandard() throws Exception {
+    final byte[] data = newData(false);
+    try (ArrowBuf src = allocator.buffer(LENGTH);
+        ArrowBuf frame = allocator.buffer(ExchangeLz4Frames.maxCompressedLength(LENGTH))) {
+      src.setBytes(0, data);
+      final byte[] frameBytes =
+          new byte[(int) ExchangeLz4Frames.compress(src, 0, LENGTH, frame, 0)];
+      frame.getBytes(0, frameBytes);
+
+      final byte[] decompressed = new byte[LENGTH];
+      try (InputStream in = new LZ4FrameInputStream(new ByteArrayInputStream(frameBytes))) {
+        int pos = 0;
+        int n;
+        while (pos < LENGTH && (n = in.read(decompressed, pos, LENGTH - pos)) > 0) {
+          pos += n;
+        }
+      }
+      assertArrayEquals(data, decompressed);
+    }
+  }
+
+  @Test
+  public void testTruncatedFrame() throws Exception {
+    try (ArrowBuf src = allocator.buffer(LENGTH);
+        ArrowBuf frame = allocator.buffer(ExchangeLz4Frames.maxCompressedLength(LENGTH));
+        ArrowBuf dst = allocator.buffer(LENGTH)) {
+      src.setBytes(0, newData(false));
+      final long frameLength = ExchangeLz4Frames.compress(src, 0, LENGTH, frame, 0);
+      try {
+        ExchangeLz4Frames.decompress(frame, 0, frameLength - 10, dst, 0, LENGTH);
+        fail();
+      } catch (IOException expected) {
+        // expected
+      }
+    }
+  }
+
+  private static byte[] newData(boolean random) {
+    final byte[] data = new byte[LENGTH];
+    if (random) {
+      new Random(42).nextBytes(data);
+    } else {
+      for (int i = 0; i < LENGTH; i++) {
+        data[i] = (byte) ("value-" + (i / 16) % 8).charAt(i % 7);
+      }
+    }
+    return data;
+  }
+}
@@ -146,6 +146,46 @@ public class TestMemoryRun extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void testRadixSorterCloseToCopier() throws Exception {
+    final VectorSortTracer tracer = new VectorSortTracer();
+    try (MemoryRun memoryRun =
+        new MemoryRun(
+            externalSort.getOrderings(),
+            producer,
+            allocator,
+            generator.getSchema(),
+            tracer,
+            2,
+            false,
+            true,
+            8192,
+            mock(ExecutionControls.class))) {
+      int totalAdded = addBatches(memoryRun);
+      validateCloseToCopier(memoryRun, 100, totalAdded);
+    }
+  }
+
+  @Test
+  public void testRadixSorterCloseToDisk() throws Exception {
+    final VectorSortTracer tracer = new VectorSortTracer();
+    try (MemoryRun memoryRun =
+        new MemoryRun(
+            externalSort.getOrderings(),
+            producer,
+            allocator,
+            generator.getSchema(),
+            tracer,
+            2,
+            false,
+            true,
+            8192,
+            mock(ExecutionControls.class))) {
+      int totalAdded = addBatches(memoryRun);
+      validateCloseToDisk(memoryRun, totalAdded);
+    }
+  }
+
   @Test
   public void testQuickSortStartMicroSpilling() throws Exception {
     testStartMicroSpilling(false);
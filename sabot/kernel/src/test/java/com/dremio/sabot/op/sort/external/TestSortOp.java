@@ -16,9 +16,16 @@
 package com.dremio.sabot.op.sort.external;
 
 import static com.dremio.sabot.CustomGenerator.ID;
+import static com.dremio.sabot.Fixtures.NULL_BIGINT;
+import static com.dremio.sabot.Fixtures.NULL_INT;
+import static com.dremio.sabot.Fixtures.t;
+import static com.dremio.sabot.Fixtures.th;
+import static com.dremio.sabot.Fixtures.tr;
 import static java.util.Collections.singletonList;
 import static org.apache.calcite.rel.RelFieldCollation.Direction.ASCENDING;
+import static org.apache.calcite.rel.RelFieldCollation.Direction.DESCENDING;
 import static org.apache.calcite.rel.RelFieldCollation.NullDirection.FIRST;
+import static org.apache.calcite.rel.RelFieldCollation.NullDirection.LAST;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -35,6 +42,7 @@ import com.dremio.sabot.CustomGenerator;
 import com.dremio.sabot.Fixtures;
 import com.dremio.sabot.exec.context.BufferManagerImpl;
 import com.dremio.sabot.exec.context.OperatorStats;
+import com.google.common.collect.ImmutableList;
 import java.util.concurrent.TimeUnit;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.memory.BufferManager;
@@ -223,6 +231,56 @@ public class TestSortOp extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void testRadixSorterSpillSort() throws Exception {
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_RADIX_SORT, true)) {
+      ExternalSort sort =
+          new ExternalSort(
+              PROPS.cloneWithNewReserve(1_000_000),
+              null,
+              singletonList(ordering(ID.getName(), ASCENDING, FIRST)),
+              false);
+      sort.getProps().setMemLimit(2_000_000); // this can't go below sort's initialAllocation (20K)
+      Fixtures.Table table = generator.getExpectedSortedTable();
+      validateSingle(sort, ExternalSortOperator.class, generator, table, 1000);
+    }
+  }
+
+  @Test
+  public void testRadixSorterOrderings() throws Exception {
+    final Fixtures.Table input =
+        t(
+            th("a", "b"),
+            tr(3L, 1),
+            tr(NULL_BIGINT, 2),
+            tr(-5L, NULL_INT),
+            tr(Long.MIN_VALUE, 4),
+            tr(3L, -1),
+            tr(Long.MAX_VALUE, NULL_INT),
+            tr(3L, NULL_INT),
+            tr(0L, Integer.MIN_VALUE));
+    final Fixtures.Table expected =
+        t(
+            th("a", "b"),
+            tr(Long.MAX_VALUE, NULL_INT),
+            tr(3L, NULL_INT),
+            tr(3L, -1),
+            tr(3L, 1),
+            tr(0L, Integer.MIN_VALUE),
+            tr(-5L, NULL_INT),
+            tr(Long.MIN_VALUE, 4),
+            tr(NULL_BIGINT, 2));
+    try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_RADIX_SORT, true)) {
+      ExternalSort sort =
+          new ExternalSort(
+              PROPS,
+              null,
+              ImmutableList.of(ordering("a", DESCENDING, LAST), ordering("b", ASCENDING, FIRST)),
+              false);
+      validateSingle(sort, ExternalSortOperator.class, input, expected, 3);
+    }
+  }
+
   @Test
   public void testQuickSorterSpillSortWithDirectWriteOff() throws Exception {
     try (AutoCloseable option = with(ExecConstants.EXTERNAL_SORT_ENABLE_SPLAY_SORT, false);
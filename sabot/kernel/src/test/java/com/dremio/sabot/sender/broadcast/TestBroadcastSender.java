@@ -15,15 +15,18 @@
  */
 package com.dremio.sabot.sender.broadcast;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.dremio.exec.physical.config.BroadcastSender;
 import com.dremio.exec.planner.fragment.EndpointsIndex;
 import com.dremio.exec.proto.CoordExecRPC.MinorFragmentIndexEndpoint;
 import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.ExecRPC.FragmentStreamComplete;
 import com.dremio.exec.record.BatchSchema;
 import com.dremio.exec.record.FragmentWritableBatch;
 import com.dremio.exec.record.SchemaBuilder;
@@ -34,11 +37,15 @@ import com.dremio.sabot.op.sender.broadcast.BroadcastOperator;
 import io.airlift.tpch.GenerationDefinition.TpchTable;
 import io.airlift.tpch.TpchGenerator;
 import io.netty.buffer.ByteBuf;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import org.apache.arrow.vector.types.Types.MinorType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.FieldType;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 
@@ -99,6 +106,63 @@ public class TestBroadcastSender extends BaseTestOperator {
     }
   }
 
+  @Test
+  public void sendOncePerNode() throws Exception {
+    EndpointsIndex endpointsIndex =
+        new EndpointsIndex(
+            Arrays.asList(NodeEndpoint.newBuilder().setAddress("a").setFabricPort(1).build()));
+
+    BroadcastSender sender =
+        new BroadcastSender(
+            PROPS,
+            getSchema(),
+            null,
+            1,
+            Arrays.asList(
+                MinorFragmentIndexEndpoint.newBuilder()
+                    .setMinorFragmentId(3)
+                    .setEndpointIndex(0)
+                    .build(),
+                MinorFragmentIndexEndpoint.newBuilder()
+                    .setMinorFragmentId(1)
+                    .setEndpointIndex(0)
+                    .build()),
+            true);
+
+    final List<List<Integer>> batchReceivers = new ArrayList<>();
+    final AccountingExecTunnel tunnel = mock(AccountingExecTunnel.class);
+    doAnswer(
+            invocation -> {
+              final FragmentWritableBatch batch = invocation.getArgument(0);
+              batchReceivers.add(batch.getHeader().getReceivingMinorFragmentIdList());
+              for (ByteBuf b : batch.getBuffers()) {
+                b.release();
+              }
+              return null;
+            })
+        .when(tunnel)
+        .sendRecordBatch(any(FragmentWritableBatch.class), any());
+
+    final TunnelProvider provider = mock(TunnelProvider.class);
+    when(provider.getExecTunnel(any(NodeEndpoint.class))).thenReturn(tunnel);
+
+    try (BroadcastOperator op =
+            newOperator(BroadcastOperator.class, sender, DEFAULT_BATCH, endpointsIndex, provider);
+        TpchGenerator g =
+            TpchGenerator.singleGenerator(TpchTable.NATION, 0.1, getTestAllocator()); ) {
+      op.setup(g.getOutput());
+      op.consumeData(g.next(DEFAULT_BATCH));
+      op.noMoreToConsume();
+    }
+
+    // the batch only goes to the lowest fragment of the node, its end to all of them
+    assertEquals(Collections.singletonList(Collections.singletonList(1)), batchReceivers);
+    final ArgumentCaptor<FragmentStreamComplete> completion =
+        ArgumentCaptor.forClass(FragmentStreamComplete.class);
+    verify(tunnel).sendStreamComplete(completion.capture());
+    assertEquals(Arrays.asList(3, 1), completion.getValue().getReceivingMinorFragmentIdList());
+  }
+
   public BatchSchema getSchema() {
     SchemaBuilder builder =
         BatchSchema.newBuilder()
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.sabot.task.slicing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import com.dremio.sabot.task.AsyncTask;
+import com.dremio.sabot.task.AsyncTaskWrapper;
+import com.dremio.sabot.task.SchedulingGroup;
+import com.dremio.sabot.task.Task.State;
+import com.dremio.sabot.task.TaskDescriptor;
+import com.dremio.sabot.threads.AvailabilityCallback;
+import com.dremio.sabot.threads.sharedres.SharedResourceType;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.After;
+import org.junit.Test;
+
+public class TestSlicingTaskPool {
+
+  private SlicingTaskPool pool;
+
+  @After
+  public void close() throws Exception {
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void testTasksRunToCompletion() throws Exception {
+    pool = new SlicingTaskPool(2, TimeUnit.MILLISECONDS.toNanos(1), false);
+    SchedulingGroup<AsyncTaskWrapper> group = pool.newGroup(100);
+    CountDownLatch done = new CountDownLatch(10);
+
+    for (int i = 0; i < 10; i++) {
+      pool.execute(
+          new AsyncTaskWrapper(1, group.addGroup(10), new SpinTask(20, 0), done::countDown, 1000));
+    }
+
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(pool.getRoot().getLiveTasks()).isEqualTo(0);
+  }
+
+  @Test
+  public void testBlockedTaskIsRescheduled() throws Exception {
+    pool = new SlicingTaskPool(1, TimeUnit.MILLISECONDS.toNanos(1), false);
+    CountDownLatch done = new CountDownLatch(1);
+    BlockingTask task = new BlockingTask();
+
+    pool.execute(new AsyncTaskWrapper(1, pool.newGroup(1), task, done::countDown, 1000));
+
+    assertThat(task.blocked.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(done.getCount()).isEqualTo(1);
+    task.callback.nowAvailable();
+    assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  public void testCpuIsSharedByWeight() {
+    final SlicingGroup root = new SlicingGroup(null, null, "root", 1, true);
+    final SlicingGroup heavy = new SlicingGroup(null, root, "heavy", 1000, true);
+    final SlicingGroup light = new SlicingGroup(null, root, "light", 100, true);
+    final PriorityQueue<SlicingTask> runQueue =
+        new PriorityQueue<>(Comparator.comparingDouble(SlicingTask::getVruntime));
+    for (SlicingGroup group : new SlicingGroup[] {heavy, light}) {
+      for (int i = 0; i < 2; i++) {
+        group.taskStarted(1);
+        runQueue.add(new SlicingTask(null, group, null, 1));
+      }
+    }
+    assertThat(heavy.getShare()).isCloseTo(1000.0 / 1100, within(1e-9));
+    assertThat(light.getShare()).isCloseTo(100.0 / 1100, within(1e-9));
+
+    // run the task with the smallest virtual runtime for a quantum, as a slicing thread does
+    final long quantumNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    for (int i = 0; i < 11_000; i++) {
+      final SlicingTask task = runQueue.poll();
+      task.charge(quantumNanos, 0);
+      runQueue.add(task);
+    }
+
+    assertThat(heavy.getSlices() + light.getSlices()).isEqualTo(11_000);
+    assertThat((double) heavy.getCpuNanos() / light.getCpuNanos()).isCloseTo(10, within(0.1));
+    assertThat(root.getCpuNanos()).isEqualTo(11_000 * quantumNanos);
+  }
+
+  /** Runnable until it ran the given number of times, spinning for a while on every run. */
+  private static class SpinTask extends TestTask {
+    private final long maxRuns;
+    private final long spinNanos;
+    private final AtomicLong runs = new AtomicLong();
+    private volatile boolean finished;
+
+    SpinTask(long maxRuns, long spinNanos) {
+      this.maxRuns = maxRuns;
+      this.spinNanos = spinNanos;
+    }
+
+    @Override
+    public void run() {
+      final long start = System.nanoTime();
+      while (System.nanoTime() - start < spinNanos) {
+        // spin
+      }
+      runs.incrementAndGet();
+    }
+
+    @Override
+    public State getState() {
+      return finished || runs.get() >= maxRuns ? State.DONE : State.RUNNABLE;
+    }
+
+    void finish() {
+      finished = true;
+    }
+  }
+
+  /** Blocks on its first run, and finishes on the run after it was woken up. */
+  private static class BlockingTask extends TestTask {
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private volatile State state = State.RUNNABLE;
+    private volatile AvailabilityCallback callback;
+    private int runs;
+
+    @Override
+    public void run() {
+      if (runs++ == 0) {
+        state = State.BLOCKED_ON_UPSTREAM;
+      } else {
+        state = State.DONE;
+      }
+    }
+
+    @Override
+    public State getState() {
+      return state;
+    }
+
+    @Override
+    public void refreshState() {
+      state = State.RUNNABLE;
+    }
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {
+      this.callback = callback;
+      blocked.countDown();
+    }
+  }
+
+  private abstract static class TestTask implements AsyncTask {
+    @Override
+    public void refreshState() {}
+
+    @Override
+    public String getTaskId() {
+      return toString();
+    }
+
+    @Override
+    public SharedResourceType getFirstBlockedResource() {
+      return SharedResourceType.UNKNOWN;
+    }
+
+    @Override
+    public void updateSleepDuration(long duration) {}
+
+    @Override
+    public void updateBlockedOnDownstreamDuration(long duration) {}
+
+    @Override
+    public void updateBlockedOnUpstreamDuration(long duration) {}
+
+    @Override
+    public void updateBlockedOnMemoryDuration(long duration) {}
+
+    @Override
+    public void addBlockedOnSharedResourceDuration(SharedResourceType resource, long duration) {}
+
+    @Override
+    public void setWakeupCallback(AvailabilityCallback callback) {}
+
+    @Override
+    public void setTaskDescriptor(TaskDescriptor descriptor) {}
+  }
+}
@@ -104,6 +104,16 @@ public class ReflectionRecordingObserver implements AttemptObserver {
     calls.add(observer -> observer.planCacheUsed(count));
   }
 
+  @Override
+  public void resultCacheUsed(String jobId, int count) {
+    calls.add(observer -> observer.resultCacheUsed(jobId, count));
+  }
+
+  @Override
+  public void resultCacheMissed() {
+    calls.add(AttemptObserver::resultCacheMissed);
+  }
+
   @Override
   public void restoreAccelerationProfileFromCachedPlan(AccelerationProfile accelerationProfile) {
     calls.add(observer -> observer.restoreAccelerationProfileFromCachedPlan(accelerationProfile));
@@ -40,11 +40,14 @@ import static org.apache.arrow.flight.sql.impl.FlightSql.TicketStatementQuery;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.context.RequestContext;
 import com.dremio.context.TenantContext;
+import com.dremio.exec.planner.sql.parser.ParserUtil;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.exec.work.protector.UserWorker;
 import com.dremio.options.OptionManager;
 import com.dremio.sabot.rpc.user.ChangeTrackingUserSession;
 import com.dremio.sabot.rpc.user.UserSession;
+import com.dremio.service.flight.client.properties.DremioFlightClientProperties;
 import com.dremio.service.flight.error.mapping.DremioFlightErrorMapper;
 import com.dremio.service.flight.impl.FlightPreparedStatement;
 import com.dremio.service.flight.impl.FlightWorkManager;
@@ -56,8 +59,12 @@ import com.google.protobuf.Any;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.Message;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.inject.Provider;
 import org.apache.arrow.flight.Action;
 import org.apache.arrow.flight.ActionType;
@@ -94,6 +101,7 @@ public class DremioFlightProducer implements FlightSqlProducer {
   private final DremioFlightSessionsManager sessionsManager;
   private final BufferAllocator allocator;
   private final Provider<FlightRequestContextDecorator> requestContextDecorator;
+  private final Optional<Function<NodeEndpoint, Location>> executorLocation;
 
   public DremioFlightProducer(
       Optional<Location> location,
@@ -102,11 +110,13 @@ public class DremioFlightProducer implements FlightSqlProducer {
       Provider<OptionManager> optionManagerProvider,
       BufferAllocator allocator,
       Provider<FlightRequestContextDecorator> requestContextDecorator,
-      RunQueryResponseHandlerFactory runQueryResponseHandlerFactory) {
+      RunQueryResponseHandlerFactory runQueryResponseHandlerFactory,
+      Optional<Function<NodeEndpoint, Location>> executorLocation) {
     this.location = location;
     this.sessionsManager = sessionsManager;
     this.allocator = allocator;
     this.requestContextDecorator = requestContextDecorator;
+    this.executorLocation = executorLocation;
 
     flightWorkManager =
         new FlightWorkManager(
@@ -229,7 +239,46 @@ public class DremioFlightProducer implements FlightSqlProducer {
         flightWorkManager.createPreparedStatement(
             flightDescriptor, callContext::isCancelled, session);
 
-    return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor);
+    if (!executorLocation.isPresent()
+        || DremioFlightClientProperties.getResultStreamPartitions(
+                retrieveHeadersFromCallContext(callContext))
+            <= 1
+        || ParserUtil.isOrderedQuery(FlightWorkManager.getQuery(flightDescriptor))) {
+      return flightPreparedStatement.getFlightInfoLegacy(location, flightDescriptor);
+    }
+    return getFlightInfoForResultStreams(callContext, flightDescriptor, flightPreparedStatement);
+  }
+
+  /**
+   * Runs the prepared statement with its results read directly from the executors running its
+   * last parallel phase, and returns one endpoint per fragment of that phase. The random stream id
+   * in the tickets is what authorizes their holder to read the streams from the executors.
+   */
+  private FlightInfo getFlightInfoForResultStreams(
+      CallContext callContext,
+      FlightDescriptor flightDescriptor,
+      FlightPreparedStatement flightPreparedStatement) {
+    final UserSessionService.UserSessionData sessionData = getUserSessionData(callContext);
+    final ChangeTrackingUserSession userSession =
+        ChangeTrackingUserSession.Builder.newBuilder()
+            .withDelegate(sessionData.getSession())
+            .build();
+
+    final String streamId = UUID.randomUUID().toString();
+    final List<NodeEndpoint> endpoints =
+        flightWorkManager.runPreparedStatementToResultStreams(
+            flightPreparedStatement.getServerHandle(),
+            streamId,
+            userSession,
+            () -> {
+              if (userSession.isUpdated()) {
+                sessionsManager.updateSession(sessionData);
+              }
+            });
+    return flightPreparedStatement.getFlightInfoForResultStreams(
+        flightDescriptor,
+        streamId,
+        endpoints.stream().map(executorLocation.get()).collect(Collectors.toList()));
   }
 
   @Override
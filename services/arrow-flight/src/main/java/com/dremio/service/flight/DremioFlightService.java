@@ -19,6 +19,7 @@ import static com.dremio.config.DremioConfig.FLIGHT_USE_SESSION_SERVICE;
 
 import com.dremio.common.AutoCloseables;
 import com.dremio.config.DremioConfig;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.rpc.ssl.SSLConfigurator;
 import com.dremio.exec.server.SabotContext;
 import com.dremio.exec.work.protector.UserWorker;
@@ -46,6 +47,7 @@ import java.security.KeyStore;
 import java.security.cert.Certificate;
 import java.util.Enumeration;
 import java.util.Optional;
+import java.util.function.Function;
 import javax.inject.Provider;
 import org.apache.arrow.flight.DremioFlightServer;
 import org.apache.arrow.flight.FlightServerMiddleware;
@@ -194,7 +196,8 @@ public class DremioFlightService implements Service {
                     optionManagerProvider,
                     allocator,
                     requestContextDecoratorProvider,
-                    runQueryResponseHandlerFactory));
+                    runQueryResponseHandlerFactory,
+                    getExecutorLocation(config)));
 
     builder.middleware(
         FLIGHT_CLIENT_PROPERTIES_MIDDLEWARE_KEY, new ServerCookieMiddleware.Factory());
@@ -236,6 +239,21 @@ public class DremioFlightService implements Service {
     return Location.forGrpcTls(address, port);
   }
 
+  /**
+   * Create the function mapping an executor to the Location of its Flight service, which serves
+   * the result streams of the fragments running on it.
+   *
+   * @param config The Dremio configuration.
+   * @return The function, or empty if executors do not run a Flight service.
+   */
+  private Optional<Function<NodeEndpoint, Location>> getExecutorLocation(DremioConfig config) {
+    if (!config.getBoolean(DremioConfig.FLIGHT_EXECUTOR_ENABLED_BOOLEAN)) {
+      return Optional.empty();
+    }
+    final int port = config.getInt(DremioConfig.FLIGHT_EXECUTOR_PORT_INT);
+    return Optional.of(endpoint -> getLocation(endpoint.getAddress(), port));
+  }
+
   @VisibleForTesting
   DremioFlightServer getFlightServer() {
     return server;
@@ -270,7 +288,7 @@ public class DremioFlightService implements Service {
    * @return The SSL configuration. This is returned to make the SSLConfig accessible by unit tests
    *     while avoiding storing the SSLConfig on the service.
    */
-  private void addTlsProperties(DremioFlightServer.Builder builder, SSLConfig sslConfig) {
+  static void addTlsProperties(DremioFlightServer.Builder builder, SSLConfig sslConfig) {
     try {
       final KeyStore keyStore = KeyStore.getInstance(sslConfig.getKeyStoreType());
       try (final InputStream keyStoreStream =
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight;
+
+import static com.dremio.service.flight.DremioFlightService.FLIGHT_SSL_ENABLED;
+import static com.dremio.service.flight.DremioFlightService.FLIGHT_SSL_PREFIX;
+
+import com.dremio.common.AutoCloseables;
+import com.dremio.config.DremioConfig;
+import com.dremio.exec.rpc.ssl.SSLConfigurator;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
+import com.dremio.service.Service;
+import com.dremio.services.credentials.CredentialsService;
+import com.dremio.ssl.SSLConfig;
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.security.GeneralSecurityException;
+import javax.inject.Provider;
+import org.apache.arrow.flight.DremioFlightServer;
+import org.apache.arrow.flight.Location;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * Service which manages the Flight endpoint of an executor, serving the result streams of the
+ * fragments running on the executor, see {@link ResultStreamProducer}.
+ */
+public class ExecutorFlightService implements Service {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(ExecutorFlightService.class);
+
+  private final Provider<DremioConfig> configProvider;
+  private final Provider<BufferAllocator> bufferAllocator;
+  private final Provider<ResultStreamRegistry> resultStreamRegistryProvider;
+  private final Provider<OptionManager> optionManagerProvider;
+  private final Provider<CredentialsService> credentialsServiceProvider;
+
+  private volatile DremioFlightServer server;
+  private BufferAllocator allocator;
+
+  public ExecutorFlightService(
+      Provider<DremioConfig> configProvider,
+      Provider<BufferAllocator> bufferAllocator,
+      Provider<ResultStreamRegistry> resultStreamRegistryProvider,
+      Provider<OptionManager> optionManagerProvider,
+      Provider<CredentialsService> credentialsServiceProvider) {
+    this.configProvider = configProvider;
+    this.bufferAllocator = bufferAllocator;
+    this.resultStreamRegistryProvider = resultStreamRegistryProvider;
+    this.optionManagerProvider = optionManagerProvider;
+    this.credentialsServiceProvider = credentialsServiceProvider;
+  }
+
+  @Override
+  public void start() throws Exception {
+    Preconditions.checkArgument(
+        server == null, "Executor Flight Service should not be started more than once.");
+    logger.info("Starting Executor Flight Service");
+
+    final DremioConfig config = configProvider.get();
+    allocator =
+        bufferAllocator
+            .get()
+            .newChildAllocator("executor-flight-service-allocator", 0, Long.MAX_VALUE);
+
+    final int port = config.getInt(DremioConfig.FLIGHT_EXECUTOR_PORT_INT);
+    // Get the wildcard address which is usually 0.0.0.0.
+    final String wildcardAddress = new InetSocketAddress(port).getHostName();
+    final boolean tls = config.getBoolean(FLIGHT_SSL_ENABLED);
+
+    final DremioFlightServer.Builder builder =
+        DremioFlightServer.builder()
+            .location(
+                tls
+                    ? Location.forGrpcTls(wildcardAddress, port)
+                    : Location.forGrpcInsecure(wildcardAddress, port))
+            .allocator(allocator)
+            .producer(
+                new ResultStreamProducer(
+                    resultStreamRegistryProvider.get(), optionManagerProvider, allocator));
+    if (tls) {
+      DremioFlightService.addTlsProperties(builder, getSSLConfig(config));
+    }
+
+    server = builder.build();
+    server.start();
+
+    logger.info("Executor Flight Service started at {} on port {}.", config.getThisNode(), port);
+  }
+
+  @Override
+  public void close() throws Exception {
+    logger.info("Stopping Executor Flight Service");
+    AutoCloseables.close(server, allocator);
+    logger.info("Executor Flight Service stopped");
+  }
+
+  private SSLConfig getSSLConfig(DremioConfig config) {
+    try {
+      return new SSLConfigurator(config, credentialsServiceProvider, FLIGHT_SSL_PREFIX, "flight")
+          .getSSLConfig(
+              true, config.getThisNode(), InetAddress.getLocalHost().getCanonicalHostName())
+          .get();
+    } catch (GeneralSecurityException | IOException ex) {
+      throw new RuntimeException(ex);
+    }
+  }
+}
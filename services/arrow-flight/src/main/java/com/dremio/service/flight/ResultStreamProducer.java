@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight;
+
+import com.dremio.exec.ExecConstants;
+import com.dremio.options.OptionManager;
+import com.dremio.sabot.exec.rpc.ResultStreamRegistry;
+import com.dremio.service.flight.impl.RunQueryResponseHandler.BackpressureHandlingResponseHandler;
+import com.google.protobuf.InvalidProtocolBufferException;
+import javax.inject.Provider;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.NoOpFlightProducer;
+import org.apache.arrow.flight.Ticket;
+import org.apache.arrow.memory.BufferAllocator;
+
+/**
+ * Serves the result streams of the fragments running on this executor. A {@link
+ * TicketContent.ResultStreamTicket} is handed out by the coordinator which planned the query, the
+ * random stream id it carries authorizes its holder to read the stream.
+ */
+class ResultStreamProducer extends NoOpFlightProducer {
+  private final ResultStreamRegistry registry;
+  private final Provider<OptionManager> optionManagerProvider;
+  private final BufferAllocator allocator;
+
+  ResultStreamProducer(
+      ResultStreamRegistry registry,
+      Provider<OptionManager> optionManagerProvider,
+      BufferAllocator allocator) {
+    this.registry = registry;
+    this.optionManagerProvider = optionManagerProvider;
+    this.allocator = allocator;
+  }
+
+  @Override
+  public void getStream(CallContext context, Ticket ticket, ServerStreamListener listener) {
+    final TicketContent.ResultStreamTicket streamTicket;
+    try {
+      streamTicket = TicketContent.ResultStreamTicket.parseFrom(ticket.getBytes());
+    } catch (InvalidProtocolBufferException ex) {
+      listener.error(
+          CallStatus.INVALID_ARGUMENT
+              .withCause(ex)
+              .withDescription("Invalid ResultStreamTicket used in getStream.")
+              .toRuntimeException());
+      return;
+    }
+
+    final String streamId = streamTicket.getStreamId();
+    final int minorFragmentId = streamTicket.getMinorFragmentId();
+    final OptionManager options = optionManagerProvider.get();
+    try {
+      registry.read(
+          streamId,
+          minorFragmentId,
+          options.getOption(ExecConstants.RESULT_STREAM_ATTACH_TIMEOUT_MILLIS),
+          new BackpressureHandlingResponseHandler(
+              () ->
+                  registry.cancel(
+                      streamId, minorFragmentId, "Result stream is cancelled by the client."),
+              listener,
+              allocator,
+              options),
+          allocator);
+    } catch (IllegalStateException ex) {
+      listener.error(
+          CallStatus.INVALID_ARGUMENT.withDescription(ex.getMessage()).toRuntimeException());
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      listener.error(CallStatus.CANCELLED.withCause(ex).toRuntimeException());
+    }
+  }
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import org.apache.arrow.flight.CallHeaders;
+import org.apache.arrow.flight.CallStatus;
 
 /** Class with accepted Dremio Flight client property constants. */
 public final class DremioFlightClientProperties {
@@ -36,6 +37,7 @@ public final class DremioFlightClientProperties {
           UserSession.ROUTING_QUEUE,
           UserSession.SCHEMA);
   private static final String SUPPORTS_COMPLEX_TYPES = "supports_complex_types";
+  public static final String RESULT_STREAM_PARTITIONS = "result_stream_partitions";
 
   /**
    * Apply supported client properties to the provided UserSession Builder.
@@ -101,6 +103,34 @@ public final class DremioFlightClientProperties {
             });
   }
 
+  /**
+   * Returns the number of streams the client asks to spread the results of a query over. When more
+   * than one, the results are read directly from the executors running the last parallel phase of
+   * the query, and the actual number of streams is the width of that phase.
+   *
+   * @param callHeaders the CallHeaders to parse the number of streams from.
+   * @return the requested number of streams, 1 when the client does not ask for several streams.
+   */
+  public static int getResultStreamPartitions(CallHeaders callHeaders) {
+    if (callHeaders == null || !callHeaders.containsKey(RESULT_STREAM_PARTITIONS)) {
+      return 1;
+    }
+
+    final String value = callHeaders.get(RESULT_STREAM_PARTITIONS);
+    try {
+      final int partitions = Integer.parseInt(value.trim());
+      if (partitions > 0) {
+        return partitions;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw CallStatus.INVALID_ARGUMENT
+        .withDescription(
+            String.format("Invalid value for %s: %s", RESULT_STREAM_PARTITIONS, value))
+        .toRuntimeException();
+  }
+
   /**
    * Helper method to create a Property with the given key and value pair.
    *
@@ -113,6 +113,31 @@ public class FlightPreparedStatement {
     return new FlightInfo(schema, flightDescriptor, ImmutableList.of(flightEndpoint), -1, -1);
   }
 
+  /**
+   * Returns a FlightInfo for a run of the PreparedStatement which a given instance manages whose
+   * results are read directly from the executors, with one endpoint per stream. This method is for
+   * non-Flight-SQL queries.
+   *
+   * @param streamId The id of the streams, see {@link
+   *     FlightWorkManager#runPreparedStatementToResultStreams}.
+   * @param locations The Flight locations of the executors sending to the streams, indexed by minor
+   *     fragment id.
+   * @return The FlightInfo.
+   */
+  public FlightInfo getFlightInfoForResultStreams(
+      FlightDescriptor flightDescriptor, String streamId, List<Location> locations) {
+    final List<FlightEndpoint> flightEndpoints = new ArrayList<>(locations.size());
+    for (int i = 0; i < locations.size(); i++) {
+      final TicketContent.ResultStreamTicket ticket =
+          TicketContent.ResultStreamTicket.newBuilder()
+              .setStreamId(streamId)
+              .setMinorFragmentId(i)
+              .build();
+      flightEndpoints.add(new FlightEndpoint(new Ticket(ticket.toByteArray()), locations.get(i)));
+    }
+    return new FlightInfo(getSchema(), flightDescriptor, flightEndpoints, -1, -1);
+  }
+
   /**
    * Create an action to create a prepared statement.
    *
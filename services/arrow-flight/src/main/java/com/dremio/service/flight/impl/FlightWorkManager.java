@@ -21,6 +21,7 @@ import static java.util.stream.IntStream.range;
 
 import com.dremio.common.expression.CompleteType;
 import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
 import com.dremio.exec.proto.UserBitShared;
 import com.dremio.exec.proto.UserProtos;
 import com.dremio.exec.work.foreman.TerminationListenerRegistry;
@@ -676,16 +677,7 @@ public class FlightWorkManager {
     final UserBitShared.ExternalId runExternalId = ExternalIdHelper.generateExternalId();
     final UserRequest userRequest =
         new UserRequest(
-            UserProtos.RpcType.RUN_QUERY,
-            UserProtos.RunQuery.newBuilder()
-                .setType(UserBitShared.QueryType.PREPARED_STATEMENT)
-                .setPriority(
-                    UserProtos.QueryPriority.newBuilder()
-                        .setWorkloadType(UserBitShared.WorkloadType.FLIGHT)
-                        .setWorkloadClass(UserBitShared.WorkloadClass.GENERAL))
-                .setSource(UserProtos.SubmissionSource.FLIGHT)
-                .setPreparedStatementHandle(preparedStatementHandle)
-                .build());
+            UserProtos.RpcType.RUN_QUERY, newRunPreparedStatementQuery(preparedStatementHandle));
 
     final UserResponseHandler responseHandler =
         runQueryResponseHandlerFactory.getHandler(
@@ -707,6 +699,62 @@ public class FlightWorkManager {
             TerminationListenerRegistry.NOOP);
   }
 
+  /**
+   * Runs a prepared statement whose results are read directly from the executors running the
+   * fragments of its last parallel phase, one stream per fragment, and waits for it to be planned.
+   * The streams must then be read within the result stream attach timeout.
+   *
+   * @param preparedStatementHandle The handle of the prepared statement.
+   * @param streamId The id of the streams, which their readers present to the executors.
+   * @param userSession The session for the user which made the request.
+   * @param queryCompletionCallback Called when the query completes.
+   * @return The executors running the fragments sending the results, indexed by minor fragment id.
+   */
+  public List<NodeEndpoint> runPreparedStatementToResultStreams(
+      UserProtos.PreparedStatementHandle preparedStatementHandle,
+      String streamId,
+      UserSession userSession,
+      Runnable queryCompletionCallback) {
+    final UserBitShared.ExternalId runExternalId = ExternalIdHelper.generateExternalId();
+    final ResultStreamQueryHandler handler =
+        new ResultStreamQueryHandler(streamId, queryCompletionCallback);
+
+    workerProvider
+        .get()
+        .submitWork(
+            runExternalId,
+            userSession,
+            handler,
+            new UserRequest(
+                UserProtos.RpcType.RUN_QUERY,
+                newRunPreparedStatementQuery(preparedStatementHandle),
+                handler),
+            TerminationListenerRegistry.NOOP);
+
+    try {
+      return handler.awaitEndpoints(
+          optionManagerProvider
+              .get()
+              .getOption(DremioFlightServiceOptions.CLIENT_READINESS_TIMEOUT_MILLIS));
+    } catch (RuntimeException e) {
+      workerProvider.get().cancelQuery(runExternalId, userSession.getCredentials().getUserName());
+      throw e;
+    }
+  }
+
+  private static UserProtos.RunQuery newRunPreparedStatementQuery(
+      UserProtos.PreparedStatementHandle preparedStatementHandle) {
+    return UserProtos.RunQuery.newBuilder()
+        .setType(UserBitShared.QueryType.PREPARED_STATEMENT)
+        .setPriority(
+            UserProtos.QueryPriority.newBuilder()
+                .setWorkloadType(UserBitShared.WorkloadType.FLIGHT)
+                .setWorkloadClass(UserBitShared.WorkloadClass.GENERAL))
+        .setSource(UserProtos.SubmissionSource.FLIGHT)
+        .setPreparedStatementHandle(preparedStatementHandle)
+        .build();
+  }
+
   /**
    * Retrieve the table types and sends the response to given ServerStreamListener.
    *
@@ -1315,8 +1363,7 @@ public class FlightWorkManager {
     return response.getServerMeta();
   }
 
-  @VisibleForTesting
-  static String getQuery(FlightDescriptor descriptor) {
+  public static String getQuery(FlightDescriptor descriptor) {
     if (!descriptor.isCommand()) {
       throw CallStatus.UNIMPLEMENTED
           .withDescription("FlightDescriptor type Path is unimplemented.")
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.service.flight.impl;
+
+import com.dremio.common.utils.protos.QueryWritableBatch;
+import com.dremio.exec.proto.CoordinationProtos.NodeEndpoint;
+import com.dremio.exec.proto.GeneralRPCProtos;
+import com.dremio.exec.rpc.Acks;
+import com.dremio.exec.rpc.RpcOutcomeListener;
+import com.dremio.exec.work.protector.ResultStreamRequest;
+import com.dremio.exec.work.protector.UserResponseHandler;
+import com.dremio.exec.work.protector.UserResult;
+import com.dremio.service.flight.error.mapping.DremioFlightErrorMapper;
+import io.netty.buffer.ByteBuf;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.apache.arrow.flight.CallStatus;
+import org.apache.arrow.flight.FlightRuntimeException;
+
+/**
+ * Follows, on the coordinator, a query whose results are read directly from the executors. Only
+ * the schema of the results reaches the coordinator, the handler waits for the query to be planned
+ * to hand out the executors running the fragments sending the results.
+ */
+class ResultStreamQueryHandler implements UserResponseHandler, ResultStreamRequest {
+
+  private final String streamId;
+  private final Runnable queryCompletionCallback;
+  private final CompletableFuture<List<NodeEndpoint>> endpoints = new CompletableFuture<>();
+
+  ResultStreamQueryHandler(String streamId, Runnable queryCompletionCallback) {
+    this.streamId = streamId;
+    this.queryCompletionCallback = queryCompletionCallback;
+  }
+
+  @Override
+  public String getStreamId() {
+    return streamId;
+  }
+
+  @Override
+  public void streamsPlanned(List<NodeEndpoint> endpoints) {
+    this.endpoints.complete(endpoints);
+  }
+
+  @Override
+  public void sendData(
+      RpcOutcomeListener<GeneralRPCProtos.Ack> outcomeListener, QueryWritableBatch result) {
+    // the screen only sends the schema of the results
+    for (ByteBuf buffer : result.getBuffers()) {
+      buffer.release();
+    }
+    outcomeListener.success(Acks.OK, null);
+  }
+
+  @Override
+  public void completed(UserResult result) {
+    switch (result.getState()) {
+      case COMPLETED:
+        queryCompletionCallback.run();
+        // a query which is not planned, such as a prepared statement for a DDL, has no streams
+        endpoints.completeExceptionally(
+            CallStatus.INVALID_ARGUMENT
+                .withDescription("The results of this query can not be streamed from executors.")
+                .toRuntimeException());
+        break;
+      case FAILED:
+        endpoints.completeExceptionally(
+            result.hasException()
+                ? DremioFlightErrorMapper.toFlightRuntimeException(result.getException())
+                : CallStatus.UNKNOWN
+                    .withDescription("Query failed but no exception was thrown.")
+                    .toRuntimeException());
+        break;
+      default:
+        endpoints.completeExceptionally(
+            CallStatus.CANCELLED
+                .withDescription(
+                    result.getCancelReason() != null
+                        ? result.getCancelReason()
+                        : "Query is cancelled by the server.")
+                .toRuntimeException());
+    }
+  }
+
+  /**
+   * Waits for the query to be planned.
+   *
+   * @param timeoutMillis how long to wait
+   * @return the executors running the fragments sending the results, indexed by minor fragment id
+   * @throws FlightRuntimeException if the query ended or timed out before
+   */
+  List<NodeEndpoint> awaitEndpoints(long timeoutMillis) {
+    try {
+      return endpoints.get(timeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof FlightRuntimeException) {
+        throw (FlightRuntimeException) e.getCause();
+      }
+      throw CallStatus.INTERNAL.withCause(e.getCause()).toRuntimeException();
+    } catch (TimeoutException e) {
+      throw CallStatus.TIMED_OUT
+          .withDescription("Timed out waiting for the query to be planned.")
+          .toRuntimeException();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw CallStatus.CANCELLED.withCause(e).toRuntimeException();
+    }
+  }
+}
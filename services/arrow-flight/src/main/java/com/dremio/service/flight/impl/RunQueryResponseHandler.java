@@ -52,9 +52,7 @@ import org.apache.arrow.vector.VectorSchemaRoot;
 /** The UserResponseHandler that streams results to a FlightProducer listener. */
 public abstract class RunQueryResponseHandler implements UserResponseHandler {
 
-  private final UserBitShared.ExternalId runExternalId;
-  private final UserSession userSession;
-  private final Provider<UserWorker> workerProvider;
+  private final Runnable cancelQuery;
   private final FlightProducer.ServerStreamListener clientListener;
   private final BufferAllocator allocator;
   private final Runnable queryCompletionCallback;
@@ -70,9 +68,22 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
       FlightProducer.ServerStreamListener clientListener,
       BufferAllocator allocator,
       Runnable queryCompletionCallback) {
-    this.runExternalId = runExternalId;
-    this.userSession = userSession;
-    this.workerProvider = workerProvider;
+    this(
+        () ->
+            workerProvider
+                .get()
+                .cancelQuery(runExternalId, userSession.getCredentials().getUserName()),
+        clientListener,
+        allocator,
+        queryCompletionCallback);
+  }
+
+  RunQueryResponseHandler(
+      Runnable cancelQuery,
+      FlightProducer.ServerStreamListener clientListener,
+      BufferAllocator allocator,
+      Runnable queryCompletionCallback) {
+    this.cancelQuery = cancelQuery;
     this.clientListener = clientListener;
     this.allocator = allocator;
     this.queryCompletionCallback = queryCompletionCallback;
@@ -290,7 +301,7 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
   protected void serverStreamListenerOnCancelledCallback() {
     if (!completed) {
       completed = true;
-      workerProvider.get().cancelQuery(runExternalId, userSession.getCredentials().getUserName());
+      cancelQuery.run();
     }
   }
 
@@ -379,6 +390,25 @@ public abstract class RunQueryResponseHandler implements UserResponseHandler {
       this.optionManager = workerProvider.get().getSystemOptions();
     }
 
+    /**
+     * Creates a handler for results which are not sent by a query of this node's user worker, such
+     * as the results of a fragment read directly from the executor running it.
+     *
+     * @param cancelQuery Called when the client cancels the stream.
+     * @param optionManager The options of this node.
+     */
+    public BackpressureHandlingResponseHandler(
+        Runnable cancelQuery,
+        FlightProducer.ServerStreamListener clientListener,
+        BufferAllocator allocator,
+        OptionManager optionManager) {
+      super(cancelQuery, clientListener, allocator, () -> {});
+      this.runQueryBackpressureStrategy =
+          new RunQueryBackpressureStrategy(this::serverStreamListenerOnCancelledCallback);
+      runQueryBackpressureStrategy.register(clientListener);
+      this.optionManager = optionManager;
+    }
+
     @Override
     @VisibleForTesting
     WaitResult clientIsReadyForData() {
@@ -19,6 +19,7 @@ import static org.junit.Assert.assertEquals;
 
 import com.dremio.context.RequestContext;
 import com.google.inject.util.Providers;
+import java.util.Optional;
 import java.util.concurrent.Callable;
 import org.apache.arrow.flight.FlightProducer;
 import org.junit.Before;
@@ -50,7 +51,8 @@ public class TestFlightWithRequestContext {
   public void setup() {
     decorator = new DummyFlightRequestContextDecorator();
     producer =
-        new DremioFlightProducer(null, null, null, null, null, Providers.of(decorator), null);
+        new DremioFlightProducer(
+            null, null, null, null, null, Providers.of(decorator), null, Optional.empty());
   }
 
   @Test
@@ -22,6 +22,7 @@ import com.dremio.datastore.api.IncrementCounter;
 import com.dremio.datastore.api.KVStore;
 import com.google.common.base.Objects;
 import com.google.common.collect.Iterables;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -116,6 +117,14 @@ public class LocalKVStore<K, V> implements KVStore<K, V> {
     coreKVStore.bulkDelete(convertedKeys, deleteOptions);
   }
 
+  @Override
+  public void bulkPut(Map<K, V> documents, PutOption... options) {
+    final Map<KVStoreTuple<K>, KVStoreTuple<V>> convertedDocuments =
+        new LinkedHashMap<>(documents.size());
+    documents.forEach((key, value) -> convertedDocuments.put(buildKey(key), buildValue(value)));
+    coreKVStore.bulkPut(convertedDocuments, options);
+  }
+
   @Override
   public Iterable<Document<K, V>> find(FindOption... options) {
     return Iterables.transform(coreKVStore.find(options), this::fromDocument);
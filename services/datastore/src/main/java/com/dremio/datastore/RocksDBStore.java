@@ -18,6 +18,7 @@ package com.dremio.datastore;
 import com.dremio.common.AutoCloseables;
 import com.dremio.common.DeferredException;
 import com.dremio.common.concurrent.AutoCloseableLock;
+import com.dremio.common.util.Closeable;
 import com.dremio.datastore.api.Document;
 import com.dremio.datastore.api.FindByRange;
 import com.dremio.datastore.api.ImmutableDocument;
@@ -47,6 +48,8 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -67,6 +70,8 @@ import org.rocksdb.FlushOptions;
 import org.rocksdb.RocksDB;
 import org.rocksdb.RocksDBException;
 import org.rocksdb.RocksIterator;
+import org.rocksdb.WriteBatch;
+import org.rocksdb.WriteOptions;
 import org.xerial.snappy.SnappyInputStream;
 import org.xerial.snappy.SnappyOutputStream;
 
@@ -349,18 +354,36 @@ class RocksDBStore implements ByteStore {
     }
   }
 
-  private AutoCloseableLock sharedLock(byte[] key) {
+  private int stripe(byte[] key) {
     Preconditions.checkNotNull(key);
     final int hash = Arrays.hashCode(key);
-    AutoCloseableLock lock = sharedLocks[Math.abs(hash % parallel)];
+    return Math.abs(hash % parallel);
+  }
+
+  private AutoCloseableLock sharedLock(byte[] key) {
+    AutoCloseableLock lock = sharedLocks[stripe(key)];
     lock.open();
     return lock;
   }
 
+  /**
+   * Opens the shared locks of all the stripes of the given keys. The locks are opened in stripe
+   * order so that concurrent multi-key operations cannot deadlock.
+   */
+  private Closeable sharedLocks(List<byte[]> keys) {
+    final BitSet stripes = new BitSet(parallel);
+    for (byte[] key : keys) {
+      stripes.set(stripe(key));
+    }
+    final List<AutoCloseableLock> locks = new ArrayList<>(stripes.cardinality());
+    for (int i = stripes.nextSetBit(0); i >= 0; i = stripes.nextSetBit(i + 1)) {
+      locks.add(sharedLocks[i].open());
+    }
+    return () -> locks.forEach(AutoCloseableLock::close);
+  }
+
   private AutoCloseableLock exclusiveLock(byte[] key) {
-    Preconditions.checkNotNull(key);
-    final int hash = Arrays.hashCode(key);
-    AutoCloseableLock lock = exclusiveLocks[Math.abs(hash % parallel)];
+    AutoCloseableLock lock = exclusiveLocks[stripe(key)];
     lock.open();
     return lock;
   }
@@ -536,13 +559,80 @@ class RocksDBStore implements ByteStore {
     return toDocument(key, newValue, newTag);
   }
 
+  /**
+   * Gets all the keys with a single multi-get, which batches the lookups in the memtables and the
+   * SST files instead of searching them once per key.
+   */
   @Override
   public Iterable<Document<byte[], byte[]>> get(List<byte[]> keys, GetOption... options) {
-    final List<Document<byte[], byte[]>> results = new ArrayList<>();
-    for (byte[] key : keys) {
-      results.add(get(key, options));
+    if (keys.isEmpty()) {
+      return Collections.emptyList();
+    }
+    try (Closeable ac = sharedLocks(keys)) {
+      throwIfClosed();
+      final List<byte[]> valuesOrPtrs = multiGet(keys);
+      final List<Document<byte[], byte[]>> results = new ArrayList<>(keys.size());
+      for (int i = 0; i < keys.size(); i++) {
+        final RocksEntry result = resolvePtrOrValue(valuesOrPtrs.get(i));
+        if (result == null) {
+          results.add(null);
+          continue;
+        }
+        final byte[] value = result.getData();
+        results.add(toDocument(keys.get(i), value, toTag(result.getMeta(), value)));
+      }
+      return results;
+    } catch (RocksDBException | BlobNotFoundException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  /**
+   * Puts all the documents in a single write batch, so that either all or none of them are
+   * visible. Large values are still stored as blobs, which are only kept once the batch is
+   * written.
+   */
+  @Override
+  public void bulkPut(Map<byte[], byte[]> documents, PutOption... options) {
+    if (documents.isEmpty()) {
+      return;
+    }
+    final List<byte[]> keys = new ArrayList<>(documents.size());
+    final List<byte[]> newValues = new ArrayList<>(documents.size());
+    for (Map.Entry<byte[], byte[]> entry : documents.entrySet()) {
+      if (entry.getValue() == null) {
+        throw new NullPointerException("null values are not allowed in kvstore");
+      }
+      keys.add(entry.getKey());
+      newValues.add(entry.getValue());
+    }
+
+    final List<BlobHolder> blobs = new ArrayList<>(keys.size());
+    try (Closeable ac = sharedLocks(keys);
+        WriteBatch batch = new WriteBatch();
+        WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+
+      final List<byte[]> oldValuesOrPtrs = multiGet(keys);
+      for (int i = 0; i < keys.size(); i++) {
+        final byte[] newValue = newValues.get(i);
+        final BlobHolder blob =
+            metaManager.filterPut(newValue, ByteStore.generateTagFromBytes(newValue));
+        blobs.add(blob);
+        batch.put(handle, keys.get(i), blob.ptrOrValue());
+      }
+      db.write(writeOptions, batch);
+
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs) {
+        metaManager.deleteTranslation(meta(oldValueOrPtr));
+      }
+      blobs.forEach(BlobHolder::commit);
+    } catch (RocksDBException | IOException e) {
+      throw new RuntimeException(e);
+    } finally {
+      // deletes the blobs of a failed batch
+      blobs.forEach(BlobHolder::close);
     }
-    return results;
   }
 
   @Override
@@ -664,11 +754,42 @@ class RocksDBStore implements ByteStore {
     throw new UnsupportedOperationException("BulkIncrement is not supported in RocksDB.");
   }
 
+  /** Deletes all the keys in a single write batch. */
   @Override
   public void bulkDelete(List<byte[]> keysToDelete, DeleteOption... deleteOptions) {
-    for (byte[] key : keysToDelete) {
-      delete(key, deleteOptions);
+    if (keysToDelete.isEmpty()) {
+      return;
     }
+    try (Closeable ac = sharedLocks(keysToDelete);
+        WriteBatch batch = new WriteBatch();
+        WriteOptions writeOptions = new WriteOptions()) {
+      throwIfClosed();
+      final boolean skipMeta = KVStoreOptionUtility.canSkipMeta(deleteOptions);
+
+      final List<byte[]> oldValuesOrPtrs =
+          skipMeta ? Collections.emptyList() : multiGet(keysToDelete);
+      for (int i = 0; i < keysToDelete.size(); i++) {
+        if (skipMeta || oldValuesOrPtrs.get(i) != null) {
+          batch.delete(handle, keysToDelete.get(i));
+        }
+      }
+      if (batch.count() == 0) {
+        return;
+      }
+      db.write(writeOptions, batch);
+
+      for (byte[] oldValueOrPtr : oldValuesOrPtrs) {
+        if (oldValueOrPtr != null) {
+          metaManager.deleteTranslation(meta(oldValueOrPtr));
+        }
+      }
+    } catch (RocksDBException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private List<byte[]> multiGet(List<byte[]> keys) throws RocksDBException {
+    return db.multiGetAsList(Collections.nCopies(keys.size(), handle), keys);
   }
 
   @Override
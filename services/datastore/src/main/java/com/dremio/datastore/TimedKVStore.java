@@ -56,7 +56,8 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     findForAllTenants,
     reindex,
     bulkIncrement,
-    bulkDelete
+    bulkDelete,
+    bulkPut
   }
 
   private final KVStore<K, V> delegate;
@@ -156,6 +157,11 @@ public class TimedKVStore<K, V> implements KVStore<K, V> {
     timedOperation(Ops.bulkDelete, () -> delegate.bulkDelete(keysToDelete, deleteOptions));
   }
 
+  @Override
+  public void bulkPut(Map<K, V> documents, PutOption... options) {
+    timedOperation(Ops.bulkPut, () -> delegate.bulkPut(documents, options));
+  }
+
   @Override
   public String getName() {
     return delegate.getName();
@@ -201,6 +201,21 @@ public interface KVStore<K, V> {
    */
   void bulkDelete(List<K> keysToDelete, DeleteOption... deleteOptions);
 
+  /**
+   * Saves all the provided documents. If the underlying store supports write batches the documents
+   * are written atomically, otherwise the method iterates and does point puts.
+   *
+   * @param documents the values to save, by key.
+   * @param options extra options for PUT operations.
+   * @throws com.dremio.datastore.DatastoreException when one or more runtime failures are
+   *     encountered.
+   */
+  default void bulkPut(Map<K, V> documents, PutOption... options) {
+    for (Map.Entry<K, V> entry : documents.entrySet()) {
+      put(entry.getKey(), entry.getValue(), options);
+    }
+  }
+
   /**
    * Get the name of the KV Store.
    *
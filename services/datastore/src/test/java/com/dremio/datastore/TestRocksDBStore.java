@@ -41,7 +41,9 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
@@ -278,6 +280,50 @@ public class TestRocksDBStore {
     assertEquals(null, store.get(randomKey));
   }
 
+  @Test
+  public void checkBulkOps() throws IOException {
+    final Random r = new Random(456);
+    final byte[] inlineKey = "inlineKey".getBytes(UTF_8);
+    final byte[] blobKey = "blobKey".getBytes(UTF_8);
+    final byte[] missingKey = "missing".getBytes(UTF_8);
+    final byte[] inlineValue = "inline".getBytes(UTF_8);
+    final byte[] blobValue1 = new byte[(int) BLOB_FILTER_SIZE + 1];
+    final byte[] blobValue2 = new byte[(int) BLOB_FILTER_SIZE + 1];
+    r.nextBytes(blobValue1);
+    r.nextBytes(blobValue2);
+
+    final Map<byte[], byte[]> documents = new LinkedHashMap<>();
+    documents.put(inlineKey, inlineValue);
+    documents.put(blobKey, blobValue1);
+    store.bulkPut(documents);
+
+    List<Document<byte[], byte[]>> results = new ArrayList<>();
+    store.get(Arrays.asList(inlineKey, missingKey, blobKey, specialKey)).forEach(results::add);
+    assertEquals(4, results.size());
+    assertArrayEquals(inlineValue, results.get(0).getValue());
+    assertEquals(store.get(inlineKey).getTag(), results.get(0).getTag());
+    assertEquals(null, results.get(1));
+    assertArrayEquals(blobValue1, results.get(2).getValue());
+    assertArrayEquals(store.get(specialKey).getValue(), results.get(3).getValue());
+
+    // overwriting the blob in a batch should not leave the previous one behind
+    store.bulkPut(Collections.singletonMap(blobKey, blobValue2));
+    assertArrayEquals(blobValue2, store.get(blobKey).getValue());
+    final Path blobDir = Paths.get(rocksDBResource.getDbDir(), "blob", "test");
+    try (Stream<Path> stream = Files.list(blobDir)) {
+      assertEquals(1, stream.count());
+    }
+
+    store.bulkDelete(Arrays.asList(inlineKey, blobKey, missingKey));
+    results = new ArrayList<>();
+    store.get(Arrays.asList(inlineKey, blobKey)).forEach(results::add);
+    assertEquals(Arrays.asList(null, null), results);
+    try (Stream<Path> stream = Files.list(blobDir)) {
+      List<Path> remainingBlobFiles = stream.collect(Collectors.toList());
+      assertEquals("Expected zero remaining files.", Collections.EMPTY_LIST, remainingBlobFiles);
+    }
+  }
+
   @Test()
   public void testNotClosed() throws InterruptedException, ExecutionException {
     ExecutorService executor = Executors.newFixedThreadPool(4);
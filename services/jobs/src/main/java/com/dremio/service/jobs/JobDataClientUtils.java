@@ -18,18 +18,23 @@ package com.dremio.service.jobs;
 import static com.dremio.exec.record.RecordBatchHolder.newRecordBatchHolder;
 import static java.lang.Integer.min;
 
+import com.dremio.common.AutoCloseables;
 import com.dremio.common.exceptions.UserException;
 import com.dremio.exec.proto.FlightProtos.CoordinatorFlightTicket;
 import com.dremio.exec.proto.FlightProtos.JobsFlightTicket;
 import com.dremio.exec.record.RecordBatchData;
 import com.dremio.exec.record.RecordBatchHolder;
 import com.dremio.exec.record.VectorContainer;
+import com.dremio.exec.store.easy.arrow.Lz4FrameCompressionCodec;
 import com.dremio.service.flightcommon.FlightRpcUtils;
 import com.dremio.service.job.JobEvent;
 import com.dremio.service.job.proto.JobId;
 import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.SettableFuture;
 import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -39,10 +44,16 @@ import org.apache.arrow.flight.FlightStream;
 import org.apache.arrow.flight.Ticket;
 import org.apache.arrow.memory.BufferAllocator;
 import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
 
 /** Utility class for getting job data */
 public final class JobDataClientUtils {
 
+  /** Number of rows read from the jobs service at a time when writing Arrow streams. */
+  private static final int ARROW_STREAM_PAGE_SIZE = 64 * 1024;
+
   private JobDataClientUtils() {}
 
   /**
@@ -133,6 +144,91 @@ public final class JobDataClientUtils {
     }
   }
 
+  /**
+   * Writes a range of the results of a job as an Arrow IPC stream. Results are read page by page
+   * from the jobs service, and the batches are sliced into a single root rather than copied, so at
+   * most one page of results is held in memory.
+   *
+   * @param jobsService reference to job service
+   * @param bufferAllocator allocator for vectors
+   * @param jobId jobid for corresponding jobresults
+   * @param offset start index of results
+   * @param limit max number of results to write
+   * @param codecType compression of the written buffers
+   * @param out stream to write to, closed with the stream
+   */
+  public static void writeJobDataAsArrowStream(
+      JobsService jobsService,
+      BufferAllocator bufferAllocator,
+      JobId jobId,
+      long offset,
+      long limit,
+      CompressionUtil.CodecType codecType,
+      OutputStream out)
+      throws IOException {
+    final FlightClient flightClient = jobsService.getJobsClient().getFlightClient();
+    final long end = offset + limit;
+    VectorSchemaRoot root = null;
+    ArrowStreamWriter writer = null;
+    try {
+      long position = offset;
+      // always read one page so that the schema is written for empty ranges too
+      do {
+        final int pageLimit = (int) Math.min(ARROW_STREAM_PAGE_SIZE, end - position);
+        final Ticket ticket =
+            new Ticket(
+                CoordinatorFlightTicket.newBuilder()
+                    .setJobsFlightTicket(
+                        JobsFlightTicket.newBuilder()
+                            .setJobId(jobId.getId())
+                            .setOffset(Math.toIntExact(position))
+                            .setLimit(pageLimit)
+                            .build())
+                    .build()
+                    .toByteArray());
+        int remaining = pageLimit;
+        try (FlightStream flightStream = flightClient.getStream(ticket)) {
+          final VectorSchemaRoot pageRoot = flightStream.getRoot();
+          if (writer == null) {
+            root = VectorSchemaRoot.create(pageRoot.getSchema(), bufferAllocator);
+            writer =
+                new ArrowStreamWriter(
+                    root,
+                    null,
+                    Channels.newChannel(out),
+                    IpcOption.DEFAULT,
+                    Lz4FrameCompressionCodec.FACTORY,
+                    codecType);
+            writer.start();
+          }
+          while (remaining > 0 && flightStream.next()) {
+            // the jobs service does not trim its last batch to the requested limit
+            final int count = min(pageRoot.getRowCount(), remaining);
+            for (int i = 0; i < pageRoot.getFieldVectors().size(); i++) {
+              pageRoot.getVector(i).makeTransferPair(root.getVector(i)).splitAndTransfer(0, count);
+            }
+            root.setRowCount(count);
+            writer.writeBatch();
+            root.clear();
+            remaining -= count;
+          }
+        }
+        final int written = pageLimit - remaining;
+        if (written == 0) {
+          break;
+        }
+        position += written;
+      } while (position < end);
+      writer.end();
+    } catch (FlightRuntimeException fre) {
+      Optional<UserException> ue = FlightRpcUtils.fromFlightRuntimeException(fre);
+      throw ue.isPresent() ? ue.get() : fre;
+    } finally {
+      AutoCloseables.closeNoChecked(writer);
+      AutoCloseables.closeNoChecked(root);
+    }
+  }
+
   /**
    * Wait for BatchSchema (Query Metadata) to be retrievable via JobDetails. Use this method
    * sparingly, prefer reusing the listener from Job submission instead.
@@ -80,22 +80,16 @@ public class JobsFlightProducer implements FlightProducer, AutoCloseable {
         try (final VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
           serverStreamListener.start(root);
           for (RecordBatchHolder holder : jobDataFragment.getRecordBatches()) {
-            // iterate over the columns
-            int numRecords = holder.size();
+            // slice the stored batches rather than copying them value by value
+            final int numRecords = holder.size();
             for (int i = 0; i < schema.getFields().size(); i++) {
-              ValueVector vector = root.getVector(schema.getFields().get(i).getName());
-              ValueVector dataVector = holder.getData().getVectors().get(i);
-              int k = 0; // index at which value need to written in "vector" from "dataVector"
-              // iterate over values in the column to copy data
-              for (int j = holder.getStart(); j < holder.getEnd(); j++, k++) {
-                // Copy value at dataVector[j] into vector[k]
-                vector.copyFromSafe(j, k, dataVector);
-              }
-              vector.setValueCount(numRecords);
-              root.setRowCount(numRecords);
+              final ValueVector vector = root.getVector(i);
+              final ValueVector dataVector = holder.getData().getVectors().get(i);
+              dataVector.makeTransferPair(vector).splitAndTransfer(holder.getStart(), numRecords);
             }
+            root.setRowCount(numRecords);
             serverStreamListener.putNext();
-            root.allocateNew();
+            root.clear();
           }
         }
         serverStreamListener.completed();
@@ -1191,10 +1191,13 @@ public class NamespaceServiceImpl implements NamespaceService {
 
   @Override
   public void deleteSplits(Iterable<PartitionChunkId> splits) {
+    final List<PartitionChunkId> multiSplitKeys = new ArrayList<>();
     for (PartitionChunkId split : splits) {
       partitionChunkStore.delete(split);
-      multiSplitStore.delete(split);
+      multiSplitKeys.add(split);
     }
+    // the multi-split store is not indexed, so its entries can be deleted in a single batch
+    multiSplitStore.bulkDelete(multiSplitKeys);
   }
 
   @Override
@@ -21,6 +21,7 @@ public class ResourceSchedulingProperties {
   private String user;
   private String userInfo;
   private Double queryCost;
+  private Long queryMemoryEstimate;
   private String clientType;
   private String queryType;
   private String routingQueue;
@@ -58,6 +59,16 @@ public class ResourceSchedulingProperties {
     return this;
   }
 
+  /** Returns the memory the query is estimated to use on each node, in bytes. */
+  public Long getQueryMemoryEstimate() {
+    return queryMemoryEstimate;
+  }
+
+  public ResourceSchedulingProperties setQueryMemoryEstimate(Long queryMemoryEstimate) {
+    this.queryMemoryEstimate = queryMemoryEstimate;
+    return this;
+  }
+
   public String getClientType() {
     return clientType;
   }
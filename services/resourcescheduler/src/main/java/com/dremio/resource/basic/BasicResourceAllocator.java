@@ -306,7 +306,7 @@ public class BasicResourceAllocator implements ResourceAllocator {
     }
   }
 
-  private static void releaseLease(DistributedSemaphore.DistributedLease lease) {
+  static void releaseLease(DistributedSemaphore.DistributedLease lease) {
     while (lease != null) {
       try {
         lease.close();
@@ -49,6 +49,9 @@ public interface BasicResourceConstants {
       new TypeValidators.RangeLongValidator("reflection.queue.small", 0, 10000, 10);
   TypeValidators.LongValidator QUEUE_THRESHOLD_SIZE =
       new TypeValidators.PositiveLongValidator("exec.queue.threshold", Long.MAX_VALUE, 30000000);
+  // admit queries in the queues of MemoryAwareResourceAllocator against their memory estimate
+  TypeValidators.BooleanValidator ENABLE_MEMORY_AWARE_QUEUES =
+      new TypeValidators.BooleanValidator("exec.queue.memory_aware.enable", false);
   TypeValidators.BooleanValidator QUEUE_WAIT_SLICING =
       new TypeValidators.BooleanValidator("exec.queue.sliced_wait", true);
 }
@@ -0,0 +1,455 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import com.dremio.common.config.SabotConfig;
+import com.dremio.options.OptionManager;
+import com.dremio.resource.GroupResourceInformation;
+import com.dremio.resource.ResourceAllocator;
+import com.dremio.resource.ResourceSchedulingDecisionInfo;
+import com.dremio.resource.ResourceSchedulingObserver;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.ResourceSchedulingResult;
+import com.dremio.resource.ResourceSet;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.dremio.resource.exception.ResourceAllocationException;
+import com.dremio.resource.exception.ResourceUnavailableException;
+import com.dremio.service.Pointer;
+import com.dremio.service.coordinator.ClusterCoordinator;
+import com.dremio.service.coordinator.DistributedSemaphore;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.micrometer.core.instrument.Meter.MeterProvider;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.Nullable;
+import javax.inject.Provider;
+
+/**
+ * Resource allocator admitting queries in {@link WorkloadQueue}s against the memory they are
+ * estimated to use on each node, on top of the number of queries running in the queue.
+ *
+ * <p>Queries are routed to the queue named by their routing queue, else by the first matching
+ * {@link WorkloadRule}, else to the default queue. Both limits of a queue are enforced with
+ * distributed semaphores, the memory one counting megabytes. Within a coordinator, the queries
+ * waiting for a queue are admitted by priority then in arrival order.
+ *
+ * <p>Falls back to {@link BasicResourceAllocator} unless {@link
+ * BasicResourceConstants#ENABLE_MEMORY_AWARE_QUEUES} is set.
+ */
+public class MemoryAwareResourceAllocator implements ResourceAllocator {
+  private static final org.slf4j.Logger logger =
+      org.slf4j.LoggerFactory.getLogger(MemoryAwareResourceAllocator.class);
+
+  public static final String CONFIG_PATH = "dremio.exec.queues";
+  private static final long MB = 1024 * 1024;
+
+  private final BasicResourceAllocator basicResourceAllocator;
+  private final Provider<ClusterCoordinator> clusterCoordinatorProvider;
+  private final Provider<GroupResourceInformation> clusterResourceInformationProvider;
+  private final Map<String, WorkloadQueue> queues = new LinkedHashMap<>();
+  private final List<WorkloadRule> rules;
+  private final WorkloadQueue defaultQueue;
+  private final Map<String, AdmissionGate> gates = new ConcurrentHashMap<>();
+  private final ListeningExecutorService executorService = MoreExecutors.newDirectExecutorService();
+  private final MeterProvider<Timer> waitTimer =
+      Timer.builder("resource.queue.wait")
+          .description("Time queries waited to be admitted in a workload queue")
+          .withRegistry(Metrics.globalRegistry);
+  private ClusterCoordinator clusterCoordinator;
+
+  public MemoryAwareResourceAllocator(
+      Provider<ClusterCoordinator> clusterCoordinatorProvider,
+      Provider<GroupResourceInformation> clusterResourceInformationProvider,
+      SabotConfig config) {
+    this(
+        clusterCoordinatorProvider,
+        clusterResourceInformationProvider,
+        config.getConfigList(CONFIG_PATH + ".definitions").stream()
+            .map(WorkloadQueue::fromConfig)
+            .collect(Collectors.toList()),
+        config.getConfigList(CONFIG_PATH + ".rules").stream()
+            .map(WorkloadRule::fromConfig)
+            .collect(Collectors.toList()),
+        config.getString(CONFIG_PATH + ".default"));
+  }
+
+  @VisibleForTesting
+  MemoryAwareResourceAllocator(
+      Provider<ClusterCoordinator> clusterCoordinatorProvider,
+      Provider<GroupResourceInformation> clusterResourceInformationProvider,
+      List<WorkloadQueue> queues,
+      List<WorkloadRule> rules,
+      String defaultQueue) {
+    this.basicResourceAllocator =
+        new BasicResourceAllocator(clusterCoordinatorProvider, clusterResourceInformationProvider);
+    this.clusterCoordinatorProvider = clusterCoordinatorProvider;
+    this.clusterResourceInformationProvider = clusterResourceInformationProvider;
+    for (WorkloadQueue queue : queues) {
+      Preconditions.checkArgument(
+          this.queues.put(queue.getName(), queue) == null,
+          "Queue '%s' is defined more than once.",
+          queue.getName());
+    }
+    for (WorkloadRule rule : rules) {
+      Preconditions.checkArgument(
+          this.queues.containsKey(rule.getQueue()),
+          "Rule '%s' routes to the unknown queue '%s'.",
+          rule.getName(),
+          rule.getQueue());
+    }
+    this.rules = ImmutableList.copyOf(rules);
+    this.defaultQueue = this.queues.get(defaultQueue);
+    Preconditions.checkArgument(
+        this.defaultQueue != null, "The default queue '%s' is not defined.", defaultQueue);
+  }
+
+  @Override
+  public ResourceSchedulingResult allocate(
+      final ResourceSchedulingContext queryContext,
+      final ResourceSchedulingProperties resourceSchedulingProperties,
+      final ResourceSchedulingObserver resourceSchedulingObserver,
+      final Consumer<ResourceSchedulingDecisionInfo> schedulingDecisionInfoConsumer) {
+    final OptionManager options = queryContext.getOptions();
+    if (!options.getOption(BasicResourceConstants.ENABLE_MEMORY_AWARE_QUEUES)) {
+      return basicResourceAllocator.allocate(
+          queryContext,
+          resourceSchedulingProperties,
+          resourceSchedulingObserver,
+          schedulingDecisionInfoConsumer);
+    }
+
+    final WorkloadQueue routingQueue = getRoutingQueue(resourceSchedulingProperties);
+    final WorkloadRule rule =
+        routingQueue == null ? selectRule(queryContext, resourceSchedulingProperties) : null;
+    final WorkloadQueue queue;
+    if (routingQueue != null) {
+      queue = routingQueue;
+    } else if (rule != null) {
+      queue = queues.get(rule.getQueue());
+    } else {
+      queue = defaultQueue;
+    }
+    final int priority =
+        rule != null && rule.getPriority() != null ? rule.getPriority() : queue.getPriority();
+
+    final ResourceSchedulingDecisionInfo resourceSchedulingDecisionInfo =
+        new ResourceSchedulingDecisionInfo();
+    resourceSchedulingDecisionInfo.setQueueName(queue.getName());
+    resourceSchedulingDecisionInfo.setQueueId(queue.getName());
+    if (rule != null) {
+      resourceSchedulingDecisionInfo.setRuleName(rule.getName());
+      resourceSchedulingDecisionInfo.setRuleContent(rule.toString());
+    }
+    resourceSchedulingDecisionInfo.setWorkloadClass(
+        queryContext.getQueryContextInfo().getPriority().getWorkloadClass());
+    schedulingDecisionInfoConsumer.accept(resourceSchedulingDecisionInfo);
+
+    resourceSchedulingObserver.beginQueueWait();
+    final Pointer<DistributedSemaphore.DistributedLease> lease = new Pointer<>();
+    final ListenableFuture<ResourceSet> futureAllocation =
+        executorService.submit(
+            () -> {
+              final long memoryBudget = getMemoryBudget(queue);
+              lease.value =
+                  acquireLeaseIfNecessary(
+                      options,
+                      queue,
+                      priority,
+                      memoryBudget,
+                      resourceSchedulingProperties.getQueryMemoryEstimate());
+
+              long queryMaxAllocation = queryContext.getQueryContextInfo().getQueryMaxAllocation();
+              if (options.getOption(BasicResourceConstants.ENABLE_QUEUE_MEMORY_LIMIT)
+                  && memoryBudget > 0) {
+                queryMaxAllocation = Math.min(memoryBudget, queryMaxAllocation);
+              }
+              return new QueueResourceSet(lease.value, queryMaxAllocation);
+            });
+    Futures.addCallback(
+        futureAllocation,
+        new FutureCallback<ResourceSet>() {
+          @Override
+          public void onSuccess(@Nullable ResourceSet resourceSet) {}
+
+          @Override
+          public void onFailure(Throwable throwable) {
+            BasicResourceAllocator.releaseLease(lease.value);
+          }
+        },
+        executorService);
+
+    return new ResourceSchedulingResult(resourceSchedulingDecisionInfo, futureAllocation);
+  }
+
+  @Override
+  public void cancel(ResourceSchedulingContext queryContext) {}
+
+  private WorkloadRule selectRule(
+      ResourceSchedulingContext queryContext,
+      ResourceSchedulingProperties resourceSchedulingProperties) {
+    for (WorkloadRule rule : rules) {
+      if (rule.matches(queryContext, resourceSchedulingProperties)) {
+        return rule;
+      }
+    }
+    return null;
+  }
+
+  private WorkloadQueue getRoutingQueue(ResourceSchedulingProperties resourceSchedulingProperties) {
+    final String routingQueue = resourceSchedulingProperties.getRoutingQueue();
+    if (routingQueue == null) {
+      return null;
+    }
+    final WorkloadQueue queue = queues.get(routingQueue);
+    if (queue == null) {
+      logger.debug("Ignoring unknown routing queue {}", routingQueue);
+    }
+    return queue;
+  }
+
+  /** Returns the memory the queries of the queue can use together on each executor, 0 if none. */
+  private long getMemoryBudget(WorkloadQueue queue) {
+    if (queue.getMemoryPct() == 0 || clusterResourceInformationProvider == null) {
+      return 0;
+    }
+    return queue.getMemoryBudget(
+        clusterResourceInformationProvider.get().getAverageExecutorMemory());
+  }
+
+  private DistributedSemaphore.DistributedLease acquireLeaseIfNecessary(
+      OptionManager options,
+      WorkloadQueue queue,
+      int priority,
+      long memoryBudget,
+      Long memoryEstimate)
+      throws ResourceAllocationException {
+    final boolean queuingEnabled = options.getOption(BasicResourceConstants.ENABLE_QUEUE);
+    if (!queuingEnabled) {
+      return null;
+    }
+
+    final long timeout =
+        queue.getTimeoutMillis() > 0
+            ? queue.getTimeoutMillis()
+            : options.getOption(BasicResourceConstants.QUEUE_TIMEOUT);
+    final long startNanos = System.nanoTime();
+    final long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeout);
+    final AdmissionGate gate = gates.computeIfAbsent(queue.getName(), name -> new AdmissionGate());
+
+    AdmissionGate.Waiter waiter = null;
+    DistributedSemaphore.DistributedLease concurrencyLease = null;
+    DistributedSemaphore.DistributedLease memoryLease = null;
+    try {
+      waiter = gate.enter(priority, deadlineNanos);
+      if (waiter != null) {
+        concurrencyLease =
+            clusterCoordinator
+                .getSemaphore("query.queue." + queue.getName(), queue.getMaxConcurrency())
+                .acquire(remainingMillis(deadlineNanos), TimeUnit.MILLISECONDS);
+      }
+      if (concurrencyLease != null && memoryBudget >= MB) {
+        final int budgetMb = (int) Math.min(memoryBudget / MB, Integer.MAX_VALUE);
+        memoryLease =
+            clusterCoordinator
+                .getSemaphore("query.queue." + queue.getName() + ".memory", budgetMb)
+                .acquire(
+                    getMemoryPermits(memoryEstimate, budgetMb),
+                    remainingMillis(deadlineNanos),
+                    TimeUnit.MILLISECONDS);
+        if (memoryLease == null) {
+          BasicResourceAllocator.releaseLease(concurrencyLease);
+          concurrencyLease = null;
+        }
+      }
+    } catch (final Exception e) {
+      BasicResourceAllocator.releaseLease(concurrencyLease);
+      recordWait(queue, "failed", startNanos);
+      final String message =
+          String.format(
+              "Query cancelled by Workload Manager. Cannot enqueue as the '%s' queue is full. "
+                  + "Please try again later.",
+              queue.getName());
+      logger.trace(message, e);
+      throw new ResourceUnavailableException(message);
+    } finally {
+      gate.leave(waiter);
+    }
+
+    if (concurrencyLease == null) {
+      recordWait(queue, "timeout", startNanos);
+      final String message =
+          String.format(
+              "Query cancelled by Workload Manager. Query enqueued time of %.2f seconds exceeded "
+                  + "for '%s' queue.",
+              timeout / 1000.0, queue.getName());
+      logger.trace(message);
+      throw new ResourceUnavailableException(message);
+    }
+    recordWait(queue, "admitted", startNanos);
+    return new QueueLease(concurrencyLease, memoryLease);
+  }
+
+  /** Counts the estimate in megabytes, a query never waits for more than the whole budget. */
+  @VisibleForTesting
+  static int getMemoryPermits(Long memoryEstimate, int budgetMb) {
+    if (memoryEstimate == null || memoryEstimate <= 0) {
+      return 1;
+    }
+    return (int) Math.max(1, Math.min((memoryEstimate + MB - 1) / MB, budgetMb));
+  }
+
+  private static long remainingMillis(long deadlineNanos) {
+    return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+  }
+
+  private void recordWait(WorkloadQueue queue, String outcome, long startNanos) {
+    waitTimer
+        .withTags("queue", queue.getName(), "outcome", outcome)
+        .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public GroupResourceInformation getGroupResourceInformation(
+      OptionManager optionManager, ResourceSchedulingProperties resourceSchedulingProperties) {
+    return clusterResourceInformationProvider.get();
+  }
+
+  @Override
+  public void start() throws Exception {
+    basicResourceAllocator.start();
+    this.clusterCoordinator = clusterCoordinatorProvider.get();
+  }
+
+  @Override
+  public void close() throws Exception {
+    basicResourceAllocator.close();
+  }
+
+  /** Releases both leases of an admitted query. */
+  private static final class QueueLease implements DistributedSemaphore.DistributedLease {
+    private final DistributedSemaphore.DistributedLease concurrencyLease;
+    private final DistributedSemaphore.DistributedLease memoryLease;
+
+    private QueueLease(
+        DistributedSemaphore.DistributedLease concurrencyLease,
+        DistributedSemaphore.DistributedLease memoryLease) {
+      this.concurrencyLease = concurrencyLease;
+      this.memoryLease = memoryLease;
+    }
+
+    @Override
+    public void close() throws Exception {
+      BasicResourceAllocator.releaseLease(memoryLease);
+      BasicResourceAllocator.releaseLease(concurrencyLease);
+    }
+  }
+
+  private static final class QueueResourceSet implements ResourceSet {
+    private final DistributedSemaphore.DistributedLease lease;
+    private final long memoryLimit;
+
+    private QueueResourceSet(DistributedSemaphore.DistributedLease lease, long memoryLimit) {
+      this.lease = lease;
+      this.memoryLimit = memoryLimit;
+    }
+
+    @Override
+    public long getPerNodeQueryMemoryLimit() {
+      return memoryLimit;
+    }
+
+    @Override
+    public void close() throws IOException {
+      BasicResourceAllocator.releaseLease(lease);
+    }
+  }
+
+  /**
+   * Orders the queries of a coordinator waiting for a queue by priority then arrival. Only one
+   * query at a time waits on the semaphores of the queue, the others wait for their turn.
+   */
+  @VisibleForTesting
+  static final class AdmissionGate {
+    private final PriorityQueue<Waiter> waiters =
+        new PriorityQueue<>(
+            Comparator.comparingInt((Waiter waiter) -> waiter.priority)
+                .reversed()
+                .thenComparingLong(waiter -> waiter.sequence));
+    private long sequence;
+    private Waiter admitting;
+
+    /** Returns once it is the turn of the query, null if the deadline passed before. */
+    synchronized Waiter enter(int priority, long deadlineNanos) throws InterruptedException {
+      final Waiter waiter = new Waiter(priority, sequence++);
+      waiters.add(waiter);
+      try {
+        while (admitting != null || waiters.peek() != waiter) {
+          final long remaining = deadlineNanos - System.nanoTime();
+          if (remaining <= 0) {
+            waiters.remove(waiter);
+            return null;
+          }
+          TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+      } catch (InterruptedException e) {
+        waiters.remove(waiter);
+        throw e;
+      }
+      waiters.poll();
+      admitting = waiter;
+      return waiter;
+    }
+
+    synchronized void leave(Waiter waiter) {
+      if (waiter != null && admitting == waiter) {
+        admitting = null;
+        notifyAll();
+      }
+    }
+
+    @VisibleForTesting
+    synchronized int getNumWaiters() {
+      return waiters.size();
+    }
+
+    static final class Waiter {
+      private final int priority;
+      private final long sequence;
+
+      private Waiter(int priority, long sequence) {
+        this.priority = priority;
+        this.sequence = sequence;
+      }
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import com.google.common.base.Preconditions;
+import com.typesafe.config.Config;
+
+/**
+ * A queue of the {@link MemoryAwareResourceAllocator}. Queries are admitted against both the
+ * number of queries running in the queue and the memory they are estimated to use on each node.
+ */
+public final class WorkloadQueue {
+  private final String name;
+  private final int memoryPct;
+  private final int maxConcurrency;
+  private final long timeoutMillis;
+  private final int priority;
+
+  /**
+   * @param name name of the queue
+   * @param memoryPct share of the memory of an executor the queries of the queue can use
+   *     together, 0 to only limit the concurrency
+   * @param maxConcurrency maximum number of queries running in the queue
+   * @param timeoutMillis how long queries wait to be admitted, 0 for the queue timeout option
+   * @param priority default priority of the queries routed to the queue
+   */
+  public WorkloadQueue(
+      String name, int memoryPct, int maxConcurrency, long timeoutMillis, int priority) {
+    Preconditions.checkArgument(name != null && !name.isEmpty(), "Queue name is required.");
+    Preconditions.checkArgument(
+        memoryPct >= 0 && memoryPct <= 100,
+        "Memory percentage of queue '%s' must be between 0 and 100.",
+        name);
+    Preconditions.checkArgument(
+        maxConcurrency > 0, "Concurrency of queue '%s' must be positive.", name);
+    Preconditions.checkArgument(
+        timeoutMillis >= 0, "Timeout of queue '%s' must not be negative.", name);
+    this.name = name;
+    this.memoryPct = memoryPct;
+    this.maxConcurrency = maxConcurrency;
+    this.timeoutMillis = timeoutMillis;
+    this.priority = priority;
+  }
+
+  static WorkloadQueue fromConfig(Config config) {
+    return new WorkloadQueue(
+        config.getString("name"),
+        config.hasPath("memory_pct") ? config.getInt("memory_pct") : 0,
+        config.getInt("max_concurrency"),
+        config.hasPath("timeout_millis") ? config.getLong("timeout_millis") : 0,
+        config.hasPath("priority") ? config.getInt("priority") : 0);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getMemoryPct() {
+    return memoryPct;
+  }
+
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  public long getTimeoutMillis() {
+    return timeoutMillis;
+  }
+
+  public int getPriority() {
+    return priority;
+  }
+
+  /** Returns the memory the queries of the queue can use together on each executor. */
+  long getMemoryBudget(long executorMemory) {
+    return executorMemory / 100 * memoryPct;
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "WorkloadQueue[name: %s, memory: %d%%, concurrency: %d, timeout: %d ms, priority: %d]",
+        name, memoryPct, maxConcurrency, timeoutMillis, priority);
+  }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.google.common.base.Preconditions;
+import com.typesafe.config.Config;
+import java.util.Objects;
+
+/**
+ * Routes the queries to a {@link WorkloadQueue} of the {@link MemoryAwareResourceAllocator}. A rule
+ * matches a query when all its criteria are met, criteria left unset match any query.
+ *
+ * <p>The engine criterion matches the routing engine of the query, which is the one resolved by
+ * the {@link com.dremio.resource.RuleBasedEngineSelector} when it selects one.
+ */
+public final class WorkloadRule {
+  private final String name;
+  private final String queue;
+  private final Integer priority;
+  private final String user;
+  private final String tag;
+  private final String engine;
+  private final String queryType;
+  private final String workloadClass;
+  private final Double minCost;
+
+  private WorkloadRule(Builder builder) {
+    Preconditions.checkArgument(builder.name != null, "Rule name is required.");
+    Preconditions.checkArgument(
+        builder.queue != null, "Queue of rule '%s' is required.", builder.name);
+    this.name = builder.name;
+    this.queue = builder.queue;
+    this.priority = builder.priority;
+    this.user = builder.user;
+    this.tag = builder.tag;
+    this.engine = builder.engine;
+    this.queryType = builder.queryType;
+    this.workloadClass = builder.workloadClass;
+    this.minCost = builder.minCost;
+  }
+
+  static WorkloadRule fromConfig(Config config) {
+    final Builder builder = builder(config.getString("name"), config.getString("queue"));
+    if (config.hasPath("priority")) {
+      builder.setPriority(config.getInt("priority"));
+    }
+    if (config.hasPath("user")) {
+      builder.setUser(config.getString("user"));
+    }
+    if (config.hasPath("tag")) {
+      builder.setTag(config.getString("tag"));
+    }
+    if (config.hasPath("engine")) {
+      builder.setEngine(config.getString("engine"));
+    }
+    if (config.hasPath("query_type")) {
+      builder.setQueryType(config.getString("query_type"));
+    }
+    if (config.hasPath("workload_class")) {
+      builder.setWorkloadClass(config.getString("workload_class"));
+    }
+    if (config.hasPath("min_cost")) {
+      builder.setMinCost(config.getDouble("min_cost"));
+    }
+    return builder.build();
+  }
+
+  public static Builder builder(String name, String queue) {
+    return new Builder(name, queue);
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getQueue() {
+    return queue;
+  }
+
+  /** Returns the priority of the queries routed by the rule, null for the one of the queue. */
+  public Integer getPriority() {
+    return priority;
+  }
+
+  boolean matches(
+      ResourceSchedulingContext queryContext,
+      ResourceSchedulingProperties resourceSchedulingProperties) {
+    final Double cost = resourceSchedulingProperties.getQueryCost();
+    return matches(user, queryContext.getQueryUserName())
+        && matches(tag, resourceSchedulingProperties.getRoutingTag())
+        && matches(engine, resourceSchedulingProperties.getRoutingEngine())
+        && matches(queryType, resourceSchedulingProperties.getQueryType())
+        && matches(
+            workloadClass,
+            queryContext.getQueryContextInfo().getPriority().getWorkloadClass().name())
+        && (minCost == null || (cost != null && cost >= minCost));
+  }
+
+  private static boolean matches(String expected, String actual) {
+    return expected == null || expected.equalsIgnoreCase(actual);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    appendCriterion(builder, "user", user);
+    appendCriterion(builder, "tag", tag);
+    appendCriterion(builder, "engine", engine);
+    appendCriterion(builder, "query_type", queryType);
+    appendCriterion(builder, "workload_class", workloadClass);
+    appendCriterion(builder, "min_cost", minCost);
+    if (builder.length() == 0) {
+      builder.append("any query");
+    }
+    builder.append(" -> ").append(queue);
+    if (priority != null) {
+      builder.append(" (priority ").append(priority).append(')');
+    }
+    return builder.toString();
+  }
+
+  private static void appendCriterion(StringBuilder builder, String name, Object value) {
+    if (value == null) {
+      return;
+    }
+    if (builder.length() > 0) {
+      builder.append(" and ");
+    }
+    builder.append(name).append(" = ").append(Objects.toString(value));
+  }
+
+  /** Builder for {@link WorkloadRule} */
+  public static final class Builder {
+    private final String name;
+    private final String queue;
+    private Integer priority;
+    private String user;
+    private String tag;
+    private String engine;
+    private String queryType;
+    private String workloadClass;
+    private Double minCost;
+
+    private Builder(String name, String queue) {
+      this.name = name;
+      this.queue = queue;
+    }
+
+    public Builder setPriority(int priority) {
+      this.priority = priority;
+      return this;
+    }
+
+    public Builder setUser(String user) {
+      this.user = user;
+      return this;
+    }
+
+    public Builder setTag(String tag) {
+      this.tag = tag;
+      return this;
+    }
+
+    public Builder setEngine(String engine) {
+      this.engine = engine;
+      return this;
+    }
+
+    public Builder setQueryType(String queryType) {
+      this.queryType = queryType;
+      return this;
+    }
+
+    public Builder setWorkloadClass(String workloadClass) {
+      this.workloadClass = workloadClass;
+      return this;
+    }
+
+    public Builder setMinCost(double minCost) {
+      this.minCost = minCost;
+      return this;
+    }
+
+    public WorkloadRule build() {
+      return new WorkloadRule(this);
+    }
+  }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (C) 2017-2019 Dremio Corporation
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.dremio.resource.basic;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.dremio.common.utils.protos.ExternalIdHelper;
+import com.dremio.exec.proto.CoordExecRPC;
+import com.dremio.exec.proto.CoordinationProtos;
+import com.dremio.exec.proto.UserBitShared;
+import com.dremio.options.OptionManager;
+import com.dremio.resource.GroupResourceInformation;
+import com.dremio.resource.ResourceSchedulingDecisionInfo;
+import com.dremio.resource.ResourceSchedulingProperties;
+import com.dremio.resource.ResourceSchedulingResult;
+import com.dremio.resource.ResourceSet;
+import com.dremio.resource.common.ResourceSchedulingContext;
+import com.dremio.resource.exception.ResourceAllocationException;
+import com.dremio.service.DirectProvider;
+import com.dremio.service.coordinator.ClusterCoordinator;
+import com.dremio.service.coordinator.local.LocalClusterCoordinator;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.Timeout;
+
+/** Tests for {@link MemoryAwareResourceAllocator} */
+public class MemoryAwareResourceAllocatorTest {
+  private static final long MB = 1024 * 1024;
+
+  @Rule public Timeout globalTimeout = new Timeout(30, TimeUnit.SECONDS);
+
+  private ClusterCoordinator clusterCoordinator;
+  private OptionManager optionManager;
+  private MemoryAwareResourceAllocator resourceAllocator;
+
+  @Before
+  public void setup() throws Exception {
+    clusterCoordinator = LocalClusterCoordinator.newRunningCoordinator();
+    optionManager = mock(OptionManager.class);
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_MEMORY_AWARE_QUEUES))
+        .thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_QUEUE)).thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_QUEUE_MEMORY_LIMIT))
+        .thenReturn(true);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_TIMEOUT)).thenReturn(200L);
+
+    final GroupResourceInformation resourceInformation = mock(GroupResourceInformation.class);
+    when(resourceInformation.getAverageExecutorMemory()).thenReturn(1000 * MB);
+
+    resourceAllocator =
+        new MemoryAwareResourceAllocator(
+            DirectProvider.wrap(clusterCoordinator),
+            DirectProvider.wrap(resourceInformation),
+            ImmutableList.of(
+                new WorkloadQueue("default", 50, 10, 0, 0),
+                new WorkloadQueue("etl", 0, 1, 0, 0),
+                new WorkloadQueue("reflections", 0, 10, 0, 0)),
+            ImmutableList.of(
+                WorkloadRule.builder("etl users", "etl").setUser("etl").build(),
+                WorkloadRule.builder("background", "reflections")
+                    .setWorkloadClass("BACKGROUND")
+                    .build()),
+            "default");
+    resourceAllocator.start();
+  }
+
+  @After
+  public void cleanup() throws Exception {
+    resourceAllocator.close();
+    clusterCoordinator.close();
+  }
+
+  @Test
+  public void testRouting() throws Exception {
+    ResourceSchedulingResult result =
+        resourceAllocator.allocate(
+            createQueryContext("etl", UserBitShared.WorkloadClass.GENERAL),
+            new ResourceSchedulingProperties().setQueryCost(10D));
+    ResourceSchedulingDecisionInfo decisionInfo = result.getResourceSchedulingDecisionInfo();
+    assertEquals("etl", decisionInfo.getQueueName());
+    assertEquals("etl users", decisionInfo.getRuleName());
+    assertEquals("user = etl -> etl", decisionInfo.getRuleContent());
+    result.getResourceSetFuture().get().close();
+
+    result =
+        resourceAllocator.allocate(
+            createQueryContext("foo", UserBitShared.WorkloadClass.BACKGROUND),
+            new ResourceSchedulingProperties().setQueryCost(10D));
+    assertEquals("reflections", result.getResourceSchedulingDecisionInfo().getQueueName());
+    result.getResourceSetFuture().get().close();
+
+    // the routing queue of the session comes first
+    result =
+        resourceAllocator.allocate(
+            createQueryContext("etl", UserBitShared.WorkloadClass.GENERAL),
+            new ResourceSchedulingProperties().setQueryCost(10D).setRoutingQueue("reflections"));
+    assertEquals("reflections", result.getResourceSchedulingDecisionInfo().getQueueName());
+    assertNull(result.getResourceSchedulingDecisionInfo().getRuleName());
+    result.getResourceSetFuture().get().close();
+
+    result =
+        resourceAllocator.allocate(
+            createQueryContext("foo", UserBitShared.WorkloadClass.GENERAL),
+            new ResourceSchedulingProperties().setQueryCost(10D));
+    decisionInfo = result.getResourceSchedulingDecisionInfo();
+    assertEquals("default", decisionInfo.getQueueName());
+    assertNull(decisionInfo.getRuleName());
+    assertNotNull(decisionInfo.getWorkloadClass());
+    result.getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testConcurrencyLimit() throws Exception {
+    final ResourceSet resourceSet = allocate("etl", null).getResourceSetFuture().get();
+    assertQueueFull(allocate("etl", null));
+    resourceSet.close();
+    allocate("etl", null).getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testMemoryBudget() throws Exception {
+    // the default queue can use half of the 1000MB of an executor
+    final ResourceSet resourceSet1 = allocate("foo", 300 * MB).getResourceSetFuture().get();
+    assertEquals(500 * MB, resourceSet1.getPerNodeQueryMemoryLimit());
+    final ResourceSet resourceSet2 = allocate("foo", 150 * MB).getResourceSetFuture().get();
+    assertQueueFull(allocate("foo", 100 * MB));
+
+    resourceSet1.close();
+    final ResourceSet resourceSet3 = allocate("foo", 100 * MB).getResourceSetFuture().get();
+    // more than the budget waits for the whole budget
+    assertQueueFull(allocate("foo", 2000 * MB));
+
+    resourceSet2.close();
+    resourceSet3.close();
+    allocate("foo", 2000 * MB).getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testFallsBackToBasicAllocator() throws Exception {
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_MEMORY_AWARE_QUEUES))
+        .thenReturn(false);
+    when(optionManager.getOption(BasicResourceConstants.ENABLE_QUEUE)).thenReturn(false);
+    when(optionManager.getOption(BasicResourceConstants.QUEUE_THRESHOLD_SIZE))
+        .thenReturn(30000000L);
+
+    final ResourceSchedulingResult result = allocate("etl", null);
+    assertEquals("SMALL", result.getResourceSchedulingDecisionInfo().getQueueName());
+    result.getResourceSetFuture().get().close();
+  }
+
+  @Test
+  public void testMemoryPermits() {
+    assertEquals(1, MemoryAwareResourceAllocator.getMemoryPermits(null, 100));
+    assertEquals(1, MemoryAwareResourceAllocator.getMemoryPermits(1L, 100));
+    assertEquals(2, MemoryAwareResourceAllocator.getMemoryPermits(MB + 1, 100));
+    assertEquals(100, MemoryAwareResourceAllocator.getMemoryPermits(1000 * MB, 100));
+  }
+
+  @Test
+  public void testAdmissionByPriority() throws Exception {
+    final MemoryAwareResourceAllocator.AdmissionGate gate =
+        new MemoryAwareResourceAllocator.AdmissionGate();
+    final MemoryAwareResourceAllocator.AdmissionGate.Waiter first =
+        gate.enter(0, System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+    assertNotNull(first);
+    assertNull(gate.enter(10, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50)));
+
+    final List<Integer> admitted = Collections.synchronizedList(new ArrayList<>());
+    final List<Thread> threads = new ArrayList<>();
+    for (int priority : new int[] {0, 10, 5}) {
+      final Thread thread =
+          new Thread(
+              () -> {
+                try {
+                  final MemoryAwareResourceAllocator.AdmissionGate.Waiter waiter =
+                      gate.enter(priority, System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+                  admitted.add(priority);
+                  gate.leave(waiter);
+                } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+                }
+              });
+      thread.start();
+      threads.add(thread);
+      while (gate.getNumWaiters() < threads.size()) {
+        Thread.sleep(1);
+      }
+    }
+
+    gate.leave(first);
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(ImmutableList.of(10, 5, 0), admitted);
+  }
+
+  private ResourceSchedulingResult allocate(String user, Long memoryEstimate) {
+    return resourceAllocator.allocate(
+        createQueryContext(user, UserBitShared.WorkloadClass.GENERAL),
+        new ResourceSchedulingProperties()
+            .setQueryCost(10D)
+            .setQueryMemoryEstimate(memoryEstimate));
+  }
+
+  private static void assertQueueFull(ResourceSchedulingResult result) throws Exception {
+    try {
+      result.getResourceSetFuture().get();
+      fail("Query should not be admitted");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof ResourceAllocationException);
+      assertTrue(e.getMessage().contains("Workload Manager"));
+    }
+  }
+
+  private ResourceSchedulingContext createQueryContext(
+      String user, UserBitShared.WorkloadClass workloadClass) {
+    final UserBitShared.QueryId queryId =
+        ExternalIdHelper.toQueryId(ExternalIdHelper.generateExternalId());
+    final CoordinationProtos.NodeEndpoint nodeEndpoint =
+        CoordinationProtos.NodeEndpoint.newBuilder().setAddress("host1").build();
+    return new ResourceSchedulingContext() {
+      @Override
+      public CoordExecRPC.QueryContextInformation getQueryContextInfo() {
+        return CoordExecRPC.QueryContextInformation.newBuilder()
+            .setQueryMaxAllocation(Long.MAX_VALUE)
+            .setPriority(
+                CoordExecRPC.FragmentPriority.newBuilder().setWorkloadClass(workloadClass).build())
+            .build();
+      }
+
+      @Override
+      public UserBitShared.QueryId getQueryId() {
+        return queryId;
+      }
+
+      @Override
+      public String getQueryUserName() {
+        return user;
+      }
+
+      @Override
+      public CoordinationProtos.NodeEndpoint getCurrentEndpoint() {
+        return nodeEndpoint;
+      }
+
+      @Override
+      public Collection<CoordinationProtos.NodeEndpoint> getActiveEndpoints() {
+        return ImmutableList.of(nodeEndpoint);
+      }
+
+      @Override
+      public OptionManager getOptions() {
+        return optionManager;
+      }
+    };
+  }
+}